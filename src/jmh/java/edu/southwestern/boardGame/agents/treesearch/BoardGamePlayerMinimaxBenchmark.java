@@ -0,0 +1,102 @@
+package edu.southwestern.boardGame.agents.treesearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.boardGame.heuristics.StaticOthelloWPCHeuristic;
+import edu.southwestern.boardGame.othello.Othello;
+import edu.southwestern.boardGame.othello.OthelloState;
+import edu.southwestern.parameters.Parameters;
+
+/**
+ * Choosing an Othello move with minimax, alpha-beta, and iterative deepening
+ * alpha-beta search on a bitboard, using the static weighted piece counter. Moves are chosen for several positions
+ * from the middle of random games.
+ *
+ * @author Jacob Schrum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardGamePlayerMinimaxBenchmark {
+
+	// Random moves played from the start to reach each position
+	private static final int OPENING_MOVES = 20;
+	private static final int NUM_POSITIONS = 8;
+
+	@Param({ "2", "3", "4" })
+	public int depth;
+
+	private BoardGamePlayerMinimax<OthelloState> minimax;
+	private BoardGamePlayerMinimaxAlphaBetaPruning<OthelloState> alphaBeta;
+	private BoardGamePlayerIterativeDeepeningAlphaBeta<OthelloState> iterativeDeepening;
+	private List<OthelloState> positions;
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "minimaxSearchDepth:" + depth });
+		MMNEAT.boardGame = new Othello();
+		minimax = new BoardGamePlayerMinimax<OthelloState>(new StaticOthelloWPCHeuristic());
+		alphaBeta = new BoardGamePlayerMinimaxAlphaBetaPruning<OthelloState>(new StaticOthelloWPCHeuristic());
+		iterativeDeepening = new BoardGamePlayerIterativeDeepeningAlphaBeta<OthelloState>(new StaticOthelloWPCHeuristic());
+		Random random = new Random(0);
+		positions = new ArrayList<OthelloState>(NUM_POSITIONS);
+		while (positions.size() < NUM_POSITIONS) {
+			OthelloState state = new OthelloState();
+			for (int i = 0; i < OPENING_MOVES && !state.endState(); i++) {
+				List<OthelloState> moves = new ArrayList<OthelloState>(state.possibleBoardGameStates(state));
+				if (moves.isEmpty()) {
+					break;
+				}
+				state = moves.get(random.nextInt(moves.size()));
+			}
+			if (!state.endState()) {
+				positions.add(state);
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		MMNEAT.clearClasses();
+	}
+
+	@Benchmark
+	public OthelloState minimax() {
+		next = (next + 1) % positions.size();
+		return minimax.takeAction(positions.get(next));
+	}
+
+	@Benchmark
+	public OthelloState alphaBeta() {
+		next = (next + 1) % positions.size();
+		return alphaBeta.takeAction(positions.get(next));
+	}
+
+	@Benchmark
+	public OthelloState iterativeDeepening() {
+		next = (next + 1) % positions.size();
+		return iterativeDeepening.takeAction(positions.get(next));
+	}
+}
@@ -0,0 +1,58 @@
+package edu.southwestern.evolution.genotypes;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.EvolutionaryHistory;
+
+/**
+ * Genotypes of realistic size for the benchmarks. Parameters must be
+ * initialized first.
+ *
+ * @author Jacob Schrum
+ */
+public class BenchmarkGenotypes {
+
+	/**
+	 * Start a new archetype from a minimal genotype
+	 *
+	 * @param numIn number of inputs
+	 * @param numOut number of outputs
+	 * @return minimal genotype with fully connected inputs and outputs
+	 */
+	public static TWEANNGenotype minimal(int numIn, int numOut) {
+		TWEANNGenotype g = new TWEANNGenotype(numIn, numOut, 0);
+		MMNEAT.genotype = g.copy();
+		EvolutionaryHistory.initArchetype(0);
+		return g;
+	}
+
+	/**
+	 * Grow a genotype from the archetype with rounds of structural and weight
+	 * mutation. Every genotype made after the same call to minimal shares the
+	 * archetype, so they can be crossed over.
+	 *
+	 * @param start genotype to grow (copied, not modified)
+	 * @param rounds rounds of link, splice and weight mutation
+	 * @return mutated copy of start
+	 */
+	public static TWEANNGenotype grown(TWEANNGenotype start, int rounds) {
+		TWEANNGenotype g = (TWEANNGenotype) start.copy();
+		for (int i = 0; i < rounds; i++) {
+			g.linkMutation();
+			g.spliceMutation();
+			g.weightMutation();
+		}
+		return g;
+	}
+
+	/**
+	 * Minimal genotype grown with rounds of mutation
+	 *
+	 * @param numIn number of inputs
+	 * @param numOut number of outputs
+	 * @param rounds rounds of link, splice and weight mutation
+	 * @return the genotype
+	 */
+	public static TWEANNGenotype random(int numIn, int numOut, int rounds) {
+		return grown(minimal(numIn, numOut), rounds);
+	}
+}
@@ -0,0 +1,148 @@
+package edu.southwestern.evolution.genotypes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.EvolutionaryHistory;
+import edu.southwestern.networks.TWEANN;
+import edu.southwestern.networks.hyperneat.HyperNEATTask;
+import edu.southwestern.networks.hyperneat.Substrate;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.util.datastructures.Pair;
+import edu.southwestern.util.datastructures.Triple;
+
+/**
+ * Construction of substrate networks from an evolved CPPN, for several
+ * substrate shapes. The substrates are connected the same way as in
+ * HyperNEATDummyTask (input to process to output), so the CPPN made for
+ * that task fits every shape. The substrate genotypes are also large enough
+ * to show how phenotype construction and link mutation scale with the
+ * number of genes.
+ *
+ * @author Jacob Schrum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HyperNEATCPPNGenotypeBenchmark {
+
+	// Width x height of the input, process and output substrates
+	@Param({ "10x10:10x10:4x1", "30x30:20x20:5x1", "100x10:100x10:2x2" })
+	public String substrates;
+
+	private HyperNEATCPPNGenotype genotype;
+	private HyperNEATTask task;
+	private TWEANNGenotype substrateGenotype;
+
+	/**
+	 * Three layers of substrates with configurable sizes
+	 */
+	private static class LayeredTask implements HyperNEATTask {
+		private final List<Substrate> subs = new ArrayList<Substrate>();
+
+		LayeredTask(String shape) {
+			String[] layers = shape.split(":");
+			subs.add(substrate(layers[0], Substrate.INPUT_SUBSTRATE, 0, "I_0"));
+			subs.add(substrate(layers[1], Substrate.PROCCESS_SUBSTRATE, 4, "P_0"));
+			subs.add(substrate(layers[2], Substrate.OUTPUT_SUBSTRATE, 8, "O_0"));
+		}
+
+		private static Substrate substrate(String size, int stype, int y, String name) {
+			String[] dims = size.split("x");
+			return new Substrate(new Pair<Integer, Integer>(Integer.parseInt(dims[0]), Integer.parseInt(dims[1])), stype, new Triple<Integer, Integer, Integer>(0, y, 0), name);
+		}
+
+		@Override
+		public int numCPPNInputs() {
+			return HyperNEATTask.DEFAULT_NUM_CPPN_INPUTS;
+		}
+
+		@Override
+		public double[] filterCPPNInputs(double[] fullInputs) {
+			return fullInputs;
+		}
+
+		@Override
+		public List<Substrate> getSubstrateInformation() {
+			return subs;
+		}
+
+		@Override
+		public List<Triple<String, String, Boolean>> getSubstrateConnectivity() {
+			List<Triple<String, String, Boolean>> pairs = new ArrayList<Triple<String, String, Boolean>>();
+			pairs.add(new Triple<String, String, Boolean>("I_0", "P_0", Boolean.FALSE));
+			pairs.add(new Triple<String, String, Boolean>("P_0", "O_0", Boolean.FALSE));
+			return pairs;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:false", "hyperNEAT:true",
+				"task:edu.southwestern.networks.hyperneat.HyperNEATDummyTask", "allowMultipleFunctions:true", "linkExpressionThreshold:0.2" });
+		MMNEAT.loadClasses();
+		genotype = new HyperNEATCPPNGenotype();
+		MMNEAT.genotype = genotype.copy();
+		EvolutionaryHistory.initArchetype(0);
+		// A CPPN of typical size after some generations
+		for (int i = 0; i < 30; i++) {
+			genotype.linkMutation();
+			genotype.spliceMutation();
+			genotype.weightMutation();
+		}
+		task = new LayeredTask(substrates);
+		substrateGenotype = genotype.getSubstrateGenotype(task);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		MMNEAT.clearClasses();
+	}
+
+	@Benchmark
+	public TWEANNGenotype getSubstrateGenotype() {
+		return genotype.getSubstrateGenotype(task);
+	}
+
+	/**
+	 * Original construction that queries the CPPN once per link
+	 */
+	@Benchmark
+	public TWEANNGenotype getSubstrateGenotypeSequentially() {
+		return genotype.getSubstrateGenotypeSequentially(task, genotype.getCPPN());
+	}
+
+	@Benchmark
+	public TWEANN substratePhenotype() {
+		return new TWEANN(substrateGenotype);
+	}
+
+	/**
+	 * Adds one link per call, which barely changes the size of the substrate
+	 * genotype over a trial
+	 */
+	@Benchmark
+	public TWEANNGenotype substrateLinkMutation() {
+		substrateGenotype.linkMutation();
+		return substrateGenotype;
+	}
+}
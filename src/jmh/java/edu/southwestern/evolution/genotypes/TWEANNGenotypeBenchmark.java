@@ -0,0 +1,92 @@
+package edu.southwestern.evolution.genotypes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.crossover.network.TWEANNCrossover;
+import edu.southwestern.networks.TWEANN;
+import edu.southwestern.parameters.Parameters;
+
+/**
+ * Genetic operators and phenotype construction of TWEANNGenotype.
+ * Mutation and crossover change the genotypes they are applied to, so they
+ * work on fresh copies of the same parents every invocation.
+ *
+ * @author Jacob Schrum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TWEANNGenotypeBenchmark {
+
+	// Inputs, outputs and rounds of mutation
+	@Param({ "10:4:20", "50:5:100", "200:10:400" })
+	public String shape;
+
+	private TWEANNGenotype parent1;
+	private TWEANNGenotype parent2;
+	private TWEANNGenotype child1;
+	private TWEANNGenotype child2;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:false", "crossExcessRate:0.5" });
+		MMNEAT.crossoverOperator = new TWEANNCrossover();
+		String[] parts = shape.split(":");
+		int rounds = Integer.parseInt(parts[2]);
+		TWEANNGenotype start = BenchmarkGenotypes.minimal(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+		// Related parents that have diverged, like members of one population
+		TWEANNGenotype ancestor = BenchmarkGenotypes.grown(start, rounds);
+		parent1 = BenchmarkGenotypes.grown(ancestor, rounds / 10);
+		parent2 = BenchmarkGenotypes.grown(ancestor, rounds / 10);
+	}
+
+	@Setup(Level.Invocation)
+	public void copyParents() {
+		child1 = (TWEANNGenotype) parent1.copy();
+		child2 = (TWEANNGenotype) parent2.copy();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		MMNEAT.clearClasses();
+	}
+
+	@Benchmark
+	public TWEANNGenotype mutate() {
+		child1.mutate();
+		return child1;
+	}
+
+	@Benchmark
+	public Object crossover() {
+		return child1.crossover(child2);
+	}
+
+	@Benchmark
+	public TWEANN getPhenotype() {
+		return parent1.getPhenotype();
+	}
+
+	@Benchmark
+	public Object copy() {
+		return parent1.copy();
+	}
+}
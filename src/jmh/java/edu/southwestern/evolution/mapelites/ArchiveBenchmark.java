@@ -0,0 +1,118 @@
+package edu.southwestern.evolution.mapelites;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.scores.Score;
+
+/**
+ * Adding candidates to a MAP-Elites archive (without saving to disk).
+ * Candidates are either scored in every bin, like the innovation engine
+ * tasks, or in only a few bins.
+ *
+ * @author Jacob Schrum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArchiveBenchmark {
+
+	// Number of bins scored by each sparse candidate
+	private static final int SCORED_BINS = 10;
+	// Different candidates that are added in turn
+	private static final int NUM_CANDIDATES = 256;
+
+	@Param({ "1000", "100000" })
+	public int numBins;
+
+	@Param({ "dense", "sparse" })
+	public String candidates;
+
+	private Archive<Object> archive;
+	private Score<Object>[] scores;
+	private int next = 0;
+
+	/**
+	 * Bins are only numbered. The benchmark sets the number of bins before
+	 * the archive creates this mapping.
+	 */
+	public static class NumberedBinLabels implements BinLabels<Object> {
+		static int bins;
+
+		@Override
+		public List<String> binLabels() {
+			throw new UnsupportedOperationException("Labels are only needed when saving");
+		}
+
+		@Override
+		public int numBins() {
+			return bins;
+		}
+
+		@Override
+		public String binLabel(int binIndex) {
+			return "bin" + binIndex;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Trial)
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false",
+				"mapElitesBinLabels:" + NumberedBinLabels.class.getName() });
+		NumberedBinLabels.bins = numBins;
+		boolean sparse = candidates.equals("sparse");
+		archive = sparse ? new SparseArchive<Object>(false) : new Archive<Object>(false);
+		Random random = new Random(0);
+		scores = (Score<Object>[]) new Score<?>[NUM_CANDIDATES];
+		for (int i = 0; i < scores.length; i++) {
+			if (sparse) {
+				int[] bins = new int[SCORED_BINS];
+				double[] binScores = new double[SCORED_BINS];
+				for (int j = 0; j < SCORED_BINS; j++) {
+					// Distinct bins
+					bins[j] = (random.nextInt(numBins / SCORED_BINS) * SCORED_BINS) + j;
+					binScores[j] = random.nextDouble();
+				}
+				scores[i] = BinnedScore.sparse(null, bins, binScores);
+			} else {
+				double[] binScores = new double[numBins];
+				for (int j = 0; j < numBins; j++) {
+					binScores[j] = random.nextDouble();
+				}
+				scores[i] = BinnedScore.dense(null, binScores);
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		MMNEAT.clearClasses();
+	}
+
+	@Benchmark
+	public boolean add() {
+		next = (next + 1) % scores.length;
+		return archive.add(scores[next]);
+	}
+}
@@ -0,0 +1,64 @@
+package edu.southwestern.evolution.nsga2;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.southwestern.evolution.genotypes.Genotype;
+
+/**
+ * NSGA2 selection of half of a combined parent and child population, which
+ * is what happens every generation of a mu + lambda run.
+ *
+ * @author Jacob Schrum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NSGA2Benchmark {
+
+	// Combined size of parent and child populations
+	@Param({ "100", "1000", "5000" })
+	public int populationSize;
+
+	@Param({ "2", "3", "5" })
+	public int numObjectives;
+
+	private NSGA2Score<Object>[] scores;
+
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(0);
+		scores = (NSGA2Score<Object>[]) new NSGA2Score<?>[populationSize];
+		for (int i = 0; i < populationSize; i++) {
+			double[] objectives = new double[numObjectives];
+			for (int j = 0; j < numObjectives; j++) {
+				// Fitness values of evolved agents are often coarse, so include ties
+				objectives[j] = random.nextInt(100);
+			}
+			scores[i] = new NSGA2Score<Object>(null, objectives, null, new double[0]);
+		}
+	}
+
+	@Benchmark
+	public ArrayList<Genotype<Object>> staticSelection() {
+		return NSGA2.staticSelection(populationSize / 2, scores);
+	}
+}
@@ -0,0 +1,82 @@
+package edu.southwestern.networks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.genotypes.BenchmarkGenotypes;
+import edu.southwestern.evolution.genotypes.TWEANNGenotype;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.util.random.RandomNumbers;
+
+/**
+ * Activation of evolved networks, both as a plain TWEANN and compiled.
+ * Sizes range from a small control network to a large one like those
+ * used with many sensors (e.g. Ms. Pac-Man with all sensors).
+ *
+ * @author Jacob Schrum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TWEANNBenchmark {
+
+	// Inputs, outputs and rounds of mutation
+	@Param({ "10:4:20", "50:5:100", "200:10:400" })
+	public String shape;
+
+	@Param({ "false", "true" })
+	public boolean recurrency;
+
+	private TWEANN network;
+	private CompiledTWEANN compiled;
+	private double[][] inputs;
+	private int step = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:" + recurrency });
+		String[] parts = shape.split(":");
+		TWEANNGenotype g = BenchmarkGenotypes.random(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+		network = new TWEANN(g);
+		compiled = new CompiledTWEANN(g);
+		// Different inputs each step, as in a real evaluation
+		inputs = new double[64][];
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = RandomNumbers.randomArray(network.numInputs());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		MMNEAT.clearClasses();
+	}
+
+	@Benchmark
+	public double[] process() {
+		step = (step + 1) % inputs.length;
+		return network.process(inputs[step]);
+	}
+
+	@Benchmark
+	public double[] processCompiled() {
+		step = (step + 1) % inputs.length;
+		return compiled.process(inputs[step]);
+	}
+}
@@ -0,0 +1,97 @@
+package edu.southwestern.util.graphics;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.genotypes.BenchmarkGenotypes;
+import edu.southwestern.networks.Network;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.interactive.picbreeder.PicbreederTask;
+import edu.southwestern.util.datastructures.ArrayUtil;
+
+/**
+ * Compares CPPNRenderer with the ways Picbreeder images used to be drawn:
+ * one pixel at a time, and one batch per column of pixels.
+ *
+ * @author Jacob Schrum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CPPNRendererBenchmark {
+
+	@Param({ "64", "256", "1024" })
+	public int size;
+
+	// Rounds of link, splice and weight mutation applied to the starting CPPN
+	@Param({ "10", "50" })
+	public int mutations;
+
+	private Network cppn;
+	private double[] inputMultiples;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:false", "allowMultipleFunctions:true", "includeFullSigmoidFunction:true", "includeFullGaussFunction:true", "includeCosineFunction:true", "includeSineFunction:true" });
+		cppn = BenchmarkGenotypes.random(PicbreederTask.CPPN_NUM_INPUTS, PicbreederTask.CPPN_NUM_OUTPUTS, mutations).getPhenotype();
+		inputMultiples = ArrayUtil.doubleOnes(PicbreederTask.CPPN_NUM_INPUTS);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		MMNEAT.clearClasses();
+	}
+
+	@Benchmark
+	public BufferedImage perPixel() {
+		BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				float[] hsb = GraphicsUtil.getHSBFromCPPN(cppn, x, y, size, size, inputMultiples, -1);
+				image.setRGB(x, y, Color.HSBtoRGB(hsb[GraphicsUtil.HUE_INDEX], hsb[GraphicsUtil.SATURATION_INDEX], hsb[GraphicsUtil.BRIGHTNESS_INDEX]));
+			}
+		}
+		return image;
+	}
+
+	@Benchmark
+	public BufferedImage columnBatches() {
+		BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+		double[][] columnInputs = new double[size][];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				columnInputs[y] = GraphicsUtil.getCPPNInputs(x, y, size, size, inputMultiples, -1);
+			}
+			double[][] columnOutputs = cppn.processBatch(columnInputs);
+			for (int y = 0; y < size; y++) {
+				float[] hsb = GraphicsUtil.rangeRestrictHSB(columnOutputs[y]);
+				image.setRGB(x, y, Color.HSBtoRGB(hsb[GraphicsUtil.HUE_INDEX], hsb[GraphicsUtil.SATURATION_INDEX], hsb[GraphicsUtil.BRIGHTNESS_INDEX]));
+			}
+		}
+		return image;
+	}
+
+	@Benchmark
+	public BufferedImage tiled() {
+		return CPPNRenderer.image(cppn, size, size, inputMultiples, -1);
+	}
+}
@@ -0,0 +1,78 @@
+package edu.southwestern.util.random;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Compares drawing random numbers on all cores at once from one shared
+ * java.util.Random (how all evaluations used to share
+ * RandomNumbers.randomGenerator) with drawing from
+ * RandomNumbers.randomGenerator while each thread has its own RandomStream
+ * bound (how evaluations draw now). The shared Random updates its seed with a
+ * compare-and-set on every call, so threads keep invalidating each other's
+ * cache line and retrying.
+ *
+ * @author Jacob Schrum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class RandomStreamBenchmark {
+
+	private Random shared;
+	private RandomStream root;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		shared = new Random(0);
+		root = new RandomStream(0);
+	}
+
+	/**
+	 * Stream bound to one benchmark thread for the whole trial
+	 */
+	@State(Scope.Thread)
+	public static class BoundStream {
+
+		private Random previous;
+
+		@Setup(Level.Trial)
+		public void bind(RandomStreamBenchmark benchmark, ThreadParams thread) {
+			previous = RandomNumbers.bindStream(benchmark.root.child(thread.getThreadIndex()));
+		}
+
+		@TearDown(Level.Trial)
+		public void unbind() {
+			RandomNumbers.unbindStream(previous);
+		}
+	}
+
+	@Benchmark
+	public double sharedRandom() {
+		return shared.nextDouble();
+	}
+
+	@Benchmark
+	public double boundStreams(BoundStream stream) {
+		return RandomNumbers.randomGenerator.nextDouble();
+	}
+}
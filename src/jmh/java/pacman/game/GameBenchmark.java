@@ -0,0 +1,81 @@
+package pacman.game;
+
+import java.util.EnumMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.parameters.Parameters;
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+
+/**
+ * Time steps of Ms. Pac-Man with random legal moves for every agent, and
+ * copying of the game state (as done by controllers that search ahead).
+ * A new game is started whenever the current one ends.
+ *
+ * @author Jacob Schrum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+
+	private Game game;
+	private Random random;
+	private EnumMap<GHOST, MOVE> ghostMoves;
+	private long seed = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false" });
+		random = new Random(0);
+		ghostMoves = new EnumMap<GHOST, MOVE>(GHOST.class);
+		game = new Game(seed);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		MMNEAT.clearClasses();
+	}
+
+	private MOVE randomMove(MOVE[] possible) {
+		return possible.length == 0 ? MOVE.NEUTRAL : possible[random.nextInt(possible.length)];
+	}
+
+	@Benchmark
+	public Game advanceGame() {
+		if (game.gameOver()) {
+			game = new Game(++seed);
+		}
+		MOVE pacManMove = randomMove(game.getPossibleMoves(game.getPacmanCurrentNodeIndex()));
+		for (GHOST ghost : GHOST.values()) {
+			ghostMoves.put(ghost, game.doesGhostRequireAction(ghost)
+					? randomMove(game.getPossibleMoves(game.getGhostCurrentNodeIndex(ghost), game.getGhostLastMoveMade(ghost)))
+					: MOVE.NEUTRAL);
+		}
+		game.advanceGame(pacManMove, ghostMoves);
+		return game;
+	}
+
+	@Benchmark
+	public Game copy() {
+		return game.copy();
+	}
+}
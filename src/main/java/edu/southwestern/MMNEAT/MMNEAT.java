@@ -16,6 +16,7 @@ import edu.southwestern.breve2D.dynamics.Breve2DDynamics;
 import edu.southwestern.data.ResultSummaryUtilities;
 import edu.southwestern.evolution.EA;
 import edu.southwestern.evolution.EvolutionaryHistory;
+import edu.southwestern.evolution.GenerationalEA;
 import edu.southwestern.evolution.ScoreHistory;
 import edu.southwestern.evolution.crossover.Crossover;
 import edu.southwestern.evolution.genotypes.CombinedGenotype;
@@ -47,6 +48,7 @@ import edu.southwestern.networks.hyperneat.SubstrateCoordinateMapping;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.scores.Score;
+import edu.southwestern.tasks.EvaluationPool;
 import edu.southwestern.tasks.MultiplePopulationTask;
 import edu.southwestern.tasks.Task;
 import edu.southwestern.tasks.boardGame.MultiPopulationCompetativeCoevolutionBoardGameTask;
@@ -143,6 +145,7 @@ public class MMNEAT {
 	public static boolean blueprints = false;
 	@SuppressWarnings("rawtypes") // applies to any population type
 	public static PerformanceLog performanceLog;
+	public static MMNEATLog evaluationPoolLog;
 	public static MsPacManControllerInputOutputMediator pacmanInputOutputMediator;
 	public static GhostControllerInputOutputMediator ghostsInputOutputMediator;
 	public static MsPacManControllerInputOutputMediator[] coevolutionMediators = null;
@@ -747,6 +750,10 @@ public class MMNEAT {
 				if (Parameters.parameters.booleanParameter("logPerformance") && !multiPopulationCoevolution) {
 					performanceLog = new PerformanceLog("Performance");
 				}
+				if (Parameters.parameters.booleanParameter("logEvaluationPool") && Parameters.parameters.booleanParameter("parallelEvaluations")) {
+					// Number of lines per generation depends on the number of UCB1 batches
+					evaluationPoolLog = new MMNEATLog("EvaluationPool", false, true);
+				}
 				if (Parameters.parameters.booleanParameter("logMutationAndLineage")) {
 					EvolutionaryHistory.initLineageAndMutationLogs();
 				}
@@ -816,8 +823,11 @@ public class MMNEAT {
 		genotype = null;
 		experiment = null;
 		performanceLog = null;
+		evaluationPoolLog = null;
 		EvolutionaryHistory.archetypes = null;
+		EvolutionaryHistory.archetypeOut = null;
 		Executor.close();
+		EvaluationPool.shutdown();
 	}
 
 	/**
@@ -1012,6 +1022,10 @@ public class MMNEAT {
 		if (performanceLog != null) {
 			performanceLog.close();
 		}
+		if (evaluationPoolLog != null) {
+			evaluationPoolLog.close();
+			evaluationPoolLog = null;
+		}
 		if (EvolutionaryHistory.tweannLog != null) {
 			EvolutionaryHistory.tweannLog.close();
 			EvolutionaryHistory.tweannLog = null;
@@ -1024,6 +1038,10 @@ public class MMNEAT {
 			EvolutionaryHistory.lineageLog.close();
 			EvolutionaryHistory.lineageLog = null;
 		}
+		if (EvolutionaryHistory.lineageData != null) {
+			EvolutionaryHistory.lineageData.close();
+			EvolutionaryHistory.lineageData = null;
+		}
 	}
 
 	/**
@@ -1067,4 +1085,20 @@ public class MMNEAT {
 		if (performanceLog != null)
 			performanceLog.log(combined, generation);
 	}
+
+	/**
+	 * Write timing information about a batch of parallel evaluations to the
+	 * evaluation pool log, if it is being used
+	 *
+	 * @param phase
+	 *            Why the batch was evaluated (e.g. whole population, or UCB1 extra evals)
+	 * @param metrics
+	 *            Timing information from the EvaluationPool
+	 */
+	public static void logEvaluationPoolMetrics(String phase, EvaluationPool.Metrics metrics) {
+		if (evaluationPoolLog != null) {
+			int generation = ea instanceof GenerationalEA ? ((GenerationalEA) ea).currentGeneration() : 0;
+			evaluationPoolLog.log(generation + "\t" + phase + "\t" + metrics);
+		}
+	}
 }
@@ -0,0 +1,70 @@
+package edu.southwestern.boardGame;
+
+/**
+ * Position of a two player board game stored in bitboards: one long per kind
+ * of piece, with one bit per space of the board. Unlike a BoardGameState, a
+ * Bitboard is changed in place by making a move and changed back by taking
+ * the move back, so a tree search can explore a whole game tree with a single
+ * Bitboard instead of allocating a copy of the board for every child. Each
+ * position also keeps a Zobrist hash key that is updated along with the
+ * moves, so searched positions can be stored in a transposition table.
+ *
+ * Moves are encoded as ints in a way that only the Bitboard of each game
+ * needs to understand.
+ *
+ * @author Jacob Schrum
+ */
+public interface Bitboard {
+
+	/**
+	 * Largest number of moves that any position of this game can have
+	 *
+	 * @return maximum number of moves written by generateMoves
+	 */
+	public int maxMoves();
+
+	/**
+	 * Writes all moves that can be made from this position into moves,
+	 * starting at index start. If the current player has to pass, the only
+	 * move is the pass move of the game. Should not be called on an end state.
+	 *
+	 * @param moves array to fill, with room for maxMoves() moves after start
+	 * @param start index of the first move
+	 * @return number of moves written
+	 */
+	public int generateMoves(int[] moves, int start);
+
+	/**
+	 * Plays a move generated by generateMoves
+	 *
+	 * @param move encoded move
+	 */
+	public void makeMove(int move);
+
+	/**
+	 * Takes back the last move made by makeMove, restoring the exact previous
+	 * position
+	 */
+	public void unmakeMove();
+
+	/**
+	 * Zobrist hash key of the position, including the player to move
+	 *
+	 * @return hash key
+	 */
+	public long zobristKey();
+
+	/**
+	 * Returns true if the game is over in this position
+	 *
+	 * @return true if no more moves can be made
+	 */
+	public boolean endState();
+
+	/**
+	 * Returns the index of the player who makes the next move
+	 *
+	 * @return index of the player about to move
+	 */
+	public int getCurrentPlayer();
+}
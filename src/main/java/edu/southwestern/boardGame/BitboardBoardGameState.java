@@ -0,0 +1,26 @@
+package edu.southwestern.boardGame;
+
+/**
+ * BoardGameState that can be converted to and from a Bitboard, so that tree
+ * searches can play moves on the Bitboard and only create states for the
+ * positions they need to evaluate or return.
+ *
+ * @author Jacob Schrum
+ */
+public interface BitboardBoardGameState<B extends Bitboard> extends BoardGameState {
+
+	/**
+	 * Returns a new Bitboard holding the same position as this state
+	 *
+	 * @return Bitboard of this position
+	 */
+	public B toBitboard();
+
+	/**
+	 * Overwrites this state with the position of a Bitboard. Used to reuse
+	 * the same state objects for every position evaluated during a search.
+	 *
+	 * @param board Bitboard of the same game
+	 */
+	public void loadBitboard(B board);
+}
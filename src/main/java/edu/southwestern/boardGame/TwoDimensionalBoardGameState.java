@@ -268,8 +268,19 @@ public abstract class TwoDimensionalBoardGameState implements BoardGameState {
 	 */
 	@Override
 	public double[] getDescriptor() {
-
 		double[] features = new double[getBoardWidth()*getBoardHeight()];
+		fillDescriptor(features);
+		return features;
+	}
+	
+	/**
+	 * Writes the descriptor of this BoardGameState into an existing array,
+	 * so that callers evaluating many states can reuse one array
+	 * 
+	 * @param features double[] of length getBoardWidth()*getBoardHeight()
+	 */
+	public void fillDescriptor(double[] features) {
+		Arrays.fill(features, 0);
 		int index = 0;
 		
 		// This method will not work with BoardGames with more than 2 Players TODO: Generalize this?
@@ -282,8 +293,6 @@ public abstract class TwoDimensionalBoardGameState implements BoardGameState {
 				}
 			}
 		}
-
-		return features;
 	}
 	
 	
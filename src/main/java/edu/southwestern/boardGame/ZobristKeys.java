@@ -0,0 +1,31 @@
+package edu.southwestern.boardGame;
+
+import java.util.Random;
+
+/**
+ * Random keys for Zobrist hashing of board positions. The hash key of a
+ * position is the XOR of the keys of its features (each piece on each space,
+ * the player to move, etc.), so it can be updated in constant time whenever a
+ * single feature changes. Keys come from a fixed seed so that hash keys are
+ * the same in every run.
+ *
+ * @author Jacob Schrum
+ */
+public class ZobristKeys {
+
+	/**
+	 * Creates a table of random keys
+	 *
+	 * @param size number of keys
+	 * @param seed seed specific to the game using the keys
+	 * @return array of random keys
+	 */
+	public static long[] create(int size, long seed) {
+		Random random = new Random(seed);
+		long[] keys = new long[size];
+		for(int i = 0; i < size; i++) {
+			keys[i] = random.nextLong();
+		}
+		return keys;
+	}
+}
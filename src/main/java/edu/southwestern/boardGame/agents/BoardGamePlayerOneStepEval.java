@@ -29,11 +29,7 @@ public class BoardGamePlayerOneStepEval<T extends BoardGameState> extends Heuris
 		List<T> poss = new ArrayList<T>();
 		poss.addAll(current.possibleBoardGameStates(current));
 		double[] utilities = new double[poss.size()]; // Stores the network's ouputs
-		
-		int index = 0;
-		for(T bgs : poss){ // Gets the network's outputs for all possible BoardGameStates
-			utilities[index++] = boardHeuristic.heuristicEvalution(bgs);
-		}
+		boardHeuristic.heuristicEvalutions(poss, utilities); // Gets the network's outputs for all possible BoardGameStates at once
 
 		return poss.get(StatisticsUtilities.argmax(utilities)); // Returns the BoardGameState which produced the highest network output
 	}
@@ -5,11 +5,12 @@ import java.util.List;
 import java.util.Random;
 
 import edu.southwestern.boardGame.BoardGameState;
-import edu.southwestern.util.random.RandomNumbers;
+import edu.southwestern.tasks.EvaluationContext;
 
 public class BoardGamePlayerRandom<T extends BoardGameState> implements BoardGamePlayer<T> {
 	
-	Random random = RandomNumbers.randomGenerator;
+	// Only set by setRandomSeed; otherwise the random numbers of the current evaluation are used
+	Random random = null;
 	
 	/**
 	 * Chooses a random action out of the list of possible actions at a given BoardGameState
@@ -21,11 +22,11 @@ public class BoardGamePlayerRandom<T extends BoardGameState> implements BoardGam
 	public T takeAction(T current) {
 		List<T> poss = new ArrayList<T>();
 		poss.addAll(current.possibleBoardGameStates(current));
-		T temp = poss.get(random.nextInt(poss.size()));
+		T temp = poss.get((random == null ? EvaluationContext.random() : random).nextInt(poss.size()));
 		return temp;
 	}
 	
 	public void setRandomSeed(long seed){
-		random.setSeed(seed);
+		random = new Random(seed);
 	}
 }
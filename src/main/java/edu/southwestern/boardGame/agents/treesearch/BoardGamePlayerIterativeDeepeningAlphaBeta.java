@@ -0,0 +1,278 @@
+package edu.southwestern.boardGame.agents.treesearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import edu.southwestern.boardGame.Bitboard;
+import edu.southwestern.boardGame.BitboardBoardGameState;
+import edu.southwestern.boardGame.BoardGameState;
+import edu.southwestern.boardGame.heuristics.BoardGameHeuristic;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.EvaluationContext;
+import edu.southwestern.util.stats.StatisticsUtilities;
+
+/**
+ * Alpha-Beta search on a Bitboard of the current state. Moves are made and
+ * taken back on one Bitboard instead of creating a BoardGameState for every
+ * node, and states are only filled in from the Bitboard when the heuristic
+ * has to evaluate them. Searched positions are kept in a transposition table,
+ * and the search is repeated with increasing depth so that every node can try
+ * the best move from the previous search first. The children of each node
+ * are evaluated by the heuristic as one batch, which decides the order of the
+ * remaining moves, and the leaves below each node are scored as one batch too.
+ *
+ * Values from the transposition table are only reused for the same remaining
+ * depth, so the value of each move is the same as for
+ * BoardGamePlayerMinimaxAlphaBetaPruning with the same minimaxSearchDepth.
+ * States of games without a Bitboard are searched like
+ * BoardGamePlayerMinimaxAlphaBetaPruning does.
+ *
+ * @author Jacob Schrum
+ */
+public class BoardGamePlayerIterativeDeepeningAlphaBeta<T extends BoardGameState> extends BoardGamePlayerMinimaxAlphaBetaPruning<T> {
+
+	private int searchDepth;
+	private TranspositionTable table;
+
+	// Moves of every node on the current path, and the scores used to order them
+	private int[] moves = new int[0];
+	private double[] scores = new double[0];
+	private double[] batchScores = new double[0];
+	// States the positions of the Bitboard are loaded into for the heuristic
+	private final List<T> pool = new ArrayList<T>();
+	private final List<T> batch = new ArrayList<T>();
+
+	public BoardGamePlayerIterativeDeepeningAlphaBeta() {
+		super();
+		init();
+	}
+
+	public BoardGamePlayerIterativeDeepeningAlphaBeta(BoardGameHeuristic<T> bgh) {
+		super(bgh);
+		init();
+	}
+
+	private void init() {
+		searchDepth = Parameters.parameters.integerParameter("minimaxSearchDepth");
+		table = new TranspositionTable(Parameters.parameters.integerParameter("minimaxTranspositionTableBits"));
+	}
+
+	/**
+	 * Stored values were found with the previous heuristic, so they are discarded
+	 */
+	@Override
+	public void setHeuristic(BoardGameHeuristic<T> bgh) {
+		super.setHeuristic(bgh);
+		if(table != null) table.clear();
+	}
+
+	@Override
+	public T takeAction(T current) {
+		if(!(current instanceof BitboardBoardGameState)) {
+			return super.takeAction(current);
+		}
+		Bitboard board = ((BitboardBoardGameState<?>) current).toBitboard();
+		int size = (searchDepth + 2) * board.maxMoves();
+		if(moves.length < size) {
+			moves = new int[size];
+			scores = new double[size];
+			batchScores = new double[board.maxMoves()];
+		}
+		pool.clear(); // States of the game being played now
+		pool.add(current.copy());
+
+		boolean maximize = board.getCurrentPlayer() == 0;
+		int count = board.generateMoves(moves, 0);
+
+		// If occasional random moves are allowed, then the search can be skipped
+		Random random = EvaluationContext.random();
+		double rand = random.nextDouble();
+		if(rand < Parameters.parameters.doubleParameter("minimaxRandomRate")){
+			return child(current, board, moves[random.nextInt(count)]);
+		}
+		// The second best move is only known if every move gets an exact value
+		boolean secondBest = Parameters.parameters.doubleParameter("minimaxSecondBestRate") > 0;
+
+		double[] utilities = new double[count];
+		for(int d = 0; d <= searchDepth; d++) {
+			double alpha = ALPHA;
+			double beta = BETA;
+			double best = maximize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+			for(int i = 0; i < count; i++) {
+				board.makeMove(moves[i]);
+				utilities[i] = alphaBeta(board, d, alpha, beta, count);
+				board.unmakeMove();
+				if(!secondBest) {
+					// Bounds just past the best value so far, so that moves that tie it still get exact values
+					if(maximize) {
+						best = Math.max(best, utilities[i]);
+						alpha = Math.nextDown(best);
+					} else {
+						best = Math.min(best, utilities[i]);
+						beta = Math.nextUp(best);
+					}
+				}
+			}
+			// Next search tries the best moves first
+			sort(moves, utilities, 0, count, maximize);
+		}
+
+		int selectedIndex = maximize ? StatisticsUtilities.argmax(utilities) : StatisticsUtilities.argmin(utilities);
+		// If there is a second option, and random number is less than the second-best chance, then switch
+		if(count > 1 && rand < Parameters.parameters.doubleParameter("minimaxSecondBestRate")) {
+			int best = selectedIndex;
+			selectedIndex = best == 0 ? 1 : 0;
+			for(int i = 0; i < count; i++) { // Best among the remaining utilities
+				if(i != best && (maximize ? utilities[i] > utilities[selectedIndex] : utilities[i] < utilities[selectedIndex])) {
+					selectedIndex = i;
+				}
+			}
+		}
+		return child(current, board, moves[selectedIndex]);
+	}
+
+	/**
+	 * New state for the position after a move
+	 */
+	private T child(T current, Bitboard board, int move) {
+		T result = current.copy();
+		board.makeMove(move);
+		load(result, board);
+		board.unmakeMove();
+		return result;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void load(T state, Bitboard board) {
+		((BitboardBoardGameState) state).loadBitboard(board);
+	}
+
+	/**
+	 * Alpha-Beta search of the position on the Bitboard. The player to move
+	 * maximizes if it is player 1, and minimizes otherwise.
+	 *
+	 * @param board position being searched, which is the same after returning
+	 * @param remaining number of moves to search below this position
+	 * @param alpha best value the maximizing player is assured of
+	 * @param beta best value the minimizing player is assured of
+	 * @param start index in moves where the moves of this position go
+	 * @return value of the position, or a bound on it if it is outside of alpha and beta
+	 */
+	private double alphaBeta(Bitboard board, int remaining, double alpha, double beta, int start) {
+		if(remaining == 0 || board.endState()) {
+			T state = pool.get(0);
+			load(state, board);
+			return boardHeuristic.heuristicEvalution(state);
+		}
+
+		long key = board.zobristKey();
+		int slot = table.find(key);
+		int bestMove = TranspositionTable.NO_MOVE;
+		if(slot != -1) {
+			bestMove = table.move(slot);
+			if(table.depth(slot) == remaining) {
+				double value = table.value(slot);
+				int flag = table.flag(slot);
+				if(flag == TranspositionTable.EXACT
+						|| (flag == TranspositionTable.LOWER && value >= beta)
+						|| (flag == TranspositionTable.UPPER && value <= alpha)) {
+					return value;
+				}
+			}
+		}
+
+		boolean maximize = board.getCurrentPlayer() == 0;
+		int count = board.generateMoves(moves, start);
+		evaluateChildren(board, start, count);
+		sort(moves, scores, start, count, maximize);
+		if(bestMove != TranspositionTable.NO_MOVE) {
+			moveToFront(start, count, bestMove);
+		}
+
+		double originalAlpha = alpha;
+		double originalBeta = beta;
+		double v = maximize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		bestMove = TranspositionTable.NO_MOVE;
+		for(int i = start; i < start + count; i++) {
+			double value;
+			if(remaining == 1) { // Children are leaves, and were already evaluated
+				value = scores[i];
+			} else {
+				board.makeMove(moves[i]);
+				value = alphaBeta(board, remaining - 1, alpha, beta, start + count);
+				board.unmakeMove();
+			}
+			if(maximize ? value > v : value < v) {
+				v = value;
+				bestMove = moves[i];
+			}
+			if(maximize) {
+				alpha = Math.max(alpha, v);
+			} else {
+				beta = Math.min(beta, v);
+			}
+			if(beta <= alpha) {
+				break; // Cut-off
+			}
+		}
+
+		int flag = v <= originalAlpha ? TranspositionTable.UPPER : (v >= originalBeta ? TranspositionTable.LOWER : TranspositionTable.EXACT);
+		table.store(key, remaining, v, flag, bestMove);
+		return v;
+	}
+
+	/**
+	 * Scores every child of the position with the heuristic, as one batch
+	 */
+	private void evaluateChildren(Bitboard board, int start, int count) {
+		while(pool.size() < count) {
+			pool.add(pool.get(0).copy());
+		}
+		batch.clear();
+		for(int i = 0; i < count; i++) {
+			T state = pool.get(i);
+			board.makeMove(moves[start + i]);
+			load(state, board);
+			board.unmakeMove();
+			batch.add(state);
+		}
+		boardHeuristic.heuristicEvalutions(batch, batchScores);
+		System.arraycopy(batchScores, 0, scores, start, count);
+	}
+
+	/**
+	 * Moves a move that was best in an earlier search to the front, keeping
+	 * its score with it
+	 */
+	private void moveToFront(int start, int count, int move) {
+		for(int i = start; i < start + count; i++) {
+			if(moves[i] == move) {
+				double score = scores[i];
+				System.arraycopy(moves, start, moves, start + 1, i - start);
+				System.arraycopy(scores, start, scores, start + 1, i - start);
+				moves[start] = move;
+				scores[start] = score;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Stable insertion sort of moves by score, best first for the player to move
+	 */
+	private static void sort(int[] moves, double[] scores, int start, int count, boolean maximize) {
+		for(int i = start + 1; i < start + count; i++) {
+			int move = moves[i];
+			double score = scores[i];
+			int j = i - 1;
+			while(j >= start && (maximize ? scores[j] < score : scores[j] > score)) {
+				moves[j + 1] = moves[j];
+				scores[j + 1] = scores[j];
+				j--;
+			}
+			moves[j + 1] = move;
+			scores[j + 1] = score;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package edu.southwestern.boardGame.agents.treesearch;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import edu.southwestern.boardGame.BoardGameState;
@@ -9,8 +10,8 @@ import edu.southwestern.boardGame.agents.HeuristicBoardGamePlayer;
 import edu.southwestern.boardGame.heuristics.BoardGameHeuristic;
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.util.ClassCreation;
-import edu.southwestern.util.random.RandomNumbers;
 import edu.southwestern.util.stats.StatisticsUtilities;
 
 /**
@@ -93,9 +94,10 @@ public class BoardGamePlayerMinimax<T extends BoardGameState> extends HeuristicB
 		//System.out.println(poss);
 		
 		// If occasional random moves are allowed, then minimax calculation can be skipped
-		double rand = RandomNumbers.randomGenerator.nextDouble();
+		Random random = EvaluationContext.random();
+		double rand = random.nextDouble();
 		if(rand < Parameters.parameters.doubleParameter("minimaxRandomRate")){
-			return RandomNumbers.randomElement(poss);
+			return poss.get(random.nextInt(poss.size()));
 		} 
 		
 		double[] utilities = new double[poss.size()]; // Stores the network's outputs
@@ -160,6 +162,20 @@ public class BoardGamePlayerMinimax<T extends BoardGameState> extends HeuristicB
 		}		
 	}
 	
+	/**
+	 * Heuristic values of children that are all leaves of the search,
+	 * evaluated as one batch instead of one at a time
+	 * 
+	 * @param poss BoardGameStates one level above the depth limit
+	 * @return Heuristic value of each State, in the iteration order of poss
+	 */
+	protected double[] leafEvaluations(Set<T> poss) {
+		List<T> leaves = new ArrayList<T>(poss);
+		double[] values = new double[leaves.size()];
+		boardHeuristic.heuristicEvalutions(leaves, values);
+		return values;
+	}
+	
 	/**
 	 * Minimax Evaluation Function; evaluates all possible
 	 * BoardGameStates from a given State and returns the
@@ -181,18 +197,22 @@ public class BoardGamePlayerMinimax<T extends BoardGameState> extends HeuristicB
 		if(maxPlayer){
 			double bestValue = Double.NEGATIVE_INFINITY;
 			Set<T> poss = bgState.possibleBoardGameStates(bgState);
+			double[] leaves = depth == 1 ? leafEvaluations(poss) : null;
 			
+			int index = 0;
 			for(T childState: poss){
-				double v = minimax(childState, depth-1, alpha, beta, !maxPlayer);
+				double v = leaves != null ? leaves[index++] : minimax(childState, depth-1, alpha, beta, !maxPlayer);
 				bestValue = Math.max(bestValue, v);
 			}
 			return bestValue;
 		}else{
 			double bestValue = Double.POSITIVE_INFINITY;
 			Set<T> poss = bgState.possibleBoardGameStates(bgState);
+			double[] leaves = depth == 1 ? leafEvaluations(poss) : null;
 			
+			int index = 0;
 			for(T childState: poss){
-				double v = minimax(childState, depth-1, alpha, beta, !maxPlayer);
+				double v = leaves != null ? leaves[index++] : minimax(childState, depth-1, alpha, beta, !maxPlayer);
 				bestValue = Math.min(bestValue, v);
 			}
 			return bestValue;
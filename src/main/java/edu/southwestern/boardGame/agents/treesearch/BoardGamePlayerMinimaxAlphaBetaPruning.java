@@ -29,9 +29,11 @@ public class BoardGamePlayerMinimaxAlphaBetaPruning<T extends BoardGameState> ex
 		if(maxPlayer){
 			double v = Double.NEGATIVE_INFINITY;
 			Set<T> poss = bgState.possibleBoardGameStates(bgState);
+			double[] leaves = depth == 1 ? leafEvaluations(poss) : null;
 			
+			int index = 0;
 			for(T childState: poss){
-				v = Math.max(v, minimax(childState, depth-1, alpha, beta, false));
+				v = Math.max(v, leaves != null ? leaves[index++] : minimax(childState, depth-1, alpha, beta, false));
 				alpha = Math.max(alpha, v);
 //				System.out.println("MAX: alpha: " + alpha.getValue() + ", beta: " + beta.getValue() + ", v = " + v);
 //				System.out.println(childState);
@@ -45,9 +47,11 @@ public class BoardGamePlayerMinimaxAlphaBetaPruning<T extends BoardGameState> ex
 		}else{
 			double v = Double.POSITIVE_INFINITY;
 			Set<T> poss = bgState.possibleBoardGameStates(bgState);
+			double[] leaves = depth == 1 ? leafEvaluations(poss) : null;
 			
+			int index = 0;
 			for(T childState: poss){
-				v = Math.min(v, minimax(childState, depth-1, alpha, beta, true));
+				v = Math.min(v, leaves != null ? leaves[index++] : minimax(childState, depth-1, alpha, beta, true));
 				beta = Math.min(beta, v);
 //				System.out.println("MIN: alpha: " + alpha.getValue() + ", beta: " + beta.getValue() + ", v = " + v);
 //				System.out.println(childState);
@@ -0,0 +1,100 @@
+package edu.southwestern.boardGame.agents.treesearch;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size hash table of search results, indexed by the Zobrist key of a
+ * Bitboard position. Each slot remembers the value found for one position,
+ * the remaining search depth it was found with, whether the value is exact or
+ * only a bound because of an alpha-beta cut-off, and the best move found.
+ * When two positions share a slot, the newer one replaces the older one.
+ *
+ * The entries are stored in parallel arrays rather than objects so that the
+ * table is allocated once and never creates garbage during a search.
+ *
+ * @author Jacob Schrum
+ */
+public class TranspositionTable {
+
+	public static final int EXACT = 0; // Value is the minimax value
+	public static final int LOWER = 1; // Search failed high: value is a lower bound
+	public static final int UPPER = 2; // Search failed low: value is an upper bound
+
+	public static final int NO_MOVE = -1;
+
+	private final int mask;
+	private final long[] keys;
+	private final double[] values;
+	private final int[] depths; // -1 for an empty slot
+	private final byte[] flags;
+	private final int[] moves;
+
+	/**
+	 * Table with 2^bits slots
+	 *
+	 * @param bits number of bits of the key used to pick a slot
+	 */
+	public TranspositionTable(int bits) {
+		int size = 1 << bits;
+		mask = size - 1;
+		keys = new long[size];
+		values = new double[size];
+		depths = new int[size];
+		flags = new byte[size];
+		moves = new int[size];
+		clear();
+	}
+
+	/**
+	 * Forget all stored positions, for instance because the heuristic that
+	 * produced the values changed
+	 */
+	public void clear() {
+		Arrays.fill(depths, -1);
+	}
+
+	/**
+	 * Slot holding a position, if it is stored
+	 *
+	 * @param key Zobrist key of the position
+	 * @return index of the slot, or -1 if the position is not stored
+	 */
+	public int find(long key) {
+		int slot = (int) (key ^ (key >>> 32)) & mask;
+		return depths[slot] != -1 && keys[slot] == key ? slot : -1;
+	}
+
+	public double value(int slot) {
+		return values[slot];
+	}
+
+	public int depth(int slot) {
+		return depths[slot];
+	}
+
+	public int flag(int slot) {
+		return flags[slot];
+	}
+
+	public int move(int slot) {
+		return moves[slot];
+	}
+
+	/**
+	 * Remember the result of searching a position
+	 *
+	 * @param key Zobrist key of the position
+	 * @param depth remaining search depth below the position
+	 * @param value value found by the search
+	 * @param flag EXACT, LOWER, or UPPER
+	 * @param move best move found, or NO_MOVE
+	 */
+	public void store(long key, int depth, double value, int flag, int move) {
+		int slot = (int) (key ^ (key >>> 32)) & mask;
+		keys[slot] = key;
+		depths[slot] = depth;
+		values[slot] = value;
+		flags[slot] = (byte) flag;
+		moves[slot] = move;
+	}
+}
@@ -0,0 +1,308 @@
+package edu.southwestern.boardGame.checkers;
+
+import java.util.Arrays;
+
+import edu.southwestern.boardGame.Bitboard;
+import edu.southwestern.boardGame.ZobristKeys;
+
+/**
+ * Checkers position with one bitboard for each kind of Check, indexed like
+ * the Checks of CheckersState. Space (x,y) of the CheckersState board is bit
+ * x*8+y. A move is the space of the Check moved plus 64 times the space it
+ * lands on, and each Jump is a single move: a Check that can Jump again
+ * stays the one that has to move next, and the player only changes once it
+ * can't.
+ *
+ * The moves are the same as the children from
+ * CheckersState.possibleBoardGameStates, including its forced Jump rule: if
+ * the last Check of the player to move (in the order the state scans its
+ * board) can Jump, then only that Check may move.
+ *
+ * @author Jacob Schrum
+ */
+public class CheckersBitboard implements Bitboard {
+
+	public static final int NO_SPACE = -1;
+	private static final int SPACES = CheckersState.BOARD_WIDTH * CheckersState.BOARD_WIDTH;
+	// Each Check moves in at most four directions, and there are never more than twelve
+	private static final int MAX_MOVES = 4 * CheckersState.STARTCHECKS;
+	// Moves counted by CheckersState before the game is a Draw
+	private static final int DRAW_MOVES = 50;
+
+	// Offsets of the four directions as (dX,dY): (-1,-1), (-1,1), (1,-1), (1,1)
+	private static final int[] DX = new int[]{-1, -1, 1, 1};
+	private static final int[] DY = new int[]{-1, 1, -1, 1};
+	// Space one step in each direction from each space, and two steps, or NO_SPACE if off the board
+	private static final int[][] STEP = new int[SPACES][4];
+	private static final int[][] JUMP = new int[SPACES][4];
+	static {
+		for(int s = 0; s < SPACES; s++) {
+			int x = s / CheckersState.BOARD_WIDTH;
+			int y = s % CheckersState.BOARD_WIDTH;
+			for(int d = 0; d < 4; d++) {
+				STEP[s][d] = space(x + DX[d], y + DY[d]);
+				JUMP[s][d] = space(x + 2 * DX[d], y + 2 * DY[d]);
+			}
+		}
+	}
+
+	// Keys for each kind of Check on each space, then the player to move, then the Check that must keep
+	// Jumping, then both move counters up to the number that makes a Draw
+	private static final long[] ZOBRIST = ZobristKeys.create(4 * SPACES + 1 + SPACES + 2 * (DRAW_MOVES + 2), 0xC4EC6E55L);
+	private static final int ZOBRIST_PLAYER = 4 * SPACES;
+	private static final int ZOBRIST_JUMPER = ZOBRIST_PLAYER + 1;
+	private static final int ZOBRIST_SINCE_JUMP = ZOBRIST_JUMPER + SPACES;
+	private static final int ZOBRIST_SINCE_NON_KING = ZOBRIST_SINCE_JUMP + DRAW_MOVES + 2;
+
+	final long[] checks = new long[4]; // Indexed by CheckersState.BLACK_CHECK, RED_CHECK, BLACK_CHECK_KING and RED_CHECK_KING
+	int nextPlayer;
+	int doubleJumpCheck; // Space of the Check that has to Jump again, or NO_SPACE
+	int movesSinceLastJump;
+	int movesSinceNon_King;
+	private long key;
+
+	// Undo information for each move made
+	private int[] moveHistory = new int[64];
+	private int[] capturedHistory = new int[64];
+	private int[] pieceHistory = new int[64];
+	private int[] jumperHistory = new int[64];
+	private int[] sinceJumpHistory = new int[64];
+	private int[] sinceNonKingHistory = new int[64];
+	private int movesMade = 0;
+
+	private final int[] endStateMoves = new int[MAX_MOVES];
+
+	CheckersBitboard(long[] checks, int nextPlayer, int doubleJumpCheck, int movesSinceLastJump, int movesSinceNon_King) {
+		System.arraycopy(checks, 0, this.checks, 0, this.checks.length);
+		this.nextPlayer = nextPlayer;
+		this.doubleJumpCheck = doubleJumpCheck;
+		this.movesSinceLastJump = movesSinceLastJump;
+		this.movesSinceNon_King = movesSinceNon_King;
+		key = computeKey();
+	}
+
+	private static int space(int x, int y) {
+		return x < 0 || y < 0 || x >= CheckersState.BOARD_WIDTH || y >= CheckersState.BOARD_WIDTH ? NO_SPACE : x * CheckersState.BOARD_WIDTH + y;
+	}
+
+	private long computeKey() {
+		long result = 0;
+		for(int piece = 0; piece < 4; piece++) {
+			long b = checks[piece];
+			while(b != 0) {
+				result ^= ZOBRIST[piece * SPACES + Long.numberOfTrailingZeros(b)];
+				b &= b - 1;
+			}
+		}
+		if(nextPlayer == 1) result ^= ZOBRIST[ZOBRIST_PLAYER];
+		return result ^ counterKeys();
+	}
+
+	/**
+	 * Keys of the Check that has to Jump again and the move counters, which
+	 * only matter up to the point where they make a Draw
+	 */
+	private long counterKeys() {
+		long result = ZOBRIST[ZOBRIST_SINCE_JUMP + Math.min(movesSinceLastJump, DRAW_MOVES + 1)]
+				^ ZOBRIST[ZOBRIST_SINCE_NON_KING + Math.min(movesSinceNon_King, DRAW_MOVES + 1)];
+		return doubleJumpCheck == NO_SPACE ? result : result ^ ZOBRIST[ZOBRIST_JUMPER + doubleJumpCheck];
+	}
+
+	/**
+	 * Kind of Check on a space
+	 *
+	 * @param space index of the space
+	 * @return index of the Check, or CheckersState.EMPTY
+	 */
+	public int pieceAt(int space) {
+		long bit = 1L << space;
+		for(int piece = 0; piece < 4; piece++) {
+			if((checks[piece] & bit) != 0) return piece;
+		}
+		return CheckersState.EMPTY;
+	}
+
+	private long occupied() {
+		return checks[0] | checks[1] | checks[2] | checks[3];
+	}
+
+	/**
+	 * Whether a Check can move in a direction: Kings move every way, Black
+	 * Checks only to higher x, and Red Checks only to lower x
+	 */
+	private static boolean movesIn(int piece, int direction) {
+		return piece == CheckersState.BLACK_CHECK_KING || piece == CheckersState.RED_CHECK_KING
+				|| (piece == CheckersState.BLACK_CHECK ? DX[direction] > 0 : DX[direction] < 0);
+	}
+
+	/**
+	 * Whether a Check of the player to move can Jump an opponent Check in a direction
+	 */
+	private boolean canJump(int space, int piece, int direction, long opponent, long empty) {
+		int over = STEP[space][direction];
+		int to = JUMP[space][direction];
+		return to != NO_SPACE && movesIn(piece, direction) && (opponent & (1L << over)) != 0 && (empty & (1L << to)) != 0;
+	}
+
+	private boolean canJump(int space, int piece, long opponent, long empty) {
+		for(int d = 0; d < 4; d++) {
+			if(canJump(space, piece, d, opponent, empty)) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int maxMoves() {
+		return MAX_MOVES;
+	}
+
+	@Override
+	public int generateMoves(int[] moves, int start) {
+		long own = checks[nextPlayer] | checks[nextPlayer + 2];
+		if(own == 0) return 0;
+		long opponent = checks[1 - nextPlayer] | checks[3 - nextPlayer];
+		long empty = ~(own | opponent);
+
+		long jumpers = 0;
+		for(long b = own; b != 0; b &= b - 1) {
+			int s = Long.numberOfTrailingZeros(b);
+			if(canJump(s, pieceAt(s), opponent, empty)) jumpers |= 1L << s;
+		}
+		// The state only lets its last Check move if that Check can Jump, and otherwise any Check that can Jump
+		long last = Long.highestOneBit(own);
+		long allowed = (jumpers & last) != 0 ? last : (jumpers != 0 ? jumpers : own);
+		long movers = (doubleJumpCheck == NO_SPACE ? own : 1L << doubleJumpCheck) & allowed;
+
+		int count = 0;
+		for(long b = movers; b != 0; b &= b - 1) {
+			int s = Long.numberOfTrailingZeros(b);
+			int piece = pieceAt(s);
+			for(int d = 0; d < 4; d++) {
+				if(jumpers != 0) {
+					if(canJump(s, piece, d, opponent, empty)) moves[start + count++] = s + SPACES * JUMP[s][d];
+				} else if(STEP[s][d] != NO_SPACE && movesIn(piece, d) && (empty & (1L << STEP[s][d])) != 0) {
+					moves[start + count++] = s + SPACES * STEP[s][d];
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public void makeMove(int move) {
+		if(movesMade == moveHistory.length) {
+			moveHistory = Arrays.copyOf(moveHistory, movesMade * 2);
+			capturedHistory = Arrays.copyOf(capturedHistory, movesMade * 2);
+			pieceHistory = Arrays.copyOf(pieceHistory, movesMade * 2);
+			jumperHistory = Arrays.copyOf(jumperHistory, movesMade * 2);
+			sinceJumpHistory = Arrays.copyOf(sinceJumpHistory, movesMade * 2);
+			sinceNonKingHistory = Arrays.copyOf(sinceNonKingHistory, movesMade * 2);
+		}
+		int from = move % SPACES;
+		int to = move / SPACES;
+		int piece = pieceAt(from);
+		moveHistory[movesMade] = move;
+		pieceHistory[movesMade] = piece;
+		jumperHistory[movesMade] = doubleJumpCheck;
+		sinceJumpHistory[movesMade] = movesSinceLastJump;
+		sinceNonKingHistory[movesMade] = movesSinceNon_King;
+		key ^= counterKeys();
+
+		toggle(piece, from);
+		int captured = CheckersState.EMPTY;
+		doubleJumpCheck = NO_SPACE;
+		if(isJump(from, to)) {
+			int over = (from + to) / 2;
+			captured = pieceAt(over);
+			toggle(captured, over);
+			movesSinceLastJump = 0;
+			// Checked before the Check is Kinged, like the state does
+			long opponent = checks[1 - nextPlayer] | checks[3 - nextPlayer];
+			if(canJump(to, piece, opponent, ~(occupied() | (1L << to)))) doubleJumpCheck = to;
+		} else {
+			movesSinceLastJump++;
+		}
+		capturedHistory[movesMade++] = captured;
+		if(piece == CheckersState.BLACK_CHECK_KING || piece == CheckersState.RED_CHECK_KING) {
+			movesSinceNon_King++;
+		} else {
+			movesSinceNon_King = 0;
+		}
+		toggle(kinged(piece, to), to);
+
+		key ^= counterKeys();
+		if(doubleJumpCheck == NO_SPACE) {
+			nextPlayer = 1 - nextPlayer;
+			key ^= ZOBRIST[ZOBRIST_PLAYER];
+		}
+	}
+
+	@Override
+	public void unmakeMove() {
+		int move = moveHistory[--movesMade];
+		int from = move % SPACES;
+		int to = move / SPACES;
+		int piece = pieceHistory[movesMade];
+		if(doubleJumpCheck == NO_SPACE) {
+			nextPlayer = 1 - nextPlayer;
+			key ^= ZOBRIST[ZOBRIST_PLAYER];
+		}
+		key ^= counterKeys();
+		doubleJumpCheck = jumperHistory[movesMade];
+		movesSinceLastJump = sinceJumpHistory[movesMade];
+		movesSinceNon_King = sinceNonKingHistory[movesMade];
+		key ^= counterKeys();
+
+		toggle(kinged(piece, to), to);
+		if(isJump(from, to)) {
+			toggle(capturedHistory[movesMade], (from + to) / 2);
+		}
+		toggle(piece, from);
+	}
+
+	private static boolean isJump(int from, int to) {
+		return Math.abs(to - from) > CheckersState.BOARD_WIDTH + 1;
+	}
+
+	/**
+	 * Kind of Check after landing on a space: Black Checks become Kings on the
+	 * last row, and Red Checks on the first row
+	 */
+	private static int kinged(int piece, int space) {
+		int x = space / CheckersState.BOARD_WIDTH;
+		if(piece == CheckersState.BLACK_CHECK && x == CheckersState.BOARD_WIDTH - 1) return CheckersState.BLACK_CHECK_KING;
+		if(piece == CheckersState.RED_CHECK && x == 0) return CheckersState.RED_CHECK_KING;
+		return piece;
+	}
+
+	/**
+	 * Adds (or removes) a Check on a space. Applying it twice has no effect.
+	 */
+	private void toggle(int piece, int space) {
+		checks[piece] ^= 1L << space;
+		key ^= ZOBRIST[piece * SPACES + space];
+	}
+
+	@Override
+	public long zobristKey() {
+		return key;
+	}
+
+	/**
+	 * Like CheckersState, the game is over when a player has no Checks left,
+	 * when the player to move has no moves, or when both move counters pass
+	 * the limit for a Draw
+	 */
+	@Override
+	public boolean endState() {
+		long black = checks[CheckersState.BLACK_CHECK] | checks[CheckersState.BLACK_CHECK_KING];
+		long red = checks[CheckersState.RED_CHECK] | checks[CheckersState.RED_CHECK_KING];
+		return black == 0 || red == 0 || generateMoves(endStateMoves, 0) == 0
+				|| (movesSinceLastJump > DRAW_MOVES && movesSinceNon_King > DRAW_MOVES);
+	}
+
+	@Override
+	public int getCurrentPlayer() {
+		return nextPlayer;
+	}
+}
@@ -3,14 +3,16 @@ package edu.southwestern.boardGame.checkers;
 import java.awt.Color;
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import edu.southwestern.boardGame.BitboardBoardGameState;
 import edu.southwestern.boardGame.BoardGameState;
 import edu.southwestern.boardGame.TwoDimensionalBoardGameState;
 
-public class CheckersState extends TwoDimensionalBoardGameState {
+public class CheckersState extends TwoDimensionalBoardGameState implements BitboardBoardGameState<CheckersBitboard> {
 
 	public static final int BOARD_WIDTH = 8;	
 	public static final int STARTCHECKS = 12;
@@ -131,14 +133,14 @@ public class CheckersState extends TwoDimensionalBoardGameState {
 	}
 
 	/**
-	 * Returns an Array of Doubles that describes this BoardGameState
+	 * Writes an Array of Doubles that describes this BoardGameState, with
+	 * Kings worth more than regular Checks
 	 * 
-	 * @return double[] describing this BoardGameState
+	 * @param features double[] to fill
 	 */
 	@Override
-	public double[] getDescriptor() {
-
-		double[] features = new double[getBoardWidth()*getBoardHeight()];
+	public void fillDescriptor(double[] features) {
+		Arrays.fill(features, 0);
 		int index = 0;
 		
 		for(int i = 0; i < getBoardHeight(); i++){
@@ -152,8 +154,6 @@ public class CheckersState extends TwoDimensionalBoardGameState {
 				}
 			}
 		}
-
-		return features;
 	}
 	
 	/**
@@ -500,6 +500,45 @@ public class CheckersState extends TwoDimensionalBoardGameState {
 		}
 	}
 
+	/**
+	 * Bitboard holding the Checks of this state, along with the Check that
+	 * has to Double Jump and the move counters
+	 * 
+	 * @return CheckersBitboard of the current position
+	 */
+	@Override
+	public CheckersBitboard toBitboard() {
+		long[] checks = new long[4];
+		for(int i = 0; i < BOARD_WIDTH; i++){
+			for(int j = 0; j < BOARD_WIDTH; j++){
+				if(boardState[i][j] != EMPTY){
+					checks[boardState[i][j]] |= 1L << (i * BOARD_WIDTH + j);
+				}
+			}
+		}
+		int jumper = doubleJumpCheck == null ? CheckersBitboard.NO_SPACE : (int) doubleJumpCheck.getX() * BOARD_WIDTH + (int) doubleJumpCheck.getY();
+		return new CheckersBitboard(checks, nextPlayer, jumper, movesSinceLastJump, movesSinceNon_King);
+	}
+
+	/**
+	 * Replaces the Checks, next player, Double Jump and move counters of this state with those of a Bitboard
+	 * 
+	 * @param board CheckersBitboard to copy
+	 */
+	@Override
+	public void loadBitboard(CheckersBitboard board) {
+		for(int i = 0; i < BOARD_WIDTH; i++){
+			for(int j = 0; j < BOARD_WIDTH; j++){
+				boardState[i][j] = board.pieceAt(i * BOARD_WIDTH + j);
+			}
+		}
+		nextPlayer = board.nextPlayer;
+		doubleJumpCheck = board.doubleJumpCheck == CheckersBitboard.NO_SPACE ? null : new Point(board.doubleJumpCheck / BOARD_WIDTH, board.doubleJumpCheck % BOARD_WIDTH);
+		movesSinceLastJump = board.movesSinceLastJump;
+		movesSinceNon_King = board.movesSinceNon_King;
+		winners.clear(); // Recalculated by getWinners()
+	}
+
 	@Override
 	public void setupStartingBoard() {
 		boardState = newCheckBoard();
@@ -0,0 +1,136 @@
+package edu.southwestern.boardGame.connectFour;
+
+import edu.southwestern.boardGame.Bitboard;
+import edu.southwestern.boardGame.ZobristKeys;
+
+/**
+ * Connect Four position with one bitboard per player. Each column takes
+ * HEIGHT + 1 bits, from the bottom of the column up, with an extra empty bit
+ * on top so that four in a row can be found with a few shifts: by 1 for
+ * vertical lines, by HEIGHT + 1 for horizontal lines, and by HEIGHT and
+ * HEIGHT + 2 for the diagonals. A move is the index of the column played in.
+ *
+ * @author Jacob Schrum
+ */
+public class ConnectFourBitboard implements Bitboard {
+
+	static final int COLUMN_BITS = ConnectFourState.HEIGHT + 1;
+	private static final int[] LINE_SHIFTS = new int[]{1, COLUMN_BITS, COLUMN_BITS - 1, COLUMN_BITS + 1};
+	// Columns near the center are generated first, since they are usually the better moves
+	private static final int[] COLUMN_ORDER = new int[]{3, 2, 4, 1, 5, 0, 6};
+
+	private static final long[] ZOBRIST = ZobristKeys.create(2 * ConnectFourState.WIDTH * COLUMN_BITS + 1, 0xC4L);
+	private static final int ZOBRIST_PLAYER = 2 * ConnectFourState.WIDTH * COLUMN_BITS;
+
+	final long[] checks = new long[2]; // Indexed by ConnectFourState.BLACK_CHECK and RED_CHECK
+	final int[] heights = new int[ConnectFourState.WIDTH]; // Number of checks in each column
+	int nextPlayer;
+	private long key;
+
+	private final int[] moveHistory = new int[ConnectFourState.WIDTH * ConnectFourState.HEIGHT];
+	private int movesMade = 0;
+
+	ConnectFourBitboard(int nextPlayer) {
+		this.nextPlayer = nextPlayer;
+		if(nextPlayer == 1) key ^= ZOBRIST[ZOBRIST_PLAYER];
+	}
+
+	/**
+	 * Bit of a space
+	 *
+	 * @param column column of the space
+	 * @param row row of the space, counting up from the bottom
+	 * @return index of the bit
+	 */
+	static int bit(int column, int row) {
+		return column * COLUMN_BITS + row;
+	}
+
+	/**
+	 * Puts a check of a player on the board, for setting up a position
+	 */
+	void place(int player, int column, int row) {
+		checks[player] |= 1L << bit(column, row);
+		key ^= ZOBRIST[player * ConnectFourState.WIDTH * COLUMN_BITS + bit(column, row)];
+		heights[column] = Math.max(heights[column], row + 1);
+	}
+
+	/**
+	 * Whether a player has four checks in a row in any direction
+	 *
+	 * @param player index of player
+	 * @return true if the player has four in a row
+	 */
+	public boolean hasFour(int player) {
+		long b = checks[player];
+		for(int shift : LINE_SHIFTS) {
+			long pairs = b & (b >>> shift);
+			if((pairs & (pairs >>> (2 * shift))) != 0) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Whether every column is full
+	 *
+	 * @return true if no more checks can be dropped
+	 */
+	public boolean full() {
+		for(int height : heights) {
+			if(height < ConnectFourState.HEIGHT) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int maxMoves() {
+		return ConnectFourState.WIDTH;
+	}
+
+	@Override
+	public int generateMoves(int[] moves, int start) {
+		int count = 0;
+		for(int column : COLUMN_ORDER) {
+			if(heights[column] < ConnectFourState.HEIGHT) moves[start + count++] = column;
+		}
+		return count;
+	}
+
+	@Override
+	public void makeMove(int move) {
+		moveHistory[movesMade++] = move;
+		int b = bit(move, heights[move]++);
+		checks[nextPlayer] |= 1L << b;
+		key ^= ZOBRIST[nextPlayer * ConnectFourState.WIDTH * COLUMN_BITS + b];
+		nextPlayer = 1 - nextPlayer;
+		key ^= ZOBRIST[ZOBRIST_PLAYER];
+	}
+
+	@Override
+	public void unmakeMove() {
+		int move = moveHistory[--movesMade];
+		nextPlayer = 1 - nextPlayer;
+		key ^= ZOBRIST[ZOBRIST_PLAYER];
+		int b = bit(move, --heights[move]);
+		checks[nextPlayer] &= ~(1L << b);
+		key ^= ZOBRIST[nextPlayer * ConnectFourState.WIDTH * COLUMN_BITS + b];
+	}
+
+	@Override
+	public long zobristKey() {
+		return key;
+	}
+
+	/**
+	 * Over when either player has four in a row, or the board is full
+	 */
+	@Override
+	public boolean endState() {
+		return hasFour(0) || hasFour(1) || full();
+	}
+
+	@Override
+	public int getCurrentPlayer() {
+		return nextPlayer;
+	}
+}
@@ -6,10 +6,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import edu.southwestern.boardGame.BitboardBoardGameState;
 import edu.southwestern.boardGame.BoardGameState;
 import edu.southwestern.boardGame.TwoDimensionalBoardGameState;
 
-public class ConnectFourState extends TwoDimensionalBoardGameState{
+public class ConnectFourState extends TwoDimensionalBoardGameState implements BitboardBoardGameState<ConnectFourBitboard> {
 	
 	static final int WIDTH = 7;
 	static final int HEIGHT = 6;
@@ -30,56 +31,13 @@ public class ConnectFourState extends TwoDimensionalBoardGameState{
 		super(board, NUMBER_OF_PLAYERS, nextPlay, win);
 	}
 	
+	/**
+	 * The game is over when either player has Four-In-A-Row, or when the Board is full.
+	 * Lines are found on a ConnectFourBitboard.
+	 */
 	@Override
 	public boolean endState() {
-		int check = EMPTY;
-		
-		for(int i = 0; i < WIDTH; i++){
-			for(int j = 0; j < HEIGHT; j++){
-				
-				if(boardState[i][j] == EMPTY){
-					continue; // Move on to the next Point
-				}else{
-					// Cycles through the possible displacements
-					for(int dX = -1; dX <= 1; dX++){
-						for(int dY = -1; dY <=1; dY++){
-							
-							// Only runs if there is a displacement in any direction
-							// and if there is a Check at the selected Space
-							if(dX != 0 && dY != 0 && boardState[i][j] != EMPTY){
-								int numInRow = 0;
-								check = boardState[i][j];
-								
-								int x = i;
-								int y = j;
-								
-								do{
-									x = i + dX;
-									y = j + dY;
-									
-									if(((x >= 0 && x < WIDTH) && (y >= 0 && y < HEIGHT)) && boardState[x][y] == check) numInRow++;
-								}while(((x >= 0 && x < WIDTH) && (y >= 0 && y < HEIGHT)) && boardState[x][y] == check || numInRow < 4);
-								if(numInRow >= 4){
-									return true;
-								}
-							}
-							check = EMPTY; // Resets the check
-						}
-					}
-				}
-			}
-		}
-		
-		// Unable to find a Four-In-A-Row; see if the Board is full
-		Set<ConnectFourState> poss = possibleBoardGameStates(this);
-		if(poss.size() == 0){
-			winners.add(BLACK_CHECK);
-			winners.add(RED_CHECK);
-			return true;
-		}
-		
-		// Able to make at least one Move; game is not over
-		return false;
+		return toBitboard().endState();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -103,42 +61,20 @@ public class ConnectFourState extends TwoDimensionalBoardGameState{
 		return (T) new ConnectFourState(this);
 	}
 	
+	/**
+	 * Adds every player with Four-In-A-Row to the winners, or both players if
+	 * the Board is full without any Four-In-A-Row
+	 */
 	private void checkWinners(){
-		int check = EMPTY;
-		for(int i = 0; i < WIDTH; i++){
-			for(int j = 0; j < HEIGHT; j++){
-				
-				if(boardState[i][j] == EMPTY){
-					continue; // Move on to the next Point
-				}else{
-					// Cycles through the possible displacements
-					for(int dX = -1; dX <= 1; dX++){
-						for(int dY = -1; dY <=1; dY++){
-							
-							// Only runs if there is a displacement in any direction
-							// and if there is a Check at the selected Space
-							if(dX != 0 && dY != 0 && boardState[i][j] != EMPTY){
-								int numInRow = 0;
-								check = boardState[i][j];
-								
-								int x = i;
-								int y = j;
-								
-								do{
-									x = i + dX;
-									y = j + dY;
-									
-									if(((x >= 0 && x < WIDTH) && (y >= 0 && y < HEIGHT)) && boardState[x][y] == check) numInRow++;
-								}while(((x >= 0 && x < WIDTH) && (y >= 0 && y < HEIGHT)) && boardState[x][y] == check || numInRow < 4);
-								if(numInRow >= 4){
-									winners.add(check);
-								}
-							}
-							check = EMPTY; // Resets the check
-						}
-					}
-				}
-			}
+		if(!winners.isEmpty()){
+			return; // Already known
+		}
+		ConnectFourBitboard board = toBitboard();
+		if(board.hasFour(RED_CHECK)) winners.add(RED_CHECK);
+		if(board.hasFour(BLACK_CHECK)) winners.add(BLACK_CHECK);
+		if(winners.isEmpty() && board.full()){
+			winners.add(RED_CHECK);
+			winners.add(BLACK_CHECK);
 		}
 	}
 	
@@ -148,6 +84,41 @@ public class ConnectFourState extends TwoDimensionalBoardGameState{
 		return winners;
 	}
 	
+	/**
+	 * Bitboard holding the Checks of this state
+	 * 
+	 * @return ConnectFourBitboard of the current position
+	 */
+	@Override
+	public ConnectFourBitboard toBitboard() {
+		ConnectFourBitboard board = new ConnectFourBitboard(nextPlayer);
+		for(int i = 0; i < WIDTH; i++){
+			for(int j = 0; j < HEIGHT; j++){
+				if(boardState[i][j] != EMPTY){
+					board.place(boardState[i][j], i, HEIGHT - 1 - j); // Bitboard rows count up from the bottom
+				}
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * Replaces the Checks and next player of this state with those of a Bitboard
+	 * 
+	 * @param board ConnectFourBitboard to copy
+	 */
+	@Override
+	public void loadBitboard(ConnectFourBitboard board) {
+		for(int i = 0; i < WIDTH; i++){
+			for(int j = 0; j < HEIGHT; j++){
+				long bit = 1L << ConnectFourBitboard.bit(i, HEIGHT - 1 - j);
+				boardState[i][j] = (board.checks[BLACK_CHECK] & bit) != 0 ? BLACK_CHECK : ((board.checks[RED_CHECK] & bit) != 0 ? RED_CHECK : EMPTY);
+			}
+		}
+		nextPlayer = board.nextPlayer;
+		winners.clear(); // Recalculated by getWinners()
+	}
+
 	@Override
 	public void setupStartingBoard() {
 		boardState = new int[WIDTH][HEIGHT];
@@ -12,6 +12,18 @@ public interface BoardGameFeatureExtractor<T extends BoardGameState> {
 	 */
 	public double[] getFeatures(T bgs);
 	
+	/**
+	 * Writes the features of a given BoardGameState into an existing array,
+	 * so that one array can be reused for many States
+	 * 
+	 * @param bgs BoardGameState to be evaluated
+	 * @param features Double Array with room for all features
+	 */
+	public default void fillFeatures(T bgs, double[] features) {
+		double[] result = getFeatures(bgs);
+		System.arraycopy(result, 0, features, 0, result.length);
+	}
+	
 	/**
 	 * Returns the Feature Labels for the specific BoardGame
 	 * 
@@ -20,6 +20,11 @@ public class TwoDimensionalRawBoardGameFeatureExtractor<T extends TwoDimensional
 	public double[] getFeatures(T bgs) {
 		return bgs.getDescriptor();
 	}
+	
+	@Override
+	public void fillFeatures(T bgs, double[] features) {
+		bgs.fillDescriptor(features);
+	}
 
 	/**
 	 * Simply names all features according to the coordinates associated with each space.
@@ -1,49 +1,38 @@
 package edu.southwestern.boardGame.fitnessFunction;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.southwestern.boardGame.BoardGameState;
 import edu.southwestern.boardGame.agents.BoardGamePlayer;
 import edu.southwestern.boardGame.agents.HeuristicBoardGamePlayer;
-import edu.southwestern.boardGame.featureExtractor.BoardGameFeatureExtractor;
 import edu.southwestern.boardGame.heuristics.BoardGameHeuristic;
 import edu.southwestern.boardGame.heuristics.NNBoardGameHeuristic;
 import edu.southwestern.evolution.GenerationalEA;
 import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.genotypes.Genotype;
 import edu.southwestern.networks.Network;
-import edu.southwestern.util.ClassCreation;
+import edu.southwestern.tasks.EvaluationContext;
+import edu.southwestern.tasks.SinglePopulationCoevolutionTask;
 import edu.southwestern.util.datastructures.Pair;
 
 public class HallOfFameFitness<T extends Network, S extends BoardGameState> implements BoardGameFitnessFunction<S> {
 	// This constant is problematic. It assumes the Hall of Fame fitness will always be index 0,
 	// and that there will only be one selection function in index 1.
 	public static final int SELECTION_INDEX = 1; 
-	private boolean currentlyEvaluatingHallOfFame = false;
+	// Marks the EvaluationContext of games against the Hall of Fame
+	private static final Object HALL_OF_FAME_KEY = new Object();
 	int currentGen = -1;
-	BoardGameFeatureExtractor<S> featExtract;
 	
-	HeuristicBoardGamePlayer<S> champ;
-	
-	Map<Long, Double> evaluated = new HashMap<Long, Double>();
-	
-	@SuppressWarnings("unchecked")
-	public HallOfFameFitness(){
-		try {
-			champ = (HeuristicBoardGamePlayer<S>) ClassCreation.createObject("boardGamePlayer"); // The Player
-			featExtract = (BoardGameFeatureExtractor<S>) ClassCreation.createObject("boardGameFeatureExtractor");
-		} catch (NoSuchMethodException e) {
-			e.printStackTrace();
-			System.out.println("BoardGame instance could not be loaded");
-			System.exit(1);
-		}
-	}
+	// Shared by matches that may be played in parallel
+	Map<Long, Double> evaluated = new ConcurrentHashMap<Long, Double>();
 	
 	@SuppressWarnings("unchecked")
 	@Override
 	public double getFitness(BoardGamePlayer<S> player, int index) {
 		// Do not evaluate in infinite loop
-		if(currentlyEvaluatingHallOfFame) {
+		EvaluationContext current = EvaluationContext.current();
+		if(current != null && current.get(HALL_OF_FAME_KEY) != null) {
 			//System.out.println("Evaluating Hall of Fame");
 			return 0;
 		}
@@ -71,12 +60,22 @@ public class HallOfFameFitness<T extends Network, S extends BoardGameState> impl
 		
 		// At this point, Player must be a Heuristic Board Game Player, and bgh must be a NNBoardGameHeuristic
 		
-		if(evaluated.containsKey(genotypeID)){
-			return evaluated.get(genotypeID);
+		Double known = evaluated.get(genotypeID);
+		if(known != null){
+			return known;
 		}else if(((GenerationalEA) MMNEAT.ea).currentGeneration() > 0){ // Must complete at least one full Generation
-			currentlyEvaluatingHallOfFame = true; // prevent infinite recursion when evaluating hall of fame
-			Pair<double[], double[]> evalResults = MMNEAT.hallOfFame.eval(((NNBoardGameHeuristic<?,S>) bgh).getGenotype());
-			currentlyEvaluatingHallOfFame = false;
+			// Games against the Hall of Fame get their own board, players and random numbers,
+			// so the score does not depend on which match of the individual asks for it first
+			Genotype<T> genotype = (Genotype<T>) ((NNBoardGameHeuristic<?,S>) bgh).getGenotype();
+			EvaluationContext context = new EvaluationContext(genotype, SinglePopulationCoevolutionTask.individualStream(genotype));
+			context.put(HALL_OF_FAME_KEY, Boolean.TRUE); // prevent infinite recursion when evaluating hall of fame
+			EvaluationContext previous = context.bind();
+			Pair<double[], double[]> evalResults;
+			try {
+				evalResults = MMNEAT.hallOfFame.eval(genotype);
+			} finally {
+				context.unbind(previous);
+			}
 			double score = evalResults.t1[SELECTION_INDEX]; // Only uses 1 Selection Function
 			
 			evaluated.put(genotypeID, score);
@@ -99,7 +98,7 @@ public class HallOfFameFitness<T extends Network, S extends BoardGameState> impl
 	}
 
 	@Override
-	public void reset() {
+	public synchronized void reset() {
 		int testGen = ((GenerationalEA) MMNEAT.ea).currentGeneration();
 		 
 		 if(currentGen != testGen){
@@ -1,10 +1,11 @@
 package edu.southwestern.boardGame.fitnessFunction;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import edu.southwestern.boardGame.BoardGame;
 import edu.southwestern.boardGame.BoardGameState;
 import edu.southwestern.boardGame.agents.BoardGamePlayer;
 import edu.southwestern.boardGame.agents.HeuristicBoardGamePlayer;
@@ -12,32 +13,31 @@ import edu.southwestern.boardGame.heuristics.BoardGameHeuristic;
 import edu.southwestern.boardGame.heuristics.NNBoardGameHeuristic;
 import edu.southwestern.evolution.GenerationalEA;
 import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.genotypes.Genotype;
 import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.NoisyLonerTask;
+import edu.southwestern.tasks.SinglePopulationCoevolutionTask;
 import edu.southwestern.tasks.boardGame.BoardGameUtil;
 import edu.southwestern.util.ClassCreation;
 import edu.southwestern.util.datastructures.Pair;
 
+/**
+ * Win percentage against the boardGameOpponent, found once per individual per generation.
+ * One instance is shared by all matches of single population coevolution, which may be played
+ * in parallel. Each individual's games against the opponent are played on their own board with
+ * their own opponent and random numbers (see SinglePopulationCoevolutionTask.individualStream),
+ * so the fitness does not depend on which of its matches asks for it first.
+ */
 public class StaticOtherOpponentFitness<T extends BoardGameState> implements BoardGameFitnessFunction<T> {
 	
-	BoardGamePlayer<T> opponent;
 	int currentGen = -1;
 	int matches;
-	List<BoardGameFitnessFunction<T>> fitFunctions = new ArrayList<BoardGameFitnessFunction<T>>();
 	
-	Map<Long, Double> evaluated = new HashMap<Long, Double>();
+	Map<Long, Double> evaluated = new ConcurrentHashMap<Long, Double>();
 
-	@SuppressWarnings("unchecked")
 	public StaticOtherOpponentFitness(){
-		try {
-			opponent = (BoardGamePlayer<T>) ClassCreation.createObject("boardGameOpponent");
-		} catch (NoSuchMethodException e) {
-			e.printStackTrace();
-			System.out.println("BoardGame instance could not be loaded");
-			System.exit(1);
-		}
 		matches = Parameters.parameters.integerParameter("boardGameStaticOpponentRuns");
-		fitFunctions.add(new WinPercentageBoardGameFitness<T>());
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -58,24 +58,44 @@ public class StaticOtherOpponentFitness<T extends BoardGameState> implements Boa
 			return 0; // Don't have static opponents play against other static opponents
 		}
 		
-		if(evaluated.containsKey(genotypeID)){
-			return evaluated.get(genotypeID);
+		Double known = evaluated.get(genotypeID);
+		if(known != null){
+			return known;
 		}else{
-			BoardGamePlayer<T>[] players = new BoardGamePlayer[]{player, opponent};
-			
-			double[][] fitness = new double[matches][];
-			double[][] other = new double[matches][];
-			
-			for(int i = 0; i < matches; i++){
-				ArrayList<Pair<double[], double[]>> game = BoardGameUtil.playGame(MMNEAT.boardGame, players, fitFunctions, new ArrayList<BoardGameFitnessFunction<T>>()); // No Other Scores
-				fitness[i] = game.get(0).t1;
-				other[i] = game.get(0).t2;
+			Genotype<?> genotype = ((NNBoardGameHeuristic<?,T>) bgh).getGenotype();
+			EvaluationContext context = new EvaluationContext(genotype, SinglePopulationCoevolutionTask.individualStream(genotype));
+			EvaluationContext previous = context.bind();
+			try {
+				BoardGame<T> game = null;
+				BoardGamePlayer<T> opponent = null;
+				try {
+					game = (BoardGame<T>) ClassCreation.createObject("boardGame");
+					opponent = (BoardGamePlayer<T>) ClassCreation.createObject("boardGameOpponent");
+				} catch (NoSuchMethodException e) {
+					e.printStackTrace();
+					System.out.println("BoardGame instance could not be loaded");
+					System.exit(1);
+				}
+				List<BoardGameFitnessFunction<T>> fitFunctions = new ArrayList<BoardGameFitnessFunction<T>>();
+				fitFunctions.add(new WinPercentageBoardGameFitness<T>());
+				BoardGamePlayer<T>[] players = new BoardGamePlayer[]{player, opponent};
+				
+				double[][] fitness = new double[matches][];
+				double[][] other = new double[matches][];
+				
+				for(int i = 0; i < matches; i++){
+					ArrayList<Pair<double[], double[]>> result = BoardGameUtil.playGame(game, players, fitFunctions, new ArrayList<BoardGameFitnessFunction<T>>()); // No Other Scores
+					fitness[i] = result.get(0).t1;
+					other[i] = result.get(0).t2;
+				}
+				
+				Pair<double[], double[]> score = NoisyLonerTask.averageResults(fitness, other);
+				evaluated.put(genotypeID, score.t1[0]); // Only uses one Fitness Function right now
+				
+				return score.t1[0];
+			} finally {
+				context.unbind(previous);
 			}
-			
-			Pair<double[], double[]> score = NoisyLonerTask.averageResults(fitness, other);
-			evaluated.put(genotypeID, score.t1[0]); // Only uses one Fitness Function right now
-			
-			return score.t1[0];
 		}
 	}
 
@@ -90,7 +110,7 @@ public class StaticOtherOpponentFitness<T extends BoardGameState> implements Boa
 	}
 
 	@Override
-	public void reset() {
+	public synchronized void reset() {
 		 int testGen = ((GenerationalEA) MMNEAT.ea).currentGeneration();
 		 
 		 if(currentGen != testGen){
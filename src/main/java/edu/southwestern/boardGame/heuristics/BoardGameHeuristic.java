@@ -1,5 +1,7 @@
 package edu.southwestern.boardGame.heuristics;
 
+import java.util.List;
+
 import edu.southwestern.boardGame.BoardGameState;
 
 public interface BoardGameHeuristic<T extends BoardGameState> {
@@ -12,4 +14,19 @@ public interface BoardGameHeuristic<T extends BoardGameState> {
 	 */
 	public double heuristicEvalution(T bgState);
 	
+	/**
+	 * Scores several States at once, such as all leaves below one node of a
+	 * tree search. Gives the same Scores as calling heuristicEvalution on each
+	 * State, which is what the default does, but heuristics can override it
+	 * to evaluate the whole batch more efficiently.
+	 * 
+	 * @param states The BoardGameStates to be evaluated
+	 * @param scores Filled with the Score of each State, in the same order
+	 */
+	public default void heuristicEvalutions(List<T> states, double[] scores) {
+		for(int i = 0; i < states.size(); i++) {
+			scores[i] = heuristicEvalution(states.get(i));
+		}
+	}
+	
 }
@@ -1,5 +1,6 @@
 package edu.southwestern.boardGame.heuristics;
 
+import java.util.Arrays;
 import java.util.List;
 
 import edu.southwestern.boardGame.BoardGameState;
@@ -14,6 +15,10 @@ public class NNBoardGameHeuristic<T extends Network, S extends BoardGameState> i
 	T network;
 	BoardGameFeatureExtractor<S> featExtract;
 	Genotype<T> gene;
+	// Reused input arrays: one for single States, and batches indexed by size
+	private double[] inputs = null;
+	private double[][][] batchInputs = new double[0][][];
+	private boolean[] terminal = new boolean[0];
 
 	public NNBoardGameHeuristic(long genotypeID, BoardGameFeatureExtractor<S> fe, Genotype<T> gene){
 		ID = genotypeID;
@@ -46,24 +51,91 @@ public class NNBoardGameHeuristic<T extends Network, S extends BoardGameState> i
 		//			MiscUtil.waitForReadStringAndEnterKeyPress();
 		//		}
 		if(Parameters.parameters.booleanParameter("heuristicOverrideTerminalStates") && current.endState()){ // Overrides the Network's evaluation if set to True
-			List<Integer> winners = current.getWinners();
-
-			if(winners.size() == 1 && winners.contains(0)){ // Player 1 is only winner
-				return 1;
-			} else if(winners.size() == 1 && winners.contains(1)){ // Player 2 is only winner
-				return -1;
-			} else if(winners.size() > 1){ // More than one Player wins, considered a Tie
-				return 0;
-			} else{  
-				throw new IllegalStateException("This heuristic is currently only capable of handling two-player games");
-			}
-
+			return terminalScore(current);
 		}else{
 			network.flush(); // wipe out recurrent activations
-			double utility = network.process(featExtract.getFeatures(current))[0]; // Returns the Network's Score for the current BoardGameState's descriptor
+			double[] features = inputs(current);
+			featExtract.fillFeatures(current, features);
+			double utility = network.process(features)[0]; // Returns the Network's Score for the current BoardGameState's descriptor
 			assert utility >= -1 && utility <= 1 : "Utility out of range -1 to 1: " + utility;
 			return utility;
 		}
 	}
 
+	/**
+	 * Evaluates all non-terminal States with a single batch sent to the
+	 * Network, filling input arrays that are reused from one call to the next
+	 */
+	@Override
+	public void heuristicEvalutions(List<S> states, double[] scores) {
+		boolean override = Parameters.parameters.booleanParameter("heuristicOverrideTerminalStates");
+		if(terminal.length < states.size()) {
+			terminal = new boolean[states.size()];
+		}
+		int count = 0;
+		for(int i = 0; i < states.size(); i++) {
+			terminal[i] = override && states.get(i).endState();
+			if(terminal[i]) {
+				scores[i] = terminalScore(states.get(i));
+			} else {
+				count++;
+			}
+		}
+		if(count == 0) {
+			return;
+		}
+		if(count >= batchInputs.length) {
+			batchInputs = Arrays.copyOf(batchInputs, count + 1);
+		}
+		if(batchInputs[count] == null) {
+			batchInputs[count] = new double[count][];
+		}
+		double[][] batch = batchInputs[count];
+		int row = 0;
+		for(int i = 0; i < states.size(); i++) {
+			S state = states.get(i);
+			if(!terminal[i]) {
+				if(batch[row] == null) {
+					batch[row] = new double[inputs(state).length];
+				}
+				featExtract.fillFeatures(state, batch[row++]);
+			}
+		}
+		double[][] outputs = network.processBatch(batch); // Each row is processed as though the Network was just flushed
+		row = 0;
+		for(int i = 0; i < states.size(); i++) {
+			if(!terminal[i]) {
+				scores[i] = outputs[row++][0];
+				assert scores[i] >= -1 && scores[i] <= 1 : "Utility out of range -1 to 1: " + scores[i];
+			}
+		}
+	}
+
+	/**
+	 * Input array for the Network, sized on first use
+	 */
+	private double[] inputs(S state) {
+		if(inputs == null) {
+			inputs = new double[featExtract.getFeatures(state).length];
+		}
+		return inputs;
+	}
+
+	/**
+	 * Score of a terminal State: 1 if Player 1 won, -1 if Player 2 won, and 0 for a Tie
+	 */
+	private static double terminalScore(BoardGameState current) {
+		List<Integer> winners = current.getWinners();
+
+		if(winners.size() == 1 && winners.contains(0)){ // Player 1 is only winner
+			return 1;
+		} else if(winners.size() == 1 && winners.contains(1)){ // Player 2 is only winner
+			return -1;
+		} else if(winners.size() > 1){ // More than one Player wins, considered a Tie
+			return 0;
+		} else{  
+			throw new IllegalStateException("This heuristic is currently only capable of handling two-player games");
+		}
+	}
+
 }
\ No newline at end of file
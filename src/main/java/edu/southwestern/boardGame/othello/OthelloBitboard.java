@@ -0,0 +1,201 @@
+package edu.southwestern.boardGame.othello;
+
+import java.util.Arrays;
+
+import edu.southwestern.boardGame.Bitboard;
+import edu.southwestern.boardGame.ZobristKeys;
+
+/**
+ * Othello position with one bitboard per color. Space (x,y) of the
+ * OthelloState board is bit x*8+y. Moves are the index of the space played
+ * on, or PASS. Legal moves and flipped chips are found for all eight
+ * directions with shifts of whole bitboards instead of space by space.
+ *
+ * @author Jacob Schrum
+ */
+public class OthelloBitboard implements Bitboard {
+
+	public static final int PASS = 64;
+	// One move per space is more than any position can have
+	private static final int MAX_MOVES = 64;
+
+	private static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL; // y != 0
+	private static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL; // y != 7
+	// Shift for each direction (positive means left shift), and the spaces a chip can land on
+	private static final int[] SHIFTS = new int[]{1, -1, 8, -8, 9, 7, -7, -9};
+	private static final long[] MASKS = new long[]{NOT_FIRST_COLUMN, NOT_LAST_COLUMN, -1L, -1L,
+			NOT_FIRST_COLUMN, NOT_LAST_COLUMN, NOT_FIRST_COLUMN, NOT_LAST_COLUMN};
+
+	// Keys for a chip of each color on each space, then the player to move, then the number of passes
+	private static final long[] ZOBRIST = ZobristKeys.create(2 * 64 + 1 + 3, 0x07E110L);
+	private static final int ZOBRIST_PLAYER = 2 * 64;
+	private static final int ZOBRIST_PASSES = ZOBRIST_PLAYER + 1;
+
+	final long[] chips = new long[2]; // Indexed by OthelloState.BLACK_CHIP and WHITE_CHIP
+	int nextPlayer;
+	int numPasses;
+	private long key;
+
+	// Undo information for each move made
+	private int[] moveHistory = new int[64];
+	private long[] flipHistory = new long[64];
+	private int[] passHistory = new int[64];
+	private int movesMade = 0;
+
+	OthelloBitboard(long black, long white, int nextPlayer, int numPasses) {
+		chips[OthelloState.BLACK_CHIP] = black;
+		chips[OthelloState.WHITE_CHIP] = white;
+		this.nextPlayer = nextPlayer;
+		this.numPasses = Math.min(numPasses, 2);
+		key = computeKey();
+	}
+
+	private long computeKey() {
+		long result = 0;
+		for(int player = 0; player < 2; player++) {
+			long b = chips[player];
+			while(b != 0) {
+				result ^= ZOBRIST[player * 64 + Long.numberOfTrailingZeros(b)];
+				b &= b - 1;
+			}
+		}
+		if(nextPlayer == 1) result ^= ZOBRIST[ZOBRIST_PLAYER];
+		return result ^ ZOBRIST[ZOBRIST_PASSES + numPasses];
+	}
+
+	private static long shift(long b, int direction) {
+		int s = SHIFTS[direction];
+		return (s > 0 ? b << s : b >>> -s) & MASKS[direction];
+	}
+
+	/**
+	 * Spaces where the player to move can place a chip
+	 *
+	 * @return bitboard of legal spaces
+	 */
+	public long legalMoves() {
+		long own = chips[nextPlayer];
+		long opponent = chips[1 - nextPlayer];
+		long empty = ~(own | opponent);
+		long moves = 0;
+		for(int d = 0; d < SHIFTS.length; d++) {
+			long line = shift(own, d) & opponent;
+			for(int i = 0; i < 5; i++) { // A line of opponent chips is at most 6 long
+				line |= shift(line, d) & opponent;
+			}
+			moves |= shift(line, d) & empty;
+		}
+		return moves;
+	}
+
+	/**
+	 * Opponent chips flipped by the player to move placing a chip on a space
+	 */
+	private long flips(int space) {
+		long own = chips[nextPlayer];
+		long opponent = chips[1 - nextPlayer];
+		long flipped = 0;
+		for(int d = 0; d < SHIFTS.length; d++) {
+			long line = 0;
+			long x = shift(1L << space, d);
+			while((x & opponent) != 0) {
+				line |= x;
+				x = shift(x, d);
+			}
+			if((x & own) != 0) flipped |= line;
+		}
+		return flipped;
+	}
+
+	@Override
+	public int maxMoves() {
+		return MAX_MOVES;
+	}
+
+	@Override
+	public int generateMoves(int[] moves, int start) {
+		long legal = legalMoves();
+		if(legal == 0) {
+			moves[start] = PASS;
+			return 1;
+		}
+		int count = 0;
+		while(legal != 0) {
+			moves[start + count++] = Long.numberOfTrailingZeros(legal);
+			legal &= legal - 1;
+		}
+		return count;
+	}
+
+	@Override
+	public void makeMove(int move) {
+		if(movesMade == moveHistory.length) {
+			moveHistory = Arrays.copyOf(moveHistory, movesMade * 2);
+			flipHistory = Arrays.copyOf(flipHistory, movesMade * 2);
+			passHistory = Arrays.copyOf(passHistory, movesMade * 2);
+		}
+		moveHistory[movesMade] = move;
+		passHistory[movesMade] = numPasses;
+		key ^= ZOBRIST[ZOBRIST_PASSES + numPasses];
+		long flipped = 0;
+		if(move == PASS) {
+			numPasses = Math.min(numPasses + 1, 2);
+		} else {
+			flipped = flips(move);
+			toggle(flipped, move);
+			numPasses = 0;
+		}
+		flipHistory[movesMade++] = flipped;
+		key ^= ZOBRIST[ZOBRIST_PASSES + numPasses];
+		nextPlayer = 1 - nextPlayer;
+		key ^= ZOBRIST[ZOBRIST_PLAYER];
+	}
+
+	@Override
+	public void unmakeMove() {
+		int move = moveHistory[--movesMade];
+		nextPlayer = 1 - nextPlayer;
+		key ^= ZOBRIST[ZOBRIST_PLAYER];
+		key ^= ZOBRIST[ZOBRIST_PASSES + numPasses];
+		numPasses = passHistory[movesMade];
+		key ^= ZOBRIST[ZOBRIST_PASSES + numPasses];
+		if(move != PASS) {
+			toggle(flipHistory[movesMade], move);
+		}
+	}
+
+	/**
+	 * Adds (or removes) the chip of the player to move on space, and changes
+	 * the color of the flipped chips. Applying it twice has no effect.
+	 */
+	private void toggle(long flipped, int space) {
+		int own = nextPlayer;
+		int opponent = 1 - nextPlayer;
+		chips[own] ^= flipped | (1L << space);
+		chips[opponent] ^= flipped;
+		key ^= ZOBRIST[own * 64 + space];
+		while(flipped != 0) {
+			int s = Long.numberOfTrailingZeros(flipped);
+			key ^= ZOBRIST[own * 64 + s] ^ ZOBRIST[opponent * 64 + s];
+			flipped &= flipped - 1;
+		}
+	}
+
+	@Override
+	public long zobristKey() {
+		return key;
+	}
+
+	/**
+	 * Like OthelloState, the game only ends after both players pass in a row
+	 */
+	@Override
+	public boolean endState() {
+		return numPasses >= 2;
+	}
+
+	@Override
+	public int getCurrentPlayer() {
+		return nextPlayer;
+	}
+}
@@ -2,15 +2,15 @@ package edu.southwestern.boardGame.othello;
 
 import java.awt.Color;
 import java.awt.Point;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import edu.southwestern.boardGame.BitboardBoardGameState;
 import edu.southwestern.boardGame.BoardGameState;
 import edu.southwestern.boardGame.TwoDimensionalBoardGameState;
 
-public class OthelloState extends TwoDimensionalBoardGameState {
+public class OthelloState extends TwoDimensionalBoardGameState implements BitboardBoardGameState<OthelloBitboard> {
 	
 	int numPasses;
 	
@@ -153,7 +153,9 @@ public class OthelloState extends TwoDimensionalBoardGameState {
 	}
 	
 	/**
-	 * Creates a List of all possible valid Moves from this BoardGameState
+	 * Creates a List of all possible valid Moves from this BoardGameState.
+	 * Legal moves are found on a Bitboard, and a copy of the state is only
+	 * made for each move that can actually be played.
 	 * 
 	 * @param currentState The BoardGameState being played from
 	 * @return List<T> of all BoardGameStates possible from the given BoardGameState
@@ -163,43 +165,17 @@ public class OthelloState extends TwoDimensionalBoardGameState {
 	public <T extends BoardGameState> Set<T> possibleBoardGameStates(T currentState) {
 		
 		Set<T> possible = new HashSet<T>();
-		List<Point> chipMoves = new ArrayList<Point>();
+		OthelloBitboard board = ((OthelloState) currentState).toBitboard();
+		long legal = board.legalMoves();
 		
-		for(int i = 0; i < BOARD_WIDTH; i++){ // This part works
-			for(int j = 0; j < BOARD_WIDTH; j++){
-				if(boardState[i][j] == nextPlayer){
-					chipMoves.add(new Point(i, j));
-				}
-			}
-		}
-		
-		for(Point chip : chipMoves){ // Cycles through all Chips
-			int chipX = (int) chip.getX();
-			int chipY = (int) chip.getY();
-			
-			for(int dX = -1; dX <= 1; dX++){ // Doesn't handle Diagonals well; probably part of the Move check				
-				for(int dY = -1; dY <= 1; dY++){
-					if(dX != 0 || dY != 0){ // Cycles through the dX and dY correctly
-						
-						int x = chipX;
-						int y = chipY;
-						
-						do{
-							x += dX;
-							y += dY;
-						}while((x >= 0 && x < BOARD_WIDTH) && (y >= 0 && y < BOARD_WIDTH) && boardState[x][y] == (nextPlayer + 1) % 2);
-						
-						if((x >= 0 && x < BOARD_WIDTH) && (y >= 0 && y < BOARD_WIDTH)){
-							if(boardState[x][y] == EMPTY){
-								OthelloState temp = (OthelloState) currentState.copy();
-								if(temp.moveSinglePoint(new Point(x, y))){
-									possible.add((T) temp);
-								}
-							}
-						}
-					}
-				}
-			}
+		while(legal != 0){ // Cycles through all Spaces that can be played on
+			int space = Long.numberOfTrailingZeros(legal);
+			legal &= legal - 1;
+			OthelloState temp = (OthelloState) currentState.copy();
+			board.makeMove(space);
+			temp.loadBitboard(board);
+			board.unmakeMove();
+			possible.add((T) temp);
 		}
 				
 		// Schrum: this case here annoys me. I feel that there is a way to avoid it
@@ -210,6 +186,47 @@ public class OthelloState extends TwoDimensionalBoardGameState {
 		return possible;
 	}
 
+	/**
+	 * Bitboard holding the chips of this state
+	 * 
+	 * @return OthelloBitboard of the current position
+	 */
+	@Override
+	public OthelloBitboard toBitboard() {
+		long black = 0;
+		long white = 0;
+		for(int i = 0; i < BOARD_WIDTH; i++){
+			for(int j = 0; j < BOARD_WIDTH; j++){
+				if(boardState[i][j] == BLACK_CHIP){
+					black |= 1L << (i * BOARD_WIDTH + j);
+				}else if(boardState[i][j] == WHITE_CHIP){
+					white |= 1L << (i * BOARD_WIDTH + j);
+				}
+			}
+		}
+		return new OthelloBitboard(black, white, nextPlayer, numPasses);
+	}
+
+	/**
+	 * Replaces the chips, next player, and passes of this state with those of a Bitboard
+	 * 
+	 * @param board OthelloBitboard to copy
+	 */
+	@Override
+	public void loadBitboard(OthelloBitboard board) {
+		long black = board.chips[BLACK_CHIP];
+		long white = board.chips[WHITE_CHIP];
+		for(int i = 0; i < BOARD_WIDTH; i++){
+			for(int j = 0; j < BOARD_WIDTH; j++){
+				long bit = 1L << (i * BOARD_WIDTH + j);
+				boardState[i][j] = (black & bit) != 0 ? BLACK_CHIP : ((white & bit) != 0 ? WHITE_CHIP : EMPTY);
+			}
+		}
+		nextPlayer = board.nextPlayer;
+		numPasses = board.numPasses;
+		winners.clear(); // Recalculated by getWinners()
+	}
+
 	/**
 	 * Creates a copy of this BoardGameState
 	 * 
@@ -0,0 +1,107 @@
+package edu.southwestern.boardGame.ttt;
+
+import edu.southwestern.boardGame.Bitboard;
+import edu.southwestern.boardGame.ZobristKeys;
+
+/**
+ * Tic-Tac-Toe position with one 9 bit board per player. Space (x,y) of the
+ * TicTacToeState board is bit x*3+y, and a move is the index of the space
+ * marked.
+ *
+ * @author Jacob Schrum
+ */
+public class TicTacToeBitboard implements Bitboard {
+
+	private static final int SPACES = TicTacToeState.BOARD_WIDTH * TicTacToeState.BOARD_WIDTH;
+	private static final int FULL = (1 << SPACES) - 1;
+	// Rows, columns and diagonals
+	private static final int[] LINES = new int[]{0007, 0070, 0700, 0111, 0222, 0444, 0421, 0124};
+
+	private static final long[] ZOBRIST = ZobristKeys.create(2 * SPACES + 1, 0x777L);
+	private static final int ZOBRIST_PLAYER = 2 * SPACES;
+
+	final int[] marks = new int[2]; // Indexed by TicTacToeState.X and O
+	int nextPlayer;
+	private long key;
+
+	private final int[] moveHistory = new int[SPACES];
+	private int movesMade = 0;
+
+	TicTacToeBitboard(int x, int o, int nextPlayer) {
+		marks[TicTacToeState.X] = x;
+		marks[TicTacToeState.O] = o;
+		this.nextPlayer = nextPlayer;
+		for(int player = 0; player < 2; player++) {
+			for(int s = 0; s < SPACES; s++) {
+				if((marks[player] & (1 << s)) != 0) key ^= ZOBRIST[player * SPACES + s];
+			}
+		}
+		if(nextPlayer == 1) key ^= ZOBRIST[ZOBRIST_PLAYER];
+	}
+
+	/**
+	 * Whether a player has three in a row
+	 *
+	 * @param player index of player
+	 * @return true if one of the lines is filled by the player
+	 */
+	public boolean hasLine(int player) {
+		int b = marks[player];
+		for(int line : LINES) {
+			if((b & line) == line) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int maxMoves() {
+		return SPACES;
+	}
+
+	@Override
+	public int generateMoves(int[] moves, int start) {
+		int empty = ~(marks[0] | marks[1]) & FULL;
+		int count = 0;
+		while(empty != 0) {
+			moves[start + count++] = Integer.numberOfTrailingZeros(empty);
+			empty &= empty - 1;
+		}
+		return count;
+	}
+
+	@Override
+	public void makeMove(int move) {
+		moveHistory[movesMade++] = move;
+		marks[nextPlayer] |= 1 << move;
+		key ^= ZOBRIST[nextPlayer * SPACES + move];
+		nextPlayer = 1 - nextPlayer;
+		key ^= ZOBRIST[ZOBRIST_PLAYER];
+	}
+
+	@Override
+	public void unmakeMove() {
+		int move = moveHistory[--movesMade];
+		nextPlayer = 1 - nextPlayer;
+		key ^= ZOBRIST[ZOBRIST_PLAYER];
+		marks[nextPlayer] &= ~(1 << move);
+		key ^= ZOBRIST[nextPlayer * SPACES + move];
+	}
+
+	@Override
+	public long zobristKey() {
+		return key;
+	}
+
+	/**
+	 * Over when either player has three in a row, or the board is full
+	 */
+	@Override
+	public boolean endState() {
+		return hasLine(0) || hasLine(1) || (marks[0] | marks[1]) == FULL;
+	}
+
+	@Override
+	public int getCurrentPlayer() {
+		return nextPlayer;
+	}
+}
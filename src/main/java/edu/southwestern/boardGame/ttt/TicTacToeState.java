@@ -6,10 +6,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import edu.southwestern.boardGame.BitboardBoardGameState;
 import edu.southwestern.boardGame.BoardGameState;
 import edu.southwestern.boardGame.TwoDimensionalBoardGameState;
 
-public class TicTacToeState extends TwoDimensionalBoardGameState {
+public class TicTacToeState extends TwoDimensionalBoardGameState implements BitboardBoardGameState<TicTacToeBitboard> {
 	
 
 	// Really only used in one place now. Probably ok to remove X and O.
@@ -149,6 +150,45 @@ public class TicTacToeState extends TwoDimensionalBoardGameState {
 		return returnStates;
 	}
 
+	/**
+	 * Bitboard holding the Markings of this state
+	 * 
+	 * @return TicTacToeBitboard of the current position
+	 */
+	@Override
+	public TicTacToeBitboard toBitboard() {
+		int x = 0;
+		int o = 0;
+		for(int i = 0; i < BOARD_WIDTH; i++){
+			for(int j = 0; j < BOARD_WIDTH; j++){
+				if(boardState[i][j] == X){
+					x |= 1 << (i * BOARD_WIDTH + j);
+				}else if(boardState[i][j] == O){
+					o |= 1 << (i * BOARD_WIDTH + j);
+				}
+			}
+		}
+		return new TicTacToeBitboard(x, o, nextPlayer);
+	}
+
+	/**
+	 * Replaces the Markings and next player of this state with those of a Bitboard
+	 * 
+	 * @param board TicTacToeBitboard to copy
+	 */
+	@Override
+	public void loadBitboard(TicTacToeBitboard board) {
+		for(int i = 0; i < BOARD_WIDTH; i++){
+			for(int j = 0; j < BOARD_WIDTH; j++){
+				int bit = 1 << (i * BOARD_WIDTH + j);
+				boardState[i][j] = (board.marks[X] & bit) != 0 ? X : ((board.marks[O] & bit) != 0 ? O : EMPTY);
+			}
+		}
+		nextPlayer = board.nextPlayer;
+		winners.clear();
+		checkWinner();
+	}
+
 	@Override
 	public void setupStartingBoard() {
 		// Do nothing to the already empty board
@@ -3,6 +3,7 @@ package edu.southwestern.data;
 import edu.southwestern.log.PerformanceLog;
 import edu.southwestern.log.TWEANNLog;
 import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.nsga2.Hypervolume;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.tasks.GroupTask;
 import edu.southwestern.tasks.LonerTask;
@@ -10,16 +11,19 @@ import edu.southwestern.tasks.MultiplePopulationTask;
 import edu.southwestern.tasks.Task;
 import edu.southwestern.tasks.mspacman.CooperativeMsPacManTask;
 import edu.southwestern.util.datastructures.Pair;
+import edu.southwestern.util.file.DoubleTableReader;
 import edu.southwestern.util.stats.Statistic;
 import edu.southwestern.util.stats.StatisticsUtilities;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Scanner;
-import jmetal.qualityIndicator.Hypervolume;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * After several runs of an experiment have been executed, this class can be
@@ -245,9 +249,21 @@ public class ResultSummaryUtilities {
 	 */
 	public static void hypervolumesByGenerationForAllRuns(String dirPrefix, int runs, String filePrefix,
 			String fileMiddle, String fileExtension, int generations) throws FileNotFoundException {
+		int numObjectives = hypervolumeObjectives();
+		double[] mins = hypervolumeMins();
+		// Every generation of every run is independent, so all are computed in parallel
+		// Results are collected in order of generation within each run
+		ArrayList<Pair<Double, Integer>> results = IntStream.range(0, runs * generations).parallel()
+				.mapToObj(k -> hypervolumeForGeneration(dirPrefix, k / generations, filePrefix, fileMiddle,
+						k % generations, fileExtension, numObjectives, mins))
+				.collect(Collectors.toCollection(ArrayList::new));
 		for (int i = 0; i < runs; i++) {
-			hypervolumesByGeneration(dirPrefix, i, filePrefix, fileMiddle, fileExtension, generations,
-					dirPrefix + i + "/" + filePrefix);
+			PrintStream out = new PrintStream(new FileOutputStream(dirPrefix + i + "/" + filePrefix + i + fileMiddle + "HV.txt"));
+			for (int g = 0; g < generations; g++) {
+				Pair<Double, Integer> hypervolumeAndFrontSize = results.get(i * generations + g);
+				out.println(g + "\t" + hypervolumeAndFrontSize.t1 + "\t" + hypervolumeAndFrontSize.t2);
+			}
+			out.close();
 		}
 	}
 
@@ -294,15 +310,53 @@ public class ResultSummaryUtilities {
 	 */
 	public static Pair<Double, Integer> hypervolumeForGeneration(String dirPrefix, int run, String filePrefix,
 			String fileMiddle, int generation, String fileExtension) {
-		Hypervolume qualityIndicator = new Hypervolume();
+		return hypervolumeForGeneration(dirPrefix, run, filePrefix, fileMiddle, generation, fileExtension,
+				hypervolumeObjectives(), hypervolumeMins());
+	}
+
+	/**
+	 * Same as above, but with the number of objectives and their min scores
+	 * already known, so that many generations can be processed in parallel.
+	 * 
+	 * @param numObjectives
+	 *            Number of score columns after the solution and id numbers
+	 *            that are objectives (later columns are ignored)
+	 * @param mins
+	 *            Min score of each objective, subtracted from all scores
+	 * @return pair with hypervolume and the size of the Pareto front
+	 */
+	public static Pair<Double, Integer> hypervolumeForGeneration(String dirPrefix, int run, String filePrefix,
+			String fileMiddle, int generation, String fileExtension, int numObjectives, double[] mins) {
 		// Read the front from the files
 		String file = dirPrefix + run + "/" + filePrefix + run + fileMiddle + generation + "." + fileExtension;
-		double[][] fileData = qualityIndicator.utils_.readFront(file);
 		double[][] solutions;
-		// First drop solution number
-		double[][] step1 = dropColumn(fileData, 0);
-		// Then drop id numbers
-		solutions = dropColumn(step1, 0);
+		try {
+			// Drop solution number and id number, and any extra meta-heuristic objectives
+			solutions = DoubleTableReader.read(file, 2, numObjectives);
+		} catch (IOException e) {
+			System.out.println("Could not read front from " + file);
+			e.printStackTrace();
+			System.exit(1);
+			return null;
+		}
+		// Adjust for possibly negative min scores
+		for (int i = 0; i < solutions.length; i++) {
+			for (int j = 0; j < numObjectives; j++) {
+				solutions[i][j] -= mins[j];
+			}
+		}
+		int noNondominatedPoints = Hypervolume.nondominatedCount(solutions);
+		// Obtain hypervolume
+		double value = Hypervolume.of(solutions);
+		return new Pair<Double, Integer>(value, noNondominatedPoints);
+	}
+
+	/**
+	 * Number of objectives of the current task that count towards hypervolume
+	 * 
+	 * @return number of objectives
+	 */
+	public static int hypervolumeObjectives() {
 		Task task = MMNEAT.task;
 		int numObjectives = -1;
 		if(task instanceof LonerTask || task instanceof CooperativeMsPacManTask) {
@@ -311,12 +365,16 @@ public class ResultSummaryUtilities {
 			//TODO: eventually should be generalized across all populations
 			numObjectives = ((GroupTask) task).objectivesPerPopulation()[0];
 		}
-		while (solutions[0].length > numObjectives) {
-			// Remove extra meta-heuristic objectives
-			solutions = dropColumn(solutions, solutions[0].length - 1);
-		}
+		return numObjectives;
+	}
 
-		// Adjust for possibly negative min scores
+	/**
+	 * Min scores of the current task, which become the hypervolume reference point
+	 * 
+	 * @return min score for each objective
+	 */
+	public static double[] hypervolumeMins() {
+		Task task = MMNEAT.task;
 		double[] mins = null;
 		if(task instanceof LonerTask || task instanceof CooperativeMsPacManTask) {
 			mins = MMNEAT.task.minScores();
@@ -326,17 +384,7 @@ public class ResultSummaryUtilities {
 			//the cooperativeTorusPredPreyTask minScore override.
 			mins = ((GroupTask) task).minScores();
 		}
-		for (int i = 0; i < solutions.length; i++) {
-			for (int j = 0; j < solutions[0].length; j++) {
-				solutions[i][j] -= mins[j];
-			}
-		}
-
-		int noNondominatedPoints = qualityIndicator.filterNondominatedSet(solutions, solutions.length, solutions[0].length);
-		// Obtain hypervolume
-		double value = qualityIndicator.calculateHypervolume(solutions, solutions.length, solutions[0].length);
-		// return value;
-		return new Pair<Double, Integer>(value, noNondominatedPoints);
+		return mins;
 	}
 
 	/**
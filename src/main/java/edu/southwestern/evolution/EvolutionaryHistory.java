@@ -4,8 +4,10 @@ import edu.southwestern.evolution.crossover.network.CombiningTWEANNCrossover;
 import edu.southwestern.evolution.genotypes.CombinedGenotype;
 import edu.southwestern.evolution.genotypes.Genotype;
 import edu.southwestern.evolution.genotypes.HyperNEATCPPNforDL4JGenotype;
+import edu.southwestern.evolution.genotypes.InnovationIndex;
 import edu.southwestern.evolution.genotypes.TWEANNGenotype;
 import edu.southwestern.evolution.genotypes.TWEANNGenotype.NodeGene;
+import edu.southwestern.evolution.lineage.LineageStore;
 import edu.southwestern.log.MMNEATLog;
 import edu.southwestern.log.TWEANNLog;
 import edu.southwestern.MMNEAT.MMNEAT;
@@ -14,9 +16,11 @@ import edu.southwestern.networks.Network;
 import edu.southwestern.networks.TWEANN;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
+import edu.southwestern.scores.Score;
 import edu.southwestern.util.file.FileUtilities;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -43,10 +47,14 @@ public class EvolutionaryHistory {
 	// member of population in an array list
 	public static ArrayList<NodeGene>[] archetypes = null;
 	public static int[] archetypeOut = null;
+	// Positions of innovation numbers in each archetype. Created when first needed
+	private static InnovationIndex[] archetypeIndices = null;
 	// logs that keep track of history of genotype
 	public static TWEANNLog tweannLog = null;
 	public static MMNEATLog mutationLog = null;
 	public static MMNEATLog lineageLog = null;
+	// Binary copy of the lineage and parent scores for the lineage browser
+	public static LineageStore.Writer lineageData = null;
 
 	/**
 	 * Commonly used/shared networks (hierarchical architectures). Raw types are
@@ -298,6 +306,17 @@ public class EvolutionaryHistory {
 		// Selective breeding allows for an unusual number of log lines per generation
 		mutationLog = new MMNEATLog("Mutations", true, false, MMNEAT.ea instanceof SelectiveBreedingEA);
 		lineageLog = new MMNEATLog("Lineage", true, false, MMNEAT.ea instanceof SelectiveBreedingEA);
+		if (Parameters.parameters.booleanParameter("binaryLineage") && !Parameters.parameters.booleanParameter("logLock")) {
+			String prefix = FileUtilities.getSaveDirectory() + "/" + Parameters.parameters.stringParameter("log")
+					+ Parameters.parameters.integerParameter("runNumber") + "_";
+			try {
+				lineageData = new LineageStore.Writer(prefix, Parameters.parameters.integerParameter("lastSavedGeneration"));
+			} catch (IOException ex) {
+				System.out.println("Could not setup binary lineage files");
+				ex.printStackTrace();
+				System.exit(1);
+			}
+		}
 	}
 
 	/**
@@ -347,6 +366,9 @@ public class EvolutionaryHistory {
 		if(CommonConstants.inheritFitness) {
 			cloneChild.addParent(parent);
 		}
+		if (lineageData != null) {
+			lineageData.birth(cloneChild.getId(), parent, -1);
+		}
 		logLineageData(parent + " -> " + cloneChild.getId());
 	}
 	
@@ -361,6 +383,9 @@ public class EvolutionaryHistory {
 			childOffspring.addParent(parent1);
 			childOffspring.addParent(parent2);
 		}
+		if (lineageData != null) {
+			lineageData.birth(childOffspring.getId(), parent1, parent2);
+		}
 		logLineageData(parent1 + " X " + parent2 + " -> " + childOffspring.getId());
 	}
 	
@@ -374,6 +399,28 @@ public class EvolutionaryHistory {
 		if (lineageLog != null) {
 			lineageLog.log(data);
 		}
+		// Lines starting with dashes separate generations
+		if (lineageData != null && data.startsWith("--")) {
+			lineageData.endGeneration();
+		}
+	}
+
+	/**
+	 * Logs scores of a parent population to the binary lineage files, so
+	 * the lineage browser does not have to parse the per-generation score logs
+	 *
+	 * @param scores
+	 *            Scores of population, in population order
+	 * @param generation
+	 *            Generation the population was evaluated in
+	 */
+	public static void logLineageScores(ArrayList<? extends Score<?>> scores, int generation) {
+		if (lineageData != null) {
+			for (int i = 0; i < scores.size(); i++) {
+				Score<?> s = scores.get(i);
+				lineageData.scores(s.individual.getId(), generation, i, s.scores);
+			}
+		}
 	}
 
 	/**
@@ -387,15 +434,30 @@ public class EvolutionaryHistory {
 	 */
 	public static int indexOfArchetypeInnovation(int populationIndex, long sourceInnovation) {
 		if (archetypes[populationIndex] != null) {
-			for (int i = 0; i < archetypes[populationIndex].size(); i++) {
-				if (archetypes[populationIndex].get(i).innovation == sourceInnovation) {
-					return i;
-				}
-			}
+			return archetypeIndex(populationIndex).indexOf(sourceInnovation, archetypes[populationIndex]);
 		}
 		return -1;// returns if innovation number not found
 	}
 
+	/**
+	 * Index of innovation numbers in an archetype. Changes made by the
+	 * methods of this class update the index, and the index checks itself against
+	 * the archetype, so nodes can also be appended directly.
+	 *
+	 * @param populationIndex
+	 *            index of population in question
+	 * @return index for the archetype of that population
+	 */
+	private static synchronized InnovationIndex archetypeIndex(int populationIndex) {
+		if (archetypeIndices == null || archetypeIndices.length != archetypes.length) {
+			archetypeIndices = new InnovationIndex[archetypes.length];
+		}
+		if (archetypeIndices[populationIndex] == null) {
+			archetypeIndices[populationIndex] = new InnovationIndex();
+		}
+		return archetypeIndices[populationIndex];
+	}
+
 	/**
 	 * Removes from the archetype all nodes that are not part of the given
 	 * network in the population
@@ -422,27 +484,29 @@ public class EvolutionaryHistory {
 			}
 			// Remove from archetype each innovation number no longer active in
 			// population
-			Iterator<NodeGene> itr = archetypes[populationIndex].iterator();
 			archetypeOut[populationIndex] = 0;
 			// Could check CommonConstants.trackCombiningCrossover, but knowing
 			// that oldToNew is not empty should be enough
 			boolean trackCombiningCrossoverInformation = !CombiningTWEANNCrossover.oldToNew.isEmpty();
+			if (!trackCombiningCrossoverInformation) {
+				// In the simple case, just remove the inactive nodes. Removing
+				// them all at once avoids shifting the list once per node
+				archetypes[populationIndex].removeIf(ng -> !activeNodeInnovations.contains(ng.innovation));
+			}
+			Iterator<NodeGene> itr = archetypes[populationIndex].iterator();
 			while (itr.hasNext()) {
 				NodeGene currentGene = itr.next();
 				if (!activeNodeInnovations.contains(currentGene.innovation)) {
-					if (trackCombiningCrossoverInformation) {
-						// If combining crossover information is being tracked,
-						// then the cleanup process is more complex
-						CombiningTWEANNCrossover.complexArchetypeCleanup(populationIndex, itr, currentGene);
-					} else {
-						// In the simple case, just remove the inactive node
-						itr.remove();
-					}
+					// Only happens when combining crossover information is tracked,
+					// in which case the cleanup process is more complex
+					CombiningTWEANNCrossover.complexArchetypeCleanup(populationIndex, itr, currentGene);
 					// if reaches this else if statement, current gene is active
 				} else if (currentGene.ntype == TWEANN.Node.NTYPE_OUTPUT) {
 					archetypeOut[populationIndex]++;
 				}
 			}
+			// Nodes were removed all over the archetype
+			archetypeIndex(populationIndex).changed();
 		}
 	}
 
@@ -467,6 +531,7 @@ public class EvolutionaryHistory {
 				&& indexOfArchetypeInnovation(populationIndex, node.innovation) == -1) {
 			// adds the new innovation number
 			archetypes[populationIndex].add(node);
+			archetypeIndex(populationIndex).added(archetypes[populationIndex], archetypes[populationIndex].size() - 1);
 			if (node.ntype == TWEANN.Node.NTYPE_OUTPUT) {
 				archetypeOut[populationIndex]++;
 			}
@@ -497,6 +562,7 @@ public class EvolutionaryHistory {
 			// System.out.println("Archetype " + populationIndex + " Add
 			// "+pos+": " + node.innovation + ":" + node);
 			archetypes[populationIndex].add(pos, node);
+			archetypeIndex(populationIndex).added(archetypes[populationIndex], pos);
 			if (CommonConstants.trackCombiningCrossover && combineCopy) {
 				// this statement only runs if we will be tracking combining
 				// crossover information
@@ -533,6 +599,7 @@ public class EvolutionaryHistory {
                 // indicates addition was successful
 		newNodeGene.setFromCombiningCrossover();
 		archetypes[populationIndex].add(pos, newNodeGene);
+		archetypeIndex(populationIndex).added(archetypes[populationIndex], pos);
 	}
 
 	/**
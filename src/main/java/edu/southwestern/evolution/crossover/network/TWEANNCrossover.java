@@ -2,6 +2,7 @@ package edu.southwestern.evolution.crossover.network;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 
 import edu.southwestern.evolution.EvolutionaryHistory;
 import edu.southwestern.evolution.crossover.Crossover;
@@ -425,12 +426,15 @@ public class TWEANNCrossover extends Crossover<TWEANN> {
 	 *            link genes of parent 2
 	 */
 	private static void mergeDuplicates(ArrayList<LinkGene> left, ArrayList<LinkGene> right) {
+		// Innovation number of the last link in left between each pair of nodes
+		HashMap<Pair<Long, Long>, Long> leftInnovations = new HashMap<Pair<Long, Long>, Long>(2 * left.size());
 		for (LinkGene lg : left) {
-			for (LinkGene rg : right) {
-				if (lg.sourceInnovation == rg.sourceInnovation && lg.targetInnovation == rg.targetInnovation
-						&& lg.innovation != rg.innovation) {
-					rg.innovation = lg.innovation;
-				}
+			leftInnovations.put(new Pair<Long, Long>(lg.sourceInnovation, lg.targetInnovation), lg.innovation);
+		}
+		for (LinkGene rg : right) {
+			Long innovation = leftInnovations.get(new Pair<Long, Long>(rg.sourceInnovation, rg.targetInnovation));
+			if (innovation != null) {
+				rg.innovation = innovation;
 			}
 		}
 	}
@@ -4,6 +4,7 @@ import edu.southwestern.evolution.genotypes.pool.GenotypePool;
 import edu.southwestern.networks.HierarchicalTWEANN;
 import edu.southwestern.networks.TWEANN;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  *
@@ -30,13 +31,10 @@ public class HierarchicalTWEANNGenotype extends TWEANNGenotype {
 
 	@Override
 	public Genotype<TWEANN> copy() {
-		int[] temp = moduleUsage;
+		// Copies genes directly, so no HierarchicalTWEANN is built
 		TWEANNGenotype tg = (TWEANNGenotype) super.copy();
 		HierarchicalTWEANNGenotype result = new HierarchicalTWEANNGenotype(tg, this.subNetIds);
-		result.moduleUsage = new int[moduleUsage.length];
-		// Mode usage is erased by getPhenotype(), so it is restored here
-		moduleUsage = temp;
-		System.arraycopy(this.moduleUsage, 0, result.moduleUsage, 0, moduleUsage.length);
+		result.moduleUsage = Arrays.copyOf(moduleUsage, moduleUsage.length);
 		return result;
 	}
 
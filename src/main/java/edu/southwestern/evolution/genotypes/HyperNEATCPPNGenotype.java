@@ -131,9 +131,28 @@ public class HyperNEATCPPNGenotype extends TWEANNGenotype {
 	 * @return genotype that encodes a substrate network generated by a CPPN
 	 */
 	public TWEANNGenotype getSubstrateGenotype(HyperNEATTask hnt) {
+		TWEANN cppn = getCPPN();// CPPN used to create TWEANN network
+		if(NetworkUtil.isStateless(cppn)) {
+			// Queries do not affect each other, so they are batched and processed in parallel
+			return SubstrateBuilder.build(hnt, cppn);
+		}
+		return getSubstrateGenotypeSequentially(hnt, cppn);
+	}
+
+	/**
+	 * Construct the substrate genotype by querying the CPPN one link at a
+	 * time, in a fixed order. Needed when the CPPN has recurrent links, since
+	 * then each query depends on the ones before it. Also resets innovationID
+	 * and sets constructingNetwork, so only one substrate genotype can be
+	 * constructed this way at a time.
+	 * 
+	 * @param hnt HyperNEAT task that defines a substrate description used here
+	 * @param cppn CPPN encoded by this genotype
+	 * @return genotype that encodes a substrate network generated by a CPPN
+	 */
+	TWEANNGenotype getSubstrateGenotypeSequentially(HyperNEATTask hnt, TWEANN cppn) {
 		constructingNetwork = true; // prevent displaying of substrates
 		//long time = System.currentTimeMillis(); // for timing
-		TWEANN cppn = getCPPN();// CPPN used to create TWEANN network
 		List<Substrate> subs = hnt.getSubstrateInformation();// extract substrate information from domain
 		List<Triple<String, String, Boolean>> connections = hnt.getSubstrateConnectivity();// extract substrate connectivity from domain
 		ArrayList<NodeGene> newNodes = null;
@@ -490,6 +509,18 @@ public class HyperNEATCPPNGenotype extends TWEANNGenotype {
 	 *
 	 */
 	void loopThroughLinks(HyperNEATTask hnt, ArrayList<LinkGene> linksSoFar, TWEANN cppn, int outputIndex, Substrate s1, Substrate s2, int s1Index, int s2Index, List<Substrate> subs, int layersWidth, int layersHeight) {
+		// Without recurrent state, all links from one source neuron are queried as a single batch
+		boolean batch = NetworkUtil.isStateless(cppn);
+		List<Pair<Integer,Integer>> targets = s2.coordinateList();
+		double[][] batchInputs = new double[targets.size()][];
+		
+		double[] substrateInputs = null;
+		if(CommonConstants.substrateLocationInputs || Parameters.parameters.booleanParameter("convolutionWeightSharing")) {
+			// Extra inputs are locations of the substrates (just x/y coordinates)
+			ILocated2D scaledSubstrate1Coordinates = MMNEAT.substrateMapping.transformCoordinates(new Tuple2D(s1.getSubLocation().t1, s1.getSubLocation().t2), layersWidth, layersHeight);
+			ILocated2D scaledSubstrate2Coordinates = MMNEAT.substrateMapping.transformCoordinates(new Tuple2D(s2.getSubLocation().t1, s2.getSubLocation().t2), layersWidth, layersHeight);
+			substrateInputs = new double[]{scaledSubstrate1Coordinates.getX(), scaledSubstrate1Coordinates.getY(), scaledSubstrate2Coordinates.getX(), scaledSubstrate2Coordinates.getY()};
+		}
 
 		// This loop goes through every (x,y) coordinate in Substrate s1: source substrate
 		for(Pair<Integer,Integer> src : s1.coordinateList()) {
@@ -497,14 +528,15 @@ public class HyperNEATCPPNGenotype extends TWEANNGenotype {
 			int fromYIndex = src.t2;
 			// If the neuron in the source substrate is dead, it will not have outputs
 			if(!s1.isNeuronDead(fromXIndex, fromYIndex)) {
+				// CPPN inputs need to be centered and scaled
+				ILocated2D scaledSourceCoordinates = MMNEAT.substrateMapping.transformCoordinates(new Tuple2D(fromXIndex, fromYIndex), s1.getSize().t1, s1.getSize().t2);
+				int numQueries = 0;
 				// This loop searches through every (x,y) coordinate in Substrate s2: target substrate
-				for(Pair<Integer,Integer> target: s2.coordinateList()) {
+				for(Pair<Integer,Integer> target: targets) {
 					int targetXindex = target.t1;
 					int targetYIndex = target.t2;
 					// If the target neuron is dead, then don't bother with incoming links
 					if(!s2.isNeuronDead(targetXindex, targetYIndex)) {
-						// CPPN inputs need to be centered and scaled
-						ILocated2D scaledSourceCoordinates = MMNEAT.substrateMapping.transformCoordinates(new Tuple2D(fromXIndex, fromYIndex), s1.getSize().t1, s1.getSize().t2);
 						ILocated2D scaledTargetCoordinates = MMNEAT.substrateMapping.transformCoordinates(new Tuple2D(targetXindex, targetYIndex), s2.getSize().t1, s2.getSize().t2);
 						// inputs to CPPN 
 						// These next two lines need to be generalized for different numbers of CPPN inputs
@@ -516,18 +548,29 @@ public class HyperNEATCPPNGenotype extends TWEANNGenotype {
 						assert -1 <= inputs[3] && inputs[3] <= 1 : "CPPN input 3 out of range: " + inputs[3];
 						assert -1 <= inputs[4] && inputs[4] <= 1 : "CPPN input 4 out of range: " + inputs[4];
 						
-						if(CommonConstants.substrateLocationInputs || Parameters.parameters.booleanParameter("convolutionWeightSharing")) {
-							// Extra inputs are locations of the substrates (just x/y coordinates)
-							ILocated2D scaledSubstrate1Coordinates = MMNEAT.substrateMapping.transformCoordinates(new Tuple2D(s1.getSubLocation().t1, s1.getSubLocation().t2), layersWidth, layersHeight);
-							ILocated2D scaledSubstrate2Coordinates = MMNEAT.substrateMapping.transformCoordinates(new Tuple2D(s2.getSubLocation().t1, s2.getSubLocation().t2), layersWidth, layersHeight);
-							inputs = ArrayUtil.combineArrays(inputs, new double[]{scaledSubstrate1Coordinates.getX(), scaledSubstrate1Coordinates.getY(), scaledSubstrate2Coordinates.getX(), scaledSubstrate2Coordinates.getY()});
+						if(substrateInputs != null) {
+							inputs = ArrayUtil.combineArrays(inputs, substrateInputs);
 
 							assert -1 <= inputs[5] && inputs[5] <= 1 : "CPPN input 5 out of range: " + inputs[5];
 							assert -1 <= inputs[6] && inputs[6] <= 1 : "CPPN input 6 out of range: " + inputs[6];
 							assert -1 <= inputs[7] && inputs[7] <= 1 : "CPPN input 7 out of range: " + inputs[7];
 							assert -1 <= inputs[8] && inputs[8] <= 1 : "CPPN input 8 out of range: " + inputs[8];
 						}
-						conditionalLinkAdd(linksSoFar, cppn, inputs, outputIndex, fromXIndex, fromYIndex, s1Index, targetXindex, targetYIndex, s2Index, subs, innovationID++); // increment innovation regardless of whether link is added
+						if(batch) {
+							batchInputs[numQueries++] = inputs;
+						} else {
+							conditionalLinkAdd(linksSoFar, cppn, inputs, outputIndex, fromXIndex, fromYIndex, s1Index, targetXindex, targetYIndex, s2Index, subs, innovationID++); // increment innovation regardless of whether link is added
+						}
+					}
+				}
+				if(batch) {
+					double[][] batchOutputs = cppn.processBatch(numQueries == batchInputs.length ? batchInputs : Arrays.copyOf(batchInputs, numQueries));
+					int query = 0;
+					// Same traversal order as above, so innovation numbers are assigned identically
+					for(Pair<Integer,Integer> target: targets) {
+						if(!s2.isNeuronDead(target.t1, target.t2)) {
+							conditionalLinkAdd(linksSoFar, batchOutputs[query++], outputIndex, fromXIndex, fromYIndex, s1Index, target.t1, target.t2, s2Index, subs, innovationID++); // increment innovation regardless of whether link is added
+						}
 					}
 				}
 			}
@@ -551,7 +594,24 @@ public class HyperNEATCPPNGenotype extends TWEANNGenotype {
 	 * @param subs list of substrates
 	 */
 	void conditionalLinkAdd(ArrayList<LinkGene> linksSoFar, TWEANN cppn, double[] inputs, int outputIndex, int fromXIndex, int fromYIndex, int s1Index, int targetXindex, int targetYIndex, int s2Index, List<Substrate> subs, long linkInnovationID) {
-		double[] outputs = cppn.process(inputs);
+		conditionalLinkAdd(linksSoFar, cppn.process(inputs), outputIndex, fromXIndex, fromYIndex, s1Index, targetXindex, targetYIndex, s2Index, subs, linkInnovationID);
+	}
+
+	/**
+	 * Same as above, but the CPPN outputs for the link have already been computed.
+	 * 
+	 * @param linksSoFar List of links to add to
+	 * @param outputs outputs of the CPPN for this potential link
+	 * @param outputIndex index within CPPN outputs to look for weight information
+	 * @param fromXIndex x-coordinate of neuron in source substrate
+	 * @param fromYIndex y-coordinate of neuron in source substrate
+	 * @param s1Index source substrate index in substrate list
+	 * @param targetXindex x-coordinate of neuron in target substrate
+	 * @param targetYIndex y-coordinate of neuron in target substrate
+	 * @param s2Index target substrate index in substrate list
+	 * @param subs list of substrates
+	 */
+	void conditionalLinkAdd(ArrayList<LinkGene> linksSoFar, double[] outputs, int outputIndex, int fromXIndex, int fromYIndex, int s1Index, int targetXindex, int targetYIndex, int s2Index, List<Substrate> subs, long linkInnovationID) {
 		boolean expressLink = CommonConstants.leo
 				// Specific network output determines link expression
 				? outputs[(numCPPNOutputsPerLayerPair * outputIndex) + LEO_INDEX] > CommonConstants.linkExpressionThreshold
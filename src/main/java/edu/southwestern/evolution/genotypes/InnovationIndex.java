@@ -0,0 +1,144 @@
+package edu.southwestern.evolution.genotypes;
+
+import java.util.List;
+
+import edu.southwestern.evolution.genotypes.TWEANNGenotype.Gene;
+import edu.southwestern.util.datastructures.LongIntHashMap;
+
+/**
+ * Finds the position of a gene with a given innovation number in a list of
+ * genes in constant expected time, instead of scanning the list.
+ *
+ * Code that adds or removes a gene of an indexed list calls added or removed,
+ * which only updates the positions of the genes that moved, and code that
+ * changes the list in any other way calls changed. Gene lists are public, so
+ * the index also checks itself against the list: every position it returns
+ * is checked, genes appended without calling added are indexed on the next
+ * lookup, and the whole list is indexed again if its size changed in any
+ * other way. An innovation number that is not in an up to date index is not
+ * in the list, so lookups that fail cost no more than lookups that succeed.
+ *
+ * @author Jacob Schrum
+ */
+public class InnovationIndex {
+
+	private final LongIntHashMap positions = new LongIntHashMap();
+	// List that positions refer to, and how much of it was indexed
+	private List<? extends Gene> indexed = null;
+	private int indexedSize = 0;
+
+	/**
+	 * Index in genes of first gene with innovation number, or -1
+	 *
+	 * @param innovation
+	 *            Innovation number to search for
+	 * @param genes
+	 *            List of genes with unique innovation numbers
+	 * @return Index of gene with innovation number, or -1 if there is none
+	 */
+	public synchronized int indexOf(long innovation, List<? extends Gene> genes) {
+		if (!current(genes)) {
+			rebuild(genes);
+		}
+		int index = positions.get(innovation);
+		if (index == LongIntHashMap.NOT_FOUND || at(genes, index, innovation)) {
+			return index;
+		}
+		// The list was reordered without telling the index
+		rebuild(genes);
+		return positions.get(innovation);
+	}
+
+	/**
+	 * Update the index after a gene was inserted into genes
+	 *
+	 * @param genes
+	 *            List of genes that changed
+	 * @param position
+	 *            Index of the new gene in genes
+	 */
+	public synchronized void added(List<? extends Gene> genes, int position) {
+		if (indexed == genes && indexedSize == genes.size() - 1) {
+			// Genes after the new one moved up by one
+			reindex(genes, position);
+		} else {
+			changed();
+		}
+	}
+
+	/**
+	 * Update the index after a gene was removed from genes
+	 *
+	 * @param genes
+	 *            List of genes that changed
+	 * @param position
+	 *            Index that the removed gene had in genes
+	 * @param innovation
+	 *            Innovation number of the removed gene
+	 */
+	public synchronized void removed(List<? extends Gene> genes, int position, long innovation) {
+		if (indexed == genes && indexedSize == genes.size() + 1) {
+			positions.remove(innovation);
+			// Genes after the removed one moved down by one
+			reindex(genes, position);
+		} else {
+			changed();
+		}
+	}
+
+	/**
+	 * Index the whole list again on the next lookup. Needed when genes are
+	 * replaced or innovation numbers change without the size of the list
+	 * changing.
+	 */
+	public synchronized void changed() {
+		indexed = null;
+	}
+
+	private static boolean at(List<? extends Gene> genes, int index, long innovation) {
+		return index >= 0 && index < genes.size() && genes.get(index).innovation == innovation;
+	}
+
+	/**
+	 * Whether positions describe genes, after indexing genes appended since
+	 * the last lookup
+	 */
+	private boolean current(List<? extends Gene> genes) {
+		if (indexed != genes || indexedSize > genes.size()) {
+			return false;
+		}
+		// Genes are usually appended, and only genes that are new to the
+		// index can be appended
+		return indexedSize == genes.size() || indexRange(genes, indexedSize);
+	}
+
+	private void rebuild(List<? extends Gene> genes) {
+		positions.clear(genes.size());
+		indexed = genes;
+		indexRange(genes, 0);
+	}
+
+	/**
+	 * Index genes from start to the end of the list, unless their innovation
+	 * numbers are already indexed
+	 *
+	 * @return Whether all of the genes were new to the index
+	 */
+	private boolean indexRange(List<? extends Gene> genes, int start) {
+		boolean allNew = true;
+		for (int i = start; i < genes.size(); i++) {
+			if (!positions.putIfAbsent(genes.get(i).innovation, i)) {
+				allNew = false;
+			}
+		}
+		indexedSize = genes.size();
+		return allNew;
+	}
+
+	private void reindex(List<? extends Gene> genes, int start) {
+		for (int i = start; i < genes.size(); i++) {
+			positions.put(genes.get(i).innovation, i);
+		}
+		indexedSize = genes.size();
+	}
+}
@@ -0,0 +1,509 @@
+package edu.southwestern.evolution.genotypes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.genotypes.TWEANNGenotype.LinkGene;
+import edu.southwestern.evolution.genotypes.TWEANNGenotype.NodeGene;
+import edu.southwestern.networks.Network;
+import edu.southwestern.networks.NetworkUtil;
+import edu.southwestern.networks.hyperneat.HyperNEATTask;
+import edu.southwestern.networks.hyperneat.HyperNEATUtil;
+import edu.southwestern.networks.hyperneat.Substrate;
+import edu.southwestern.networks.hyperneat.SubstrateCoordinateMapping;
+import edu.southwestern.parameters.CommonConstants;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.util.CartesianGeometricUtilities;
+import edu.southwestern.util.datastructures.Pair;
+import edu.southwestern.util.datastructures.Triple;
+import edu.southwestern.util.graphics.CPPNRenderer;
+import edu.southwestern.util.util2D.ILocated2D;
+import edu.southwestern.util.util2D.Tuple2D;
+
+/**
+ * Builds the substrate genotype encoded by a stateless CPPN. Produces the
+ * same genotype as the sequential construction in HyperNEATCPPNGenotype
+ * (same genes, same order, same innovation numbers), but:
+ *
+ * - Scaled coordinates of every neuron and substrate are computed once per
+ *   substrate layout, and the layout is cached for each HyperNEATTask.
+ * - CPPN queries for potential links are collected in large blocks, and each
+ *   block is processed in parallel with CPPNRenderer.processBatch.
+ * - Expressed links are stored in primitive arrays until the end, and
+ *   innovation numbers are counted locally, so several substrates can be
+ *   built at once, even from the same CPPN genotype.
+ *
+ * @author Jacob Schrum
+ */
+final class SubstrateBuilder {
+
+	// Most potential links queried at once. Blocks start small and grow to this size
+	private static final int BLOCK_SIZE = 16 * CPPNRenderer.TILE_SIZE;
+	private static final int INITIAL_BLOCK_SIZE = 1024;
+
+	// Layouts are only kept while their task exists
+	private static final Map<HyperNEATTask, Layout> layouts = Collections.synchronizedMap(new WeakHashMap<HyperNEATTask, Layout>());
+
+	/**
+	 * Everything about the substrates of a task that does not depend on the
+	 * CPPN. Neuron arrays are indexed by y * width + x.
+	 */
+	static final class Layout {
+		final List<Substrate> subs;
+		final Substrate[] substrates;
+		final SubstrateCoordinateMapping mapping;
+		// Max number of substrates at the same height/depth, and number of layers
+		final int layersWidth;
+		final int layersHeight;
+		final int phenotypeOutputs;
+		final HashMap<String, Integer> substrateIndices = new HashMap<String, Integer>();
+		// Innovation number of the first neuron in each substrate
+		final long[] innovationOffsets;
+		final int totalNeurons;
+		// Scaled coordinates of each neuron in each substrate
+		final double[][] scaledX;
+		final double[][] scaledY;
+		// Scaled location of each substrate
+		final double[] locationX;
+		final double[] locationY;
+
+		Layout(List<Substrate> subs, SubstrateCoordinateMapping mapping) {
+			this.subs = subs;
+			this.substrates = subs.toArray(new Substrate[subs.size()]);
+			this.mapping = mapping;
+			int outputs = 0, width = 0, height = 0;
+			for (Substrate s : substrates) {
+				if (s.getStype() == Substrate.OUTPUT_SUBSTRATE) {
+					outputs += s.getSize().t1 * s.getSize().t2;
+				}
+				width = Math.max(width, s.getSubLocation().t1);
+				height = Math.max(height, s.getSubLocation().t2);
+			}
+			phenotypeOutputs = outputs;
+			// Coordinates start at 0, so actual width/height is one more than max coordinate in each dimension
+			layersWidth = width + 1;
+			layersHeight = height + 1;
+
+			innovationOffsets = new long[substrates.length];
+			scaledX = new double[substrates.length][];
+			scaledY = new double[substrates.length][];
+			locationX = new double[substrates.length];
+			locationY = new double[substrates.length];
+			long offset = 0;
+			for (int i = 0; i < substrates.length; i++) {
+				Substrate s = substrates[i];
+				substrateIndices.put(s.getName(), i);
+				innovationOffsets[i] = offset;
+				int w = s.getSize().t1;
+				int h = s.getSize().t2;
+				offset += w * h;
+				scaledX[i] = new double[w * h];
+				scaledY[i] = new double[w * h];
+				for (int y = 0; y < h; y++) {
+					for (int x = 0; x < w; x++) {
+						ILocated2D scaled = mapping.transformCoordinates(new Tuple2D(x, y), w, h);
+						scaledX[i][y * w + x] = scaled.getX();
+						scaledY[i][y * w + x] = scaled.getY();
+					}
+				}
+				ILocated2D location = mapping.transformCoordinates(new Tuple2D(s.getSubLocation().t1, s.getSubLocation().t2), layersWidth, layersHeight);
+				locationX[i] = location.getX();
+				locationY[i] = location.getY();
+			}
+			totalNeurons = (int) offset;
+		}
+
+		/**
+		 * Whether the layout still describes these substrates. Substrates do
+		 * not change size or location, but tasks may replace them.
+		 */
+		boolean describes(List<Substrate> current, SubstrateCoordinateMapping currentMapping) {
+			if (current != subs || currentMapping != mapping || current.size() != substrates.length) {
+				return false;
+			}
+			for (int i = 0; i < substrates.length; i++) {
+				if (current.get(i) != substrates[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Innovation number of a neuron, as in HyperNEATCPPNGenotype.getInnovationID
+		 */
+		long innovation(int substrate, int x, int y) {
+			return innovationOffsets[substrate] + substrates[substrate].getSize().t1 * y + x;
+		}
+
+		/**
+		 * Which neurons of a substrate are alive. Not cached, because neurons
+		 * can be killed at any time.
+		 */
+		boolean[] alive(int substrate) {
+			Substrate s = substrates[substrate];
+			int w = s.getSize().t1;
+			boolean[] result = new boolean[w * s.getSize().t2];
+			for (Pair<Integer, Integer> coord : s.coordinateList()) {
+				result[coord.t2 * w + coord.t1] = !s.isNeuronDead(coord.t1, coord.t2);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Cached layout of the current substrates of a task
+	 *
+	 * @param hnt HyperNEAT task
+	 * @return layout of its substrates
+	 */
+	static Layout layout(HyperNEATTask hnt) {
+		List<Substrate> subs = hnt.getSubstrateInformation();
+		Layout result = layouts.get(hnt);
+		if (result == null || !result.describes(subs, MMNEAT.substrateMapping)) {
+			result = new Layout(subs, MMNEAT.substrateMapping);
+			layouts.put(hnt, result);
+		}
+		return result;
+	}
+
+	private final HyperNEATTask hnt;
+	private final Network cppn;
+	private final Layout layout;
+	private final boolean substrateLocationInputs;
+	private final boolean convolutionWeightSharing;
+
+	// Queries waiting to be sent to the CPPN, and the links they may create
+	private double[][] block = new double[INITIAL_BLOCK_SIZE][];
+	private long[] blockSources = new long[INITIAL_BLOCK_SIZE];
+	private long[] blockTargets = new long[INITIAL_BLOCK_SIZE];
+	private int[] blockOutputIndices = new int[INITIAL_BLOCK_SIZE];
+	private int blockSize = 0;
+	// Next link innovation number. Follows the node innovation numbers
+	private long innovation;
+
+	// Expressed links
+	private long[] linkSources = new long[INITIAL_BLOCK_SIZE];
+	private long[] linkTargets = new long[INITIAL_BLOCK_SIZE];
+	private double[] linkWeights = new double[INITIAL_BLOCK_SIZE];
+	private long[] linkInnovations = new long[INITIAL_BLOCK_SIZE];
+	private int numLinks = 0;
+
+	private SubstrateBuilder(HyperNEATTask hnt, Network cppn) {
+		assert NetworkUtil.isStateless(cppn) : "Queries can only be reordered and batched for stateless CPPNs";
+		this.hnt = hnt;
+		this.cppn = cppn;
+		this.layout = layout(hnt);
+		this.substrateLocationInputs = CommonConstants.substrateLocationInputs;
+		this.convolutionWeightSharing = Parameters.parameters.booleanParameter("convolutionWeightSharing");
+	}
+
+	/**
+	 * Genotype of the substrate network encoded by a stateless CPPN.
+	 * Same as HyperNEATCPPNGenotype.getSubstrateGenotype.
+	 *
+	 * @param hnt HyperNEAT task that defines the substrates
+	 * @param cppn Stateless CPPN
+	 * @return Genotype of substrate network
+	 */
+	static TWEANNGenotype build(HyperNEATTask hnt, Network cppn) {
+		SubstrateBuilder builder = new SubstrateBuilder(hnt, cppn);
+		ArrayList<NodeGene> nodes = builder.nodes();
+		builder.innovation = nodes.size();
+		List<Triple<String, String, Boolean>> connections = hnt.getSubstrateConnectivity();
+		for (int i = 0; i < connections.size(); i++) { // For each pair of substrates that are connected
+			Integer source = builder.layout.substrateIndices.get(connections.get(i).t1);
+			Integer target = builder.layout.substrateIndices.get(connections.get(i).t2);
+			if (source == null || target == null) {
+				System.out.println("Error in substrate configutation!");
+				System.out.println(builder.layout.subs);
+				System.out.println(connections);
+				System.exit(1);
+			}
+			int outputIndex = CommonConstants.substrateLocationInputs ? 0 : i;
+			if (connections.get(i).t3 && CommonConstants.convolution) {
+				builder.convolutionalLinks(outputIndex, source, target);
+			} else {
+				builder.fullLinks(outputIndex, source, target);
+			}
+		}
+		builder.flush();
+		// Same as in HyperNEATCPPNGenotype.getSubstrateGenotype
+		return new TWEANNGenotype(nodes, builder.links(), builder.layout.phenotypeOutputs, false, false, -1);
+	}
+
+	/**
+	 * Node genes for every neuron of every substrate. Biases of all neurons
+	 * are queried in a single batch.
+	 */
+	private ArrayList<NodeGene> nodes() {
+		Substrate[] substrates = layout.substrates;
+		double[] biases = new double[layout.totalNeurons];
+		if (CommonConstants.evolveHyperNEATBias) {
+			// Input neurons have no bias, so there are fewer queries than neurons
+			double[][] queries = new double[layout.totalNeurons][];
+			int[] neurons = new int[layout.totalNeurons];
+			int[] biasIndices = new int[layout.totalNeurons];
+			int numQueries = 0;
+			int biasIndex = HyperNEATUtil.indexFirstBiasOutput(hnt); // first bias index
+			for (int i = 0; i < substrates.length; i++) {
+				if (substrates[i].getStype() != Substrate.INPUT_SUBSTRATE) {
+					int w = substrates[i].getSize().t1;
+					for (Pair<Integer, Integer> coord : substrates[i].coordinateList()) {
+						int neuron = coord.t2 * w + coord.t1;
+						double[] inputs = hnt.filterCPPNInputs(new double[] { 0, 0, layout.scaledX[i][neuron], layout.scaledY[i][neuron], HyperNEATCPPNGenotype.BIAS });
+						if (substrateLocationInputs || convolutionWeightSharing) {
+							// To define the bias, only the location of the substrate containing the neuron is needed (other is 0,0)
+							inputs = withSubstrateInputs(inputs, 0, 0, layout.locationX[i], layout.locationY[i]);
+						}
+						// Weight sharing also shares biases. This eliminates unique neuron contents
+						if (convolutionWeightSharing) {
+							inputs[2] = 0;
+							inputs[3] = 0;
+						}
+						queries[numQueries] = inputs;
+						neurons[numQueries] = (int) layout.innovation(i, coord.t1, coord.t2);
+						biasIndices[numQueries] = biasIndex;
+						numQueries++;
+					}
+					if (!CommonConstants.substrateBiasLocationInputs) {
+						// Each non-input substrate has its own bias output
+						biasIndex++;
+					}
+				}
+			}
+			double[][] outputs = CPPNRenderer.processBatch(cppn, Arrays.copyOf(queries, numQueries));
+			for (int q = 0; q < numQueries; q++) {
+				biases[neurons[q]] = outputs[q][biasIndices[q]];
+			}
+		}
+		ArrayList<NodeGene> result = new ArrayList<NodeGene>(layout.totalNeurons);
+		long nodeInnovation = 0;
+		for (int i = 0; i < substrates.length; i++) {
+			for (Pair<Integer, Integer> coord : substrates[i].coordinateList()) {
+				double bias = biases[(int) layout.innovation(i, coord.t1, coord.t2)];
+				result.add(TWEANNGenotype.newNodeGene(substrates[i].getFtype(), substrates[i].getStype(), nodeInnovation++, false, bias));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Queries for every link from a living neuron in the source substrate to
+	 * a living neuron in the target substrate.
+	 */
+	private void fullLinks(int outputIndex, int s1Index, int s2Index) {
+		Substrate s1 = layout.substrates[s1Index];
+		Substrate s2 = layout.substrates[s2Index];
+		boolean[] sourceAlive = layout.alive(s1Index);
+		boolean[] targetAlive = layout.alive(s2Index);
+		int w1 = s1.getSize().t1;
+		int w2 = s2.getSize().t1;
+		boolean extraInputs = substrateLocationInputs || convolutionWeightSharing;
+		List<Pair<Integer, Integer>> targets = s2.coordinateList();
+		for (Pair<Integer, Integer> src : s1.coordinateList()) {
+			int source = src.t2 * w1 + src.t1;
+			if (sourceAlive[source]) {
+				double sourceX = layout.scaledX[s1Index][source];
+				double sourceY = layout.scaledY[s1Index][source];
+				long sourceID = layout.innovation(s1Index, src.t1, src.t2);
+				for (Pair<Integer, Integer> tgt : targets) {
+					int target = tgt.t2 * w2 + tgt.t1;
+					if (targetAlive[target]) {
+						double[] inputs = hnt.filterCPPNInputs(new double[] { sourceX, sourceY, layout.scaledX[s2Index][target], layout.scaledY[s2Index][target], HyperNEATCPPNGenotype.BIAS });
+						assert inRange(inputs, 5) : "CPPN input out of range: " + Arrays.toString(inputs);
+						if (extraInputs) {
+							inputs = withSubstrateInputs(inputs, layout.locationX[s1Index], layout.locationY[s1Index], layout.locationX[s2Index], layout.locationY[s2Index]);
+						}
+						query(inputs, sourceID, layout.innovation(s2Index, tgt.t1, tgt.t2), outputIndex);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Queries for the links of each receptive field, in the same order as
+	 * HyperNEATCPPNGenotype.convolutionalLoopThroughLinks
+	 */
+	private void convolutionalLinks(int outputIndex, int s1Index, int s2Index) {
+		boolean convolutionDeltas = Parameters.parameters.booleanParameter("convolutionDeltas");
+		int receptiveFieldSize = Parameters.parameters.integerParameter("receptiveFieldSize");
+		assert receptiveFieldSize % 2 == 1 : "Receptive field size needs to be odd to be centered: " + receptiveFieldSize;
+		// Need to watch out for links that want to connect out of bounds
+		boolean zeroPadding = Parameters.parameters.booleanParameter("zeroPadding");
+		int offset = receptiveFieldSize / 2;
+		int edgeOffset = zeroPadding ? 0 : offset;
+		int stride = Parameters.parameters.integerParameter("stride");
+
+		Substrate s1 = layout.substrates[s1Index];
+		Substrate s2 = layout.substrates[s2Index];
+		boolean[] sourceAlive = layout.alive(s1Index);
+		boolean[] targetAlive = layout.alive(s2Index);
+		int w1 = s1.getSize().t1;
+		int h1 = s1.getSize().t2;
+		int w2 = s2.getSize().t1;
+
+		// Receptive field scaling is with respect to the center of the field
+		double[] fieldX = new double[receptiveFieldSize];
+		double[] fieldY = new double[receptiveFieldSize];
+		for (int f = 0; f < receptiveFieldSize; f++) {
+			ILocated2D scaledField = CartesianGeometricUtilities.centerAndScale(new Tuple2D(f, f), receptiveFieldSize, receptiveFieldSize);
+			fieldX[f] = scaledField.getX();
+			fieldY[f] = scaledField.getY();
+		}
+		boolean extraInputs = substrateLocationInputs || convolutionWeightSharing;
+		double sub1X = layout.locationX[s1Index], sub1Y = layout.locationY[s1Index];
+		double sub2X = layout.locationX[s2Index], sub2Y = layout.locationY[s2Index];
+		assert !(extraInputs && convolutionDeltas && convolutionWeightSharing) : "Combining convolution deltas with convolutional weight sharing does not make sense";
+
+		// Traverse center points of receptive fields
+		for (int x = edgeOffset; x < w1 - edgeOffset; x += stride) {
+			for (int y = edgeOffset; y < h1 - edgeOffset; y += stride) {
+				// There is a direct correspondence between each receptive field and its target neuron
+				int targetX = (x - edgeOffset) / stride;
+				int targetY = (y - edgeOffset) / stride;
+				assert targetX < w2 && targetY * w2 + targetX < targetAlive.length : "Receptive field (" + x + "," + y + ") has no target in " + s2;
+				if (!targetAlive[targetY * w2 + targetX]) {
+					continue;
+				}
+				double scaledTargetX = layout.scaledX[s2Index][targetY * w2 + targetX];
+				double scaledTargetY = layout.scaledY[s2Index][targetY * w2 + targetX];
+				long targetID = layout.innovation(s2Index, targetX, targetY);
+				for (int fX = -offset; fX <= offset; fX++) {
+					int fromX = x + fX;
+					if (fromX < 0 || fromX >= w1) {
+						continue;
+					}
+					for (int fY = -offset; fY <= offset; fY++) {
+						int fromY = y + fY;
+						if (fromY < 0 || fromY >= h1 || !sourceAlive[fromY * w1 + fromX]) {
+							continue;
+						}
+						double[] inputs;
+						if (convolutionDeltas) {
+							// Deltas between target and source scaled coordinates: (x2 - x1, y2 - y1, x2, y2, 1.0)
+							inputs = new double[] { scaledTargetX - layout.scaledX[s1Index][fromY * w1 + fromX], scaledTargetY - layout.scaledY[s1Index][fromY * w1 + fromX], scaledTargetX, scaledTargetY, HyperNEATCPPNGenotype.BIAS };
+						} else if (convolutionWeightSharing) {
+							// Since weights for each feature are duplicated, inputs defining the target neuron are not needed
+							inputs = new double[] { fieldX[fX + offset], fieldY[fY + offset], 0, 0, HyperNEATCPPNGenotype.BIAS };
+						} else {
+							inputs = new double[] { fieldX[fX + offset], fieldY[fY + offset], scaledTargetX, scaledTargetY, HyperNEATCPPNGenotype.BIAS };
+						}
+						if (extraInputs) {
+							inputs = convolutionDeltas
+									// Location of target substrate, and delta between target and source substrates
+									? withSubstrateInputs(inputs, sub2X - sub1X, sub2Y - sub1Y, sub2X, sub2Y)
+									: withSubstrateInputs(inputs, sub1X, sub1Y, sub2X, sub2Y);
+						}
+						query(inputs, layout.innovation(s1Index, fromX, fromY), targetID, outputIndex);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Inputs followed by four substrate location inputs
+	 */
+	private static double[] withSubstrateInputs(double[] inputs, double a, double b, double c, double d) {
+		double[] result = Arrays.copyOf(inputs, inputs.length + 4);
+		result[inputs.length] = a;
+		result[inputs.length + 1] = b;
+		result[inputs.length + 2] = c;
+		result[inputs.length + 3] = d;
+		return result;
+	}
+
+	private static boolean inRange(double[] inputs, int count) {
+		for (int i = 0; i < Math.min(count, inputs.length); i++) {
+			if (inputs[i] < -1 || inputs[i] > 1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Add a query for a potential link. Every query gets an innovation
+	 * number, whether the link is expressed or not.
+	 */
+	private void query(double[] inputs, long sourceID, long targetID, int outputIndex) {
+		if (blockSize == block.length) {
+			if (block.length < BLOCK_SIZE) {
+				int capacity = 2 * block.length;
+				block = Arrays.copyOf(block, capacity);
+				blockSources = Arrays.copyOf(blockSources, capacity);
+				blockTargets = Arrays.copyOf(blockTargets, capacity);
+				blockOutputIndices = Arrays.copyOf(blockOutputIndices, capacity);
+			} else {
+				flush();
+			}
+		}
+		block[blockSize] = inputs;
+		blockSources[blockSize] = sourceID;
+		blockTargets[blockSize] = targetID;
+		blockOutputIndices[blockSize] = outputIndex;
+		blockSize++;
+	}
+
+	/**
+	 * Process all waiting queries, and keep the expressed links
+	 */
+	private void flush() {
+		if (blockSize == 0) {
+			return;
+		}
+		double[][] outputs = CPPNRenderer.processBatch(cppn, blockSize == block.length ? block : Arrays.copyOf(block, blockSize));
+		int perPair = HyperNEATCPPNGenotype.numCPPNOutputsPerLayerPair;
+		for (int q = 0; q < blockSize; q++) {
+			double[] out = outputs[q];
+			int first = perPair * blockOutputIndices[q];
+			boolean expressLink = CommonConstants.leo
+					// Specific network output determines link expression
+					? out[first + HyperNEATCPPNGenotype.LEO_INDEX] > CommonConstants.linkExpressionThreshold
+					// Output magnitude determines link expression
+					: Math.abs(out[first + HyperNEATCPPNGenotype.LINK_INDEX]) > CommonConstants.linkExpressionThreshold;
+			if (expressLink) {
+				double weight = CommonConstants.leo
+						// LEO takes its weight directly from the designated network output
+						? out[first + HyperNEATCPPNGenotype.LINK_INDEX]
+						// Standard HyperNEAT must scale the weight
+						: NetworkUtil.calculateWeight(out[first + HyperNEATCPPNGenotype.LINK_INDEX]);
+				addLink(blockSources[q], blockTargets[q], weight, innovation);
+			}
+			innovation++;
+			block[q] = null;
+		}
+		blockSize = 0;
+	}
+
+	private void addLink(long source, long target, double weight, long linkInnovation) {
+		if (numLinks == linkSources.length) {
+			int capacity = 2 * numLinks;
+			linkSources = Arrays.copyOf(linkSources, capacity);
+			linkTargets = Arrays.copyOf(linkTargets, capacity);
+			linkWeights = Arrays.copyOf(linkWeights, capacity);
+			linkInnovations = Arrays.copyOf(linkInnovations, capacity);
+		}
+		linkSources[numLinks] = source;
+		linkTargets[numLinks] = target;
+		linkWeights[numLinks] = weight;
+		linkInnovations[numLinks] = linkInnovation;
+		numLinks++;
+	}
+
+	private ArrayList<LinkGene> links() {
+		ArrayList<LinkGene> result = new ArrayList<LinkGene>(numLinks);
+		for (int i = 0; i < numLinks; i++) {
+			result.add(TWEANNGenotype.newLinkGene(linkSources[i], linkTargets[i], linkWeights[i], linkInnovations[i], false));
+		}
+		return result;
+	}
+}
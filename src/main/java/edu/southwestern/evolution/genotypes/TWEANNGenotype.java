@@ -7,11 +7,13 @@ import edu.southwestern.evolution.nsga2.bd.characterizations.GeneralNetworkChara
 import edu.southwestern.evolution.nsga2.bd.localcompetition.TWEANNModulesNicheDefinition;
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.networks.ActivationFunctions;
+import edu.southwestern.networks.CompiledTWEANN;
 import edu.southwestern.networks.TWEANN;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.util.CartesianGeometricUtilities;
 import edu.southwestern.util.datastructures.ArrayUtil;
+import edu.southwestern.util.datastructures.LongIntHashMap;
 import edu.southwestern.util.random.RandomGenerator;
 import edu.southwestern.util.random.RandomNumbers;
 import edu.southwestern.util.stats.StatisticsUtilities;
@@ -382,6 +384,8 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
 
     // Added to allow tracking of who parents are for score history purposes
 	transient List<Long> parents = new LinkedList<Long>();
+    // Positions of innovation numbers in nodes. Created when first needed
+    private transient InnovationIndex nodeIndex = null;
 	
 	@Override
 	public void addParent(long id) {
@@ -505,7 +509,7 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
             nodes.add(ng);
             LinkedList<LinkGene> temp = new LinkedList<LinkGene>();
             for (TWEANN.Link l : n.outputs) {
-                LinkGene lg = newLinkGene(n.innovation, l.target.innovation, l.weight, l.innovation, n.isLinkRecurrent(l.target.innovation), l.frozen);
+                LinkGene lg = newLinkGene(n.innovation, l.target.innovation, l.weight, l.innovation, l.recurrent, l.frozen);
                 temp.add(lg);
             }
             for (int k = 0; k < temp.size(); k++) {
@@ -824,6 +828,9 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
             }
         }
         nodes.remove(nodeNum);
+        if (nodeIndex != null) {
+            nodeIndex.removed(nodes, nodeNum, nodeInnovation);
+        }
         numOut--;
     }
 
@@ -1118,7 +1125,7 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
         NodeGene ng = newNodeGene(ftype, TWEANN.Node.NTYPE_HIDDEN, newNodeInnovation);
         LinkGene lg = getLinkBetween(sourceInnovation, targetInnovation);
         lg.setActive(CommonConstants.minimizeSpliceImpact);
-        nodes.add(Math.min(outputStartIndex(), Math.max(numIn, indexOfNodeInnovation(sourceInnovation) + 1)), ng);
+        addNodeGene(Math.min(outputStartIndex(), Math.max(numIn, indexOfNodeInnovation(sourceInnovation) + 1)), ng);
         int index = EvolutionaryHistory.indexOfArchetypeInnovation(archetypeIndex, sourceInnovation);
         int pos = Math.min(EvolutionaryHistory.firstArchetypeOutputIndex(archetypeIndex), Math.max(numIn, index + 1));
         EvolutionaryHistory.archetypeAdd(archetypeIndex, pos, ng.clone(), numModules == 1, "splice " + sourceInnovation + "->" + targetInnovation);
@@ -1166,18 +1173,34 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
     	return result;
     }
 
+    /**
+     * Insert a node gene into nodes, and update the positions of the nodes
+     * that move
+     *
+     * @param position Index of the new node in nodes
+     * @param ng Node gene to insert
+     */
+    private void addNodeGene(int position, NodeGene ng) {
+        nodes.add(position, ng);
+        if (nodeIndex != null) {
+            nodeIndex.added(nodes, position);
+        }
+    }
+
     /**
      * Return the NodeGene with the given innovation number
      * @param innovation
      * @return
      */
     private NodeGene getNodeWithInnovation(long innovation) {
-		for(NodeGene ng : nodes) {
-			if(ng.innovation == innovation) {
-				return ng;
-			}
+		if(nodeIndex == null) {
+			nodeIndex = new InnovationIndex();
+		}
+		int index = nodeIndex.indexOf(innovation, nodes);
+		if(index == -1) {
+			throw new IllegalArgumentException("Node innovation not found: " + innovation);
 		}
-		throw new IllegalArgumentException("Node innovation not found: " + innovation);
+		return nodes.get(index);
 	}
 
 	/**
@@ -1188,7 +1211,7 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
     private void addFullyConnectedOutputNode(int ftype, long newNodeInnovation, ArrayList<Double> weights,
             ArrayList<Long> linkInnovations) {
         NodeGene ng = newNodeGene(ftype, TWEANN.Node.NTYPE_OUTPUT, newNodeInnovation);
-        nodes.add(ng);
+        addNodeGene(nodes.size(), ng);
         numOut++;
         EvolutionaryHistory.archetypeAdd(archetypeIndex, ng.clone(), "full output");
         for (int i = 0; i < numIn; i++) {
@@ -1256,7 +1279,7 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
                 links.add(toNew);
             }
         }
-        nodes.add(ng);
+        addNodeGene(nodes.size(), ng);
         numOut++;
         EvolutionaryHistory.archetypeAdd(archetypeIndex, ng.clone(), "new output");
         // EvolutionaryHistory.archetypeOut[archetypeIndex]++;
@@ -1271,29 +1294,18 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
      * @return Index in list where gene is located
      */
     private int indexOfNodeInnovation(long innovation) {
-        return indexOfGeneInnovation(innovation, nodes);
-    }
-
-    /**
-     * Return the index of a given innovation number within the list of link
-     * genes
-     *
-     * @param innovation Innovation number to search for
-     * @return Index in list where gene is located
-     */
-    @SuppressWarnings("unused")
-    private int indexOfLinkInnovation(long innovation) {
-        return indexOfGeneInnovation(innovation, links);
+        if (nodeIndex == null) {
+            nodeIndex = new InnovationIndex();
+        }
+        return indexOfGeneInnovation(innovation, nodes, nodeIndex);
     }
 
-    private int indexOfGeneInnovation(long innovation, ArrayList<? extends Gene> genes) {
-        for (int i = 0; i < genes.size(); i++) {
-            if (genes.get(i).innovation == innovation) {
-                return i;
-            }
+    private int indexOfGeneInnovation(long innovation, ArrayList<? extends Gene> genes, InnovationIndex index) {
+        int result = index.indexOf(innovation, genes);
+        if (result == -1) {
+            System.out.println("innovation " + innovation + " not found in net " + this.getId());
         }
-        System.out.println("innovation " + innovation + " not found in net " + this.getId());
-        return -1;
+        return result;
     }
 
     /**
@@ -1331,29 +1343,87 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
      */
     @Override
     public TWEANN getPhenotype() {
-        TWEANN result = new TWEANN(this);
+        TWEANN result = CommonConstants.compiledTWEANN ? new CompiledTWEANN(this) : new TWEANN(this);
         // This is the point where old parent module usage is finally erased
         this.moduleUsage = result.moduleUsage;
         return result;
     }
 
     /**
-     * Copies the TWEANNGenotype via the trick of generating a TWEANN, then
-     * using it to generate a new Genotype
+     * Copies the TWEANNGenotype by cloning each of its genes. The copy is the
+     * same as the one that used to be made by generating a TWEANN and then
+     * a genotype from it, but without creating any Nodes or Links: inactive
+     * links are left out, and the remaining links are ordered by the position
+     * of their source node.
      *
      * @return = copy of genotype
      */
     @Override
     public Genotype<TWEANN> copy() {
-        int[] temp = moduleUsage;
-        TWEANNGenotype result = new TWEANNGenotype(this.getPhenotype());
-        // Module usage is erased by getPhenotype(), so it is restored here
-        moduleUsage = temp;
-        result.moduleUsage = new int[temp.length];
-        System.arraycopy(this.moduleUsage, 0, result.moduleUsage, 0, moduleUsage.length);
+        ArrayList<NodeGene> nodesCopy = new ArrayList<NodeGene>(nodes.size());
+        LinkGene[] linksCopy = new LinkGene[links.size()];
+        int numLinks = copyGenes(nodesCopy, linksCopy);
+        TWEANNGenotype result = new TWEANNGenotype(nodesCopy, new ArrayList<LinkGene>(Arrays.asList(linksCopy).subList(0, numLinks)),
+                neuronsPerModule, standardMultitask, hierarchicalMultitask, archetypeIndex);
+        copyModulesInto(result);
         return result;
     }
 
+    /**
+     * Clone the node genes and active link genes. Links with the same source
+     * keep their relative order, and groups of links are ordered by the
+     * position of the source node, so the links are in the same order as in
+     * the outputs of the nodes of the phenotype.
+     *
+     * @param nodesCopy Empty list that receives a clone of each node gene
+     * @param linksCopy Array with room for all link genes that receives clones of the active ones
+     * @return Number of active links cloned to the start of linksCopy
+     */
+    private int copyGenes(ArrayList<NodeGene> nodesCopy, LinkGene[] linksCopy) {
+        LongIntHashMap nodeIndices = new LongIntHashMap(nodes.size());
+        for (NodeGene ng : nodes) {
+            nodeIndices.putIfAbsent(ng.innovation, nodesCopy.size());
+            nodesCopy.add(ng.clone());
+        }
+        // Counting sort by source node position: first count the links from each node
+        int[] nextPosition = new int[nodes.size() + 1];
+        for (LinkGene lg : links) {
+            if (lg.isActive()) {
+                int source = nodeIndices.get(lg.sourceInnovation);
+                assert source != LongIntHashMap.NOT_FOUND : "Link " + lg + " has no source node in net " + getId();
+                nextPosition[source + 1]++;
+            }
+        }
+        for (int i = 1; i < nextPosition.length; i++) {
+            nextPosition[i] += nextPosition[i - 1];
+        }
+        for (LinkGene lg : links) {
+            if (lg.isActive()) {
+                linksCopy[nextPosition[nodeIndices.get(lg.sourceInnovation)]++] = lg.clone();
+            }
+        }
+        return nextPosition[nextPosition.length - 1];
+    }
+
+    /**
+     * Give a copy the number of modules, module associations and module usage
+     * of this genotype, which the phenotype used to carry over
+     *
+     * @param result Copy of this genotype
+     */
+    private void copyModulesInto(TWEANNGenotype result) {
+        result.numModules = numModules;
+        if (moduleAssociations != null) {
+            result.moduleAssociations = Arrays.copyOf(moduleAssociations, numModules);
+        } else { // Older networks associate each module with its own mode
+            result.moduleAssociations = new int[numModules];
+            for (int i = 0; i < numModules; i++) {
+                result.moduleAssociations[i] = i;
+            }
+        }
+        result.moduleUsage = Arrays.copyOf(moduleUsage, moduleUsage.length);
+    }
+
     /**
      * Get fresh new instance of genotype, in order to start evolution
      *
@@ -1547,7 +1617,7 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
             // Create the output node
             NodeGene ng = newNodeGene(ActivationFunctions.newNodeFunction(), TWEANN.Node.NTYPE_OUTPUT,
                     newNodeInnovation);
-            nodes.add(ng);
+            addNodeGene(nodes.size(), ng);
             EvolutionaryHistory.archetypeAdd(archetypeIndex, ng.clone(), "insert end preference");
         } else {
             NodeGene current = nodes.get(desiredPreferenceLoc);
@@ -1560,6 +1630,9 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
             for (int i = desiredPreferenceLoc + 1; i < nodes.size(); i++) {
                 nodes.get(i).innovation--;
             }
+            if (nodeIndex != null) {
+                nodeIndex.changed();
+            }
             // Shift corresponding link targets
             for (LinkGene l : links) {
                 if (l.sourceInnovation <= newNodeInnovation) {
@@ -1597,9 +1670,16 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
         long newNodeInnovation = -(numIn + numOut) - 1;
         // Create the output node
         NodeGene ng = newNodeGene(ActivationFunctions.newNodeFunction(), TWEANN.Node.NTYPE_OUTPUT, newNodeInnovation);
+        // Links into old node, by source. First link between a pair wins, as in getLinkBetween
+        HashMap<Long, LinkGene> incoming = new HashMap<Long, LinkGene>();
+        for (LinkGene lg : links) {
+            if (lg.targetInnovation == n.innovation && !incoming.containsKey(lg.sourceInnovation)) {
+                incoming.put(lg.sourceInnovation, lg);
+            }
+        }
         // Copy all links from old node
         for (NodeGene p : nodes) {
-            LinkGene lg = getLinkBetween(p.innovation, n.innovation);
+            LinkGene lg = incoming.get(p.innovation);
             if (lg != null && lg.isActive()) {
                 // Copy newNode if it exists
                 LinkGene duplicate;
@@ -1611,7 +1691,7 @@ public class TWEANNGenotype implements NetworkGenotype<TWEANN> {
                 links.add(duplicate);
             }
         }
-        nodes.add(ng);
+        addNodeGene(nodes.size(), ng);
         numOut++;
         EvolutionaryHistory.archetypeAdd(archetypeIndex, ng.clone(), "duplicate output");
     }
@@ -48,7 +48,28 @@ public class HallOfFame<T> {
 		ArrayList<Genotype<T>> genes = new ArrayList<Genotype<T>>();
 		genes.add(challenger);
 		
-		// Changes the Hall of Fame Challenger list once a Generation; Champions stay the same otherwise
+		updateChampions();
+		
+		genes.addAll(champs);
+		
+		double[][] fitness = new double[genes.size()][];
+		double[][] other = new double[genes.size()][];
+		
+		for(int i = 0; i < genes.size(); i++){
+			Pair<double[], double[]> scores = match.evaluateGroup(genes).get(0);
+			fitness[i] = scores.t1;
+			other[i] = scores.t2;
+		}
+		
+		return NoisyLonerTask.averageResults(fitness, other);
+	}
+	
+	/**
+	 * Changes the Hall of Fame Challenger list once a Generation; Champions stay the same otherwise.
+	 * Single population coevolution calls this before any match of the generation is played, so
+	 * that matches played in parallel all face the same Champions.
+	 */
+	public synchronized void updateChampions(){
 		if(currentGen != ((GenerationalEA) MMNEAT.ea).currentGeneration()){
 			currentGen = ((GenerationalEA) MMNEAT.ea).currentGeneration();
 			
@@ -56,7 +77,7 @@ public class HallOfFame<T> {
 				champs = getSingleRandomChamp();
 			}else if(Parameters.parameters.booleanParameter("hallOfFameXrandChamps")){
 				if(Parameters.parameters.booleanParameter("hallOfFameYPastGens")){
-					genes.addAll(getXRandomomPastYGenChamps());
+					champs = getXRandomomPastYGenChamps();
 				}else{
 					champs = getXRandomChamps();
 				}
@@ -64,19 +85,6 @@ public class HallOfFame<T> {
 				champs = getPastYGenChamps();
 			}
 		}
-		
-		genes.addAll(champs);
-		
-		double[][] fitness = new double[genes.size()][];
-		double[][] other = new double[genes.size()][];
-		
-		for(int i = 0; i < genes.size(); i++){
-			Pair<double[], double[]> scores = match.evaluateGroup(genes).get(0);
-			fitness[i] = scores.t1;
-			other[i] = scores.t2;
-		}
-		
-		return NoisyLonerTask.averageResults(fitness, other);
 	}
 	
 	/**
@@ -0,0 +1,684 @@
+package edu.southwestern.evolution.lineage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Scanner;
+
+/**
+ * Compact lineage of an evolutionary run, kept in two binary files next to
+ * the text logs. The births file has one fixed size record per offspring
+ * (id, parent ids, generation), in the order they were born. The scores file
+ * has one fixed size record per parent per generation (id, generation,
+ * position in population, scores), in the order they were logged. Both are
+ * written incrementally during evolution by a Writer, and memory mapped when
+ * browsing, so the lineage browser does not have to parse text logs or keep
+ * an object for every genotype id.
+ *
+ * The only things built when a store is opened are primitive arrays indexed
+ * by genotype id that point to records in the mapped files. Ancestry queries
+ * walk the parent ids in the mapped births file and mark visited ids in a
+ * BitSet.
+ *
+ * @author Jacob Schrum
+ */
+public class LineageStore implements Closeable {
+
+	public static final String BIRTHS_SUFFIX = "Lineage.dat";
+	public static final String SCORES_SUFFIX = "LineageScores.dat";
+
+	// child id, parent 1 id, parent 2 id, generation
+	private static final int BIRTH_BYTES = 8 + 8 + 8 + 4;
+	private static final int PARENT1_OFFSET = 8;
+	private static final int PARENT2_OFFSET = 16;
+	private static final int BIRTH_GENERATION_OFFSET = 24;
+	// Scores file starts with the number of scores per record
+	private static final int SCORES_HEADER_BYTES = 4;
+	private static final int SCORE_GENERATION_OFFSET = 8;
+	private static final int WITHIN_GENERATION_OFFSET = 12;
+	private static final int SCORES_OFFSET = 16;
+
+	/**
+	 * Number of bytes in a record of the scores file
+	 */
+	private static int scoreBytes(int numScores) {
+		return SCORES_OFFSET + 8 * numScores;
+	}
+
+	/**
+	 * Appends births and scores to the binary lineage files of a run in
+	 * progress. Generations are counted the same way the text lineage log
+	 * counts them: each end of generation marker starts the next one.
+	 */
+	public static class Writer implements Closeable {
+
+		private final DataOutputStream births;
+		private final File scoresFile;
+		private DataOutputStream scores = null;
+		private int numScores;
+		private int generation;
+
+		/**
+		 * Opens the lineage files with the given prefix for appending. When
+		 * resuming, records from generations at or after the resumed
+		 * generation are removed first, since they will be logged again.
+		 *
+		 * @param prefix
+		 *            Path and file name prefix shared by the logs of the run
+		 * @param generation
+		 *            Generation that evolution starts (or resumes) at
+		 * @throws IOException
+		 *             if the files cannot be opened
+		 */
+		public Writer(String prefix, int generation) throws IOException {
+			this.generation = generation;
+			File birthsFile = new File(prefix + BIRTHS_SUFFIX);
+			truncate(birthsFile, 0, BIRTH_BYTES, BIRTH_GENERATION_OFFSET, generation);
+			births = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(birthsFile, true)));
+			scoresFile = new File(prefix + SCORES_SUFFIX);
+			numScores = -1;
+			if (scoresFile.exists() && scoresFile.length() >= SCORES_HEADER_BYTES) {
+				try (RandomAccessFile file = new RandomAccessFile(scoresFile, "r")) {
+					numScores = file.readInt();
+				}
+				truncate(scoresFile, SCORES_HEADER_BYTES, scoreBytes(numScores), SCORE_GENERATION_OFFSET, generation);
+				scores = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(scoresFile, true)));
+			} else if (scoresFile.exists()) {
+				scoresFile.delete();
+			}
+		}
+
+		/**
+		 * Cut off every record from the given generation onward, along with
+		 * any partially written record at the end of the file. Records are in
+		 * generation order.
+		 */
+		private static void truncate(File f, int headerBytes, int recordBytes, int generationOffset, int generation) throws IOException {
+			if (!f.exists()) {
+				return;
+			}
+			try (RandomAccessFile file = new RandomAccessFile(f, "rw")) {
+				long records = (file.length() - headerBytes) / recordBytes;
+				long keep = 0;
+				while (keep < records) {
+					file.seek(headerBytes + keep * recordBytes + generationOffset);
+					if (file.readInt() >= generation) {
+						break;
+					}
+					keep++;
+				}
+				file.setLength(headerBytes + keep * recordBytes);
+			}
+		}
+
+		/**
+		 * Record the birth of an offspring in the current generation
+		 *
+		 * @param offspringId
+		 *            Genotype id of offspring
+		 * @param parentId1
+		 *            Genotype id of first parent
+		 * @param parentId2
+		 *            Genotype id of second parent, or -1 if cloned
+		 */
+		public synchronized void birth(long offspringId, long parentId1, long parentId2) {
+			try {
+				births.writeLong(offspringId);
+				births.writeLong(parentId1);
+				births.writeLong(parentId2);
+				births.writeInt(generation);
+			} catch (IOException ex) {
+				System.out.println("Could not write lineage data");
+				ex.printStackTrace();
+				System.exit(1);
+			}
+		}
+
+		/**
+		 * Record the scores of an individual in a population
+		 *
+		 * @param id
+		 *            Genotype id of individual
+		 * @param generation
+		 *            Generation the individual was evaluated in
+		 * @param withinGen
+		 *            Position of individual in the population
+		 * @param s
+		 *            Scores of individual. Must always have the same length
+		 */
+		public synchronized void scores(long id, int generation, int withinGen, double[] s) {
+			try {
+				if (scores == null) {
+					numScores = s.length;
+					scores = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(scoresFile, false)));
+					scores.writeInt(numScores);
+				}
+				assert s.length == numScores : "Expected " + numScores + " scores, not " + s.length;
+				scores.writeLong(id);
+				scores.writeInt(generation);
+				scores.writeInt(withinGen);
+				for (int i = 0; i < numScores; i++) {
+					scores.writeDouble(s[i]);
+				}
+			} catch (IOException ex) {
+				System.out.println("Could not write lineage scores");
+				ex.printStackTrace();
+				System.exit(1);
+			}
+		}
+
+		/**
+		 * Later births belong to the next generation. Everything written so
+		 * far is flushed, so a run in progress can be browsed.
+		 */
+		public synchronized void endGeneration() {
+			generation++;
+			flush();
+		}
+
+		public synchronized void flush() {
+			try {
+				births.flush();
+				if (scores != null) {
+					scores.flush();
+				}
+			} catch (IOException ex) {
+				System.out.println("Could not flush lineage data");
+				ex.printStackTrace();
+			}
+		}
+
+		@Override
+		public synchronized void close() {
+			try {
+				births.close();
+				if (scores != null) {
+					scores.close();
+				}
+			} catch (IOException ex) {
+				System.out.println("Could not close lineage data");
+				ex.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Fixed size records of a file mapped into memory. Files larger than a
+	 * single mapping allows are mapped in several chunks that each hold a
+	 * whole number of records.
+	 */
+	private static class Records {
+
+		final int recordBytes;
+		final int count;
+		private final int recordsPerChunk;
+		private final ByteBuffer[] chunks;
+
+		Records(FileChannel channel, long headerBytes, int recordBytes) throws IOException {
+			this.recordBytes = recordBytes;
+			long total = Math.max(0, (channel.size() - headerBytes) / recordBytes);
+			if (total > Integer.MAX_VALUE) {
+				throw new IOException("Too many lineage records: " + total);
+			}
+			count = (int) total;
+			recordsPerChunk = Integer.MAX_VALUE / recordBytes;
+			chunks = new ByteBuffer[(count + recordsPerChunk - 1) / recordsPerChunk];
+			for (int i = 0; i < chunks.length; i++) {
+				long start = headerBytes + (long) i * recordsPerChunk * recordBytes;
+				long records = Math.min(recordsPerChunk, count - (long) i * recordsPerChunk);
+				MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, records * recordBytes);
+				chunks[i] = chunk;
+			}
+		}
+
+		long getLong(int record, int offset) {
+			return chunks[record / recordsPerChunk].getLong((record % recordsPerChunk) * recordBytes + offset);
+		}
+
+		int getInt(int record, int offset) {
+			return chunks[record / recordsPerChunk].getInt((record % recordsPerChunk) * recordBytes + offset);
+		}
+
+		double getDouble(int record, int offset) {
+			return chunks[record / recordsPerChunk].getDouble((record % recordsPerChunk) * recordBytes + offset);
+		}
+	}
+
+	private final RandomAccessFile birthsFile;
+	private final Records births;
+	private final RandomAccessFile scoresFile;
+	private final Records scores;
+	private final int numScores;
+	private final int numGenerations;
+	// Indexed by genotype id. -1 marks ids without records
+	private final int[] birthOf;
+	private final int[] firstScoreOf;
+	// Indexed by score record: next record of the same id, or -1
+	private final int[] nextScore;
+	// Records of generation g are in [start[g], start[g + 1])
+	private final int[] birthStarts;
+	private final int[] scoreStarts;
+	// Optional index into the text mutation log
+	private RandomAccessFile mutationLog = null;
+	private long[] mutationLineOf = null;
+
+	/**
+	 * Map the binary lineage files with the given prefix
+	 *
+	 * @param prefix
+	 *            Path and file name prefix shared by the logs of the run
+	 * @throws IOException
+	 *             if the births file is missing or a file cannot be mapped
+	 */
+	public LineageStore(String prefix) throws IOException {
+		birthsFile = new RandomAccessFile(prefix + BIRTHS_SUFFIX, "r");
+		births = new Records(birthsFile.getChannel(), 0, BIRTH_BYTES);
+		File f = new File(prefix + SCORES_SUFFIX);
+		if (f.exists() && f.length() >= SCORES_HEADER_BYTES) {
+			scoresFile = new RandomAccessFile(f, "r");
+			numScores = scoresFile.readInt();
+			scores = new Records(scoresFile.getChannel(), SCORES_HEADER_BYTES, scoreBytes(numScores));
+		} else {
+			scoresFile = null;
+			numScores = 0;
+			scores = null;
+		}
+		int numScoreRecords = scores == null ? 0 : scores.count;
+
+		long maxId = -1;
+		int lastGeneration = -1;
+		for (int i = 0; i < births.count; i++) {
+			maxId = Math.max(maxId, births.getLong(i, 0));
+			lastGeneration = Math.max(lastGeneration, births.getInt(i, BIRTH_GENERATION_OFFSET));
+		}
+		for (int i = 0; i < numScoreRecords; i++) {
+			maxId = Math.max(maxId, scores.getLong(i, 0));
+			lastGeneration = Math.max(lastGeneration, scores.getInt(i, SCORE_GENERATION_OFFSET));
+		}
+		if (maxId >= Integer.MAX_VALUE) {
+			throw new IOException("Genotype ids are too large to index: " + maxId);
+		}
+		numGenerations = lastGeneration + 1;
+
+		birthOf = new int[(int) maxId + 1];
+		Arrays.fill(birthOf, -1);
+		for (int i = 0; i < births.count; i++) {
+			birthOf[(int) births.getLong(i, 0)] = i;
+		}
+		birthStarts = generationStarts(births, BIRTH_GENERATION_OFFSET);
+
+		firstScoreOf = new int[(int) maxId + 1];
+		Arrays.fill(firstScoreOf, -1);
+		nextScore = new int[numScoreRecords];
+		// Link records of the same id in the order they were logged
+		int[] lastScoreOf = new int[(int) maxId + 1];
+		for (int i = 0; i < numScoreRecords; i++) {
+			int id = (int) scores.getLong(i, 0);
+			nextScore[i] = -1;
+			if (firstScoreOf[id] == -1) {
+				firstScoreOf[id] = i;
+			} else {
+				nextScore[lastScoreOf[id]] = i;
+			}
+			lastScoreOf[id] = i;
+		}
+		scoreStarts = scores == null ? new int[numGenerations + 1] : generationStarts(scores, SCORE_GENERATION_OFFSET);
+	}
+
+	/**
+	 * Records are appended in generation order, so each generation is a
+	 * contiguous range of records
+	 */
+	private int[] generationStarts(Records records, int generationOffset) {
+		int[] starts = new int[numGenerations + 1];
+		int record = 0;
+		for (int g = 0; g <= numGenerations; g++) {
+			while (record < records.count && records.getInt(record, generationOffset) < g) {
+				record++;
+			}
+			starts[g] = record;
+		}
+		starts[numGenerations] = records.count;
+		return starts;
+	}
+
+	/**
+	 * Whether a lineage with scores has been written with the given prefix.
+	 * Births are logged by every EA that creates offspring, but scores are
+	 * only logged by EAs that also write the text parent score logs, so a
+	 * births file on its own is not enough to browse the lineage.
+	 *
+	 * @param prefix
+	 *            Path and file name prefix shared by the logs of the run
+	 * @return true if there is a births file and a scores file to open
+	 */
+	public static boolean exists(String prefix) {
+		File scores = new File(prefix + SCORES_SUFFIX);
+		return new File(prefix + BIRTHS_SUFFIX).exists() && scores.length() >= SCORES_HEADER_BYTES;
+	}
+
+	/**
+	 * @return Number of generations with births or scores
+	 */
+	public int numGenerations() {
+		return numGenerations;
+	}
+
+	/**
+	 * @return Number of scores logged for each individual
+	 */
+	public int numScores() {
+		return numScores;
+	}
+
+	/**
+	 * @return One more than the largest genotype id with a record
+	 */
+	public int size() {
+		return birthOf.length;
+	}
+
+	private boolean inRange(long id) {
+		return id >= 0 && id < birthOf.length;
+	}
+
+	/**
+	 * @param id
+	 *            Genotype id
+	 * @return Whether the genotype was born or scored during the run
+	 */
+	public boolean contains(long id) {
+		return inRange(id) && (birthOf[(int) id] != -1 || firstScoreOf[(int) id] != -1);
+	}
+
+	/**
+	 * @param id
+	 *            Genotype id
+	 * @return Whether the genotype was born from parents in the population
+	 */
+	public boolean born(long id) {
+		return inRange(id) && birthOf[(int) id] != -1;
+	}
+
+	/**
+	 * @param id
+	 *            Genotype id
+	 * @return Id of first parent, or -1 for members of the initial population
+	 */
+	public long parentId1(long id) {
+		return born(id) ? births.getLong(birthOf[(int) id], PARENT1_OFFSET) : -1;
+	}
+
+	/**
+	 * @param id
+	 *            Genotype id
+	 * @return Id of second parent, or -1 if there is none
+	 */
+	public long parentId2(long id) {
+		return born(id) ? births.getLong(birthOf[(int) id], PARENT2_OFFSET) : -1;
+	}
+
+	/**
+	 * @param id
+	 *            Genotype id
+	 * @return Generation the genotype was born in, or -1 for members of the
+	 *         initial population
+	 */
+	public int generation(long id) {
+		return born(id) ? births.getInt(birthOf[(int) id], BIRTH_GENERATION_OFFSET) : -1;
+	}
+
+	/**
+	 * @param generation
+	 *            A generation
+	 * @return Ids of all genotypes born in that generation, in birth order
+	 */
+	public long[] bornIn(int generation) {
+		if (generation < 0 || generation >= numGenerations) {
+			return new long[0];
+		}
+		long[] ids = new long[birthStarts[generation + 1] - birthStarts[generation]];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = births.getLong(birthStarts[generation] + i, 0);
+		}
+		return ids;
+	}
+
+	/**
+	 * @param generation
+	 *            A generation
+	 * @return Score records logged in that generation, in population order
+	 */
+	public int[] scoreRecordsIn(int generation) {
+		if (generation < 0 || generation >= numGenerations) {
+			return new int[0];
+		}
+		int[] records = new int[scoreStarts[generation + 1] - scoreStarts[generation]];
+		for (int i = 0; i < records.length; i++) {
+			records[i] = scoreStarts[generation] + i;
+		}
+		return records;
+	}
+
+	/**
+	 * @param id
+	 *            Genotype id
+	 * @return First score record of genotype, or -1 if it was never scored
+	 */
+	public int firstScoreRecord(long id) {
+		return inRange(id) ? firstScoreOf[(int) id] : -1;
+	}
+
+	/**
+	 * @param record
+	 *            A score record
+	 * @return Next score record of the same genotype, or -1
+	 */
+	public int nextScoreRecord(int record) {
+		return nextScore[record];
+	}
+
+	/**
+	 * @param id
+	 *            Genotype id
+	 * @param generation
+	 *            A generation
+	 * @return Score record of genotype in that generation, or -1
+	 */
+	public int scoreRecord(long id, int generation) {
+		for (int r = firstScoreRecord(id); r != -1; r = nextScore[r]) {
+			if (scoredGeneration(r) == generation) {
+				return r;
+			}
+		}
+		return -1;
+	}
+
+	public long scoredId(int record) {
+		return scores.getLong(record, 0);
+	}
+
+	public int scoredGeneration(int record) {
+		return scores.getInt(record, SCORE_GENERATION_OFFSET);
+	}
+
+	public int withinGeneration(int record) {
+		return scores.getInt(record, WITHIN_GENERATION_OFFSET);
+	}
+
+	public double score(int record, int objective) {
+		return scores.getDouble(record, SCORES_OFFSET + 8 * objective);
+	}
+
+	/**
+	 * @param record
+	 *            A score record
+	 * @return All scores in the record
+	 */
+	public double[] scores(int record) {
+		double[] result = new double[numScores];
+		for (int i = 0; i < numScores; i++) {
+			result[i] = score(record, i);
+		}
+		return result;
+	}
+
+	/**
+	 * Ids of a genotype and all of its ancestors
+	 *
+	 * @param id
+	 *            Genotype id
+	 * @return Set bits for the genotype and every ancestor
+	 */
+	public BitSet ancestors(long id) {
+		BitSet visited = new BitSet(size());
+		long[] stack = new long[16];
+		int top = 0;
+		stack[top++] = id;
+		while (top > 0) {
+			long next = stack[--top];
+			if (!inRange(next) || visited.get((int) next)) {
+				continue;
+			}
+			visited.set((int) next);
+			if (top + 2 > stack.length) {
+				stack = Arrays.copyOf(stack, 2 * stack.length);
+			}
+			long parent1 = parentId1(next);
+			if (parent1 != -1) {
+				stack[top++] = parent1;
+			}
+			long parent2 = parentId2(next);
+			if (parent2 != -1) {
+				stack[top++] = parent2;
+			}
+		}
+		return visited;
+	}
+
+	/**
+	 * Shared ancestor of two genotypes (possibly one of the genotypes itself)
+	 * born in the latest generation. Like the original browser, only
+	 * ancestors born after the first generation count.
+	 *
+	 * @param id1
+	 *            Genotype id
+	 * @param id2
+	 *            Genotype id
+	 * @return Id of most recent common ancestor, or -1 if there is none
+	 */
+	public long mostRecentCommonAncestor(long id1, long id2) {
+		BitSet a1 = ancestors(id1);
+		BitSet a2 = ancestors(id2);
+		a1.and(a2);
+		long result = -1;
+		int recentGen = 0;
+		for (int i = a1.nextSetBit(0); i >= 0; i = a1.nextSetBit(i + 1)) {
+			int gen = generation(i);
+			if (gen > recentGen) {
+				recentGen = gen;
+				result = i;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Index the text mutation log so that mutations of individual genotypes
+	 * can be read without loading the whole log. Each line of the log lists a
+	 * genotype id followed by the mutations it received.
+	 *
+	 * @param filename
+	 *            Mutation log of the run
+	 * @throws IOException
+	 *             if the log cannot be read
+	 */
+	public void indexMutations(String filename) throws IOException {
+		long[] lines = new long[size()];
+		Arrays.fill(lines, -1);
+		try (InputStream in = new BufferedInputStream(new FileInputStream(filename))) {
+			long position = 0;
+			long lineStart = 0;
+			long id = 0;
+			boolean digits = true; // Still reading the leading id
+			boolean any = false;
+			int b;
+			while ((b = in.read()) != -1) {
+				position++;
+				if (b == '\n') {
+					if (any && id < lines.length && lines[(int) id] == -1) {
+						lines[(int) id] = lineStart;
+					}
+					lineStart = position;
+					id = 0;
+					digits = true;
+					any = false;
+				} else if (digits) {
+					if (b >= '0' && b <= '9') {
+						id = 10 * id + (b - '0');
+						any = true;
+					} else {
+						// Generation markers have no leading id
+						digits = false;
+						any = any && (b == ' ' || b == '\t' || b == '\r');
+					}
+				}
+			}
+			// Last line may not end with a newline
+			if (any && id < lines.length && lines[(int) id] == -1) {
+				lines[(int) id] = lineStart;
+			}
+		}
+		mutationLineOf = lines;
+		mutationLog = new RandomAccessFile(filename, "r");
+	}
+
+	/**
+	 * @param id
+	 *            Genotype id
+	 * @return Mutations logged for the genotype, which are empty if
+	 *         mutations were not indexed
+	 */
+	public synchronized ArrayList<String> mutations(long id) {
+		ArrayList<String> result = new ArrayList<String>();
+		if (mutationLineOf != null && inRange(id) && mutationLineOf[(int) id] != -1) {
+			try {
+				mutationLog.seek(mutationLineOf[(int) id]);
+				Scanner pattern = new Scanner(mutationLog.readLine());
+				pattern.nextLong();
+				while (pattern.hasNext()) {
+					result.add(pattern.next());
+				}
+				pattern.close();
+			} catch (IOException ex) {
+				System.out.println("Could not read mutations of " + id);
+				ex.printStackTrace();
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		birthsFile.close();
+		if (scoresFile != null) {
+			scoresFile.close();
+		}
+		if (mutationLog != null) {
+			mutationLog.close();
+		}
+	}
+}
@@ -28,9 +28,13 @@ import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -138,7 +142,7 @@ public class Offspring {
 		 * Draws the initial panels and information
 		 */
 		public void draw() {
-			Offspring o = lineage.get(position);
+			Offspring o = get(position);
 			System.out.println(position);
 			clear();
 			if (o == null) {
@@ -234,7 +238,7 @@ public class Offspring {
 
 			// Show scores of ancestry backwards through generations
 			if (key == KeyEvent.VK_B) {
-				Offspring o = lineage.get(position);
+				Offspring o = get(position);
 				if (o == null) {
 					System.out.println("null has no parents");
 				} else {
@@ -244,7 +248,7 @@ public class Offspring {
 
 			// Run evaluation
 			if (key == KeyEvent.VK_E) {
-				final Offspring o = lineage.get(position);
+				final Offspring o = get(position);
 				if (o != null && o.xmlNetwork != null) {
 					// Launch a new thread in which to evaluate the genotype
 					new Thread() {
@@ -317,7 +321,7 @@ public class Offspring {
 
 			// Save picture of network
 			if (key == KeyEvent.VK_S) {
-				Offspring o = lineage.get(position);
+				Offspring o = get(position);
 				if (o != null && o.xmlNetwork != null) {
 					String filename = "NETWORK_" + o.offspringId + "_GEN_" + o.generation + ".jpg";
 					panel.save(filename);
@@ -381,7 +385,7 @@ public class Offspring {
 			// Make jump point be the biggest fitness jump in ancestry of
 			// current position
 			if (key == KeyEvent.VK_J) {
-				if (lineage.get(position) == null) {
+				if (get(position) == null) {
 					System.out.println("Cannot calculate jump to null");
 				} else {
 					// Biggest fitness jump info
@@ -423,7 +427,7 @@ public class Offspring {
 
 			// Goto parent 1 (mother)
 			if (key == KeyEvent.VK_M) {
-				Offspring o = lineage.get(position);
+				Offspring o = get(position);
 				if (o == null) {
 					System.out.println("null has no parents");
 				} else {
@@ -435,7 +439,7 @@ public class Offspring {
 
 			// Goto parent 2 (father)
 			if (key == KeyEvent.VK_F) {
-				Offspring o = lineage.get(position);
+				Offspring o = get(position);
 				if (o == null) {
 					System.out.println("null has no parents");
 				} else {
@@ -497,7 +501,7 @@ public class Offspring {
 		}
 
 		public void changeGeneration(boolean up) {
-			Offspring o = lineage.get(position);
+			Offspring o = get(position);
 			int prev = position;
 			if (o == null) {
 				while (o == null || o.xmlNetwork == null) {
@@ -506,7 +510,7 @@ public class Offspring {
 					} else {
 						decreasePosition();
 					}
-					o = lineage.get(position);
+					o = get(position);
 				}
 				System.out.println((up ? "Advancing" : "Decreasing") + " to non-null generation: " + o.generation);
 			} else {
@@ -517,7 +521,7 @@ public class Offspring {
 					} else {
 						decreasePosition();
 					}
-					o = lineage.get(position);
+					o = get(position);
 				}
 				System.out.println(
 						(up ? "Advancing" : "Decreasing") + " from generation: " + generation + " to " + o.generation);
@@ -533,7 +537,7 @@ public class Offspring {
 		public void advancePosition() {
 			previousPosition = position;
 			position++;
-			if (position >= lineage.size()) {
+			if (position >= size()) {
 				position = 0;
 			}
 		}
@@ -542,7 +546,7 @@ public class Offspring {
 			previousPosition = position;
 			position--;
 			if (position < 0) {
-				position = lineage.size() - 1;
+				position = size() - 1;
 			}
 		}
 
@@ -572,6 +576,18 @@ public class Offspring {
 	public static double[][] worstScores = null;
 	public static double[][] tugGoals = null;
 	public static int numObjectives = 0;
+	// Binary lineage of the run being browsed, if it has one. When present,
+	// lineage stays empty and individuals are only created when visited
+	public static LineageStore store = null;
+	private static String storeNetworkPrefix = null;
+	private static final int MAX_CACHED_OFFSPRING = 100000;
+	@SuppressWarnings("serial")
+	private static LinkedHashMap<Long, Offspring> storeCache = new LinkedHashMap<Long, Offspring>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Offspring> eldest) {
+			return size() > MAX_CACHED_OFFSPRING;
+		}
+	};
 
 	//public global variables
 	public long offspringId;
@@ -595,6 +611,53 @@ public class Offspring {
 		worstScores = null;
 		tugGoals = null;
 		numObjectives = 0;
+		if (store != null) {
+			try {
+				store.close();
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+			store = null;
+		}
+		storeNetworkPrefix = null;
+		storeCache.clear();
+	}
+
+	/**
+	 * Individual with the given genotype id, if it is part of the lineage
+	 *
+	 * @param offspringId
+	 *            Genotype id
+	 * @return Offspring with that id, or null
+	 */
+	public static Offspring get(long offspringId) {
+		if (store == null) {
+			return offspringId >= 0 && offspringId < lineage.size() ? lineage.get((int) offspringId) : null;
+		}
+		Offspring o = storeCache.get(offspringId);
+		if (o == null && store.contains(offspringId)) {
+			o = new Offspring(offspringId, store.parentId1(offspringId), store.parentId2(offspringId), store.generation(offspringId));
+			for (int r = store.firstScoreRecord(offspringId); r != -1; r = store.nextScoreRecord(r)) {
+				ArrayList<Double> s = new ArrayList<Double>(store.numScores());
+				for (double x : store.scores(r)) {
+					s.add(x);
+				}
+				o.addScores(s, store.scoredGeneration(r));
+				if (storeNetworkPrefix != null) {
+					o.xmlNetwork = networkFile(storeNetworkPrefix, store.scoredGeneration(r), store.withinGeneration(r));
+				}
+			}
+			o.mutations = store.mutations(offspringId);
+			storeCache.put(offspringId, o);
+		}
+		return o;
+	}
+
+	/**
+	 * @return One more than the largest genotype id in the lineage
+	 */
+	public static int size() {
+		return store == null ? lineage.size() : store.size();
 	}
 	/**
 	 * Default constructor 
@@ -731,9 +794,20 @@ public class Offspring {
 	 */
 	public static void addNetwork(long offspringId, String filePrefix, int gen, int withinGen) {
 		Offspring o = lineage.get((int) offspringId);
+		o.xmlNetwork = networkFile(filePrefix, gen, withinGen);
+	}
+
+	/**
+	 * File that a member of a saved population is stored in
+	 * @param filePrefix prefix of xml file where network info is stored
+	 * @param gen gen #
+	 * @param withinGen population slot within that generation
+	 * @return path of xml file
+	 */
+	private static String networkFile(String filePrefix, int gen, int withinGen) {
 		int slash = filePrefix.lastIndexOf("/");
 		String subdir = gen == 0 ? "initial" : "gen" + gen;
-		o.xmlNetwork = filePrefix.substring(0, slash) + "/" + subdir + "/" + filePrefix.substring(slash + 1) + subdir + "_" + withinGen + ".xml";
+		return filePrefix.substring(0, slash) + "/" + subdir + "/" + filePrefix.substring(slash + 1) + subdir + "_" + withinGen + ".xml";
 	}
 
 	/**
@@ -890,6 +964,11 @@ public class Offspring {
 		String prefix = base + "/" + saveTo + run + "/" + log + run + "_";
 		String originalPrefix = base + "/" + loadFrom + run + "/" + log.replace(saveTo, loadFrom) + run + "_";
 		System.out.println("Prefix: " + prefix);
+		// EAs that do not log binary scores are browsed through the text logs
+		if (LineageStore.exists(originalPrefix)) {
+			fillInLineageFromStore(prefix, originalPrefix);
+			return;
+		}
 		// Parameters.initializeParameterCollections(prefix + "parameters.txt");
 		int numGenerations = PopulationUtil.loadLineage();
 		System.out.println("---Lineage Loaded (" + numGenerations + " generations)-----------");
@@ -911,6 +990,54 @@ public class Offspring {
 		}
 	}
 
+	/**
+	 * Use the binary lineage written during the run instead of the text logs.
+	 * Only the ranges of the scores are computed up front.
+	 * @param prefix prefix of log files of the run being browsed
+	 * @param originalPrefix prefix of log files of the run that evolved the lineage
+	 * @throws FileNotFoundException if the binary lineage cannot be opened
+	 */
+	private static void fillInLineageFromStore(String prefix, String originalPrefix) throws FileNotFoundException {
+		try {
+			store = new LineageStore(originalPrefix);
+			File mutationLog = new File(originalPrefix + "Mutations_log.txt");
+			if (mutationLog.exists()) {
+				store.indexMutations(mutationLog.getPath());
+			}
+		} catch (IOException ex) {
+			throw new FileNotFoundException("Could not open binary lineage " + originalPrefix + ": " + ex.getMessage());
+		}
+		storeNetworkPrefix = originalPrefix;
+		int numGenerations = store.numGenerations();
+		System.out.println("---Binary Lineage Mapped (" + numGenerations + " generations)-----------");
+		numObjectives = store.numScores();
+		bestScores = new double[numObjectives][numGenerations];
+		worstScores = new double[numObjectives][numGenerations];
+		for (int j = 0; j < numObjectives; j++) {
+			Arrays.fill(bestScores[j], -Double.MAX_VALUE);
+			Arrays.fill(worstScores[j], Double.MAX_VALUE);
+			maxes.add(-Double.MAX_VALUE);
+			mins.add(Double.MAX_VALUE);
+		}
+		for (int i = 0; i < numGenerations; i++) {
+			for (int r : store.scoreRecordsIn(i)) {
+				for (int j = 0; j < numObjectives; j++) {
+					double x = store.score(r, j);
+					maxes.set(j, Math.max(maxes.get(j), x));
+					mins.set(j, Math.min(mins.get(j), x));
+					bestScores[j][i] = Math.max(bestScores[j][i], x);
+					worstScores[j][i] = Math.min(worstScores[j][i], x);
+				}
+			}
+		}
+		System.out.println("---Parent Score Ranges Computed-----------");
+		File tugLog = new File(prefix + "TUG_log.txt");
+		if (tugLog.exists()) {
+			addGoals(tugLog, numGenerations);
+			System.out.println("---TUG Goals Added-----------");
+		}
+	}
+
 	/**
 	 * 
 	 * @param generation
@@ -919,8 +1046,8 @@ public class Offspring {
 	 * @return
 	 */
 	public static ArrayList<Double> fitnessDifference(int generation, long parentId, long offspringId) {
-		Offspring parent = lineage.get((int) parentId);
-		Offspring child = lineage.get((int) offspringId);
+		Offspring parent = get(parentId);
+		Offspring child = get(offspringId);
 		int genIndex = parent.correspondingGenerations.indexOf(generation);
 		if (genIndex == -1) {
 			System.out.println("FAILURE!");
@@ -962,7 +1089,7 @@ public class Offspring {
 		if (visited.containsKey(offspringId)) {
 			return visited.get(offspringId);
 		}
-		Offspring o = lineage.get((int) offspringId);
+		Offspring o = get(offspringId);
 		long parent1 = o.parentId1;
 		long parent2 = o.parentId2;
 		MutationBranch left = completeMutationHistory(parent1, visited);
@@ -979,6 +1106,9 @@ public class Offspring {
 	 * @return
 	 */
 	public static edu.southwestern.evolution.lineage.JumpPoint findBiggestFitnessJump(int objective, long endpointId) {
+		if (store != null) {
+			return findBiggestStoredFitnessJump(objective, endpointId);
+		}
 		HashMap<Long, MutationBranch> map = new HashMap<Long, MutationBranch>();
 		completeMutationHistory(endpointId, map);
 		double jump = 0;
@@ -1012,12 +1142,72 @@ public class Offspring {
 		return new edu.southwestern.evolution.lineage.JumpPoint(objective, jump, individual, whenGen, firstParent);
 	}
 
+	/**
+	 * Same as findBiggestFitnessJump, but reads parent ids and scores straight
+	 * from the binary lineage, so only the individual at the jump is created
+	 * @param objective
+	 * @param endpointId
+	 * @return
+	 */
+	private static edu.southwestern.evolution.lineage.JumpPoint findBiggestStoredFitnessJump(int objective, long endpointId) {
+		BitSet ancestors = store.ancestors(endpointId);
+		double jump = 0;
+		long individual = -1;
+		int whenGen = 0;
+		boolean firstParent = true;
+		for (int id = ancestors.nextSetBit(0); id >= 0; id = ancestors.nextSetBit(id + 1)) {
+			long parentId1 = store.parentId1(id);
+			int first = store.firstScoreRecord(id);
+			if (parentId1 > -1 && first != -1) {
+				int gen = store.scoredGeneration(first);
+				boolean firstBetter = true;
+				double diff = storedFitnessDifference(gen, parentId1, id, objective);
+				long parentId2 = store.parentId2(id);
+				if (parentId2 > -1) {
+					double diff2 = storedFitnessDifference(gen, parentId2, id, objective);
+					// Only take the worse level of improvement
+					if (diff2 < diff) {
+						firstBetter = false;
+						diff = diff2;
+					}
+				}
+				if (diff > jump) {
+					jump = diff;
+					individual = id;
+					whenGen = gen;
+					firstParent = firstBetter;
+				}
+			}
+		}
+		return new edu.southwestern.evolution.lineage.JumpPoint(objective, jump, get(individual), whenGen, firstParent);
+	}
+
+	/**
+	 * Difference in one objective between a child and its parent in the
+	 * binary lineage
+	 * @param generation
+	 * @param parentId
+	 * @param offspringId
+	 * @param objective
+	 * @return
+	 */
+	private static double storedFitnessDifference(int generation, long parentId, long offspringId, int objective) {
+		int parentRecord = store.scoreRecord(parentId, generation);
+		if (parentRecord == -1) {
+			System.out.println("FAILURE!");
+			System.out.println("gen: " + generation + ", parentId: " + parentId + ", offspringId: " + offspringId);
+			System.exit(1);
+		}
+		int childRecord = store.scoreRecord(offspringId, generation);
+		return store.score(childRecord, objective) - store.score(parentRecord, objective);
+	}
+
 	/**
 	 * 
 	 * @return
 	 */
 	public static int lastGeneration() {
-		return lineage.get(lineage.size() - 1).generation;
+		return get(size() - 1).generation;
 	}
 
 	/**
@@ -1046,6 +1236,14 @@ public class Offspring {
 	 * @return
 	 */
 	public static HashMap<Long, Offspring> allAncestors(long offspringId) {
+		if (store != null) {
+			BitSet ids = store.ancestors(offspringId);
+			HashMap<Long, Offspring> ancestors = new HashMap<Long, Offspring>();
+			for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+				ancestors.put((long) id, get(id));
+			}
+			return ancestors;
+		}
 		HashMap<Long, MutationBranch> map = new HashMap<Long, MutationBranch>();
 		completeMutationHistory(offspringId, map);
 		HashMap<Long, Offspring> ancestors = new HashMap<Long, Offspring>();
@@ -1062,6 +1260,10 @@ public class Offspring {
 	 * @return
 	 */
 	public static Offspring mostRecentCommonAncestor(long offspringId1, long offspringId2) {
+		if (store != null) {
+			long id = store.mostRecentCommonAncestor(offspringId1, offspringId2);
+			return id == -1 ? null : get(id);
+		}
 		HashMap<Long, Offspring> a1 = allAncestors(offspringId1);
 		HashMap<Long, Offspring> a2 = allAncestors(offspringId2);
 		int recentGen = 0;
@@ -1114,6 +1316,12 @@ public class Offspring {
 	 */
 	public static ArrayList<Offspring> offspringOfGeneration(int generation) {
 		ArrayList<Offspring> os = new ArrayList<Offspring>();
+		if (store != null) {
+			for (long id : store.bornIn(generation)) {
+				os.add(get(id));
+			}
+			return os;
+		}
 		for (int i = 0; i < lineage.size(); i++) {
 			Offspring next = lineage.get(i);
 			if (next != null && next.generation == generation) {
@@ -1130,6 +1338,24 @@ public class Offspring {
 	 * @return
 	 */
 	public static Offspring bestOfGeneration(int generation, int objective) {
+		if (store != null) {
+			long best = -1;
+			double max = -Double.MAX_VALUE;
+			for (long id : store.bornIn(generation)) {
+				int record = store.scoreRecord(id, generation);
+				if (record == -1) {
+					System.out.println("generation: " + generation);
+					System.out.println("Problem: " + id + " has no scores");
+					continue;
+				}
+				double score = store.score(record, objective);
+				if (score > max) {
+					max = score;
+					best = id;
+				}
+			}
+			return best == -1 ? null : get(best);
+		}
 		ArrayList<Offspring> os = offspringOfGeneration(generation);
 		Offspring best = null;
 		double max = -Double.MAX_VALUE;
@@ -1343,11 +1569,23 @@ public class Offspring {
 			g.drawString("" + mins.get(obj1), 0, browseDim - offset / 2);
 		}
 
-		Offspring child = lineage.get((int) currentId);
+		Offspring child = get(currentId);
 		long parentId1 = child.parentId1;
 		long parentId2 = child.parentId2;
-		for (int i = 0; i < lineage.size(); i++) {
-			Offspring o = lineage.get(i);
+		// Only individuals scored in the viewed generation are drawn, besides the current one
+		ArrayList<Offspring> shown = lineage;
+		if (store != null) {
+			shown = new ArrayList<Offspring>();
+			shown.add(child);
+			for (int r : store.scoreRecordsIn(viewingGen)) {
+				long scoredId = store.scoredId(r);
+				if (scoredId != currentId) {
+					shown.add(get(scoredId));
+				}
+			}
+		}
+		for (int i = 0; i < shown.size(); i++) {
+			Offspring o = shown.get(i);
 			if (o != null) {
 				if (o.offspringId == currentId) {
 					// All scores of given solution
@@ -1485,7 +1723,7 @@ public class Offspring {
 			DrawingPanel fitness, DrawingPanel front, boolean showScores, boolean showIds, DrawingPanel info, int obj1,
 			int obj2) {
 		if (offspringId != -1) {
-			Offspring o = lineage.get((int) offspringId);
+			Offspring o = get(offspringId);
 			fillInfo(o, info);
 			if (o != null) {
 				if (MMNEAT.genotype instanceof TWEANNGenotype) {
@@ -1670,7 +1908,7 @@ public class Offspring {
 
 				int parent1Pos = (int) o.parentId1;
 				if (parent1Pos > -1) {
-					Offspring parent1 = lineage.get(parent1Pos);
+					Offspring parent1 = get(parent1Pos);
 					double parent1Score = parent1.scores.get(0).get(i);
 
 					double bestScore = parent1Score;
@@ -1679,7 +1917,7 @@ public class Offspring {
 
 					int parent2Pos = (int) o.parentId2;
 					if (parent2Pos > -1) {
-						Offspring parent2 = lineage.get(parent2Pos);
+						Offspring parent2 = get(parent2Pos);
 						double parent2Score = parent2.scores.get(0).get(i);
 						if (parent2Score > bestScore) {
 							bestScore = parent2Score;
@@ -1690,7 +1928,7 @@ public class Offspring {
 					drawScoreSegment(offspringScore, o.correspondingGenerations.get(0), bestScore,
 							bestParent.correspondingGenerations.get(0), bests[i], i);
 
-					o = lineage.get(bestPos);
+					o = get(bestPos);
 				} else {
 					o = null;
 				}
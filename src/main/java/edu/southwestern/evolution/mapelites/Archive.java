@@ -3,24 +3,67 @@ package edu.southwestern.evolution.mapelites;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.IntStream;
 
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
+
+import edu.southwestern.evolution.genotypes.Genotype;
 import edu.southwestern.scores.Score;
 import edu.southwestern.util.ClassCreation;
 import edu.southwestern.util.file.FileUtilities;
 import edu.southwestern.util.random.RandomNumbers;
 import wox.serial.Easy;
 
+/**
+ * MAP-Elites archive with one elite per bin. Bins are replaced with an atomic
+ * compare-and-set, so candidates can be added from several threads at once
+ * without one thread's elite overwriting a better one that another thread
+ * just added.
+ *
+ * Saving elites to disk happens on a separate writer thread so that adding
+ * to the archive never waits on disk. If a bin is replaced again before its
+ * previous elite has been written, only the newest elite is written.
+ * flush() waits until everything added so far is on disk.
+ *
+ * Candidates either have a behaviorVector with a score for every bin, or are
+ * a BinnedScore. A sparse BinnedScore is only compared with the elites of the
+ * bins it has scores for. This class stores a slot for every bin; when most
+ * bins stay empty, SparseArchive only stores the occupied ones.
+ */
 public class Archive<T> {
 	
-	Vector<Score<T>> archive; // Vector is used because it is thread-safe
+	AtomicReferenceArray<Score<T>> archive; // null in a SparseArchive
+	// Bins never become empty again, so this only grows
+	private final AtomicInteger numOccupied = new AtomicInteger(0);
 	private BinLabels<T> mapping;
+	private int numBins;
 	private boolean saveElites;
 	private String archiveDir;
+	// Bins whose elite changed and still needs to be written to disk
+	private Set<Integer> unsaved;
+	private ExecutorService writer;
 
-	@SuppressWarnings("unchecked")
 	public Archive(boolean saveElites) {
+		this(saveElites, true);
+	}
+
+	/**
+	 * @param saveElites Whether elites are saved to disk
+	 * @param dense Whether to store a slot for every bin, and create the
+	 *              directories of all bins up front
+	 */
+	@SuppressWarnings("unchecked")
+	protected Archive(boolean saveElites, boolean dense) {
 		this.saveElites = saveElites;
 		// Initialize mapping
 		try {
@@ -30,19 +73,25 @@ public class Archive<T> {
 			e.printStackTrace();
 			System.exit(1);
 		}
-		int numBins = mapping.binLabels().size();
-		archive = new Vector<Score<T>>(numBins);
+		numBins = mapping.numBins();
+		archive = dense ? new AtomicReferenceArray<Score<T>>(numBins) : null; // All bins start empty
 		// Archive directory
 		String experimentDir = FileUtilities.getSaveDirectory();
 		archiveDir = experimentDir + File.separator + "archive";
 		// Subdirectories for each bin
-		for(int i = 0; i < numBins; i++) {
-			if(saveElites) {
+		if(saveElites) {
+			// Otherwise, directories are created when the first elite of a bin is saved
+			for(int i = 0; dense && i < numBins; i++) {
 				String binPath = archiveDir + File.separator + mapping.binLabels().get(i);
 				// Create all of the bin directories
 				new File(binPath).mkdirs(); // make directory
 			}
-			archive.add(null); // Place holder for first individual and future elites
+			unsaved = ConcurrentHashMap.newKeySet();
+			writer = Executors.newSingleThreadExecutor((r) -> {
+				Thread t = new Thread(r, "MAP Elites archive writer");
+				t.setDaemon(true); // flush() must be called to be sure everything was written
+				return t;
+			});
 		}
 	}
 
@@ -52,13 +101,47 @@ public class Archive<T> {
 	 * @return
 	 */
 	public float[] getEliteScores() {
-		float[] result = new float[archive.size()];
+		float[] result = new float[numBins];
 		for(int i = 0; i < result.length; i++) {
-			Score<T> score = archive.get(i);
-			result[i] = score == null ? Float.NEGATIVE_INFINITY : score.behaviorVector.get(i).floatValue();
+			result[i] = (float) getBinScore(i);
 		}
 		return result;
 	}
+
+	/**
+	 * Line for the MAP Elites log with the score of every bin's elite
+	 * @return Tab separated scores
+	 */
+	public String eliteScoresLog() {
+		return StringUtils.join(ArrayUtils.toObject(getEliteScores()), "\t");
+	}
+
+	/**
+	 * Score of an individual in a bin, whether the score has a behaviorVector
+	 * or is a BinnedScore.
+	 * @param score Score of some individual
+	 * @param binIndex Index of bin
+	 * @return Score in the bin, or negative infinity if not scored for the bin
+	 */
+	public static <T> double binScore(Score<T> score, int binIndex) {
+		return score instanceof BinnedScore ? ((BinnedScore<T>) score).binScore(binIndex) : score.behaviorVector.get(binIndex);
+	}
+
+	/**
+	 * Total number of bins, whether occupied or not
+	 * @return Number of bins
+	 */
+	public int numBins() {
+		return numBins;
+	}
+
+	/**
+	 * Indices of all bins that have an elite, in ascending order
+	 * @return Occupied bin indices
+	 */
+	public int[] occupiedBins() {
+		return IntStream.range(0, numBins).filter((i) -> archive.get(i) != null).toArray();
+	}
 	
 	/**
 	 * Directory where the archive is being saved on disk
@@ -80,43 +163,204 @@ public class Archive<T> {
 	 * Given an ArchivedOrganism (which contains some evaluation information about the genotype),
 	 * figure out which bin it belongs in and add it at the front if it is a new elite.
 	 * Otherwise, add it at the end.
+	 * Safe to call from several threads at once.
 	 * @param candidate Organism containing genotype and eval information
 	 * @return Whether organism was a new elite
 	 */
 	public boolean add(Score<T> candidate) {
+		// One copy of the candidate is shared by all bins it wins
+		Score<T> elite = candidate.copy();
 		// Java's new stream features allow for easy parallelism
-		IntStream stream = IntStream.range(0, archive.size());
-		long newElites = stream.parallel().filter((i) -> {
-			Score<T> elite = archive.get(i);
-			double candidateScore = candidate.behaviorVector.get(i);
+		IntStream stream;
+		if(elite instanceof BinnedScore && !((BinnedScore<T>) elite).isDense()) {
+			// Only the bins the candidate was scored for
+			BinnedScore<T> binned = (BinnedScore<T>) elite;
+			stream = IntStream.range(0, binned.numScoredBins()).map((k) -> binned.scoredBin(k));
+		} else {
+			stream = IntStream.range(0, numBins);
+		}
+		long newElites = stream.parallel().filter((i) -> replaceIfBetter(i, elite, binScore(elite, i))).count(); // Number of bins whose elite was replaced
+		//System.out.println(newElites + " elites were replaced");
+		// Whether any elites were replaced
+		return newElites > 0;
+	}
+
+	/**
+	 * Make the candidate the elite of a bin if the bin is empty or the candidate
+	 * has a better score for that bin. If another thread replaces the elite in
+	 * the meantime, the comparison is repeated against the new elite.
+	 * @param binIndex Bin to try
+	 * @param candidate Candidate elite
+	 * @param candidateScore Score of the candidate in the bin
+	 * @return Whether the candidate became the elite
+	 */
+	protected boolean replaceIfBetter(int binIndex, Score<T> candidate, double candidateScore) {
+		while(true) {
+			Score<T> elite = archive.get(binIndex);
 			// If the bin is empty, or the candidate is better than the elite for that bin's score
-			if(elite == null || candidateScore > elite.behaviorVector.get(i)) {
-				archive.set(i, candidate.copy()); // Replace elite
-				// Need to save all elites so that re-load on resume works
-				if(saveElites) {
-					// Easier to reload on resume if file name is uniform. Will also save space by overwriting
-					String binPath = archiveDir + File.separator + mapping.binLabels().get(i);
-					Easy.save(candidate.individual, binPath + File.separator + "elite.xml");
-					// Write scores as simple text file (less to write than xml)
-					try {
-						PrintStream ps = new PrintStream(new File(binPath + File.separator + "scores.txt"));
-						for(Double score : candidate.behaviorVector) {
-							ps.println(score);
-						}
-					} catch (FileNotFoundException e) {
-						System.out.println("Could not write scores for " + candidate.individual.getId() + ":" + candidate.behaviorVector);
-						e.printStackTrace();
-						System.exit(1);
+			if(elite == null || candidateScore > binScore(elite, binIndex)) {
+				if(archive.compareAndSet(binIndex, elite, candidate)) { // Replace elite
+					if(elite == null) {
+						numOccupied.incrementAndGet();
 					}
+					// Need to save all elites so that re-load on resume works
+					save(binIndex);
+					return true;
 				}
-				return true;
+				// Otherwise another thread replaced the elite first, so compare with the new one
 			} else {
 				return false;
 			}
-		}).count(); // Number of bins whose elite was replaced
-		//System.out.println(newElites + " elites were replaced");
-		// Whether any elites were replaced
-		return newElites > 0;
+		}
+	}
+
+	/**
+	 * Queue the elite of a bin to be written to disk by the writer thread,
+	 * if elites are saved. Must be called after the elite is replaced.
+	 * @param binIndex Bin whose elite changed
+	 */
+	protected void save(int binIndex) {
+		if(!saveElites) {
+			return;
+		}
+		// If a write of this bin is already waiting, it will write the new elite
+		if(unsaved.add(binIndex)) {
+			writer.execute(() -> write(binIndex));
+		}
+	}
+
+	/**
+	 * Write the current elite of a bin to disk. Only called on the writer thread.
+	 * The current elite is written rather than the one that was saved, because
+	 * a thread may call save after a thread that replaced its elite with a
+	 * better one.
+	 * @param binIndex Bin to write
+	 */
+	private void write(int binIndex) {
+		// Any elite replaced after this point queues another write
+		unsaved.remove(binIndex);
+		Score<T> elite = getElite(binIndex);
+		// Easier to reload on resume if file name is uniform. Will also save space by overwriting
+		String binPath = archiveDir + File.separator + mapping.binLabel(binIndex);
+		new File(binPath).mkdirs(); // In case the directory was not created up front
+		Easy.save(elite.individual, binPath + File.separator + "elite.xml");
+		// Write scores as simple text file (less to write than xml)
+		try {
+			PrintStream ps = new PrintStream(new File(binPath + File.separator + "scores.txt"));
+			if(elite instanceof BinnedScore) {
+				BinnedScore<T> binned = (BinnedScore<T>) elite;
+				for(int k = 0; k < binned.numScoredBins(); k++) {
+					// Sparse scores need the bin index: one pair per line
+					ps.println((binned.isDense() ? "" : binned.scoredBin(k) + "\t") + binned.scoreOfScoredBin(k));
+				}
+			} else {
+				for(Double score : elite.behaviorVector) {
+					ps.println(score);
+				}
+			}
+			ps.close();
+		} catch (FileNotFoundException e) {
+			System.out.println("Could not write scores for " + elite.individual.getId() + " in bin " + binIndex);
+			e.printStackTrace();
+			System.exit(1);
+		}
+		saved(binIndex);
+	}
+
+	/**
+	 * Called on the writer thread after the elite of a bin has been written
+	 * @param binIndex Bin that was written
+	 */
+	protected void saved(int binIndex) {
+		// Nothing else to do by default
+	}
+
+	/**
+	 * Wait until all elites added so far have been written to disk.
+	 */
+	public void flush() {
+		if(writer != null) {
+			try {
+				// The writer handles tasks in order, so all earlier writes are done once this one is
+				writer.submit(() -> {}).get();
+			} catch (InterruptedException | ExecutionException e) {
+				System.out.println("Interrupted while saving archive");
+				e.printStackTrace();
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * Write all remaining elites and stop the writer thread.
+	 */
+	public void close() {
+		flush();
+		if(writer != null) {
+			writer.shutdown();
+			writer = null;
+		}
+	}
+
+	/**
+	 * Load the elites saved by a previous run, for resuming. Bins without a
+	 * saved elite stay empty.
+	 */
+	public void load() {
+		for(int i = 0; i < numBins; i++) {
+			loadBin(i);
+		}
+	}
+
+	/**
+	 * Load the saved elite of one bin, if there is one
+	 * @param i Index of bin
+	 */
+	protected void loadBin(int i) {
+		String binDir = archiveDir + File.separator + mapping.binLabel(i) + File.separator;
+		if(new File(binDir + "elite.xml").exists()) {
+			@SuppressWarnings("unchecked")
+			Genotype<T> elite = (Genotype<T>) Easy.load(binDir + "elite.xml"); // Load genotype
+			// Load behavior scores
+			ArrayList<Integer> bins = new ArrayList<Integer>();
+			ArrayList<Double> scores = new ArrayList<Double>();
+			try {
+				Scanner scoresFile = new Scanner(new File(binDir + "scores.txt"));
+				while(scoresFile.hasNextLine()) {
+					String[] parts = scoresFile.nextLine().trim().split("\\s+");
+					if(parts.length == 2) { // Bin and score of a sparse BinnedScore
+						bins.add(Integer.parseInt(parts[0]));
+					}
+					if(!parts[0].isEmpty()) {
+						scores.add(Double.parseDouble(parts[parts.length - 1]));
+					}
+				}
+				scoresFile.close();
+			} catch (FileNotFoundException e) {
+				System.out.println("Could not read " + binDir + "scores.txt");
+				e.printStackTrace();
+				System.exit(1);
+			}
+			// Package in a score
+			Score<T> score;
+			if(bins.isEmpty()) {
+				score = new Score<T>(elite, new double[0], scores);
+			} else {
+				score = BinnedScore.sparse(elite, ArrayUtils.toPrimitive(bins.toArray(new Integer[0])), ArrayUtils.toPrimitive(scores.toArray(new Double[0])));
+			}
+			setElite(i, score); // Directly set the bin contents
+		}
+	}
+
+	/**
+	 * Put an elite in a bin without comparing or saving it
+	 * @param binIndex Index of bin
+	 * @param elite New elite
+	 */
+	protected void setElite(int binIndex, Score<T> elite) {
+		if(archive.getAndSet(binIndex, elite) == null) {
+			numOccupied.incrementAndGet();
+		}
 	}
 
 	/**
@@ -136,14 +380,20 @@ public class Archive<T> {
 	 */
 	public double getBinScore(int binIndex) {
 		Score<T> elite = getElite(binIndex);
-		return elite == null ? Double.NEGATIVE_INFINITY : elite.behaviorVector.get(binIndex);
+		return elite == null ? Double.NEGATIVE_INFINITY : binScore(elite, binIndex);
 	}
 	
 	/**
-	 * Select random bin index
-	 * @return index of a random bin
+	 * Select random occupied bin index. Sparse BinnedScores can leave
+	 * bins empty, and those have no elite to breed from.
+	 * @return index of a random occupied bin, or of a random bin if all are empty
 	 */
 	public int randomBinIndex() {
-		return RandomNumbers.randomGenerator.nextInt(archive.size());
+		int occupied = numOccupied.get();
+		if(occupied == numBins || occupied == 0) {
+			return RandomNumbers.randomGenerator.nextInt(numBins);
+		}
+		int[] occupiedBins = occupiedBins();
+		return occupiedBins[RandomNumbers.randomGenerator.nextInt(occupiedBins.length)];
 	}
 }
@@ -4,4 +4,24 @@ import java.util.List;
 
 public interface BinLabels<T> {
 	public List<String> binLabels();
+
+	/**
+	 * Number of bins. Mappings with very many bins can override this
+	 * to avoid creating the full list of labels.
+	 * @return Number of bins
+	 */
+	public default int numBins() {
+		return binLabels().size();
+	}
+
+	/**
+	 * Label of a single bin, used as the name of its directory in the archive.
+	 * Mappings with very many bins can override this to avoid creating the
+	 * full list of labels.
+	 * @param binIndex Index of bin
+	 * @return Label of that bin
+	 */
+	public default String binLabel(int binIndex) {
+		return binLabels().get(binIndex);
+	}
 }
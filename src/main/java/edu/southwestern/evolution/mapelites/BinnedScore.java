@@ -0,0 +1,122 @@
+package edu.southwestern.evolution.mapelites;
+
+import java.util.Arrays;
+
+import edu.southwestern.evolution.genotypes.Genotype;
+import edu.southwestern.scores.Score;
+
+/**
+ * Score of an individual in the bins of a MAP-Elites archive, kept in
+ * primitive arrays instead of the boxed behaviorVector that a plain Score
+ * uses (behaviorVector is null). Either every bin is scored (dense), or
+ * only the listed bins are (sparse), in which case the individual is
+ * not a candidate for any other bin. With many bins, a sparse score
+ * only costs memory and time for the bins the individual actually
+ * competes in.
+ *
+ * @author Jacob Schrum
+ * @param <T> phenotype
+ */
+public class BinnedScore<T> extends Score<T> {
+
+	// Bins with a score in ascending order, or null if all bins are scored
+	private final int[] bins;
+	// Score of each bin in bins, or of every bin if bins is null
+	private final double[] binScores;
+
+	private BinnedScore(Genotype<T> individual, int[] bins, double[] binScores, double[] otherStats) {
+		super(individual, new double[0], null, otherStats);
+		this.bins = bins;
+		this.binScores = binScores;
+	}
+
+	/**
+	 * Score for every bin of the archive
+	 * @param individual Genotype that was evaluated
+	 * @param binScores Score in each bin, indexed by bin
+	 * @return The score
+	 */
+	public static <T> BinnedScore<T> dense(Genotype<T> individual, double[] binScores) {
+		return new BinnedScore<T>(individual, null, binScores, new double[0]);
+	}
+
+	/**
+	 * Scores for only some bins of the archive
+	 * @param individual Genotype that was evaluated
+	 * @param bins Bin indices, each at most once, in any order
+	 * @param binScores binScores[i] is the score in bin bins[i]
+	 * @return The score
+	 */
+	public static <T> BinnedScore<T> sparse(Genotype<T> individual, int[] bins, double[] binScores) {
+		if(bins.length != binScores.length) {
+			throw new IllegalArgumentException("Bins and scores differ in length: " + bins.length + " != " + binScores.length);
+		}
+		int[] sortedBins = bins.clone();
+		double[] sortedScores = binScores.clone();
+		// Sort by bin so scores can be found with a binary search
+		Integer[] order = new Integer[bins.length];
+		for(int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(bins[a], bins[b]));
+		for(int i = 0; i < order.length; i++) {
+			sortedBins[i] = bins[order[i]];
+			sortedScores[i] = binScores[order[i]];
+		}
+		return new BinnedScore<T>(individual, sortedBins, sortedScores, new double[0]);
+	}
+
+	/**
+	 * @return Whether every bin has a score
+	 */
+	public boolean isDense() {
+		return bins == null;
+	}
+
+	/**
+	 * Score in a bin
+	 * @param binIndex Index of the bin
+	 * @return Score in the bin, or negative infinity if the bin is not scored
+	 */
+	public double binScore(int binIndex) {
+		if(bins == null) {
+			return binScores[binIndex];
+		}
+		int position = Arrays.binarySearch(bins, binIndex);
+		return position < 0 ? Double.NEGATIVE_INFINITY : binScores[position];
+	}
+
+	/**
+	 * Number of bins that have a score
+	 * @return Number of scored bins
+	 */
+	public int numScoredBins() {
+		return binScores.length;
+	}
+
+	/**
+	 * Bin index of the i-th scored bin, in ascending order
+	 * @param i Position among the scored bins
+	 * @return Bin index
+	 */
+	public int scoredBin(int i) {
+		return bins == null ? i : bins[i];
+	}
+
+	/**
+	 * Score of the i-th scored bin
+	 * @param i Position among the scored bins
+	 * @return Score in that bin
+	 */
+	public double scoreOfScoredBin(int i) {
+		return binScores[i];
+	}
+
+	/**
+	 * The bin scores are never changed, so they are shared with the copy
+	 */
+	@Override
+	public Score<T> copy() {
+		return new BinnedScore<T>(individual, bins, binScores, Arrays.copyOf(otherStats, otherStats.length));
+	}
+}
@@ -4,11 +4,6 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-
-import org.apache.commons.lang.ArrayUtils;
-import org.apache.commons.lang.StringUtils;
 
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.evolution.EvolutionaryHistory;
@@ -21,7 +16,6 @@ import edu.southwestern.tasks.LonerTask;
 import edu.southwestern.util.PopulationUtil;
 import edu.southwestern.util.file.FileUtilities;
 import edu.southwestern.util.random.RandomNumbers;
-import wox.serial.Easy;
 
 public class MAPElites<T> implements SteadyStateEA<T> {
 
@@ -34,12 +28,15 @@ public class MAPElites<T> implements SteadyStateEA<T> {
 	private int iterations;
 	private int iterationsWithoutElite;
 	private int individualsPerGeneration;
+	private int batchSize;
+	private int maxIterations;
 	
 	@SuppressWarnings("unchecked")
 	public MAPElites() {
 		this.task = (LonerTask<T>) MMNEAT.task;
 		this.io = Parameters.parameters.booleanParameter("io"); // write logs
-		this.archive = new Archive<>(Parameters.parameters.booleanParameter("netio"));
+		boolean saveElites = Parameters.parameters.booleanParameter("netio");
+		this.archive = Parameters.parameters.booleanParameter("mapElitesSparseArchive") ? new SparseArchive<>(saveElites) : new Archive<>(saveElites);
 		if(io) {
 			String infix = "MAPElites";
 			// Logging in RAW mode so that can append to log file on experiment resume
@@ -55,17 +52,20 @@ public class MAPElites<T> implements SteadyStateEA<T> {
 			// Write to file
 			try {
 				this.individualsPerGeneration = Parameters.parameters.integerParameter("steadyStateIndividualsPerGeneration");
-				PrintStream ps = new PrintStream(plot);
-				ps.println("set term pdf enhanced");
-				ps.println("unset key");
-				// Here, maxGens is actually the number of iterations, but dividing by individualsPerGeneration scales it to represent "generations"
-				ps.println("set yrange [0:"+ (Parameters.parameters.integerParameter("maxGens")/individualsPerGeneration) +"]");
-				ps.println("set xrange [0:"+ archive.getBinMapping().binLabels().size() + "]");
-				ps.println("set title \"" + experimentPrefix + " Archive Performance\"");
-				ps.println("set output \"" + fullName.substring(fullName.lastIndexOf('/')+1, fullName.lastIndexOf('.')) + ".pdf\"");
-				// The :1 is for skipping the "generation" number logged in the file
-				ps.println("plot \"" + fullName.substring(fullName.lastIndexOf('/')+1, fullName.lastIndexOf('.')) + ".txt\" matrix every ::1 with image");
-				ps.close();
+				// The log of a sparse archive only lists occupied bins, so it cannot be plotted as a matrix
+				if(!(archive instanceof SparseArchive)) {
+					PrintStream ps = new PrintStream(plot);
+					ps.println("set term pdf enhanced");
+					ps.println("unset key");
+					// Here, maxGens is actually the number of iterations, but dividing by individualsPerGeneration scales it to represent "generations"
+					ps.println("set yrange [0:"+ (Parameters.parameters.integerParameter("maxGens")/individualsPerGeneration) +"]");
+					ps.println("set xrange [0:"+ archive.numBins() + "]");
+					ps.println("set title \"" + experimentPrefix + " Archive Performance\"");
+					ps.println("set output \"" + fullName.substring(fullName.lastIndexOf('/')+1, fullName.lastIndexOf('.')) + ".pdf\"");
+					// The :1 is for skipping the "generation" number logged in the file
+					ps.println("plot \"" + fullName.substring(fullName.lastIndexOf('/')+1, fullName.lastIndexOf('.')) + ".txt\" matrix every ::1 with image");
+					ps.close();
+				}
 			} catch (FileNotFoundException e) {
 				System.out.println("Could not create plot file: " + plot.getName());
 				e.printStackTrace();
@@ -76,6 +76,8 @@ public class MAPElites<T> implements SteadyStateEA<T> {
 		this.crossoverRate = Parameters.parameters.doubleParameter("crossoverRate");
 		this.iterations = Parameters.parameters.integerParameter("lastSavedGeneration");
 		this.iterationsWithoutElite = 0; // Not accurate on resume
+		this.batchSize = Parameters.parameters.integerParameter("mapElitesBatchSize");
+		this.maxIterations = Parameters.parameters.integerParameter("maxGens");
 	}
 	
 	/**
@@ -94,40 +96,23 @@ public class MAPElites<T> implements SteadyStateEA<T> {
 	@Override
 	public void initialize(Genotype<T> example) {
 		if(iterations > 0) {
-			int numLabels = archive.getBinMapping().binLabels().size();
 			// Loading from saved archive
-			String archiveDir = archive.getArchiveDirectory();
-			List<String> binLabels = archive.getBinMapping().binLabels();
-			// Load each elite from xml file into archive
-			for(int i = 0; i < binLabels.size(); i++) {
-				String binDir = archiveDir + "/" + binLabels.get(i) + "/";
-				@SuppressWarnings("unchecked")
-				Genotype<T> elite = (Genotype<T>) Easy.load(binDir + "elite.xml"); // Load genotype
-				// Load behavior scores
-				ArrayList<Double> scores = new ArrayList<Double>(numLabels); 
-				try {
-					Scanner scoresFile = new Scanner(new File(binDir + "scores.txt"));
-					while(scoresFile.hasNextDouble()) {
-						scores.add(scoresFile.nextDouble());
-					}
-					scoresFile.close();
-				} catch (FileNotFoundException e) {
-					System.out.println("Could not read " + binDir + "scores.txt");
-					e.printStackTrace();
-					System.exit(1);
-				}
-				// Package in a score
-				Score<T> score = new Score<T>(elite, new double[0], scores);
-				archive.archive.set(i, score); // Directly set the bin contents
-			}
+			archive.load();
 		} else {
 			// Start from scratch
 			int startSize = Parameters.parameters.integerParameter("mu");
 			ArrayList<Genotype<T>> startingPopulation = PopulationUtil.initialPopulation(example, startSize);
-			for(Genotype<T> g : startingPopulation) {
-				Score<T> s = task.evaluate(g);
-				archive.add(s); // Fill the archive with random starting individuals
-			}	
+			if(batchSize > 1) {
+				// Evaluate the whole starting population at once
+				for(Score<T> s : task.evaluateBatch(startingPopulation)) {
+					archive.add(s); // Fill the archive with random starting individuals
+				}
+			} else {
+				for(Genotype<T> g : startingPopulation) {
+					Score<T> s = task.evaluate(g);
+					archive.add(s); // Fill the archive with random starting individuals
+				}
+			}
 		}
 	}
 
@@ -136,7 +121,7 @@ public class MAPElites<T> implements SteadyStateEA<T> {
 			// When all iterations were logged, the file got too large
 			//log.log(iterations + "\t" + iterationsWithoutElite + "\t" + StringUtils.join(ArrayUtils.toObject(archive.getEliteScores()), "\t"));
 			// Just log every "generation" instead
-			log.log((iterations/individualsPerGeneration) + "\t" + StringUtils.join(ArrayUtils.toObject(archive.getEliteScores()), "\t"));
+			log.log((iterations/individualsPerGeneration) + "\t" + archive.eliteScoresLog());
 		}
 	}
 	
@@ -150,6 +135,10 @@ public class MAPElites<T> implements SteadyStateEA<T> {
 	 */
 	@Override
 	public void newIndividual() {
+		if(batchSize > 1) {
+			newBatch();
+			return;
+		}
 		int index = archive.randomBinIndex();
 		Genotype<T> parent1 = archive.getElite(index).individual;
 		long parentId1 = parent1.getId(); // Parent Id comes from original genome
@@ -187,6 +176,48 @@ public class MAPElites<T> implements SteadyStateEA<T> {
 		fileUpdates(child1WasElite); // Log for each individual produced
 	}
 	
+	/**
+	 * Batched version of newIndividual. Children are created from random elites
+	 * until there are mapElitesBatchSize of them (one more if the last pairing
+	 * used crossover), then all are evaluated at once (in parallel if
+	 * parallelEvaluations is true), and then they are added to the archive in
+	 * the order they were created. Each child still counts as one iteration.
+	 * Parents are only chosen from elites that existed before the batch.
+	 */
+	private void newBatch() {
+		// Do not go far past the last iteration
+		int size = Math.max(1, Math.min(batchSize, maxIterations - iterations));
+		ArrayList<Genotype<T>> children = new ArrayList<Genotype<T>>(size + 1);
+		while(children.size() < size) {
+			int index = archive.randomBinIndex();
+			Genotype<T> parent1 = archive.getElite(index).individual;
+			long parentId1 = parent1.getId();
+			Genotype<T> child1 = parent1.copy();
+			// Potentially mate with second individual
+			if (mating && RandomNumbers.randomGenerator.nextDouble() < crossoverRate) {
+				int otherIndex = archive.randomBinIndex(); // From a different bin
+				Genotype<T> parent2 = archive.getElite(otherIndex).individual;
+				long parentId2 = parent2.getId();
+				// Replace child2 with a crossover result, and modify child1 in the process (two new children)
+				Genotype<T> child2 = child1.crossover(parent2.copy());
+				child2.mutate();
+				child1.mutate();
+				EvolutionaryHistory.logLineageData(parentId1,parentId2,child2);
+				EvolutionaryHistory.logLineageData(parentId1,parentId2,child1);
+				children.add(child2);
+			} else {
+				child1.mutate();
+				EvolutionaryHistory.logLineageData(parentId1,child1);
+			}
+			children.add(child1);
+		}
+		ArrayList<Score<T>> scores = task.evaluateBatch(children);
+		for(Score<T> s : scores) {
+			boolean wasElite = archive.add(s);
+			fileUpdates(wasElite); // Log for each individual produced
+		}
+	}
+
 	public void fileUpdates(boolean newEliteProduced) {
 		// Log to file
 		log();
@@ -214,6 +245,7 @@ public class MAPElites<T> implements SteadyStateEA<T> {
 
 	@Override
 	public void finalCleanup() {
+		archive.close(); // Wait for all elites to be saved
 		task.finalCleanup();
 	}
 
@@ -222,9 +254,10 @@ public class MAPElites<T> implements SteadyStateEA<T> {
 	 */
 	@Override
 	public ArrayList<Genotype<T>> getPopulation() {
-		ArrayList<Genotype<T>> result = new ArrayList<Genotype<T>>(archive.archive.size());
-		for(Score<T> s : archive.archive) {
-			result.add(s.individual);
+		int[] occupied = archive.occupiedBins();
+		ArrayList<Genotype<T>> result = new ArrayList<Genotype<T>>(occupied.length);
+		for(int i : occupied) {
+			result.add(archive.getElite(i).individual);
 		}
 		return result;
 	}
@@ -0,0 +1,178 @@
+package edu.southwestern.evolution.mapelites;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.southwestern.scores.Score;
+import edu.southwestern.util.random.RandomNumbers;
+
+/**
+ * MAP-Elites archive for behavior spaces with far more bins than will ever
+ * be filled, such as fine-grained grids. Only occupied bins take up memory:
+ * elites are kept in a hash map from bin index to elite, and bin directories
+ * are only created once a bin has an elite to save. The log lists only the
+ * occupied bins, and the index of every bin that has been saved is listed
+ * in occupiedBins.txt, so that resuming only has to look at those bins.
+ *
+ * Bins never become empty again, so occupied bins are also kept in an array
+ * that only grows, which allows a random occupied bin to be picked in
+ * constant time. Parents are therefore never picked from empty bins.
+ *
+ * Works best with sparse BinnedScores, whose cost only depends on the
+ * number of bins an individual is scored for.
+ *
+ * @author Jacob Schrum
+ * @param <T> phenotype
+ */
+public class SparseArchive<T> extends Archive<T> {
+
+	private final ConcurrentHashMap<Integer, Score<T>> elites = new ConcurrentHashMap<Integer, Score<T>>();
+	// Indices of occupied bins, in the order they were first filled
+	private int[] occupied = new int[16];
+	private int numOccupied = 0;
+	// Bins listed in occupiedBins.txt. Only used by the writer thread
+	private final HashSet<Integer> savedBins = new HashSet<Integer>();
+
+	public SparseArchive(boolean saveElites) {
+		super(saveElites, false);
+	}
+
+	@Override
+	protected boolean replaceIfBetter(int binIndex, Score<T> candidate, double candidateScore) {
+		while(true) {
+			Score<T> elite = elites.get(binIndex);
+			boolean replaced;
+			if(elite == null) {
+				replaced = elites.putIfAbsent(binIndex, candidate) == null;
+				if(replaced) {
+					addOccupied(binIndex);
+				}
+			} else if(candidateScore > binScore(elite, binIndex)) {
+				// Scores do not override equals, so this only succeeds if elite is still in the bin
+				replaced = elites.replace(binIndex, elite, candidate);
+			} else {
+				return false;
+			}
+			if(replaced) {
+				save(binIndex);
+				return true;
+			}
+			// Otherwise another thread changed the bin first, so compare again
+		}
+	}
+
+	/**
+	 * Record that a bin has its first elite
+	 * @param binIndex Index of bin
+	 */
+	private synchronized void addOccupied(int binIndex) {
+		if(numOccupied == occupied.length) {
+			occupied = Arrays.copyOf(occupied, numOccupied * 2);
+		}
+		occupied[numOccupied++] = binIndex;
+	}
+
+	/**
+	 * File listing the index of each bin with a saved elite, one per line
+	 * @return The file
+	 */
+	private File occupiedBinsFile() {
+		return new File(getArchiveDirectory() + File.separator + "occupiedBins.txt");
+	}
+
+	@Override
+	protected void saved(int binIndex) {
+		if(savedBins.add(binIndex)) {
+			try {
+				new File(getArchiveDirectory()).mkdirs();
+				PrintStream ps = new PrintStream(new FileOutputStream(occupiedBinsFile(), true)); // append
+				ps.println(binIndex);
+				ps.close();
+			} catch (FileNotFoundException e) {
+				System.out.println("Could not add bin " + binIndex + " to " + occupiedBinsFile());
+				e.printStackTrace();
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * Only loads the bins listed in occupiedBins.txt
+	 */
+	@Override
+	public void load() {
+		try {
+			Scanner bins = new Scanner(occupiedBinsFile());
+			while(bins.hasNextInt()) {
+				int binIndex = bins.nextInt();
+				savedBins.add(binIndex);
+				loadBin(binIndex);
+			}
+			bins.close();
+		} catch (FileNotFoundException e) {
+			System.out.println("Could not read " + occupiedBinsFile());
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	@Override
+	protected void setElite(int binIndex, Score<T> elite) {
+		if(elites.put(binIndex, elite) == null) {
+			addOccupied(binIndex);
+		}
+	}
+
+	@Override
+	public Score<T> getElite(int binIndex) {
+		return elites.get(binIndex);
+	}
+
+	/**
+	 * Number of bins that have an elite
+	 * @return Number of occupied bins
+	 */
+	public synchronized int numOccupiedBins() {
+		return numOccupied;
+	}
+
+	@Override
+	public synchronized int[] occupiedBins() {
+		int[] result = Arrays.copyOf(occupied, numOccupied);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Random occupied bin, or a random bin if all are empty
+	 * @return index of a random bin
+	 */
+	@Override
+	public synchronized int randomBinIndex() {
+		if(numOccupied == 0) {
+			return super.randomBinIndex();
+		}
+		return occupied[RandomNumbers.randomGenerator.nextInt(numOccupied)];
+	}
+
+	/**
+	 * Only occupied bins are logged, as tab separated bin:score pairs
+	 */
+	@Override
+	public String eliteScoresLog() {
+		StringBuilder result = new StringBuilder();
+		for(int binIndex : occupiedBins()) {
+			if(result.length() > 0) {
+				result.append("\t");
+			}
+			result.append(binIndex).append(":").append((float) getBinScore(binIndex));
+		}
+		return result.toString();
+	}
+}
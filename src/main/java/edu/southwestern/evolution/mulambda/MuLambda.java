@@ -11,6 +11,7 @@ import edu.southwestern.evolution.genotypes.OffsetHybrIDGenotype;
 import edu.southwestern.evolution.genotypes.TWEANNGenotype;
 import edu.southwestern.evolution.genotypes.TWEANNGenotype.LinkGene;
 import edu.southwestern.log.FitnessLog;
+import edu.southwestern.log.HypervolumeLog;
 import edu.southwestern.log.PlotLog;
 import edu.southwestern.networks.TWEANN;
 import edu.southwestern.networks.hyperneat.HyperNEATUtil;
@@ -51,6 +52,7 @@ public abstract class MuLambda<T> implements SinglePopulationGenerationalEA<T> {
 	protected FitnessLog<T> parentLog;
 	protected FitnessLog<T> childLog;
 	protected PlotLog modeLog;
+	protected HypervolumeLog hypervolumeLog;
 	protected boolean writeOutput;
 	private final int MAX_MODE_OF_LOG_INTEREST = 5;
 	public boolean evaluatingParents = false;
@@ -84,6 +86,9 @@ public abstract class MuLambda<T> implements SinglePopulationGenerationalEA<T> {
 			if (CommonConstants.logChildScores) {
 				childLog = new FitnessLog<T>("child");
 			}
+			if (Parameters.parameters.booleanParameter("logHypervolume")) {
+				hypervolumeLog = new HypervolumeLog("parents");
+			}
 			if (task instanceof MsPacManTask && (MMNEAT.modesToTrack > 1 || TWEANN.preferenceNeuron()
 					|| Parameters.parameters.booleanParameter("ensembleModeMutation"))) {
 				ArrayList<String> labels = new ArrayList<String>();
@@ -146,6 +151,10 @@ public abstract class MuLambda<T> implements SinglePopulationGenerationalEA<T> {
 	public void logParentInfo(ArrayList<Score<T>> parentScores) {
 		if (writeOutput) {
 			parentLog.log(parentScores, generation);
+			EvolutionaryHistory.logLineageScores(parentScores, generation);
+			if (hypervolumeLog != null) {
+				hypervolumeLog.log(parentScores, generation);
+			}
 			Genotype example = parentScores.get(0).individual;
 			if (example instanceof TWEANNGenotype) {
 				ArrayList<TWEANNGenotype> tweanns = new ArrayList<TWEANNGenotype>(parentScores.size());
@@ -455,6 +464,9 @@ public abstract class MuLambda<T> implements SinglePopulationGenerationalEA<T> {
 			if (modeLog != null) {
 				modeLog.close();
 			}
+			if (hypervolumeLog != null) {
+				hypervolumeLog.close();
+			}
 		}
 	}
 
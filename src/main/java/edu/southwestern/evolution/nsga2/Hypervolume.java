@@ -0,0 +1,303 @@
+package edu.southwestern.evolution.nsga2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Hypervolume of a set of points in objective space, where every objective
+ * is maximized and the reference point is the origin. This is the volume of
+ * the union of the boxes between the origin and each point, which is the
+ * same quantity jmetal.qualityIndicator.Hypervolume.calculateHypervolume
+ * computes, but much faster:
+ *
+ * With two objectives, the points are sorted once and the area is swept in
+ * O(N log N).
+ *
+ * With more objectives, the WFG algorithm (While, Bradstreet and Barone 2012)
+ * is used. The points are sorted by the last objective, so that the
+ * exclusive contribution of each point only depends on the points after it,
+ * and those points all reach at least as far in the last objective. The
+ * contribution is therefore a slab whose thickness is the point's value in
+ * the last objective, and whose cross-section is computed recursively with
+ * one objective fewer, from the non-dominated points of the later points
+ * limited to the point's box. For large fronts, the contributions at the top
+ * level are computed in parallel.
+ *
+ * Coordinates below the reference point are treated as 0, since the part of
+ * a box below the reference point has no volume.
+ *
+ * @author Jacob Schrum
+ */
+public class Hypervolume {
+
+	// Smaller fronts are not worth the overhead of parallel streams
+	public static final int PARALLEL_THRESHOLD = 64;
+
+	/**
+	 * Hypervolume of points, which are not modified
+	 *
+	 * @param points
+	 *            points[i] is the objective vector of point i. All points
+	 *            have the same number of objectives, and no NaN values.
+	 * @return volume dominated by the points
+	 */
+	public static double of(double[][] points) {
+		if (points.length == 0) {
+			return 0;
+		}
+		int d = points[0].length;
+		double[][] front = new double[points.length][];
+		int n = 0;
+		for (double[] p : points) {
+			double[] q = new double[d];
+			boolean empty = false;
+			for (int j = 0; j < d; j++) {
+				q[j] = Math.max(0, p[j]);
+				empty = empty || q[j] == 0;
+			}
+			if (!empty) { // Points on an axis have no box
+				front[n++] = q;
+			}
+		}
+		n = filterNondominated(front, n, d);
+		return volume(front, n, d, n >= PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Hypervolume of the first n points of front in the first d objectives.
+	 * The points must be mutually non-dominated in those objectives, and are
+	 * reordered.
+	 */
+	private static double volume(double[][] front, int n, int d, boolean parallel) {
+		if (n == 0) {
+			return 0;
+		}
+		if (d == 1) {
+			double max = 0;
+			for (int i = 0; i < n; i++) {
+				max = Math.max(max, front[i][0]);
+			}
+			return max;
+		}
+		if (d == 2) {
+			return area(front, n);
+		}
+		if (n == 1) {
+			return inclusive(front[0], d);
+		}
+		final int last = d - 1;
+		Arrays.sort(front, 0, n, Comparator.comparingDouble((double[] p) -> p[last]));
+		if (parallel) {
+			// Sum sequentially so the result does not depend on scheduling
+			double[] contributions = IntStream.range(0, n).parallel().mapToDouble(k -> exclusive(front, k, n, d)).toArray();
+			double sum = 0;
+			for (double c : contributions) {
+				sum += c;
+			}
+			return sum;
+		}
+		double sum = 0;
+		for (int k = 0; k < n; k++) {
+			sum += exclusive(front, k, n, d);
+		}
+		return sum;
+	}
+
+	/**
+	 * Volume dominated by front[k] but not by any later point, when the
+	 * points are sorted by objective d - 1 in ascending order
+	 */
+	private static double exclusive(double[][] front, int k, int n, int d) {
+		double[] p = front[k];
+		int lower = d - 1;
+		double[][] limited = new double[n - k - 1][];
+		for (int i = k + 1; i < n; i++) {
+			double[] q = front[i];
+			double[] l = new double[lower];
+			for (int j = 0; j < lower; j++) {
+				l[j] = Math.min(p[j], q[j]);
+			}
+			limited[i - k - 1] = l;
+		}
+		int m = filterNondominated(limited, limited.length, lower);
+		return p[lower] * (inclusive(p, lower) - volume(limited, m, lower, false));
+	}
+
+	/**
+	 * Volume of the box between the origin and p in the first d objectives
+	 */
+	private static double inclusive(double[] p, int d) {
+		double product = 1;
+		for (int j = 0; j < d; j++) {
+			product *= p[j];
+		}
+		return product;
+	}
+
+	/**
+	 * Area dominated by the first n points of front in two objectives. The
+	 * points are reordered.
+	 */
+	private static double area(double[][] front, int n) {
+		Arrays.sort(front, 0, n, (p, q) -> Double.compare(q[0], p[0]));
+		double area = 0;
+		double height = 0;
+		for (int i = 0; i < n; i++) {
+			double[] p = front[i];
+			if (p[1] > height) {
+				area += p[0] * (p[1] - height);
+				height = p[1];
+			}
+		}
+		return area;
+	}
+
+	/**
+	 * Moves the points among the first n that are not weakly dominated by
+	 * another point (in the first d objectives) to the front of the array.
+	 * Of several identical points, only one is kept.
+	 *
+	 * @return number of points kept
+	 */
+	private static int filterNondominated(double[][] front, int n, int d) {
+		int kept = 0;
+		for (int i = 0; i < n; i++) {
+			double[] p = front[i];
+			boolean dominated = false;
+			for (int j = 0; j < kept && !dominated; j++) {
+				dominated = weaklyDominates(front[j], p, d);
+			}
+			if (!dominated) {
+				// Remove kept points that the new point dominates
+				int k = 0;
+				for (int j = 0; j < kept; j++) {
+					if (!weaklyDominates(p, front[j], d)) {
+						front[k++] = front[j];
+					}
+				}
+				kept = k;
+				// Slot i holds p or a point that was already copied further forward
+				front[i] = front[kept];
+				front[kept++] = p;
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * Number of points that are not strictly dominated by another point.
+	 * Identical points are all counted, as in
+	 * jmetal.qualityIndicator.Hypervolume.filterNondominatedSet.
+	 *
+	 * @param points
+	 *            Objective vectors, which are not modified
+	 * @return size of the Pareto front, counting duplicates
+	 */
+	public static int nondominatedCount(double[][] points) {
+		int count = 0;
+		for (int i = 0; i < points.length; i++) {
+			boolean dominated = false;
+			for (int j = 0; j < points.length && !dominated; j++) {
+				dominated = j != i && dominates(points[j], points[i]);
+			}
+			if (!dominated) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static boolean dominates(double[] p, double[] q) {
+		boolean better = false;
+		for (int j = 0; j < p.length; j++) {
+			if (p[j] < q[j]) {
+				return false;
+			}
+			better = better || p[j] > q[j];
+		}
+		return better;
+	}
+
+	private static boolean weaklyDominates(double[] p, double[] q, int d) {
+		for (int j = 0; j < d; j++) {
+			if (p[j] < q[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Non-dominated archive whose hypervolume is updated as points are added,
+	 * instead of being recomputed from scratch. Adding a point costs one
+	 * hypervolume computation with one objective fewer, over the archive
+	 * points limited to the new point's box.
+	 */
+	public static class Archive {
+
+		private final int objectives;
+		private final ArrayList<double[]> front = new ArrayList<double[]>();
+		private double volume = 0;
+
+		/**
+		 * @param objectives
+		 *            Number of objectives of every point
+		 */
+		public Archive(int objectives) {
+			this.objectives = objectives;
+		}
+
+		/**
+		 * Add a point to the archive, unless it is weakly dominated by an
+		 * archived point. Archived points it dominates are removed.
+		 *
+		 * @param point
+		 *            Objective vector, which is copied
+		 * @return Whether the hypervolume increased
+		 */
+		public synchronized boolean add(double[] point) {
+			double[] p = new double[objectives];
+			for (int j = 0; j < objectives; j++) {
+				p[j] = Math.max(0, point[j]);
+				if (p[j] == 0) {
+					return false;
+				}
+			}
+			for (double[] q : front) {
+				if (weaklyDominates(q, p, objectives)) {
+					return false;
+				}
+			}
+			double[][] limited = new double[front.size()][];
+			for (int i = 0; i < limited.length; i++) {
+				double[] q = front.get(i);
+				double[] l = new double[objectives];
+				for (int j = 0; j < objectives; j++) {
+					l[j] = Math.min(p[j], q[j]);
+				}
+				limited[i] = l;
+			}
+			int m = filterNondominated(limited, limited.length, objectives);
+			volume += inclusive(p, objectives) - Hypervolume.volume(limited, m, objectives, m >= PARALLEL_THRESHOLD);
+			front.removeIf(q -> weaklyDominates(p, q, objectives));
+			front.add(p);
+			return true;
+		}
+
+		/**
+		 * @return Hypervolume of all points added so far
+		 */
+		public synchronized double volume() {
+			return volume;
+		}
+
+		/**
+		 * @return Number of non-dominated points in the archive
+		 */
+		public synchronized int size() {
+			return front.size();
+		}
+	}
+}
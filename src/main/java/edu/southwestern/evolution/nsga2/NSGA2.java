@@ -263,37 +263,84 @@ public class NSGA2<T> extends MuPlusLambda<T> {
 	 *            population that was just evaluated.
 	 */
 	private static <T> void assignCrowdingDistance(NSGA2Score<T>[] scores) {
-		// reset distances
-		for (int i = 0; i < scores.length; i++) {
-			scores[i].setCrowdingDistance(0);
-		}
+		int n = scores.length;
+		double[] distances = new double[n];
 		int numObjectives = scores[0].numObjectives();
+		// Current order of the population. Indices are sorted instead of the
+		// scores themselves, but the scores end up in the same order as if
+		// they had been sorted by each objective in turn.
+		int[] order = NonDominatedSort.identity(n);
+		double[] objective = new double[n];
 
 		for (int j = 0; j < numObjectives; j++) {
-			if (scores[0].useObjective(j)) {
-				Arrays.sort(scores, new ObjectiveComparator<T>(j));
+			if (scores[order[0]].useObjective(j)) {
+				boolean nan = false;
+				for (int i = 0; i < n; i++) {
+					objective[i] = scores[i].objectiveScore(j);
+					nan = nan || Double.isNaN(objective[i]);
+				}
+				sortByObjective(order, objective, scores, j, nan);
 
-				scores[0].setCrowdingDistance(Float.POSITIVE_INFINITY);
-				scores[scores.length - 1].setCrowdingDistance(Float.POSITIVE_INFINITY);
+				distances[order[0]] = Float.POSITIVE_INFINITY;
+				distances[order[n - 1]] = Float.POSITIVE_INFINITY;
 
-				double min = scores[0].objectiveScore(j);
-				double max = scores[scores.length - 1].objectiveScore(j);
+				double min = objective[order[0]];
+				double max = objective[order[n - 1]];
 
 				// Just leave all crowding distances at 0 if all objective
 				// scores are the same
 				if (max - min > 0) {
-					for (int k = 1; k < scores.length - 1; k++) {
-						scores[k].crowdingDistance += Math
-								.abs(scores[k + 1].objectiveScore(j) - scores[k - 1].objectiveScore(j)) / (max - min);
+					for (int k = 1; k < n - 1; k++) {
+						distances[order[k]] += Math.abs(objective[order[k + 1]] - objective[order[k - 1]]) / (max - min);
 					}
 				}
 			}
 		}
+
+		NSGA2Score<T>[] original = scores.clone();
+		for (int k = 0; k < n; k++) {
+			scores[k] = original[order[k]];
+			scores[k].setCrowdingDistance(distances[order[k]]);
+		}
+	}
+
+	/**
+	 * Stable sort of population indices in ascending order of one objective.
+	 *
+	 * @param order
+	 *            Indices into scores, sorted in place
+	 * @param objective
+	 *            objective[i] is the score of scores[i] in the objective
+	 * @param scores
+	 *            Whole population
+	 * @param j
+	 *            Index of the objective
+	 * @param nan
+	 *            Whether any objective score is NaN. NaN is equal to
+	 *            everything according to ObjectiveComparator, which is not a
+	 *            consistent ordering, so the result then depends on the sort
+	 *            algorithm, and ObjectiveComparator is used with the same sort
+	 *            as before.
+	 */
+	private static <T> void sortByObjective(int[] order, final double[] objective, final NSGA2Score<T>[] scores, int j, boolean nan) {
+		if (nan) {
+			final ObjectiveComparator<T> comparator = new ObjectiveComparator<T>(j);
+			Integer[] boxed = new Integer[order.length];
+			for (int k = 0; k < order.length; k++) {
+				boxed[k] = order[k];
+			}
+			Arrays.sort(boxed, (a, b) -> comparator.compare(scores[a], scores[b]));
+			for (int k = 0; k < order.length; k++) {
+				order[k] = boxed[k];
+			}
+		} else {
+			NonDominatedSort.sort(order, (a, b) -> objective[a] < objective[b] ? -1 : (objective[a] > objective[b] ? 1 : 0));
+		}
 	}
 
 	/**
 	 * Sort the evaluated population into Pareto fronts according to their
-	 * objective scores.
+	 * objective scores. The ranks are computed by NonDominatedSort.
 	 * 
 	 * @param scores
 	 *            Each instance is a set of multiple scores for a member of the
@@ -301,54 +348,30 @@ public class NSGA2<T> extends MuPlusLambda<T> {
 	 * @return List of lists in which each sublist is one Pareto front. Each
 	 *         member of the original scores array will be in exactly one of the
 	 *         sublists that is returned. Earlier sublists dominate subsequent
-	 *         sublists.
+	 *         sublists. Within each front, scores are in the same order as in
+	 *         the scores array.
 	 */
 	private static <T> ArrayList<ArrayList<NSGA2Score<T>>> fastNonDominatedSort(NSGA2Score<T>[] scores) {
-
+		int[] ranks = NonDominatedSort.ranks(scores);
+		int numFronts = 0;
 		for (int i = 0; i < scores.length; i++) {
 			assert scores[i] != null : "Score is null! " + i;
-			scores[i].reset();
+			numFronts = Math.max(numFronts, ranks[i] + 1);
 		}
-
-		for (int i = 0; i < scores.length; i++) {
-			NSGA2Score<T> p = scores[i];
-			for (int j = 0; j < scores.length; j++) {
-				if (i != j) {
-					NSGA2Score<T> q = scores[j];
-					if (p.isBetter(q)) {// here is where actual sorting occurs
-						p.addDominatedIndividual(q);
-						q.increaseNumDominators();
-					}
-				}
-			}
+		int[] frontSizes = new int[numFronts];
+		for (int rank : ranks) {
+			frontSizes[rank]++;
 		}
-
-		int numAssigned = 0;
-		int currentFront = 0;
-		ArrayList<ArrayList<NSGA2Score<T>>> frontSet = new ArrayList<ArrayList<NSGA2Score<T>>>(scores.length);
-		// adds an array list of front members to an array list of fronts
-		while (numAssigned < scores.length) {
-			// Although this sizing scheme will waste space, it will assure that
-			// no resize is ever needed
-			frontSet.add(new ArrayList<NSGA2Score<T>>(scores.length - numAssigned));
-
-			for (int i = 0; i < scores.length; i++) {
-				if (!scores[i].isAssigned && scores[i].numDominators == 0) {
-					frontSet.get(currentFront).add(scores[i]);
-					scores[i].assign(currentFront);
-					numAssigned++;
-				}
-			}
-
-			for (int i = 0; i < scores.length; i++) {
-				if (scores[i].isAssigned && !scores[i].processed) {
-					scores[i].process();
-				}
-			}
-
-			currentFront++;
+		ArrayList<ArrayList<NSGA2Score<T>>> frontSet = new ArrayList<ArrayList<NSGA2Score<T>>>(numFronts);
+		for (int f = 0; f < numFronts; f++) {
+			frontSet.add(new ArrayList<NSGA2Score<T>>(frontSizes[f]));
+		}
+		for (int i = 0; i < scores.length; i++) {
+			scores[i].reset();
+			scores[i].assign(ranks[i]);
+			scores[i].processed = true;
+			frontSet.get(ranks[i]).add(scores[i]);
 		}
-
 		return frontSet;
 	}
 
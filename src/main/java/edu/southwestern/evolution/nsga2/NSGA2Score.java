@@ -79,4 +79,16 @@ public class NSGA2Score<T> extends MultiObjectiveScore<T> {
 	public boolean useObjective(int objective) {
 		return true;
 	}
+
+	/**
+	 * Whether isBetter is plain Pareto dominance over the objectives for
+	 * which useObjective is true. If so, NonDominatedSort can compare the
+	 * objective scores directly instead of calling isBetter. Subclasses
+	 * that change isBetter in any other way must return false.
+	 *
+	 * @return whether isBetter is Pareto dominance
+	 */
+	public boolean usesParetoDominance() {
+		return getClass() == NSGA2Score.class;
+	}
 }
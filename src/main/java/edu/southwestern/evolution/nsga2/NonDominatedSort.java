@@ -0,0 +1,413 @@
+package edu.southwestern.evolution.nsga2;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Assigns Pareto ranks (front indices) for NSGA2. The original all-pairs
+ * sort compared every score with every other score, which takes O(MN^2)
+ * time for N scores with M objectives. This class gives exactly the same
+ * ranks, but faster:
+ *
+ * With two objectives, the points are sorted once and a sweep line places
+ * each point in a front with a binary search over the fronts: O(N log N).
+ *
+ * With more objectives, Efficient Non-dominated Sort (ENS, Zhang et al. 2015)
+ * is used: after a lexicographic sort, no point can be dominated by a later
+ * point, so each point only needs to be compared with the fronts built so
+ * far, and a binary search finds the first front that does not dominate it.
+ * For large populations, the points are handled in blocks, and the
+ * domination tests of every point in a block against the existing fronts are
+ * spread across cores.
+ *
+ * Both rely on the scores being compared with plain Pareto dominance (see
+ * NSGA2Score.usesParetoDominance()). Otherwise, the scores are compared with
+ * isBetter exactly as before, with the comparisons spread across cores for
+ * large populations.
+ *
+ * Objectives are maximized, and objective values are compared the same way
+ * MultiObjectiveScore.isBetter compares them.
+ *
+ * @author Jacob Schrum
+ */
+public class NonDominatedSort {
+
+	// Smaller populations are not worth the overhead of parallel streams
+	public static final int PARALLEL_THRESHOLD = 1000;
+	// Number of points whose domination tests are run in parallel at once
+	private static final int BLOCK_SIZE = 256;
+
+	/**
+	 * Pareto rank of every score: 0 for the non-dominated front, 1 for the
+	 * front that is non-dominated once front 0 is removed, etc.
+	 *
+	 * @param <T> phenotype
+	 * @param scores
+	 *            Multiobjective scores of a population
+	 * @return rank of each score, in the same order as scores
+	 */
+	public static <T> int[] ranks(NSGA2Score<T>[] scores) {
+		double[][] points = paretoPoints(scores);
+		if (points == null) {
+			return pairwiseRanks(scores, scores.length >= PARALLEL_THRESHOLD);
+		}
+		return ranks(points);
+	}
+
+	/**
+	 * Pareto ranks of points in objective space, where every objective is
+	 * maximized. Points must not contain NaN.
+	 *
+	 * @param points
+	 *            points[i] is the objective vector of point i
+	 * @return rank of each point
+	 */
+	public static int[] ranks(double[][] points) {
+		if (points.length == 0) {
+			return new int[0];
+		}
+		if (points[0].length == 2) {
+			return sweepLineRanks(points);
+		}
+		return efficientRanks(points, points.length >= PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Extract the objectives that determine domination, if domination can be
+	 * determined from them directly.
+	 *
+	 * @return points[i] holds the used objectives of scores[i], or null if
+	 *         isBetter has to be used instead
+	 */
+	private static <T> double[][] paretoPoints(NSGA2Score<T>[] scores) {
+		if (scores.length == 0) {
+			return new double[0][];
+		}
+		int numObjectives = scores[0].numObjectives();
+		boolean[] used = new boolean[numObjectives];
+		int numUsed = 0;
+		for (int j = 0; j < numObjectives; j++) {
+			used[j] = scores[0].useObjective(j);
+			if (used[j]) {
+				numUsed++;
+			}
+		}
+		double[][] points = new double[scores.length][numUsed];
+		for (int i = 0; i < scores.length; i++) {
+			NSGA2Score<T> s = scores[i];
+			if (!s.usesParetoDominance() || s.numObjectives() != numObjectives) {
+				return null;
+			}
+			int index = 0;
+			for (int j = 0; j < numObjectives; j++) {
+				// isBetter uses the objectives of the score doing the comparing
+				if (s.useObjective(j) != used[j]) {
+					return null;
+				}
+				if (used[j]) {
+					double value = s.objectiveScore(j);
+					if (Double.isNaN(value)) {
+						// NaN is neither better nor worse than anything, so
+						// domination stops being transitive
+						return null;
+					}
+					points[i][index++] = value;
+				}
+			}
+		}
+		return points;
+	}
+
+	/**
+	 * Same test as MultiObjectiveScore.isBetter for points without NaN:
+	 * values that are not greater or less than each other are equal.
+	 *
+	 * @return whether p Pareto dominates q
+	 */
+	static boolean dominates(double[] p, double[] q) {
+		boolean better = false;
+		for (int k = 0; k < p.length; k++) {
+			if (p[k] < q[k]) {
+				return false;
+			}
+			if (p[k] > q[k]) {
+				better = true;
+			}
+		}
+		return better;
+	}
+
+	/**
+	 * Indices of the points sorted lexicographically from best to worst. A
+	 * point can only be dominated by points that come before it.
+	 */
+	private static int[] lexicographicOrder(final double[][] points) {
+		int[] order = identity(points.length);
+		sort(order, (a, b) -> {
+			double[] p = points[a];
+			double[] q = points[b];
+			for (int k = 0; k < p.length; k++) {
+				if (p[k] > q[k]) {
+					return -1;
+				}
+				if (p[k] < q[k]) {
+					return 1;
+				}
+			}
+			return 0;
+		});
+		return order;
+	}
+
+	/**
+	 * Two objectives. Within a front, points sorted by the first objective
+	 * (best first) have non-decreasing second objectives, so the last point
+	 * added to a front is enough to tell whether the front dominates a new
+	 * point.
+	 */
+	private static int[] sweepLineRanks(double[][] points) {
+		int[] order = lexicographicOrder(points);
+		int[] ranks = new int[points.length];
+		// Last point added to each front
+		int[] last = new int[points.length];
+		int numFronts = 0;
+		for (int i : order) {
+			double[] q = points[i];
+			// Binary search for the first front that does not dominate q
+			int low = 0;
+			int high = numFronts;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				double[] p = points[last[mid]];
+				// p is at least as good as q in the first objective.
+				// If p ties q on both objectives, so does every earlier member
+				// of the front that could dominate q, so none of them do.
+				if (p[1] > q[1] || (p[1] == q[1] && p[0] > q[0])) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			ranks[i] = low;
+			last[low] = i;
+			if (low == numFronts) {
+				numFronts++;
+			}
+		}
+		return ranks;
+	}
+
+	/**
+	 * Efficient Non-dominated Sort with binary search over the fronts.
+	 * Points are placed in blocks: the rank of each point in a block
+	 * according to the fronts built before the block is found in parallel,
+	 * and then raised if another point from the same block dominates it.
+	 */
+	private static int[] efficientRanks(final double[][] points, boolean parallel) {
+		final int[] order = lexicographicOrder(points);
+		final int[] ranks = new int[points.length];
+		final Front[] fronts = new Front[points.length];
+		int numFronts = 0;
+		int blockSize = parallel ? BLOCK_SIZE : 1;
+		for (int start = 0; start < order.length; start += blockSize) {
+			final int end = Math.min(start + blockSize, order.length);
+			final int existingFronts = numFronts;
+			if (parallel) {
+				IntStream.range(start, end).parallel()
+						.forEach(k -> ranks[order[k]] = firstNonDominatingFront(fronts, existingFronts, points, order[k]));
+			} else {
+				for (int k = start; k < end; k++) {
+					ranks[order[k]] = firstNonDominatingFront(fronts, existingFronts, points, order[k]);
+				}
+			}
+			for (int k = start; k < end; k++) {
+				int i = order[k];
+				for (int e = start; e < k; e++) {
+					int p = order[e];
+					if (ranks[p] >= ranks[i] && dominates(points[p], points[i])) {
+						ranks[i] = ranks[p] + 1;
+					}
+				}
+				if (ranks[i] == numFronts) {
+					fronts[numFronts++] = new Front();
+				}
+				fronts[ranks[i]].add(i);
+			}
+		}
+		return ranks;
+	}
+
+	/**
+	 * If a point is dominated by a front, then it is also dominated by every
+	 * earlier front, so the first front that does not dominate the point can
+	 * be found with a binary search.
+	 */
+	private static int firstNonDominatingFront(Front[] fronts, int numFronts, double[][] points, int i) {
+		int low = 0;
+		int high = numFronts;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (fronts[mid].dominates(points, i)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Growable list of the indices of the points in one front
+	 */
+	private static class Front {
+		private int[] members = new int[8];
+		private int size = 0;
+
+		void add(int i) {
+			if (size == members.length) {
+				members = Arrays.copyOf(members, size * 2);
+			}
+			members[size++] = i;
+		}
+
+		boolean dominates(double[][] points, int i) {
+			// Most recently added members are the most similar to i
+			for (int m = size - 1; m >= 0; m--) {
+				if (NonDominatedSort.dominates(points[members[m]], points[i])) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Original all-pairs sort based on isBetter, for scores that do not use
+	 * plain Pareto dominance. The isBetter tests of each score against all
+	 * others are independent, so they can be run in parallel.
+	 *
+	 * @param <T> phenotype
+	 * @param scores
+	 *            Multiobjective scores of a population
+	 * @param parallel
+	 *            Whether to spread the comparisons across cores
+	 * @return rank of each score
+	 */
+	static <T> int[] pairwiseRanks(final NSGA2Score<T>[] scores, boolean parallel) {
+		final int n = scores.length;
+		final int[][] dominated = new int[n][];
+		if (parallel) {
+			IntStream.range(0, n).parallel().forEach(i -> dominated[i] = dominatedBy(scores, i));
+		} else {
+			for (int i = 0; i < n; i++) {
+				dominated[i] = dominatedBy(scores, i);
+			}
+		}
+		int[] numDominators = new int[n];
+		for (int i = 0; i < n; i++) {
+			for (int j : dominated[i]) {
+				numDominators[j]++;
+			}
+		}
+		int[] ranks = new int[n];
+		Arrays.fill(ranks, -1);
+		int[] current = new int[n];
+		int currentSize = 0;
+		for (int i = 0; i < n; i++) {
+			if (numDominators[i] == 0) {
+				ranks[i] = 0;
+				current[currentSize++] = i;
+			}
+		}
+		int[] next = new int[n];
+		for (int front = 1; currentSize > 0; front++) {
+			int nextSize = 0;
+			for (int c = 0; c < currentSize; c++) {
+				for (int j : dominated[current[c]]) {
+					if (--numDominators[j] == 0) {
+						ranks[j] = front;
+						next[nextSize++] = j;
+					}
+				}
+			}
+			int[] temp = current;
+			current = next;
+			next = temp;
+			currentSize = nextSize;
+		}
+		return ranks;
+	}
+
+	/**
+	 * @return indices of all scores that scores[i] is better than
+	 */
+	private static <T> int[] dominatedBy(NSGA2Score<T>[] scores, int i) {
+		int[] result = new int[8];
+		int size = 0;
+		for (int j = 0; j < scores.length; j++) {
+			if (i != j && scores[i].isBetter(scores[j])) {
+				if (size == result.length) {
+					result = Arrays.copyOf(result, size * 2);
+				}
+				result[size++] = j;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * Comparison of two indices, so that indices can be sorted without
+	 * boxing them.
+	 */
+	interface IndexComparator {
+		int compare(int a, int b);
+	}
+
+	/**
+	 * Stable merge sort of an array of indices. Stable sorts agree with
+	 * Arrays.sort on objects, which is also stable.
+	 *
+	 * @param indices
+	 *            Indices to sort in place
+	 * @param comparator
+	 *            Ordering of the indices, which must be consistent
+	 */
+	static void sort(int[] indices, IndexComparator comparator) {
+		int n = indices.length;
+		int[] source = indices;
+		int[] target = new int[n];
+		for (int width = 1; width < n; width *= 2) {
+			for (int start = 0; start < n; start += 2 * width) {
+				int middle = Math.min(start + width, n);
+				int end = Math.min(start + 2 * width, n);
+				int left = start;
+				int right = middle;
+				for (int k = start; k < end; k++) {
+					// Ties go to the left run, which keeps the sort stable
+					if (left < middle && (right >= end || comparator.compare(source[left], source[right]) <= 0)) {
+						target[k] = source[left++];
+					} else {
+						target[k] = source[right++];
+					}
+				}
+			}
+			int[] temp = source;
+			source = target;
+			target = temp;
+		}
+		if (source != indices) {
+			System.arraycopy(source, 0, indices, 0, n);
+		}
+	}
+
+	/**
+	 * @return 0, 1, ..., n - 1
+	 */
+	static int[] identity(int n) {
+		int[] result = new int[n];
+		for (int i = 0; i < n; i++) {
+			result[i] = i;
+		}
+		return result;
+	}
+}
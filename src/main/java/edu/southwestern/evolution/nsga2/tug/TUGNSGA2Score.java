@@ -90,4 +90,13 @@ public class TUGNSGA2Score<T> extends NSGA2Score<T> {
 	public boolean useObjective(int objective) {
 		return active[objective];
 	}
+
+	@Override
+	/**
+	 * isBetter is Pareto dominance over the active objectives
+	 * @return true unless a subclass changes isBetter
+	 */
+	public boolean usesParetoDominance() {
+		return getClass() == TUGNSGA2Score.class;
+	}
 }
@@ -103,6 +103,7 @@ public class SelectiveBreedingEA<T> implements SinglePopulationGenerationalEA<T>
 		if(keeperLog != null) {
 			keeperLog.log(scores, generation);
 		}
+		EvolutionaryHistory.logLineageScores(scores, generation);
 		Genotype<T> example = scores.get(0).individual;
 		if (example instanceof TWEANNGenotype) {
 			ArrayList<TWEANNGenotype> tweanns = new ArrayList<TWEANNGenotype>(scores.size());
@@ -12,12 +12,14 @@ import edu.southwestern.log.PlotLog;
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.tasks.BlueprintTask;
+import edu.southwestern.tasks.GroupTask;
 import edu.southwestern.tasks.MultiplePopulationTask;
 import edu.southwestern.util.file.FileUtilities;
 import edu.southwestern.util.PopulationUtil;
 import edu.southwestern.util.random.RandomNumbers;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Random;
 
 /**
  *
@@ -145,7 +147,14 @@ public abstract class MultiplePopulationGenerationalEAExperiment implements Expe
 		}
 		while (!shouldStop()) {
 			System.out.println("Starting generation: " + ea.currentGeneration());
-			populations = ea.getNextGeneration(populations);
+			// Each generation draws from its own stream, so reproduction does not
+			// depend on the order in which parallel evaluations happened to run
+			Random previousStream = RandomNumbers.bindStream(RandomNumbers.generationStream(ea.currentGeneration()));
+			try {
+				populations = ea.getNextGeneration(populations);
+			} finally {
+				RandomNumbers.unbindStream(previousStream);
+			}
 			int gen = ea.currentGeneration();
 			// May need to fix blueprints whose member networks are no longer in
 			// population
@@ -239,6 +248,10 @@ public abstract class MultiplePopulationGenerationalEAExperiment implements Expe
 			}
 		}
 		ea.close(populations);
+		if (ea.getTask() instanceof GroupTask) {
+			// Champions are saved on a separate thread
+			((GroupTask) ea.getTask()).flushChampions();
+		}
 		if (blueprintLog != null) {
 			blueprintLog.close();
 		}
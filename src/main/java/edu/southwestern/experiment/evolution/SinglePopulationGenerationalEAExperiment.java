@@ -15,6 +15,7 @@ import edu.southwestern.util.random.RandomNumbers;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -212,7 +213,14 @@ public abstract class SinglePopulationGenerationalEAExperiment<T> implements Exp
 		}
 		while (!shouldStop()) {
 			System.out.println("Starting generation: " + ea.currentGeneration());
-			population = ea.getNextGeneration(population);
+			// Each generation draws from its own stream, so reproduction does not
+			// depend on the order in which parallel evaluations happened to run
+			Random previousStream = RandomNumbers.bindStream(RandomNumbers.generationStream(ea.currentGeneration()));
+			try {
+				population = ea.getNextGeneration(population);
+			} finally {
+				RandomNumbers.unbindStream(previousStream);
+			}
 			// ScoreHistory.clean();
 			int gen = ea.currentGeneration();
 			if (population.get(0) instanceof TWEANNGenotype) {
@@ -1,6 +1,6 @@
 package edu.southwestern.gridTorus;
 
-import edu.southwestern.util.random.RandomNumbers;
+import edu.southwestern.tasks.EvaluationContext;
 
 /**
  * 2D grid world that wraps around
@@ -197,7 +197,7 @@ public class TorusWorld {
 	 * @return a random cell (or x-y coordinate) within the grid world
 	 */
 	public int[] randomCell() {
-		return new int[] { RandomNumbers.randomGenerator.nextInt(xDim), RandomNumbers.randomGenerator.nextInt(yDim) };
+		return new int[] { EvaluationContext.random().nextInt(xDim), EvaluationContext.random().nextInt(yDim) };
 	}
 
 	/**
@@ -2,7 +2,7 @@ package edu.southwestern.gridTorus.controllers;
 
 import edu.southwestern.gridTorus.TorusAgent;
 import edu.southwestern.gridTorus.TorusWorld;
-import edu.southwestern.util.random.RandomNumbers;
+import edu.southwestern.tasks.EvaluationContext;
 
 /**
  *
@@ -20,7 +20,7 @@ public class RandomPredatorController extends TorusPredPreyController {
 	 */
 	@Override
 	public int[] getAction(TorusAgent me, TorusWorld world, TorusAgent[] preds, TorusAgent[] prey) {
-		return predatorActions()[RandomNumbers.randomGenerator.nextInt(predatorActions().length)];
+		return predatorActions()[EvaluationContext.random().nextInt(predatorActions().length)];
 	}
 
 }
\ No newline at end of file
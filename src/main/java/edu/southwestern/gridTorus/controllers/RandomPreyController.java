@@ -2,7 +2,7 @@ package edu.southwestern.gridTorus.controllers;
 
 import edu.southwestern.gridTorus.TorusAgent;
 import edu.southwestern.gridTorus.TorusWorld;
-import edu.southwestern.util.random.RandomNumbers;
+import edu.southwestern.tasks.EvaluationContext;
 
 /**
  *
@@ -20,7 +20,7 @@ public class RandomPreyController extends TorusPredPreyController {
 	 */
 	@Override
 	public int[] getAction(TorusAgent me, TorusWorld world, TorusAgent[] preds, TorusAgent[] prey) {
-		return preyActions()[RandomNumbers.randomGenerator.nextInt(preyActions().length)];
+		return preyActions()[EvaluationContext.random().nextInt(preyActions().length)];
 	}
 
 }
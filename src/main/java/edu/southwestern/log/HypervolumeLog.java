@@ -0,0 +1,108 @@
+package edu.southwestern.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import edu.southwestern.data.ResultSummaryUtilities;
+import edu.southwestern.evolution.nsga2.Hypervolume;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.scores.Score;
+import edu.southwestern.util.file.DoubleTableReader;
+
+/**
+ * Logs the hypervolume of each generation's parent population while
+ * evolution runs, so that post-run processing is not needed to see it.
+ * Besides the hypervolume and front size of each generation, the log tracks
+ * an archive of every non-dominated score vector seen so far, whose
+ * hypervolume is updated incrementally as new parents arrive.
+ *
+ * Hypervolume is measured relative to the min scores of the task, just like
+ * ResultSummaryUtilities.hypervolumeForGeneration.
+ *
+ * @author Jacob Schrum
+ */
+public class HypervolumeLog extends PlotLog {
+
+	private final int numObjectives;
+	private final double[] mins;
+	private final Hypervolume.Archive archive;
+
+	/**
+	 * @param fitnessInfix
+	 *            Infix of the FitnessLog whose generation files are read to
+	 *            rebuild the archive on resume
+	 */
+	public HypervolumeLog(String fitnessInfix) {
+		super("Hypervolume", getLabels());
+		numObjectives = ResultSummaryUtilities.hypervolumeObjectives();
+		mins = ResultSummaryUtilities.hypervolumeMins();
+		archive = new Hypervolume.Archive(numObjectives);
+		if (directory != null) {
+			String fitnessPrefix = Parameters.parameters.stringParameter("log")
+					+ Parameters.parameters.integerParameter("runNumber") + "_" + fitnessInfix;
+			int lastSavedGeneration = Parameters.parameters.integerParameter("lastSavedGeneration");
+			for (int g = 0; g < lastSavedGeneration; g++) {
+				String file = directory + fitnessPrefix + "_gen" + g + ".txt";
+				if (new File(file).exists()) {
+					try {
+						// Skip the index and id columns
+						for (double[] point : DoubleTableReader.read(file, 2, numObjectives)) {
+							addToArchive(point);
+						}
+					} catch (IOException e) {
+						System.out.println("Could not restore hypervolume archive from " + file);
+						e.printStackTrace();
+						System.exit(1);
+					}
+				}
+			}
+		}
+	}
+
+	public static ArrayList<String> getLabels() {
+		ArrayList<String> result = new ArrayList<String>(4);
+		result.add("Hypervolume");
+		result.add("Front Size");
+		result.add("Archive Hypervolume");
+		result.add("Archive Size");
+		return result;
+	}
+
+	/**
+	 * Log the hypervolume of one generation of scores, and add them to the archive
+	 *
+	 * @param scores
+	 *            Scores of the population, possibly with extra meta-heuristic
+	 *            objectives at the end, which are ignored
+	 * @param generation
+	 *            Current generation
+	 */
+	public <T> void log(ArrayList<Score<T>> scores, int generation) {
+		double[][] points = new double[scores.size()][numObjectives];
+		for (int i = 0; i < points.length; i++) {
+			System.arraycopy(scores.get(i).scores, 0, points[i], 0, numObjectives);
+			addToArchive(points[i]);
+			for (int j = 0; j < numObjectives; j++) {
+				points[i][j] -= mins[j];
+			}
+		}
+		ArrayList<Double> values = new ArrayList<Double>(4);
+		values.add(Hypervolume.of(points));
+		values.add((double) Hypervolume.nondominatedCount(points));
+		values.add(archive.volume());
+		values.add((double) archive.size());
+		log(generation, values);
+	}
+
+	/**
+	 * Raw scores are shifted by the mins before archiving
+	 */
+	private void addToArchive(double[] scores) {
+		double[] shifted = new double[numObjectives];
+		for (int j = 0; j < numObjectives; j++) {
+			shifted[j] = scores[j] - mins[j];
+		}
+		archive.add(shifted);
+	}
+}
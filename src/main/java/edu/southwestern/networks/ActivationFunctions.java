@@ -186,6 +186,16 @@ public class ActivationFunctions {
 		return activation;
 	}
 
+	/**
+	 * The function instance associated with an ftype. Lets callers that
+	 * activate the same node repeatedly skip the map lookup each time.
+	 * @param ftype Identifier for activation function
+	 * @return ActivationFunction instance
+	 */
+	public static ActivationFunction getFunction(int ftype) {
+		return functionMap.get(ftype);
+	}
+
 	/**
 	 * String name of the activation function
 	 * @param ftype Identifier for activation function
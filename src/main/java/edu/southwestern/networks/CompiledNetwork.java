@@ -0,0 +1,109 @@
+package edu.southwestern.networks;
+
+import java.util.Arrays;
+
+/**
+ * Single module network that runs directly on a CompiledTopology, without
+ * any Node or Link objects. It shares the structure of the TWEANN it was
+ * copied from, but has its own activation state, so each thread that
+ * queries the same CPPN can have its own copy.
+ * See TWEANN.concurrentCopy().
+ *
+ * @author Jacob Schrum
+ */
+final class CompiledNetwork implements Network {
+
+	private final CompiledTopology compiled;
+	private final int numOutputs;
+	private final boolean finalPass;
+	// Per node values, indexed by position in the node list
+	private final double[] sums;
+	private final double[] activations;
+	private int moduleUsage = 0;
+
+	/**
+	 * @param topology
+	 *            compiled structure of the original network
+	 * @param numOutputs
+	 *            number of output nodes
+	 * @param finalPass
+	 *            whether to apply finalPassOnOutputActivation
+	 */
+	CompiledNetwork(CompiledTopology topology, int numOutputs, boolean finalPass) {
+		this.compiled = topology;
+		this.numOutputs = numOutputs;
+		this.finalPass = finalPass;
+		sums = new double[compiled.numNodes];
+		activations = new double[compiled.numNodes];
+		flush();
+	}
+
+	@Override
+	public int numInputs() {
+		return compiled.numIn;
+	}
+
+	@Override
+	public int numOutputs() {
+		return numOutputs;
+	}
+
+	@Override
+	public int effectiveNumOutputs() {
+		return numOutputs;
+	}
+
+	@Override
+	public double[] process(double[] inputs) {
+		compiled.activate(inputs, sums, activations, finalPass);
+		moduleUsage++;
+		return moduleOutput(0);
+	}
+
+	@Override
+	public double[][] processBatch(double[][] inputs) {
+		moduleUsage += inputs.length;
+		return compiled.processBatch(inputs, 0, numOutputs, finalPass);
+	}
+
+	@Override
+	public Network concurrentCopy() {
+		return new CompiledNetwork(compiled, numOutputs, finalPass);
+	}
+
+	@Override
+	public void flush() {
+		System.arraycopy(compiled.biases, 0, sums, 0, sums.length);
+		Arrays.fill(activations, 0.0);
+	}
+
+	@Override
+	public boolean isMultitask() {
+		return false;
+	}
+
+	@Override
+	public void chooseMode(int mode) {
+		// Only one mode
+	}
+
+	@Override
+	public int lastModule() {
+		return 0;
+	}
+
+	@Override
+	public double[] moduleOutput(int mode) {
+		return Arrays.copyOfRange(activations, compiled.outputStart, compiled.outputStart + numOutputs);
+	}
+
+	@Override
+	public int numModules() {
+		return 1;
+	}
+
+	@Override
+	public int[] getModuleUsage() {
+		return new int[] { moduleUsage };
+	}
+}
@@ -0,0 +1,79 @@
+package edu.southwestern.networks;
+
+import java.util.Arrays;
+
+import edu.southwestern.evolution.genotypes.TWEANNGenotype;
+import edu.southwestern.parameters.CommonConstants;
+
+/**
+ * A TWEANN whose structure is packed into primitive arrays after construction.
+ * The Node and Link objects of the parent class still exist (they are needed
+ * for drawing and for anything that inspects the network structure), but
+ * process() never touches them. Instead, node sums and activations are kept
+ * in arrays indexed the same way as the node list, and activation is
+ * propagated through a CompiledTopology in a tight loop that allocates nothing.
+ *
+ * Because links are visited in exactly the same order as in TWEANN, every
+ * floating point sum is accumulated in the same order, so the outputs are
+ * identical to those of the equivalent TWEANN, including recurrent links,
+ * preference neuron arbitration and finalPassOnOutputActivation.
+ *
+ * Enabled with the compiledTWEANN parameter.
+ *
+ * @author Jacob Schrum
+ */
+public class CompiledTWEANN extends TWEANN {
+
+	private final CompiledTopology compiled;
+	// Per node values, indexed by position in the node list
+	private final double[] sums;
+	private final double[] activations;
+
+	/**
+	 * Construct the TWEANN encoded by the genotype and then compile it
+	 * into flat arrays.
+	 *
+	 * @param g
+	 *            The genotype
+	 */
+	public CompiledTWEANN(TWEANNGenotype g) {
+		super(g);
+		compiled = getCompiledTopology();
+		sums = new double[compiled.numNodes];
+		activations = new double[compiled.numNodes];
+		flushNodes();
+	}
+
+	@Override
+	protected void activateNodes(double[] inputs) {
+		compiled.activate(inputs, sums, activations, finalPassOnOutputActivation);
+		// Node objects are only consulted when the network is being displayed
+		if (canDraw && (panel != null || CommonConstants.monitorSubstrates)) {
+			copyStateToNodes();
+		}
+	}
+
+	/**
+	 * Keep Node objects in agreement with the compiled state so that
+	 * network and substrate displays show current activations.
+	 */
+	private void copyStateToNodes() {
+		for (int i = 0; i < sums.length; i++) {
+			Node n = nodes.get(i);
+			n.sum = sums[i];
+			n.activation = activations[i];
+		}
+	}
+
+	@Override
+	protected double nodeOutput(int index) {
+		return activations[index];
+	}
+
+	@Override
+	protected void flushNodes() {
+		System.arraycopy(compiled.biases, 0, sums, 0, sums.length);
+		Arrays.fill(activations, 0.0);
+		super.flushNodes();
+	}
+}
@@ -0,0 +1,238 @@
+package edu.southwestern.networks;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.southwestern.networks.TWEANN.Link;
+import edu.southwestern.networks.TWEANN.Node;
+import edu.southwestern.networks.activationfunctions.ActivationFunction;
+
+/**
+ * The structure of a TWEANN packed into primitive arrays. Node biases,
+ * activation functions and the outgoing links of every node are stored in
+ * parallel arrays in the same forward order as the node list of the TWEANN,
+ * and the outgoing links of each node are kept in the same order as the Link
+ * list of the Node. Activation therefore accumulates every sum in exactly the
+ * same order as TWEANN, and gives identical results.
+ *
+ * The topology can activate a single input vector against externally owned
+ * state arrays (used by CompiledTWEANN), or a whole batch of independent
+ * feed-forward queries at once, in which case each node is visited once per
+ * block of queries rather than once per query. The topology is never
+ * modified after it is created, and batch processing keeps its working
+ * arrays local to each call, so one topology can be shared by many threads.
+ *
+ * @author Jacob Schrum
+ */
+final class CompiledTopology {
+
+	// Number of queries whose sums are held in memory at once during batch processing
+	private static final int BATCH_BLOCK = 256;
+
+	final int numIn;
+	final int numNodes;
+	final int outputStart;
+	final double[] biases;
+	final int[] ftypes;
+	final ActivationFunction[] functions;
+	// Outgoing links of node i are at positions linkStart[i] to linkStart[i+1]-1
+	final int[] linkStart;
+	final int[] linkTargets;
+	final double[] linkWeights;
+	// True if any link leads back to the same or an earlier node
+	final boolean recurrent;
+
+	/**
+	 * Pack the nodes of a TWEANN into arrays.
+	 *
+	 * @param nodes
+	 *            node list of a TWEANN, in forward order
+	 * @param numIn
+	 *            number of input nodes at the start of the list
+	 * @param outputStart
+	 *            index of first output node
+	 */
+	CompiledTopology(List<Node> nodes, int numIn, int outputStart) {
+		this.numIn = numIn;
+		this.numNodes = nodes.size();
+		this.outputStart = outputStart;
+		biases = new double[numNodes];
+		ftypes = new int[numNodes];
+		functions = new ActivationFunction[numNodes];
+		linkStart = new int[numNodes + 1];
+
+		HashMap<Long, Integer> indexOfInnovation = new HashMap<Long, Integer>(numNodes * 2);
+		int numLinks = 0;
+		for (int i = 0; i < numNodes; i++) {
+			Node n = nodes.get(i);
+			indexOfInnovation.put(n.innovation, i);
+			biases[i] = n.bias;
+			ftypes[i] = n.ftype;
+			functions[i] = ActivationFunctions.getFunction(n.ftype);
+			numLinks += n.outputs.size();
+		}
+
+		linkTargets = new int[numLinks];
+		linkWeights = new double[numLinks];
+		int link = 0;
+		boolean anyRecurrent = false;
+		for (int i = 0; i < numNodes; i++) {
+			linkStart[i] = link;
+			// Same order as the LinkedList in the Node, so sums accumulate identically
+			for (Link l : nodes.get(i).outputs) {
+				linkTargets[link] = indexOfInnovation.get(l.target.innovation);
+				linkWeights[link] = l.weight;
+				anyRecurrent = anyRecurrent || linkTargets[link] <= i;
+				link++;
+			}
+		}
+		linkStart[numNodes] = link;
+		recurrent = anyRecurrent;
+	}
+
+	/**
+	 * Same computation as TWEANN.activateNodes, but on primitive arrays.
+	 * Sums carry over between calls, which is how recurrent links work.
+	 *
+	 * @param inputs
+	 *            sensor inputs
+	 * @param sums
+	 *            current sum of each node (modified)
+	 * @param activations
+	 *            current activation of each node (modified)
+	 * @param finalPass
+	 *            whether to apply finalPassOnOutputActivation
+	 */
+	void activate(double[] inputs, double[] sums, double[] activations, boolean finalPass) {
+		for (int i = 0; i < numIn; i++) {
+			assert !Double.isNaN(inputs[i]) : "Input " + i + " is NaN!" + Arrays.toString(inputs);
+			sums[i] += inputs[i];
+		}
+
+		for (int i = 0; i < numNodes; i++) {
+			activateAndTransmit(i, sums, activations);
+		}
+
+		if (finalPass) {
+			for (int i = outputStart; i < numNodes; i++) {
+				// This means input arrived after last reset
+				if (sums[i] != biases[i]) {
+					activateAndTransmit(i, sums, activations);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Activate one node, reset its sum to the bias, and send the activation
+	 * along all outgoing links.
+	 */
+	private void activateAndTransmit(int i, double[] sums, double[] activations) {
+		double activation = activate(i, sums[i]);
+		activations[i] = activation;
+		sums[i] = biases[i];
+		final int end = linkStart[i + 1];
+		for (int l = linkStart[i]; l < end; l++) {
+			sums[linkTargets[l]] += activation * linkWeights[l];
+		}
+	}
+
+	private double activate(int i, double sum) {
+		double activation = functions[i].f(sum);
+		assert !Double.isNaN(activation) : ActivationFunctions.activationName(ftypes[i]) + " returns NaN on " + sum;
+		assert !Double.isInfinite(activation) : ActivationFunctions.activationName(ftypes[i]) + " is infinite on " + sum;
+		return activation;
+	}
+
+	/**
+	 * Evaluate many independent queries, each as if the network had been
+	 * flushed immediately beforehand. Queries are handled in blocks, and each
+	 * node is activated for the whole block before moving to the next node, so
+	 * the topology is traversed once per block.
+	 *
+	 * @param inputs
+	 *            one row of sensor inputs per query
+	 * @param firstOutput
+	 *            index (among output nodes) of first output to report
+	 * @param numOutputs
+	 *            number of consecutive output nodes to report per query
+	 * @param finalPass
+	 *            whether to apply finalPassOnOutputActivation
+	 * @return one row of outputs per query
+	 */
+	double[][] processBatch(double[][] inputs, int firstOutput, int numOutputs, boolean finalPass) {
+		double[][] results = new double[inputs.length][numOutputs];
+		int block = Math.min(BATCH_BLOCK, inputs.length);
+		// Sums for every node, activations for output nodes, shared by all blocks of this call
+		double[][] sums = new double[numNodes][block];
+		double[][] outputActivations = new double[numNodes - outputStart][block];
+		double[] activation = new double[block];
+		for (int start = 0; start < inputs.length; start += block) {
+			int size = Math.min(block, inputs.length - start);
+			processBlock(inputs, start, size, finalPass, sums, outputActivations, activation);
+			for (int b = 0; b < size; b++) {
+				double[] result = results[start + b];
+				for (int o = 0; o < numOutputs; o++) {
+					result[o] = outputActivations[firstOutput + o][b];
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Activate the network for queries start to start+size-1, using the
+	 * working arrays of the calling processBatch
+	 */
+	private void processBlock(double[][] inputs, int start, int size, boolean finalPass,
+			double[][] batchSums, double[][] batchOutputActivations, double[] batchActivation) {
+		// Equivalent of flush: every sum starts at the bias
+		for (int i = 0; i < numNodes; i++) {
+			Arrays.fill(batchSums[i], 0, size, biases[i]);
+		}
+		for (int b = 0; b < size; b++) {
+			double[] in = inputs[start + b];
+			assert in.length == numIn : "Input mismatch! numIn = " + numIn + ", inputs.length = " + in.length;
+			for (int i = 0; i < numIn; i++) {
+				batchSums[i][b] += in[i];
+			}
+		}
+
+		for (int i = 0; i < numNodes; i++) {
+			double[] sum = batchSums[i];
+			double[] activation = i < outputStart ? batchActivation : batchOutputActivations[i - outputStart];
+			double bias = biases[i];
+			for (int b = 0; b < size; b++) {
+				activation[b] = activate(i, sum[b]);
+				sum[b] = bias;
+			}
+			final int end = linkStart[i + 1];
+			for (int l = linkStart[i]; l < end; l++) {
+				double[] target = batchSums[linkTargets[l]];
+				double weight = linkWeights[l];
+				for (int b = 0; b < size; b++) {
+					target[b] += activation[b] * weight;
+				}
+			}
+		}
+
+		if (finalPass) {
+			for (int i = outputStart; i < numNodes; i++) {
+				double[] sum = batchSums[i];
+				double[] activation = batchOutputActivations[i - outputStart];
+				for (int b = 0; b < size; b++) {
+					// This means input arrived after last reset
+					if (sum[b] != biases[i]) {
+						activation[b] = activate(i, sum[b]);
+						sum[b] = biases[i];
+						final int end = linkStart[i + 1];
+						for (int l = linkStart[i]; l < end; l++) {
+							batchSums[linkTargets[l]][b] += activation[b] * linkWeights[l];
+						}
+					}
+				}
+			}
+		}
+	}
+}
@@ -39,6 +39,26 @@ public class MLP implements Network {
 		return propagate(inputs);
 	}
 
+	@Override
+	/**
+	 * Processes every row of inputs independently, reusing one hidden
+	 * layer buffer instead of copying each row into the input layer.
+	 * Internal state of the MLP is not changed.
+	 */
+	public double[][] processBatch(double[][] batch) {
+		double[][] results = new double[batch.length][];
+		double[] hidden = new double[hiddenNeurons.length];
+		for (int i = 0; i < batch.length; i++) {
+			assert batch[i].length == firstConnectionLayer.length : "Input mismatch on row " + i + ": " + Arrays.toString(batch[i]);
+			clear(hidden);
+			NetworkUtil.propagateOneStep(batch[i], hidden, firstConnectionLayer);
+			tanh(hidden);
+			results[i] = NetworkUtil.propagateOneStep(hidden, new double[outputs.length], secondConnectionLayer);
+			tanh(results[i]);
+		}
+		return results;
+	}
+
 	@Override
 	/**
 	 * Clears MLP so SRN can be reused
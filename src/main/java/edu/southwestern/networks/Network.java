@@ -40,6 +40,34 @@ public interface Network {
 	 **/
 	public double[] process(double[] inputs);
 
+	/**
+	 * Process many independent input vectors, each as though the network had
+	 * just been flushed. Useful for querying CPPNs at many coordinates. The
+	 * default simply flushes and processes each row in turn, but networks can
+	 * override this to evaluate the whole batch in fewer passes.
+	 * 
+	 * @param inputs
+	 *            Each row is one array of sensor inputs
+	 * @return Array of network outputs, one row per row of inputs
+	 */
+	public default double[][] processBatch(double[][] inputs) {
+		return NetworkUtil.processSequentially(this, inputs);
+	}
+
+	/**
+	 * A network that gives the same outputs as this one, but has its own
+	 * internal state, so that it can process inputs on one thread while this
+	 * network or other copies are used on other threads. Used to split large
+	 * batches of queries across threads. The default returns null, which
+	 * means the network cannot be copied cheaply and should only be used
+	 * by one thread at a time.
+	 *
+	 * @return independent copy of the network, or null
+	 */
+	public default Network concurrentCopy() {
+		return null;
+	}
+
 	/**
 	 * Clear any internal state
 	 */
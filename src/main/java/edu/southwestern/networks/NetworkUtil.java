@@ -27,6 +27,39 @@ public class NetworkUtil {
 		}
 	}
 
+	/**
+	 * Flush the network and process each row of inputs in turn. This is the
+	 * plain way of satisfying Network.processBatch.
+	 * @param n network to query
+	 * @param inputs one row of sensor inputs per query
+	 * @return one row of outputs per query
+	 */
+	public static double[][] processSequentially(Network n, double[][] inputs) {
+		double[][] outputs = new double[inputs.length][];
+		for (int i = 0; i < inputs.length; i++) {
+			n.flush();
+			// Copy in case the network reuses its output array
+			outputs[i] = n.process(inputs[i]).clone();
+		}
+		return outputs;
+	}
+
+	/**
+	 * Whether the outputs of the network depend only on the current inputs.
+	 * For such networks, processBatch gives the same results as calling process
+	 * repeatedly without flushing in between.
+	 * @param n network to check
+	 * @return true if the network carries no state from one process call to the next
+	 */
+	public static boolean isStateless(Network n) {
+		if (n instanceof TWEANN) {
+			TWEANN t = (TWEANN) n;
+			// Preference fatigue carries over between calls when outputs are scaled by preferences
+			return t.numModules() == 1 && !t.outputsUsePreferences() && !t.hasRecurrentLinks();
+		}
+		return n instanceof MLP && !(n instanceof SRN);
+	}
+
 	/**
 	 * Propagates values forward one step  by multiplying value at first layer by
 	 * connection weight between layers and setting target layer equal to this value
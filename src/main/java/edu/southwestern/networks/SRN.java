@@ -53,6 +53,12 @@ public class SRN extends MLP {
 		return super.process(combinedInputs);
 	}
 
+	@Override
+	public double[][] processBatch(double[][] inputs) {
+		// Hidden activations are fed back, so the MLP batch shortcut does not apply
+		return NetworkUtil.processSequentially(this, inputs);
+	}
+
 	@Override
 	public SRN copy() {
 		return new SRN(super.copy(), this.numActualInputs);
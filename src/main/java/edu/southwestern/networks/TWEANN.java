@@ -10,6 +10,7 @@ import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.util.CombinatoricUtilities;
+import edu.southwestern.util.datastructures.LongIntHashMap;
 import edu.southwestern.util.graphics.DrawingPanel;
 import edu.southwestern.util.graphics.GraphicsUtil;
 import edu.southwestern.util.graphics.Plot;
@@ -494,6 +495,8 @@ public class TWEANN implements Network {
 		this.archetypeIndex = g.archetypeIndex;
 		this.id = g.getId();
 		this.nodes = new ArrayList<Node>(g.nodes.size());
+		// Position of each node innovation number, so links are connected in constant time
+		LongIntHashMap nodeIndices = new LongIntHashMap(g.nodes.size());
 
 		int countIn = 0;
 		int countOut = 0;
@@ -522,6 +525,7 @@ public class TWEANN implements Network {
 				countOut++;
 				break;
 			}
+			nodeIndices.putIfAbsent(n.innovation, nodes.size());
 			nodes.add(n);
 		}
 
@@ -557,8 +561,8 @@ public class TWEANN implements Network {
 
 		for (LinkGene lg : g.links) {
 			if (lg.isActive()) {
-				Node source = getNode(lg.sourceInnovation);
-				Node target = getNode(lg.targetInnovation);
+				Node source = getNode(nodeIndices, lg.sourceInnovation);
+				Node target = getNode(nodeIndices, lg.targetInnovation);
 				assert(target != null) : "No target: " + lg + "\nNet:" + g.getId();
 				assert(source != null) : "How could the source be null?";
 				source.connect(target, lg.weight, lg.innovation, lg.isRecurrent(), lg.isFrozen());
@@ -648,32 +652,7 @@ public class TWEANN implements Network {
 		assert(inputs.length == numIn) : "Input mismatch! numIn = " + numIn + "\n" + "inputs.length = " + inputs.length + "\n" + Arrays.toString(inputs);
 		assert(numIn <= nodes.size()) : "Input mismatch! numIn = " + numIn + "\n" + "nodes.size() = " + nodes.size() + "\n" + nodes;
 
-		try {
-			// Load inputs
-			for (int i = 0; i < numIn; i++) {
-				assert !Double.isNaN(inputs[i]) : "Input " + i + " is NaN!" + Arrays.toString(inputs);
-				nodes.get(i).load(inputs[i]);
-			}
-		} catch(ArrayIndexOutOfBoundsException e) {
-			System.out.println("CRASH! inputs = " + Arrays.toString(inputs));
-			throw e;
-		}
-
-		// Activate nodes in forward order
-		for (int i = 0; i < nodes.size(); i++) {
-			nodes.get(i).activateAndTransmit();
-		}
-		
-		// Option: if there is remaining activation in the output neurons, 
-		// then process it. Used when importing CPPNs from original Picbreeder
-		if(finalPassOnOutputActivation) {
-			for(int i = this.outputStart; i < nodes.size(); i++) {
-				// This means input arrived after last reset
-				if(nodes.get(i).sum != nodes.get(i).bias) {
-					nodes.get(i).activateAndTransmit();
-				}
-			}
-		}
+		activateNodes(inputs);
 		
 		// All outputs
 
@@ -688,9 +667,9 @@ public class TWEANN implements Network {
 				preferences[presetMode] = 1.0;
 			} else {
 				for (int m = 0; m < numModes; m++) {
-					Node out = nodes.get(outputStart + (m * (neuronsPerModule + 1)) + neuronsPerModule);
+					int out = outputStart + (m * (neuronsPerModule + 1)) + neuronsPerModule;
 					// Inviable modes have minimal preference
-					preferences[m] = viableModes[m] ? out.output() : -Double.MAX_VALUE;
+					preferences[m] = viableModes[m] ? nodeOutput(out) : -Double.MAX_VALUE;
 				}
 			}
 			// subtract fatigue
@@ -730,7 +709,7 @@ public class TWEANN implements Network {
 			for (int i = 0; i < outputs.length; i++) {
 				for (int j = 0; j < numModes; j++) {
 					int modeStart = outputStart + (j * (neuronsPerModule + (CommonConstants.ensembleModeMutation ? 0 : 1)));
-					outputs[i] += preferences[j] * nodes.get(modeStart + i).output();
+					outputs[i] += preferences[j] * nodeOutput(modeStart + i);
 				}
 				outputs[i] /= numModes;
 			}
@@ -753,6 +732,64 @@ public class TWEANN implements Network {
 		return outputs;
 	}
 
+	/**
+	 * Load the inputs into the input neurons and propagate activation through
+	 * every node in forward order. Subclasses that store the network in a
+	 * different form can override this along with nodeOutput and flushNodes.
+	 *
+	 * @param inputs
+	 *            sensor readings for the network
+	 */
+	protected void activateNodes(double[] inputs) {
+		try {
+			// Load inputs
+			for (int i = 0; i < numIn; i++) {
+				assert !Double.isNaN(inputs[i]) : "Input " + i + " is NaN!" + Arrays.toString(inputs);
+				nodes.get(i).load(inputs[i]);
+			}
+		} catch(ArrayIndexOutOfBoundsException e) {
+			System.out.println("CRASH! inputs = " + Arrays.toString(inputs));
+			throw e;
+		}
+
+		// Activate nodes in forward order
+		for (int i = 0; i < nodes.size(); i++) {
+			nodes.get(i).activateAndTransmit();
+		}
+		
+		// Option: if there is remaining activation in the output neurons, 
+		// then process it. Used when importing CPPNs from original Picbreeder
+		if(finalPassOnOutputActivation) {
+			for(int i = this.outputStart; i < nodes.size(); i++) {
+				// This means input arrived after last reset
+				if(nodes.get(i).sum != nodes.get(i).bias) {
+					nodes.get(i).activateAndTransmit();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Activation of the node at the given position in the node list after the
+	 * most recent call to process.
+	 *
+	 * @param index
+	 *            position of node in the list of nodes
+	 * @return output of that node
+	 */
+	protected double nodeOutput(int index) {
+		return nodes.get(index).output();
+	}
+
+	/**
+	 * Reset sums and activations of all nodes
+	 */
+	protected void flushNodes() {
+		for (Node n : nodes) {
+			n.flush();
+		}
+	}
+
 	/**
 	 * After processing, the neurons retain their activations. Therefore, the
 	 * output values can be accessed for any mode, not just the chosen one.
@@ -766,19 +803,100 @@ public class TWEANN implements Network {
 		int selectedModeStart = outputStart + (mode * (neuronsPerModule + (standardMultitask ? 0 : 1)));
 		double[] outputs = new double[neuronsPerModule];
 		for (int i = 0; i < neuronsPerModule; i++) {
-			Node out = nodes.get(selectedModeStart + i);
-			outputs[i] = out.output();
+			outputs[i] = nodeOutput(selectedModeStart + i);
 		}
 		return outputs;
 	}
 
+	/**
+	 * Evaluates each row of inputs as if the network were flushed before
+	 * each one. Single module networks (like CPPNs) are evaluated in one pass
+	 * over the topology per block of queries using a compiled copy of the
+	 * network, which gives the same outputs as repeated flush/process calls.
+	 * The internal state of the network is not changed, and nothing is drawn.
+	 * Networks with multiple modules, or whose outputs are scaled by mode
+	 * preferences (see outputsUsePreferences), fall back on repeated
+	 * flush/process calls, which apply preferences exactly as process does.
+	 *
+	 * @param inputs
+	 *            one row of sensor inputs per query
+	 * @return one row of outputs per query
+	 */
+	@Override
+	public double[][] processBatch(double[][] inputs) {
+		if (numModes != 1 || outputsUsePreferences()) {
+			return NetworkUtil.processSequentially(this, inputs);
+		}
+		double[][] outputs = getCompiledTopology().processBatch(inputs, 0, neuronsPerModule, finalPassOnOutputActivation);
+		moduleUsage[0] += inputs.length;
+		chosenModule = 0;
+		return outputs;
+	}
+
+	/**
+	 * Single module networks are copied as a CompiledNetwork that shares the
+	 * compiled structure of this network. Networks with multiple modules, or
+	 * whose outputs are scaled by mode preferences, cannot be copied this way.
+	 *
+	 * @return independent copy for use on another thread, or null
+	 */
+	@Override
+	public Network concurrentCopy() {
+		if (numModes != 1 || outputsUsePreferences()) {
+			return null;
+		}
+		return new CompiledNetwork(getCompiledTopology(), neuronsPerModule, finalPassOnOutputActivation);
+	}
+
+	/**
+	 * Whether process multiplies outputs by mode preferences. This happens
+	 * under weighted average mode aggregation, and the preferences include
+	 * fatigue that builds up with every call, so outputs depend on earlier
+	 * calls even when there is only one module.
+	 *
+	 * @return true if outputs are scaled by preferences
+	 */
+	public boolean outputsUsePreferences() {
+		return CommonConstants.weightedAverageModeAggregation && !CommonConstants.ensembleModeMutation;
+	}
+
+	/**
+	 * Whether any link leads back to the same or an earlier node. Networks
+	 * without such links produce outputs that depend only on the current
+	 * inputs.
+	 *
+	 * @return true if the network has recurrent links
+	 */
+	public boolean hasRecurrentLinks() {
+		return getCompiledTopology().recurrent;
+	}
+
+	/**
+	 * Network structure packed into primitive arrays. Created on first use,
+	 * since networks never change after being created. Several threads may
+	 * process batches at once, so it is only created once.
+	 *
+	 * @return compiled form of this network's topology
+	 */
+	CompiledTopology getCompiledTopology() {
+		CompiledTopology result = compiledTopology;
+		if (result == null) {
+			synchronized (this) {
+				result = compiledTopology;
+				if (result == null) {
+					result = new CompiledTopology(nodes, numIn, outputStart);
+					compiledTopology = result;
+				}
+			}
+		}
+		return result;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void flush() {
 		// System.out.println("Flush: " + id);
-		for (Node n : nodes) {
-			n.flush();
-		}
+		flushNodes();
 		if (canDraw && preferenceNeuronPanel != null && !standardMultitask && numModes > 1) {
 			preferenceActivationHistory = new ArrayList[numModes];
 			for (int i = 0; i < preferenceActivationHistory.length; i++) {
@@ -792,16 +910,20 @@ public class TWEANN implements Network {
 		}
 	}
 
-	private Node getNode(long targetInnovation) {
-		Node targetNode = null;
-		for (Node n : nodes) {
-			if (n.innovation == targetInnovation) {
-				targetNode = n;
-				break;
-			}
-		}
-		assert targetNode != null : "No node with innovation " + targetInnovation + " existed";
-		return targetNode;
+	/**
+	 * Node with innovation number, found using the positions of node
+	 * innovation numbers in the node list
+	 *
+	 * @param nodeIndices
+	 *            Maps innovation numbers to indices in nodes
+	 * @param innovation
+	 *            Innovation number of node
+	 * @return Node with innovation number, or null
+	 */
+	private Node getNode(LongIntHashMap nodeIndices, long innovation) {
+		int index = nodeIndices.get(innovation);
+		assert index != LongIntHashMap.NOT_FOUND : "No node with innovation " + innovation + " existed";
+		return index == LongIntHashMap.NOT_FOUND ? null : nodes.get(index);
 	}
 
 	@Override
@@ -930,6 +1052,8 @@ public class TWEANN implements Network {
 
 	//used in drawing class. Transient to avoid unnecessary saving to xml files
 	transient private ArrayList<ArrayList<Node>> layers = null;
+	//used by processBatch. Transient to avoid unnecessary saving to xml files
+	transient private volatile CompiledTopology compiledTopology = null;
 
 
 	/**
@@ -24,6 +24,7 @@ public class CommonConstants {
 	public static boolean allowRandomGhostReversals;
 	public static boolean checkEachAbsoluteDistanceGhostSort;
 	public static boolean checkEachFlushWalls;
+	public static boolean compiledTWEANN;
 	public static boolean connectToInputs;
 	public static boolean constantTUGGoalIncrements;
 	public static boolean cullCrossovers;
@@ -134,6 +135,7 @@ public class CommonConstants {
 		allowRandomGhostReversals = Parameters.parameters.booleanParameter("allowRandomGhostReversals");
 		checkEachAbsoluteDistanceGhostSort = Parameters.parameters.booleanParameter("checkEachAbsoluteDistanceGhostSort");
 		checkEachFlushWalls = Parameters.parameters.booleanParameter("checkEachFlushWalls");
+		compiledTWEANN = Parameters.parameters.booleanParameter("compiledTWEANN");
 		connectToInputs = Parameters.parameters.booleanParameter("connectToInputs");
 		constantTUGGoalIncrements = Parameters.parameters.booleanParameter("constantTUGGoalIncrements");
 		cullCrossovers = Parameters.parameters.booleanParameter("cullCrossovers");
@@ -25,6 +25,7 @@ import edu.southwestern.gridTorus.controllers.PreyFleeClosestPredatorController;
 import edu.southwestern.networks.ActivationFunctions;
 import edu.southwestern.networks.dl4j.VGG19Wrapper;
 import edu.southwestern.networks.hyperneat.CenteredSubstrateMapping;
+import edu.southwestern.tasks.coevolution.RandomGroupPairing;
 import edu.southwestern.tasks.gvgai.player.GVGAIOneStepNNPlayer;
 import edu.southwestern.tasks.interactive.breedesizer.Keyboard;
 import edu.southwestern.tasks.microrts.evaluation.NNComplexEvaluationFunction;
@@ -302,6 +303,7 @@ public class Parameters {
 		integerOptions.add("clipLength", Keyboard.NOTE_LENGTH_DEFAULT, "Length of clip played in Breedesizer");
 		integerOptions.add("maxClipLength", 100000, "Maximum length of clip played in Breedesizer");
 		integerOptions.add("minimaxSearchDepth", 2, "Tree-Search Depth of the Minimax BoardGamePlayer");
+		integerOptions.add("minimaxTranspositionTableBits", 16, "Log base 2 of the number of positions in the transposition table of the iterative deepening BoardGamePlayer");
 		integerOptions.add("remixImageWindow", 10, "Size of window being remixed by CPPN in Picture Remixer");
 		integerOptions.add("minRemixImageWindow", 2, "Minimum size of window being remixed by CPPN in Picture Remixer");
 		integerOptions.add("maxRemixImageWindow", 100, "Maximum size of window being remixed by CPPN in Picture Remixer");
@@ -314,6 +316,7 @@ public class Parameters {
 		integerOptions.add("maxPause", 500, "Maximum pause length between each iteraton of animation in AnimationBreeder");
 		integerOptions.add("defaultFramePause", 50, "Default pause length between frames in AnimationBreeder");
 		integerOptions.add("steadyStateIndividualsPerGeneration", 400, "How many individuals count as a log generation for SteadyStateEAs");
+		integerOptions.add("mapElitesBatchSize", 1, "Number of children MAP Elites creates and evaluates at once (in parallel if parallelEvaluations is true)");
 		integerOptions.add("numShapeInnovationSamples", 3, "Number of angles to take 2D image of 3D shape from for shape innovation task");
 		integerOptions.add("receptiveFieldSize", 3, "Size of input windows for convolutional structures");
 		integerOptions.add("stride", 1, "Offset between receptive fields in convolutional structures");
@@ -383,7 +386,10 @@ public class Parameters {
 		booleanOptions.add("overrideImageSize", false, "For image match task, draw CPPNs with different size than actual image size");
 		booleanOptions.add("logTWEANNData", false, "Whether or not to log TWEANN data");
 		booleanOptions.add("logMutationAndLineage", false, "Whether or not to log information about the mutations and lineage");
+		booleanOptions.add("binaryLineage", true, "When logging lineage, also write lineage and parent scores to compact binary files for the lineage browser");
+		booleanOptions.add("logHypervolume", false, "Log hypervolume of each generation's parents, and of an archive of all non-dominated parents so far");
 		booleanOptions.add("logPerformance", false, "Whether or not to log performance information in a performance log");
+		booleanOptions.add("logEvaluationPool", false, "Whether or not to log queue wait, run time and thread use of parallel evaluations");
 		booleanOptions.add("indivPredMinDistIndivPrey", false, "Turn on to encourage the individual predator to be as close to the individual prey as possible by the end of the game");
 		booleanOptions.add("indivPredMinDist", false, "Turn on to encourage the individual predator to be as close to the prey as possible by the end of the game");
 		booleanOptions.add("indivPreyMaxDistIndivPred", false, "Turn on to encourage the individual prey to be as far from the individual predator as possible by the end of the game");
@@ -454,6 +460,7 @@ public class Parameters {
 		booleanOptions.add("includeDSiLFunction", false, "Function for derivative of sigmoid weighted linear unit function. If true, add to the function set");
 		booleanOptions.add("tetrisAvgNumHoles", false, "include number of holes as a fitness function");
 		booleanOptions.add("finalPassOnOutputActivation", false, "Empty all remaining activation from network output layer");
+		booleanOptions.add("compiledTWEANN", false, "TWEANN phenotypes are compiled into flat arrays for faster processing");
 		booleanOptions.add("logGhostLocOnPowerPill", false, "Log ghost locations corresponding to each eaten power pill");
 		booleanOptions.add("breveDamageOnly", false, "Breve domains only care about damage objectives");
 		booleanOptions.add("getRemainingPills", false, "CEC 2011 rule that Ms. Pac-Man gets the pills in the level when time runs out");
@@ -592,6 +599,7 @@ public class Parameters {
 		booleanOptions.add("showSubnetAnalysis", false, "Show extra info about subnets in cooperative coevolution");
 		booleanOptions.add("absenceNegative", false, "Sense absence of input as -1 instead of 0");
 		booleanOptions.add("parallelEvaluations", false, "Perform evaluations in parallel");
+		booleanOptions.add("mapElitesSparseArchive", false, "MAP Elites archive only stores occupied bins (for behavior spaces with many bins)");
 		booleanOptions.add("parallelSave", false, "Perform file saving in parallel");
 		booleanOptions.add("cleanOldNetworks", true, "Delete old network xml files once new networks are saved");
 		booleanOptions.add("deterministic", false, "Make evaluations deterministic, if supported");
@@ -819,6 +827,7 @@ public class Parameters {
 		classOptions.add("pacmanInputOutputMediator", FullTaskMediator.class, "Defines pacman controllers sensors and actuators");
 		classOptions.add("nicheDefinition", null, "Method for getting the niche of an individual for local competition");
 		classOptions.add("noisyTaskStat", Average.class, "Class for the statistic defining agent score after multiple noisy evals");
+		classOptions.add("coevolutionPairing", RandomGroupPairing.class, "How single population coevolution groups individuals into matches (random, round robin, Swiss)");
 		classOptions.add("doomSmudgeStat", Average.class, "Class for the smudge factor in VizDoom");
 		classOptions.add("breveEnemy", RushingPlayer.class, "Class defining behavior of static enemy in breve domains");
 		classOptions.add("breveDynamics", PlayerPredatorMonsterPrey.class, "Class defining domain dynamics for breve domains");
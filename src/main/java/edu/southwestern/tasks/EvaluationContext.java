@@ -0,0 +1,178 @@
+package edu.southwestern.tasks;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import edu.southwestern.evolution.genotypes.Genotype;
+import edu.southwestern.util.random.RandomNumbers;
+import edu.southwestern.util.random.RandomStream;
+
+/**
+ * State that belongs to a single evaluation of a single individual. When
+ * evaluations run in parallel, anything that changes while a game is being
+ * played (the game itself, sensor caches, mediators with memory, random
+ * numbers) cannot be kept in static variables or in fields of the shared
+ * Task instance. Instead, it is kept in the EvaluationContext created for
+ * that evaluation.
+ *
+ * A context is created by LonerTask.EvaluationThread, passed to
+ * NoisyLonerTask.oneEval, and also bound to the evaluating thread for the
+ * duration of the evaluation so that code deep inside a domain (mediators,
+ * sensor blocks) can retrieve it with current() without the context being
+ * passed through every method. Outside of an evaluation, current() returns
+ * null and such code falls back on its old shared state.
+ *
+ * While a context is bound, RandomNumbers.randomGenerator draws from the
+ * RandomStream of the evaluation (or of the current trial once a trial has
+ * started), so the random numbers an evaluation sees do not depend on what
+ * other evaluations are doing at the same time.
+ *
+ * @author Jacob Schrum
+ */
+public class EvaluationContext {
+
+	private static final ThreadLocal<EvaluationContext> CURRENT = new ThreadLocal<EvaluationContext>();
+
+	private final Genotype<?> individual;
+	// Stream for the whole evaluation, split into one stream per trial
+	private final RandomStream stream;
+	private RandomStream random;
+	// Stream bound to the thread before this context was bound
+	private Random previousStream = null;
+	// State that lasts for the whole evaluation (all trials)
+	private final HashMap<Object, Object> evaluationState = new HashMap<Object, Object>();
+	// State that is discarded at the start of each trial
+	private final HashMap<Object, Object> trialState = new HashMap<Object, Object>();
+	private int trial = -1;
+
+	/**
+	 * New context for evaluating an individual
+	 *
+	 * @param individual
+	 *            Genotype being evaluated
+	 * @param stream
+	 *            Random numbers used by this evaluation
+	 */
+	public EvaluationContext(Genotype<?> individual, RandomStream stream) {
+		this.individual = individual;
+		this.stream = stream;
+		this.random = stream;
+	}
+
+	/**
+	 * @return context of the evaluation running on the current thread, or
+	 *         null if there is none
+	 */
+	public static EvaluationContext current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Random numbers for the current evaluation if there is one, and the
+	 * global generator otherwise.
+	 *
+	 * @return source of random numbers
+	 */
+	public static Random random() {
+		EvaluationContext context = current();
+		return context == null ? RandomNumbers.randomGenerator : context.getRandom();
+	}
+
+	/**
+	 * Bind this context to the current thread until unbind() is called.
+	 *
+	 * @return the context previously bound to this thread (usually null),
+	 *         which should be given to unbind()
+	 */
+	public EvaluationContext bind() {
+		EvaluationContext previous = CURRENT.get();
+		CURRENT.set(this);
+		previousStream = RandomNumbers.bindStream(random);
+		return previous;
+	}
+
+	/**
+	 * Remove this context from the current thread, and restore whatever
+	 * was bound before.
+	 *
+	 * @param previous
+	 *            Result of the matching call to bind()
+	 */
+	public void unbind(EvaluationContext previous) {
+		RandomNumbers.unbindStream(previousStream);
+		previousStream = null;
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+
+	/**
+	 * Indicate that a new trial of the evaluation is starting. State that
+	 * only applies to one trial is discarded, and random numbers come from
+	 * the stream of the new trial.
+	 *
+	 * @param num
+	 *            index of the trial
+	 */
+	public void startTrial(int num) {
+		trial = num;
+		trialState.clear();
+		random = stream.child(num);
+		if (CURRENT.get() == this) {
+			RandomNumbers.bindStream(random);
+		}
+	}
+
+	/**
+	 * @return index of the current trial, or -1 before the first trial
+	 */
+	public int getTrial() {
+		return trial;
+	}
+
+	public Genotype<?> getIndividual() {
+		return individual;
+	}
+
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Value that persists across all trials of the evaluation.
+	 *
+	 * @param <V>
+	 *            Type of value
+	 * @param key
+	 *            Identifies the value, usually the object that owns it
+	 * @return stored value, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V get(Object key) {
+		return (V) evaluationState.get(key);
+	}
+
+	public void put(Object key, Object value) {
+		evaluationState.put(key, value);
+	}
+
+	/**
+	 * Value that is forgotten when the next trial starts.
+	 *
+	 * @param <V>
+	 *            Type of value
+	 * @param key
+	 *            Identifies the value, usually the object that owns it
+	 * @return stored value, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V getTrialState(Object key) {
+		return (V) trialState.get(key);
+	}
+
+	public void putTrialState(Object key, Object value) {
+		trialState.put(key, value);
+	}
+}
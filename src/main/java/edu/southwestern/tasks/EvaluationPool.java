@@ -0,0 +1,219 @@
+package edu.southwestern.tasks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Long-lived pool of evaluation threads shared by all generations of a run.
+ * Creating a new fixed thread pool every generation wastes time, and
+ * blocking on results in population order means one slow evaluation holds
+ * up the handling of every evaluation after it. This pool is a work-stealing
+ * ForkJoinPool that is created the first time it is needed and reused until
+ * shutdown() is called (by MMNEAT.clearClasses()). Results are harvested in
+ * the order in which they complete, but are returned in submission order so
+ * that everything downstream stays deterministic.
+ *
+ * Each call to evaluate() also measures how well the pool was used, and
+ * stores the result in an EvaluationPool.Metrics instance.
+ *
+ * @author Jacob Schrum
+ */
+public class EvaluationPool {
+
+	/**
+	 * An evaluation that takes this many times longer than the median
+	 * evaluation of the same batch is counted as a straggler.
+	 */
+	public static final double STRAGGLER_FACTOR = 2.0;
+
+	private static ForkJoinPool pool = null;
+
+	/**
+	 * Timing information about one batch of evaluations. All times are
+	 * in milliseconds.
+	 */
+	public static class Metrics {
+		// Number of evaluations in the batch
+		public int jobs = 0;
+		// Time from first submission until last completion
+		public double wallTime = 0;
+		// Time evaluations waited between submission and the start of execution
+		public double meanQueueWait = 0;
+		public double maxQueueWait = 0;
+		// Time spent actually evaluating
+		public double meanEvalTime = 0;
+		public double maxEvalTime = 0;
+		// Fraction of available thread time spent evaluating
+		public double utilization = 0;
+		// Evaluations taking more than STRAGGLER_FACTOR times the median
+		public int stragglers = 0;
+
+		/**
+		 * Tab separated values in the same order as the fields,
+		 * for log files.
+		 */
+		@Override
+		public String toString() {
+			return jobs + "\t" + wallTime + "\t" + meanQueueWait + "\t" + maxQueueWait + "\t" + meanEvalTime + "\t"
+					+ maxEvalTime + "\t" + utilization + "\t" + stragglers;
+		}
+	}
+
+	/**
+	 * Wraps a job so the times at which it started and finished are known.
+	 */
+	private static class TimedCall<S> implements Callable<S> {
+		private final Callable<S> job;
+		private final long submitted;
+		private long started;
+		private long finished;
+
+		TimedCall(Callable<S> job, long submitted) {
+			this.job = job;
+			this.submitted = submitted;
+		}
+
+		@Override
+		public S call() throws Exception {
+			started = System.nanoTime();
+			try {
+				return job.call();
+			} finally {
+				finished = System.nanoTime();
+			}
+		}
+	}
+
+	/**
+	 * Returns the shared pool, creating it if needed. If a different number
+	 * of threads is requested than the current pool has, the old pool is
+	 * shut down and replaced.
+	 *
+	 * @param threads
+	 *            Number of evaluations to run at once
+	 * @return the shared pool
+	 */
+	public static synchronized ForkJoinPool getPool(int threads) {
+		if (pool == null || pool.isShutdown() || pool.getParallelism() != threads) {
+			if (pool != null) {
+				pool.shutdown();
+			}
+			// Worker threads are daemons, so a pool that is never shut down will not keep the JVM alive
+			pool = new ForkJoinPool(threads);
+		}
+		return pool;
+	}
+
+	/**
+	 * Stops the shared pool once all running evaluations finish.
+	 */
+	public static synchronized void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Run all jobs in the shared pool and wait for all of them to finish.
+	 *
+	 * @param <S>
+	 *            Result type of the jobs
+	 * @param jobs
+	 *            Jobs to run
+	 * @param threads
+	 *            Number of jobs to run at once
+	 * @param metrics
+	 *            Filled with timing information about the batch (may be null)
+	 * @return Result of each job, in the same order as the jobs
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 * @throws ExecutionException
+	 *             if any job throws an exception
+	 */
+	public static <S> ArrayList<S> evaluate(List<? extends Callable<S>> jobs, int threads, Metrics metrics)
+			throws InterruptedException, ExecutionException {
+		CompletionService<S> completion = new ExecutorCompletionService<S>(getPool(threads));
+		ArrayList<TimedCall<S>> timed = new ArrayList<TimedCall<S>>(jobs.size());
+		// Position in the job list of each submitted job
+		HashMap<Future<S>, Integer> indices = new HashMap<Future<S>, Integer>(jobs.size() * 2);
+		long start = System.nanoTime();
+		for (int i = 0; i < jobs.size(); i++) {
+			TimedCall<S> call = new TimedCall<S>(jobs.get(i), System.nanoTime());
+			timed.add(call);
+			indices.put(completion.submit(call), i);
+		}
+
+		S[] results = newArray(jobs.size());
+		try {
+			for (int i = 0; i < jobs.size(); i++) {
+				// Whichever evaluation finishes first is handled first
+				Future<S> done = completion.take();
+				results[indices.get(done)] = done.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			for (Future<S> f : indices.keySet()) {
+				f.cancel(true);
+			}
+			throw e;
+		}
+		long end = System.nanoTime();
+
+		if (metrics != null) {
+			measure(timed, start, end, threads, metrics);
+		}
+		return new ArrayList<S>(Arrays.asList(results));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <S> S[] newArray(int size) {
+		return (S[]) new Object[size];
+	}
+
+	/**
+	 * Compute batch metrics from the times recorded by each TimedCall
+	 */
+	private static <S> void measure(ArrayList<TimedCall<S>> timed, long start, long end, int threads, Metrics metrics) {
+		final double NANOS_PER_MILLI = 1000000.0;
+		int n = timed.size();
+		double[] evalTimes = new double[n];
+		double totalWait = 0;
+		double totalEval = 0;
+		double maxWait = 0;
+		double maxEval = 0;
+		for (int i = 0; i < n; i++) {
+			TimedCall<S> call = timed.get(i);
+			double wait = (call.started - call.submitted) / NANOS_PER_MILLI;
+			evalTimes[i] = (call.finished - call.started) / NANOS_PER_MILLI;
+			totalWait += wait;
+			totalEval += evalTimes[i];
+			maxWait = Math.max(maxWait, wait);
+			maxEval = Math.max(maxEval, evalTimes[i]);
+		}
+		metrics.jobs = n;
+		metrics.wallTime = (end - start) / NANOS_PER_MILLI;
+		metrics.meanQueueWait = n == 0 ? 0 : totalWait / n;
+		metrics.maxQueueWait = maxWait;
+		metrics.meanEvalTime = n == 0 ? 0 : totalEval / n;
+		metrics.maxEvalTime = maxEval;
+		metrics.utilization = metrics.wallTime == 0 ? 0 : totalEval / (Math.min(threads, Math.max(n, 1)) * metrics.wallTime);
+
+		double[] sorted = evalTimes.clone();
+		Arrays.sort(sorted);
+		double median = n == 0 ? 0 : sorted[n / 2];
+		metrics.stragglers = 0;
+		for (int i = 0; i < n; i++) {
+			if (evalTimes[i] > STRAGGLER_FACTOR * median) {
+				metrics.stragglers++;
+			}
+		}
+	}
+}
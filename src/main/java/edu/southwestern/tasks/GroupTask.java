@@ -1,12 +1,21 @@
 package edu.southwestern.tasks;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import wox.serial.Easy;
+import org.jdom.Element;
+import org.jdom.output.XMLOutputter;
+
+import wox.serial.SimpleWriter;
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.evolution.GenerationalEA;
 import edu.southwestern.evolution.genotypes.Genotype;
@@ -23,6 +32,7 @@ import edu.southwestern.tasks.mspacman.CooperativeMsPacManTask;
 import edu.southwestern.util.file.FileUtilities;
 import edu.southwestern.util.graphics.DrawingPanel;
 import edu.southwestern.util.random.RandomNumbers;
+import edu.southwestern.util.random.RandomStream;
 
 /**
  * Task involving multiple individuals taken from separate populations.
@@ -30,6 +40,12 @@ import edu.southwestern.util.random.RandomNumbers;
  * or a different component of a single structure. The different
  * populations may even by in competition.
  *
+ * Each team is evaluated in its own EvaluationContext, and the teams can be
+ * evaluated in parallel if the task says that this is safe. Scores are
+ * combined in team order once all teams are evaluated, so the results are
+ * the same as evaluating the teams one at a time. The best genotypes of each
+ * generation are saved on a separate writer thread.
+ *
  * @author Jacob Schrum
  */
 public abstract class GroupTask implements MultiplePopulationTask {
@@ -56,6 +72,53 @@ public abstract class GroupTask implements MultiplePopulationTask {
 	public MMNEATLog teamLog;
 	private final boolean bestTeamScore;
 
+	/**
+	 * One team evaluation. Each team has its own EvaluationContext, so teams
+	 * evaluated at the same time on different threads do not share games,
+	 * controllers or random numbers.
+	 */
+	@SuppressWarnings("rawtypes") // because each population can have a different type
+	private class TeamEvaluation implements Callable<ArrayList<Score>> {
+
+		private final Genotype[] team;
+		private final EvaluationContext context;
+
+		/**
+		 * @param team genotypes of the teammates
+		 * @param stream random numbers used by the evaluation
+		 */
+		public TeamEvaluation(Genotype[] team, RandomStream stream) {
+			this.team = team;
+			// A team has several members; the context is labeled with the first
+			this.context = new EvaluationContext(team[0], stream);
+		}
+
+		@Override
+		public ArrayList<Score> call() {
+			EvaluationContext previous = context.bind();
+			try {
+				// Visualize (conditional)
+				DrawingPanel[] panels = drawNetworks(team);
+				ArrayList<Score> scores = evaluate(team);
+				disposePanels(panels);
+				return scores;
+			} finally {
+				context.unbind(previous);
+			}
+		}
+	}
+
+	private final boolean parallel;
+	private final int threads;
+	// Random numbers for team evaluations of the current generation
+	private RandomStream generationStream = null;
+	private int streamGeneration = -1;
+	private int evaluationsCreated = 0;
+	// Saves champions to disk, so that evaluation never waits on disk
+	private ExecutorService championWriter = null;
+	// Saves submitted to the championWriter that may not be finished
+	private final ArrayList<Future<?>> pendingSaves = new ArrayList<Future<?>>();
+
 	public GroupTask() {
 		this.teams = Parameters.parameters.integerParameter("teams");
 		if (Parameters.parameters.booleanParameter("io") && Parameters.parameters.booleanParameter("teamLog")) {
@@ -63,6 +126,44 @@ public abstract class GroupTask implements MultiplePopulationTask {
 		}
 		TWEANN.NETWORK_VIEW_DIM = 800 / 5; // Why these magic numbers? Why not 160?
 		this.bestTeamScore = Parameters.parameters.booleanParameter("bestTeamScore");
+		// Networks, inputs and games on screen can only follow one team at a time
+		boolean display = Parameters.parameters.booleanParameter("watch")
+				|| Parameters.parameters.booleanParameter("showNetworks")
+				|| Parameters.parameters.booleanParameter("monitorInputs");
+		this.parallel = Parameters.parameters.booleanParameter("parallelEvaluations") && !display;
+		this.threads = Parameters.parameters.integerParameter("threads");
+	}
+
+	/**
+	 * Whether several teams can be evaluated at the same time on different
+	 * threads. This is only safe if all state that changes during an
+	 * evaluation is local to evaluate(team) or kept in the current
+	 * EvaluationContext. Tasks that pass teams to their controllers through
+	 * shared fields should keep the default, which evaluates the teams one at
+	 * a time (each still in its own EvaluationContext).
+	 *
+	 * @return true if evaluate(team) can be called from several threads at once
+	 */
+	protected boolean parallelTeamEvaluation() {
+		return false;
+	}
+
+	/**
+	 * Random numbers for the EvaluationContext of the next team. Like
+	 * LonerTask.nextEvaluationStream(), the stream only depends on the run
+	 * seed, the generation, and how many teams of that generation were
+	 * created before.
+	 *
+	 * @return stream for next team evaluation
+	 */
+	protected synchronized RandomStream nextTeamStream() {
+		int generation = MMNEAT.ea instanceof GenerationalEA ? ((GenerationalEA) MMNEAT.ea).currentGeneration() : 0;
+		if (generationStream == null || generation != streamGeneration) {
+			generationStream = RandomNumbers.generationStream(generation);
+			streamGeneration = generation;
+			evaluationsCreated = 0;
+		}
+		return generationStream.child(evaluationsCreated++);
 	}
 
 	/**
@@ -153,13 +254,18 @@ public abstract class GroupTask implements MultiplePopulationTask {
 			bestScores[j] = new Score[bestObjectives[j].length]; 
 		}
 
+		// Teams are created in join order before any are evaluated, so the
+		// random numbers of each team do not depend on the evaluation order
+		ArrayList<TeamEvaluation> evaluations = new ArrayList<TeamEvaluation>(totalEvals);
+		for (int i = 0; i < totalEvals; i++) {
+			evaluations.add(new TeamEvaluation(getTeam(populations, teamOrder, i), nextTeamStream()));
+		}
+		ArrayList<ArrayList<Score>> results = evaluateTeams(evaluations);
+
+		// Results are combined in join order, exactly as if the teams were evaluated one at a time
 		for (int i = 0; i < totalEvals; i++) {
-			// Create team
-			Genotype[] team = getTeam(populations, teamOrder, i);
-			// Visualize (conditional)
-			DrawingPanel[] panels = drawNetworks(team);
-			// Evaluate
-			ArrayList<Score> scores = evaluate(team);
+			Genotype[] team = evaluations.get(i).team;
+			ArrayList<Score> scores = results.get(i);
 			// Track the best ms pacman team in each generation
 			if (trackBestPacManScore) {
 				Score firstScoreSet = scores.get(0);
@@ -173,7 +279,6 @@ public abstract class GroupTask implements MultiplePopulationTask {
 			}
 			// Show/track performance (conditional)
 			trackingAndLogging(team, scores);
-			disposePanels(panels);
 			// Distribute scores appropriately
 			addScores(rawScores, teamOrder, i, scores);
 
@@ -195,33 +300,142 @@ public abstract class GroupTask implements MultiplePopulationTask {
 			}
 		}
 		System.out.println(totalEvals + " evaluations conducted");
-		
+
+		// Champions of the previous evaluation had all of this evaluation to be
+		// written, so this rarely waits, but keeps failed saves from going unnoticed
+		flushChampions();
 		if (CommonConstants.netio) {
+			saveBestObjectives(bestGenotypes, bestScores);
+		}
+
+		if (bestPacManTeam != null) {
+			saveBestTeam(bestPacManTeam, bestScoreSet, maxPacManScore);
+		}
+		// re-package scores properly
+		return wrapUpScores(rawScores, populations, teamOrder);
+	}
+
+	/**
+	 * One genotype for each member of the team, and one score for each member
+	 * as well
+	 *
+	 * @param team
+	 *            vector of the genotypes of the teammates
+	 * @return vector of scores to assign to each teammate
+	 */
+	@SuppressWarnings("rawtypes")  // because each population can have a different genotype
+	public abstract ArrayList<Score> evaluate(Genotype[] team);
+
+	/**
+	 * Evaluate a team in a new EvaluationContext. Meant for tasks whose
+	 * evaluate(team) keeps state in the current context, in case they are
+	 * called directly (for example by a post-evolution experiment) rather
+	 * than through evaluateAllPopulations.
+	 *
+	 * @param team genotypes of the teammates
+	 * @return scores of the teammates
+	 */
+	@SuppressWarnings("rawtypes")  // because each population can have a different type
+	protected ArrayList<Score> evaluateInNewContext(Genotype[] team) {
+		EvaluationContext context = new EvaluationContext(team[0], nextTeamStream());
+		EvaluationContext previous = context.bind();
+		try {
+			return evaluate(team);
+		} finally {
+			context.unbind(previous);
+		}
+	}
+
+	/**
+	 * Evaluate teams, in the EvaluationPool if teams are evaluated in parallel
+	 *
+	 * @param evaluations team evaluations in join order
+	 * @return scores of each team, in the same order
+	 */
+	@SuppressWarnings("rawtypes")  // because each population can have a different type
+	private ArrayList<ArrayList<Score>> evaluateTeams(ArrayList<TeamEvaluation> evaluations) {
+		if (!parallel || !parallelTeamEvaluation()) {
+			ArrayList<ArrayList<Score>> results = new ArrayList<ArrayList<Score>>(evaluations.size());
+			for (TeamEvaluation evaluation : evaluations) {
+				results.add(evaluation.call());
+			}
+			return results;
+		}
+		EvaluationPool.Metrics metrics = new EvaluationPool.Metrics();
+		ArrayList<ArrayList<Score>> results = null;
+		try {
+			results = EvaluationPool.evaluate(evaluations, threads, metrics);
+		} catch (InterruptedException | ExecutionException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		}
+		MMNEAT.logEvaluationPoolMetrics("Group", metrics);
+		return results;
+	}
+
+	/**
+	 * Save the best genotype in each objective of each population, along with
+	 * its score. Files are written by the champion writer thread.
+	 *
+	 * @param bestGenotypes best genotype in each objective of each population
+	 * @param bestScores scores of those genotypes
+	 */
+	@SuppressWarnings("rawtypes")  // because each population can have a different type
+	private void saveBestObjectives(Genotype[][] bestGenotypes, Score[][] bestScores) {
+		// Everything that could change before the writer gets to it is looked up now
+		int currentGen = ((GenerationalEA) MMNEAT.ea).currentGeneration();
+		String filePrefix = "gen" + currentGen + "_";
+		String saveDirectory = FileUtilities.getSaveDirectory();
+		boolean saveAllChampions = Parameters.parameters.booleanParameter("saveAllChampions");
+		// Genotypes can be mutated once evolution continues, so they are serialized now
+		Element[][] genotypeXML = new Element[bestGenotypes.length][];
+		String[][] scoreText = new String[bestScores.length][];
+		for (int i = 0; i < bestScores.length; i++) {
+			genotypeXML[i] = new Element[bestGenotypes[i].length];
+			scoreText[i] = new String[bestScores[i].length];
+			for (int j = 0; j < bestScores[i].length; j++) {
+				genotypeXML[i][j] = snapshot(bestGenotypes[i][j]);
+				scoreText[i][j] = bestScores[i][j].toString();
+			}
+		}
+		saveInBackground(() -> {
 			// Go through each population (for saving best objectives and genotypes of each population)
-			for(int i = 0; i < pops; i++){
-				//save the best in each objective for this population (will happen for each population)
-				int currentGen = ((GenerationalEA) MMNEAT.ea).currentGeneration();
-				String filePrefix = "gen" + currentGen + "_";
+			for (int i = 0; i < bestGenotypes.length; i++) {
 				// Save best in each objective
-				String bestDir = FileUtilities.getSaveDirectory() + "/pop" + i + "_bestObjectives";
+				String bestDir = saveDirectory + "/pop" + i + "_bestObjectives";
 				File dir = new File(bestDir);
 				// Delete old contents/team
-				if (dir.exists() && !Parameters.parameters.booleanParameter("saveAllChampions")) {
+				if (dir.exists() && !saveAllChampions) {
 					FileUtilities.deleteDirectoryContents(dir);
 				} else {
 					dir.mkdir();
 				}
 				// save all of the best objectives for this population
-				for (int j = 0; j < bestObjectives[i].length; j++) {
-					Easy.save(bestGenotypes[i][j], bestDir + "/" + filePrefix + "bestIn" + j + ".xml");
-					FileUtilities.simpleFileWrite(bestDir + "/" + filePrefix + "score" + j + ".txt", bestScores[i][j].toString());
+				for (int j = 0; j < bestGenotypes[i].length; j++) {
+					saveSnapshot(genotypeXML[i][j], bestDir + "/" + filePrefix + "bestIn" + j + ".xml");
+					FileUtilities.simpleFileWrite(bestDir + "/" + filePrefix + "score" + j + ".txt", scoreText[i][j]);
 				}
 			}
-		}
+		});
+	}
 
-		if (bestPacManTeam != null) {
-			// Save best pacman team
-			String teamDir = FileUtilities.getSaveDirectory() + "/bestTeam";
+	/**
+	 * Save the Ms. Pac-Man team with the best game score. Files are written
+	 * by the champion writer thread.
+	 *
+	 * @param bestPacManTeam team to save
+	 * @param bestScoreSet score of the team
+	 * @param maxPacManScore game score of the team
+	 */
+	@SuppressWarnings("rawtypes")  // because each population can have a different type
+	private void saveBestTeam(Genotype[] bestPacManTeam, Score bestScoreSet, int maxPacManScore) {
+		String teamDir = FileUtilities.getSaveDirectory() + "/bestTeam";
+		String scoreText = bestScoreSet.toString();
+		Element[] teamXML = new Element[bestPacManTeam.length];
+		for (int i = 0; i < bestPacManTeam.length; i++) {
+			teamXML[i] = snapshot(bestPacManTeam[i]);
+		}
+		saveInBackground(() -> {
 			File bestDir = new File(teamDir);
 			// Delete old contents/team 
 			// TODO: Modify this so that the best team from each generation is saved if desired
@@ -230,26 +444,74 @@ public abstract class GroupTask implements MultiplePopulationTask {
 			} else {
 				bestDir.mkdir();
 			}
-			for (int i = 0; i < bestPacManTeam.length; i++) {
-				Easy.save(bestPacManTeam[i], teamDir + "/teamMember" + i + ".xml");
+			for (int i = 0; i < teamXML.length; i++) {
+				saveSnapshot(teamXML[i], teamDir + "/teamMember" + i + ".xml");
 			}
 			System.out.println("Saved best team with score of " + maxPacManScore);
-			FileUtilities.simpleFileWrite(teamDir + "/score.txt", bestScoreSet.toString());
+			FileUtilities.simpleFileWrite(teamDir + "/score.txt", scoreText);
+		});
+	}
+
+	/**
+	 * Serialize a genotype in the same format as Easy.save, but without
+	 * writing it yet. The resulting XML does not change when the genotype does.
+	 *
+	 * @param genotype genotype to serialize
+	 * @return XML for the genotype
+	 */
+	private static Element snapshot(Object genotype) {
+		return new SimpleWriter().write(genotype);
+	}
+
+	/**
+	 * Write a genotype serialized by snapshot to a file, so that it can be
+	 * loaded with Easy.load.
+	 *
+	 * @param xml serialized genotype
+	 * @param filename file to write
+	 */
+	private static void saveSnapshot(Element xml, String filename) {
+		try (FileWriter file = new FileWriter(filename)) {
+			new XMLOutputter().output(xml, file);
+			System.out.println("Saved object to " + filename);
+		} catch (Exception e) {
+			e.printStackTrace();
 		}
-		// re-package scores properly
-		return wrapUpScores(rawScores, populations, teamOrder);
 	}
 
 	/**
-	 * One genotype for each member of the team, and one score for each member
-	 * as well
+	 * Give a save to the champion writer thread. Saves are written in the
+	 * order they are submitted, so a newer champion always replaces an older
+	 * one on disk.
 	 *
-	 * @param team
-	 *            vector of the genotypes of the teammates
-	 * @return vector of scores to assign to each teammate
+	 * @param save code that writes files
 	 */
-	@SuppressWarnings("rawtypes")  // because each population can have a different genotype
-	public abstract ArrayList<Score> evaluate(Genotype[] team);
+	private synchronized void saveInBackground(Runnable save) {
+		if (championWriter == null) {
+			championWriter = Executors.newSingleThreadExecutor((r) -> {
+				Thread t = new Thread(r, "Group task champion writer");
+				t.setDaemon(true); // flushChampions() must be called to be sure everything was written
+				return t;
+			});
+		}
+		pendingSaves.add(championWriter.submit(save));
+	}
+
+	/**
+	 * Wait until all champions submitted so far have been written to disk.
+	 */
+	public synchronized void flushChampions() {
+		try {
+			for (Future<?> save : pendingSaves) {
+				save.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			System.out.println("Failed to save champions");
+			e.printStackTrace();
+			System.exit(1);
+		}
+		pendingSaves.clear();
+	}
 
 	/**
 	 * Get the index-th team to evaluate according to the joinOrder.
@@ -9,13 +9,12 @@ import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.GenerationalEA;
 import edu.southwestern.evolution.genotypes.Genotype;
 import edu.southwestern.evolution.genotypes.HyperNEATCPPNforDL4JGenotype;
 import edu.southwestern.evolution.genotypes.TWEANNGenotype;
@@ -30,6 +29,8 @@ import edu.southwestern.tasks.mspacman.MsPacManTask;
 import edu.southwestern.util.PopulationUtil;
 import edu.southwestern.util.datastructures.Pair;
 import edu.southwestern.util.file.FileUtilities;
+import edu.southwestern.util.random.RandomNumbers;
+import edu.southwestern.util.random.RandomStream;
 import edu.southwestern.util.graphics.DrawingPanel;
 import wox.serial.Easy;
 
@@ -54,6 +55,7 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 
 		private final Genotype<T> genotype;
 		private final LonerTask<T> task;
+		private final EvaluationContext context;
 
 		/**
 		 * a constructor for creating an evaluation thread
@@ -64,6 +66,9 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 		public EvaluationThread(LonerTask<T> task, Genotype<T> g) {
 			this.genotype = g;
 			this.task = task;
+			// Streams are handed out in the order evaluations are created, which
+			// does not depend on the order in which they run
+			this.context = new EvaluationContext(g, task.nextEvaluationStream());
 		}
 
 		/**
@@ -73,9 +78,23 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 		 * @return score the fitness score of the agent of this task based on
 		 *         evaluation
 		 */
-		@SuppressWarnings("unchecked")
 		@Override
 		public Score<T> call() {
+			EvaluationContext previous = context.bind();
+			try {
+				return evaluateInContext();
+			} finally {
+				context.unbind(previous);
+			}
+		}
+
+		/**
+		 * Evaluation performed while the context is bound to the current thread
+		 *
+		 * @return score of the genotype
+		 */
+		@SuppressWarnings("unchecked")
+		private Score<T> evaluateInContext() {
 			// Before any evaluation happens
 			preEval();
 			//System.out.println("preEval done on gen " + MMNEAT.ea.currentGeneration());
@@ -130,16 +149,68 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 
 	private final boolean parallel;
 	private final int threads;
+	// Random numbers for evaluations of the current generation
+	private RandomStream generationStream = null;
+	private int streamGeneration = -1;
+	private int evaluationsCreated = 0;
 
 	/**
 	 * constructor for a LonerTask based upon command line specified evaluation
 	 * and thread parameters
 	 */
 	public LonerTask() {
-		this.parallel = Parameters.parameters.booleanParameter("parallelEvaluations");
+		// Displays such as TWEANN.panel and the single MMNEAT.evalReport
+		// can only follow one evaluation at a time
+		boolean display = Parameters.parameters.booleanParameter("watch")
+				|| Parameters.parameters.booleanParameter("showNetworks")
+				|| Parameters.parameters.booleanParameter("viewModePreference")
+				|| Parameters.parameters.booleanParameter("monitorInputs")
+				|| Parameters.parameters.booleanParameter("evalReport");
+		this.parallel = Parameters.parameters.booleanParameter("parallelEvaluations") && !display;
+		if (display && Parameters.parameters.booleanParameter("parallelEvaluations")) {
+			System.out.println("Evaluations will be serial because they are being displayed or reported");
+		}
 		this.threads = Parameters.parameters.integerParameter("threads");
 	}
 
+	/**
+	 * Whether individuals of this task can be evaluated in parallel, assuming
+	 * parallelEvaluations is set. Tasks whose evaluations rely on shared
+	 * state that cannot be copied for each evaluation should override this
+	 * to return false in that situation.
+	 *
+	 * @return true if evaluations can be run in parallel
+	 */
+	protected boolean parallelEvaluationSupported() {
+		return true;
+	}
+
+	/**
+	 * @return whether evaluations are actually run in parallel
+	 */
+	private boolean evaluateInParallel() {
+		return parallel && parallelEvaluationSupported();
+	}
+
+	/**
+	 * Random numbers for the EvaluationContext of the next evaluation. The
+	 * stream only depends on the run seed, the generation, and how many
+	 * evaluations of that generation were created before, so every
+	 * evaluation gets the same random numbers regardless of the number of
+	 * threads.
+	 *
+	 * @return stream for next evaluation
+	 */
+	protected synchronized RandomStream nextEvaluationStream() {
+		int generation = MMNEAT.ea instanceof GenerationalEA ? ((GenerationalEA) MMNEAT.ea).currentGeneration() : 0;
+		if (generationStream == null || generation != streamGeneration) {
+			generationStream = RandomNumbers.generationStream(generation);
+			streamGeneration = generation;
+			evaluationsCreated = 0;
+		}
+		return generationStream.child(evaluationsCreated++);
+	}
+
 	/**
 	 * a method to evaluate one genotype
 	 * 
@@ -151,6 +222,31 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 		return new EvaluationThread(this, genotype).call();
 	}
 	
+	/**
+	 * Evaluate several genotypes, in the EvaluationPool if evaluations are
+	 * parallel. Unlike evaluateAll, nothing is done with the scores besides
+	 * returning them, so this suits steady-state EAs that evaluate a few
+	 * individuals at a time.
+	 *
+	 * @param genotypes
+	 *            genotypes to evaluate
+	 * @return scores in the same order as the genotypes
+	 */
+	public ArrayList<Score<T>> evaluateBatch(List<Genotype<T>> genotypes) {
+		ArrayList<EvaluationThread> calls = new ArrayList<EvaluationThread>(genotypes.size());
+		for (Genotype<T> g : genotypes) {
+			calls.add(new EvaluationThread(this, g));
+		}
+		if (evaluateInParallel()) {
+			return evaluateInPool(calls, "Batch");
+		}
+		ArrayList<Score<T>> scores = new ArrayList<Score<T>>(calls.size());
+		for (EvaluationThread call : calls) {
+			scores.add(call.call());
+		}
+		return scores;
+	}
+
 	/**
 	 * Code that can be executed before each evaluation starts
 	 */
@@ -171,8 +267,6 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 		// a list of the fitness scores of the population
 		ArrayList<Score<T>> scores = new ArrayList<Score<T>>(population.size());
 
-		ExecutorService poolExecutor = null;
-		ArrayList<Future<Score<T>>> futures = null;
 		ArrayList<EvaluationThread> calls = new ArrayList<EvaluationThread>(population.size());
 
 		// get each genotype for the population and add an EvaluationThread for
@@ -183,14 +277,10 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 			calls.add(callable);
 		}
 
-		if (parallel) {
-			poolExecutor = Executors.newFixedThreadPool(threads);
-			futures = new ArrayList<Future<Score<T>>>(population.size());
-			for (int i = 0; i < population.size(); i++) {
-				Future<Score<T>> future = poolExecutor.submit(calls.get(i));
-				futures.add(future);
-			}
-		}
+		// In parallel, results are collected in whatever order evaluations
+		// finish, but are then handled in population order as before
+		boolean inParallel = evaluateInParallel();
+		ArrayList<Score<T>> results = inParallel ? evaluateInPool(calls, "Population") : null;
 
 		// General tracking of best in each objective
 		double[] bestObjectives = minScores();
@@ -205,33 +295,28 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 		boolean trackBestPacManScore = CommonConstants.netio && this instanceof MsPacManTask
 				&& MMNEAT.ea instanceof MuLambda && ((MuLambda<T>) MMNEAT.ea).evaluatingParents;
 		for (int i = 0; i < population.size(); i++) {
-			try {
-				Score<T> s = parallel ? futures.get(i).get() : calls.get(i).call();
-				// Specific to Ms Pac-Man
-				if (trackBestPacManScore) {
-					int gameScore = (int) s.otherStats[0]; // Game Score is always first
-					if (gameScore >= maxPacManScore) {
-						bestPacMan = s.individual;
-						maxPacManScore = gameScore;
-						bestScoreSet = s;
-					}
+			Score<T> s = inParallel ? results.get(i) : calls.get(i).call();
+			// Specific to Ms Pac-Man
+			if (trackBestPacManScore) {
+				int gameScore = (int) s.otherStats[0]; // Game Score is always first
+				if (gameScore >= maxPacManScore) {
+					bestPacMan = s.individual;
+					maxPacManScore = gameScore;
+					bestScoreSet = s;
 				}
-				// Best in each objective
-				for (int j = 0; j < bestObjectives.length; j++) {
-					double objectiveScore = s.scores[j];
+			}
+			// Best in each objective
+			for (int j = 0; j < bestObjectives.length; j++) {
+				double objectiveScore = s.scores[j];
                     // i == 0 saves first member of the population as the tentative best until a better individual is found
-					if (i == 0 || objectiveScore >= bestObjectives[j]) {
+				if (i == 0 || objectiveScore >= bestObjectives[j]) {
                         // update best individual in objective j
-						bestGenotypes[j] = s.individual;
-						bestObjectives[j] = objectiveScore;
-						bestScores[j] = s;
-					}
+					bestGenotypes[j] = s.individual;
+					bestObjectives[j] = objectiveScore;
+					bestScores[j] = s;
 				}
-				scores.add(s);
-			} catch (InterruptedException | ExecutionException ex) {
-				ex.printStackTrace();
-				System.exit(1);
 			}
+			scores.add(s);
 		}
 
 		if (bestPacMan != null) {
@@ -253,10 +338,6 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 			PopulationUtil.saveBestOfCurrentGen(bestObjectives, bestGenotypes, bestScores);
 		}
 
-		if (parallel) {
-			poolExecutor.shutdown();
-		}
-
 		/**
 		 * If using UCB to decide who to give extra evals to, then by this point
 		 * every member of the population will have been evaluated (preferably
@@ -275,21 +356,36 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 			UCB1Comparator<T> ucb1 = new UCB1Comparator<T>(index, scores.size(), max);
 			Collections.sort(scores, ucb1);
 			int last = scores.size() - 1;
-			// Perform the budgeted number of evals
-			for (int i = 0; i < evaluationBudget; i++) {
-				// Highest UCB is always at end, so evaluate it
-				Score<T> oldScore = scores.get(last);
-				// System.out.print(ucb1.ucb1(oldScore) + "::" + oldScore +
-				// "->");
-				EvaluationThread callable = new EvaluationThread(this, oldScore.individual);
-				Score<T> newScore = oldScore.incrementalAverage(callable.call());
-				// After eval, insert the individual into the correct slot in
+			// Perform the budgeted number of evals. In parallel, the individuals
+			// with the highest UCB values are evaluated together in a batch
+			// before the UCB values are updated.
+			int batchSize = inParallel ? Math.min(threads, scores.size()) : 1;
+			for (int i = 0; i < evaluationBudget; i += batchSize) {
+				int batch = Math.min(batchSize, evaluationBudget - i);
+				// Highest UCB is always at end, so evaluate the end of the list
+				ArrayList<EvaluationThread> extraCalls = new ArrayList<EvaluationThread>(batch);
+				for (int j = 0; j < batch; j++) {
+					extraCalls.add(new EvaluationThread(this, scores.get(last - j).individual));
+				}
+				ArrayList<Score<T>> extraScores;
+				if (inParallel) {
+					extraScores = evaluateInPool(extraCalls, "UCB1");
+				} else {
+					extraScores = new ArrayList<Score<T>>(1);
+					extraScores.add(extraCalls.get(0).call());
+				}
+				for (int j = 0; j < batch; j++) {
+					Score<T> oldScore = scores.get(last - j);
+					// System.out.print(ucb1.ucb1(oldScore) + "::" + oldScore +
+					// "->");
+					Score<T> newScore = oldScore.incrementalAverage(extraScores.get(j));
+					ucb1.increaseTotal();
+					// System.out.println(ucb1.ucb1(newScore) + "::" + newScore);
+					ucb1.setMax(newScore.scores[index]);
+					scores.set(last - j, newScore);
+				}
+				// After eval, put the individuals into the correct slots in
 				// sorted list
-				ucb1.increaseTotal();
-				// System.out.println(ucb1.ucb1(newScore) + "::" + newScore);
-				ucb1.setMax(newScore.scores[index]);
-
-				scores.set(last, newScore);
 				Collections.sort(scores, ucb1);
 			}
 		}
@@ -297,6 +393,29 @@ public abstract class LonerTask<T> implements SinglePopulationTask<T> {
 		return scores;
 	}
 
+	/**
+	 * Evaluate a batch of individuals in the shared EvaluationPool, and log
+	 * how well the pool was used if logging is enabled.
+	 *
+	 * @param calls
+	 *            evaluations to perform
+	 * @param phase
+	 *            label for the log indicating why the evaluations were done
+	 * @return scores in the same order as the calls
+	 */
+	private ArrayList<Score<T>> evaluateInPool(ArrayList<EvaluationThread> calls, String phase) {
+		EvaluationPool.Metrics metrics = new EvaluationPool.Metrics();
+		ArrayList<Score<T>> results = null;
+		try {
+			results = EvaluationPool.evaluate(calls, threads, metrics);
+		} catch (InterruptedException | ExecutionException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		}
+		MMNEAT.logEvaluationPoolMetrics(phase, metrics);
+		return results;
+	}
+
 	/**
 	 * defines the evaluate method to be implemented elsewhere
 	 * 
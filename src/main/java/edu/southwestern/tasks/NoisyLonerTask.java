@@ -68,6 +68,25 @@ public abstract class NoisyLonerTask<T> extends LonerTask<T> {
 	 */
 	public abstract Pair<double[], double[]> oneEval(Genotype<T> individual, int num);
 
+	/**
+	 * A single evaluation of a genotype, with access to state that belongs
+	 * only to this evaluation. Tasks that can safely be evaluated in parallel
+	 * keep their game state in the context rather than in fields of the task.
+	 * By default, the context is ignored.
+	 *
+	 * @param individual
+	 *            genotype to be evaluated
+	 * @param num
+	 *            which evaluation is currently being performed
+	 * @param context
+	 *            state of the current evaluation
+	 * @return Combination of fitness scores (multiobjective possible), and
+	 *         other scores (for tracking non-fitness data)
+	 */
+	public Pair<double[], double[]> oneEval(Genotype<T> individual, int num, EvaluationContext context) {
+		return oneEval(individual, num);
+	}
+
 	/**
 	 * Evaluate an agent by subjecting it to several separate evaluations/trials
 	 * in the domain. Return the fitness score(s)
@@ -79,6 +98,30 @@ public abstract class NoisyLonerTask<T> extends LonerTask<T> {
 	 */
 	@Override
 	public Score<T> evaluate(Genotype<T> individual) {
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			// Called directly rather than through an EvaluationThread
+			context = new EvaluationContext(individual, nextEvaluationStream());
+			EvaluationContext previous = context.bind();
+			try {
+				return evaluate(individual, context);
+			} finally {
+				context.unbind(previous);
+			}
+		}
+		return evaluate(individual, context);
+	}
+
+	/**
+	 * Perform all trials of the evaluation in the given context
+	 *
+	 * @param individual
+	 *            Genotype of individual to be evaluated
+	 * @param context
+	 *            state of this evaluation, bound to the current thread
+	 * @return score instance containing the fitness scores
+	 */
+	private Score<T> evaluate(Genotype<T> individual, EvaluationContext context) {
 		prep();
 		int numTrials;
 		// Determine the number of trials to evaluate the agent for
@@ -101,7 +144,8 @@ public abstract class NoisyLonerTask<T> extends LonerTask<T> {
 			if (MMNEAT.evalReport != null) {
 				MMNEAT.evalReport.log("Eval " + i + ":");
 			}
-			Pair<double[], double[]> result = oneEval(individual, i);
+			context.startTrial(i);
+			Pair<double[], double[]> result = oneEval(individual, i, context);
 			if (printFitness) {
 				System.out.println(Arrays.toString(result.t1) + Arrays.toString(result.t2));
 				if (individual instanceof TWEANNGenotype) {
@@ -2,8 +2,9 @@ package edu.southwestern.tasks;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.evolution.GenerationalEA;
@@ -12,21 +13,31 @@ import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.scores.MultiObjectiveScore;
 import edu.southwestern.scores.Score;
+import edu.southwestern.tasks.coevolution.GroupPairing;
 import edu.southwestern.util.ClassCreation;
 import edu.southwestern.util.PopulationUtil;
 import edu.southwestern.util.datastructures.Pair;
 import edu.southwestern.util.graphics.DrawingPanel;
+import edu.southwestern.util.random.RandomNumbers;
+import edu.southwestern.util.random.RandomStream;
 import edu.southwestern.util.stats.Statistic;
 
 public abstract class SinglePopulationCoevolutionTask<T> implements SinglePopulationTask<T>{
 
 	private Statistic stat;
+	private GroupPairing pairing;
 	public final boolean printFitness;
+	private final boolean parallel;
+	private final int threads;
 
 	public SinglePopulationCoevolutionTask() {
 		this.printFitness = Parameters.parameters.booleanParameter("printFitness");
+		// Panels can only follow one match at a time
+		this.parallel = Parameters.parameters.booleanParameter("parallelEvaluations") && !Parameters.parameters.booleanParameter("watch");
+		this.threads = Parameters.parameters.integerParameter("threads");
 		try {
 			stat = (Statistic) ClassCreation.createObject("noisyTaskStat");
+			pairing = (GroupPairing) ClassCreation.createObject("coevolutionPairing");
 		} catch (NoSuchMethodException ex) {
 			ex.printStackTrace();
 			System.exit(1);
@@ -49,36 +60,30 @@ public abstract class SinglePopulationCoevolutionTask<T> implements SinglePopula
 
 	public abstract int groupSize();
 	
-	@SuppressWarnings("unchecked")
-	@Override
-	public ArrayList<Score<T>> evaluateAll(ArrayList<Genotype<T>> population) {
-		// Used to randomly group agents in the population
-		ArrayList<Integer> groupOrder = new ArrayList<Integer>(population.size());
-		// Track scores
-		ArrayList<ArrayList<Pair<double[], double[]>>> allScores = new ArrayList<ArrayList<Pair<double[], double[]>>>(population.size());
-		for(int i = 0; i < population.size(); i++) {
-			groupOrder.add(i); // Index in population
-			allScores.add(new ArrayList<Pair<double[], double[]>>(CommonConstants.trials)); // anticipate one batch of scores per trial
+	/**
+	 * One match between the members of a group. Each match has its own
+	 * EvaluationContext, so the game, players and random numbers of
+	 * matches played at the same time on different threads are separate.
+	 */
+	private class Match implements Callable<ArrayList<Pair<double[], double[]>>> {
+
+		private final ArrayList<Genotype<T>> group;
+		private final EvaluationContext context;
+
+		/**
+		 * @param group individuals playing the match
+		 * @param stream random numbers used by the match
+		 */
+		public Match(ArrayList<Genotype<T>> group, RandomStream stream) {
+			this.group = group;
+			// A match has several individuals; the context is labeled with the first
+			this.context = new EvaluationContext(group.get(0), stream);
 		}
-		
-		int groupSize = groupSize(); // Replace: make task dependent
-		
-		assert population.size()%groupSize == 0 : "Population size " + population.size() + " should be divisible by group size " + groupSize;
-		
-		double[] bestObjectives = minScores();
-		Genotype<T>[] bestGenotypes = new Genotype[bestObjectives.length];
-		Score<T>[] bestScores = new Score[bestObjectives.length];
-		
-		for(int i = 0; i < CommonConstants.trials; i++){
-			Collections.shuffle(groupOrder); // Randomize who individuals are grouped with
-			for(int j = 0; j < population.size(); j+= groupSize){ // for each group
-				// Assign individuals to the group to be evaluated
-				ArrayList<Genotype<T>> group = new ArrayList<Genotype<T>>(groupSize);
-				for(int k = 0; k < groupSize; k++) {
-					group.add(population.get(groupOrder.get(j+k)));
-				}
-				preEval();
-				
+
+		@Override
+		public ArrayList<Pair<double[], double[]>> call() {
+			EvaluationContext previous = context.bind();
+			try {
 				// Call getDrawingPanels here; every Genotype displays its control Network and CPPN panel
 				List<Pair<DrawingPanel, DrawingPanel>> drawPanels = new ArrayList<>(); // Stores the DrawingPanels to be drawn
 				
@@ -100,14 +105,6 @@ public abstract class SinglePopulationCoevolutionTask<T> implements SinglePopula
 				// Get scores
 				ArrayList<Pair<double[], double[]>> result = evaluateGroup(group);
 				
-				if(printFitness) {
-					for(int q = 0; q < result.size(); q++) {
-						Pair<double[], double[]> pair = result.get(q);
-						System.out.println(group.get(q).getId()+": "+Arrays.toString(pair.t1)+Arrays.toString(pair.t2));
-					}
-					System.out.println("--------------------------");
-				}
-				
 				// Clean up all Panels here
 				for(Pair<DrawingPanel, DrawingPanel> panelSet : drawPanels){
 					if(panelSet.t1 != null)
@@ -115,16 +112,112 @@ public abstract class SinglePopulationCoevolutionTask<T> implements SinglePopula
 					if(panelSet.t2 != null)
 						panelSet.t2.dispose();
 				}
-				drawPanels.clear();
+				return result;
+			} finally {
+				context.unbind(previous);
+			}
+		}
+	}
+	
+	/**
+	 * Random numbers for the current generation. Child 0 decides the groups,
+	 * child 1 is split into one stream per match, and child 2 into one stream
+	 * per individual (see individualStream).
+	 */
+	private static RandomStream generationStream() {
+		return RandomNumbers.generationStream(MMNEAT.ea instanceof GenerationalEA ? ((GenerationalEA) MMNEAT.ea).currentGeneration() : 0);
+	}
+	
+	/**
+	 * Random numbers for evaluating a single individual apart from its
+	 * matches, such as games against a static opponent. These only depend on
+	 * the seed, the generation and the individual, so the result is the same
+	 * no matter which of the individual's matches triggers the evaluation.
+	 *
+	 * @param individual Genotype being evaluated
+	 * @return stream for that individual in the current generation
+	 */
+	public static RandomStream individualStream(Genotype<?> individual) {
+		return generationStream().child(2).child(individual.getId());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ArrayList<Score<T>> evaluateAll(ArrayList<Genotype<T>> population) {
+		// Track scores
+		ArrayList<ArrayList<Pair<double[], double[]>>> allScores = new ArrayList<ArrayList<Pair<double[], double[]>>>(population.size());
+		for(int i = 0; i < population.size(); i++) {
+			allScores.add(new ArrayList<Pair<double[], double[]>>(CommonConstants.trials)); // anticipate one batch of scores per trial
+		}
+		
+		int groupSize = groupSize(); // Replace: make task dependent
+		
+		assert population.size()%groupSize == 0 : "Population size " + population.size() + " should be divisible by group size " + groupSize;
+		
+		double[] bestObjectives = minScores();
+		Genotype<T>[] bestGenotypes = new Genotype[bestObjectives.length];
+		Score<T>[] bestScores = new Score[bestObjectives.length];
+		
+		// Groups and matches only depend on the seed and the generation, and
+		// scores are recorded in the order the matches were planned, so
+		// playing the matches in parallel gives the same scores as playing
+		// them one at a time
+		RandomStream generation = generationStream();
+		RandomStream pairingStream = generation.child(0);
+		RandomStream matchStreams = generation.child(1);
+		int matchesCreated = 0;
+
+		// Every match faces the same Hall of Fame Champions (none exist before the first generation ends)
+		if(MMNEAT.hallOfFame != null && MMNEAT.ea instanceof GenerationalEA && ((GenerationalEA) MMNEAT.ea).currentGeneration() > 0) {
+			MMNEAT.hallOfFame.updateChampions();
+		}
+
+		double[] standings = new double[population.size()];
+		List<int[]> earlierGroups = new ArrayList<int[]>();
+		int rounds = pairing.rounds(population.size(), groupSize);
+		int round = 0;
+		while(round < rounds) {
+			// Plan as many rounds as possible before playing any of them
+			int lastRound = pairing.usesStandings() ? round + 1 : rounds;
+			List<int[]> groups = new ArrayList<int[]>();
+			ArrayList<Match> matches = new ArrayList<Match>();
+			for(; round < lastRound; round++) {
+				for(int[] members : pairing.round(round, population.size(), groupSize, standings, earlierGroups, pairingStream)) {
+					// Assign individuals to the group to be evaluated
+					ArrayList<Genotype<T>> group = new ArrayList<Genotype<T>>(groupSize);
+					for(int k = 0; k < groupSize; k++) {
+						group.add(population.get(members[k]));
+					}
+					groups.add(members);
+					matches.add(new Match(group, matchStreams.child(matchesCreated++)));
+				}
+			}
+			preEval();
+			
+			ArrayList<ArrayList<Pair<double[], double[]>>> results = playMatches(matches);
+			
+			for(int j = 0; j < groups.size(); j++) {
+				int[] members = groups.get(j);
+				ArrayList<Pair<double[], double[]>> result = results.get(j);
+				if(printFitness) {
+					for(int q = 0; q < result.size(); q++) {
+						Pair<double[], double[]> pair = result.get(q);
+						System.out.println(population.get(members[q]).getId()+": "+Arrays.toString(pair.t1)+Arrays.toString(pair.t2));
+					}
+					System.out.println("--------------------------");
+				}
 				
 				// Save scores in the right place
 				for(int k = 0; k < groupSize; k++) {
-					assert j+k < groupOrder.size() : "Should have "+j+"+"+k+" < " + groupOrder.size();
-					assert groupOrder.get(j+k) < allScores.size() : "Should have "+groupOrder.get(j+k)+" < "+allScores.size();
+					assert members[k] < allScores.size() : "Should have "+members[k]+" < "+allScores.size();
 					assert k < result.size() : "Should have "+k+" < "+result.size();
-					allScores.get(groupOrder.get(j+k)).add(result.get(k));
+					allScores.get(members[k]).add(result.get(k));
+					if(result.get(k).t1.length > 0) {
+						standings[members[k]] += result.get(k).t1[0];
+					}
 				}
 			}
+			earlierGroups.addAll(groups);
 		}
 		
 		// Collect scores
@@ -184,6 +277,32 @@ public abstract class SinglePopulationCoevolutionTask<T> implements SinglePopula
 		return scores;
 	}
 
+	/**
+	 * Play matches, in the EvaluationPool if evaluations are parallel
+	 *
+	 * @param matches matches to play
+	 * @return results in the same order as the matches
+	 */
+	private ArrayList<ArrayList<Pair<double[], double[]>>> playMatches(ArrayList<Match> matches) {
+		if(!parallel) {
+			ArrayList<ArrayList<Pair<double[], double[]>>> results = new ArrayList<ArrayList<Pair<double[], double[]>>>(matches.size());
+			for(Match match : matches) {
+				results.add(match.call());
+			}
+			return results;
+		}
+		EvaluationPool.Metrics metrics = new EvaluationPool.Metrics();
+		ArrayList<ArrayList<Pair<double[], double[]>>> results = null;
+		try {
+			results = EvaluationPool.evaluate(matches, threads, metrics);
+		} catch (InterruptedException | ExecutionException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		}
+		MMNEAT.logEvaluationPoolMetrics("Coevolution", metrics);
+		return results;
+	}
+
 	/**
 	 * Helper method; Extracts the information from an ArrayList of Pairs of Double Arrays
 	 * 
@@ -214,7 +333,9 @@ public abstract class SinglePopulationCoevolutionTask<T> implements SinglePopula
 	}
 	
 	/**
-	 * Evaluates the Genotypes in a given ArrayList<Genotype<T>> and saves the fitness for each individual
+	 * Evaluates the Genotypes in a given ArrayList<Genotype<T>> and saves the fitness for each individual.
+	 * When evaluations are parallel, several groups are evaluated at once on different threads, each
+	 * with its own EvaluationContext, so anything that changes during a match should be kept there.
 	 * 
 	 * @param group
 	 * @return ArrayList<Pair<double[], double[]>> representing the fitness of the individuals in the group
@@ -30,12 +30,11 @@ public class BoardGameUtil {
 	static TwoDimensionalBoardGameViewer view = null;
 	private static boolean stepByStep = Parameters.parameters.booleanParameter("stepByStep");
 	private static boolean printFitness = Parameters.parameters.booleanParameter("printFitness");
-	private static int openingRandomMoves = Parameters.parameters.integerParameter("boardGameOpeningRandomMoves");
 	
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public static <T extends BoardGameState> ArrayList<Pair<double[], double[]>> playGame(BoardGame<T> bg, BoardGamePlayer<T>[] players, List<BoardGameFitnessFunction<T>> fitScores, List<BoardGameFitnessFunction<T>> otherFit){
 		// This needs to reset every time in case increasing random moves are used
-		openingRandomMoves = Parameters.parameters.integerParameter("boardGameOpeningRandomMoves");
+		int openingRandomMoves = Parameters.parameters.integerParameter("boardGameOpeningRandomMoves");
 		if(CommonConstants.watch && bg instanceof TwoDimensionalBoardGame){ // Creates a new BoardGameViewer if bg is a TwoDimensionalBoardGame
 			view = MMNEAT.boardGameViewer;
 		}
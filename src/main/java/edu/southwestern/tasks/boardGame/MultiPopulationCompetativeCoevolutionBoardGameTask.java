@@ -5,7 +5,6 @@ import java.util.List;
 
 import edu.southwestern.boardGame.BoardGame;
 import edu.southwestern.boardGame.BoardGameState;
-import edu.southwestern.boardGame.agents.BoardGamePlayer;
 import edu.southwestern.boardGame.agents.HeuristicBoardGamePlayer;
 import edu.southwestern.boardGame.featureExtractor.BoardGameFeatureExtractor;
 import edu.southwestern.boardGame.fitnessFunction.BoardGameFitnessFunction;
@@ -21,6 +20,7 @@ import edu.southwestern.networks.hyperneat.HyperNEATTask;
 import edu.southwestern.networks.hyperneat.Substrate;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.scores.Score;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.GroupTask;
 import edu.southwestern.util.ClassCreation;
 import edu.southwestern.util.datastructures.ArrayUtil;
@@ -30,42 +30,40 @@ import edu.southwestern.util.datastructures.Triple;
 public class MultiPopulationCompetativeCoevolutionBoardGameTask<S extends BoardGameState> extends GroupTask implements NetworkTask, HyperNEATTask  {
 
 	BoardGame<S> bg;
-	BoardGamePlayer<S>[] players;
 	BoardGameFeatureExtractor<S> featExtract;
 	
-	List<BoardGameFitnessFunction<S>> fitFunctions = new ArrayList<BoardGameFitnessFunction<S>>();
-	List<BoardGameFitnessFunction<S>> otherScores = new ArrayList<BoardGameFitnessFunction<S>>();
+	List<BoardGameFitnessFunction<S>> fitFunctions;
+	List<BoardGameFitnessFunction<S>> otherScores;
+	
+	// Key for the Evaluation stored in an EvaluationContext
+	private static final Object EVALUATION_KEY = new Object();
+	
+	/**
+	 * The board, players and fitness functions all change while a game is
+	 * played, so each team gets its own copies. This allows several teams
+	 * to be evaluated in parallel.
+	 */
+	private class Evaluation {
+		BoardGame<S> boardGame;
+		HeuristicBoardGamePlayer<S>[] players;
+		List<BoardGameFitnessFunction<S>> fitFunctions;
+		List<BoardGameFitnessFunction<S>> otherScores;
+	}
 	
 	@SuppressWarnings("unchecked")
 	public MultiPopulationCompetativeCoevolutionBoardGameTask(){
 		
 		try {
 			bg = (BoardGame<S>) ClassCreation.createObject("boardGame");
-			players = new BoardGamePlayer[numberOfPopulations()];
 			featExtract = (BoardGameFeatureExtractor<S>) ClassCreation.createObject("boardGameFeatureExtractor");
-			for(int i = 0; i < numberOfPopulations(); i++){
-				players[i] = (BoardGamePlayer<S>) ClassCreation.createObject("boardGamePlayer"); // The Player
-			}
 		} catch (NoSuchMethodException e) {
 			e.printStackTrace();
 			System.out.println("BoardGame instance could not be loaded");
 			System.exit(1);
 		}
 		
-		// Add Fitness Functions here to act as Selection Functions
-		if(Parameters.parameters.booleanParameter("boardGameSimpleFitness")){
-			fitFunctions.add(new SimpleWinLoseDrawBoardGameFitness<S>());
-		}
-		if(Parameters.parameters.booleanParameter("boardGameCheckersFitness")){
-			fitFunctions.add(new CheckersAdvancedFitness<S>());
-		}
-		if(Parameters.parameters.booleanParameter("boardGameOthelloFitness")){
-			fitFunctions.add((BoardGameFitnessFunction<S>) new OthelloPieceFitness());
-		}
-		
-		// Add Fitness Functions here to keep track of Other Scores
-		otherScores.add(new SimpleWinLoseDrawBoardGameFitness<S>());
-		otherScores.add(new WinPercentageBoardGameFitness<S>());
+		fitFunctions = createFitnessFunctions();
+		otherScores = createOtherScores();
 		
 		for(int i = 0; i < bg.getNumPlayers(); i++){
 			for(BoardGameFitnessFunction<S> fit : fitFunctions){
@@ -79,6 +77,88 @@ public class MultiPopulationCompetativeCoevolutionBoardGameTask<S extends BoardG
 		
 	}
 	
+	/**
+	 * Fitness Functions used as Selection Functions, according to the command line parameters
+	 * 
+	 * @return new instances of each Fitness Function
+	 */
+	@SuppressWarnings("unchecked")
+	private List<BoardGameFitnessFunction<S>> createFitnessFunctions() {
+		List<BoardGameFitnessFunction<S>> result = new ArrayList<BoardGameFitnessFunction<S>>();
+		// Add Fitness Functions here to act as Selection Functions
+		if(Parameters.parameters.booleanParameter("boardGameSimpleFitness")){
+			result.add(new SimpleWinLoseDrawBoardGameFitness<S>());
+		}
+		if(Parameters.parameters.booleanParameter("boardGameCheckersFitness")){
+			result.add(new CheckersAdvancedFitness<S>());
+		}
+		if(Parameters.parameters.booleanParameter("boardGameOthelloFitness")){
+			result.add((BoardGameFitnessFunction<S>) new OthelloPieceFitness());
+		}
+		return result;
+	}
+	
+	/**
+	 * Fitness Functions that are only tracked as Other Scores
+	 * 
+	 * @return new instances of each Fitness Function
+	 */
+	private List<BoardGameFitnessFunction<S>> createOtherScores() {
+		List<BoardGameFitnessFunction<S>> result = new ArrayList<BoardGameFitnessFunction<S>>();
+		// Add Fitness Functions here to keep track of Other Scores
+		result.add(new SimpleWinLoseDrawBoardGameFitness<S>());
+		result.add(new WinPercentageBoardGameFitness<S>());
+		return result;
+	}
+	
+	/**
+	 * @return state of the team being evaluated on the current thread. Outside of
+	 *         an EvaluationContext, a new game is created every time.
+	 */
+	private Evaluation evaluation() {
+		EvaluationContext context = EvaluationContext.current();
+		Evaluation evaluation = context == null ? null : context.get(EVALUATION_KEY);
+		if (evaluation == null) {
+			evaluation = newEvaluation();
+			if (context != null) {
+				context.put(EVALUATION_KEY, evaluation);
+			}
+		}
+		return evaluation;
+	}
+	
+	/**
+	 * Creates the board, players and fitness functions used by one team
+	 * 
+	 * @return fresh game state
+	 */
+	@SuppressWarnings("unchecked")
+	private Evaluation newEvaluation() {
+		Evaluation game = new Evaluation();
+		game.fitFunctions = createFitnessFunctions();
+		game.otherScores = createOtherScores();
+		game.players = new HeuristicBoardGamePlayer[numberOfPopulations()];
+		try {
+			game.boardGame = (BoardGame<S>) ClassCreation.createObject("boardGame");
+			for(int i = 0; i < game.players.length; i++){
+				game.players[i] = (HeuristicBoardGamePlayer<S>) ClassCreation.createObject("boardGamePlayer"); // The Player
+			}
+		} catch (NoSuchMethodException e) {
+			e.printStackTrace();
+			System.out.println("BoardGame instance could not be loaded");
+			System.exit(1);
+		}
+		return game;
+	}
+	
+	/**
+	 * Each team plays on its own board with its own players
+	 */
+	@Override
+	protected boolean parallelTeamEvaluation() {
+		return true;
+	}
+	
 	@Override
 	public int numberOfPopulations() {
 		return bg.getNumPlayers();
@@ -111,17 +191,15 @@ public class MultiPopulationCompetativeCoevolutionBoardGameTask<S extends BoardG
 	@Override
 	public ArrayList<Score> evaluate(Genotype[] team) {
 		
+		Evaluation game = evaluation();
 		// Copied from SinglePopulationCompetativeCoevolutionBoardGameTask
-		HeuristicBoardGamePlayer<S>[] teamPlayers = new HeuristicBoardGamePlayer[team.length];
 		int index = 0;
 		for(Genotype gene : team){
-			HeuristicBoardGamePlayer<S> evolved = (HeuristicBoardGamePlayer<S>) players[index]; // Creates the Player based on the command line
-			evolved.setHeuristic((new NNBoardGameHeuristic(gene.getId(), featExtract, gene)));
-			teamPlayers[index++] = evolved;
+			game.players[index++].setHeuristic((new NNBoardGameHeuristic(gene.getId(), featExtract, gene)));
 		}
 		// End of Copied Code
 		
-		ArrayList<Pair<double[], double[]>> scored = BoardGameUtil.playGame(bg, teamPlayers, fitFunctions, otherScores);
+		ArrayList<Pair<double[], double[]>> scored = BoardGameUtil.playGame(game.boardGame, game.players, game.fitFunctions, game.otherScores);
 		
 		ArrayList<Score> finalScores = new ArrayList<Score>();
 		
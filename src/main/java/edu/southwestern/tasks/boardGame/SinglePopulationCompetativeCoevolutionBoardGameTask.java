@@ -3,8 +3,8 @@ package edu.southwestern.tasks.boardGame;
 import java.util.ArrayList;
 import java.util.List;
 
+import edu.southwestern.boardGame.BoardGame;
 import edu.southwestern.boardGame.BoardGameState;
-import edu.southwestern.boardGame.agents.BoardGamePlayer;
 import edu.southwestern.boardGame.agents.HeuristicBoardGamePlayer;
 import edu.southwestern.boardGame.featureExtractor.BoardGameFeatureExtractor;
 import edu.southwestern.boardGame.fitnessFunction.BoardGameFitnessFunction;
@@ -22,6 +22,7 @@ import edu.southwestern.networks.NetworkTask;
 import edu.southwestern.networks.hyperneat.HyperNEATTask;
 import edu.southwestern.networks.hyperneat.Substrate;
 import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.SinglePopulationCoevolutionTask;
 import edu.southwestern.util.ClassCreation;
 import edu.southwestern.util.datastructures.Pair;
@@ -29,55 +30,136 @@ import edu.southwestern.util.datastructures.Triple;
 
 public class SinglePopulationCompetativeCoevolutionBoardGameTask<T extends Network, S extends BoardGameState> extends SinglePopulationCoevolutionTask<T> implements NetworkTask, HyperNEATTask  {
 
-	BoardGamePlayer<S>[] players;
 	BoardGameFeatureExtractor<S> featExtract;
 	
-	List<BoardGameFitnessFunction<S>> fitFunctions = new ArrayList<BoardGameFitnessFunction<S>>();
-	List<BoardGameFitnessFunction<S>> otherScores = new ArrayList<BoardGameFitnessFunction<S>>();
+	List<BoardGameFitnessFunction<S>> fitFunctions;
+	List<BoardGameFitnessFunction<S>> otherScores;
+	
+	// Fitness Functions that only depend on the individual, not on the game being played,
+	// so one instance with one cache is shared by all matches
+	private HallOfFameFitness<T,S> hallOfFameFitness = null;
+	private StaticOtherOpponentFitness<S> staticOpponentFitness;
+	
+	// Key for the Evaluation stored in an EvaluationContext
+	private static final Object EVALUATION_KEY = new Object();
+	
+	/**
+	 * The board, players and fitness functions all change while a game is
+	 * played, so each match gets its own copies. This allows several
+	 * matches to be played in parallel.
+	 */
+	private class Evaluation {
+		BoardGame<S> boardGame;
+		HeuristicBoardGamePlayer<S>[] players;
+		List<BoardGameFitnessFunction<S>> fitFunctions;
+		List<BoardGameFitnessFunction<S>> otherScores;
+	}
 	
 	@SuppressWarnings("unchecked")
 	public SinglePopulationCompetativeCoevolutionBoardGameTask(){
 		try {
-			players = new BoardGamePlayer[groupSize()];
 			featExtract = (BoardGameFeatureExtractor<S>) ClassCreation.createObject("boardGameFeatureExtractor");
-			for(int i = 0; i < groupSize(); i++){
-				players[i] = (BoardGamePlayer<S>) ClassCreation.createObject("boardGamePlayer"); // The Player
-			}
 		} catch (NoSuchMethodException e) {
 			e.printStackTrace();
 			System.out.println("BoardGame instance could not be loaded");
 			System.exit(1);
 		}
 		
-		// Add Fitness Functions here to act as Selection Functions
-		if(Parameters.parameters.booleanParameter("boardGameSimpleFitness")){
-			fitFunctions.add(new SimpleWinLoseDrawBoardGameFitness<S>());
-		}
-		if(Parameters.parameters.booleanParameter("boardGameCheckersFitness")){
-			fitFunctions.add(new CheckersAdvancedFitness<S>());
-		}
 		if(Parameters.parameters.booleanParameter("hallOfFame")){
-			fitFunctions.add(new HallOfFameFitness<T,S>());
-		}
-		if(Parameters.parameters.booleanParameter("boardGameOthelloFitness")){
-			fitFunctions.add((BoardGameFitnessFunction<S>) new OthelloPieceFitness());
+			hallOfFameFitness = new HallOfFameFitness<T,S>();
 		}
+		staticOpponentFitness = new StaticOtherOpponentFitness<S>(); // Automatically is set to boardGameOpponent
 		
+		fitFunctions = createFitnessFunctions();
 		for(BoardGameFitnessFunction<S> fit : fitFunctions){
 			MMNEAT.registerFitnessFunction(fit.getFitnessName());
 		}
 		
-		// Add Fitness Functions here to keep track of Other Scores
-		otherScores.add(new SimpleWinLoseDrawBoardGameFitness<S>());
-		otherScores.add(new StaticOtherOpponentFitness<S>()); // Automatically is set to boardGameOpponent
-		otherScores.add(new WinPercentageBoardGameFitness<S>());
-		
+		otherScores = createOtherScores();
 		for(BoardGameFitnessFunction<S> fit : otherScores){
 			MMNEAT.registerFitnessFunction(fit.getFitnessName(), false);
 		}
 		
 	}
 	
+	/**
+	 * Fitness Functions used as Selection Functions, according to the command line parameters
+	 * 
+	 * @return new instances of each Fitness Function that depends on the game
+	 */
+	@SuppressWarnings("unchecked")
+	private List<BoardGameFitnessFunction<S>> createFitnessFunctions() {
+		List<BoardGameFitnessFunction<S>> result = new ArrayList<BoardGameFitnessFunction<S>>();
+		// Add Fitness Functions here to act as Selection Functions
+		if(Parameters.parameters.booleanParameter("boardGameSimpleFitness")){
+			result.add(new SimpleWinLoseDrawBoardGameFitness<S>());
+		}
+		if(Parameters.parameters.booleanParameter("boardGameCheckersFitness")){
+			result.add(new CheckersAdvancedFitness<S>());
+		}
+		if(hallOfFameFitness != null){
+			result.add(hallOfFameFitness);
+		}
+		if(Parameters.parameters.booleanParameter("boardGameOthelloFitness")){
+			result.add((BoardGameFitnessFunction<S>) new OthelloPieceFitness());
+		}
+		return result;
+	}
+	
+	/**
+	 * Fitness Functions that are only tracked as Other Scores
+	 * 
+	 * @return new instances of each Fitness Function that depends on the game
+	 */
+	private List<BoardGameFitnessFunction<S>> createOtherScores() {
+		List<BoardGameFitnessFunction<S>> result = new ArrayList<BoardGameFitnessFunction<S>>();
+		// Add Fitness Functions here to keep track of Other Scores
+		result.add(new SimpleWinLoseDrawBoardGameFitness<S>());
+		result.add(staticOpponentFitness);
+		result.add(new WinPercentageBoardGameFitness<S>());
+		return result;
+	}
+	
+	/**
+	 * @return state of the match being played on the current thread. Outside of
+	 *         an EvaluationContext, a new match is created every time.
+	 */
+	private Evaluation evaluation() {
+		EvaluationContext context = EvaluationContext.current();
+		Evaluation evaluation = context == null ? null : context.get(EVALUATION_KEY);
+		if (evaluation == null) {
+			evaluation = newEvaluation();
+			if (context != null) {
+				context.put(EVALUATION_KEY, evaluation);
+			}
+		}
+		return evaluation;
+	}
+	
+	/**
+	 * Creates the board, players and fitness functions used by one match
+	 * 
+	 * @return fresh match state
+	 */
+	@SuppressWarnings("unchecked")
+	private Evaluation newEvaluation() {
+		Evaluation match = new Evaluation();
+		match.fitFunctions = createFitnessFunctions();
+		match.otherScores = createOtherScores();
+		match.players = new HeuristicBoardGamePlayer[groupSize()];
+		try {
+			match.boardGame = (BoardGame<S>) ClassCreation.createObject("boardGame");
+			for(int i = 0; i < match.players.length; i++){
+				match.players[i] = (HeuristicBoardGamePlayer<S>) ClassCreation.createObject("boardGamePlayer"); // The Player
+			}
+		} catch (NoSuchMethodException e) {
+			e.printStackTrace();
+			System.out.println("BoardGame instance could not be loaded");
+			System.exit(1);
+		}
+		return match;
+	}
+	
 	@Override
 	public int numObjectives() {
 		return fitFunctions.size();
@@ -101,17 +183,14 @@ public class SinglePopulationCompetativeCoevolutionBoardGameTask<T extends Netwo
 		return minScore;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public ArrayList<Pair<double[], double[]>> evaluateGroup(ArrayList<Genotype<T>> group) {
-		HeuristicBoardGamePlayer<S>[] teamPlayers = new HeuristicBoardGamePlayer[group.size()];
+		Evaluation match = evaluation();
 		int index = 0;
 		for(Genotype<T> gene : group){
-			HeuristicBoardGamePlayer<S> evolved = (HeuristicBoardGamePlayer<S>) players[index]; // Creates the Player based on the command line
-			evolved.setHeuristic((new NNBoardGameHeuristic<T,S>(gene.getId(), featExtract, gene)));
-			teamPlayers[index++] = evolved;
+			match.players[index++].setHeuristic((new NNBoardGameHeuristic<T,S>(gene.getId(), featExtract, gene)));
 		}
-		return BoardGameUtil.playGame(MMNEAT.boardGame, teamPlayers, fitFunctions, otherScores);
+		return BoardGameUtil.playGame(match.boardGame, match.players, match.fitFunctions, match.otherScores);
 	}
 
 	@Override
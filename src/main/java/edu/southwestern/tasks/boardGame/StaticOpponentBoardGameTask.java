@@ -24,6 +24,7 @@ import edu.southwestern.networks.hyperneat.HyperNEATTask;
 import edu.southwestern.networks.hyperneat.Substrate;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.scores.Score;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.NoisyLonerTask;
 import edu.southwestern.util.ClassCreation;
 import edu.southwestern.util.datastructures.ArrayUtil;
@@ -33,14 +34,31 @@ import edu.southwestern.util.datastructures.Triple;
 public class StaticOpponentBoardGameTask<T extends Network, S extends BoardGameState> extends NoisyLonerTask<T> implements NetworkTask, HyperNEATTask {
 
 	private int winRateIndex = 0;
-	private boolean increaseRandomMoves = false;
+	// Can be set by several evaluations running in parallel
+	private volatile boolean increaseRandomMoves = false;
 	
 	BoardGamePlayer<S> opponent;
 	HeuristicBoardGamePlayer<S> player;
 	BoardGameFeatureExtractor<S> featExtract;
 	
-	List<BoardGameFitnessFunction<S>> fitFunctions = new ArrayList<BoardGameFitnessFunction<S>>();
-	List<BoardGameFitnessFunction<S>> otherScores = new ArrayList<BoardGameFitnessFunction<S>>();
+	List<BoardGameFitnessFunction<S>> fitFunctions;
+	List<BoardGameFitnessFunction<S>> otherScores;
+	
+	// Key for the Evaluation stored in an EvaluationContext
+	private static final Object EVALUATION_KEY = new Object();
+	
+	/**
+	 * The board, players and fitness functions all change while a game is
+	 * played, so each evaluation gets its own copies. This allows several
+	 * genotypes to be evaluated in parallel.
+	 */
+	private class Evaluation {
+		BoardGame<S> boardGame;
+		HeuristicBoardGamePlayer<S> player;
+		BoardGamePlayer<S> opponent;
+		List<BoardGameFitnessFunction<S>> fitFunctions;
+		List<BoardGameFitnessFunction<S>> otherScores;
+	}
 	
 	/**
 	 * Constructor for a new BoardGameTask
@@ -57,37 +75,94 @@ public class StaticOpponentBoardGameTask<T extends Network, S extends BoardGameS
 			System.exit(1);
 		}
 		
+		fitFunctions = createFitnessFunctions();
+		for(BoardGameFitnessFunction<S> fit: fitFunctions){
+			MMNEAT.registerFitnessFunction(fit.getFitnessName());
+		}
+		
+		otherScores = createOtherScores();
+		for(BoardGameFitnessFunction<S> fit : otherScores){
+			MMNEAT.registerFitnessFunction(fit.getFitnessName(), false);
+		}
+		
+	}
+	
+	/**
+	 * Fitness Functions used as Selection Functions, according to the command line parameters
+	 * 
+	 * @return new instances of each Fitness Function
+	 */
+	@SuppressWarnings("unchecked")
+	private List<BoardGameFitnessFunction<S>> createFitnessFunctions() {
+		List<BoardGameFitnessFunction<S>> result = new ArrayList<BoardGameFitnessFunction<S>>();
 		// Add Fitness Functions here to add as Selection Functions
 		if(Parameters.parameters.booleanParameter("boardGameSimpleFitness")){
-			fitFunctions.add(new SimpleWinLoseDrawBoardGameFitness<S>());
+			result.add(new SimpleWinLoseDrawBoardGameFitness<S>());
 		}
 		if(Parameters.parameters.booleanParameter("boardGameCheckersFitness")){
-			fitFunctions.add(new CheckersAdvancedFitness<S>());
+			result.add(new CheckersAdvancedFitness<S>());
 		}
 		if(Parameters.parameters.booleanParameter("boardGameOthelloFitness")){
-			fitFunctions.add((BoardGameFitnessFunction<S>) new OthelloPieceFitness());
+			result.add((BoardGameFitnessFunction<S>) new OthelloPieceFitness());
 		}
 		if(Parameters.parameters.booleanParameter("boardGameWinPercentFitness")) {
-			fitFunctions.add(new WinPercentageBoardGameFitness<S>());
-		}
-		
-		for(BoardGameFitnessFunction<S> fit: fitFunctions){
-			MMNEAT.registerFitnessFunction(fit.getFitnessName());
+			result.add(new WinPercentageBoardGameFitness<S>());
 		}
-		
+		return result;
+	}
+	
+	/**
+	 * Fitness Functions that are only tracked as Other Scores
+	 * 
+	 * @return new instances of each Fitness Function
+	 */
+	private List<BoardGameFitnessFunction<S>> createOtherScores() {
+		List<BoardGameFitnessFunction<S>> result = new ArrayList<BoardGameFitnessFunction<S>>();
 		int index = 0; // index in other scores
 		// Add Fitness Functions here to keep track of Other Scores
-		otherScores.add(new SimpleWinLoseDrawBoardGameFitness<S>()); 
+		result.add(new SimpleWinLoseDrawBoardGameFitness<S>()); 
 		index++;
 		winRateIndex = index; // tracked to see if number of random opens needs to increase
-		otherScores.add(new WinPercentageBoardGameFitness<S>());
+		result.add(new WinPercentageBoardGameFitness<S>());
 		index++;
-		otherScores.add(new OpeningRandomMovesScore<S>());
+		result.add(new OpeningRandomMovesScore<S>());
 		index++;
-		for(BoardGameFitnessFunction<S> fit : otherScores){
-			MMNEAT.registerFitnessFunction(fit.getFitnessName(), false);
+		return result;
+	}
+
+	/**
+	 * @return state of the evaluation running on the current thread. Outside of
+	 *         an EvaluationContext, this is the state shared by the whole task.
+	 */
+	@SuppressWarnings("unchecked")
+	private Evaluation evaluation() {
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			Evaluation shared = new Evaluation();
+			shared.boardGame = (BoardGame<S>) MMNEAT.boardGame;
+			shared.player = player;
+			shared.opponent = opponent;
+			shared.fitFunctions = fitFunctions;
+			shared.otherScores = otherScores;
+			return shared;
 		}
-		
+		Evaluation evaluation = context.get(EVALUATION_KEY);
+		if (evaluation == null) {
+			evaluation = new Evaluation();
+			evaluation.fitFunctions = createFitnessFunctions();
+			evaluation.otherScores = createOtherScores();
+			try {
+				evaluation.boardGame = (BoardGame<S>) ClassCreation.createObject("boardGame");
+				evaluation.player = (HeuristicBoardGamePlayer<S>) ClassCreation.createObject("boardGamePlayer");
+				evaluation.opponent = (BoardGamePlayer<S>) ClassCreation.createObject("boardGameOpponent");
+			} catch (NoSuchMethodException e) {
+				e.printStackTrace();
+				System.out.println("BoardGame instance could not be loaded");
+				System.exit(1);
+			}
+			context.put(EVALUATION_KEY, evaluation);
+		}
+		return evaluation;
 	}
 
 	public int numOtherScores() {
@@ -142,7 +217,7 @@ public class StaticOpponentBoardGameTask<T extends Network, S extends BoardGameS
 	 */
 	@Override
 	public ArrayList<Double> getBehaviorVector() {
-		return ArrayUtil.doubleVectorFromArray(MMNEAT.boardGame.getDescription());
+		return ArrayUtil.doubleVectorFromArray(evaluation().boardGame.getDescription());
 	}
 
 	/**
@@ -157,11 +232,11 @@ public class StaticOpponentBoardGameTask<T extends Network, S extends BoardGameS
 	@SuppressWarnings("unchecked")
 	@Override
 	public Pair<double[], double[]> oneEval(Genotype<T> individual, int num) {
-
-		player.setHeuristic((new NNBoardGameHeuristic<T,S>(individual.getId(), featExtract, individual)));
-		BoardGamePlayer<S>[] players = new BoardGamePlayer[]{player, opponent};
+		Evaluation e = evaluation();
+		e.player.setHeuristic((new NNBoardGameHeuristic<T,S>(individual.getId(), featExtract, individual)));
+		BoardGamePlayer<S>[] players = new BoardGamePlayer[]{e.player, e.opponent};
 		// get(0) because information for both players is returned, but only the first is about the evolved player
-		return BoardGameUtil.playGame((BoardGame<S>) MMNEAT.boardGame, players, fitFunctions, otherScores).get(0);
+		return BoardGameUtil.playGame(e.boardGame, players, e.fitFunctions, e.otherScores).get(0);
 	}
 	
 	/**
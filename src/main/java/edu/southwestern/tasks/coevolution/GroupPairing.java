@@ -0,0 +1,54 @@
+package edu.southwestern.tasks.coevolution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Decides which members of a single population are grouped together to play
+ * a match in competitive coevolution. Evaluation of a generation is split into
+ * rounds, and each round places every individual in exactly one group, so all
+ * individuals play the same number of matches. Schemes differ in how many
+ * rounds they need, which trades the number of matches played against how
+ * accurately the matches rank the population.
+ *
+ * Indices refer to positions in the population. All randomness must come from
+ * the Random passed in, so that the same seed always produces the same groups.
+ *
+ * @author Jacob Schrum
+ */
+public interface GroupPairing {
+
+	/**
+	 * Number of rounds played in one generation
+	 *
+	 * @param populationSize number of individuals
+	 * @param groupSize number of individuals in each match
+	 * @return number of rounds
+	 */
+	public int rounds(int populationSize, int groupSize);
+
+	/**
+	 * Whether the groups of a round depend on the results of earlier rounds.
+	 * If not, all rounds of a generation are planned before any match is
+	 * played, so that all matches can run at once. Otherwise, each round is
+	 * only planned once the previous one is finished.
+	 *
+	 * @return true if round() uses the standings
+	 */
+	public boolean usesStandings();
+
+	/**
+	 * Groups for one round
+	 *
+	 * @param round index of the round within the generation
+	 * @param populationSize number of individuals
+	 * @param groupSize number of individuals in each match
+	 * @param standings total of the first objective that each individual
+	 *                  scored in earlier rounds (all 0 in the first round)
+	 * @param earlierGroups groups of all earlier rounds of the generation
+	 * @param random source of randomness
+	 * @return groups of population indices, which together contain every index once
+	 */
+	public ArrayList<int[]> round(int round, int populationSize, int groupSize, double[] standings, List<int[]> earlierGroups, Random random);
+}
@@ -0,0 +1,50 @@
+package edu.southwestern.tasks.coevolution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import edu.southwestern.parameters.CommonConstants;
+
+/**
+ * Each round randomly divides the population into groups, and there is one
+ * round per trial. Each individual therefore meets k random opponents (or
+ * groups of opponents), where k is the number of trials. This is the cheapest
+ * scheme, and the one single population coevolution has always used.
+ *
+ * @author Jacob Schrum
+ */
+public class RandomGroupPairing implements GroupPairing {
+
+	@Override
+	public int rounds(int populationSize, int groupSize) {
+		return CommonConstants.trials;
+	}
+
+	@Override
+	public boolean usesStandings() {
+		return false;
+	}
+
+	@Override
+	public ArrayList<int[]> round(int round, int populationSize, int groupSize, double[] standings, List<int[]> earlierGroups, Random random) {
+		int[] order = new int[populationSize];
+		for(int i = 0; i < populationSize; i++) {
+			order[i] = i;
+		}
+		// Fisher-Yates shuffle
+		for(int i = populationSize - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = order[i];
+			order[i] = order[j];
+			order[j] = temp;
+		}
+		ArrayList<int[]> groups = new ArrayList<int[]>(populationSize / groupSize);
+		for(int j = 0; j < populationSize; j += groupSize) {
+			int[] group = new int[groupSize];
+			System.arraycopy(order, j, group, 0, groupSize);
+			groups.add(group);
+		}
+		return groups;
+	}
+}
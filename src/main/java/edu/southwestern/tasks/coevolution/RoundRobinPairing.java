@@ -0,0 +1,51 @@
+package edu.southwestern.tasks.coevolution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import edu.southwestern.parameters.CommonConstants;
+
+/**
+ * Every individual plays every other individual once per trial, using the
+ * circle method: one individual stays in place while the rest rotate by one
+ * position each round, and individuals at opposite positions are paired.
+ * This takes populationSize-1 rounds per trial, which is the most accurate
+ * and the most expensive scheme. Only matches between two individuals are
+ * supported.
+ *
+ * @author Jacob Schrum
+ */
+public class RoundRobinPairing implements GroupPairing {
+
+	@Override
+	public int rounds(int populationSize, int groupSize) {
+		if(groupSize != 2) {
+			System.out.println("Round robin pairing requires a group size of 2, not " + groupSize);
+			System.exit(1);
+		}
+		return CommonConstants.trials * (populationSize - 1);
+	}
+
+	@Override
+	public boolean usesStandings() {
+		return false;
+	}
+
+	@Override
+	public ArrayList<int[]> round(int round, int populationSize, int groupSize, double[] standings, List<int[]> earlierGroups, Random random) {
+		int rotation = round % (populationSize - 1);
+		ArrayList<int[]> groups = new ArrayList<int[]>(populationSize / 2);
+		for(int i = 0; i < populationSize / 2; i++) {
+			groups.add(new int[]{position(i, rotation, populationSize), position(populationSize - 1 - i, rotation, populationSize)});
+		}
+		return groups;
+	}
+
+	/**
+	 * Individual at a position of the circle after it rotated some number of times
+	 */
+	private static int position(int index, int rotation, int populationSize) {
+		return index == 0 ? 0 : 1 + (index - 1 + rotation) % (populationSize - 1);
+	}
+}
@@ -0,0 +1,94 @@
+package edu.southwestern.tasks.coevolution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import edu.southwestern.parameters.CommonConstants;
+
+/**
+ * Swiss tournament with one round per trial. The first round is random, and
+ * every later round groups individuals with similar standings, so that close
+ * competitors meet each other and matches between clearly stronger and
+ * weaker individuals are avoided. The best ranked individual without a group
+ * starts the next group, and is joined by the best ranked remaining
+ * individuals it has not met yet this generation. Rematches only happen when
+ * no one else is left.
+ *
+ * This costs as much as RandomGroupPairing, but ranks the top of the
+ * population more accurately.
+ *
+ * @author Jacob Schrum
+ */
+public class SwissPairing implements GroupPairing {
+
+	@Override
+	public int rounds(int populationSize, int groupSize) {
+		return CommonConstants.trials;
+	}
+
+	@Override
+	public boolean usesStandings() {
+		return true;
+	}
+
+	@Override
+	public ArrayList<int[]> round(int round, int populationSize, int groupSize, double[] standings, List<int[]> earlierGroups, Random random) {
+		// Random order first, so that ties in the standings are broken randomly
+		ArrayList<int[]> shuffled = new RandomGroupPairing().round(round, populationSize, groupSize, standings, earlierGroups, random);
+		Integer[] ranking = new Integer[populationSize];
+		int index = 0;
+		for(int[] group : shuffled) {
+			for(int member : group) {
+				ranking[index++] = member;
+			}
+		}
+		if(round == 0) {
+			return shuffled;
+		}
+		Arrays.sort(ranking, new Comparator<Integer>() { // Stable sort, best first
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(standings[b], standings[a]);
+			}
+		});
+
+		boolean[][] met = new boolean[populationSize][populationSize];
+		for(int[] group : earlierGroups) {
+			for(int a : group) {
+				for(int b : group) {
+					met[a][b] = true;
+				}
+			}
+		}
+
+		boolean[] assigned = new boolean[populationSize];
+		ArrayList<int[]> groups = new ArrayList<int[]>(populationSize / groupSize);
+		for(int first = 0; first < populationSize; first++) {
+			if(assigned[ranking[first]]) continue;
+			int[] group = new int[groupSize];
+			group[0] = ranking[first];
+			assigned[group[0]] = true;
+			for(int k = 1; k < groupSize; k++) {
+				int choice = -1;
+				int fallback = -1;
+				for(int i = first + 1; i < populationSize && choice == -1; i++) {
+					int candidate = ranking[i];
+					if(assigned[candidate]) continue;
+					if(fallback == -1) fallback = candidate;
+					boolean fresh = true;
+					for(int m = 0; m < k; m++) {
+						fresh = fresh && !met[group[m]][candidate];
+					}
+					if(fresh) choice = candidate;
+				}
+				group[k] = choice == -1 ? fallback : choice;
+				assigned[group[k]] = true;
+			}
+			groups.add(group);
+		}
+		return groups;
+	}
+}
@@ -8,6 +8,7 @@ import edu.southwestern.gridTorus.TorusPredPreyGame;
 import edu.southwestern.gridTorus.controllers.TorusPredPreyController;
 import edu.southwestern.networks.Network;
 import edu.southwestern.networks.NetworkTask;
+import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.scores.Score;
 import edu.southwestern.tasks.GroupTask;
 
@@ -89,6 +90,37 @@ public abstract class GroupTorusPredPreyTask<T extends Network> extends GroupTas
 	public void finalCleanup() {
 	}
 
+	/**
+	 * Each team gets its own controllers, and the game is kept in the
+	 * EvaluationContext of the team, so teams can be evaluated in parallel
+	 */
+	@Override
+	protected boolean parallelTeamEvaluation() {
+		return true;
+	}
+
+	/**
+	 * Controllers of some of the evolved agents, out of an array holding
+	 * controllers for all evolved agents of one team. Each team needs its own
+	 * array, since other teams may be evaluated at the same time. Input
+	 * monitors are disposed of through the evolved agents of the task, so the
+	 * controllers are copied there too when monitoring inputs, which only
+	 * happens when teams are evaluated one at a time.
+	 *
+	 * @param agents controllers of all evolved agents of the team
+	 * @param start index of the first controller to return
+	 * @param length number of controllers to return
+	 * @return controllers from start to start + length
+	 */
+	protected TorusPredPreyController[] evolvedControllers(TorusPredPreyController[] agents, int start, int length) {
+		TorusPredPreyController[] result = new TorusPredPreyController[length];
+		System.arraycopy(agents, start, result, 0, length);
+		if (CommonConstants.monitorInputs) {
+			System.arraycopy(agents, start, task.evolved, start, length);
+		}
+		return result;
+	}
+
 	/**
 	 * gets and returns the sensor labels for this task
 	 * @return sensor labels in an array of strings
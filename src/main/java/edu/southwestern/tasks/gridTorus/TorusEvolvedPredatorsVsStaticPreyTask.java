@@ -42,9 +42,11 @@ public class TorusEvolvedPredatorsVsStaticPreyTask<T extends Network> extends To
 	 */
 	@Override
 	public TorusPredPreyController[] getPredAgents(Genotype<T> individual) {
-		evolved = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPredators")];
-		getEvolvedControllers(evolved, individual, true);
-		return evolved;
+		// Local reference, since the evolved field can be replaced by a parallel evaluation
+		TorusPredPreyController[] agents = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPredators")];
+		getEvolvedControllers(agents, individual, true);
+		evolved = agents;
+		return agents;
 	}
 
 	@Override
@@ -64,8 +64,10 @@ public class TorusEvolvedPreyVsStaticPredatorsTask<T extends Network> extends To
 	 *            (homogeneous team)
 	 */
 	public TorusPredPreyController[] getPreyAgents(Genotype<T> individual) {
-		evolved = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPreys")];
-		getEvolvedControllers(evolved, individual, false);
-		return evolved; 
+		// Local reference, since the evolved field can be replaced by a parallel evaluation
+		TorusPredPreyController[] agents = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPreys")];
+		getEvolvedControllers(agents, individual, false);
+		evolved = agents;
+		return agents;
 	}
 }
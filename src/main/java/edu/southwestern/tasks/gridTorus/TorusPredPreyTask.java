@@ -21,6 +21,7 @@ import edu.southwestern.networks.hyperneat.HyperNEATTask;
 import edu.southwestern.networks.hyperneat.Substrate;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.NoisyLonerTask;
 import edu.southwestern.tasks.gridTorus.objectives.GridTorusObjective;
 import edu.southwestern.tasks.gridTorus.objectives.PredatorCatchCloseObjective;
@@ -105,7 +106,10 @@ public abstract class TorusPredPreyTask<T extends Network> extends NoisyLonerTas
 	// list of other scores, which don't effect evolution
 	public ArrayList<ArrayList<GridTorusObjective<T>>> otherScores = new ArrayList<ArrayList<GridTorusObjective<T>>>();
 
+	// Only used when evaluating outside of an EvaluationContext
 	private TorusWorldExec exec;
+	// Key for the exec of the current trial in an EvaluationContext
+	private static final Object EXEC_KEY = new Object();
 
 	/**
 	 * ONLY FOR COMPETITIVE COEVOLUTION
@@ -179,14 +183,18 @@ public abstract class TorusPredPreyTask<T extends Network> extends NoisyLonerTas
 		TorusPredPreyController[] predAgents = getPredAgents(individual);
 		TorusPredPreyController[] preyAgents = getPreyAgents(individual);
 
+		// The evolved field is shared by all evaluations, so a local reference
+		// is needed when evaluations run in parallel
+		TorusPredPreyController[] evolvedAgents = competitive ? evolved : (preyEvolve ? preyAgents : predAgents);
+
 		TorusPredPreyGame game = runEval(predAgents, preyAgents);
 
 		// gets the controller of the evolved agent(s), gets its network, and
 		// stores the number of modules for that network
-		int numModes = ((NNTorusPredPreyController) evolved[0]).nn.numModules();
+		int numModes = ((NNTorusPredPreyController) evolvedAgents[0]).nn.numModules();
 		// this will store the number of times each module is used by each agent
 		int[] overallAgentModeUsage = new int[numModes];
-		for (TorusPredPreyController agent : evolved) {
+		for (TorusPredPreyController agent : evolvedAgents) {
 			// get the list of all modules used by this agent and store how many
 			// times that module is used in that spot in the array
 			int[] thisAgentModeUsage = ((NNTorusPredPreyController) agent).nn.getModuleUsage();
@@ -217,7 +225,13 @@ public abstract class TorusPredPreyTask<T extends Network> extends NoisyLonerTas
 	}
 
 	public TorusPredPreyGame runEval(TorusPredPreyController[] predAgents, TorusPredPreyController[] preyAgents) {
-		exec = new TorusWorldExec();
+		TorusWorldExec exec = new TorusWorldExec();
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			this.exec = exec;
+		} else {
+			context.putTrialState(EXEC_KEY, exec);
+		}
 		TorusPredPreyGame game;
 		if (CommonConstants.watch) {
 			game = exec.runGameTimed(predAgents, preyAgents, true);
@@ -313,7 +327,15 @@ public abstract class TorusPredPreyTask<T extends Network> extends NoisyLonerTas
 	 */
 	@Override
 	public double getTimeStamp() {
-		return exec.game.getTime();
+		return currentExec().game.getTime();
+	}
+
+	/**
+	 * @return the exec running the game of the current evaluation
+	 */
+	private TorusWorldExec currentExec() {
+		EvaluationContext context = EvaluationContext.current();
+		return context == null ? exec : context.<TorusWorldExec>getTrialState(EXEC_KEY);
 	}
 
 	/**
@@ -835,7 +857,8 @@ public abstract class TorusPredPreyTask<T extends Network> extends NoisyLonerTas
 	 *         gridworld
 	 */
 	public double[] getSubstrateInputs(List<Substrate> subs) {
-		int torusWidth = this.exec.game.getWorld().width();
+		TorusWorldExec exec = currentExec();
+		int torusWidth = exec.game.getWorld().width();
 		double[] inputs = new double[numSubstrateInputs]; // defaults to 0.0
 
 		if (substrateForPredators) {
@@ -47,11 +47,10 @@ public class CompetitiveHomogeneousPredatorsVsPreyTask<T extends Network> extend
 	 */
 	@Override
 	public TorusPredPreyController[] getPredAgents(Genotype<T>[] team) {
-		TorusPredPreyTask.getEvolvedControllers(task.evolved, team[TorusPredPreyGame.AGENT_TYPE_PRED], true, 0, Parameters.parameters.integerParameter("torusPredators"));
+		TorusPredPreyController[] agents = new TorusPredPreyController[task.evolved.length];
+		TorusPredPreyTask.getEvolvedControllers(agents, team[TorusPredPreyGame.AGENT_TYPE_PRED], true, 0, Parameters.parameters.integerParameter("torusPredators"));
 		// Make smaller array to return just the preds
-		TorusPredPreyController[] predOnly = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPredators")];
-		System.arraycopy(task.evolved, 0, predOnly, 0, Parameters.parameters.integerParameter("torusPredators"));
-		return predOnly;
+		return evolvedControllers(agents, 0, Parameters.parameters.integerParameter("torusPredators"));
 	}
 
 	@Override
@@ -69,11 +68,10 @@ public class CompetitiveHomogeneousPredatorsVsPreyTask<T extends Network> extend
 	 *            (homogeneous team)
 	 */
 	public TorusPredPreyController[] getPreyAgents(Genotype<T>[] team) {
-		TorusPredPreyTask.getEvolvedControllers(task.evolved, team[TorusPredPreyGame.AGENT_TYPE_PREY], false, Parameters.parameters.integerParameter("torusPredators"), Parameters.parameters.integerParameter("torusPreys"));
+		TorusPredPreyController[] agents = new TorusPredPreyController[task.evolved.length];
+		TorusPredPreyTask.getEvolvedControllers(agents, team[TorusPredPreyGame.AGENT_TYPE_PREY], false, Parameters.parameters.integerParameter("torusPredators"), Parameters.parameters.integerParameter("torusPreys"));
 		// Make smaller array to return just the preys
-		TorusPredPreyController[] preyOnly = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPreys")];
-		System.arraycopy(task.evolved, Parameters.parameters.integerParameter("torusPredators"), preyOnly, 0, Parameters.parameters.integerParameter("torusPreys"));
-		return preyOnly; 
+		return evolvedControllers(agents, Parameters.parameters.integerParameter("torusPredators"), Parameters.parameters.integerParameter("torusPreys")); 
 	}
 
 	@Override
@@ -54,9 +54,11 @@ public class CooperativePredatorsVsStaticPreyTask<T extends Network> extends Gro
 	 * @return pred agents
 	 */
 	public TorusPredPreyController[] getPredAgents(Genotype<T>[] team) {
-		task.evolved = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPredators")];
-		TorusPredPreyTask.getEvolvedControllers(task.evolved, team, true);
-		return task.evolved; 
+		// Local array, since other teams may be evaluated at the same time
+		TorusPredPreyController[] evolved = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPredators")];
+		TorusPredPreyTask.getEvolvedControllers(evolved, team, true);
+		task.evolved = evolved; // Only used to dispose of input monitors, which are only shown when teams are evaluated one at a time
+		return evolved; 
 	}
 
 }
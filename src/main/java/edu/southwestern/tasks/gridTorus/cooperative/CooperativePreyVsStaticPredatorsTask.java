@@ -42,9 +42,11 @@ public class CooperativePreyVsStaticPredatorsTask<T extends Network> extends Gro
 	 * @return prey agents
 	 */
 	public TorusPredPreyController[] getPreyAgents(Genotype<T>[] team) {
-		task.evolved = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPreys")];
-		TorusPredPreyTask.getEvolvedControllers(task.evolved, team, false);
-		return task.evolved; 
+		// Local array, since other teams may be evaluated at the same time
+		TorusPredPreyController[] evolved = new TorusPredPreyController[Parameters.parameters.integerParameter("torusPreys")];
+		TorusPredPreyTask.getEvolvedControllers(evolved, team, false);
+		task.evolved = evolved; // Only used to dispose of input monitors, which are only shown when teams are evaluated one at a time
+		return evolved; 
 	}
 
 	@Override
@@ -47,11 +47,10 @@ public class CompetitiveAndCooperativePredatorsVsPreyTask<T extends Network> ext
 		Genotype<T>[] predTeam = new Genotype[numPreds];
 		//NOTE: Assumes that predators were stored first in the "team" list
 		System.arraycopy(team, 0, predTeam, 0, numPreds);
-		TorusPredPreyTask.getEvolvedControllers(task.evolved, predTeam, true, 0);
+		TorusPredPreyController[] agents = new TorusPredPreyController[task.evolved.length];
+		TorusPredPreyTask.getEvolvedControllers(agents, predTeam, true, 0);
 		// Make smaller array to return just the preds
-		TorusPredPreyController[] predOnly = new TorusPredPreyController[numPreds];
-		System.arraycopy(task.evolved, 0, predOnly, 0, numPreds);
-		return predOnly;
+		return evolvedControllers(agents, 0, numPreds);
 	}
 
 	@Override
@@ -72,11 +71,10 @@ public class CompetitiveAndCooperativePredatorsVsPreyTask<T extends Network> ext
 		Genotype<T>[] preyTeam = new Genotype[numPreys];
 		//NOTE: Assumes that predators were stored first in the "team" list, then prey
 		System.arraycopy(team, numPreds, preyTeam, 0, numPreys);
-		TorusPredPreyTask.getEvolvedControllers(task.evolved, preyTeam, false, numPreds);
+		TorusPredPreyController[] agents = new TorusPredPreyController[task.evolved.length];
+		TorusPredPreyTask.getEvolvedControllers(agents, preyTeam, false, numPreds);
 		// Make smaller array to return just the preys
-		TorusPredPreyController[] preyOnly = new TorusPredPreyController[numPreys];
-		System.arraycopy(task.evolved, numPreds, preyOnly, 0, numPreys);
-		return preyOnly; 
+		return evolvedControllers(agents, numPreds, numPreys); 
 	}
 
 	@Override
@@ -20,6 +20,8 @@ public abstract class GridTorusObjective<T extends Network> implements FitnessFu
 	protected TorusPredPreyGame game;
 
 	/**
+	 * Synchronized because the game is stored in a field while the fitness
+	 * is computed, and objectives are shared by parallel evaluations.
 	 * 
 	 * @param game
 	 *            TorusPredPrey grid world game
@@ -27,7 +29,7 @@ public abstract class GridTorusObjective<T extends Network> implements FitnessFu
 	 *            organism to provide a fitness function for
 	 * @return the score/fitness of the individual
 	 */
-	public double score(TorusPredPreyGame game, Organism<T> individual) {
+	public synchronized double score(TorusPredPreyGame game, Organism<T> individual) {
 		this.game = game;
 		return fitness(individual);
 	}
@@ -0,0 +1,113 @@
+package edu.southwestern.tasks.gvgai;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import gvgai.core.game.Game;
+import gvgai.core.player.AbstractPlayer;
+import gvgai.core.vgdl.VGDLParser;
+import gvgai.tools.IO;
+
+/**
+ * Keeps one parsed instance of each GVG-AI game per thread, so that games are
+ * parsed once instead of once per evaluation, and so that threads evaluating
+ * in parallel never share a game. A pooled game is reset to the requested
+ * level before every run. Level files are read once and shared, since their
+ * lines are never modified.
+ *
+ * @author Jacob Schrum
+ */
+public class GVGAIGamePool {
+
+	/**
+	 * Parsing fills the VGDLFactory and VGDLRegistry singletons, so only one
+	 * thread parses at a time. Running a parsed game only reads them.
+	 */
+	private static final Object PARSE_LOCK = new Object();
+
+	private static final ConcurrentHashMap<String, String[]> LEVELS = new ConcurrentHashMap<String, String[]>();
+
+	private static final ThreadLocal<HashMap<String, PooledGame>> GAMES = new ThreadLocal<HashMap<String, PooledGame>>() {
+		@Override
+		protected HashMap<String, PooledGame> initialValue() {
+			return new HashMap<String, PooledGame>();
+		}
+	};
+
+	/**
+	 * A parsed game, and whether the JVM has been warmed up on it yet
+	 */
+	private static class PooledGame {
+		final Game game;
+		boolean warmedUp = false;
+
+		PooledGame(Game game) {
+			this.game = game;
+		}
+	}
+
+	/**
+	 * Parse a game description file
+	 *
+	 * @param gameFile
+	 *            Path to VGDL game file
+	 * @return Newly parsed game, without a level
+	 */
+	public static Game parse(String gameFile) {
+		synchronized (PARSE_LOCK) {
+			return new VGDLParser().parseGame(gameFile);
+		}
+	}
+
+	/**
+	 * Lines of a level file, which are read once and then shared. The
+	 * returned array must not be modified.
+	 *
+	 * @param levelFile
+	 *            Path to level file
+	 * @return line by line contents of the level file
+	 */
+	public static String[] level(String levelFile) {
+		return LEVELS.computeIfAbsent(levelFile, f -> new IO().readFile(f));
+	}
+
+	/**
+	 * Play one game on the calling thread's instance of the game, which is
+	 * parsed on first use. The instance is reset afterwards, so it is ready
+	 * for the next call. The costly warm up that ArcadeMachine performs
+	 * before every game is only done the first time an instance is played.
+	 *
+	 * @param gameFile
+	 *            Path to VGDL game file
+	 * @param level
+	 *            String array of line by line contents of a level file
+	 * @param visuals
+	 *            Whether to watch the game
+	 * @param agent
+	 *            Agent that has already been initialized, and that is not
+	 *            used by another thread
+	 * @param randomSeed
+	 *            Used in level construction, for example for enemy placement
+	 * @param playerID
+	 *            Used when watching the game played
+	 * @return Scores from evaluation: {victory, score, timestep} for every
+	 *         player
+	 */
+	public static double[] runOneGame(String gameFile, String[] level, boolean visuals, AbstractPlayer agent, int randomSeed, int playerID) {
+		HashMap<String, PooledGame> games = GAMES.get();
+		PooledGame pooled = games.get(gameFile);
+		if (pooled == null) {
+			pooled = new PooledGame(parse(gameFile));
+			games.put(gameFile, pooled);
+		}
+		Game toPlay = pooled.game;
+		try {
+			toPlay.buildStringLevel(level, randomSeed);
+			boolean warmUp = !pooled.warmedUp;
+			pooled.warmedUp = true;
+			return GVGAIUtil.runOneGame(toPlay, visuals, agent, randomSeed, playerID, warmUp);
+		} finally {
+			toPlay.reset();
+		}
+	}
+}
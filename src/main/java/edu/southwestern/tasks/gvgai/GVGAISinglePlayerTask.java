@@ -19,21 +19,24 @@ import edu.southwestern.util.ClassCreation;
 import edu.southwestern.util.datastructures.Pair;
 import edu.southwestern.util.datastructures.Triple;
 import edu.southwestern.util.random.RandomNumbers;
-import gvgai.core.game.Game;
 import gvgai.core.vgdl.VGDLFactory;
-import gvgai.core.vgdl.VGDLParser;
 import gvgai.core.vgdl.VGDLRegistry;
-import gvgai.tools.IO;
 
 public class GVGAISinglePlayerTask<T extends Network> extends NoisyLonerTask<T> implements NetworkTask, HyperNEATTask{
 
 	public static final String GAMES_PATH = "data/gvgai/examples/gridphysics/"; // Comes from gvgai.tracks.singlePlayer.Test
 	String game;
 	int level;
-	private Game toPlay;
-	private GVGAINNPlayer<T> agent;
+	private String gameFile;
+	private String levelFile;
+	// Each evaluation thread plays its own pooled game instance with its own agent
+	private final ThreadLocal<GVGAINNPlayer<T>> agent = new ThreadLocal<GVGAINNPlayer<T>>() {
+		@Override
+		protected GVGAINNPlayer<T> initialValue() {
+			return createAgent();
+		}
+	};
 
-	@SuppressWarnings("unchecked")
 	public GVGAISinglePlayerTask(){
 		VGDLFactory.GetInstance().init();
 		VGDLRegistry.GetInstance().init();
@@ -43,29 +46,40 @@ public class GVGAISinglePlayerTask<T extends Network> extends NoisyLonerTask<T>
 		level = Parameters.parameters.integerParameter("gvgaiLevel");
 		System.out.println("GVG-AI level is " + level);
 
-		String game_file = GAMES_PATH + game + ".txt";
-		toPlay = new VGDLParser().parseGame(game_file); // Initialize the game
+		gameFile = GAMES_PATH + game + ".txt";
+		levelFile = GAMES_PATH + game + "_lvl" + level + ".txt";
+		GVGAIGamePool.parse(gameFile); // Fail early if the game cannot be loaded
+		agent.get(); // Fail early if the player cannot be created
+
+
+		// Registers the three possible scores;
+		// Each Score can be individually selected as a Selection Function or not
+		// Defaults to only the Victory score being used for selection
+
+		MMNEAT.registerFitnessFunction("Victory", Parameters.parameters.booleanParameter("gvgaiVictory"));
+		MMNEAT.registerFitnessFunction("Score", Parameters.parameters.booleanParameter("gvgaiScore"));
+		MMNEAT.registerFitnessFunction("Timestep", Parameters.parameters.booleanParameter("gvgaiTimestep"));
+	}
 
+	/**
+	 * Create and set up a new instance of the player class
+	 * @return GVG-AI player that has not been assigned a network yet
+	 */
+	@SuppressWarnings("unchecked")
+	private GVGAINNPlayer<T> createAgent() {
+		GVGAINNPlayer<T> player = null;
 		try {
-			agent = (GVGAINNPlayer<T>) ClassCreation.createObject("gvgaiPlayer");
+			player = (GVGAINNPlayer<T>) ClassCreation.createObject("gvgaiPlayer");
 			// null = do not save file of actions
 			// random generator produces random seed : TODO: If deterministic, then always use same seed
 			// false = not human
-			agent.setup(null, RandomNumbers.randomGenerator.nextInt(), false); 
+			player.setup(null, RandomNumbers.randomGenerator.nextInt(), false); 
 		} catch (NoSuchMethodException e) {
 			e.printStackTrace();
 			System.out.println("Could not create GVG AI player: " + Parameters.parameters.classParameter("gvgaiPlayer"));
 			System.exit(1);
 		}
-
-
-		// Registers the three possible scores;
-		// Each Score can be individually selected as a Selection Function or not
-		// Defaults to only the Victory score being used for selection
-
-		MMNEAT.registerFitnessFunction("Victory", Parameters.parameters.booleanParameter("gvgaiVictory"));
-		MMNEAT.registerFitnessFunction("Score", Parameters.parameters.booleanParameter("gvgaiScore"));
-		MMNEAT.registerFitnessFunction("Timestep", Parameters.parameters.booleanParameter("gvgaiTimestep"));
+		return player;
 	}
 
 	@Override
@@ -99,18 +113,17 @@ public class GVGAISinglePlayerTask<T extends Network> extends NoisyLonerTask<T>
 	@Override
 	public Pair<double[], double[]> oneEval(Genotype<T> individual, int num) {
 
-		agent.assignNetwork(individual.getPhenotype());
+		GVGAINNPlayer<T> player = agent.get();
+		player.assignNetwork(individual.getPhenotype());
 		
 		boolean visuals = CommonConstants.watch;
 		int playerID = 0;
 
-		String level_file = GAMES_PATH + game + "_lvl" + level + ".txt";
-		String[] level = new IO().readFile(level_file);
+		String[] level = GVGAIGamePool.level(levelFile);
 		int randomSeed = RandomNumbers.randomGenerator.nextInt(); // TODO: Allow to be deterministic
 
 		// Will have 3 Indexes: {victory, score, timestep}; Stores these for every Player, in triplets: [w0,s0,t0,w1,s1,t1,...]
-		double[] gvgaiScores = GVGAIUtil.runOneGame(toPlay, level, visuals, agent, randomSeed, playerID);
-		toPlay.reset();
+		double[] gvgaiScores = GVGAIGamePool.runOneGame(gameFile, level, visuals, player, randomSeed, playerID);
 		
 		// Process the scores
 		double[] fitness = new double[numObjectives()];
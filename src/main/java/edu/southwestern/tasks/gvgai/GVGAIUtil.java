@@ -102,8 +102,25 @@ public class GVGAIUtil {
 	 * @return Scores from evaluation: {victory, score, timestep} for every player
 	 */
 	public static double[] runOneGame(Game toPlay, boolean visuals, AbstractPlayer agent, int randomSeed, int playerID) {		
+		return runOneGame(toPlay, visuals, agent, randomSeed, playerID, true);
+	}
+
+	/**
+	 * Like the method above, but the warm up (many random playouts meant to
+	 * trigger JIT compilation before timed play) can be skipped when the same
+	 * game instance has already been warmed up.
+	 * 
+	 * @param toPlay Game instance with rules and level already loaded
+	 * @param visuals Whether to watch the game
+	 * @param agent Agent that has already been initialized
+	 * @param randomSeed Used in level construction, for example for enemy placement
+	 * @param playerID Used when watching the game played
+	 * @param warmUp Whether to warm the game up first
+	 * @return Scores from evaluation: {victory, score, timestep} for every player
+	 */
+	public static double[] runOneGame(Game toPlay, boolean visuals, AbstractPlayer agent, int randomSeed, int playerID, boolean warmUp) {
 		// Warm the game up.
-		ArcadeMachine.warmUp(toPlay, CompetitionParameters.WARMUP_TIME);
+		if(warmUp) ArcadeMachine.warmUp(toPlay, CompetitionParameters.WARMUP_TIME);
 
 		// single player game
 		Player[] players = new AbstractPlayer[] {agent};
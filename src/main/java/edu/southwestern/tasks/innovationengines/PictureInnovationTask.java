@@ -3,7 +3,6 @@ package edu.southwestern.tasks.innovationengines;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.deeplearning4j.zoo.util.imagenet.ImageNetLabels;
@@ -12,6 +11,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.evolution.genotypes.Genotype;
 import edu.southwestern.evolution.mapelites.Archive;
+import edu.southwestern.evolution.mapelites.BinnedScore;
 import edu.southwestern.evolution.mapelites.MAPElites;
 import edu.southwestern.networks.Network;
 import edu.southwestern.parameters.CommonConstants;
@@ -48,8 +48,8 @@ public class PictureInnovationTask<T extends Network> extends LonerTask<T> {
 		BufferedImage image = GraphicsUtil.imageFromCPPN(cppn, ImageNetClassification.IMAGE_NET_INPUT_WIDTH, ImageNetClassification.IMAGE_NET_INPUT_HEIGHT);
 		INDArray imageArray = ImageNetClassification.bufferedImageToINDArray(image);
 		INDArray scores = ImageNetClassification.getImageNetPredictions(imageArray, PREPROCESS);
-		ArrayList<Double> behaviorVector = ArrayUtil.doubleVectorFromINDArray(scores);
-		Score<T> result = new Score<>(individual, new double[]{}, behaviorVector);
+		double[] binScores = ArrayUtil.doubleArrayFromINDArray(scores);
+		Score<T> result = BinnedScore.dense(individual, binScores);
 		if(CommonConstants.watch) {
 			DrawingPanel picture = GraphicsUtil.drawImage(image, "Image", ImageNetClassification.IMAGE_NET_INPUT_WIDTH, ImageNetClassification.IMAGE_NET_INPUT_HEIGHT);
 			// Prints top 4 labels
@@ -65,10 +65,9 @@ public class PictureInnovationTask<T extends Network> extends LonerTask<T> {
 			Archive<T> archive = ((MAPElites<T>) MMNEAT.ea).getArchive();
 			List<String> binLabels = archive.getBinMapping().binLabels();
 			for(int i = 0; i < binLabels.size(); i++) {
-				Score<T> elite = archive.getElite(i);
 				// If the bin is empty, or the candidate is better than the elite for that bin's score
-				double binScore = result.behaviorVector.get(i);
-				if(elite == null || binScore > elite.behaviorVector.get(i)) {
+				double binScore = binScores[i];
+				if(binScore > archive.getBinScore(i)) {
 					if(binScore > pictureInnovationSaveThreshold) {
 						String fileName = String.format("%7.5f", binScore) + binLabels.get(i) + individual.getId() + ".jpg";
 						String binPath = archive.getArchiveDirectory() + File.separator + binLabels.get(i);
@@ -96,12 +95,12 @@ public class PictureInnovationTask<T extends Network> extends LonerTask<T> {
 			String finalArchive = archive.getArchiveDirectory() + "Final";
 			new File(finalArchive).mkdir(); // Make different directory
 			List<String> binLabels = archive.getBinMapping().binLabels();
-			for(int i = 0; i < binLabels.size(); i++) {
+			for(int i : archive.occupiedBins()) {
 				String label = binLabels.get(i);
 				Score<T> score = archive.getElite(i);
 				Network cppn = score.individual.getPhenotype();
 				BufferedImage image = GraphicsUtil.imageFromCPPN(cppn, saveWidth, saveHeight);
-				double binScore = score.behaviorVector.get(i);
+				double binScore = archive.getBinScore(i);
 				String fileName = String.format("%7.5f", binScore) + label + ".jpg";
 				String fullName = finalArchive + File.separator + fileName;
 				GraphicsUtil.saveImage(image, fullName);
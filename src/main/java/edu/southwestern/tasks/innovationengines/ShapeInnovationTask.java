@@ -14,6 +14,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.evolution.genotypes.Genotype;
 import edu.southwestern.evolution.mapelites.Archive;
+import edu.southwestern.evolution.mapelites.BinnedScore;
 import edu.southwestern.evolution.mapelites.MAPElites;
 import edu.southwestern.networks.Network;
 import edu.southwestern.networks.TWEANN;
@@ -83,8 +84,8 @@ public class ShapeInnovationTask extends LonerTask<Pair<TWEANN, ArrayList<Double
 		}
 		scores.div(scoresFromAngles.size()); // divide to get average
 		
-		ArrayList<Double> behaviorVector = ArrayUtil.doubleVectorFromINDArray(scores);
-		Score<Pair<TWEANN, ArrayList<Double>>> result = new Score<>(individual, new double[]{}, behaviorVector);
+		double[] binScores = ArrayUtil.doubleArrayFromINDArray(scores);
+		Score<Pair<TWEANN, ArrayList<Double>>> result = BinnedScore.dense(individual, binScores);
 
 		if(CommonConstants.watch) {
 			// Prints top 4 labels
@@ -103,10 +104,9 @@ public class ShapeInnovationTask extends LonerTask<Pair<TWEANN, ArrayList<Double
 			Archive<Pair<TWEANN, ArrayList<Double>>> archive = ((MAPElites<Pair<TWEANN, ArrayList<Double>>>) MMNEAT.ea).getArchive();
 			List<String> binLabels = archive.getBinMapping().binLabels();
 			for(int i = 0; i < binLabels.size(); i++) {
-				Score<Pair<TWEANN, ArrayList<Double>>> elite = archive.getElite(i);
 				// If the bin is empty, or the candidate is better than the elite for that bin's score
-				double binScore = result.behaviorVector.get(i);
-				if(elite == null || binScore > elite.behaviorVector.get(i)) {
+				double binScore = binScores[i];
+				if(binScore > archive.getBinScore(i)) {
 					if(binScore > pictureInnovationSaveThreshold) {
 						String fileName = String.format("%7.5f", binScore) + binLabels.get(i) + individual.getId() + ".gif";
 						String binPath = archive.getArchiveDirectory() + File.separator + binLabels.get(i);
@@ -142,7 +142,7 @@ public class ShapeInnovationTask extends LonerTask<Pair<TWEANN, ArrayList<Double
 			String finalArchive = archive.getArchiveDirectory() + "Final";
 			new File(finalArchive).mkdir(); // Make different directory
 			List<String> binLabels = archive.getBinMapping().binLabels();
-			for(int i = 0; i < binLabels.size(); i++) {
+			for(int i : archive.occupiedBins()) {
 				String label = binLabels.get(i);
 				Score<Pair<TWEANN, ArrayList<Double>>> score = archive.getElite(i);
 				Pair<TWEANN,ArrayList<Double>> pair = score.individual.getPhenotype();
@@ -156,7 +156,7 @@ public class ShapeInnovationTask extends LonerTask<Pair<TWEANN, ArrayList<Double
 				double heading = pair.t2.get(INDEX_HEADING) * 2 * Math.PI;
 				BufferedImage[] images = ThreeDimensionalUtil.imagesFromTriangles(tris, saveWidth, saveHeight, 0, (int) (AnimationUtil.FRAMES_PER_SEC * 3), heading, pitch, evolvedColor, vertical);
 				
-				double binScore = score.behaviorVector.get(i);
+				double binScore = archive.getBinScore(i);
 				String fileName = String.format("%7.5f", binScore) + label + ".gif";
 				String fullName = finalArchive + File.separator + fileName;
 				// Save gif to fullName
@@ -2,7 +2,9 @@ package edu.southwestern.tasks.microrts;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jdom.JDOMException;
 
@@ -15,6 +17,7 @@ import edu.southwestern.networks.hyperneat.HyperNEATTask;
 import edu.southwestern.networks.hyperneat.Substrate;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.NoisyLonerTask;
 import edu.southwestern.tasks.microrts.evaluation.NNEvaluationFunction;
 import edu.southwestern.tasks.microrts.fitness.RTSFitnessFunction;
@@ -43,39 +46,58 @@ import micro.rts.units.UnitTypeTable;
  */
 public class MicroRTSTask<T extends Network> extends NoisyLonerTask<T> implements NetworkTask, HyperNEATTask, MicroRTSInformation{
 
-	private PhysicalGameState pgs;
 	private PhysicalGameState initialPgs;
 	private UnitTypeTable utt;
 	private PhysicalGameStateJFrame w = null;
-	private GameState gs;
 	private String mapName;
-	private boolean AiInitialized = false;
 	private MapSequence maps = null;
 	private EnemySequence enemySequencePlan = null;
 	private ArrayList<AI> enemySet;
 
-	private double averageUnitDifference;
-	private int baseUpTime;
-	private int harvestingEfficiencyIndex;
-	private double percentEnemiesDestroyed;
-
+	// Used to register fitness functions and track map/enemy switches
 	NNEvaluationFunction<T> ef;
-	NNEvaluationFunction<T> ef2;
 	RTSFitnessFunction ff;
+	// Number of game states evaluated in the most recently finished game of any evaluation,
+	// which is what fitness functions report as numEvals (as with a single shared fitness function)
+	private final AtomicInteger numEvals = new AtomicInteger(-1);
 
-	HasEvaluationFunction ai1 = null;
-	AI ai2 = null;
+	// State of evaluations performed outside of an EvaluationContext
+	private Evaluation shared = null;
+	// Key for the Evaluation stored in an EvaluationContext
+	private static final Object EVALUATION_KEY = new Object();
+
+	/**
+	 * Everything that changes while a single genotype is evaluated.
+	 * Each evaluation gets its own copy, so several genotypes can
+	 * be evaluated in parallel.
+	 */
+	private class Evaluation {
+		PhysicalGameState pgs;
+		UnitTypeTable utt = new UnitTypeTable();
+		GameState gs;
+
+		double averageUnitDifference;
+		int baseUpTime;
+		int harvestingEfficiencyIndex;
+		double percentEnemiesDestroyed;
+
+		NNEvaluationFunction<T> ef;
+		NNEvaluationFunction<T> ef2;
+		RTSFitnessFunction ff;
+
+		HasEvaluationFunction ai1 = null;
+		AI ai2 = null;
+		// This evaluation's copy of each shared enemy
+		HashMap<AI, AI> enemies = new HashMap<AI, AI>();
+	}
 
 	@SuppressWarnings("unchecked")
 	public MicroRTSTask() {
 		utt = new UnitTypeTable();
 		try {
 			ef = (NNEvaluationFunction<T>) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSEvaluationFunction"));
-			if(Parameters.parameters.classParameter("microRTSOpponentEvaluationFunction") != null)
-				ef2 = (NNEvaluationFunction<T>) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSOpponentEvaluationFunction"));
 			ff = (RTSFitnessFunction) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSFitnessFunction"));
 			initialPgs = PhysicalGameState.load("data/microRTS/maps/" + Parameters.parameters.stringParameter("map"), utt);
-			pgs = initialPgs.cloneIncludingTerrain();
 
 			if(Parameters.parameters.classParameter("microRTSMapSequence") != null)
 				maps = (MapSequence) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSMapSequence")); 
@@ -93,13 +115,70 @@ public class MicroRTSTask<T extends Network> extends NoisyLonerTask<T> implement
 			MMNEAT.registerFitnessFunction(other, false);
 		}
 
-		ef.givePhysicalGameState(pgs);
-		if(ef2 != null)
-			ef2.givePhysicalGameState(pgs);
-		ff.givePhysicalGameState(pgs);
+		ef.givePhysicalGameState(initialPgs);
+		ff.givePhysicalGameState(initialPgs);
 		ff.setMaxCycles(5000);
 		ff.giveTask(this);
-		gs = new GameState(pgs, utt);
+	}
+
+	/**
+	 * @return state of the evaluation running on the current thread
+	 */
+	private Evaluation evaluation() {
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			synchronized (this) {
+				if (shared == null) {
+					shared = new Evaluation();
+					initializeEvaluation(shared);
+				}
+				return shared;
+			}
+		}
+		Evaluation evaluation = context.get(EVALUATION_KEY);
+		if (evaluation == null) {
+			evaluation = new Evaluation();
+			// Stored before initialization, since AI constructors ask the task for the unit type table
+			context.put(EVALUATION_KEY, evaluation);
+			initializeEvaluation(evaluation);
+		}
+		return evaluation;
+	}
+
+	/**
+	 * Creates the evaluation functions, fitness function and AIs used
+	 * by one evaluation.
+	 * 
+	 * @param e fresh evaluation state to fill in
+	 */
+	@SuppressWarnings("unchecked")
+	private synchronized void initializeEvaluation(Evaluation e) {
+		try {
+			e.ef = (NNEvaluationFunction<T>) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSEvaluationFunction"));
+			if(Parameters.parameters.classParameter("microRTSOpponentEvaluationFunction") != null)
+				e.ef2 = (NNEvaluationFunction<T>) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSOpponentEvaluationFunction"));
+			e.ff = (RTSFitnessFunction) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSFitnessFunction"));
+			e.ai1 = (HasEvaluationFunction) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSAgent"));
+			if(Parameters.parameters.classParameter("microRTSEnemySequence") == null)
+				e.ai2 = (AI) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSOpponent"));
+		} catch (NoSuchMethodException e2) {
+			e2.printStackTrace();
+			System.exit(1);
+		}
+		e.ff.setCoevolution(false);
+		e.ef.setCoevolution(false);
+		e.ff.setMaxCycles(5000);
+		e.ff.giveTask(this);
+		// Map and enemy switches are counted by the shared fitness function
+		e.ff.copySwitchCounts(ff);
+		e.pgs = initialPgs.cloneIncludingTerrain();
+		e.ef.givePhysicalGameState(initialPgs);
+		if(e.ef2 != null)
+			e.ef2.givePhysicalGameState(initialPgs);
+		e.ff.givePhysicalGameState(e.pgs);
+		e.ai1.setEvaluationFunction(e.ef);
+		if(e.ef2 != null)
+			((HasEvaluationFunction) e.ai2).setEvaluationFunction(e.ef2);
 	}
 
 	@Override
@@ -115,6 +194,7 @@ public class MicroRTSTask<T extends Network> extends NoisyLonerTask<T> implement
 
 	@Override
 	public double getTimeStamp() {
+		GameState gs = evaluation().gs;
 		return gs == null ? 0 : gs.getTime();
 	}
 
@@ -169,7 +249,7 @@ public class MicroRTSTask<T extends Network> extends NoisyLonerTask<T> implement
 	 * gets set here, then the neural network is drawn in LonerTask, then the oneEval method
 	 * below executes.
 	 */
-	public void preEval() {
+	public synchronized void preEval() {
 		if(enemySequencePlan == null){
 			try {
 				enemySequencePlan = (EnemySequence) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSEnemySequence"));
@@ -229,23 +309,9 @@ public class MicroRTSTask<T extends Network> extends NoisyLonerTask<T> implement
 	 */
 	@Override
 	public Pair<double[], double[]> oneEval(Genotype<T> individual, int num) {
-		if(!AiInitialized)
-			initializeAI();
-		else{
-			ef.givePhysicalGameState(initialPgs);
-			if(ef2 != null)
-				ef2.givePhysicalGameState(initialPgs);
-		}
-		if(enemySequencePlan!=null){ //growing sets of opponents
-			ArrayList<AI> potentialNewEnemySet = enemySequencePlan.getAppropriateEnemySet(((GenerationalEA) MMNEAT.ea).currentGeneration(), ff);
-			if(enemySet == null){
-				enemySet = potentialNewEnemySet;
-			}
-		} else { //single opponent
-			enemySet = new ArrayList<>(1); // will only contain the following enemy:
-			enemySet.add(ai2);
-		}
-		ef.setNetwork(individual);
+		Evaluation e = evaluation();
+		ArrayList<AI> enemySet = currentEnemySet(e);
+		e.ef.setNetwork(individual);
 
 		double[][] fitnesses = new double[enemySet.size()][numObjectives()];
 		double[][] others 	 = new double[enemySet.size()][numOtherScores()];
@@ -253,20 +319,21 @@ public class MicroRTSTask<T extends Network> extends NoisyLonerTask<T> implement
 		assert enemySet.size() > 0 : "enemy set doesnt contain anything";
 
 		for(int i = 0; i < enemySet.size(); i++){ //perform one evaluation for every enemy in the set
-			reset();
-			assert (unitsExist(0, pgs)): "player 0 does not have any units to start";
-			assert (unitsExist(1, pgs)): "player 1 does not have any units to start";
-			gs = new GameState(pgs, utt);
+			reset(e);
+			assert (unitsExist(0, e.pgs)): "player 0 does not have any units to start";
+			assert (unitsExist(1, e.pgs)): "player 1 does not have any units to start";
+			e.gs = new GameState(e.pgs, e.utt);
 			if(CommonConstants.watch){
-				w = PhysicalGameStatePanel.newVisualizer(gs,MicroRTSUtility.WINDOW_LENGTH,MicroRTSUtility.WINDOW_LENGTH,false,PhysicalGameStatePanel.COLORSCHEME_BLACK);
+				w = PhysicalGameStatePanel.newVisualizer(e.gs,MicroRTSUtility.WINDOW_LENGTH,MicroRTSUtility.WINDOW_LENGTH,false,PhysicalGameStatePanel.COLORSCHEME_BLACK);
 			}
 
-			ai2 = enemySet.get(i);
+			e.ai2 = enemySet.get(i);
 			if(CommonConstants.watch){
-				System.out.println("Current Enemy: "+ ai2.getClass().getName());
+				System.out.println("Current Enemy: "+ e.ai2.getClass().getName());
 			}
-			ArrayList<Pair<double[], double[]>> currentEval = MicroRTSUtility.oneEval((AI) ai1, ai2, this, ff, w);
-			ff.setNumEvals(ef.getNumEvals());
+			e.ff.setNumEvals(numEvals.get());
+			ArrayList<Pair<double[], double[]>> currentEval = MicroRTSUtility.oneEval((AI) e.ai1, e.ai2, this, e.ff, w);
+			numEvals.set(e.ef.getNumEvals());
 			fitnesses[i] = currentEval.get(0).t1;
 			others[i] 	 = currentEval.get(0).t2;
 		}
@@ -276,79 +343,99 @@ public class MicroRTSTask<T extends Network> extends NoisyLonerTask<T> implement
 	}
 
 	/**
-	 * resets the conditions of the game to be how they are supposed
-	 * to be at the beginning of an evaluation
+	 * Opponents to face in the current evaluation. The set is shared
+	 * by all evaluations, but each evaluation plays against its own clone of
+	 * each enemy, since AIs can remember things during a game.
+	 * 
+	 * @param e state of the current evaluation
+	 * @return enemies belonging to this evaluation
 	 */
-	private void reset(){
-		utt = new UnitTypeTable();
-		averageUnitDifference = 0;
-		baseUpTime = 0;
-		harvestingEfficiencyIndex = 0;
-		// Clone the initial game state; start from beginning
-		pgs = initialPgs.cloneIncludingTerrain();
-		ef.givePhysicalGameState(pgs);
+	private ArrayList<AI> currentEnemySet(Evaluation e) {
+		ArrayList<AI> sharedEnemies;
+		synchronized(this) {
+			if(enemySequencePlan!=null){ //growing sets of opponents
+				ArrayList<AI> potentialNewEnemySet = enemySequencePlan.getAppropriateEnemySet(((GenerationalEA) MMNEAT.ea).currentGeneration(), ff);
+				if(enemySet == null){
+					enemySet = potentialNewEnemySet;
+				}
+				sharedEnemies = new ArrayList<>(enemySet);
+				e.ff.copySwitchCounts(ff);
+			} else { //single opponent, already belongs to this evaluation
+				ArrayList<AI> single = new ArrayList<>(1); // will only contain the following enemy:
+				single.add(e.ai2);
+				return single;
+			}
+		}
+		ArrayList<AI> result = new ArrayList<>(sharedEnemies.size());
+		for(AI enemy : sharedEnemies) {
+			AI copy = e.enemies.get(enemy);
+			if(copy == null) {
+				copy = enemy.clone();
+				e.enemies.put(enemy, copy);
+			}
+			result.add(copy);
+		}
+		return result;
 	}
+
 	/**
-	 *initializes ai (only called once for efficiency in this oneEval) 
-	 * @return 
+	 * resets the conditions of the game to be how they are supposed
+	 * to be at the beginning of an evaluation
 	 */
-	private void initializeAI() {
-		try {
-			ai1 = (HasEvaluationFunction) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSAgent"));
-			if(Parameters.parameters.classParameter("microRTSEnemySequence") == null)
-				ai2 = (AI) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSOpponent"));
-		} catch (NoSuchMethodException e2) {
-			e2.printStackTrace();
-			System.exit(1);
+	private void reset(Evaluation e){
+		e.utt = new UnitTypeTable();
+		e.averageUnitDifference = 0;
+		e.baseUpTime = 0;
+		e.harvestingEfficiencyIndex = 0;
+		// Clone the initial game state; start from beginning
+		synchronized(this) {
+			e.pgs = initialPgs.cloneIncludingTerrain();
 		}
-		ai1.setEvaluationFunction(ef);
-		if(Parameters.parameters.classParameter("microRTSOpponentEvaluationFunction")!= null)
-			((HasEvaluationFunction) ai2).setEvaluationFunction(ef2);
-		AiInitialized = true;
+		e.ef.givePhysicalGameState(e.pgs);
 	}
 
 	@Override
 	public int getBaseUpTime(int player){
-		if(player == 1)return baseUpTime;
+		if(player == 1)return evaluation().baseUpTime;
 		else throw new IllegalArgumentException("MicroRTSTask is not equipped to record results for > 1 player");
 	}
 	@Override
 	public void setBaseUpTime(int but, int player) {
-		if(player == 1)baseUpTime = but;
+		if(player == 1)evaluation().baseUpTime = but;
 		else throw new IllegalArgumentException("MicroRTSTask is not equipped to record results for > 1 player");
 
 	}
 	@Override
 	public int getHarvestingEfficiency(int player){
-		if(player == 1) return harvestingEfficiencyIndex;
+		if(player == 1) return evaluation().harvestingEfficiencyIndex;
 		else throw new IllegalArgumentException("MicroRTSTask is not equipped to record results for > 1 player");
 	}
 	@Override
 	public void setHarvestingEfficiency(int hei, int player) {
-		if(player == 1) harvestingEfficiencyIndex = hei;
+		if(player == 1) evaluation().harvestingEfficiencyIndex = hei;
 		else throw new IllegalArgumentException("MicroRTSTask is not equipped to record results for > 1 player");
 	}
 	@Override
 	public double getPercentEnemiesDestroyed(int player) {
-		if(player == 1) return percentEnemiesDestroyed;
+		if(player == 1) return evaluation().percentEnemiesDestroyed;
 		else throw new IllegalArgumentException("MicroRTSTask is not equipped to record results for > 1 player");
 	}
 
 	@Override
 	public void setPercentEnemiesDestroyed(double enemies, int player) {
-		if(player == 1) percentEnemiesDestroyed = enemies;
+		if(player == 1) evaluation().percentEnemiesDestroyed = enemies;
 		else throw new IllegalArgumentException("MicroRTSTask is not equipped to record results for > 1 player");
 	}
 	@Override
-	public UnitTypeTable getUnitTypeTable() {return utt;}
+	public UnitTypeTable getUnitTypeTable() {return evaluation().utt;}
 	@Override
-	public GameState getGameState() {return gs;}
+	public GameState getGameState() {return evaluation().gs;}
 	@Override
-	public PhysicalGameState getPhysicalGameState() {return pgs;}
+	public PhysicalGameState getPhysicalGameState() {return evaluation().pgs;}
 	@Override
-	public double getAverageUnitDifference(){return averageUnitDifference;}
+	public double getAverageUnitDifference(){return evaluation().averageUnitDifference;}
 	@Override
-	public void setAvgUnitDiff(double diff) {averageUnitDifference = diff;}
+	public void setAvgUnitDiff(double diff) {evaluation().averageUnitDifference = diff;}
 
 	@Override
 	public int getNumInputSubstrates() {
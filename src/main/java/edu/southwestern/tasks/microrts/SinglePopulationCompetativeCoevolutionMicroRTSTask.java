@@ -15,6 +15,7 @@ import edu.southwestern.networks.hyperneat.HyperNEATTask;
 import edu.southwestern.networks.hyperneat.Substrate;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.SinglePopulationCoevolutionTask;
 import edu.southwestern.tasks.microrts.evaluation.NNEvaluationFunction;
 import edu.southwestern.tasks.microrts.fitness.RTSFitnessFunction;
@@ -40,29 +41,46 @@ import micro.rts.units.UnitTypeTable;
  */
 public class SinglePopulationCompetativeCoevolutionMicroRTSTask<T extends Network> extends SinglePopulationCoevolutionTask<T> implements NetworkTask, HyperNEATTask, MicroRTSInformation {
 
-	private PhysicalGameState pgs;
 	private PhysicalGameState initialPgs;
 	private UnitTypeTable utt;
 	private PhysicalGameStateJFrame w = null;
-	private GameState gs;
-	private boolean AiInitialized = false;
 	private MapSequence maps = null;
 	private String mapName;
 
-	private double averageUnitDifference;
-	private int baseUpTime1;
-	private int baseUpTime2;
-	private int harvestingEfficiencyIndex1;
-	private int harvestingEfficiencyIndex2;
-	private double percentEnemiesDestroyed1;
-	private double percentEnemiesDestroyed2;
-
+	// Used for labels and substrates, and to register fitness functions
 	NNEvaluationFunction<T> ef1;
 	NNEvaluationFunction<T> ef2;
 	RTSFitnessFunction ff;
 
-	HasEvaluationFunction ai1 = null;
-	HasEvaluationFunction ai2 = null;
+	// State of matches played outside of an EvaluationContext
+	private Evaluation shared = null;
+	// Key for the Evaluation stored in an EvaluationContext
+	private static final Object EVALUATION_KEY = new Object();
+
+	/**
+	 * Everything that changes while a match is played. Each match
+	 * gets its own copy, so several matches can be played in parallel.
+	 */
+	private class Evaluation {
+		PhysicalGameState pgs;
+		UnitTypeTable utt = new UnitTypeTable();
+		GameState gs;
+
+		double averageUnitDifference;
+		int baseUpTime1;
+		int baseUpTime2;
+		int harvestingEfficiencyIndex1;
+		int harvestingEfficiencyIndex2;
+		double percentEnemiesDestroyed1;
+		double percentEnemiesDestroyed2;
+
+		NNEvaluationFunction<T> ef1;
+		NNEvaluationFunction<T> ef2;
+		RTSFitnessFunction ff;
+
+		HasEvaluationFunction ai1 = null;
+		HasEvaluationFunction ai2 = null;
+	}
 
 	@SuppressWarnings("unchecked")
 	public SinglePopulationCompetativeCoevolutionMicroRTSTask() {
@@ -86,14 +104,62 @@ public class SinglePopulationCompetativeCoevolutionMicroRTSTask<T extends Networ
 		for(String function : ff.getFunctions()){
 			MMNEAT.registerFitnessFunction(function);
 		}
-		//creates a copy of the physical game state so that it can be edited without changing initialPgs
-		pgs = initialPgs.clone();
-		ef1.givePhysicalGameState(pgs);
-		ef2.givePhysicalGameState(pgs);
-		ff.givePhysicalGameState(pgs);
+		ef1.givePhysicalGameState(initialPgs);
+		ef2.givePhysicalGameState(initialPgs);
+		ff.givePhysicalGameState(initialPgs);
 		ff.setMaxCycles(5000);
 		ff.giveTask(this);
-		gs = new GameState(pgs, utt);
+	}
+
+	/**
+	 * @return state of the match being played on the current thread
+	 */
+	private Evaluation evaluation() {
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			synchronized (this) {
+				if (shared == null) {
+					shared = new Evaluation();
+					initializeEvaluation(shared);
+				}
+				return shared;
+			}
+		}
+		Evaluation evaluation = context.get(EVALUATION_KEY);
+		if (evaluation == null) {
+			evaluation = new Evaluation();
+			// Stored before initialization, since AI constructors ask the task for the unit type table
+			context.put(EVALUATION_KEY, evaluation);
+			initializeEvaluation(evaluation);
+		}
+		return evaluation;
+	}
+
+	/**
+	 * Creates the evaluation functions, fitness function and AIs used
+	 * by one match.
+	 * 
+	 * @param e fresh match state to fill in
+	 */
+	@SuppressWarnings("unchecked")
+	private synchronized void initializeEvaluation(Evaluation e) {
+		try {
+			e.ef1 = (NNEvaluationFunction<T>) ClassCreation.createObject("microRTSEvaluationFunction");
+			e.ef2 = (NNEvaluationFunction<T>) ClassCreation.createObject("microRTSEvaluationFunction");
+			e.ff = (RTSFitnessFunction) ClassCreation.createObject("microRTSFitnessFunction");
+			e.ai1 = (HasEvaluationFunction) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSAgent"));
+			e.ai2 = (HasEvaluationFunction) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSAgent"));
+		} catch (NoSuchMethodException e2) {
+			e2.printStackTrace();
+			System.exit(1);
+		}
+		e.ff.setCoevolution(true);
+		e.ef1.setCoevolution(true);
+		e.ef2.setCoevolution(true);
+		e.ff.setMaxCycles(5000);
+		e.ff.giveTask(this);
+		e.ai1.setEvaluationFunction(e.ef1);
+		e.ai2.setEvaluationFunction(e.ef2);
 	}
 
 	@Override
@@ -103,6 +169,7 @@ public class SinglePopulationCompetativeCoevolutionMicroRTSTask<T extends Networ
 
 	@Override
 	public double getTimeStamp() {
+		GameState gs = evaluation().gs;
 		return gs == null ? 0 : gs.getTime();
 	}
 
@@ -124,13 +191,13 @@ public class SinglePopulationCompetativeCoevolutionMicroRTSTask<T extends Networ
 
 	@Override
 	public List<Substrate> getSubstrateInformation() {
-		return MicroRTSUtility.getSubstrateInformation(pgs);
+		return MicroRTSUtility.getSubstrateInformation(initialPgs);
 
 	}
 
 	@Override
 	public List<Triple<String, String, Boolean>> getSubstrateConnectivity() {
-		return MicroRTSUtility.getSubstrateConnectivity(pgs);
+		return MicroRTSUtility.getSubstrateConnectivity(initialPgs);
 	}
 
 	/**
@@ -171,42 +238,29 @@ public class SinglePopulationCompetativeCoevolutionMicroRTSTask<T extends Networ
 	 */
 	@Override
 	public ArrayList<Pair<double[], double[]>> evaluateGroup(ArrayList<Genotype<T>> group) {
+		Evaluation e = evaluation();
 		//reset:
-		utt = new UnitTypeTable();
-		averageUnitDifference = 0;
-		baseUpTime1 = 0;
-		baseUpTime2 = 0;
-		harvestingEfficiencyIndex1 = 0;
-		harvestingEfficiencyIndex2 = 0;
-		pgs = initialPgs.clone();
-		gs = new GameState(pgs, utt);
-		if(!AiInitialized)
-			initializeAI();
-		ef1.setNetwork(group.get(0)); //pass each agent its own neural network
-		ef2.setNetwork(group.get(1));
+		e.utt = new UnitTypeTable();
+		e.averageUnitDifference = 0;
+		e.baseUpTime1 = 0;
+		e.baseUpTime2 = 0;
+		e.harvestingEfficiencyIndex1 = 0;
+		e.harvestingEfficiencyIndex2 = 0;
+		synchronized(this) {
+			e.pgs = initialPgs.clone();
+		}
+		e.gs = new GameState(e.pgs, e.utt);
+		e.ef1.givePhysicalGameState(e.pgs);
+		e.ef2.givePhysicalGameState(e.pgs);
+		e.ff.givePhysicalGameState(e.pgs);
+		e.ef1.setNetwork(group.get(0)); //pass each agent its own neural network
+		e.ef2.setNetwork(group.get(1));
 		if(CommonConstants.watch)
-			w = PhysicalGameStatePanel.newVisualizer(gs,640,640,false,PhysicalGameStatePanel.COLORSCHEME_WHITE);
-		ArrayList<Pair<double[], double[]>> al = (MicroRTSUtility.oneEval((AI)ai1, (AI)ai2, this, ff, w));
+			w = PhysicalGameStatePanel.newVisualizer(e.gs,640,640,false,PhysicalGameStatePanel.COLORSCHEME_WHITE);
+		ArrayList<Pair<double[], double[]>> al = (MicroRTSUtility.oneEval((AI)e.ai1, (AI)e.ai2, this, e.ff, w));
 		return al;
 	}
 
-	/**
-	 *initializes ai (only called once for efficiency) 
-	 * @return 
-	 */
-	void initializeAI() {
-		try {
-			ai1 = (HasEvaluationFunction) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSAgent"));
-			ai2 = (HasEvaluationFunction) ClassCreation.createObject(Parameters.parameters.classParameter("microRTSAgent"));
-		} catch (NoSuchMethodException e2) {
-			e2.printStackTrace();
-			System.exit(1);
-		}
-		ai1.setEvaluationFunction(ef1);
-		ai2.setEvaluationFunction(ef2);
-		AiInitialized = true;
-	}
-
 	@Override
 	public double[] minScores() {
 		return new double[numObjectives()]; //all 0's, not necessarily correct
@@ -218,7 +272,7 @@ public class SinglePopulationCompetativeCoevolutionMicroRTSTask<T extends Networ
 	}
 
 	@Override
-	public void preEval() {
+	public synchronized void preEval() {
 		if(Parameters.parameters.classParameter("microRTSMapSequence") != null){
 			String newMapName = maps.getAppropriateMap(((GenerationalEA) MMNEAT.ea).currentGeneration());
 			if (!newMapName.equals(mapName)){ // Change the map
@@ -236,50 +290,50 @@ public class SinglePopulationCompetativeCoevolutionMicroRTSTask<T extends Networ
 
 	@Override
 	public int getBaseUpTime(int player){
-		if(player == 1) return baseUpTime1;
-		else if(player == 2) return baseUpTime2;
+		if(player == 1) return evaluation().baseUpTime1;
+		else if(player == 2) return evaluation().baseUpTime2;
 		else throw new IllegalArgumentException("not a valid player: " + player);
 	}
 	@Override
 	public void setBaseUpTime(int but, int player) {
-		if(player == 1) baseUpTime1 = but;
-		else if(player == 2) baseUpTime2 = but;
+		if(player == 1) evaluation().baseUpTime1 = but;
+		else if(player == 2) evaluation().baseUpTime2 = but;
 		else throw new IllegalArgumentException("not a valid player: " + player);
 	}
 	@Override
 	public int getHarvestingEfficiency(int player){
-		if(player == 1) return harvestingEfficiencyIndex1;
-		else if (player == 2) return harvestingEfficiencyIndex2;
+		if(player == 1) return evaluation().harvestingEfficiencyIndex1;
+		else if (player == 2) return evaluation().harvestingEfficiencyIndex2;
 		else throw new IllegalArgumentException("not a valid player: " + player);
 	}
 	@Override
 	public void setHarvestingEfficiency(int hei, int player) {
-		if(player == 1) harvestingEfficiencyIndex1 = hei;
-		else if(player == 2) harvestingEfficiencyIndex2 = hei;
+		if(player == 1) evaluation().harvestingEfficiencyIndex1 = hei;
+		else if(player == 2) evaluation().harvestingEfficiencyIndex2 = hei;
 		else throw new IllegalArgumentException("not a valid player: " + player);
 	}
 	@Override
 	public double getPercentEnemiesDestroyed(int player) {
-		if(player == 1)	return percentEnemiesDestroyed1;
-		if(player == 2) return percentEnemiesDestroyed2;
+		if(player == 1)	return evaluation().percentEnemiesDestroyed1;
+		if(player == 2) return evaluation().percentEnemiesDestroyed2;
 		else throw new IllegalArgumentException("not a valid player: " + player);
 	}
 	@Override
 	public void setPercentEnemiesDestroyed(double enemies, int player) {
-		if(player == 1) percentEnemiesDestroyed1 = enemies;
-		else if (player == 2) percentEnemiesDestroyed2 = enemies;
+		if(player == 1) evaluation().percentEnemiesDestroyed1 = enemies;
+		else if (player == 2) evaluation().percentEnemiesDestroyed2 = enemies;
 		else throw new IllegalArgumentException("not a valid player: " + player);
 	}
 	@Override
-	public UnitTypeTable getUnitTypeTable() {return utt;}
+	public UnitTypeTable getUnitTypeTable() {return evaluation().utt;}
 	@Override
-	public GameState getGameState() {return gs;}
+	public GameState getGameState() {return evaluation().gs;}
 	@Override
-	public PhysicalGameState getPhysicalGameState() {return pgs;}
+	public PhysicalGameState getPhysicalGameState() {return evaluation().pgs;}
 	@Override
-	public double getAverageUnitDifference(){return averageUnitDifference;}
+	public double getAverageUnitDifference(){return evaluation().averageUnitDifference;}
 	@Override
-	public void setAvgUnitDiff(double diff) {averageUnitDifference = diff;}
+	public void setAvgUnitDiff(double diff) {evaluation().averageUnitDifference = diff;}
 
 	@Override
 	public int getNumInputSubstrates() {
@@ -58,6 +58,16 @@ public abstract class RTSFitnessFunction {
 		enemySwitches++;
 	}
 	
+	/**
+	 * Take the map and enemy switch counts from another fitness function,
+	 * so that copies used by separate evaluations report the same counts
+	 * @param other fitness function that is informed of switches
+	 */
+	public void copySwitchCounts(RTSFitnessFunction other){
+		mapSwitches = other.mapSwitches;
+		enemySwitches = other.enemySwitches;
+	}
+	
 	public void setNumEvals(int num){
 		numEvals = num;
 	}
@@ -3,6 +3,8 @@ package edu.southwestern.tasks.mspacman;
 import edu.southwestern.evolution.genotypes.Genotype;
 import edu.southwestern.networks.Network;
 import edu.southwestern.scores.Score;
+import edu.southwestern.tasks.EvaluationContext;
+import edu.southwestern.tasks.mspacman.sensors.MsPacManControllerInputOutputMediator;
 import java.util.ArrayList;
 
 /**
@@ -19,19 +21,45 @@ public class CooperativeCheckEachMultitaskSelectorMsPacManTask<T extends Network
 	public static final int MULTITASK_INDEX = 0;
 	public static final int PREFERENCE_INDEX = 1;
 	/**
-	 * Pass multitask network via static field
+	 * Pass multitask network via the EvaluationContext of the team, so that
+	 * teams evaluated in parallel each see their own multitask network
 	 */
-	@SuppressWarnings("rawtypes")
-	public static Genotype multitaskGenotype = null;
+	private static final Object MULTITASK_KEY = new Object();
 
 	public CooperativeCheckEachMultitaskSelectorMsPacManTask() {
 		super();
 	}
 
+	/**
+	 * Multitask network of the team being evaluated on the current thread
+	 *
+	 * @return multitask network for the pacman controller, or null outside of a team evaluation
+	 */
+	@SuppressWarnings("rawtypes")
+	public static Genotype multitaskGenotype() {
+		EvaluationContext context = EvaluationContext.current();
+		return context == null ? null : context.<Genotype>get(MULTITASK_KEY);
+	}
+
+	/**
+	 * The multitask network is passed to the controller through the
+	 * EvaluationContext of the team, so teams can be evaluated in parallel
+	 * as long as each team can also get its own copy of the mediator
+	 */
+	@Override
+	protected boolean parallelTeamEvaluation() {
+		return MsPacManControllerInputOutputMediator.sharedMediatorCopyable();
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	@Override
 	public ArrayList<Score> evaluate(Genotype[] team) {
-		multitaskGenotype = team[MULTITASK_INDEX];
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			// Called directly rather than through evaluateAllPopulations
+			return evaluateInNewContext(team);
+		}
+		context.put(MULTITASK_KEY, team[MULTITASK_INDEX]);
 		Genotype<T> preferenceGenotype = team[PREFERENCE_INDEX];
 
 		if (task.printFitness) {
@@ -53,7 +81,7 @@ public class CooperativeCheckEachMultitaskSelectorMsPacManTask<T extends Network
 			System.arraycopy(taskScores.otherStats, 0, otherStatsCopy, 0, taskScores.otherStats.length);
 			genotypeScores.add(new Score<T>(team[i], scoresCopy, null, otherStatsCopy));
 		}
-		multitaskGenotype = null;
+		context.put(MULTITASK_KEY, null);
 
 		return genotypeScores;
 	}
@@ -5,7 +5,9 @@ import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.networks.Network;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.scores.Score;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.mspacman.objectives.fitnessassignment.FitnessToModeMap;
+import edu.southwestern.tasks.mspacman.sensors.MsPacManControllerInputOutputMediator;
 import edu.southwestern.util.ClassCreation;
 import java.util.ArrayList;
 
@@ -20,10 +22,10 @@ public class CooperativeSubtaskSelectorMsPacManTask<T extends Network> extends C
 
 	/**
 	 * Had to set up a weird method of passing the subnetworks to the pacman
-	 * controller via these static fields
+	 * controller. They are kept in the EvaluationContext of the team, so that
+	 * teams evaluated in parallel each see their own subnetworks.
 	 */
-	@SuppressWarnings("rawtypes")
-	public static Genotype[] subNetworks = null;
+	private static final Object SUB_NETWORKS_KEY = new Object();
 	private final int[] fitnessPreferences;
 
 	public CooperativeSubtaskSelectorMsPacManTask() {
@@ -39,16 +41,43 @@ public class CooperativeSubtaskSelectorMsPacManTask<T extends Network> extends C
 		fitnessPreferences = fitnessMap.associatedFitnessScores();
 	}
 
+	/**
+	 * Subnetworks of the team being evaluated on the current thread
+	 *
+	 * @return subnetworks for the pacman controller, or null outside of a team evaluation
+	 */
+	@SuppressWarnings("rawtypes")
+	public static Genotype[] subNetworks() {
+		EvaluationContext context = EvaluationContext.current();
+		return context == null ? null : context.<Genotype[]>get(SUB_NETWORKS_KEY);
+	}
+
+	/**
+	 * Subnetworks are passed to the controller through the EvaluationContext of
+	 * the team, so teams can be evaluated in parallel as long as each team can
+	 * also get its own copy of the mediator
+	 */
+	@Override
+	protected boolean parallelTeamEvaluation() {
+		return MsPacManControllerInputOutputMediator.sharedMediatorCopyable();
+	}
+
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Override
 	public ArrayList<Score> evaluate(Genotype[] team) {
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			// Called directly rather than through evaluateAllPopulations
+			return evaluateInNewContext(team);
+		}
 		// Not sure if this will ever work for non-TWEANN networks, but I wanted
 		// to leave that option open
 		Genotype<T> selectorNetwork = team[0];
-		subNetworks = new Genotype[MMNEAT.modesToTrack];
+		Genotype[] subNetworks = new Genotype[MMNEAT.modesToTrack];
 		for (int i = 0; i < MMNEAT.modesToTrack; i++) {
 			subNetworks[i] = team[i + 1];
 		}
+		context.put(SUB_NETWORKS_KEY, subNetworks);
 
 		if (task.printFitness) {
 			System.out.print("IDs");
@@ -66,7 +95,7 @@ public class CooperativeSubtaskSelectorMsPacManTask<T extends Network> extends C
 			scores[i] = new Score<T>(subNetworks[i], task.fitnessArray(fitnessPreferences[i], taskScores), null,
 					new double[] {});
 		}
-		subNetworks = null;
+		context.put(SUB_NETWORKS_KEY, null);
 
 		ArrayList<Score> genotypeScores = new ArrayList<Score>(MMNEAT.modesToTrack + 2);
 		genotypeScores.add(taskScores);
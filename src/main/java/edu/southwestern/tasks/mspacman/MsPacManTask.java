@@ -19,6 +19,7 @@ import edu.southwestern.networks.hyperneat.Substrate;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.scores.Score;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.NoisyLonerTask;
 import edu.southwestern.tasks.mspacman.agentcontroller.ghosts.SharedNNGhosts;
 import edu.southwestern.tasks.mspacman.agentcontroller.pacman.MultinetworkMsPacManController;
@@ -57,10 +58,10 @@ import edu.southwestern.tasks.mspacman.objectives.SurvivalAndSpeedTimeScore;
 import edu.southwestern.tasks.mspacman.objectives.TimeFramesGhostScore;
 import edu.southwestern.tasks.mspacman.objectives.TimeFramesPillScore;
 import edu.southwestern.tasks.mspacman.objectives.TimeToEatAllGhostsScore;
+import edu.southwestern.tasks.mspacman.sensors.MsPacManControllerInputOutputMediator;
 import edu.southwestern.util.ClassCreation;
 import edu.southwestern.util.datastructures.Pair;
 import edu.southwestern.util.datastructures.Triple;
-import edu.southwestern.util.random.RandomNumbers;
 import edu.southwestern.util.stats.Average;
 import edu.southwestern.util.stats.Max;
 import edu.southwestern.util.stats.Mode;
@@ -94,6 +95,10 @@ public class MsPacManTask<T extends Network> extends NoisyLonerTask<T>implements
 	public List<Triple<String, String, Boolean>> connections = null; // filled below
 	public HashMap<Integer, List<Substrate>> substratesForMaze = new HashMap<Integer, List<Substrate>>();
 	public static String saveFilePrefix = "";
+	// Keys for per-evaluation state in an EvaluationContext
+	private static final Object GAME_KEY = new Object();
+	private static final Object GHOSTS_KEY = new Object();
+	private static final Object PACMAN_KEY = new Object();
 	//boolean variables
 	protected boolean deterministic;
 	protected boolean ignorePillScore;
@@ -420,12 +425,7 @@ public class MsPacManTask<T extends Network> extends NoisyLonerTask<T>implements
 	 */
 	public void loadGhosts() {
 		if (ghosts == null) {
-			try {
-				this.ghosts = new GhostControllerFacade((NewGhostController) ClassCreation.createObject("ghostTeam"));
-			} catch (NoSuchMethodException ex) {
-				ex.printStackTrace();
-				System.exit(1);
-			}
+			this.ghosts = newGhostTeam();
 		} else {
 			ghosts.reset();
 		}
@@ -439,17 +439,78 @@ public class MsPacManTask<T extends Network> extends NoisyLonerTask<T>implements
 	 */
 	public void loadPacMan() {
 		if (mspacman == null) {
-			try {
-				this.mspacman = new PacManControllerFacade((NewPacManController) ClassCreation.createObject("staticPacMan"));
-			} catch (NoSuchMethodException ex) {
-				ex.printStackTrace();
-				System.exit(1);
-			}
+			this.mspacman = newStaticPacMan();
 		} else {
 			mspacman.reset();
 		}
 	}
 
+	private static GhostControllerFacade newGhostTeam() {
+		try {
+			return new GhostControllerFacade((NewGhostController) ClassCreation.createObject("ghostTeam"));
+		} catch (NoSuchMethodException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+			return null;
+		}
+	}
+
+	private static PacManControllerFacade newStaticPacMan() {
+		try {
+			return new PacManControllerFacade((NewPacManController) ClassCreation.createObject("staticPacMan"));
+		} catch (NoSuchMethodException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+			return null;
+		}
+	}
+
+	/**
+	 * The static ghost team for the current evaluation. Each evaluation
+	 * running in an EvaluationContext gets its own ghost team (ghost
+	 * controllers remember things between time steps), which is reset at the
+	 * start of each game. Otherwise, the team shared by the task is used.
+	 *
+	 * @return ghost team, ready for a new game
+	 */
+	protected GhostControllerFacade evaluationGhosts() {
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			loadGhosts();
+			return ghosts;
+		}
+		GhostControllerFacade team = context.get(GHOSTS_KEY);
+		if (team == null) {
+			team = newGhostTeam();
+			context.put(GHOSTS_KEY, team);
+		} else {
+			team.reset();
+		}
+		return team;
+	}
+
+	/**
+	 * The static Ms. Pac-Man for the current evaluation, when evolving ghosts.
+	 * Works like evaluationGhosts().
+	 *
+	 * @return static pacman controller, ready for a new game
+	 */
+	protected PacManControllerFacade evaluationPacMan() {
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			loadPacMan();
+			return mspacman;
+		}
+		PacManControllerFacade pacman = context.get(PACMAN_KEY);
+		if (pacman == null) {
+			pacman = newStaticPacMan();
+			context.put(PACMAN_KEY, pacman);
+		} else {
+			pacman.reset();
+		}
+		return pacman;
+	}
+
 	@SuppressWarnings("rawtypes")
 	public final void addObjective(MsPacManObjective o, ArrayList<MsPacManObjective<T>> list, boolean affectsSelection) {
 		addObjective(o, list, null, affectsSelection);
@@ -461,28 +522,43 @@ public class MsPacManTask<T extends Network> extends NoisyLonerTask<T>implements
 		MMNEAT.registerFitnessFunction(o.getClass().getSimpleName(), override, affectsSelection);
 	}
 
+	/**
+	 * Each evaluation needs its own copy of the mediator, so evaluations are
+	 * serial if the shared mediator cannot be copied.
+	 */
+	@Override
+	protected boolean parallelEvaluationSupported() {
+		return MsPacManControllerInputOutputMediator.sharedMediatorCopyable();
+	}
+
 	@Override
 	public Score<T> evaluate(Genotype<T> individual) {
 		exec.log("Genotype ID: " + individual.getId());
 		return super.evaluate(individual);
 	}
 
+	/**
+	 * Game, controllers and ghosts are all local to this method (or held in
+	 * the EvaluationContext), so separate threads can evaluate at once.
+	 */
 	@SuppressWarnings("rawtypes")
 	@Override
 	public Pair<double[], double[]> oneEval(Genotype<T> individual, int num) {
 		Organism<T> organism = evolveGhosts ? new SharedNNGhosts<T>(individual) : new NNMsPacMan<T>(individual);
+		PacManControllerFacade pacman;
+		GhostControllerFacade ghostTeam;
 		if (evolveGhosts) {
-			loadPacMan();
-			ghosts = new GhostControllerFacade((NewGhostController) ((SharedNNGhosts<T>) organism).controller);
+			pacman = evaluationPacMan();
+			ghostTeam = new GhostControllerFacade((NewGhostController) ((SharedNNGhosts<T>) organism).controller);
 		} else {
-			mspacman = new PacManControllerFacade((NewPacManController) ((NNMsPacMan<T>) organism).controller);
+			pacman = new PacManControllerFacade((NewPacManController) ((NNMsPacMan<T>) organism).controller);
+			ghostTeam = evaluationGhosts();
 		}
 
-		// Side-effects to "game"
-		agentEval(mspacman, num);
-		if (mspacman.newP instanceof MultinetworkMsPacManController && individual instanceof NetworkGenotype) {
+		GameFacade game = agentEval(pacman, ghostTeam, num);
+		if (pacman.newP instanceof MultinetworkMsPacManController && individual instanceof NetworkGenotype) {
 			// Track subnet selections as if they were modes
-			((NetworkGenotype<T>) individual).setModuleUsage(((MultinetworkMsPacManController) mspacman.newP).fullUsage);
+			((NetworkGenotype<T>) individual).setModuleUsage(((MultinetworkMsPacManController) pacman.newP).fullUsage);
 		}
 
 		double[] fitnesses = new double[this.numObjectives()];
@@ -499,12 +575,30 @@ public class MsPacManTask<T extends Network> extends NoisyLonerTask<T>implements
 	}
 
 	public GameFacade agentEval(PacManControllerFacade mspacman, int num) {
+		return agentEval(mspacman, evolveGhosts ? ghosts : evaluationGhosts(), num);
+	}
+
+	/**
+	 * Play one game of Ms. Pac-Man
+	 *
+	 * @param mspacman
+	 *            Ms. Pac-Man controller
+	 * @param ghosts
+	 *            Ghost team controller
+	 * @param num
+	 *            Which evaluation is being performed
+	 * @return The game after it is over
+	 */
+	public GameFacade agentEval(PacManControllerFacade mspacman, GhostControllerFacade ghosts, int num) {
 		// System.out.println("Agent Eval");
-		if (!evolveGhosts) {
-			loadGhosts();
-		}
 		tcManager.preEval();
-		game = new GameFacade(new Game(deterministic ? num : RandomNumbers.randomGenerator.nextLong()));
+		GameFacade game = new GameFacade(new Game(deterministic ? num : EvaluationContext.random().nextLong()));
+		EvaluationContext context = EvaluationContext.current();
+		if (context == null) {
+			this.game = game;
+		} else {
+			context.putTrialState(GAME_KEY, game);
+		}
 		game.setExitLairEdible(exitLairEdible);
 		game.setEndOnlyOnTimeLimit(endOnlyOnTimeLimit);
 		game.setRandomLairExit(randomLairExit);
@@ -530,10 +624,9 @@ public class MsPacManTask<T extends Network> extends NoisyLonerTask<T>implements
 			// System.out.println("Watch game: " + mspacman);
 			exec.runGameTimed(mspacman, ghosts, game);
 			// exec.runGameTimed(new HumanController(new KeyBoardInput()),ghosts, true, game);
-		} else if (CommonConstants.timedPacman) {
-			exec.runGameTimedNonVisual(game, mspacman, ghosts);
 		} else {
-			exec.runExperiment(mspacman, ghosts, game);
+			// Headless games are stepped on this thread, which is much faster than the timed executors
+			exec.runGameHeadless(game, mspacman, ghosts, CommonConstants.timedPacman);
 		}
 		tcManager.postEval(game, campNum, startingLevel);
 		if (MMNEAT.evalReport != null) {
@@ -584,7 +677,9 @@ public class MsPacManTask<T extends Network> extends NoisyLonerTask<T>implements
 
 	@Override
 	public double getTimeStamp() {
-		return game.getTotalTime();
+		EvaluationContext context = EvaluationContext.current();
+		GameFacade current = context == null ? game : context.<GameFacade>getTrialState(GAME_KEY);
+		return current == null ? 0 : current.getTotalTime();
 	}
 
 
@@ -43,7 +43,7 @@ public class MultinetworkSelectorNetworkMsPacManController extends MultinetworkS
 	@Override
 	public int getAction(GameFacade game, long timeDue) {
 		// Done to keep mediator updated
-		MMNEAT.pacmanInputOutputMediator.mediatorStateUpdate(game);
+		MsPacManControllerInputOutputMediator.current().mediatorStateUpdate(game);
 		int action = super.getAction(game, timeDue);
 		return action;
 	}
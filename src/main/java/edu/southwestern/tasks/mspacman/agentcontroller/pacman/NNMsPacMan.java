@@ -15,6 +15,7 @@ import edu.southwestern.tasks.mspacman.CooperativeCheckEachMultitaskSelectorMsPa
 import edu.southwestern.tasks.mspacman.CooperativeSubtaskSelectorMsPacManTask;
 import edu.southwestern.tasks.mspacman.sensors.ActionBlockLoadedInputOutputMediator;
 import edu.southwestern.tasks.mspacman.sensors.CombiningInputOutputMediator;
+import edu.southwestern.tasks.mspacman.sensors.MsPacManControllerInputOutputMediator;
 import edu.southwestern.tasks.mspacman.sensors.VariableDirectionBlockLoadedInputOutputMediator;
 import edu.southwestern.tasks.mspacman.sensors.blocks.combining.GhostEatingNetworkBlock;
 import edu.southwestern.tasks.mspacman.sensors.blocks.combining.PillEatingNetworkBlock;
@@ -54,10 +55,11 @@ public class NNMsPacMan<T extends Network> extends Organism<T> {
 		} else {
 			Network net = (Network) this.getGenotype().getPhenotype();
 			boolean evolveNetworkSelector = Parameters.parameters.booleanParameter("evolveNetworkSelector");
+			MsPacManControllerInputOutputMediator mediator = MsPacManControllerInputOutputMediator.current();
 			try {
-				if (MMNEAT.pacmanInputOutputMediator instanceof ActionBlockLoadedInputOutputMediator) {
+				if (mediator instanceof ActionBlockLoadedInputOutputMediator) {
 					controller = new NNActionPacManController(net);
-				} else if (MMNEAT.pacmanInputOutputMediator instanceof VariableDirectionBlockLoadedInputOutputMediator) {
+				} else if (mediator instanceof VariableDirectionBlockLoadedInputOutputMediator) {
 					if (MMNEAT.sharedMultitaskNetwork != null) {
 						// All individuals define preference usage for the same
 						// shared Multitask policy network
@@ -68,9 +70,9 @@ public class NNMsPacMan<T extends Network> extends Organism<T> {
 						// evolved Multitask policy networks
 						controller = new NNMultitaskSelectorCheckEachDirectionPacManController(genotype,
 								MMNEAT.sharedPreferenceNetwork, MMNEAT.directionalSafetyFunction);
-					} else if (CooperativeCheckEachMultitaskSelectorMsPacManTask.multitaskGenotype != null) {
+					} else if (CooperativeCheckEachMultitaskSelectorMsPacManTask.multitaskGenotype() != null) {
 						controller = new NNMultitaskSelectorCheckEachDirectionPacManController(
-								CooperativeCheckEachMultitaskSelectorMsPacManTask.multitaskGenotype, genotype,
+								CooperativeCheckEachMultitaskSelectorMsPacManTask.multitaskGenotype(), genotype,
 								MMNEAT.directionalSafetyFunction);
 					} else {
 						controller = new NNCheckEachDirectionPacManController(genotype, MMNEAT.directionalSafetyFunction);
@@ -79,11 +81,11 @@ public class NNMsPacMan<T extends Network> extends Organism<T> {
 					HierarchicalTWEANN ht = (HierarchicalTWEANN) net;
 					Genotype<TWEANN> ghostNet = ht.getSubNetGenotype(GhostEatingNetworkBlock.GHOST_POOL);
 					Genotype<TWEANN> pillNet = ht.getSubNetGenotype(PillEatingNetworkBlock.PILL_POOL);
-					if (MMNEAT.pacmanInputOutputMediator instanceof CombiningInputOutputMediator) {
+					if (mediator instanceof CombiningInputOutputMediator) {
 						// Evolve combining net with population of possible subnets
-						((SubNetworkBlock) ((CombiningInputOutputMediator) MMNEAT.pacmanInputOutputMediator).blocks
+						((SubNetworkBlock) ((CombiningInputOutputMediator) mediator).blocks
 								.get(GhostEatingNetworkBlock.GHOST_POOL)).changeNetwork(ghostNet.getPhenotype());
-						((SubNetworkBlock) ((CombiningInputOutputMediator) MMNEAT.pacmanInputOutputMediator).blocks
+						((SubNetworkBlock) ((CombiningInputOutputMediator) mediator).blocks
 								.get(PillEatingNetworkBlock.PILL_POOL)).changeNetwork(pillNet.getPhenotype());
 						controller = new ReactiveNNPacManController(net);
 					} else if (evolveNetworkSelector) {
@@ -100,7 +102,7 @@ public class NNMsPacMan<T extends Network> extends Organism<T> {
 					} else {
 						// Subnets come from coevolution task
 						controller = new MultinetworkSelectorNetworkMsPacManController((TWEANN) net,
-								CooperativeSubtaskSelectorMsPacManTask.subNetworks);
+								CooperativeSubtaskSelectorMsPacManTask.subNetworks());
 					}
 				} else if (Parameters.parameters.booleanParameter("afterStates")) {
 					// This should be controlled by a commandline parameter
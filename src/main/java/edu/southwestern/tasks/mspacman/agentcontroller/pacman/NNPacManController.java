@@ -25,6 +25,8 @@ public abstract class NNPacManController extends NewPacManController {
 	public MsPacManControllerInputOutputMediator inputMediator;
 	private int maxLevel;
 	protected MsPacManModeSelector ms = null;
+	// Facade of the last game seen, reused while the same Game instance is passed in
+	private GameFacade facade = null;
 	// Accessed and reset by Performance log
 	public static int timesAllLevelsBeaten = 0;
 	public static int timesTimeLimitReached = 0;
@@ -50,7 +52,7 @@ public abstract class NNPacManController extends NewPacManController {
 		nn = n;
 		maxLevel = Parameters.parameters.integerParameter("pacmanMaxLevel");
 
-		inputMediator = MMNEAT.pacmanInputOutputMediator;
+		inputMediator = MsPacManControllerInputOutputMediator.current();
 		if (inputMediator != null) {
 			inputMediator.reset();
 		}
@@ -71,7 +73,12 @@ public abstract class NNPacManController extends NewPacManController {
 	 * @return the action to take or a number indicating the end of the game
 	 */
 	public int getAction(final Game gs, long timeDue) {
-		return getAction(new GameFacade(gs), timeDue);
+		// Headless games pass the same copy every time step, so the facade and
+		// its sensor cache can be kept instead of being recreated
+		if (facade == null || facade.newG != gs) {
+			facade = new GameFacade(gs);
+		}
+		return getAction(facade, timeDue);
 	}
 
 	/**
@@ -31,10 +31,12 @@ public class RecentPastQueue {
 	 * @param g
 	 */
 	public void giveCurrentState(Game g) {
+		// The oldest state is overwritten instead of allocating a new copy
+		Game oldest = null;
 		if (recentStates.size() > maxQueueLength) {
-			recentStates.poll();
+			oldest = recentStates.poll();
 		}
-		recentStates.offer(g.copy());
+		recentStates.offer(g.copyInto(oldest));
 	}
 
 	public boolean memoryFull() {
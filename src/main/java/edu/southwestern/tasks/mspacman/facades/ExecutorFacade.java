@@ -79,4 +79,15 @@ public class ExecutorFacade {
 	public void runGameTimedNonVisual(GameFacade game, PacManControllerFacade mspacman, GhostControllerFacade ghosts) {
 		newE.runGameTimedSpeedOptimised(mspacman.newP, ghosts.newG, false, false, game.newG);
 	}
+
+	/**
+	 * runs a game with visuals off on the calling thread, without controller threads
+	 * @param game facade of game
+	 * @param mspacman facade of controller
+	 * @param ghosts facade of ghosts
+	 * @param timeLimit whether moves computed too late are replaced by the previous move
+	 */
+	public void runGameHeadless(GameFacade game, PacManControllerFacade mspacman, GhostControllerFacade ghosts, boolean timeLimit) {
+		newE.runGameHeadless(mspacman.newP, ghosts.newG, timeLimit, game.newG);
+	}
 }
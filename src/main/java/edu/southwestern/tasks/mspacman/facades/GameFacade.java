@@ -14,6 +14,7 @@ import pacman.game.Constants.DM;
 import pacman.game.Constants.GHOST;
 import pacman.game.Constants.MOVE;
 import pacman.game.Game;
+import pacman.game.GameSnapshot;
 
 /**
  *Contains pac man game. Includes harnesses for both
@@ -29,6 +30,8 @@ public class GameFacade {
 	public static final int NUM_DIRS = 4;
 	public static final int DANGEROUS_TIME = 5;
 	public Game newG = null;
+	// Created when first needed, since many facades are only used briefly
+	private SensorCache cache = null;
 
 	/**
 	 * returns what move to make based on the 
@@ -191,6 +194,17 @@ public class GameFacade {
 		newG = g;
 	}
 
+	/**
+	 * Values already calculated for the current time step of this game
+	 * @return cache belonging to this facade
+	 */
+	public SensorCache sensorCache() {
+		if (cache == null) {
+			cache = new SensorCache();
+		}
+		return cache;
+	}
+
 	/**
 	 * gets times taken to eat each pill
 	 * @return list of times
@@ -472,6 +486,14 @@ public class GameFacade {
 	 * @return
 	 */
 	public int nextJunctionInDirection(int current, int currentDir, boolean powerPillsToo) {
+		return sensorCache().nextJunctionInDirection(this, current, currentDir, powerPillsToo);
+	}
+
+	/**
+	 * Follows the maze from current in currentDir until a junction is found.
+	 * Called by the sensor cache when the answer is not known yet.
+	 */
+	int findNextJunctionInDirection(int current, int currentDir, boolean powerPillsToo) {
 		int[] neighbors = restrictedNeighbors(current, currentDir);
 		int numBlocked = ArrayUtil.countOccurrences(-1, neighbors);
 		int pos = -1;
@@ -652,7 +674,7 @@ public class GameFacade {
 	 * @return indices of power pills
 	 */
 	public int[] getActivePowerPillsIndices() {
-		return newG.getActivePowerPillsIndices();
+		return sensorCache().getActivePowerPillsIndices(newG);
 	}
 
 	/**
@@ -669,7 +691,7 @@ public class GameFacade {
 	 * @return indices of active pills
 	 */
 	public int[] getActivePillsIndices() {
-		return newG.getActivePillsIndices();
+		return sensorCache().getActivePillsIndices(newG);
 	}
 
 	/**
@@ -684,7 +706,7 @@ public class GameFacade {
 	 * @return the closest node index from node index
 	 */
 	public int getClosestNodeIndexFromNodeIndex(int current, int[] targets) {
-		return newG.getClosestNodeIndexFromNodeIndex(current, targets, DM.PATH);
+		return sensorCache().getClosestNodeIndexFromNodeIndex(this, current, targets);
 	}
 
 	/**
@@ -939,10 +961,16 @@ public class GameFacade {
 	public Pair<Integer, int[]> getTargetInDir(int fromNodeIndex, int[] targetNodeIndices, int direction, boolean shortest) {
 		assert fromNodeIndex != -1 : "Invalid from node: " + fromNodeIndex;
 		assert direction >= 0 && direction <= 3 : "Not a valid direction: " + direction;
-		Pair<Integer, int[]> result = getTargetInDirFromNew(fromNodeIndex, targetNodeIndices, direction, shortest);
+		SensorCache sensorCache = sensorCache();
+		Pair<Integer, int[]> result = sensorCache.getTargetInDir(newG, fromNodeIndex, targetNodeIndices, direction, shortest);
+		if (result != null) {
+			return result;
+		}
+		result = getTargetInDirFromNew(fromNodeIndex, targetNodeIndices, direction, shortest);
 		assert(result != null && result.t2 != null) : ("Why is pair null? " + result);
 		assert(validPath(result.t2)) : ("Invalid path! " + Arrays.toString(result.t2));
 		assert(result.t2.length == 0 || result.t2[0] != fromNodeIndex) : ("Path should NOT start at  location!");
+		sensorCache.putTargetInDir(newG, fromNodeIndex, targetNodeIndices, direction, shortest, result);
 		return result;
 	}
 
@@ -1108,7 +1136,7 @@ public class GameFacade {
 	 * @return indices of edible ghosts
 	 */
 	public int[] getEdibleGhostLocations() {
-		return getEdibleGhostLocations(new boolean[] { true, true, true, true });
+		return sensorCache().getEdibleGhostLocations(this);
 	}
 
 	/**
@@ -1208,7 +1236,7 @@ public class GameFacade {
 	 * @return
 	 */
 	public int[] getThreatGhostLocations() {
-		return getThreatGhostLocations(new boolean[] { true, true, true, true });
+		return sensorCache().getThreatGhostLocations(this);
 	}
 
 	/**
@@ -1472,6 +1500,10 @@ public class GameFacade {
 			myMoves.put(indexToGhost(i), indexToMove(ghostDirs[i]));
 		}
 		newG.advanceGame(indexToMove(pacManDir), myMoves);
+		if (cache != null) {
+			// Time alone does not tell apart repeated advances from the same snapshot
+			cache.invalidate();
+		}
 	}
 
 	/**
@@ -1556,12 +1588,15 @@ public class GameFacade {
 		GameFacade copy = this.copy();
 		int[] ghostDirs = ghostModel.getActions(copy, 0);
 
-		GameFacade backup = copy.copy();
+		// Restoring a snapshot in place is equivalent to advancing a new copy of the backup
+		GameSnapshot backup = copy.newG.saveSnapshot(null);
+		int backupPowerPills = copy.getNumActivePowerPills();
+		copy.advanceGame(dir, ghostDirs);
 		// Loop prevents reversals
-		do {
-			copy = backup.copy();
+		while (copy.ghostReversal() && copy.getNumActivePowerPills() == backupPowerPills) {
+			copy.newG.restoreSnapshot(backup);
 			copy.advanceGame(dir, ghostDirs);
-		} while (copy.ghostReversal() && copy.getNumActivePowerPills() == backup.getNumActivePowerPills());
+		}
 		return copy;
 	}
 
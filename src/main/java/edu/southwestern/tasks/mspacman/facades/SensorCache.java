@@ -0,0 +1,302 @@
+package edu.southwestern.tasks.mspacman.facades;
+
+import edu.southwestern.util.datastructures.Pair;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import pacman.game.Constants.DM;
+import pacman.game.Game;
+
+/**
+ * Values computed from one game at one time step, kept by the GameFacade of
+ * that game so that sensor blocks and path queries asked for more than once
+ * in the same time step are only calculated once. Everything is discarded as
+ * soon as the game moves on to another time step. Because each game has its
+ * own cache, games played in parallel never see each other's values, and no
+ * locking is needed as long as a game is only played by one thread at a time.
+ *
+ * @author Jacob Schrum
+ */
+public class SensorCache {
+
+	/**
+	 * Sensor values of one sensor block, and the time step they belong to
+	 */
+	private static class SensorValues {
+		long step = -1;
+		double[] values;
+	}
+
+	/**
+	 * Arguments of a path query to several targets. The probe key used for
+	 * lookups refers to the caller's target array, and a copy is only made
+	 * when a new result is stored.
+	 */
+	private static class TargetKey {
+		int from;
+		int direction;
+		boolean shortest;
+		int[] targets;
+		int hash;
+
+		void set(int from, int[] targets, int direction, boolean shortest) {
+			this.from = from;
+			this.targets = targets;
+			this.direction = direction;
+			this.shortest = shortest;
+			this.hash = ((Arrays.hashCode(targets) * 31 + from) * 31 + direction) * 2 + (shortest ? 1 : 0);
+		}
+
+		TargetKey copy() {
+			TargetKey key = new TargetKey();
+			key.from = from;
+			key.targets = targets.clone();
+			key.direction = direction;
+			key.shortest = shortest;
+			key.hash = hash;
+			return key;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof TargetKey)) {
+				return false;
+			}
+			TargetKey other = (TargetKey) o;
+			return from == other.from && direction == other.direction && shortest == other.shortest
+					&& Arrays.equals(targets, other.targets);
+		}
+	}
+
+	// Game and time step that the cached values belong to
+	private Game game = null;
+	private int time = -1;
+	private int version = 0;
+	private int seenVersion = -1;
+	// Increases every time the game moves to another time step
+	private long step = 0;
+
+	// Keyed by the block object rather than by equals/hashCode. Sensor blocks
+	// only ever equal themselves (see MsPacManSensorBlock.equals(Object)), and
+	// directional blocks throw from hashCode(), so a HashMap could not cache them
+	private final IdentityHashMap<Object, SensorValues> sensorValues = new IdentityHashMap<Object, SensorValues>();
+	// Each mediator fills its own array
+	private final IdentityHashMap<Object, double[]> inputBuffers = new IdentityHashMap<Object, double[]>();
+
+	private int[] activePills;
+	private int[] activePowerPills;
+	private int[] threatGhostLocations;
+	private int[] edibleGhostLocations;
+	private final HashMap<TargetKey, Pair<Integer, int[]>> targetsInDir = new HashMap<TargetKey, Pair<Integer, int[]>>();
+	private final HashMap<TargetKey, Integer> closestNodes = new HashMap<TargetKey, Integer>();
+	private final TargetKey probe = new TargetKey();
+	// Next junction from each node in each direction, with and without power pills
+	private int[] nextJunctions = new int[0];
+	private long[] nextJunctionSteps = new long[0];
+
+	/**
+	 * Forget everything cached for the current time step. Needed when the game
+	 * is changed in a way that does not advance its time, such as restoring a
+	 * snapshot.
+	 */
+	public void invalidate() {
+		version++;
+	}
+
+	/**
+	 * Discards the cached values if the game has moved on since they were
+	 * calculated.
+	 *
+	 * @param g
+	 *            the game being sensed
+	 */
+	private void checkStep(Game g) {
+		int currentTime = g.getTotalTime();
+		if (g != game || currentTime != time || version != seenVersion) {
+			game = g;
+			time = currentTime;
+			seenVersion = version;
+			step++;
+			activePills = null;
+			activePowerPills = null;
+			threatGhostLocations = null;
+			edibleGhostLocations = null;
+			targetsInDir.clear();
+			closestNodes.clear();
+		}
+	}
+
+	/**
+	 * Array that a mediator can fill with its inputs on every time step,
+	 * instead of allocating a new one each time.
+	 *
+	 * @param owner
+	 *            the mediator
+	 * @param size
+	 *            number of inputs
+	 * @return array of the given size that always belongs to the owner
+	 */
+	public double[] inputBuffer(Object owner, int size) {
+		double[] buffer = inputBuffers.get(owner);
+		if (buffer == null || buffer.length != size) {
+			buffer = new double[size];
+			inputBuffers.put(owner, buffer);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Copies sensor values that a block already calculated on this time step
+	 * into inputs.
+	 *
+	 * @param block
+	 *            the sensor block
+	 * @param g
+	 *            the game being sensed
+	 * @param inputs
+	 *            where to copy the values
+	 * @param in
+	 *            position of the first value in inputs
+	 * @param size
+	 *            number of values
+	 * @return true if the values were cached, false if they must be calculated
+	 */
+	public boolean getSensors(Object block, Game g, double[] inputs, int in, int size) {
+		checkStep(g);
+		SensorValues cached = sensorValues.get(block);
+		if (cached == null || cached.step != step) {
+			return false;
+		}
+		System.arraycopy(cached.values, 0, inputs, in, size);
+		return true;
+	}
+
+	/**
+	 * Remember the sensor values a block calculated on this time step
+	 *
+	 * @param block
+	 *            the sensor block
+	 * @param g
+	 *            the game being sensed
+	 * @param inputs
+	 *            array holding the values
+	 * @param in
+	 *            position of the first value in inputs
+	 * @param size
+	 *            number of values
+	 */
+	public void putSensors(Object block, Game g, double[] inputs, int in, int size) {
+		checkStep(g);
+		SensorValues cached = sensorValues.get(block);
+		if (cached == null) {
+			cached = new SensorValues();
+			sensorValues.put(block, cached);
+		}
+		if (cached.values == null || cached.values.length != size) {
+			cached.values = new double[size];
+		}
+		System.arraycopy(inputs, in, cached.values, 0, size);
+		cached.step = step;
+	}
+
+	public int[] getActivePillsIndices(Game g) {
+		checkStep(g);
+		if (activePills == null) {
+			activePills = g.getActivePillsIndices();
+		}
+		return activePills.clone();
+	}
+
+	public int[] getActivePowerPillsIndices(Game g) {
+		checkStep(g);
+		if (activePowerPills == null) {
+			activePowerPills = g.getActivePowerPillsIndices();
+		}
+		return activePowerPills.clone();
+	}
+
+	/**
+	 * Locations of all threat ghosts, calculated by the facade if they are not
+	 * known yet on this time step
+	 */
+	int[] getThreatGhostLocations(GameFacade gf) {
+		checkStep(gf.newG);
+		if (threatGhostLocations == null) {
+			threatGhostLocations = gf.getThreatGhostLocations(new boolean[] { true, true, true, true });
+		}
+		return threatGhostLocations.clone();
+	}
+
+	/**
+	 * Locations of all edible ghosts, calculated by the facade if they are not
+	 * known yet on this time step
+	 */
+	int[] getEdibleGhostLocations(GameFacade gf) {
+		checkStep(gf.newG);
+		if (edibleGhostLocations == null) {
+			edibleGhostLocations = gf.getEdibleGhostLocations(new boolean[] { true, true, true, true });
+		}
+		return edibleGhostLocations.clone();
+	}
+
+	/**
+	 * Result of GameFacade.getTargetInDir already found on this time step
+	 *
+	 * @return copy of the result, or null if it is not known yet
+	 */
+	Pair<Integer, int[]> getTargetInDir(Game g, int from, int[] targets, int direction, boolean shortest) {
+		checkStep(g);
+		probe.set(from, targets, direction, shortest);
+		Pair<Integer, int[]> result = targetsInDir.get(probe);
+		return result == null ? null : new Pair<Integer, int[]>(result.t1, result.t2.clone());
+	}
+
+	/**
+	 * Remember a result of GameFacade.getTargetInDir for the rest of the time
+	 * step
+	 */
+	void putTargetInDir(Game g, int from, int[] targets, int direction, boolean shortest, Pair<Integer, int[]> result) {
+		checkStep(g);
+		probe.set(from, targets, direction, shortest);
+		targetsInDir.put(probe.copy(), new Pair<Integer, int[]>(result.t1, result.t2.clone()));
+	}
+
+	/**
+	 * Closest of several targets to a node, remembered for the rest of the
+	 * time step
+	 */
+	int getClosestNodeIndexFromNodeIndex(GameFacade gf, int current, int[] targets) {
+		checkStep(gf.newG);
+		probe.set(current, targets, -1, true);
+		Integer closest = closestNodes.get(probe);
+		if (closest == null) {
+			closest = gf.newG.getClosestNodeIndexFromNodeIndex(current, targets, DM.PATH);
+			closestNodes.put(probe.copy(), closest);
+		}
+		return closest;
+	}
+
+	/**
+	 * Next junction from a node in a direction, remembered for the rest of the
+	 * time step
+	 */
+	int nextJunctionInDirection(GameFacade gf, int current, int currentDir, boolean powerPillsToo) {
+		checkStep(gf.newG);
+		int slot = ((current * GameFacade.NUM_DIRS) + currentDir) * 2 + (powerPillsToo ? 1 : 0);
+		if (slot >= nextJunctions.length) {
+			int size = Math.max(slot + 1, gf.lengthMaze() * GameFacade.NUM_DIRS * 2);
+			nextJunctions = Arrays.copyOf(nextJunctions, size);
+			nextJunctionSteps = Arrays.copyOf(nextJunctionSteps, size);
+		}
+		if (nextJunctionSteps[slot] != step) {
+			nextJunctions[slot] = gf.findNextJunctionInDirection(current, currentDir, powerPillsToo);
+			nextJunctionSteps[slot] = step;
+		}
+		return nextJunctions[slot];
+	}
+}
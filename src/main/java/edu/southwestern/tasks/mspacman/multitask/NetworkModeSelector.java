@@ -1,6 +1,5 @@
 package edu.southwestern.tasks.mspacman.multitask;
 
-import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.networks.Network;
 import edu.southwestern.tasks.mspacman.sensors.MsPacManControllerInputOutputMediator;
 import edu.southwestern.util.stats.StatisticsUtilities;
@@ -22,7 +21,7 @@ public class NetworkModeSelector<T extends Network> extends MsPacManModeSelector
 	 *            network
 	 */
 	public NetworkModeSelector(T n) {
-		this(n, MMNEAT.pacmanInputOutputMediator);
+		this(n, MsPacManControllerInputOutputMediator.current());
 	}
 
 	/**
@@ -31,10 +31,11 @@ public class BlockLoadedInputOutputMediator extends MsPacManControllerInputOutpu
 	 *            the game instance
 	 * @param currentDir,
 	 *            the current direction
-	 * @return the sensor inputs
+	 * @return the sensor inputs, in an array that the game facade reuses the
+	 *         next time this mediator is asked for inputs
 	 */
 	public double[] getInputs(GameFacade gs, int currentDir) {
-		double[] inputs = new double[numIn()];
+		double[] inputs = gs.sensorCache().inputBuffer(this, numIn());
 		int in = 0;
 		for (int i = 0; i < blocks.size(); i++) {
 			in = CommonConstants.pacManSensorCaching ? blocks.get(i).retrieveSensors(inputs, in, gs, currentDir)
@@ -1,8 +1,11 @@
 package edu.southwestern.tasks.mspacman.sensors;
 
+import java.util.concurrent.ForkJoinTask;
+
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.EvaluationContext;
 import edu.southwestern.tasks.mspacman.data.NodeCollection;
 import edu.southwestern.tasks.mspacman.facades.GameFacade;
 import edu.southwestern.util.ClassCreation;
@@ -15,8 +18,12 @@ import edu.southwestern.util.ClassCreation;
  */
 public abstract class MsPacManControllerInputOutputMediator {
 
+	// Key for the mediator of an evaluation within its EvaluationContext
+	private static final Object MEDIATOR_KEY = new Object();
+
 	protected final int absence;
-	public static NodeCollection escapeNodes = null;
+	// Each mediator has its own escape nodes, since they change as the game is played
+	public final NodeCollection escapeNodes;
 	private final boolean evolveNetworkSelector;
 	private final boolean externalPreferenceNeurons;
 
@@ -24,19 +31,98 @@ public abstract class MsPacManControllerInputOutputMediator {
 	 * Constructor to set some global variables based on command line parameters
 	 */
 	public MsPacManControllerInputOutputMediator() {
-		if (escapeNodes == null) {
-			try {
-				escapeNodes = (NodeCollection) ClassCreation.createObject("pacmanEscapeNodeCollection");
-			} catch (NoSuchMethodException ex) {
-				System.out.println("Cannot initialize escape nodes");
-				System.exit(1);
-			}
+		NodeCollection nodes = null;
+		try {
+			nodes = (NodeCollection) ClassCreation.createObject("pacmanEscapeNodeCollection");
+		} catch (NoSuchMethodException ex) {
+			System.out.println("Cannot initialize escape nodes");
+			System.exit(1);
 		}
+		escapeNodes = nodes;
 		externalPreferenceNeurons = Parameters.parameters.booleanParameter("externalPreferenceNeurons");
 		absence = Parameters.parameters.booleanParameter("absenceNegative") ? -1 : 0;
 		evolveNetworkSelector = Parameters.parameters.booleanParameter("evolveNetworkSelector");
 	}
 
+	// Shared mediator that copyable was last computed for, and the result
+	private static MsPacManControllerInputOutputMediator checkedShared = null;
+	private static boolean sharedCopyable = false;
+
+	/**
+	 * Whether a mediator equivalent to MMNEAT.pacmanInputOutputMediator can
+	 * be created for each evaluation. This is not the case if the shared
+	 * mediator was changed after construction (for example by adding blocks
+	 * for coevolved subnetworks), since a newly constructed mediator would
+	 * then have different sensors. Ms. Pac-Man tasks only evaluate in
+	 * parallel when this is true.
+	 *
+	 * @return true if the shared mediator can be recreated
+	 */
+	public static synchronized boolean sharedMediatorCopyable() {
+		MsPacManControllerInputOutputMediator shared = MMNEAT.pacmanInputOutputMediator;
+		if (shared != checkedShared) {
+			checkedShared = shared;
+			sharedCopyable = shared != null && createCopy(shared) != null;
+		}
+		return sharedCopyable;
+	}
+
+	/**
+	 * New mediator of the class specified by pacmanInputOutputMediator, if
+	 * it matches the shared mediator.
+	 *
+	 * @param shared
+	 *            MMNEAT.pacmanInputOutputMediator
+	 * @return equivalent mediator, or null if none can be constructed
+	 */
+	private static MsPacManControllerInputOutputMediator createCopy(MsPacManControllerInputOutputMediator shared) {
+		if (!shared.getClass().equals(Parameters.parameters.classParameter("pacmanInputOutputMediator"))) {
+			return null;
+		}
+		MsPacManControllerInputOutputMediator copy = null;
+		try {
+			copy = (MsPacManControllerInputOutputMediator) ClassCreation.createObject("pacmanInputOutputMediator");
+		} catch (NoSuchMethodException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		}
+		return copy.numIn() == shared.numIn() && copy.numOut() == shared.numOut() ? copy : null;
+	}
+
+	/**
+	 * The mediator that Ms. Pac-Man controllers should use. Outside of an
+	 * evaluation, this is MMNEAT.pacmanInputOutputMediator. Within an
+	 * evaluation, a new mediator of the same class is created for that
+	 * evaluation, so that parallel evaluations do not share mediator state.
+	 * If the shared mediator cannot be recreated (see sharedMediatorCopyable)
+	 * it is used directly, which is only allowed when evaluations are serial.
+	 *
+	 * @return mediator for the current evaluation
+	 * @throws IllegalStateException
+	 *             if the shared mediator cannot be recreated but is requested
+	 *             by an evaluation running in the EvaluationPool
+	 */
+	public static MsPacManControllerInputOutputMediator current() {
+		MsPacManControllerInputOutputMediator shared = MMNEAT.pacmanInputOutputMediator;
+		EvaluationContext context = EvaluationContext.current();
+		if (shared == null || context == null) {
+			return shared;
+		}
+		MsPacManControllerInputOutputMediator mediator = context.get(MEDIATOR_KEY);
+		if (mediator == null) {
+			mediator = sharedMediatorCopyable() ? createCopy(shared) : null;
+			if (mediator == null) {
+				if (ForkJoinTask.inForkJoinPool()) {
+					throw new IllegalStateException("Mediator " + shared.getClass().getName()
+							+ " was modified after construction and cannot be shared by parallel evaluations");
+				}
+				mediator = shared;
+			}
+			context.put(MEDIATOR_KEY, mediator);
+		}
+		return mediator;
+	}
+
 	/**
 	 * update the nodes in the escapeNodes node collection to include the pacman
 	 * node of the current game
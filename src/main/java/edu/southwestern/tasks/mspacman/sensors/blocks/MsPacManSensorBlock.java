@@ -1,8 +1,7 @@
 package edu.southwestern.tasks.mspacman.sensors.blocks;
 
 import edu.southwestern.tasks.mspacman.facades.GameFacade;
-import edu.southwestern.util.datastructures.Pair;
-import java.util.HashMap;
+import edu.southwestern.tasks.mspacman.facades.SensorCache;
 
 /**
  *
@@ -10,9 +9,6 @@ import java.util.HashMap;
  */
 public abstract class MsPacManSensorBlock {
 
-	// Key is Block hash code, pair of level time and sensor values
-	private static HashMap<MsPacManSensorBlock, Pair<Integer, double[]>> sensorRecord = new HashMap<MsPacManSensorBlock, Pair<Integer, double[]>>();
-
 	/**
 	 * Takes a set of input values under construction, and from the index of
 	 * startPoint, starts adding sensor values. Then the index after the last
@@ -32,8 +28,9 @@ public abstract class MsPacManSensorBlock {
 
 	/**
 	 * Performs the same action as incorporateSensors, but stores the result
-	 * statically, so that it can be retrieved by other calls that want to
-	 * access it on the same
+	 * so that it can be retrieved by other calls that want to
+	 * access it on the same time step. The result is kept in the SensorCache
+	 * of the game facade, so each game remembers its own readings
 	 * 
 	 * @param inputs
 	 * @param in
@@ -42,21 +39,16 @@ public abstract class MsPacManSensorBlock {
 	 * @return
 	 */
 	public int retrieveSensors(double[] inputs, int in, GameFacade gf, int lastDirection) {
-		Pair<Integer, double[]> previousCalculation = sensorRecord.get(this);
-		int currentTime = gf.getCurrentLevelTime();
+		SensorCache cache = gf.sensorCache();
 		int toAdd = numberAdded();
-		if (previousCalculation == null || previousCalculation.t1 != currentTime) {
-			int result = incorporateSensors(inputs, in, gf, lastDirection);
-			double[] store = new double[toAdd];
-			System.arraycopy(inputs, in, store, 0, toAdd);
-			sensorRecord.put(this, new Pair<Integer, double[]>(currentTime, store));
-			return result;
-		} else {
+		if (cache.getSensors(this, gf.newG, inputs, in, toAdd)) {
 			// System.out.println("Retrieved cached sensor result: " +
 			// this.getClass().getSimpleName());
-			System.arraycopy(previousCalculation.t2, 0, inputs, in, toAdd);
 			return in + toAdd;
 		}
+		int result = incorporateSensors(inputs, in, gf, lastDirection);
+		cache.putSensors(this, gf.newG, inputs, in, toAdd);
+		return result;
 	}
 
 	public abstract int incorporateLabels(String[] labels, int in);
@@ -1,7 +1,6 @@
 package edu.southwestern.tasks.rlglue.featureextractors.tetris;
 
 import edu.southwestern.parameters.CommonConstants;
-import edu.southwestern.tasks.rlglue.featureextractors.FeatureExtractor;
 import java.util.ArrayList;
 import org.rlcommunity.environments.tetris.TetrisPiece;
 import org.rlcommunity.environments.tetris.TetrisState;
@@ -12,7 +11,7 @@ import org.rlcommunity.rlglue.codec.types.Observation;
  * Depends on afterstates.
  * @author Jacob Schrum, Gabby Gonzalez
  */
-public class BertsekasTsitsiklisTetrisExtractor implements FeatureExtractor {
+public class BertsekasTsitsiklisTetrisExtractor implements TetrisBitboardExtractor {
 
 	protected final int worldWidth;
 	protected final int worldHeight;
@@ -98,6 +97,70 @@ public class BertsekasTsitsiklisTetrisExtractor implements FeatureExtractor {
 		return inputs;
 	}
 
+	/**
+	 * Same features as above, computed from the rows of a bit board. Column
+	 * heights and holes are found by sweeping down the rows while keeping a
+	 * mask of the columns whose top has been reached: in each row, the holes
+	 * are the empty cells of those columns.
+	 * 
+	 * @param rows Board rows as bit masks
+	 * @param offset Index of the top row
+	 * @return array of inputs
+	 */
+	@Override
+	public double[] extract(int[] rows, int offset) {
+		double[] inputs = new double[numFeatures()];
+		int holes = columnHeightsAndHoles(rows, offset, inputs, null);
+		int in = worldWidth;
+		double maxHeight = 0;
+		for (int i = 0; i < worldWidth; i++) {
+			maxHeight = Math.max(inputs[i], maxHeight);
+		}
+		for (int i = 0; i < worldWidth - 1; i++) {
+			inputs[in++] = Math.abs(inputs[i] - inputs[i + 1]);
+		}
+
+		inputs[in++] = maxHeight;
+		inputs[in++] = holes;
+		// Networks generated by HyperNEAT have their biases embedded in the neurons
+		if(!CommonConstants.hyperNEAT && !CommonConstants.hybrID){
+			inputs[in++] = 1; // bias
+		}
+		return inputs;
+	}
+
+	/**
+	 * Column heights and holes of a bit board
+	 * 
+	 * @param rows Board rows as bit masks
+	 * @param offset Index of the top row
+	 * @param heights Receives the height of column i at index i
+	 * @param columnHoles If not null, receives the holes of column i at index i
+	 * @return total number of holes
+	 */
+	protected int columnHeightsAndHoles(int[] rows, int offset, double[] heights, double[] columnHoles) {
+		int reached = 0; // Columns whose highest filled cell is at or above the current row
+		int holes = 0;
+		for (int y = 0; y < worldHeight; y++) {
+			int row = rows[offset + y];
+			int tops = row & ~reached;
+			while (tops != 0) {
+				heights[Integer.numberOfTrailingZeros(tops)] = worldHeight - y;
+				tops &= tops - 1;
+			}
+			reached |= row;
+			int empty = reached & ~row;
+			holes += Integer.bitCount(empty);
+			if (columnHoles != null) {
+				while (empty != 0) {
+					columnHoles[Integer.numberOfTrailingZeros(empty)]++;
+					empty &= empty - 1;
+				}
+			}
+		}
+		return holes;
+	}
+
 	/**
 	 * Returns an array of feature labels given the current extractor
 	 */
@@ -69,4 +69,25 @@ public class ExtendedBertsekasTsitsiklisTetrisExtractor extends BertsekasTsitsik
 
 		return combined;
 	}
+
+	/**
+	 * Same features as above, from the rows of a bit board
+	 * 
+	 * @param rows Board rows as bit masks
+	 * @param offset Index of the top row
+	 * @return array of inputs
+	 */
+	@Override
+	public double[] extract(int[] rows, int offset) {
+		double[] base = super.extract(rows, offset);
+		double[] heights = new double[worldWidth];
+		double[] added = new double[worldWidth];
+		columnHeightsAndHoles(rows, offset, heights, added);
+
+		double[] combined = new double[super.numFeatures() + added.length];
+		System.arraycopy(base, 0, combined, 0, super.numFeatures());
+		System.arraycopy(added, 0, combined, super.numFeatures(), added.length);
+
+		return combined;
+	}
 }
@@ -0,0 +1,26 @@
+package edu.southwestern.tasks.rlglue.featureextractors.tetris;
+
+import edu.southwestern.tasks.rlglue.featureextractors.FeatureExtractor;
+
+/**
+ * Tetris feature extractor that can also read an after state directly from
+ * the rows of a bit board (see TetrisBitboard), which avoids building an
+ * Observation for every after state considered.
+ *
+ * @author Jacob Schrum
+ */
+public interface TetrisBitboardExtractor extends FeatureExtractor {
+
+	/**
+	 * Same features that extract(Observation) returns for an observation of
+	 * the board without a falling piece.
+	 *
+	 * @param rows
+	 *            Array containing the board, one int per row from the top,
+	 *            where bit x is set if column x is filled
+	 * @param offset
+	 *            Index of the top row in rows
+	 * @return unscaled feature vector
+	 */
+	public double[] extract(int[] rows, int offset);
+}
@@ -1,7 +1,5 @@
 package edu.southwestern.tasks.rlglue.tetris;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Vector;
@@ -17,8 +15,8 @@ import edu.southwestern.networks.dl4j.DL4JNetworkWrapper;
 import edu.southwestern.parameters.CommonConstants;
 import edu.southwestern.parameters.Parameters;
 import edu.southwestern.tasks.rlglue.RLGlueAgent;
+import edu.southwestern.tasks.rlglue.featureextractors.tetris.TetrisBitboardExtractor;
 import edu.southwestern.util.MiscUtil;
-import edu.southwestern.util.datastructures.Pair;
 import edu.southwestern.util.random.RandomNumbers;
 import edu.southwestern.util.stats.StatisticsUtilities;
 
@@ -41,6 +39,8 @@ public class TetrisAfterStateAgent<T extends Network> extends RLGlueAgent<T> {
 	public List<Integer> currentActionList;
 	// Saved for certain fitness calculations
 	public Observation lastObs;
+	// Reuses its search buffers for every piece
+	private final TetrisAfterStateGenerator afterStateGenerator;
 
 	public TetrisAfterStateAgent() {
 		super();
@@ -53,6 +53,7 @@ public class TetrisAfterStateAgent<T extends Network> extends RLGlueAgent<T> {
 		batchInputs = new double[minibatchSize][];
 		batchOutputs = new double[minibatchSize][];
 		currentBatchPointer = 0;
+		afterStateGenerator = new TetrisAfterStateGenerator();
 	}
 
 	/**
@@ -99,40 +100,15 @@ public class TetrisAfterStateAgent<T extends Network> extends RLGlueAgent<T> {
 			// Not used for decision making ... only for learning updates with backprop.
 			double[] inputsInS = MMNEAT.rlGlueExtractor.extract(tempState.get_observation(false));
 			
-			// System.out.println("Start state");
-			// System.out.println(tempState);
-			// ArrayList<TetrisStateActionPair> forDebugging = new
-			// ArrayList<TetrisStateActionPair>();
+			int numAfterStates = afterStateGenerator.generate(tempState);
+			double[] outputForArgmax = valuesOfAfterStates(numAfterStates);
 
-			boolean currentWatch = CommonConstants.watch;
-			CommonConstants.watch = false;
-
-			HashSet<TetrisStateActionPair> tetrisStateHolder = TetrisAfterStateGenerator.generateAfterStates(tempState);
-			CommonConstants.watch = currentWatch;
-			
-			// arraylist to hold the actions and outputs for later
-			ArrayList<Pair<Double, List<Integer>>> outputPairs = new ArrayList<Pair<Double, List<Integer>>>(); 
-
-			double value;
-			// for(pairs in the set){
-			for (TetrisStateActionPair i : tetrisStateHolder) {
-				value = valueOfState(i.t1);
-				
-				if(Parameters.parameters.booleanParameter("stepByStep")){
+			if(Parameters.parameters.booleanParameter("stepByStep")){
+				for (double value : outputForArgmax) {
 					System.out.println("Utility:" + value);
 					System.out.print("Press enter to continue");
 					MiscUtil.waitForReadStringAndEnterKeyPress();
 				}
-				// Associate the policy's score for the after state with the
-				// list of actions leading to it
-				Pair<Double, List<Integer>> tempPair = new Pair<Double, List<Integer>>(value, i.t2);
-				outputPairs.add(tempPair);
-				// forDebugging.add(i);
-			}
-
-			double[] outputForArgmax = new double[outputPairs.size()];
-			for (int i = 0; i < outputForArgmax.length; i++) {
-				outputForArgmax[i] = outputPairs.get(i).t1;
 			}
 
 			// Stores index of move to take
@@ -143,7 +119,7 @@ public class TetrisAfterStateAgent<T extends Network> extends RLGlueAgent<T> {
 				index = StatisticsUtilities.argmax(outputForArgmax); // action = argmax(list)
 			}
 			
-			double valueOfSPrime = outputPairs.get(index).t1;
+			double valueOfSPrime = outputForArgmax[index];
 			
 			if(backprop) {
 				// TD learning target:
@@ -165,7 +141,7 @@ public class TetrisAfterStateAgent<T extends Network> extends RLGlueAgent<T> {
 				}
 			}
 			
-			List<Integer> moveSequence = outputPairs.get(index).t2;
+			List<Integer> moveSequence = afterStateGenerator.actions(index);
 			currentActionList.addAll(moveSequence);
 			// Let the block settle and a new one spawns
 			currentActionList.add(TetrisState.NONE); 
@@ -180,22 +156,32 @@ public class TetrisAfterStateAgent<T extends Network> extends RLGlueAgent<T> {
 	}
 
 	/**
-	 * Bundles up the steps for getting a state value for a particular TetrisState.
-	 * Also useful for TD learning
-	 * @param s A TetrisState
-	 * @return Estimated long-term value of state
+	 * Values of all after states found by the last search of the after state
+	 * generator. The features of each after state are computed directly from
+	 * its bit board when the extractor supports it, and all after states are
+	 * scored by the policy in one batch, each as though the network had just
+	 * been flushed.
+	 * @param numAfterStates Number of after states
+	 * @return Estimated long-term value of each after state
 	 */
-	private double valueOfState(TetrisState s) {
-		// Basic features
-		double[] inputs = MMNEAT.rlGlueExtractor.extract(s.get_observation(false));
-		// Scaled to range [0,1] for the neural network
-		double[] inputsScaled = MMNEAT.rlGlueExtractor.scaleInputs(inputs);
-
-		policy.flush(); // remove recurrent activation
-		// outputs is an array of length 1
-		double[] outputs = this.consultPolicy(inputsScaled);
-		assert !Double.isNaN(outputs[0]) : "Tetris eval result is NaN";
-		return outputs[0];
+	private double[] valuesOfAfterStates(int numAfterStates) {
+		double[][] inputs = new double[numAfterStates][];
+		for (int i = 0; i < numAfterStates; i++) {
+			// Basic features
+			double[] features = MMNEAT.rlGlueExtractor instanceof TetrisBitboardExtractor
+					? ((TetrisBitboardExtractor) MMNEAT.rlGlueExtractor).extract(afterStateGenerator.afterStateRows(), afterStateGenerator.rowsOffset(i))
+					: MMNEAT.rlGlueExtractor.extract(afterStateGenerator.observation(i));
+			// Scaled to range [0,1] for the neural network
+			inputs[i] = MMNEAT.rlGlueExtractor.scaleInputs(features);
+		}
+		// each row of outputs has length 1
+		double[][] outputs = policy.processBatch(inputs);
+		double[] values = new double[numAfterStates];
+		for (int i = 0; i < numAfterStates; i++) {
+			values[i] = outputs[i][0];
+			assert !Double.isNaN(values[i]) : "Tetris eval result is NaN";
+		}
+		return values;
 	}
 	
 	
@@ -5,14 +5,71 @@
  */
 package edu.southwestern.tasks.rlglue.tetris;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
 
 import org.rlcommunity.environments.tetris.TetrisState;
+import org.rlcommunity.rlglue.codec.types.Observation;
 
 public class TetrisAfterStateGenerator {
 
+	// Order in which moves are explored, which decides which action sequence is found first
+	private static final int[] ACT_ORDER = { TetrisState.FALL, TetrisState.NONE, TetrisState.LEFT, TetrisState.RIGHT, TetrisState.CW, TetrisState.CCW };
+	private static final int ROTATIONS = TetrisState.TETRIS_STATE_NUMBER_POSSIBLE_BLOCKS_ORIENTATIONS;
+	// The 5x5 piece array can hang off the top and left of the board by up to 4 cells
+	private static final int MARGIN = TetrisBitboard.PIECE_SIZE;
+
+	private final TetrisBitboard board;
+	private final int spanX;
+	private final int spanY;
+	private int piece;
+
+	// Search nodes are positions of the falling piece, in the order they are found
+	private final int[] nodeX, nodeY, nodeRotation, nodeParent, nodeAction;
+	// Stamps mark positions that were seen or that lock the piece during the current search
+	private final int[] seen, locked;
+	private int stamp = 0;
+
+	// Positions where the piece locks, in the order they are found
+	private final int[] placementNode, placementAction, placementX, placementY, placementRotation;
+	private int numPlacements;
+
+	// After-states with distinct boards: rows of after-state i start at index i * height
+	private int[] afterStateRows;
+	private int[] afterStatePlacement, afterStateLines, afterStateHash;
+	private int numAfterStates;
+
+	/**
+	 * Generator for boards the size of TetrisState boards. Each generator
+	 * reuses its buffers from one search to the next, and should only be used
+	 * by one thread.
+	 */
+	public TetrisAfterStateGenerator() {
+		board = new TetrisBitboard();
+		spanX = board.width + 2 * MARGIN;
+		spanY = board.height + 2 * MARGIN;
+		int positions = ROTATIONS * spanX * spanY;
+		nodeX = new int[positions];
+		nodeY = new int[positions];
+		nodeRotation = new int[positions];
+		nodeParent = new int[positions];
+		nodeAction = new int[positions];
+		seen = new int[positions];
+		locked = new int[positions];
+		placementNode = new int[positions];
+		placementAction = new int[positions];
+		placementX = new int[positions];
+		placementY = new int[positions];
+		placementRotation = new int[positions];
+		int capacity = ROTATIONS * board.width;
+		afterStateRows = new int[capacity * board.height];
+		afterStatePlacement = new int[capacity];
+		afterStateLines = new int[capacity];
+		afterStateHash = new int[capacity];
+	}
+
 	/**
 	 * Takes in the current Tetris state and finds each of the possible after
 	 * states, as well as the actions to get to that state. The after states
@@ -24,33 +81,240 @@ public class TetrisAfterStateGenerator {
 	 * @return set of pairs (evaluated after-states and list of actions)
 	 */
 	public static HashSet<TetrisStateActionPair> generateAfterStates(TetrisState ts) {
-		int[] actOrder = { TetrisState.FALL, TetrisState.NONE, TetrisState.LEFT, TetrisState.RIGHT, TetrisState.CW, TetrisState.CCW }; 
-		
+		TetrisAfterStateGenerator generator = new TetrisAfterStateGenerator();
+		generator.generate(ts);
 		// only ever as big as # of orientations times the width
-		HashSet<TetrisStateActionPair> evaluated = new HashSet<TetrisStateActionPair>(); 
-		HashSet<TetrisState> seen = new HashSet<TetrisState>();
-		Queue<TetrisStateActionPair> fringe = new LinkedList<TetrisStateActionPair>();
-		fringe.add(new TetrisStateActionPair(ts));
-		seen.add(new TetrisState(ts));
-
-		while (!fringe.isEmpty()) {
-			TetrisStateActionPair pair = fringe.poll();
-			for (int i = 0; i < actOrder.length; i++) {
-				int action = actOrder[i];
-				TetrisStateActionPair copy = new TetrisStateActionPair(pair);
-				if (copy.t1.take_action(action)) {
-					copy.t2.add(action); // add action to list
-					copy.t1.update(); // result of action in the given state
-					if (!copy.t1.blockMobile) {
-						evaluated.add(copy);
-					} else if (!seen.contains(copy.t1)) {
-						fringe.add(copy);
-						seen.add(copy.t1);
+		HashSet<TetrisStateActionPair> evaluated = new HashSet<TetrisStateActionPair>();
+		for (int i = 0; i < generator.numPlacements; i++) {
+			TetrisState copy = new TetrisState(ts);
+			copy.currentX = generator.placementX[i];
+			copy.currentY = generator.placementY[i];
+			copy.currentRotation = generator.placementRotation[i];
+			copy.update(); // Locks the piece, since it rests on something
+			// The first action sequence found for each after state is kept
+			evaluated.add(new TetrisStateActionPair(copy, generator.placementActions(i)));
+		}
+		return evaluated;
+	}
+
+	/**
+	 * Breadth first search over the positions of the falling piece, where
+	 * every action is followed by the piece falling one row, exactly as in
+	 * TetrisState.take_action and TetrisState.update. Each position where the
+	 * piece comes to rest gives an after state, and after states with the
+	 * same board are only kept once.
+	 *
+	 * @param ts
+	 *            Start state with a mobile piece
+	 * @return number of distinct after states
+	 */
+	public int generate(TetrisState ts) {
+		board.set(ts.worldState);
+		piece = ts.currentBlockId;
+		nextStamp();
+		numPlacements = 0;
+		numAfterStates = 0;
+
+		int numNodes = 0;
+		addNode(numNodes++, ts.currentX, ts.currentY, ts.currentRotation, -1, -1);
+		for (int n = 0; n < numNodes; n++) {
+			int x = nodeX[n];
+			int y = nodeY[n];
+			int rotation = nodeRotation[n];
+			for (int action : ACT_ORDER) {
+				int nextX = x;
+				int nextY = y;
+				int nextRotation = rotation;
+				switch (action) {
+				case TetrisState.CW:
+					nextRotation = (rotation + 1) % ROTATIONS;
+					break;
+				case TetrisState.CCW:
+					nextRotation = rotation == 0 ? ROTATIONS - 1 : rotation - 1;
+					break;
+				case TetrisState.LEFT:
+					nextX--;
+					break;
+				case TetrisState.RIGHT:
+					nextX++;
+					break;
+				case TetrisState.FALL:
+					while (board.fits(piece, nextX, nextY + 1, nextRotation)) {
+						nextY++;
+					}
+					break;
+				default:
+					break;
+				}
+				if (!board.fits(piece, nextX, nextY, nextRotation)) {
+					continue; // Illegal action
+				}
+				if (board.fits(piece, nextX, nextY + 1, nextRotation)) {
+					int key = key(nextX, nextY + 1, nextRotation);
+					if (seen[key] != stamp) {
+						seen[key] = stamp;
+						addNode(numNodes++, nextX, nextY + 1, nextRotation, n, action);
+					}
+				} else { // Piece rests on something and locks
+					int key = key(nextX, nextY, nextRotation);
+					if (locked[key] != stamp) {
+						locked[key] = stamp;
+						addPlacement(n, action, nextX, nextY, nextRotation);
 					}
 				}
 			}
 		}
+		return numAfterStates;
+	}
 
-		return evaluated;
+	private void nextStamp() {
+		if (++stamp == Integer.MAX_VALUE) {
+			Arrays.fill(seen, 0);
+			Arrays.fill(locked, 0);
+			stamp = 1;
+		}
+	}
+
+	private int key(int x, int y, int rotation) {
+		return (rotation * spanX + x + MARGIN) * spanY + y + MARGIN;
+	}
+
+	private void addNode(int n, int x, int y, int rotation, int parent, int action) {
+		nodeX[n] = x;
+		nodeY[n] = y;
+		nodeRotation[n] = rotation;
+		nodeParent[n] = parent;
+		nodeAction[n] = action;
+		if (parent == -1) {
+			seen[key(x, y, rotation)] = stamp;
+		}
+	}
+
+	/**
+	 * Record a position where the piece locks, and its after state if no
+	 * earlier placement produced the same board
+	 */
+	private void addPlacement(int node, int action, int x, int y, int rotation) {
+		int p = numPlacements++;
+		placementNode[p] = node;
+		placementAction[p] = action;
+		placementX[p] = x;
+		placementY[p] = y;
+		placementRotation[p] = rotation;
+
+		int height = board.height;
+		if (numAfterStates == afterStatePlacement.length) {
+			int capacity = 2 * numAfterStates;
+			afterStateRows = Arrays.copyOf(afterStateRows, capacity * height);
+			afterStatePlacement = Arrays.copyOf(afterStatePlacement, capacity);
+			afterStateLines = Arrays.copyOf(afterStateLines, capacity);
+			afterStateHash = Arrays.copyOf(afterStateHash, capacity);
+		}
+		int offset = numAfterStates * height;
+		int lines = board.place(piece, x, y, rotation, afterStateRows, offset);
+		int hash = 1;
+		for (int j = 0; j < height; j++) {
+			hash = 31 * hash + afterStateRows[offset + j];
+		}
+		for (int i = 0; i < numAfterStates; i++) {
+			if (afterStateHash[i] == hash && sameRows(i * height, offset)) {
+				return; // Same board as an earlier after state
+			}
+		}
+		afterStatePlacement[numAfterStates] = p;
+		afterStateLines[numAfterStates] = lines;
+		afterStateHash[numAfterStates] = hash;
+		numAfterStates++;
+	}
+
+	private boolean sameRows(int offset1, int offset2) {
+		for (int j = 0; j < board.height; j++) {
+			if (afterStateRows[offset1 + j] != afterStateRows[offset2 + j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Actions leading from the start state to a placement, not including the
+	 * NONE action after which the piece actually settles
+	 */
+	private List<Integer> placementActions(int p) {
+		LinkedList<Integer> actions = new LinkedList<Integer>();
+		actions.addFirst(placementAction[p]);
+		for (int n = placementNode[p]; nodeParent[n] != -1; n = nodeParent[n]) {
+			actions.addFirst(nodeAction[n]);
+		}
+		return actions;
+	}
+
+	/**
+	 * @return Number of distinct after states found by the last search
+	 */
+	public int numAfterStates() {
+		return numAfterStates;
+	}
+
+	/**
+	 * Boards of all after states of the last search. They are overwritten by
+	 * the next search.
+	 *
+	 * @return Rows (as bit masks) of after state i start at rowsOffset(i)
+	 */
+	public int[] afterStateRows() {
+		return afterStateRows;
+	}
+
+	/**
+	 * @param i Index of after state
+	 * @return Index of its top row in afterStateRows()
+	 */
+	public int rowsOffset(int i) {
+		return i * board.height;
+	}
+
+	/**
+	 * @param i Index of after state
+	 * @return Number of rows cleared by the placement
+	 */
+	public int linesCleared(int i) {
+		return afterStateLines[i];
+	}
+
+	/**
+	 * @param i Index of after state
+	 * @return Sequence of actions that places the piece this way
+	 */
+	public List<Integer> actions(int i) {
+		return placementActions(afterStatePlacement[i]);
+	}
+
+	/**
+	 * After state in the format of TetrisState.get_observation(false), for
+	 * feature extractors that do not work on bit boards
+	 *
+	 * @param i Index of after state
+	 * @return Observation of the after state, without a mobile piece
+	 */
+	public Observation observation(int i) {
+		int p = afterStatePlacement[i];
+		int width = board.width;
+		int height = board.height;
+		Observation o = new Observation(TetrisState.TETRIS_STATE_NUMBER_OF_DISCRETE_FEATURES, 0);
+		int offset = rowsOffset(i);
+		for (int y = 0; y < height; y++) {
+			int row = afterStateRows[offset + y];
+			for (int x = 0; x < width; x++) {
+				o.intArray[y * width + x] = (row >> x) & 1;
+			}
+		}
+		o.intArray[width * height + piece] = 1;
+		o.intArray[TetrisState.TETRIS_STATE_CURRENT_X_INDEX] = placementX[p];
+		o.intArray[TetrisState.TETRIS_STATE_CURRENT_Y_INDEX] = placementY[p];
+		o.intArray[TetrisState.TETRIS_STATE_CURRENT_ROTATION_INDEX] = placementRotation[p];
+		o.intArray[TetrisState.TETRIS_STATE_CURRENT_HEIGHT_INDEX] = height;
+		o.intArray[TetrisState.TETRIS_STATE_CURRENT_WIDTH_INDEX] = width;
+		return o;
 	}
 }
@@ -0,0 +1,170 @@
+package edu.southwestern.tasks.rlglue.tetris;
+
+import java.util.Vector;
+
+import org.rlcommunity.environments.tetris.TetrisPiece;
+import org.rlcommunity.environments.tetris.TetrisState;
+
+/**
+ * Tetris board stored as one int per row, where bit x of a row is set if
+ * column x of that row is filled. Row 0 is the top of the board, as in
+ * TetrisState. The shapes of the pieces in TetrisState.POSSIBLE_BLOCKS are
+ * precomputed as row masks for each rotation, so checking whether a piece
+ * fits, placing it, and clearing full rows only take a few bitwise
+ * operations per row of the piece, instead of loops over the 5x5 piece array
+ * and the int[] world of a TetrisState.
+ *
+ * @author Jacob Schrum
+ */
+public class TetrisBitboard {
+
+	// Pieces are defined in 5x5 arrays
+	public static final int PIECE_SIZE = 5;
+
+	/**
+	 * Filled cells of one rotation of one piece, relative to the top left
+	 * corner of the 5x5 piece array
+	 */
+	private static class Shape {
+		// rows[y] has bit x set if cell (x,y) of the piece array is filled
+		final int[] rows = new int[PIECE_SIZE];
+		int minX = PIECE_SIZE, maxX = -1, minY = PIECE_SIZE, maxY = -1;
+
+		Shape(int[][] piece) {
+			for (int x = 0; x < PIECE_SIZE; x++) {
+				for (int y = 0; y < PIECE_SIZE; y++) {
+					if (piece[x][y] != 0) {
+						rows[y] |= 1 << x;
+						minX = Math.min(minX, x);
+						maxX = Math.max(maxX, x);
+						minY = Math.min(minY, y);
+						maxY = Math.max(maxY, y);
+					}
+				}
+			}
+		}
+	}
+
+	// SHAPES[piece][rotation] for each piece in TetrisState.POSSIBLE_BLOCKS
+	private static final Shape[][] SHAPES = buildShapes();
+
+	private static Shape[][] buildShapes() {
+		Vector<TetrisPiece> pieces = TetrisState.POSSIBLE_BLOCKS;
+		Shape[][] shapes = new Shape[pieces.size()][TetrisState.TETRIS_STATE_NUMBER_POSSIBLE_BLOCKS_ORIENTATIONS];
+		for (int p = 0; p < shapes.length; p++) {
+			for (int r = 0; r < shapes[p].length; r++) {
+				shapes[p][r] = new Shape(pieces.get(p).getShape(r));
+			}
+		}
+		return shapes;
+	}
+
+	public final int width;
+	public final int height;
+	// Mask of a completely filled row
+	public final int fullRow;
+	public final int[] rows;
+
+	/**
+	 * Empty board the size of TetrisState boards
+	 */
+	public TetrisBitboard() {
+		this(TetrisState.worldWidth, TetrisState.worldHeight);
+	}
+
+	/**
+	 * Empty board
+	 * @param width Number of columns (at most 31)
+	 * @param height Number of rows
+	 */
+	public TetrisBitboard(int width, int height) {
+		assert width < Integer.SIZE : "Rows of width " + width + " do not fit in an int";
+		this.width = width;
+		this.height = height;
+		this.fullRow = (1 << width) - 1;
+		this.rows = new int[height];
+	}
+
+	/**
+	 * Fill the board from the linear world array of a TetrisState, or the
+	 * first cells of a Tetris observation. Any non-zero cell is filled.
+	 *
+	 * @param worldState Cells listed row by row from the top
+	 */
+	public void set(int[] worldState) {
+		for (int y = 0; y < height; y++) {
+			int row = 0;
+			int start = y * width;
+			for (int x = 0; x < width; x++) {
+				if (worldState[start + x] != 0) {
+					row |= 1 << x;
+				}
+			}
+			rows[y] = row;
+		}
+	}
+
+	/**
+	 * Whether the piece lies completely within the board and does not
+	 * overlap any filled cell. This is what TetrisState requires of a legal
+	 * position.
+	 *
+	 * @param piece Index in TetrisState.POSSIBLE_BLOCKS
+	 * @param x Column of the left side of the 5x5 piece array
+	 * @param y Row of the top of the 5x5 piece array
+	 * @param rotation Rotation of the piece (0 to 3)
+	 * @return whether the piece can be at this position
+	 */
+	public boolean fits(int piece, int x, int y, int rotation) {
+		Shape s = SHAPES[piece][rotation];
+		if (x + s.minX < 0 || x + s.maxX >= width || y + s.minY < 0 || y + s.maxY >= height) {
+			return false;
+		}
+		for (int j = s.minY; j <= s.maxY; j++) {
+			if ((rows[y + j] & shift(s.rows[j], x)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Fill the cells of a piece at a position where it fits, then remove any
+	 * full rows, moving the rows above them down.
+	 *
+	 * @param piece Index in TetrisState.POSSIBLE_BLOCKS
+	 * @param x Column of the left side of the 5x5 piece array
+	 * @param y Row of the top of the 5x5 piece array
+	 * @param rotation Rotation of the piece (0 to 3)
+	 * @param target Array receiving the resulting rows (can be this.rows)
+	 * @param offset Index in target of the top row
+	 * @return number of rows cleared
+	 */
+	public int place(int piece, int x, int y, int rotation, int[] target, int offset) {
+		if (target != rows || offset != 0) {
+			System.arraycopy(rows, 0, target, offset, height);
+		}
+		Shape s = SHAPES[piece][rotation];
+		for (int j = s.minY; j <= s.maxY; j++) {
+			target[offset + y + j] |= shift(s.rows[j], x);
+		}
+		// Only rows covered by the piece can have become full
+		int cleared = 0;
+		for (int j = s.minY; j <= s.maxY; j++) {
+			if (target[offset + y + j] == fullRow) {
+				System.arraycopy(target, offset, target, offset + 1, y + j);
+				target[offset] = 0;
+				cleared++;
+			}
+		}
+		return cleared;
+	}
+
+	/**
+	 * Mask of a piece row moved to column x, which can be negative when the
+	 * empty left side of the piece array hangs off the board
+	 */
+	private static int shift(int mask, int x) {
+		return x >= 0 ? mask << x : mask >>> -x;
+	}
+}
@@ -0,0 +1,195 @@
+package edu.southwestern.util.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from long keys to non-negative int values that stores both in
+ * primitive arrays, so nothing is boxed on lookup or insertion. Collisions
+ * are resolved by linear probing. Meant for mapping innovation numbers to
+ * positions in lists of genes, so values are expected to be indices and
+ * -1 is returned for missing keys.
+ *
+ * @author Jacob Schrum
+ */
+public class LongIntHashMap {
+
+	public static final int NOT_FOUND = -1;
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] keys;
+	// NOT_FOUND marks an empty slot
+	private int[] values;
+	private int size;
+
+	public LongIntHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize
+	 *            Number of entries that can be put without resizing
+	 */
+	public LongIntHashMap(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * Power of two table size that keeps the load at or below one half
+	 */
+	private static int capacityFor(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < 2 * expectedSize) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		Arrays.fill(values, NOT_FOUND);
+		size = 0;
+	}
+
+	/**
+	 * Spreads the bits of the key, since consecutive innovation numbers
+	 * would otherwise fill consecutive slots
+	 */
+	private static int slot(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	/**
+	 * @param key
+	 *            Key to look up
+	 * @return Value associated with key, or NOT_FOUND
+	 */
+	public int get(long key) {
+		int mask = keys.length - 1;
+		for (int i = slot(key, mask); values[i] != NOT_FOUND; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return values[i];
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * @param key
+	 *            Key to look up
+	 * @return Whether the key has a value
+	 */
+	public boolean containsKey(long key) {
+		return get(key) != NOT_FOUND;
+	}
+
+	/**
+	 * Associate key with value, replacing any previous value
+	 *
+	 * @param key
+	 *            Key of entry
+	 * @param value
+	 *            Non-negative value
+	 */
+	public void put(long key, int value) {
+		put(key, value, true);
+	}
+
+	/**
+	 * Associate key with value unless the key already has a value
+	 *
+	 * @param key
+	 *            Key of entry
+	 * @param value
+	 *            Non-negative value
+	 * @return Whether the value was added
+	 */
+	public boolean putIfAbsent(long key, int value) {
+		return put(key, value, false);
+	}
+
+	private boolean put(long key, int value, boolean replace) {
+		assert value != NOT_FOUND : "Values must be non-negative: " + value;
+		if (2 * (size + 1) > keys.length) {
+			resize(2 * keys.length);
+		}
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		while (values[i] != NOT_FOUND) {
+			if (keys[i] == key) {
+				if (replace) {
+					values[i] = value;
+				}
+				return replace;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Remove the entry of a key. Later entries of the same probe sequence are
+	 * moved back into the gap, so no deleted markers are needed.
+	 *
+	 * @param key
+	 *            Key of entry
+	 * @return Value that was associated with the key, or NOT_FOUND
+	 */
+	public int remove(long key) {
+		int mask = keys.length - 1;
+		for (int i = slot(key, mask); values[i] != NOT_FOUND; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				int removed = values[i];
+				int gap = i;
+				for (int j = (i + 1) & mask; values[j] != NOT_FOUND; j = (j + 1) & mask) {
+					// The entry at j can fill the gap unless its own slot is between the gap and j
+					if (((j - slot(keys[j], mask)) & mask) >= ((j - gap) & mask)) {
+						keys[gap] = keys[j];
+						values[gap] = values[j];
+						gap = j;
+					}
+				}
+				values[gap] = NOT_FOUND;
+				size--;
+				return removed;
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != NOT_FOUND) {
+				put(oldKeys[i], oldValues[i], true);
+			}
+		}
+	}
+
+	/**
+	 * Remove every entry, and make room for expectedSize entries
+	 *
+	 * @param expectedSize
+	 *            Number of entries that will be put next
+	 */
+	public void clear(int expectedSize) {
+		int capacity = capacityFor(expectedSize);
+		if (capacity != keys.length) {
+			allocate(capacity);
+		} else {
+			Arrays.fill(values, NOT_FOUND);
+			size = 0;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,184 @@
+package edu.southwestern.util.file;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads a block of numbers from a whitespace separated text file, like the
+ * score files logged each generation, without creating a String or Scanner
+ * per line or per number. Each line is one row. Leading columns can be
+ * skipped, and columns after the ones of interest are not parsed at all.
+ *
+ * Numbers in plain or scientific notation with at most 15 significant digits
+ * are converted directly, which gives exactly the same double as
+ * Double.parseDouble. Anything else (more digits, NaN, Infinity) is handed
+ * to Double.parseDouble.
+ *
+ * @author Jacob Schrum
+ */
+public class DoubleTableReader {
+
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	/**
+	 * Read the given columns of every non-empty line of a file
+	 *
+	 * @param filename
+	 *            Text file with one row per line
+	 * @param skip
+	 *            Number of leading columns to ignore
+	 * @param columns
+	 *            Number of columns to read after the skipped ones
+	 * @return result[i][j] is column skip + j of the i-th non-empty line
+	 * @throws IOException
+	 *             if the file cannot be read, or a line has too few numbers
+	 */
+	public static double[][] read(String filename, int skip, int columns) throws IOException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(filename), 1 << 16)) {
+			return read(in, skip, columns);
+		}
+	}
+
+	/**
+	 * Same as above, from a stream that is left open
+	 */
+	public static double[][] read(InputStream in, int skip, int columns) throws IOException {
+		double[] values = new double[64 * Math.max(1, columns)];
+		int rows = 0;
+		char[] token = new char[32];
+		int line = 1;
+		int column = 0; // Column of next token on current line
+		int b = in.read();
+		while (b != -1) {
+			if (b == '\n') {
+				if (column > 0 && column < skip + columns) {
+					throw new IOException("Line " + line + " has " + column + " columns, but needs " + (skip + columns));
+				}
+				if (column > 0) {
+					rows++;
+				}
+				column = 0;
+				line++;
+				b = in.read();
+			} else if (b == ' ' || b == '\t' || b == '\r' || b == ',') {
+				b = in.read();
+			} else if (column >= skip + columns) {
+				// Remaining columns of the line are not needed
+				while (b != -1 && b != '\n') {
+					b = in.read();
+				}
+			} else {
+				int length = 0;
+				while (b != -1 && b != ' ' && b != '\t' && b != '\r' && b != '\n' && b != ',') {
+					if (length == token.length) {
+						token = Arrays.copyOf(token, 2 * length);
+					}
+					token[length++] = (char) b;
+					b = in.read();
+				}
+				if (column >= skip) {
+					int index = rows * columns + column - skip;
+					if (index >= values.length) {
+						values = Arrays.copyOf(values, 2 * values.length);
+					}
+					values[index] = parse(token, length);
+				}
+				column++;
+			}
+		}
+		if (column > 0) { // Last line has no newline
+			if (column < skip + columns) {
+				throw new IOException("Line " + line + " has " + column + " columns, but needs " + (skip + columns));
+			}
+			rows++;
+		}
+		double[][] result = new double[rows][];
+		for (int i = 0; i < rows; i++) {
+			result[i] = Arrays.copyOfRange(values, i * columns, (i + 1) * columns);
+		}
+		return result;
+	}
+
+	/**
+	 * Convert a number, using the exact fast path when possible
+	 *
+	 * @param token
+	 *            Characters of number
+	 * @param length
+	 *            Number of characters used
+	 * @return Value of number
+	 */
+	public static double parse(char[] token, int length) {
+		int i = 0;
+		boolean negative = false;
+		if (i < length && (token[i] == '-' || token[i] == '+')) {
+			negative = token[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int significant = 0;
+		int exponent = 0;
+		int digits = 0;
+		boolean point = false;
+		for (; i < length; i++) {
+			char c = token[i];
+			if (c >= '0' && c <= '9') {
+				digits++;
+				if (significant > 0 || c != '0') {
+					if (++significant > 15) {
+						return Double.parseDouble(new String(token, 0, length));
+					}
+					mantissa = 10 * mantissa + (c - '0');
+				}
+				if (point) {
+					exponent--;
+				}
+			} else if (c == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+		if (i < length && (token[i] == 'e' || token[i] == 'E') && digits > 0) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < length && (token[i] == '-' || token[i] == '+')) {
+				negativeExponent = token[i] == '-';
+				i++;
+			}
+			int start = i;
+			int e = 0;
+			for (; i < length && token[i] >= '0' && token[i] <= '9' && e < 10000; i++) {
+				e = 10 * e + (token[i] - '0');
+			}
+			if (i == start) {
+				return Double.parseDouble(new String(token, 0, length));
+			}
+			exponent += negativeExponent ? -e : e;
+		}
+		if (i < length || digits == 0) {
+			// NaN, Infinity, hex, or malformed: let the library decide
+			return Double.parseDouble(new String(token, 0, length));
+		}
+		double value;
+		if (mantissa == 0) {
+			value = 0;
+		} else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+			value = mantissa * POWERS_OF_TEN[exponent];
+		} else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+			value = mantissa / POWERS_OF_TEN[-exponent];
+		} else {
+			return Double.parseDouble(new String(token, 0, length));
+		}
+		return negative ? -value : value;
+	}
+}
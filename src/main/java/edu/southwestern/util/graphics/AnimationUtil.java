@@ -35,11 +35,12 @@ public class AnimationUtil {
 	 * @return Array of images that can be animated in a JApplet
 	 */
 	public static BufferedImage[] imagesFromCPPN(Network n, int imageWidth, int imageHeight, int startTime, int endTime, double[] inputMultiples) {
-		BufferedImage[] images = new BufferedImage[endTime-startTime];
+		double[] times = new double[endTime-startTime];
 		for(int i = startTime; i < endTime; i++) {
-			images[i-startTime] = GraphicsUtil.imageFromCPPN(n, imageWidth, imageHeight, inputMultiples, i/FRAMES_PER_SEC);
+			times[i-startTime] = i/FRAMES_PER_SEC;
 		}
-		return images;
+		// All frames are drawn at once so that small frames still use every core
+		return CPPNRenderer.images(n, imageWidth, imageHeight, times, inputMultiples);
 	}		
 	
 	/**
@@ -0,0 +1,254 @@
+package edu.southwestern.util.graphics;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.southwestern.networks.Network;
+import edu.southwestern.networks.activationfunctions.FullLinearPiecewiseFunction;
+import edu.southwestern.networks.activationfunctions.HalfLinearPiecewiseFunction;
+
+/**
+ * Renders CPPN images and animations by splitting the pixels into tiles
+ * that are processed in parallel. Each thread queries its own copy of the
+ * CPPN (see Network.concurrentCopy()) with a whole tile of pixels at once,
+ * the scaled x, y and distance inputs of every pixel are computed once per
+ * resolution and then reused, and colors are converted from HSB and written
+ * straight into the int buffer of the image without creating any objects
+ * per pixel.
+ *
+ * The images are identical to those drawn pixel by pixel with
+ * GraphicsUtil.getHSBFromCPPN. Networks that cannot be copied are rendered
+ * on the calling thread only, as are all images requested from within a
+ * ForkJoinPool (for example, during parallel evaluation), where the other
+ * cores are already busy.
+ *
+ * @author Jacob Schrum
+ */
+public class CPPNRenderer {
+
+	// Number of pixels (or queries) in one unit of parallel work
+	public static final int TILE_SIZE = 4096;
+	// Coordinate planes are cleared if images of more resolutions than this are drawn
+	private static final int MAX_CACHED_RESOLUTIONS = 16;
+
+	private static final int X_PLANE = 0;
+	private static final int Y_PLANE = 1;
+	private static final int DISTANCE_PLANE = 2;
+
+	// Key is width and height packed into a long
+	private static final ConcurrentHashMap<Long, double[][]> coordinatePlanes = new ConcurrentHashMap<Long, double[][]>();
+
+	/**
+	 * Work that is split into tiles
+	 */
+	private interface TileJob {
+		/**
+		 * Process one tile with a network that no other thread is using
+		 * @param n network that belongs to the current thread
+		 * @param tile index of the tile
+		 * @param rows input rows that belong to the current thread (may be null)
+		 */
+		void process(Network n, int tile, double[][] rows);
+	}
+
+	/**
+	 * Draws the image created by the CPPN. Same image as
+	 * GraphicsUtil.imageFromCPPN.
+	 *
+	 * @param n CPPN
+	 * @param imageWidth width of image
+	 * @param imageHeight height of image
+	 * @param inputMultiples array of multiples indicating whether to turn inputs on or off
+	 * @param time frame of animation, or -1 for still images
+	 * @return image drawn by network
+	 */
+	public static BufferedImage image(Network n, int imageWidth, int imageHeight, double[] inputMultiples, double time) {
+		return images(n, imageWidth, imageHeight, new double[] { time }, inputMultiples)[0];
+	}
+
+	/**
+	 * Draws the frames of an animation created by a CPPN. Frames are split
+	 * into tiles together, so animations with small frames also use every core.
+	 *
+	 * @param n CPPN
+	 * @param imageWidth width of each frame
+	 * @param imageHeight height of each frame
+	 * @param times time input for each frame
+	 * @param inputMultiples array of multiples indicating whether to turn inputs on or off
+	 * @return one image per time, so an empty array when there are no times
+	 */
+	public static BufferedImage[] images(Network n, int imageWidth, int imageHeight, double[] times, double[] inputMultiples) {
+		if (times.length == 0) {
+			return new BufferedImage[0];
+		}
+		final int numPixels = imageWidth * imageHeight;
+		final int tilesPerImage = (numPixels + TILE_SIZE - 1) / TILE_SIZE;
+		final double[][] planes = coordinatePlanes(imageWidth, imageHeight);
+		final BufferedImage[] images = new BufferedImage[times.length];
+		final int[][] pixels = new int[times.length][];
+		for (int i = 0; i < times.length; i++) {
+			images[i] = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+			pixels[i] = ((DataBufferInt) images[i].getRaster().getDataBuffer()).getData();
+		}
+		final int numInputs = times[0] == -1 ? 4 : 5;
+		run(n, times.length * tilesPerImage, Math.min(TILE_SIZE, numPixels), numInputs, new TileJob() {
+			@Override
+			public void process(Network copy, int tile, double[][] rows) {
+				int frame = tile / tilesPerImage;
+				int start = (tile % tilesPerImage) * TILE_SIZE;
+				int size = Math.min(TILE_SIZE, numPixels - start);
+				double[][] inputs = size == rows.length ? rows : Arrays.copyOf(rows, size);
+				for (int i = 0; i < size; i++) {
+					fillInputs(inputs[i], planes, start + i, inputMultiples, times[frame]);
+				}
+				double[][] outputs = copy.processBatch(inputs);
+				int[] framePixels = pixels[frame];
+				for (int i = 0; i < size; i++) {
+					framePixels[start + i] = rgb(outputs[i]);
+				}
+			}
+		});
+		return images;
+	}
+
+	/**
+	 * Process many independent queries (as with Network.processBatch) in
+	 * tiles that are split across threads.
+	 *
+	 * @param n network to query
+	 * @param inputs one row of inputs per query
+	 * @return one row of outputs per query
+	 */
+	public static double[][] processBatch(Network n, final double[][] inputs) {
+		final double[][] outputs = new double[inputs.length][];
+		run(n, (inputs.length + TILE_SIZE - 1) / TILE_SIZE, 0, 0, new TileJob() {
+			@Override
+			public void process(Network copy, int tile, double[][] rows) {
+				int start = tile * TILE_SIZE;
+				int end = Math.min(inputs.length, start + TILE_SIZE);
+				double[][] result = copy.processBatch(Arrays.copyOfRange(inputs, start, end));
+				System.arraycopy(result, 0, outputs, start, result.length);
+			}
+		});
+		return outputs;
+	}
+
+	/**
+	 * Inputs of one pixel, after multiplying by the inputMultiples.
+	 * Same as GraphicsUtil.getCPPNInputs.
+	 */
+	private static void fillInputs(double[] input, double[][] planes, int pixel, double[] inputMultiples, double time) {
+		input[0] = planes[X_PLANE][pixel];
+		input[1] = planes[Y_PLANE][pixel];
+		input[2] = planes[DISTANCE_PLANE][pixel];
+		if (time == -1) { // default, single image. Do not care about time
+			input[3] = GraphicsUtil.BIAS;
+		} else {
+			input[3] = time;
+			input[4] = GraphicsUtil.BIAS;
+		}
+		for (int i = 0; i < inputMultiples.length; i++) {
+			input[i] = input[i] * inputMultiples[i];
+		}
+	}
+
+	/**
+	 * RGB pixel of the image for HSB outputs of a CPPN, without the
+	 * intermediate float array of GraphicsUtil.rangeRestrictHSB
+	 *
+	 * @param hsb array of HSB color information from CPPN
+	 * @return RGB value as stored in an image of TYPE_INT_RGB
+	 */
+	public static int rgb(double[] hsb) {
+		int rgb = Color.HSBtoRGB((float) FullLinearPiecewiseFunction.fullLinear(hsb[GraphicsUtil.HUE_INDEX]),
+				(float) HalfLinearPiecewiseFunction.halfLinear(hsb[GraphicsUtil.SATURATION_INDEX]),
+				(float) Math.abs(FullLinearPiecewiseFunction.fullLinear(hsb[GraphicsUtil.BRIGHTNESS_INDEX])));
+		// Images without alpha do not store it
+		return rgb & 0xFFFFFF;
+	}
+
+	/**
+	 * Scaled x, y and distance inputs of every pixel at a resolution, indexed
+	 * by y * imageWidth + x. Computed once per resolution, and shared.
+	 *
+	 * @param imageWidth width of image
+	 * @param imageHeight height of image
+	 * @return x, y and distance planes
+	 */
+	static double[][] coordinatePlanes(int imageWidth, int imageHeight) {
+		Long key = (((long) imageWidth) << 32) | imageHeight;
+		double[][] planes = coordinatePlanes.get(key);
+		if (planes == null) {
+			planes = new double[3][imageWidth * imageHeight];
+			for (int y = 0; y < imageHeight; y++) {
+				for (int x = 0; x < imageWidth; x++) {
+					double[] input = GraphicsUtil.get2DObjectCPPNInputs(x, y, imageWidth, imageHeight, -1);
+					int pixel = y * imageWidth + x;
+					planes[X_PLANE][pixel] = input[0];
+					planes[Y_PLANE][pixel] = input[1];
+					planes[DISTANCE_PLANE][pixel] = input[2];
+				}
+			}
+			if (coordinatePlanes.size() >= MAX_CACHED_RESOLUTIONS) {
+				coordinatePlanes.clear();
+			}
+			coordinatePlanes.put(key, planes);
+		}
+		return planes;
+	}
+
+	/**
+	 * Process every tile. The calling thread works on tiles too, and other
+	 * threads only help if the network can be copied.
+	 *
+	 * @param n network to query
+	 * @param numTiles number of tiles
+	 * @param rowsPerThread number of reusable input rows each thread gets (0 for none)
+	 * @param rowLength length of each reusable input row
+	 * @param job processes one tile
+	 */
+	private static void run(Network n, int numTiles, int rowsPerThread, int rowLength, TileJob job) {
+		final AtomicInteger nextTile = new AtomicInteger(0);
+		int helpers = Math.min(numTiles, Runtime.getRuntime().availableProcessors()) - 1;
+		ArrayList<Future<?>> help = new ArrayList<Future<?>>(Math.max(helpers, 0));
+		if (!(Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+			for (int i = 0; i < helpers; i++) {
+				final Network copy = n.concurrentCopy();
+				if (copy == null) {
+					break;
+				}
+				help.add(ForkJoinPool.commonPool().submit(() -> processTiles(copy, nextTile, numTiles, rowsPerThread, rowLength, job)));
+			}
+		}
+		processTiles(n, nextTile, numTiles, rowsPerThread, rowLength, job);
+		try {
+			for (Future<?> f : help) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while rendering", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Rendering failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Keep taking the next unprocessed tile until none are left
+	 */
+	private static void processTiles(Network n, AtomicInteger nextTile, int numTiles, int rowsPerThread, int rowLength, TileJob job) {
+		double[][] rows = rowsPerThread == 0 ? null : new double[rowsPerThread][rowLength];
+		for (int tile = nextTile.getAndIncrement(); tile < numTiles; tile = nextTile.getAndIncrement()) {
+			job.process(n, tile, rows);
+		}
+	}
+}
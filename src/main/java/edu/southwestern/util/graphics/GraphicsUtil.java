@@ -91,7 +91,8 @@ public class GraphicsUtil {
 	}
 
 	/**
-	 * Draws the image created by the CPPN to a BufferedImage
+	 * Draws the image created by the CPPN to a BufferedImage. Tiles of the
+	 * image are drawn in parallel by CPPNRenderer.
 	 *
 	 * @param n
 	 *            the network used to process the image
@@ -102,18 +103,7 @@ public class GraphicsUtil {
 	 * @return buffered image containing image drawn by network
 	 */
 	public static BufferedImage imageFromCPPN(Network n, int imageWidth, int imageHeight, double[] inputMultiples, double time) {
-		BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
-		for (int x = 0; x < imageWidth; x++) {// scans across whole image
-			for (int y = 0; y < imageHeight; y++) {
-				float[] hsb = getHSBFromCPPN(n, x, y, imageWidth, imageHeight, inputMultiples, time);
-				// network outputs computed on hsb, not rgb scale because
-				// creates better images
-				Color childColor = Color.getHSBColor(hsb[HUE_INDEX], hsb[SATURATION_INDEX], hsb[BRIGHTNESS_INDEX]);
-				// set back to RGB to draw picture to JFrame
-				image.setRGB(x, y, childColor.getRGB());
-			}
-		}
-		return image;
+		return CPPNRenderer.image(n, imageWidth, imageHeight, inputMultiples, time);
 	}
 
 	/**
@@ -286,16 +276,33 @@ public class GraphicsUtil {
 	 */
 	public static float[] getHSBFromCPPN(Network n, int x, int y, int imageWidth, int imageHeight, double[] inputMultiples, double time) {
 
+		double[] input = getCPPNInputs(x, y, imageWidth, imageHeight, inputMultiples, time);
+
+		// Eliminate recurrent activation for consistent images at all resolutions
+		n.flush();
+		return rangeRestrictHSB(n.process(input));
+	}
+
+	/**
+	 * Scaled CPPN inputs for a pixel, after multiplying by the inputMultiples
+	 * that turn the effects of individual inputs on or off.
+	 * 
+	 * @param x x-coordinate of pixel
+	 * @param y y-coordinate of pixel
+	 * @param imageWidth width of image
+	 * @param imageHeight height of image
+	 * @param inputMultiples array of multiples indicating whether to turn inputs on or off
+	 * @param time frame of animation, or -1 for still images
+	 * @return array containing inputs for CPPN
+	 */
+	public static double[] getCPPNInputs(int x, int y, int imageWidth, int imageHeight, double[] inputMultiples, double time) {
 		double[] input = get2DObjectCPPNInputs(x, y, imageWidth, imageHeight, time);
 
 		// Multiplies the inputs of the pictures by the inputMultiples; used to turn on or off the effects in each picture
 		for(int i = 0; i < inputMultiples.length; i++) {
 			input[i] = input[i] * inputMultiples[i];
 		}
-
-		// Eliminate recurrent activation for consistent images at all resolutions
-		n.flush();
-		return rangeRestrictHSB(n.process(input));
+		return input;
 	}
 
 	/**
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import edu.southwestern.networks.Network;
+import edu.southwestern.networks.NetworkUtil;
 import edu.southwestern.tasks.interactive.objectbreeder.ThreeDimensionalObjectBreederTask;
 import edu.southwestern.util.CartesianGeometricUtilities;
 import edu.southwestern.util.datastructures.Pair;
@@ -208,6 +209,8 @@ public class ThreeDimensionalUtil {
 		List<Vertex> centers = new ArrayList<>();
 		List<Color> colors = new ArrayList<>();
 		double halfCube = (cubeSize/2.0);
+		double[][] allInputs = new double[shapeWidth*shapeHeight*shapeDepth][];
+		int voxel = 0;
 		for(int x = 0; x < shapeWidth; x++) {
 			for(int y = 0; y < shapeHeight; y++) {
 				for(int z = 0; z < shapeDepth; z++) {
@@ -216,7 +219,18 @@ public class ThreeDimensionalUtil {
 					for(int i = 0; i < inputMultipliers.length; i++) {
 						inputs[i] = inputs[i] * inputMultipliers[i];
 					}	
-					double[] output = cppn.process(inputs);
+					allInputs[voxel++] = inputs;
+				}
+			}
+		}
+		// Voxels only depend on their own inputs when the CPPN has no state, so they can be queried in parallel
+		double[][] allOutputs = NetworkUtil.isStateless(cppn) ? CPPNRenderer.processBatch(cppn, allInputs) : null;
+		voxel = 0;
+		for(int x = 0; x < shapeWidth; x++) {
+			for(int y = 0; y < shapeHeight; y++) {
+				for(int z = 0; z < shapeDepth; z++) {
+					double[] output = allOutputs == null ? cppn.process(allInputs[voxel]) : allOutputs[voxel];
+					voxel++;
 					if(output[THREE_DIMENSIONAL_VOXEL_INDEX] > VOXEL_EXPRESSION_THRESHOLD) { 
 						double actualX = -(cubeSize*shapeWidth/2.0) + halfCube + x*cubeSize;
 						double actualY = -(cubeSize*shapeHeight/2.0) + halfCube + y*cubeSize;
@@ -11,11 +11,23 @@ import java.util.Random;
  * A central point for all random number generation to go through. 
  * Makes sure all randomness is linked to a single random seed.
  *
+ * The seed also determines a hierarchy of RandomStreams: one per generation,
+ * split into one per evaluation, split into one per trial. A thread can bind
+ * one of these streams with bindStream, after which every use of
+ * randomGenerator on that thread draws from the bound stream instead of from
+ * the shared generator. Evaluations running in parallel therefore neither
+ * contend for the shared generator nor change each other's random numbers.
+ *
  * @author Jacob Schrum
  */
 public class RandomNumbers {
 
-	public static Random randomGenerator = new Random();
+	// Stream bound to each thread, if any
+	private static final ThreadLocal<Random> STREAM = new ThreadLocal<Random>();
+	// Root of the stream hierarchy for the current run
+	private static RandomStream runStream = new RandomStream(System.nanoTime());
+
+	public static Random randomGenerator = new CurrentStreamRandom(new Random());
 
 	/*
 	 * Reset random generator based on seed from parameter file
@@ -25,7 +37,8 @@ public class RandomNumbers {
 		if (seed != -1) { // Control algorithmic randomness
 			reset(seed);
 		} else {
-			randomGenerator = new Random();
+			randomGenerator = new CurrentStreamRandom(new Random());
+			runStream = new RandomStream(System.nanoTime());
 		}
 	}
 
@@ -37,7 +50,122 @@ public class RandomNumbers {
 	 */
 	public static void reset(int seed) {
 		System.out.println("Reset random seed to: " + seed);
-		randomGenerator = new Random(seed);
+		randomGenerator = new CurrentStreamRandom(new Random(seed));
+		runStream = new RandomStream(seed);
+	}
+
+	/**
+	 * Stream of random numbers for one generation of the run. The same
+	 * generation always gets the same stream, given the same seed.
+	 *
+	 * @param generation
+	 *            generation number
+	 * @return stream derived from the run seed
+	 */
+	public static RandomStream generationStream(int generation) {
+		return runStream.child(generation);
+	}
+
+	/**
+	 * Make randomGenerator draw from the given stream whenever it is used
+	 * on the current thread, until unbindStream is called.
+	 *
+	 * @param stream
+	 *            stream for the current thread
+	 * @return stream bound to the thread before (usually null), which should
+	 *         be given to unbindStream
+	 */
+	public static Random bindStream(Random stream) {
+		Random previous = STREAM.get();
+		STREAM.set(stream);
+		return previous;
+	}
+
+	/**
+	 * Restore the stream that was bound before the matching bindStream call
+	 *
+	 * @param previous
+	 *            result of bindStream
+	 */
+	public static void unbindStream(Random previous) {
+		if (previous == null) {
+			STREAM.remove();
+		} else {
+			STREAM.set(previous);
+		}
+	}
+
+	/**
+	 * The randomGenerator. Draws from the stream bound to the current thread
+	 * if there is one, and from a shared generator otherwise. The shared
+	 * generator produces the same numbers as a plain java.util.Random with
+	 * the same seed.
+	 */
+	private static class CurrentStreamRandom extends Random {
+		private static final long serialVersionUID = -3328254541837806271L;
+		private final Random shared;
+
+		CurrentStreamRandom(Random shared) {
+			this.shared = shared;
+		}
+
+		private Random current() {
+			Random stream = STREAM.get();
+			return stream == null ? shared : stream;
+		}
+
+		@Override
+		public void setSeed(long seed) {
+			// The Random constructor calls this before shared is assigned
+			if (shared != null) {
+				current().setSeed(seed);
+			}
+		}
+
+		@Override
+		protected int next(int bits) {
+			return current().nextInt() >>> (32 - bits);
+		}
+
+		@Override
+		public void nextBytes(byte[] bytes) {
+			current().nextBytes(bytes);
+		}
+
+		@Override
+		public int nextInt() {
+			return current().nextInt();
+		}
+
+		@Override
+		public int nextInt(int bound) {
+			return current().nextInt(bound);
+		}
+
+		@Override
+		public long nextLong() {
+			return current().nextLong();
+		}
+
+		@Override
+		public boolean nextBoolean() {
+			return current().nextBoolean();
+		}
+
+		@Override
+		public float nextFloat() {
+			return current().nextFloat();
+		}
+
+		@Override
+		public double nextDouble() {
+			return current().nextDouble();
+		}
+
+		@Override
+		public double nextGaussian() {
+			return current().nextGaussian();
+		}
 	}
 
 	/**
@@ -0,0 +1,100 @@
+package edu.southwestern.util.random;
+
+import java.util.Random;
+
+/**
+ * A seeded stream of random numbers that can be split into independent child
+ * streams. Children are derived from the seed of their parent and an index,
+ * not from numbers the parent has already produced, so the stream given to
+ * child i is the same no matter how many other children exist or in which
+ * order (or on which thread) they are used. This is what makes runs
+ * reproducible when evaluations happen in parallel: the run seed gives one
+ * stream per generation, which gives one stream per evaluation, which gives
+ * one stream per trial.
+ *
+ * Numbers are generated with SplitMix64. Unlike java.util.Random, the state
+ * is not an AtomicLong, so there is no compare-and-set on every call. A
+ * stream must therefore only be used by one thread at a time.
+ *
+ * @author Jacob Schrum
+ */
+public class RandomStream extends Random {
+
+	private static final long serialVersionUID = 3571864209536384165L;
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	// Seed the stream was created with, used to derive children
+	private final long root;
+	private long state;
+
+	/**
+	 * @param seed
+	 *            Seed of the stream. Streams with the same seed produce the
+	 *            same numbers.
+	 */
+	public RandomStream(long seed) {
+		super(seed);
+		this.root = seed;
+		this.state = seed;
+	}
+
+	/**
+	 * Independent stream derived from this one. Does not change or
+	 * depend on the current state of this stream.
+	 *
+	 * @param index
+	 *            Which child, e.g. a generation, evaluation or trial number
+	 * @return child stream
+	 */
+	public RandomStream child(long index) {
+		return new RandomStream(mix64(root ^ mix64((index + 1) * GOLDEN_GAMMA)));
+	}
+
+	/**
+	 * @return seed this stream was created with
+	 */
+	public long getRoot() {
+		return root;
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		// Called by the Random constructor, and also clears the cached Gaussian
+		super.setSeed(seed);
+		state = seed;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public long nextLong() {
+		return mix64(state += GOLDEN_GAMMA);
+	}
+
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+
+	/**
+	 * SplitMix64 finalizer: scrambles the bits of z
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -21,6 +21,24 @@ public class ResumableRandom extends Random {
 	 */
 	private static final long serialVersionUID = 8857335572195241681L;
 
+	// The seed field of java.util.Random, looked up once since games are copied every time step
+	private static final Field SEED = seedField();
+
+	private static Field seedField() {
+		try {
+			Field field = Random.class.getDeclaredField("seed");
+			field.setAccessible(true);
+			return field;
+		} catch (NoSuchFieldException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		} catch (SecurityException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		}
+		return null;
+	}
+
 	/**
 	 * creates a random number generator using the seed parameter, is inherited
 	 * from java.util
@@ -63,12 +81,8 @@ public class ResumableRandom extends Random {
 	 */
 	public void hardSetSeed(long newSeed) {
 		try {
-			// gets seed field from the resumable random
-			Field field = this.getClass().getSuperclass().getDeclaredField("seed");
-			// hardcodes field so the seed value is always accessible
-			field.setAccessible(true);
 			// casts the seed of the resumable random to an Atomiclong
-			AtomicLong seed = (AtomicLong) field.get(this);
+			AtomicLong seed = (AtomicLong) SEED.get(this);
 			// resets seed of resumable random number generator to the long
 			// parameter newSeed
 			seed.set(newSeed);
@@ -80,12 +94,6 @@ public class ResumableRandom extends Random {
 		} catch (IllegalAccessException ex) {
 			ex.printStackTrace();
 			System.exit(1);
-		} catch (NoSuchFieldException ex) {
-			ex.printStackTrace();
-			System.exit(1);
-		} catch (SecurityException ex) {
-			ex.printStackTrace();
-			System.exit(1);
 		}
 	}
 
@@ -98,9 +106,7 @@ public class ResumableRandom extends Random {
 	 */
 	public long getSeed() {
 		try {
-			Field field = this.getClass().getSuperclass().getDeclaredField("seed");
-			field.setAccessible(true);
-			AtomicLong seed = (AtomicLong) field.get(this);
+			AtomicLong seed = (AtomicLong) SEED.get(this);
 			return seed.get();
 			// these exceptions should not occur and if so, they crash the
 			// program
@@ -110,12 +116,6 @@ public class ResumableRandom extends Random {
 		} catch (IllegalAccessException ex) {
 			ex.printStackTrace();
 			System.exit(1);
-		} catch (NoSuchFieldException ex) {
-			ex.printStackTrace();
-			System.exit(1);
-		} catch (SecurityException ex) {
-			ex.printStackTrace();
-			System.exit(1);
 		}
 		// if the try and catch clauses fail, returns 0. Random number
 		// generators never have seed value so client can
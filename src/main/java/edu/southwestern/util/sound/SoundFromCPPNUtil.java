@@ -6,6 +6,7 @@ import javax.sound.sampled.AudioFormat;
 
 import edu.southwestern.evolution.genotypes.HyperNEATCPPNGenotype;
 import edu.southwestern.networks.Network;
+import edu.southwestern.networks.NetworkUtil;
 
 /**
  * Utility methods associated with generating and saving a sound using an input
@@ -46,17 +47,16 @@ public class SoundFromCPPNUtil {
 	 * @return array of doubles representing all CPPN-manipulated output amplitudes
 	 */
 	public static double[] amplitudeGenerator(Network CPPN, int length, double frequency, double[] inputMultipliers) {
-		double[] result = new double[length];
+		double[][] allInputs = new double[length][];
 		for(double time = 0; time < length; time++) {
 			double[] inputs = new double[]{time/PlayDoubleArray.SAMPLE_RATE, Math.sin(2*Math.PI * frequency * time/PlayDoubleArray.SAMPLE_RATE), HyperNEATCPPNGenotype.BIAS};	
 			// Multiplies the inputs of the pictures by the inputMultiples; used to turn on or off the effects in each picture
 			for(int i = 0; i < inputs.length; i++) {
 				inputs[i] = inputs[i] * inputMultipliers[i];
 			}			
-			double[] outputs = CPPN.process(inputs);
-			result[(int) time] = outputs[0]; // amplitude
+			allInputs[(int) time] = inputs;
 		}
-		return result;
+		return amplitudes(CPPN, allInputs);
 	}
 	
 	/**
@@ -74,15 +74,39 @@ public class SoundFromCPPNUtil {
 	 * @return
 	 */
 	public static double[] amplitudeRemixer(Network CPPN, double[] inputWAV, int length, double frequency, double[] inputMultipliers) {
-		double[] result = new double[length];
+		double[][] allInputs = new double[length][];
 		for(double time = 0; time < length; time++) {
 			double[] inputs = new double[]{time/PlayDoubleArray.SAMPLE_RATE, Math.sin(2*Math.PI * frequency * time/PlayDoubleArray.SAMPLE_RATE), inputWAV[(int) time], HyperNEATCPPNGenotype.BIAS};	
 			// Multiplies the inputs of the pictures by the inputMultiples; used to turn on or off the effects in each picture
 			for(int i = 0; i < inputs.length; i++) {
 				inputs[i] = inputs[i] * inputMultipliers[i];
 			}			
-			double[] outputs = CPPN.process(inputs);
-			result[(int) time] = outputs[0]; // amplitude
+			allInputs[(int) time] = inputs;
+		}
+		return amplitudes(CPPN, allInputs);
+	}
+
+	/**
+	 * First CPPN output (the amplitude) for each row of inputs. When the CPPN
+	 * carries no state between samples, all samples are processed as a single
+	 * batch. Otherwise each sample is processed in order without flushing, so
+	 * recurrent activation carries from one sample to the next.
+	 * 
+	 * @param CPPN network used to generate amplitude
+	 * @param allInputs CPPN inputs for every sample
+	 * @return array of doubles representing all CPPN-manipulated output amplitudes
+	 */
+	private static double[] amplitudes(Network CPPN, double[][] allInputs) {
+		double[] result = new double[allInputs.length];
+		if(NetworkUtil.isStateless(CPPN)) {
+			double[][] outputs = CPPN.processBatch(allInputs);
+			for(int i = 0; i < result.length; i++) {
+				result[i] = outputs[i][0]; // amplitude
+			}
+		} else {
+			for(int i = 0; i < result.length; i++) {
+				result[i] = CPPN.process(allInputs[i])[0]; // amplitude
+			}
 		}
 		return result;
 	}
@@ -477,6 +477,7 @@ public class ForwardModel extends Game
         this.MAX_SPRITES = a_gameState.MAX_SPRITES;
         this.no_players = a_gameState.no_players;
         this.no_counters = a_gameState.no_counters;
+        this.keyHandler = a_gameState.keyHandler;
         this.avatarLastAction = new Types.ACTIONS[no_players];
         System.arraycopy(a_gameState.avatarLastAction, 0, avatarLastAction, 0, no_players);
         this.avatars = new MovingAvatar[no_players];
@@ -261,8 +261,18 @@ public abstract class Game {
 	public int no_counters = 0; // default no counters
 	public int[] counter;
 
+	/**
+	 * Key handler of the most recently parsed (or played) game. Human
+	 * controllers read it, so it is set to the game being played.
+	 */
 	public static KeyHandler ki;
 
+	/**
+	 * Key handler of this game's avatars. Each game has its own, so that
+	 * games parsed and run on different threads do not share input state.
+	 */
+	protected KeyHandler keyHandler;
+
 	/**
 	 * Default constructor.
 	 */
@@ -788,8 +798,16 @@ public abstract class Game {
 		if (key_handler != null && key_handler.equalsIgnoreCase("Pulse"))
 			CompetitionParameters.KEY_HANDLER = CompetitionParameters.KEY_PULSE;
 
-		ki = CompetitionParameters.KEY_HANDLER == CompetitionParameters.KEY_INPUT ? new KeyInput()
+		keyHandler = CompetitionParameters.KEY_HANDLER == CompetitionParameters.KEY_INPUT ? new KeyInput()
 				: new KeyPulse(no_players);
+		ki = keyHandler;
+	}
+
+	/**
+	 * @return Key handler assigned to the avatars of this game
+	 */
+	public KeyHandler getKeyHandler() {
+		return keyHandler;
 	}
 
 	/**
@@ -906,6 +924,7 @@ public abstract class Game {
 		JEasyFrame frame;
 		frame = new JEasyFrame(view, "Java-VGDL");
 
+		ki = keyHandler;
 		frame.addKeyListener(ki);
 		frame.addWindowListener(wi);
 		wi.windowClosed = false;
@@ -1224,7 +1243,7 @@ public abstract class Game {
 				if (numAvatarSprites > i) { // check if there's enough avatars
 					// just in case
 					avatars[i] = avSprites.get(i);
-					avatars[i].setKeyHandler(ki);
+					avatars[i].setKeyHandler(keyHandler);
 					avatars[i].setPlayerID(i);
 				}
 			}
@@ -808,7 +808,7 @@ public class ArcadeMachine {
         }
 
         // Reset input to delete warm-up effects.
-        Game.ki.resetAll();
+        toPlay.getKeyHandler().resetAll();
     }
 
     /**
@@ -25,6 +25,13 @@ public class GameState implements Serializable{
     HashMap<Unit,UnitActionAssignment> unitActions = new LinkedHashMap<Unit,UnitActionAssignment>();
 
     UnitTypeTable utt = null;
+    
+    // Number of move/produce actions in unitActions that will use each cell. Built on demand,
+    // kept up to date by issue, and rebuilt once the units in pgs change, or the number of
+    // assignments changes behind the back of this class (e.g., through getUnitActions)
+    transient int reserved[] = null;
+    transient int reservedForUnitChanges = 0;
+    transient int reservedForActions = 0;
 
     public GameState(PhysicalGameState a_pgs, UnitTypeTable a_utt) {
         pgs = a_pgs;
@@ -37,7 +44,7 @@ public class GameState implements Serializable{
     
     public void removeUnit(Unit u) {
         pgs.removeUnit(u);
-        unitActions.remove(u);
+        removeActionAssignment(u);
     }
     
     public Player getPlayer(int ID) {
@@ -97,6 +104,9 @@ public class GameState implements Serializable{
     // Returns true if there is no unit in the specified position and no unit is executing an action that will use that position
     public boolean free(int x,int y) {
         if (pgs.getTerrain(x, y)!=PhysicalGameState.TERRAIN_NONE) return false;
+        if (pgs.inside(x, y) && reservations()) {
+            return pgs.getUnitAt(x, y)==null && reserved[x+y*pgs.width]==0;
+        }
         for(Unit u:pgs.units) {
             if (u.getX()==x && u.getY()==y) return false;
         }
@@ -113,6 +123,45 @@ public class GameState implements Serializable{
         return true;
     }
     
+    // Makes sure the reserved cell counts are up to date, if they can be used at all
+    boolean reservations() {
+        if (!pgs.unitsIndexed()) return false;
+        if (!reservationsCurrent()) {
+            reserved = new int[pgs.width*pgs.height];
+            for(UnitActionAssignment uaa:unitActions.values()) reserve(uaa, 1);
+            reservedForUnitChanges = pgs.unitChanges;
+            reservedForActions = unitActions.size();
+        }
+        return true;
+    }
+    
+    boolean reservationsCurrent() {
+        return reserved!=null && reserved.length==pgs.width*pgs.height &&
+               reservedForUnitChanges==pgs.unitChanges && reservedForActions==unitActions.size();
+    }
+    
+    // Adds (or removes, with a negative count) the reservation of the cell an assignment will use
+    void reserve(UnitActionAssignment uaa, int count) {
+        if (uaa.action.type==UnitAction.TYPE_MOVE ||
+            uaa.action.type==UnitAction.TYPE_PRODUCE) {
+            int direction = uaa.action.getDirection();
+            if (direction>=0 && direction<UnitAction.DIRECTION_OFFSET_X.length) {
+                int x = uaa.unit.getX() + UnitAction.DIRECTION_OFFSET_X[direction];
+                int y = uaa.unit.getY() + UnitAction.DIRECTION_OFFSET_Y[direction];
+                if (pgs.inside(x, y)) reserved[x+y*pgs.width] += count;
+            }
+        }
+    }
+    
+    void removeActionAssignment(Unit u) {
+        boolean current = reservationsCurrent();
+        UnitActionAssignment uaa = unitActions.remove(u);
+        if (current && uaa!=null) {
+            reserve(uaa, -1);
+            reservedForActions--;
+        }
+    }
+    
     // Returns an array with true if there is no unit in the specified position and no unit is executing an action that will use that position
     public boolean[][] getAllFree() {
     	
@@ -178,7 +227,10 @@ public class GameState implements Serializable{
                             }
                             int duration1 = uaa.action.ETA(uaa.unit);
                             int duration2 = p.m_b.ETA(p.m_a);
-                            if (cancel_old) uaa.action = new UnitAction(UnitAction.TYPE_NONE,Math.min(duration1,duration2));
+                            if (cancel_old) {
+                                if (reservationsCurrent()) reserve(uaa, -1);
+                                uaa.action = new UnitAction(UnitAction.TYPE_NONE,Math.min(duration1,duration2));
+                            }
                             if (cancel_new) p.m_b = new UnitAction(UnitAction.TYPE_NONE,Math.min(duration1,duration2));
                         } else {
                             // This is more a problem, since it means there is a bug somewhere...
@@ -204,7 +256,16 @@ public class GameState implements Serializable{
                 }
                 
                 UnitActionAssignment uaa = new UnitActionAssignment(p.m_a, p.m_b, time);
-                unitActions.put(p.m_a,uaa);
+                boolean current = reservationsCurrent();
+                UnitActionAssignment old = unitActions.put(p.m_a,uaa);
+                if (current) {
+                    if (old!=null) {
+                        reserve(old, -1);
+                    } else {
+                        reservedForActions++;
+                    }
+                    reserve(uaa, 1);
+                }
                 if (p.m_b.type!=UnitAction.TYPE_NONE) returnValue = true;
 //                System.out.println("Issuing action " + p.m_b + " to " + p.m_a);                
 //            }
@@ -224,7 +285,7 @@ public class GameState implements Serializable{
             }
             
             // get the unit that corresponds to that action (since the state might have been closed):
-            if (pgs.units.indexOf(p.m_a)==-1) {
+            if (!pgs.containsUnit(p.m_a)) {
                 boolean found = false;
                 for(Unit u:pgs.units) {
                     if (u.getClass()==p.m_a.getClass() &&
@@ -379,7 +440,7 @@ public class GameState implements Serializable{
                 
         // execute the actions:
         for(UnitActionAssignment uaa:readyToExecute) {
-            unitActions.remove(uaa.unit);
+            removeActionAssignment(uaa.unit);
             
 //            System.out.println("Executing action for " + u + " issued at time " + uaa.time + " with duration " + uaa.action.ETA(uaa.unit));
             
@@ -396,7 +457,7 @@ public class GameState implements Serializable{
                 
         // execute all the actions:
         for(UnitActionAssignment uaa:readyToExecute) {
-            unitActions.remove(uaa.unit);
+            removeActionAssignment(uaa.unit);
             uaa.action.execute(uaa.unit,this);
         }
     }
@@ -405,10 +466,13 @@ public class GameState implements Serializable{
         GameState gs = new GameState(pgs.clone(), utt);
         gs.time = time;
         gs.unitCancelationCounter = unitCancelationCounter;
+        // The clones are in the same order as the originals, so each unit is found through its position in the list
+        IdentityHashMap<Unit,Integer> indexes = new IdentityHashMap<Unit,Integer>(pgs.units.size());
+        for(int i = 0;i<pgs.units.size();i++) indexes.put(pgs.units.get(i), i);
         for(UnitActionAssignment uaa:unitActions.values()) {
             Unit u = uaa.unit;
-            int idx = pgs.getUnits().indexOf(u);
-            if (idx==-1) {
+            Integer idx = indexes.get(u);
+            if (idx==null) {
                 System.out.println("Problematic game state:");
                 System.out.println(this);
                 System.out.println("Problematic action:");
@@ -486,19 +550,17 @@ public class GameState implements Serializable{
     
     
     public boolean integrityCheck() {
-        List<Unit> alreadyUsed = new LinkedList<Unit>();
+        Set<Unit> alreadyUsed = Collections.newSetFromMap(new IdentityHashMap<Unit,Boolean>());
         for(UnitActionAssignment uaa:unitActions.values()) {
             Unit u = uaa.unit;
-            int idx = pgs.getUnits().indexOf(u);
-            if (idx==-1) {
+            if (!pgs.containsUnit(u)) {
                 System.err.println("integrityCheck: unit does not exist!");
                 return false;
             }            
-            if (alreadyUsed.contains(u)) {
+            if (!alreadyUsed.add(u)) {
                 System.err.println("integrityCheck: two actions to the same unit!");
                 return false;
             }
-            alreadyUsed.add(u);
         }
         return true;
     }
@@ -5,6 +5,7 @@ import java.io.Serializable;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -30,7 +31,21 @@ public class PhysicalGameState implements Serializable {
     int height = 8;
     int terrain[] = null;
     List<Player> players = new ArrayList<Player>();
-    List<Unit> units = new LinkedList<Unit>();
+    List<Unit> units = new ArrayList<Unit>();
+    
+    // Index of the units by position and by ID, so that lookups do not scan all units.
+    // Built on demand, and then kept up to date by addUnit, removeUnit and moveUnit.
+    // null means the index has to be rebuilt from the list of units.
+    transient Unit unitGrid[] = null;
+    transient HashMap<Long,Unit> unitsByID = null;
+    // Units shared with another game state can be moved by that state without this one
+    // knowing, so states created by cloneKeepingUnits look units up by scanning them
+    boolean sharedUnits = false;
+    // Incremented whenever units are added, removed or moved, so that game states can
+    // tell when information they derived from the units is out of date
+    transient int unitChanges = 0;
+    // Set when the units could not be indexed (e.g., two units in the same cell), until they change
+    transient boolean indexFailed = false;
     
     
     public static PhysicalGameState load(String fileName, UnitTypeTable utt) throws JDOMException, IOException {
@@ -65,12 +80,14 @@ public class PhysicalGameState implements Serializable {
     //       you change the map width or height
     public void setWidth(int w) {
         width = w;
+        invalidateIndex();
     }
     
     // note: these functions do not change the terrain array, remember to change that when
     //       you change the map width or height
     public void setHeight(int h) {
         height = h;
+        invalidateIndex();
     }      
     
     public int getTerrain(int x,int y) {
@@ -83,6 +100,7 @@ public class PhysicalGameState implements Serializable {
     
     public void setTerrain(int t[]){
         terrain = t;
+        invalidateIndex();
     }
     
     public void addPlayer(Player p) {
@@ -91,23 +109,100 @@ public class PhysicalGameState implements Serializable {
     }
     
     public void addUnit(Unit u) {
-    	for(Unit u2:units){
-    		if(u.getX()==u2.getX() && u.getY()==u2.getY() ){
-    			throw new IllegalArgumentException("PhysicalGameState.addUnit: added two units in position: ("
-    					+u.getX()+", "+u.getY()+")");
-    		}
+    	if(getUnitAt(u.getX(), u.getY())!=null){
+    		throw new IllegalArgumentException("PhysicalGameState.addUnit: added two units in position: ("
+    				+u.getX()+", "+u.getY()+")");
     	}
         units.add(u);
+        unitChanges++;
+        indexFailed = false;
+        if (unitGrid!=null) {
+            if (inside(u.getX(), u.getY())) {
+                unitGrid[u.getX()+u.getY()*width] = u;
+                unitsByID.put(u.getID(), u);
+            } else {
+                invalidateIndex();
+            }
+        }
     }
     
     public void removeUnit(Unit u) {
-        units.remove(u);
+        if (units.remove(u)) {
+            unitChanges++;
+            indexFailed = false;
+            if (unitGrid!=null) {
+                if (inside(u.getX(), u.getY()) && unitGrid[u.getX()+u.getY()*width]==u) unitGrid[u.getX()+u.getY()*width] = null;
+                if (unitsByID.get(u.getID())==u) unitsByID.remove(u.getID());
+            }
+        }
+    }
+    
+    // Units should be moved with this method rather than Unit.setX/setY, so that the
+    // position index stays up to date
+    public void moveUnit(Unit u, int x, int y) {
+        if (unitGrid!=null && inside(u.getX(), u.getY()) && unitGrid[u.getX()+u.getY()*width]==u) {
+            unitGrid[u.getX()+u.getY()*width] = null;
+        }
+        u.setX(x);
+        u.setY(y);
+        unitChanges++;
+        indexFailed = false;
+        if (unitGrid!=null) {
+            if (inside(x, y) && unitGrid[x+y*width]==null) {
+                unitGrid[x+y*width] = u;
+            } else {
+                invalidateIndex();
+            }
+        }
+    }
+    
+    // Call after changing units (their position or ID, or the list itself) without
+    // going through addUnit, removeUnit or moveUnit
+    public void invalidateIndex() {
+        unitGrid = null;
+        unitsByID = null;
+        unitChanges++;
+        indexFailed = false;
+    }
+    
+    boolean inside(int x, int y) {
+        return x>=0 && y>=0 && x<width && y<height;
     }
     
+    // Makes sure the index exists and still covers the same units as the list. Returns false
+    // if units have to be found by scanning the list instead (getUnitAt and getUnit do so)
+    public boolean unitsIndexed() {
+        if (sharedUnits || indexFailed) return false;
+        if (unitGrid==null || unitsByID.size()!=units.size()) {
+            if (terrain==null || terrain.length<width*height) return false;
+            unitGrid = new Unit[width*height];
+            unitsByID = new HashMap<Long,Unit>(units.size()*2);
+            for(Unit u:units) {
+                if (!inside(u.getX(), u.getY()) || unitGrid[u.getX()+u.getY()*width]!=null || unitsByID.containsKey(u.getID())) {
+                    // Not a state the index can describe: fall back to scanning
+                    unitGrid = null;
+                    unitsByID = null;
+                    indexFailed = true;
+                    return false;
+                }
+                unitGrid[u.getX()+u.getY()*width] = u;
+                unitsByID.put(u.getID(), u);
+            }
+        }
+        return true;
+    }
+    
+    // Units must be added, removed and moved with the methods above, or invalidateIndex
+    // must be called after changing this list directly
     public List<Unit> getUnits() {
         return units;
     }
     
+    public boolean containsUnit(Unit u) {
+        if (unitsIndexed()) return unitsByID.get(u.getID())==u;
+        return units.contains(u);
+    }
+    
     public List<Player> getPlayers() {
         return players;
     }
@@ -117,11 +212,13 @@ public class PhysicalGameState implements Serializable {
     }
     
     public Unit getUnit(long ID) {
+        if (unitsIndexed()) return unitsByID.get(ID);
         for(Unit u:units) if (u.getID()==ID) return u;
         return null;
     }
     
     public Unit getUnitAt(int x, int y) {
+        if (unitsIndexed()) return inside(x, y) ? unitGrid[x+y*width] : null;
         for(Unit u:units) {
             if (u.getX()==x && u.getY()==y) return u;
         }
@@ -206,6 +303,7 @@ public class PhysicalGameState implements Serializable {
         for(Unit u:units) {
             pgs.units.add(u);
         }
+        pgs.sharedUnits = true;
         return pgs;
     }
 
@@ -321,14 +419,17 @@ public class PhysicalGameState implements Serializable {
      public boolean[][] getAllFree() {
     	
     	boolean free[][]=new boolean[getWidth()][getHeight()];
+    	boolean grid = unitsIndexed();
     	for(int x=0;x<getWidth();x++){
     		for(int y=0;y<getHeight();y++){
-    			free[x][y]=(getTerrain(x, y)==PhysicalGameState.TERRAIN_NONE);
+    			free[x][y]=(getTerrain(x, y)==PhysicalGameState.TERRAIN_NONE) && (!grid || unitGrid[x+y*width]==null);
     		}
     	}
-        for(Unit u:units) {
-        	free[u.getX()][u.getY()]=false;
-        }
+    	if (!grid) {
+            for(Unit u:units) {
+            	free[u.getX()][u.getY()]=false;
+            }
+    	}
       
         return free;
     }
@@ -98,6 +98,7 @@ public class Trace {
                     }
                 }
             }
+            gs.getPhysicalGameState().invalidateIndex();
 
             if (gs.getTime()==cycle) {
                 getGameStateAtCycle_cache = gs;
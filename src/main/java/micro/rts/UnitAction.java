@@ -174,10 +174,10 @@ public class UnitAction implements Serializable {
                 break;
             case TYPE_MOVE:
                 switch(parameter) {
-                    case DIRECTION_UP:      u.setY(u.getY()-1); break;
-                    case DIRECTION_RIGHT:   u.setX(u.getX()+1); break;
-                    case DIRECTION_DOWN:    u.setY(u.getY()+1); break;
-                    case DIRECTION_LEFT:    u.setX(u.getX()-1); break;
+                    case DIRECTION_UP:      pgs.moveUnit(u, u.getX(), u.getY()-1); break;
+                    case DIRECTION_RIGHT:   pgs.moveUnit(u, u.getX()+1, u.getY()); break;
+                    case DIRECTION_DOWN:    pgs.moveUnit(u, u.getX(), u.getY()+1); break;
+                    case DIRECTION_LEFT:    pgs.moveUnit(u, u.getX()-1, u.getY()); break;
                 }
                 break;
             case TYPE_ATTACK_LOCATION:
@@ -166,27 +166,27 @@ public class Unit implements Serializable {
         PhysicalGameState pgs = s.getPhysicalGameState();
         Player p = pgs.getPlayer(player);
 
-        /*
-        Unit uup = pgs.getUnitAt(x,y-1);
-        Unit uright = pgs.getUnitAt(x+1,y);
-        Unit udown = pgs.getUnitAt(x,y+1);
-        Unit uleft = pgs.getUnitAt(x-1,y);
-        */
-        
         Unit uup = null, uright = null, udown = null, uleft = null;
-        for(Unit u:pgs.getUnits()) {
-            if (u.x==x) {
-                if (u.y==y-1) {
-                    uup = u;
-                } else if (u.y==y+1) {
-                    udown = u;
-                }
-            } else {
-                if (u.y==y) {
-                    if (u.x==x-1) {
-                        uleft = u;
-                    } else if (u.x==x+1) {
-                        uright = u;
+        if (pgs.unitsIndexed()) {
+            uup = pgs.getUnitAt(x,y-1);
+            uright = pgs.getUnitAt(x+1,y);
+            udown = pgs.getUnitAt(x,y+1);
+            uleft = pgs.getUnitAt(x-1,y);
+        } else {
+            for(Unit u:pgs.getUnits()) {
+                if (u.x==x) {
+                    if (u.y==y-1) {
+                        uup = u;
+                    } else if (u.y==y+1) {
+                        udown = u;
+                    }
+                } else {
+                    if (u.y==y) {
+                        if (u.x==x-1) {
+                            uleft = u;
+                        } else if (u.x==x+1) {
+                            uright = u;
+                        }
                     }
                 }
             }
@@ -11,16 +11,18 @@ package micro.util;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+
+import edu.southwestern.tasks.EvaluationContext;
 
 public class Sampler {
-    static Random generator = new Random();
+    // Random numbers come from the EvaluationContext of the current evaluation,
+    // so that games can be repeated from the random seed
 
     /*
      * Returns a random element in the distribution
      */
     public static int random(double[] distribution) {
-        return generator.nextInt(distribution.length);
+        return EvaluationContext.random().nextInt(distribution.length);
     }
 
     /*
@@ -44,7 +46,7 @@ public class Sampler {
         }
 
         if (best.size() > 0) {
-            return best.get(generator.nextInt(best.size()));
+            return best.get(EvaluationContext.random().nextInt(best.size()));
         }
 
         throw new Exception("Input distribution empty in Sampler.max!");
@@ -86,7 +88,7 @@ public class Sampler {
         
         if (total==0) return random(distribution);
 
-        tmp = generator.nextDouble() * total;
+        tmp = EvaluationContext.random().nextDouble() * total;
         for (int i = 0; i < distribution.length; i++) {
             accum += distribution[i];
             if (accum >= tmp) {
@@ -108,9 +110,9 @@ public class Sampler {
             total += f;
         }
         
-        if (total==0) return outputs.get(generator.nextInt(outputs.size()));
+        if (total==0) return outputs.get(EvaluationContext.random().nextInt(outputs.size()));
 
-        tmp = generator.nextDouble() * total;
+        tmp = EvaluationContext.random().nextDouble() * total;
         for (int i = 0; i < distribution.size(); i++) {
             accum += distribution.get(i);
             if (accum >= tmp) {
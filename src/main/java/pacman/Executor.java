@@ -23,6 +23,8 @@ import pacman.game.Constants.GHOST;
 import static pacman.game.Constants.INTERVAL_WAIT;
 import pacman.game.Constants.MOVE;
 import pacman.game.Game;
+import pacman.game.GameReplay;
+import pacman.game.GameSnapshot;
 import pacman.game.GameView;
 
 /**
@@ -381,6 +383,51 @@ public class Executor {
 		ghostController.terminate();
 	}
 
+	/**
+	 * Run a game without visuals in synchronous mode: each time step both
+	 * controllers compute their moves on the calling thread, and the game
+	 * advances as soon as they are done. No controller threads are started and
+	 * there is no waiting, so the game plays out the same as in
+	 * runGameTimedSpeedOptimised whenever the controllers reply in time, but
+	 * much faster. Each controller gets a copy of the game that is reused from
+	 * one time step to the next, so the copies are only valid during getMove.
+	 *
+	 * @param pacManController
+	 *            The Pac-Man controller
+	 * @param ghostController
+	 *            The Ghosts controller
+	 * @param timeLimit
+	 *            Whether a move computed after the time it was due is replaced
+	 *            by the previous move of the controller, as happens in the
+	 *            timed modes
+	 * @param game
+	 *            instance of pacman game to use
+	 */
+	public void runGameHeadless(Controller<MOVE> pacManController, Controller<EnumMap<GHOST, MOVE>> ghostController,
+			boolean timeLimit, Game game) {
+		Game pacManCopy = null;
+		Game ghostCopy = null;
+		while (!game.gameOver()) {
+			long due = System.currentTimeMillis() + DELAY;
+			MOVE previousPacManMove = pacManController.getMove();
+			pacManCopy = game.copyInto(pacManCopy);
+			MOVE pacManMove = pacManController.computeMove(pacManCopy, due);
+			if (timeLimit && System.currentTimeMillis() > due) {
+				pacManMove = previousPacManMove;
+			}
+
+			due = System.currentTimeMillis() + DELAY;
+			EnumMap<GHOST, MOVE> previousGhostMoves = ghostController.getMove();
+			ghostCopy = game.copyInto(ghostCopy);
+			EnumMap<GHOST, MOVE> ghostMoves = ghostController.computeMove(ghostCopy, due);
+			if (timeLimit && System.currentTimeMillis() > due) {
+				ghostMoves = previousGhostMoves;
+			}
+
+			game.advanceGame(pacManMove, ghostMoves);
+		}
+	}
+
 	/**
 	 * Run a game in asynchronous mode and recorded.
 	 *
@@ -395,7 +442,12 @@ public class Executor {
 	 */
 	public void runGameTimedRecorded(Game game, Controller<MOVE> pacManController,
 			Controller<EnumMap<GHOST, MOVE>> ghostController, boolean visual, String fileName) {
-		StringBuilder replay = new StringBuilder();
+		GameReplay.Writer replay = null;
+		try {
+			replay = new GameReplay.Writer(fileName);
+		} catch (IOException e) {
+			System.out.println("Could not save data!");
+		}
 
 		// Game game = new Game(0);
 		GameView gv = null;
@@ -427,13 +479,26 @@ public class Executor {
 				gv.repaint();
 			}
 
-			replay.append(game.getGameState() + "\n");
+			if (replay != null) {
+				try {
+					replay.append(game);
+				} catch (IOException e) {
+					System.out.println("Could not save data!");
+					replay = null;
+				}
+			}
 		}
 
 		pacManController.terminate();
 		ghostController.terminate();
 
-		saveToFile(replay.toString(), fileName, false);
+		if (replay != null) {
+			try {
+				replay.close();
+			} catch (IOException e) {
+				System.out.println("Could not save data!");
+			}
+		}
 	}
 
 	/**
@@ -463,7 +528,11 @@ public class Executor {
 			}
 		}
 
-		ArrayList<String> timeSteps = loadReplay(fileName);
+		// Replays are binary unless they were recorded in the older text format
+		boolean binary = GameReplay.isBinaryReplay(fileName);
+		ArrayList<GameSnapshot> snapshots = binary ? loadBinaryReplay(fileName) : null;
+		ArrayList<String> timeSteps = binary ? null : loadReplay(fileName);
+		int numTimeSteps = binary ? snapshots.size() : timeSteps.size();
 
 		Game game = new Game(0);
 
@@ -475,8 +544,12 @@ public class Executor {
 
 		int level = -1;
 		int lives = 10;
-		for (int j = 0; j < timeSteps.size(); j++) {
-			game.setGameState(timeSteps.get(j));
+		for (int j = 0; j < numTimeSteps; j++) {
+			if (binary) {
+				game.restoreSnapshot(snapshots.get(j));
+			} else {
+				game.setGameState(timeSteps.get(j));
+			}
 			if (game.getCurrentLevel() != level || game.getPacmanNumberOfLivesRemaining() < lives) {
 				level = game.getCurrentLevel();
 				lives = game.getPacmanNumberOfLivesRemaining();
@@ -539,7 +612,17 @@ public class Executor {
 		}
 	}
 
-	// load a replay
+	// load a binary replay
+	private static ArrayList<GameSnapshot> loadBinaryReplay(String fileName) {
+		try {
+			return GameReplay.load(fileName);
+		} catch (IOException ioe) {
+			ioe.printStackTrace();
+			return new ArrayList<GameSnapshot>();
+		}
+	}
+
+	// load a text replay
 	private static ArrayList<String> loadReplay(String fileName) {
 		ArrayList<String> replay = new ArrayList<String>();
 
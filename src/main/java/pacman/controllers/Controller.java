@@ -74,6 +74,23 @@ public abstract class Controller<T> implements Runnable {
 		return lastMove;
 	}
 
+	/**
+	 * Computes the move on the calling thread instead of the controller
+	 * thread, and stores it as the last move, as if the controller thread had
+	 * computed it. Used by executors that step the game synchronously.
+	 *
+	 * @param game
+	 *            A copy of the current game
+	 * @param timeDue
+	 *            The time the next move is due
+	 * @return The move computed by getMove(game, timeDue)
+	 */
+	public final T computeMove(Game game, long timeDue) {
+		lastMove = getMove(game, timeDue);
+		hasComputed = true;
+		return lastMove;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -109,24 +109,49 @@ public final class Game {
 		}
 	}
 
-	public static PathsCache[] caches = new PathsCache[NUM_MAZES];
-
-	static {
-		resetPathCaches();
-	}
+	// Built the first time a maze needs one. The array is replaced rather than
+	// modified, so threads reading it without locking see complete caches.
+	public static volatile PathsCache[] caches = new PathsCache[NUM_MAZES];
+	private static final Object CACHES_LOCK = new Object();
 
 	public static int amountCachedPathData() {
+		PathsCache[] current = caches;
 		int total = 0;
-		for (int i = 0; i < mazes.length; i++) {
-			total += caches[i].junctionIndexConverter.size();
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] != null) {
+				total += current[i].junctionIndexConverter.size();
+			}
 		}
 		return total;
 	}
 
 	public static void resetPathCaches() {
-		for (int i = 0; i < mazes.length; i++) {
-			caches[i] = new PathsCache(i);
+		synchronized (CACHES_LOCK) {
+			caches = new PathsCache[NUM_MAZES];
+		}
+	}
+
+	/**
+	 * Path cache of a maze, which is built on first use
+	 *
+	 * @param maze
+	 *            Index of maze
+	 * @return its path cache
+	 */
+	public static PathsCache getPathsCache(int maze) {
+		PathsCache cache = caches[maze];
+		if (cache == null) {
+			synchronized (CACHES_LOCK) {
+				cache = caches[maze];
+				if (cache == null) {
+					cache = new PathsCache(maze);
+					PathsCache[] updated = Arrays.copyOf(caches, NUM_MAZES);
+					updated[maze] = cache;
+					caches = updated;
+				}
+			}
 		}
+		return cache;
 	}
 
 	public ResumableRandom rnd;
@@ -659,16 +684,35 @@ public final class Game {
 	 * @return the game
 	 */
 	public Game copy() {
-		Game copy = new Game();
+		return copyInto(new Game());
+	}
+
+	/**
+	 * Copies the game into an existing game, reusing its pill sets, agents and
+	 * maps instead of allocating new ones. The result is the same as copy():
+	 * fields that copy() does not carry over are reset to their initial values.
+	 * Useful for executors that hand a fresh copy to the controllers every time
+	 * step.
+	 *
+	 * @param copy
+	 *            Game to overwrite, or null to create a new one
+	 * @return the copy (same object as the parameter if it was not null)
+	 */
+	public Game copyInto(Game copy) {
+		if (copy == null) {
+			copy = new Game();
+		}
 
 		// copy.scores = (ArrayList<Integer>) this.scores.clone();
 
-		copy.rnd = new ResumableRandom();
+		if (copy.rnd == null) {
+			copy.rnd = new ResumableRandom();
+		}
 		copy.rnd.hardSetSeed(rnd.getSeed());
 
 		copy.currentMaze = currentMaze;
-		copy.pills = (BitSet) pills.clone();
-		copy.powerPills = (BitSet) powerPills.clone();
+		copy.pills = copyBits(pills, copy.pills);
+		copy.powerPills = copyBits(powerPills, copy.powerPills);
 		copy.mazeIndex = mazeIndex;
 		copy.levelCount = levelCount;
 		copy.levelCount2 = levelCount2;
@@ -686,7 +730,11 @@ public final class Game {
 		copy.ghostReward = ghostReward;
 		copy.ghostRegret = ghostRegret;
 		copy.eatenGhosts = eatenGhosts;
-		copy.specificEatenGhosts = Arrays.copyOf(specificEatenGhosts, specificEatenGhosts.length);
+		if (copy.specificEatenGhosts == null || copy.specificEatenGhosts.length != specificEatenGhosts.length) {
+			copy.specificEatenGhosts = Arrays.copyOf(specificEatenGhosts, specificEatenGhosts.length);
+		} else {
+			System.arraycopy(specificEatenGhosts, 0, copy.specificEatenGhosts, 0, specificEatenGhosts.length);
+		}
 		copy.powerPillsEatenWhenGhostFar = powerPillsEatenWhenGhostFar;
 		copy.improperlyEatenPowerPills = improperlyEatenPowerPills;
 		copy.properlyEatenPowerPills = properlyEatenPowerPills;
@@ -699,19 +747,316 @@ public final class Game {
 		copy.ghostsStartOutsideLair = ghostsStartOutsideLair;
 		copy.onlyOneLairExitAllowed = onlyOneLairExitAllowed;
 
-		copy.pacman = pacman.copy();
+		// Not copied: a reused game gets the values of a new one
+		copy.moves = 0;
+		copy.pacmanWasEaten = false;
+		copy.pillWasEaten = false;
+		copy.powerPillWasEaten = false;
+		copy.pillEatTimes = null;
+		copy.ghostEatTimes = null;
+		copy.exitLairEdible = false;
+		copy.endOnlyOnTimeLimit = false;
+		copy.randomLairExit = false;
+		copy.lairExitDatabase = false;
+		copy.simultaneousLairExit = false;
+		copy.removePillsNearPowerPills = false;
+		copy.scores = null;
+		copy.eatenGhostsPerPowerPill = null;
+		copy.timesToEatAllGhosts = null;
+		copy.timeLastPowerPillEaten = -1;
+
+		if (copy.pacman == null) {
+			copy.pacman = pacman.copy();
+		} else {
+			copy.pacman.currentNodeIndex = pacman.currentNodeIndex;
+			copy.pacman.lastMoveMade = pacman.lastMoveMade;
+			copy.pacman.numberOfLivesRemaining = pacman.numberOfLivesRemaining;
+			copy.pacman.hasReceivedExtraLife = pacman.hasReceivedExtraLife;
+		}
 
-		copy.ghostsEaten = new EnumMap<GHOST, Boolean>(GHOST.class);
-		copy.ghosts = new EnumMap<GHOST, Ghost>(GHOST.class);
+		if (copy.ghosts == null) {
+			copy.ghostsEaten = new EnumMap<GHOST, Boolean>(GHOST.class);
+			copy.ghosts = new EnumMap<GHOST, Ghost>(GHOST.class);
+		}
 
 		for (GHOST ghostType : GHOST.values()) {
-			copy.ghosts.put(ghostType, ghosts.get(ghostType).copy());
+			Ghost ghost = ghosts.get(ghostType);
+			Ghost ghostCopy = copy.ghosts.get(ghostType);
+			if (ghostCopy == null) {
+				copy.ghosts.put(ghostType, ghost.copy());
+			} else {
+				ghostCopy.type = ghost.type;
+				ghostCopy.currentNodeIndex = ghost.currentNodeIndex;
+				ghostCopy.edibleTime = ghost.edibleTime;
+				ghostCopy.lairTime = ghost.lairTime;
+				ghostCopy.lastMoveMade = ghost.lastMoveMade;
+			}
 			copy.ghostsEaten.put(ghostType, ghostsEaten.get(ghostType));
 		}
 
 		return copy;
 	}
 
+	/**
+	 * Copy a pill set, reusing the target set if there is one
+	 */
+	private static BitSet copyBits(BitSet source, BitSet target) {
+		if (target == null) {
+			return (BitSet) source.clone();
+		}
+		target.clear();
+		target.or(source);
+		return target;
+	}
+
+	/**
+	 * Stores the state of the game in a snapshot, reusing the snapshot's
+	 * arrays. Besides everything getGameState() stores, the snapshot keeps
+	 * the variables copied by copy(), the lair and ending options, and the
+	 * number of moves. The lists of statistics (pill and ghost eating times,
+	 * scores) are not part of snapshots.
+	 *
+	 * @param snapshot
+	 *            Snapshot to fill, or null to create a new one
+	 * @return the filled snapshot
+	 */
+	public GameSnapshot saveSnapshot(GameSnapshot snapshot) {
+		if (snapshot == null) {
+			snapshot = new GameSnapshot();
+		}
+		int pillWords = GameSnapshot.words(currentMaze.pillIndices.length);
+		snapshot.setPillWords(pillWords, GameSnapshot.words(currentMaze.powerPillIndices.length));
+		long[] data = snapshot.data;
+
+		data[GameSnapshot.SEED] = rnd.getSeed();
+		data[GameSnapshot.LURE_DISTANCE_FITNESS] = Double.doubleToRawLongBits(lureDistanceFitness);
+		data[GameSnapshot.TIME_IN_DEAD_SPACE] = timeInDeadSpace;
+
+		long flags = 0;
+		flags |= gameOver ? GameSnapshot.GAME_OVER : 0;
+		flags |= pacmanWasEaten ? GameSnapshot.PACMAN_WAS_EATEN : 0;
+		flags |= pillWasEaten ? GameSnapshot.PILL_WAS_EATEN : 0;
+		flags |= powerPillWasEaten ? GameSnapshot.POWER_PILL_WAS_EATEN : 0;
+		flags |= pacman.hasReceivedExtraLife ? GameSnapshot.PACMAN_RECEIVED_EXTRA_LIFE : 0;
+		flags |= playWithoutPillsUntilGhostsThreaten ? GameSnapshot.PLAY_WITHOUT_PILLS_UNTIL_GHOSTS_THREATEN : 0;
+		flags |= noPowerPills ? GameSnapshot.NO_POWER_PILLS : 0;
+		flags |= endAfterGhostEatingChances ? GameSnapshot.END_AFTER_GHOST_EATING_CHANCES : 0;
+		flags |= endAfterPowerPillsEaten ? GameSnapshot.END_AFTER_POWER_PILLS_EATEN : 0;
+		flags |= ghostsStartOutsideLair ? GameSnapshot.GHOSTS_START_OUTSIDE_LAIR : 0;
+		flags |= onlyOneLairExitAllowed ? GameSnapshot.ONLY_ONE_LAIR_EXIT_ALLOWED : 0;
+		flags |= exitLairEdible ? GameSnapshot.EXIT_LAIR_EDIBLE : 0;
+		flags |= endOnlyOnTimeLimit ? GameSnapshot.END_ONLY_ON_TIME_LIMIT : 0;
+		flags |= randomLairExit ? GameSnapshot.RANDOM_LAIR_EXIT : 0;
+		flags |= lairExitDatabase ? GameSnapshot.LAIR_EXIT_DATABASE : 0;
+		flags |= simultaneousLairExit ? GameSnapshot.SIMULTANEOUS_LAIR_EXIT : 0;
+		flags |= removePillsNearPowerPills ? GameSnapshot.REMOVE_PILLS_NEAR_POWER_PILLS : 0;
+		for (GHOST ghostType : GHOST.values()) {
+			if (ghostsEaten.get(ghostType)) {
+				flags |= 1L << (GameSnapshot.GHOST_EATEN_SHIFT + ghostType.ordinal());
+			}
+		}
+		data[GameSnapshot.FLAGS] = flags;
+
+		for (int i = 0; i < NUM_GHOSTS; i++) {
+			data[GameSnapshot.SPECIFIC_EATEN_GHOSTS + i] = specificEatenGhosts[i];
+		}
+		data[GameSnapshot.POWER_PILLS_EATEN_WHEN_GHOST_FAR] = powerPillsEatenWhenGhostFar;
+		data[GameSnapshot.IMPROPERLY_EATEN_POWER_PILLS] = improperlyEatenPowerPills;
+		data[GameSnapshot.PROPERLY_EATEN_POWER_PILLS] = properlyEatenPowerPills;
+		data[GameSnapshot.TIME_PILL_REWARD] = timePillReward;
+		data[GameSnapshot.TIME_GHOST_REWARD] = timeGhostReward;
+		data[GameSnapshot.GHOST_REWARD] = ghostReward;
+		data[GameSnapshot.GHOST_REGRET] = ghostRegret;
+		data[GameSnapshot.EATEN_GHOSTS] = eatenGhosts;
+		data[GameSnapshot.EATEN_PILLS] = eatenPills;
+		data[GameSnapshot.MAZE_INDEX] = mazeIndex;
+		data[GameSnapshot.TOTAL_TIME] = totalTime;
+		data[GameSnapshot.SCORE] = score;
+		data[GameSnapshot.CURRENT_LEVEL_TIME] = currentLevelTime;
+		data[GameSnapshot.LEVEL_COUNT] = levelCount;
+		data[GameSnapshot.LEVEL_COUNT2] = levelCount2;
+		data[GameSnapshot.GHOST_EAT_MULTIPLIER] = ghostEatMultiplier;
+		data[GameSnapshot.TIME_OF_LAST_GLOBAL_REVERSAL] = timeOfLastGlobalReversal;
+		data[GameSnapshot.TIME_LAST_POWER_PILL_EATEN] = timeLastPowerPillEaten;
+		data[GameSnapshot.MOVES] = moves;
+		data[GameSnapshot.PACMAN_NODE] = pacman.currentNodeIndex;
+		data[GameSnapshot.PACMAN_LAST_MOVE] = pacman.lastMoveMade.ordinal();
+		data[GameSnapshot.PACMAN_LIVES] = pacman.numberOfLivesRemaining;
+
+		for (GHOST ghostType : GHOST.values()) {
+			Ghost ghost = ghosts.get(ghostType);
+			int slot = GameSnapshot.GHOSTS + GameSnapshot.GHOST_SLOTS * ghostType.ordinal();
+			data[slot] = ghost.currentNodeIndex;
+			data[slot + 1] = ghost.edibleTime;
+			data[slot + 2] = ghost.lairTime;
+			data[slot + 3] = ghost.lastMoveMade.ordinal();
+		}
+
+		saveBits(pills, data, GameSnapshot.PILLS);
+		saveBits(powerPills, data, GameSnapshot.PILLS + pillWords);
+		return snapshot;
+	}
+
+	/**
+	 * Set the bits of a pill set in zeroed bit masks. Remaining pills tend to
+	 * form long runs, so each run is set with a few masks.
+	 */
+	private static void saveBits(BitSet source, long[] data, int start) {
+		for (int from = source.nextSetBit(0); from >= 0; from = source.nextSetBit(from)) {
+			int to = source.nextClearBit(from); // Exclusive
+			int firstWord = from >>> 6;
+			int lastWord = (to - 1) >>> 6;
+			for (int w = firstWord; w <= lastWord; w++) {
+				long mask = -1L;
+				if (w == firstWord) {
+					mask &= -1L << from; // Shift uses the low 6 bits only
+				}
+				if (w == lastWord) {
+					mask &= -1L >>> (Long.SIZE - 1 - ((to - 1) & 63));
+				}
+				data[start + w] |= mask;
+			}
+			from = to;
+		}
+	}
+
+	/**
+	 * Sets the game to the state stored in a snapshot, reusing the pill sets,
+	 * agents and maps of the game. The lists of statistics are cleared, since
+	 * they are not part of snapshots. Restoring a snapshot of a game gives the
+	 * same result as copy(), apart from the options copy() leaves out.
+	 *
+	 * @param snapshot
+	 *            Snapshot filled by saveSnapshot
+	 */
+	public void restoreSnapshot(GameSnapshot snapshot) {
+		long[] data = snapshot.data;
+
+		if (rnd == null) {
+			rnd = new ResumableRandom();
+		}
+		rnd.hardSetSeed(data[GameSnapshot.SEED]);
+		lureDistanceFitness = Double.longBitsToDouble(data[GameSnapshot.LURE_DISTANCE_FITNESS]);
+		timeInDeadSpace = data[GameSnapshot.TIME_IN_DEAD_SPACE];
+
+		long flags = data[GameSnapshot.FLAGS];
+		gameOver = (flags & GameSnapshot.GAME_OVER) != 0;
+		pacmanWasEaten = (flags & GameSnapshot.PACMAN_WAS_EATEN) != 0;
+		pillWasEaten = (flags & GameSnapshot.PILL_WAS_EATEN) != 0;
+		powerPillWasEaten = (flags & GameSnapshot.POWER_PILL_WAS_EATEN) != 0;
+		playWithoutPillsUntilGhostsThreaten = (flags & GameSnapshot.PLAY_WITHOUT_PILLS_UNTIL_GHOSTS_THREATEN) != 0;
+		noPowerPills = (flags & GameSnapshot.NO_POWER_PILLS) != 0;
+		endAfterGhostEatingChances = (flags & GameSnapshot.END_AFTER_GHOST_EATING_CHANCES) != 0;
+		endAfterPowerPillsEaten = (flags & GameSnapshot.END_AFTER_POWER_PILLS_EATEN) != 0;
+		ghostsStartOutsideLair = (flags & GameSnapshot.GHOSTS_START_OUTSIDE_LAIR) != 0;
+		onlyOneLairExitAllowed = (flags & GameSnapshot.ONLY_ONE_LAIR_EXIT_ALLOWED) != 0;
+		exitLairEdible = (flags & GameSnapshot.EXIT_LAIR_EDIBLE) != 0;
+		endOnlyOnTimeLimit = (flags & GameSnapshot.END_ONLY_ON_TIME_LIMIT) != 0;
+		randomLairExit = (flags & GameSnapshot.RANDOM_LAIR_EXIT) != 0;
+		lairExitDatabase = (flags & GameSnapshot.LAIR_EXIT_DATABASE) != 0;
+		simultaneousLairExit = (flags & GameSnapshot.SIMULTANEOUS_LAIR_EXIT) != 0;
+		removePillsNearPowerPills = (flags & GameSnapshot.REMOVE_PILLS_NEAR_POWER_PILLS) != 0;
+
+		if (specificEatenGhosts == null || specificEatenGhosts.length != NUM_GHOSTS) {
+			specificEatenGhosts = new int[NUM_GHOSTS];
+		}
+		for (int i = 0; i < NUM_GHOSTS; i++) {
+			specificEatenGhosts[i] = (int) data[GameSnapshot.SPECIFIC_EATEN_GHOSTS + i];
+		}
+		powerPillsEatenWhenGhostFar = (int) data[GameSnapshot.POWER_PILLS_EATEN_WHEN_GHOST_FAR];
+		improperlyEatenPowerPills = (int) data[GameSnapshot.IMPROPERLY_EATEN_POWER_PILLS];
+		properlyEatenPowerPills = (int) data[GameSnapshot.PROPERLY_EATEN_POWER_PILLS];
+		timePillReward = (int) data[GameSnapshot.TIME_PILL_REWARD];
+		timeGhostReward = (int) data[GameSnapshot.TIME_GHOST_REWARD];
+		ghostReward = (int) data[GameSnapshot.GHOST_REWARD];
+		ghostRegret = (int) data[GameSnapshot.GHOST_REGRET];
+		eatenGhosts = (int) data[GameSnapshot.EATEN_GHOSTS];
+		eatenPills = (int) data[GameSnapshot.EATEN_PILLS];
+		mazeIndex = (int) data[GameSnapshot.MAZE_INDEX];
+		currentMaze = mazes[mazeIndex];
+		totalTime = (int) data[GameSnapshot.TOTAL_TIME];
+		score = (int) data[GameSnapshot.SCORE];
+		currentLevelTime = (int) data[GameSnapshot.CURRENT_LEVEL_TIME];
+		levelCount = (int) data[GameSnapshot.LEVEL_COUNT];
+		levelCount2 = (int) data[GameSnapshot.LEVEL_COUNT2];
+		ghostEatMultiplier = (int) data[GameSnapshot.GHOST_EAT_MULTIPLIER];
+		timeOfLastGlobalReversal = (int) data[GameSnapshot.TIME_OF_LAST_GLOBAL_REVERSAL];
+		timeLastPowerPillEaten = (int) data[GameSnapshot.TIME_LAST_POWER_PILL_EATEN];
+		moves = (int) data[GameSnapshot.MOVES];
+
+		MOVE[] moveValues = MOVE.values();
+		int pacmanNode = (int) data[GameSnapshot.PACMAN_NODE];
+		MOVE pacmanMove = moveValues[(int) data[GameSnapshot.PACMAN_LAST_MOVE]];
+		int lives = (int) data[GameSnapshot.PACMAN_LIVES];
+		boolean extraLife = (flags & GameSnapshot.PACMAN_RECEIVED_EXTRA_LIFE) != 0;
+		if (pacman == null) {
+			pacman = new PacMan(pacmanNode, pacmanMove, lives, extraLife);
+		} else {
+			pacman.currentNodeIndex = pacmanNode;
+			pacman.lastMoveMade = pacmanMove;
+			pacman.numberOfLivesRemaining = lives;
+			pacman.hasReceivedExtraLife = extraLife;
+		}
+
+		if (ghosts == null) {
+			ghosts = new EnumMap<GHOST, Ghost>(GHOST.class);
+		}
+		if (ghostsEaten == null) {
+			ghostsEaten = new EnumMap<GHOST, Boolean>(GHOST.class);
+		}
+		for (GHOST ghostType : GHOST.values()) {
+			int slot = GameSnapshot.GHOSTS + GameSnapshot.GHOST_SLOTS * ghostType.ordinal();
+			int node = (int) data[slot];
+			int edibleTime = (int) data[slot + 1];
+			int lairTime = (int) data[slot + 2];
+			MOVE lastMove = moveValues[(int) data[slot + 3]];
+			Ghost ghost = ghosts.get(ghostType);
+			if (ghost == null) {
+				ghosts.put(ghostType, new Ghost(ghostType, node, edibleTime, lairTime, lastMove));
+			} else {
+				ghost.type = ghostType;
+				ghost.currentNodeIndex = node;
+				ghost.edibleTime = edibleTime;
+				ghost.lairTime = lairTime;
+				ghost.lastMoveMade = lastMove;
+			}
+			ghostsEaten.put(ghostType, (flags & (1L << (GameSnapshot.GHOST_EATEN_SHIFT + ghostType.ordinal()))) != 0);
+		}
+
+		int pillWords = (int) data[GameSnapshot.PILL_WORDS];
+		pills = restoreBits(data, GameSnapshot.PILLS, pillWords, pills);
+		powerPills = restoreBits(data, GameSnapshot.PILLS + pillWords, (int) data[GameSnapshot.POWER_PILL_WORDS],
+				powerPills);
+
+		pillEatTimes = null;
+		ghostEatTimes = null;
+		scores = null;
+		eatenGhostsPerPowerPill = null;
+		timesToEatAllGhosts = null;
+	}
+
+	/**
+	 * Set a pill set from bit masks, reusing the set if there is one
+	 */
+	private static BitSet restoreBits(long[] data, int start, int words, BitSet target) {
+		if (target == null) {
+			target = new BitSet(words * Long.SIZE);
+		} else {
+			target.clear();
+		}
+		for (int w = 0; w < words; w++) {
+			long word = data[start + w];
+			// Set each run of ones in the word at once
+			while (word != 0) {
+				int from = Long.numberOfTrailingZeros(word);
+				int to = Long.numberOfTrailingZeros(~(word >>> from)) + from;
+				target.set(w * Long.SIZE + from, w * Long.SIZE + to);
+				word = to == Long.SIZE ? 0 : word & (-1L << to);
+			}
+		}
+		return target;
+	}
+
 	/////////////////////////////////////////////////////////////////////////////
 	/////////////////////////// Game-engine //////////////////////////////////
 	/////////////////////////////////////////////////////////////////////////////
@@ -2018,9 +2363,9 @@ public final class Game {
 		if (fromNodeIndex == toNodeIndex) {
 			return 0;
 		} else if (fromNodeIndex < toNodeIndex) {
-			return currentMaze.shortestPathDistances[((toNodeIndex * (toNodeIndex + 1)) / 2) + fromNodeIndex];
+			return currentMaze.shortestPathDistances.get(((toNodeIndex * (toNodeIndex + 1)) / 2) + fromNodeIndex);
 		} else {
-			return currentMaze.shortestPathDistances[((fromNodeIndex * (fromNodeIndex + 1)) / 2) + toNodeIndex];
+			return currentMaze.shortestPathDistances.get(((fromNodeIndex * (fromNodeIndex + 1)) / 2) + toNodeIndex);
 		}
 	}
 
@@ -2387,7 +2732,7 @@ public final class Game {
 	 * @return the shortest path from start to target
 	 */
 	public int[] getShortestPath(int fromNodeIndex, int toNodeIndex) {
-		return caches[mazeIndex].getPathFromA2B(fromNodeIndex, toNodeIndex);
+		return getPathsCache(mazeIndex).getPathFromA2B(fromNodeIndex, toNodeIndex);
 	}
 
 	/**
@@ -2432,7 +2777,7 @@ public final class Game {
 		}
 		assert currentMaze.graph.length > fromNodeIndex : "From node " + fromNodeIndex + " not in graph";
 		assert currentMaze.graph.length > toNodeIndex : "To node " + toNodeIndex + " not in graph";
-		return caches[mazeIndex].getPathFromA2B(fromNodeIndex, toNodeIndex, lastMoveMade);
+		return getPathsCache(mazeIndex).getPathFromA2B(fromNodeIndex, toNodeIndex, lastMoveMade);
 	}
 
 	/**
@@ -2474,7 +2819,7 @@ public final class Game {
 			return 0;
 		}
 
-		return caches[mazeIndex].getPathDistanceFromA2B(fromNodeIndex, toNodeIndex, lastMoveMade);
+		return getPathsCache(mazeIndex).getPathDistanceFromA2B(fromNodeIndex, toNodeIndex, lastMoveMade);
 	}
 
 	public double getScore(int level) {
@@ -0,0 +1,109 @@
+package pacman.game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Binary replay files: a header followed by one GameSnapshot per time step,
+ * each written as its difference from the previous one. Compared to the text
+ * replays made of getGameState() lines, these are much smaller and are loaded
+ * without any parsing of strings.
+ *
+ * @author Jacob Schrum
+ */
+public class GameReplay {
+
+	// Start of every binary replay file: "PMRP" followed by a format version
+	public static final int MAGIC = 0x504D5250;
+	public static final int VERSION = 1;
+
+	/**
+	 * Writes a replay one time step at a time
+	 */
+	public static class Writer implements Closeable {
+
+		private final DataOutputStream out;
+		private GameSnapshot previous = new GameSnapshot();
+		private GameSnapshot current = new GameSnapshot();
+		private boolean first = true;
+
+		public Writer(String fileName) throws IOException {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+		}
+
+		/**
+		 * Add the current state of the game to the replay
+		 *
+		 * @param game
+		 *            Game being recorded
+		 */
+		public void append(Game game) throws IOException {
+			game.saveSnapshot(current);
+			current.writeDelta(out, first ? null : previous);
+			first = false;
+			GameSnapshot temp = previous;
+			previous = current;
+			current = temp;
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+
+	/**
+	 * Whether a file starts like a binary replay. Older replays are text files
+	 * of game states.
+	 *
+	 * @param fileName
+	 *            Replay file
+	 * @return true if the file is a binary replay
+	 */
+	public static boolean isBinaryReplay(String fileName) {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(fileName))) {
+			return in.readInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Loads all time steps of a binary replay
+	 *
+	 * @param fileName
+	 *            File written by a Writer
+	 * @return Snapshot of each time step, in order
+	 */
+	public static ArrayList<GameSnapshot> load(String fileName) throws IOException {
+		ArrayList<GameSnapshot> timeSteps = new ArrayList<GameSnapshot>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName), 1 << 16))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(fileName + " is not a binary replay");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException(fileName + " has unsupported replay version " + version);
+			}
+			GameSnapshot previous = null;
+			while (true) {
+				GameSnapshot next = new GameSnapshot();
+				if (!next.readDelta(in, previous)) {
+					break;
+				}
+				timeSteps.add(next);
+				previous = next;
+			}
+		}
+		return timeSteps;
+	}
+}
@@ -0,0 +1,225 @@
+package pacman.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Packed copy of the state of a Game: every variable of the state is stored
+ * in one slot of a long[], followed by the pills and power pills as bit masks.
+ * A snapshot can be refilled from a game and restored into a game without
+ * allocating anything, so forward searches and recorded games can save and
+ * reload states cheaply. Snapshots can also be written as the difference from
+ * the previous snapshot, which is what the binary replay format consists of.
+ *
+ * @author Jacob Schrum
+ */
+public final class GameSnapshot {
+
+	// Slots of the state variables
+	static final int SEED = 0;
+	static final int LURE_DISTANCE_FITNESS = 1; // Raw bits of the double
+	static final int TIME_IN_DEAD_SPACE = 2;
+	static final int FLAGS = 3;
+	static final int SPECIFIC_EATEN_GHOSTS = 4; // One slot per ghost
+	static final int POWER_PILLS_EATEN_WHEN_GHOST_FAR = SPECIFIC_EATEN_GHOSTS + Constants.NUM_GHOSTS;
+	static final int IMPROPERLY_EATEN_POWER_PILLS = POWER_PILLS_EATEN_WHEN_GHOST_FAR + 1;
+	static final int PROPERLY_EATEN_POWER_PILLS = IMPROPERLY_EATEN_POWER_PILLS + 1;
+	static final int TIME_PILL_REWARD = PROPERLY_EATEN_POWER_PILLS + 1;
+	static final int TIME_GHOST_REWARD = TIME_PILL_REWARD + 1;
+	static final int GHOST_REWARD = TIME_GHOST_REWARD + 1;
+	static final int GHOST_REGRET = GHOST_REWARD + 1;
+	static final int EATEN_GHOSTS = GHOST_REGRET + 1;
+	static final int EATEN_PILLS = EATEN_GHOSTS + 1;
+	static final int MAZE_INDEX = EATEN_PILLS + 1;
+	static final int TOTAL_TIME = MAZE_INDEX + 1;
+	static final int SCORE = TOTAL_TIME + 1;
+	static final int CURRENT_LEVEL_TIME = SCORE + 1;
+	static final int LEVEL_COUNT = CURRENT_LEVEL_TIME + 1;
+	static final int LEVEL_COUNT2 = LEVEL_COUNT + 1;
+	static final int GHOST_EAT_MULTIPLIER = LEVEL_COUNT2 + 1;
+	static final int TIME_OF_LAST_GLOBAL_REVERSAL = GHOST_EAT_MULTIPLIER + 1;
+	static final int TIME_LAST_POWER_PILL_EATEN = TIME_OF_LAST_GLOBAL_REVERSAL + 1;
+	static final int MOVES = TIME_LAST_POWER_PILL_EATEN + 1;
+	static final int PACMAN_NODE = MOVES + 1;
+	static final int PACMAN_LAST_MOVE = PACMAN_NODE + 1;
+	static final int PACMAN_LIVES = PACMAN_LAST_MOVE + 1;
+	static final int GHOSTS = PACMAN_LIVES + 1; // Node, edible time, lair time and last move of each ghost
+	static final int GHOST_SLOTS = 4;
+	static final int PILL_WORDS = GHOSTS + GHOST_SLOTS * Constants.NUM_GHOSTS;
+	static final int POWER_PILL_WORDS = PILL_WORDS + 1;
+	static final int PILLS = POWER_PILL_WORDS + 1; // Pill words, then power pill words
+
+	// Bits of the FLAGS slot
+	static final long GAME_OVER = 1L;
+	static final long PACMAN_WAS_EATEN = 1L << 1;
+	static final long PILL_WAS_EATEN = 1L << 2;
+	static final long POWER_PILL_WAS_EATEN = 1L << 3;
+	static final long PACMAN_RECEIVED_EXTRA_LIFE = 1L << 4;
+	static final long PLAY_WITHOUT_PILLS_UNTIL_GHOSTS_THREATEN = 1L << 5;
+	static final long NO_POWER_PILLS = 1L << 6;
+	static final long END_AFTER_GHOST_EATING_CHANCES = 1L << 7;
+	static final long END_AFTER_POWER_PILLS_EATEN = 1L << 8;
+	static final long GHOSTS_START_OUTSIDE_LAIR = 1L << 9;
+	static final long ONLY_ONE_LAIR_EXIT_ALLOWED = 1L << 10;
+	static final long EXIT_LAIR_EDIBLE = 1L << 11;
+	static final long END_ONLY_ON_TIME_LIMIT = 1L << 12;
+	static final long RANDOM_LAIR_EXIT = 1L << 13;
+	static final long LAIR_EXIT_DATABASE = 1L << 14;
+	static final long SIMULTANEOUS_LAIR_EXIT = 1L << 15;
+	static final long REMOVE_PILLS_NEAR_POWER_PILLS = 1L << 16;
+	static final int GHOST_EATEN_SHIFT = 17; // One bit per ghost
+
+	long[] data = new long[PILLS];
+	// Number of slots used, which depends on the number of pills in the maze
+	int length = PILLS;
+
+	/**
+	 * Empty snapshot, to be filled by Game.saveSnapshot
+	 */
+	public GameSnapshot() {
+	}
+
+	/**
+	 * Make room for the pill bit masks of a maze. Only allocates when the
+	 * maze has more pills than any maze this snapshot held before.
+	 */
+	void setPillWords(int pillWords, int powerPillWords) {
+		length = PILLS + pillWords + powerPillWords;
+		if (data.length < length) {
+			data = Arrays.copyOf(data, length);
+		}
+		data[PILL_WORDS] = pillWords;
+		data[POWER_PILL_WORDS] = powerPillWords;
+		Arrays.fill(data, PILLS, length, 0L);
+	}
+
+	/**
+	 * Number of long words needed for a bit mask with one bit per item
+	 */
+	static int words(int items) {
+		return (items + Long.SIZE - 1) / Long.SIZE;
+	}
+
+	/**
+	 * Copy another snapshot into this one
+	 *
+	 * @param other
+	 *            snapshot to copy
+	 */
+	public void set(GameSnapshot other) {
+		if (data.length < other.length) {
+			data = new long[other.length];
+		}
+		System.arraycopy(other.data, 0, data, 0, other.length);
+		length = other.length;
+	}
+
+	/**
+	 * Writes the slots of this snapshot that differ from a previous snapshot:
+	 * the number of slots, the number of changed slots, and then the position
+	 * and change of each changed slot, all as variable-length integers. Most
+	 * slots stay the same from one time step to the next, so this takes a few
+	 * dozen bytes per time step.
+	 *
+	 * @param out
+	 *            where to write
+	 * @param previous
+	 *            snapshot of the previous time step (or null to write
+	 *            everything)
+	 */
+	public void writeDelta(DataOutput out, GameSnapshot previous) throws IOException {
+		int changed = 0;
+		for (int i = 0; i < length; i++) {
+			if (data[i] != previousValue(previous, i)) {
+				changed++;
+			}
+		}
+		writeVarLong(out, length);
+		writeVarLong(out, changed);
+		int last = -1;
+		for (int i = 0; i < length; i++) {
+			long before = previousValue(previous, i);
+			if (data[i] != before) {
+				writeVarLong(out, i - last - 1);
+				writeVarLong(out, zigZag(data[i] - before));
+				last = i;
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot written by writeDelta.
+	 *
+	 * @param in
+	 *            where to read
+	 * @param previous
+	 *            the same previous snapshot that was used to write it (can be
+	 *            this snapshot itself)
+	 * @return false if the input had no more snapshots
+	 */
+	public boolean readDelta(DataInput in, GameSnapshot previous) throws IOException {
+		int newLength;
+		try {
+			newLength = (int) readVarLong(in);
+		} catch (EOFException e) {
+			return false;
+		}
+		if (previous != this) {
+			if (previous == null) {
+				Arrays.fill(data, 0L);
+			} else {
+				set(previous);
+			}
+		}
+		if (data.length < newLength) {
+			data = Arrays.copyOf(data, newLength);
+		}
+		// Slots beyond the previous length count as 0
+		for (int i = length; i < newLength; i++) {
+			data[i] = 0L;
+		}
+		length = newLength;
+		int changed = (int) readVarLong(in);
+		int index = -1;
+		for (int c = 0; c < changed; c++) {
+			index += (int) readVarLong(in) + 1;
+			data[index] += unZigZag(readVarLong(in));
+		}
+		return true;
+	}
+
+	private static long previousValue(GameSnapshot previous, int i) {
+		return previous == null || i >= previous.length ? 0L : previous.data[i];
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer in snapshot");
+	}
+}
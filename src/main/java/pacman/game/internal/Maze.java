@@ -1,9 +1,20 @@
 package pacman.game.internal;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 //import java.util.EnumMap;
 //import pacman.game.Constants.MOVE;
 
@@ -17,9 +28,19 @@ import static pacman.game.Constants.*;
  */
 public final class Maze {
 
+	// Binary copies of the distance files are cached here rather than in the data directory,
+	// which may be read-only or shared between checkouts
+	public static final String BINARY_DISTANCES_DIRECTORY = System.getProperty("java.io.tmpdir")
+			+ System.getProperty("file.separator") + "pacman-distances";
+	// Start of a binary distance file, followed by the number of distances and then the distances as shorts
+	private static final int BINARY_DISTANCES_MAGIC = 0x50434431; // "PCD1"
+	private static final int BINARY_DISTANCES_HEADER_BYTES = 8;
+
 	public AStar astar;
 	// Information for the controllers
-	public int[] shortestPathDistances, pillIndices, powerPillIndices, junctionIndices; 
+	public int[] pillIndices, powerPillIndices, junctionIndices;
+	// Memory-mapped from the binary distance file, so the OS shares it between processes
+	public ShortBuffer shortestPathDistances;
 	public int initialPacManNodeIndex, lairNodeIndex, initialGhostNodeIndex; // Maze-specific
 																				// information
 	public Node[] graph; // The actual maze, stored as a graph (set of nodes)
@@ -102,25 +123,120 @@ public final class Maze {
 	 * contains the shortest distance from any node in the maze to any other
 	 * node. Since the graph is symmetric, the symmetries have been removed to
 	 * preserve memory and all distances are stored in a 1D array; they are
-	 * looked-up using getDistance(-).
+	 * looked-up using getDistance(-). The first time a text distance file is
+	 * used, a binary copy of it is written to the cache directory, which is
+	 * then memory-mapped by this and any later process. If the binary file cannot be written or mapped,
+	 * the text file is read into memory instead.
 	 */
 	private void loadDistances(String fileName) {
-		this.shortestPathDistances = new int[((graph.length * (graph.length - 1)) / 2) + graph.length];
+		int size = ((graph.length * (graph.length - 1)) / 2) + graph.length;
+		File textFile = new File(pathDistances + System.getProperty("file.separator") + fileName);
+		File binaryFile = binaryDistancesFile(textFile);
+		try {
+			// A binary file older than the text file is rewritten
+			ShortBuffer mapped = binaryFile.lastModified() >= textFile.lastModified() ? mapBinaryDistances(binaryFile, size) : null;
+			if (mapped == null) {
+				writeBinaryDistances(readTextDistances(textFile, size), binaryFile);
+				mapped = mapBinaryDistances(binaryFile, size);
+			}
+			if (mapped != null) {
+				this.shortestPathDistances = mapped;
+				return;
+			}
+			System.out.println("Invalid binary distance file: " + binaryFile);
+		} catch (IOException ioe) {
+			System.out.println("Could not use binary distance file " + binaryFile + ": " + ioe.getMessage());
+		}
+		this.shortestPathDistances = ShortBuffer.wrap(readTextDistances(textFile, size));
+	}
 
+	/**
+	 * Cached binary copy of a text distance file. The name includes a hash of
+	 * the path of the text file, so that different checkouts do not share a
+	 * copy.
+	 */
+	static File binaryDistancesFile(File textFile) {
+		String hash = Integer.toHexString(textFile.getAbsolutePath().hashCode());
+		return new File(BINARY_DISTANCES_DIRECTORY, textFile.getName() + "-" + hash + ".bin");
+	}
+
+	/**
+	 * Maps a binary distance file into memory.
+	 *
+	 * @param binaryFile
+	 *            File written by writeBinaryDistances
+	 * @param size
+	 *            Number of distances expected for this maze
+	 * @return read-only distances, or null if the file is missing or does not
+	 *         match the maze
+	 */
+	private static ShortBuffer mapBinaryDistances(File binaryFile, int size) throws IOException {
+		long bytes = BINARY_DISTANCES_HEADER_BYTES + 2L * size;
+		if (!binaryFile.isFile() || binaryFile.length() != bytes) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(binaryFile.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+			if (buffer.getInt(0) != BINARY_DISTANCES_MAGIC || buffer.getInt(4) != size) {
+				return null;
+			}
+			buffer.position(BINARY_DISTANCES_HEADER_BYTES);
+			return buffer.slice().asShortBuffer();
+		}
+	}
+
+	/**
+	 * Writes distances in binary form. The file is written under a temporary
+	 * name and then renamed, so other processes never map a partial file.
+	 */
+	private static void writeBinaryDistances(short[] distances, File binaryFile) throws IOException {
+		File directory = binaryFile.getAbsoluteFile().getParentFile();
+		directory.mkdirs();
+		File temp = File.createTempFile(binaryFile.getName(), ".tmp", directory);
 		try {
-			BufferedReader br = new BufferedReader(new InputStreamReader(
-					new FileInputStream(pathDistances + System.getProperty("file.separator") + fileName)));
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+				out.writeInt(BINARY_DISTANCES_MAGIC);
+				out.writeInt(distances.length);
+				for (short d : distances) {
+					out.writeShort(d);
+				}
+			}
+			try {
+				Files.move(temp.toPath(), binaryFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), binaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			temp.delete(); // Only still exists if the move failed
+		}
+	}
+
+	/**
+	 * Reads distances from the original text format: one distance per line.
+	 * Distances are stored as shorts, so larger values are rejected rather
+	 * than silently wrapped around.
+	 */
+	static short[] readTextDistances(File textFile, int size) {
+		short[] distances = new short[size];
+		try {
+			BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(textFile)));
 			String input = br.readLine();
 
 			int index = 0;
 
 			while (input != null) {
-				shortestPathDistances[index++] = Integer.parseInt(input);
+				int distance = Integer.parseInt(input);
+				if (distance < Short.MIN_VALUE || distance > Short.MAX_VALUE) {
+					br.close();
+					throw new IllegalArgumentException("Distance " + distance + " on line " + (index + 1) + " of " + textFile + " does not fit in a short");
+				}
+				distances[index++] = (short) distance;
 				input = br.readLine();
 			}
 			br.close();
 		} catch (IOException ioe) {
 			ioe.printStackTrace();
 		}
+		return distances;
 	}
-}
\ No newline at end of file
+}
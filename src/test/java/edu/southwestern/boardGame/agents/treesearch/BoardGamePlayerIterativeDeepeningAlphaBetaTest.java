@@ -0,0 +1,122 @@
+package edu.southwestern.boardGame.agents.treesearch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.boardGame.TwoDimensionalBoardGameState;
+import edu.southwestern.boardGame.checkers.CheckersState;
+import edu.southwestern.boardGame.connectFour.ConnectFourState;
+import edu.southwestern.boardGame.heuristics.BoardGameHeuristic;
+import edu.southwestern.boardGame.heuristics.PieceDifferentialBoardGameHeuristic;
+import edu.southwestern.boardGame.heuristics.StaticOthelloWPCHeuristic;
+import edu.southwestern.boardGame.heuristics.StaticTicTacToeWPCHeuristic;
+import edu.southwestern.boardGame.othello.OthelloState;
+import edu.southwestern.boardGame.ttt.TicTacToeState;
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.parameters.Parameters;
+
+public class BoardGamePlayerIterativeDeepeningAlphaBetaTest {
+
+	private static final int DEPTH = 3;
+
+	@Before
+	public void setup(){
+		Parameters.initializeParameterCollections(new String[]{"io:false", "netio:false", "task:edu.southwestern.tasks.boardGame.StaticOpponentBoardGameTask",
+				"boardGame:edu.southwestern.boardGame.othello.Othello", "minimaxSearchDepth:" + DEPTH, 
+				"randomArgMaxTieBreak:false"});
+		MMNEAT.loadClasses();
+	}
+
+	@After
+	public void tearDown() {
+		MMNEAT.clearClasses();
+	}
+
+	/**
+	 * Every move chosen has the best minimax value, even though the
+	 * transposition table is kept from one move to the next
+	 * 
+	 * @param start state each game starts from
+	 * @param bgh heuristic used by both players
+	 * @param games number of games to play
+	 */
+	private static <T extends TwoDimensionalBoardGameState> void assertSameValueAsMinimax(T start, BoardGameHeuristic<T> bgh, int games) {
+		BoardGamePlayerMinimax<T> mini = new BoardGamePlayerMinimax<T>(bgh);
+		BoardGamePlayerIterativeDeepeningAlphaBeta<T> deepening = new BoardGamePlayerIterativeDeepeningAlphaBeta<T>(bgh);
+		Random random = new Random(0);
+		for(int game = 0; game < games; game++){
+			T state = start.copy();
+			while(!state.endState()){
+				List<T> poss = new ArrayList<T>(state.<T>possibleBoardGameStates(state));
+				// Checked before minimax calls endState on the children, which adds to the winners of TicTacToeStates
+				T choice = deepening.takeAction(state);
+				assertTrue(poss.contains(choice));
+
+				boolean maximize = state.getCurrentPlayer() == 0;
+				double best = maximize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+				for(T child : poss){
+					double v = mini.minimax(child, DEPTH, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, !maximize);
+					best = maximize ? Math.max(best, v) : Math.min(best, v);
+				}
+				assertEquals(best, mini.minimax(choice, DEPTH, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, !maximize), 0);
+
+				// Random moves sometimes, so that different positions are reached
+				state = random.nextInt(3) == 0 ? poss.get(random.nextInt(poss.size())) : choice;
+			}
+		}
+	}
+
+	@Test
+	public void testSameValueAsMinimax() {
+		assertSameValueAsMinimax(new OthelloState(), new StaticOthelloWPCHeuristic(), 3);
+	}
+
+	@Test
+	public void testConnectFourSameValueAsMinimax() {
+		// Different weight for every space, so that few moves tie
+		BoardGameHeuristic<ConnectFourState> bgh = state -> {
+			double[] pieces = state.getViewerPieces();
+			double score = 0;
+			for(int i = 0; i < pieces.length; i++){
+				if(pieces[i] != TwoDimensionalBoardGameState.EMPTY){
+					score += (pieces[i] == 0 ? 1 : -1) * (i + 1);
+				}
+			}
+			return score;
+		};
+		assertSameValueAsMinimax(new ConnectFourState(), bgh, 5);
+	}
+
+	@Test
+	public void testTicTacToeSameValueAsMinimax() {
+		assertSameValueAsMinimax(new TicTacToeState(), new StaticTicTacToeWPCHeuristic<TicTacToeState>(), 10);
+	}
+
+	/**
+	 * Checkers is searched on a CheckersBitboard, where a Check that has to
+	 * Double Jump lets the same player move again, and every choice must be
+	 * one of the moves the state allows
+	 */
+	@Test
+	public void testCheckersMovesAreLegal() {
+		BoardGamePlayerIterativeDeepeningAlphaBeta<CheckersState> checkers = new BoardGamePlayerIterativeDeepeningAlphaBeta<CheckersState>(new PieceDifferentialBoardGameHeuristic<CheckersState>());
+		Random random = new Random(0);
+		for(int game = 0; game < 3; game++){
+			CheckersState state = new CheckersState();
+			for(int move = 0; move < 60 && !state.endState(); move++){
+				List<CheckersState> poss = new ArrayList<CheckersState>(state.possibleBoardGameStates(state));
+				CheckersState choice = checkers.takeAction(state);
+				assertTrue(poss.contains(choice));
+				state = random.nextInt(3) == 0 ? poss.get(random.nextInt(poss.size())) : choice;
+			}
+		}
+	}
+}
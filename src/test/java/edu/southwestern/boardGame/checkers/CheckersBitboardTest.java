@@ -0,0 +1,100 @@
+package edu.southwestern.boardGame.checkers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CheckersBitboardTest {
+
+	private static final int B = CheckersState.BLACK_CHECK;
+	private static final int R = CheckersState.RED_CHECK;
+	private static final int E = CheckersState.EMPTY;
+
+	/**
+	 * Children of the Bitboard of a state, loaded into copies of the state.
+	 * Also checks that each move updates the key like a new Bitboard of the
+	 * child would have it, and that taking the moves back restores the key.
+	 */
+	private static Set<CheckersState> bitboardChildren(CheckersState state, CheckersBitboard board) {
+		long key = board.zobristKey();
+		Set<CheckersState> children = new HashSet<CheckersState>();
+		int[] moves = new int[board.maxMoves()];
+		int count = board.generateMoves(moves, 0);
+		for(int i = 0; i < count; i++){
+			board.makeMove(moves[i]);
+			CheckersState child = state.copy();
+			child.loadBitboard(board);
+			assertEquals(child.toBitboard().zobristKey(), board.zobristKey()); // Key is updated incrementally
+			children.add(child);
+			board.unmakeMove();
+		}
+		assertEquals(count, children.size()); // Every move leads somewhere different
+		assertEquals(key, board.zobristKey()); // Taking back moves restores the position
+		return children;
+	}
+
+	@Test
+	public void testMovesMatchState() {
+		Random random = new Random(0);
+		for(int game = 0; game < 50; game++){
+			CheckersState state = new CheckersState();
+			for(int move = 0; move < 300; move++){
+				Point jumper = state.doubleJumpCheck;
+				CheckersBitboard board = state.toBitboard();
+				List<CheckersState> children = new ArrayList<CheckersState>(state.possibleBoardGameStates(state));
+				assertEquals(new HashSet<CheckersState>(children), bitboardChildren(state, board));
+				// Finding the children changes which Check the state thinks has to Double Jump
+				state.doubleJumpCheck = jumper;
+				assertEquals(state.endState(), board.endState());
+				if(board.endState()) break;
+				state = children.get(random.nextInt(children.size()));
+			}
+		}
+	}
+
+	@Test
+	public void testDoubleJump() {
+		int[][] board = new int[][]{{E,B,E,E,E,E,E,E},
+									{E,E,R,E,E,E,E,E},
+									{E,E,E,E,E,E,E,E},
+									{E,E,E,E,R,E,E,E},
+									{E,E,E,E,E,E,E,E},
+									{E,E,E,E,E,E,E,E},
+									{E,R,E,E,E,E,E,E},
+									{E,E,E,E,E,E,E,E}};
+		CheckersState state = new CheckersState(board, B, new ArrayList<Integer>());
+		CheckersBitboard bitboard = state.toBitboard();
+		long key = bitboard.zobristKey();
+		int[] moves = new int[bitboard.maxMoves()];
+		assertEquals(1, bitboard.generateMoves(moves, 0));
+
+		bitboard.makeMove(moves[0]); // Jumps to (2,3), and must Jump again
+		assertEquals(B, bitboard.getCurrentPlayer());
+		CheckersState child = state.copy();
+		child.loadBitboard(bitboard);
+		assertEquals(new Point(2, 3), child.doubleJumpCheck);
+		assertEquals(E, bitboard.pieceAt(1 * 8 + 2)); // Jumped Check was removed
+		assertEquals(1, bitboard.generateMoves(moves, 0));
+
+		bitboard.makeMove(moves[0]); // Jumps to (4,5), and the turn is over
+		assertEquals(R, bitboard.getCurrentPlayer());
+		child.loadBitboard(bitboard);
+		assertNull(child.doubleJumpCheck);
+		assertEquals(B, bitboard.pieceAt(4 * 8 + 5));
+		assertEquals(1, child.numberOfPieces(R));
+
+		bitboard.unmakeMove();
+		bitboard.unmakeMove();
+		assertEquals(key, bitboard.zobristKey());
+		child.loadBitboard(bitboard);
+		assertEquals(state, child);
+	}
+}
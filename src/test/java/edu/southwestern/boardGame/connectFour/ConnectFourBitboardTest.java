@@ -0,0 +1,44 @@
+package edu.southwestern.boardGame.connectFour;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ConnectFourBitboardTest {
+
+	@Test
+	public void testMovesMatchState() {
+		Random random = new Random(0);
+		for(int game = 0; game < 20; game++){
+			ConnectFourState state = new ConnectFourState();
+			while(true){
+				ConnectFourBitboard board = state.toBitboard();
+				assertEquals(state.endState(), board.endState());
+				if(board.endState()) break;
+				long key = board.zobristKey();
+				List<ConnectFourState> children = new ArrayList<ConnectFourState>(state.possibleBoardGameStates(state));
+				Set<ConnectFourState> bitboardChildren = new HashSet<ConnectFourState>();
+				int[] moves = new int[board.maxMoves()];
+				int count = board.generateMoves(moves, 0);
+				for(int i = 0; i < count; i++){
+					board.makeMove(moves[i]);
+					ConnectFourState child = state.copy();
+					child.loadBitboard(board);
+					assertEquals(child.toBitboard().zobristKey(), board.zobristKey()); // Key is updated incrementally
+					bitboardChildren.add(child);
+					board.unmakeMove();
+				}
+				assertEquals(children.size(), count);
+				assertEquals(new HashSet<ConnectFourState>(children), bitboardChildren);
+				assertEquals(key, board.zobristKey()); // Taking back moves restores the position
+				state = children.get(random.nextInt(children.size()));
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package edu.southwestern.boardGame.othello;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class OthelloBitboardTest {
+
+	/**
+	 * Children found by placing a chip on every space of a copy of the state
+	 */
+	private static Set<OthelloState> childrenBySpace(OthelloState state) {
+		Set<OthelloState> children = new HashSet<OthelloState>();
+		for(int i = 0; i < state.getBoardWidth(); i++){
+			for(int j = 0; j < state.getBoardHeight(); j++){
+				OthelloState temp = state.copy();
+				if(temp.moveSinglePoint(new Point(i, j))){
+					children.add(temp);
+				}
+			}
+		}
+		return children;
+	}
+
+	@Test
+	public void testMovesMatchState() {
+		Random random = new Random(0);
+		for(int game = 0; game < 20; game++){
+			OthelloState state = new OthelloState();
+			while(!state.endState()){
+				OthelloBitboard board = state.toBitboard();
+				long key = board.zobristKey();
+				Set<OthelloState> children = state.possibleBoardGameStates(state);
+				if(board.legalMoves() != 0){
+					assertEquals(childrenBySpace(state), children);
+				}
+				int[] moves = new int[board.maxMoves()];
+				int count = board.generateMoves(moves, 0);
+				assertEquals(children.size(), count);
+				for(int i = 0; i < count; i++){
+					board.makeMove(moves[i]);
+					OthelloState child = state.copy();
+					child.loadBitboard(board);
+					assertEquals(child.toBitboard().zobristKey(), board.zobristKey()); // Key is updated incrementally
+					board.unmakeMove();
+				}
+				assertEquals(key, board.zobristKey()); // Taking back moves restores the position
+				List<OthelloState> list = new ArrayList<OthelloState>(children);
+				state = list.get(random.nextInt(list.size()));
+			}
+			assertEquals(true, state.toBitboard().endState());
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package edu.southwestern.boardGame.ttt;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.southwestern.boardGame.BoardGameState;
+
+public class TicTacToeBitboardTest {
+
+	@Test
+	public void testMovesMatchState() {
+		Random random = new Random(0);
+		for(int game = 0; game < 20; game++){
+			TicTacToeState state = new TicTacToeState();
+			while(true){
+				TicTacToeBitboard board = state.toBitboard();
+				assertEquals(state.endState(), board.endState());
+				if(board.endState()) break;
+				long key = board.zobristKey();
+				List<BoardGameState> children = new ArrayList<BoardGameState>(state.possibleBoardGameStates(state));
+				Set<TicTacToeState> bitboardChildren = new HashSet<TicTacToeState>();
+				int[] moves = new int[board.maxMoves()];
+				int count = board.generateMoves(moves, 0);
+				for(int i = 0; i < count; i++){
+					board.makeMove(moves[i]);
+					TicTacToeState child = state.copy();
+					child.loadBitboard(board);
+					assertEquals(child.toBitboard().zobristKey(), board.zobristKey()); // Key is updated incrementally
+					bitboardChildren.add(child);
+					board.unmakeMove();
+				}
+				assertEquals(children.size(), count);
+				assertEquals(new HashSet<BoardGameState>(children), bitboardChildren);
+				assertEquals(key, board.zobristKey()); // Taking back moves restores the position
+				state = (TicTacToeState) children.get(random.nextInt(children.size()));
+			}
+		}
+	}
+}
@@ -12,6 +12,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.EvolutionaryHistory;
 import edu.southwestern.evolution.genotypes.TWEANNGenotype.LinkGene;
 import edu.southwestern.evolution.genotypes.TWEANNGenotype.NodeGene;
 import edu.southwestern.networks.NetworkUtil;
@@ -25,6 +26,7 @@ import edu.southwestern.tasks.rlglue.tetris.HyperNEATTetrisTask;
 import edu.southwestern.util.CartesianGeometricUtilities;
 import edu.southwestern.util.datastructures.Pair;
 import edu.southwestern.util.datastructures.Triple;
+import edu.southwestern.util.random.RandomNumbers;
 import edu.southwestern.util.util2D.ILocated2D;
 import edu.southwestern.util.util2D.Tuple2D;
 
@@ -376,4 +378,118 @@ public class HyperNEATCPPNGenotypeTest {
 			assertEquals(biases[y++], node.bias, .0001);
 		}
 	}
+
+	/**
+	 * Mutates a seeded CPPN for the task in params, and checks that the batched
+	 * substrate construction used for stateless CPPNs produces the same genes
+	 * as the original one query at a time construction
+	 * 
+	 * @param extraParams Parameters that select the task and substrate options
+	 */
+	private void assertBatchedMatchesSequential(String... extraParams) {
+		MMNEAT.clearClasses();
+		HyperNEATTetrisTask.hardSubstrateReset();
+		String[] params = new String[] { "io:false", "netio:false", "recurrency:false", "hyperNEAT:true", 
+				"evolveHyperNEATBias:true", "linkExpressionThreshold:0.2"};
+		String[] allParams = new String[params.length + extraParams.length];
+		System.arraycopy(params, 0, allParams, 0, params.length);
+		System.arraycopy(extraParams, 0, allParams, params.length, extraParams.length);
+		Parameters.initializeParameterCollections(allParams);
+		MMNEAT.loadClasses();
+		// Seeded so that the same CPPN is compared every time
+		RandomNumbers.reset(0);
+		hcppn = new HyperNEATCPPNGenotype();
+		MMNEAT.genotype = hcppn.copy();
+		EvolutionaryHistory.initArchetype(0);
+		int initialNodes = hcppn.nodes.size();
+		for(int i = 0; i < 20; i++) {
+			HyperNEATCPPNGenotype mutated = (HyperNEATCPPNGenotype) hcppn.copy();
+			mutated.linkMutation();
+			mutated.spliceMutation();
+			mutated.weightMutation();
+			// Splices can link output neurons back to the new hidden neuron,
+			// but only stateless CPPNs are batched
+			if(NetworkUtil.isStateless(mutated.getCPPN())) {
+				hcppn = mutated;
+			}
+		}
+		assertTrue(hcppn.nodes.size() > initialNodes);
+		HyperNEATTask task = (HyperNEATTask) MMNEAT.task;
+		assertTrue(NetworkUtil.isStateless(hcppn.getCPPN()));
+		TWEANNGenotype batched = hcppn.getSubstrateGenotype(task);
+		TWEANNGenotype sequential = hcppn.getSubstrateGenotypeSequentially(task, hcppn.getCPPN());
+		assertEquals(sequential.nodes.size(), batched.nodes.size());
+		for(int i = 0; i < sequential.nodes.size(); i++) {
+			NodeGene expected = sequential.nodes.get(i);
+			NodeGene actual = batched.nodes.get(i);
+			assertEquals(expected.innovation, actual.innovation);
+			assertEquals(expected.ntype, actual.ntype);
+			assertEquals(expected.ftype, actual.ftype);
+			assertEquals(expected.getBias(), actual.getBias(), 1e-9);
+		}
+		// Some links must be expressed for the comparison to mean anything
+		assertTrue(sequential.links.size() > 0);
+		assertEquals(sequential.links.size(), batched.links.size());
+		for(int i = 0; i < sequential.links.size(); i++) {
+			LinkGene expected = sequential.links.get(i);
+			LinkGene actual = batched.links.get(i);
+			assertEquals(expected.innovation, actual.innovation);
+			assertEquals(expected.sourceInnovation, actual.sourceInnovation);
+			assertEquals(expected.targetInnovation, actual.targetInnovation);
+			assertEquals(expected.weight, actual.weight, 1e-9);
+		}
+		// A second construction reuses the cached layout
+		TWEANNGenotype again = hcppn.getSubstrateGenotype(task);
+		assertEquals(batched.nodes.toString(), again.nodes.toString());
+		assertEquals(batched.links.toString(), again.links.toString());
+	}
+
+	/**
+	 * Parameters for the Tetris task, which has substrates that can be
+	 * connected convolutionally
+	 */
+	private static String[] tetrisParams(String... convolutionParams) {
+		String[] params = new String[] { "task:edu.southwestern.tasks.rlglue.tetris.HyperNEATTetrisTask",
+				"rlGlueEnvironment:org.rlcommunity.environments.tetris.Tetris",
+				"rlGlueExtractor:edu.southwestern.tasks.rlglue.featureextractors.tetris.RawTetrisStateExtractor",
+				"rlGlueAgent:edu.southwestern.tasks.rlglue.tetris.TetrisAfterStateAgent",
+				"splitRawTetrisInputs:true","senseHolesDifferently:true",
+				"genotype:edu.southwestern.evolution.genotypes.HyperNEATCPPNGenotype",
+				"convolution:true", "HNProcessWidth:2"};
+		String[] allParams = new String[params.length + convolutionParams.length];
+		System.arraycopy(params, 0, allParams, 0, params.length);
+		System.arraycopy(convolutionParams, 0, allParams, params.length, convolutionParams.length);
+		return allParams;
+	}
+
+	@Test
+	public void testBatchedSubstrateMatchesSequential() {
+		assertBatchedMatchesSequential("task:edu.southwestern.networks.hyperneat.HyperNEATDummyTask");
+	}
+
+	@Test
+	public void testBatchedSubstrateLocationInputsMatchSequential() {
+		assertBatchedMatchesSequential("task:edu.southwestern.networks.hyperneat.HyperNEATDummyTask", "substrateLocationInputs:true");
+	}
+
+	@Test
+	public void testBatchedConvolutionalLinksMatchSequential() {
+		assertBatchedMatchesSequential(tetrisParams("zeroPadding:false"));
+		assertBatchedMatchesSequential(tetrisParams("zeroPadding:true", "receptiveFieldSize:5", "stride:2"));
+	}
+
+	@Test
+	public void testBatchedConvolutionDeltasMatchSequential() {
+		assertBatchedMatchesSequential(tetrisParams("zeroPadding:true", "convolutionDeltas:true"));
+	}
+
+	@Test
+	public void testBatchedConvolutionWeightSharingMatchSequential() {
+		assertBatchedMatchesSequential(tetrisParams("zeroPadding:true", "convolutionWeightSharing:true"));
+	}
+
+	@Test
+	public void testBatchedConvolutionSubstrateLocationInputsMatchSequential() {
+		assertBatchedMatchesSequential(tetrisParams("zeroPadding:false", "substrateLocationInputs:true"));
+	}
 }
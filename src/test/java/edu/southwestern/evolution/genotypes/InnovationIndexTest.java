@@ -0,0 +1,87 @@
+package edu.southwestern.evolution.genotypes;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.evolution.genotypes.TWEANNGenotype.NodeGene;
+import edu.southwestern.networks.ActivationFunctions;
+import edu.southwestern.networks.TWEANN;
+import edu.southwestern.parameters.Parameters;
+
+public class InnovationIndexTest {
+
+	@Before
+	public void setup() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false" });
+	}
+
+	private static NodeGene gene(long innovation) {
+		return TWEANNGenotype.newNodeGene(ActivationFunctions.FTYPE_TANH, TWEANN.Node.NTYPE_HIDDEN, innovation);
+	}
+
+	private static int scan(long innovation, ArrayList<NodeGene> genes) {
+		for (int i = 0; i < genes.size(); i++) {
+			if (genes.get(i).innovation == innovation) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Every lookup, including lookups of missing innovation numbers, gives
+	 * the same answer as a scan, whether the index was told about changes or
+	 * genes were appended directly
+	 */
+	@Test
+	public void test_matchesScan() {
+		Random r = new Random(0);
+		InnovationIndex index = new InnovationIndex();
+		ArrayList<NodeGene> genes = new ArrayList<NodeGene>();
+		long nextInnovation = 0;
+		for (int i = 0; i < 20000; i++) {
+			int choice = r.nextInt(5);
+			if (choice == 0) {
+				int position = r.nextInt(genes.size() + 1);
+				genes.add(position, gene(nextInnovation++));
+				index.added(genes, position);
+			} else if (choice == 1 && !genes.isEmpty()) {
+				int position = r.nextInt(genes.size());
+				long innovation = genes.remove(position).innovation;
+				index.removed(genes, position, innovation);
+			} else if (choice == 2) {
+				// Appended without telling the index
+				genes.add(gene(nextInnovation++));
+			} else {
+				long innovation = r.nextInt((int) nextInnovation + 10) - 5;
+				assertEquals(scan(innovation, genes), index.indexOf(innovation, genes));
+			}
+		}
+	}
+
+	/**
+	 * Changes that the index cannot see are reported with changed
+	 */
+	@Test
+	public void test_changed() {
+		InnovationIndex index = new InnovationIndex();
+		ArrayList<NodeGene> genes = new ArrayList<NodeGene>();
+		for (int i = 0; i < 10; i++) {
+			genes.add(gene(i));
+		}
+		assertEquals(-1, index.indexOf(10, genes));
+		genes.get(3).innovation = 10;
+		index.changed();
+		assertEquals(3, index.indexOf(10, genes));
+		assertEquals(-1, index.indexOf(3, genes));
+		// A different list is indexed from scratch
+		ArrayList<NodeGene> copy = new ArrayList<NodeGene>(genes);
+		copy.remove(0);
+		assertEquals(2, index.indexOf(10, copy));
+	}
+}
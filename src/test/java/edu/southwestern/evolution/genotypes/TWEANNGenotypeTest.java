@@ -1,5 +1,6 @@
 package edu.southwestern.evolution.genotypes;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -80,6 +81,37 @@ public class TWEANNGenotypeTest {
 		assertFalse(TWEANNGenotype.sameStructure(tg1, tg2));
 	}
 
+	@Test
+	public void test_copyMatchesPhenotypeRoundTrip() {
+		Parameters.initializeParameterCollections(
+				new String[] { "io:false", "netio:false", "allowMultipleFunctions:true", "recurrency:true" });
+		MMNEAT.loadClasses();
+		TWEANNGenotype tg = new TWEANNGenotype(5, 2, 0);
+		MMNEAT.genotype = tg.copy();
+		EvolutionaryHistory.initArchetype(0);
+		for (int i = 0; i < 5 * MUTATIONS1; i++) {
+			tg.mutate();
+		}
+		// Splices disable links, which are left out of copies
+		tg.spliceMutation();
+		int[] usage = tg.moduleUsage;
+
+		TWEANNGenotype roundTrip = new TWEANNGenotype(tg.getPhenotype());
+		tg.moduleUsage = usage;
+		TWEANNGenotype copy = (TWEANNGenotype) tg.copy();
+		assertEquals(roundTrip.nodes.toString(), copy.nodes.toString());
+		assertEquals(roundTrip.links.toString(), copy.links.toString());
+		assertEquals(roundTrip.numIn, copy.numIn);
+		assertEquals(roundTrip.numOut, copy.numOut);
+		assertEquals(roundTrip.numModules, copy.numModules);
+		assertArrayEquals(roundTrip.moduleAssociations, copy.moduleAssociations);
+		assertArrayEquals(usage, copy.moduleUsage);
+		assertTrue(usage != copy.moduleUsage);
+		// Genes are not shared
+		copy.links.get(0).weight += 1;
+		assertFalse(copy.links.get(0).weight == tg.getLinkBetween(copy.links.get(0).sourceInnovation, copy.links.get(0).targetInnovation).weight);
+	}
+
 	@Test
 	public void test_getLinksBetween() {
 		TWEANNGenotype tg1 = new TWEANNGenotype(2, 1, 0);
@@ -0,0 +1,156 @@
+package edu.southwestern.evolution.lineage;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.BitSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LineageStoreTest {
+
+	File dir;
+	String prefix;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("lineage", "");
+		dir.delete();
+		dir.mkdir();
+		prefix = dir.getPath() + "/Test0_";
+	}
+
+	@After
+	public void tearDown() {
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	/**
+	 * Initial population 0-3. Generation 0 produces 4, 5 and 6, and
+	 * generation 1 produces 7 and 8.
+	 */
+	private void writeRun(LineageStore.Writer w, int fromGeneration) {
+		if (fromGeneration <= 0) {
+			for (int i = 0; i < 4; i++) {
+				w.scores(i, 0, i, new double[] { i, -i });
+			}
+			w.birth(4, 0, -1);
+			w.birth(5, 1, 2);
+			w.birth(6, 3, -1);
+			w.endGeneration();
+		}
+		w.scores(4, 1, 0, new double[] { 10, 0 });
+		w.scores(5, 1, 1, new double[] { 5, 1 });
+		w.scores(1, 1, 2, new double[] { 1, -1 });
+		w.scores(2, 1, 3, new double[] { 2, -2 });
+		w.birth(7, 4, 5);
+		w.birth(8, 5, -1);
+		w.endGeneration();
+	}
+
+	@Test
+	public void test_parentsAndScores() throws IOException {
+		LineageStore.Writer w = new LineageStore.Writer(prefix, 0);
+		writeRun(w, 0);
+		w.close();
+		LineageStore store = new LineageStore(prefix);
+		assertEquals(9, store.size());
+		assertEquals(2, store.numGenerations());
+		assertEquals(2, store.numScores());
+		assertEquals(1, store.parentId1(5));
+		assertEquals(2, store.parentId2(5));
+		assertEquals(-1, store.parentId2(4));
+		assertEquals(-1, store.parentId1(0));
+		assertEquals(-1, store.generation(0));
+		assertEquals(1, store.generation(7));
+		assertArrayEquals(new long[] { 7, 8 }, store.bornIn(1));
+		assertTrue(store.contains(3));
+		assertFalse(store.born(3));
+		assertFalse(store.contains(9));
+		// Individual 1 was a parent in both generations
+		int record = store.scoreRecord(1, 1);
+		assertEquals(2, store.withinGeneration(record));
+		assertEquals(-1.0, store.score(record, 1), 0);
+		assertEquals(record, store.nextScoreRecord(store.firstScoreRecord(1)));
+		assertEquals(4, store.scoreRecordsIn(1).length);
+		store.close();
+	}
+
+	@Test
+	public void test_ancestry() throws IOException {
+		LineageStore.Writer w = new LineageStore.Writer(prefix, 0);
+		writeRun(w, 0);
+		w.birth(9, 7, -1);
+		w.birth(10, 8, 7);
+		w.close();
+		LineageStore store = new LineageStore(prefix);
+		BitSet expected = new BitSet();
+		for (int id : new int[] { 7, 4, 5, 0, 1, 2 }) {
+			expected.set(id);
+		}
+		assertEquals(expected, store.ancestors(7));
+		assertEquals(7, store.mostRecentCommonAncestor(9, 10));
+		assertEquals(7, store.mostRecentCommonAncestor(7, 9));
+		// Ancestors born in the first generation do not count
+		assertEquals(-1, store.mostRecentCommonAncestor(7, 8));
+		store.close();
+	}
+
+	@Test
+	public void test_resumeDropsLaterGenerations() throws IOException {
+		LineageStore.Writer w = new LineageStore.Writer(prefix, 0);
+		writeRun(w, 0);
+		w.close();
+		// Resuming at generation 1 logs generation 1 again
+		w = new LineageStore.Writer(prefix, 1);
+		writeRun(w, 1);
+		w.close();
+		LineageStore store = new LineageStore(prefix);
+		assertArrayEquals(new long[] { 4, 5, 6 }, store.bornIn(0));
+		assertArrayEquals(new long[] { 7, 8 }, store.bornIn(1));
+		assertEquals(4, store.scoreRecordsIn(1).length);
+		assertEquals(-1, store.nextScoreRecord(store.scoreRecord(4, 1)));
+		store.close();
+	}
+
+	@Test
+	public void test_existsNeedsScores() throws IOException {
+		assertFalse(LineageStore.exists(prefix));
+		// Births without scores, as logged by EAs without parent score logs
+		LineageStore.Writer w = new LineageStore.Writer(prefix, 0);
+		w.birth(4, 0, -1);
+		w.endGeneration();
+		w.close();
+		assertFalse(LineageStore.exists(prefix));
+		w = new LineageStore.Writer(prefix, 0);
+		writeRun(w, 0);
+		w.close();
+		assertTrue(LineageStore.exists(prefix));
+	}
+
+	@Test
+	public void test_mutations() throws IOException {
+		LineageStore.Writer w = new LineageStore.Writer(prefix, 0);
+		writeRun(w, 0);
+		w.close();
+		PrintStream mutations = new PrintStream(prefix + "Mutations_log.txt");
+		mutations.println("4 NewLink Splice");
+		mutations.println("5 Weight");
+		mutations.println("---Gen 0 Over-----------------");
+		mutations.print("8 NewLink");
+		mutations.close();
+		LineageStore store = new LineageStore(prefix);
+		store.indexMutations(prefix + "Mutations_log.txt");
+		assertEquals("[NewLink, Splice]", store.mutations(4).toString());
+		assertEquals("[NewLink]", store.mutations(8).toString());
+		assertTrue(store.mutations(7).isEmpty());
+		store.close();
+	}
+}
@@ -0,0 +1,258 @@
+package edu.southwestern.evolution.mapelites;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.genotypes.Genotype;
+import edu.southwestern.evolution.genotypes.RealValuedGenotype;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.scores.Score;
+import edu.southwestern.tasks.LonerTask;
+import edu.southwestern.util.file.FileUtilities;
+import edu.southwestern.util.random.GaussianGenerator;
+import edu.southwestern.util.random.RandomNumbers;
+
+public class ArchiveTest {
+
+	/**
+	 * Four bins named bin0 to bin3
+	 */
+	public static class TestBinLabels implements BinLabels<ArrayList<Double>> {
+		@Override
+		public List<String> binLabels() {
+			return Arrays.asList("bin0", "bin1", "bin2", "bin3");
+		}
+	}
+
+	/**
+	 * Scores each individual in only one of bin0 and bin2, depending on its
+	 * first gene, so bin1 and bin3 stay empty
+	 */
+	public static class TwoBinTask extends LonerTask<ArrayList<Double>> {
+		@Override
+		public Score<ArrayList<Double>> evaluate(Genotype<ArrayList<Double>> individual) {
+			double gene = individual.getPhenotype().get(0);
+			return BinnedScore.sparse(individual, new int[] { gene < 0.5 ? 0 : 2 }, new double[] { gene });
+		}
+
+		@Override
+		public int numObjectives() {
+			return 0;
+		}
+
+		@Override
+		public double[] minScores() {
+			return new double[0];
+		}
+
+		@Override
+		public double getTimeStamp() {
+			return 0;
+		}
+
+		@Override
+		public void finalCleanup() {
+		}
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false",
+				"base:" + folder.getRoot().getPath(), "saveTo:MAPElites", "runNumber:0" });
+		Parameters.parameters.setClass("mapElitesBinLabels", TestBinLabels.class);
+	}
+
+	@After
+	public void tearDown() {
+		Parameters.parameters = null;
+	}
+
+	/**
+	 * Score with a behavior vector that has a score for every bin
+	 */
+	static Score<ArrayList<Double>> candidate(double... binScores) {
+		ArrayList<Double> behaviorVector = new ArrayList<Double>();
+		for (double s : binScores) {
+			behaviorVector.add(s);
+		}
+		return new Score<ArrayList<Double>>(new RealValuedGenotype(new double[] { binScores[0] }), new double[0], behaviorVector);
+	}
+
+	/**
+	 * Candidates become the elite of empty bins and of bins they score
+	 * better in, but never replace an elite they only tie with
+	 */
+	@Test
+	public void test_addAndReplace() {
+		Archive<ArrayList<Double>> archive = new Archive<ArrayList<Double>>(false);
+		assertEquals(4, archive.numBins());
+		assertEquals(0, archive.occupiedBins().length);
+		for (int i = 0; i < archive.numBins(); i++) {
+			assertNull(archive.getElite(i));
+			assertEquals(Double.NEGATIVE_INFINITY, archive.getBinScore(i), 0);
+		}
+
+		Score<ArrayList<Double>> first = candidate(1, 1, 1, 1);
+		assertTrue(archive.add(first));
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, archive.occupiedBins());
+		// One copy of the candidate is shared by every bin it won
+		assertSame(archive.getElite(0), archive.getElite(3));
+		assertSame(first.individual, archive.getElite(0).individual);
+		// Changing the candidate afterward does not change the archive
+		first.behaviorVector.set(2, 100.0);
+		assertEquals(1, archive.getBinScore(2), 0);
+
+		assertFalse(archive.add(candidate(0, 0, 0, 0)));
+		assertArrayEquals(new float[] { 1, 1, 1, 1 }, archive.getEliteScores(), 0);
+
+		Score<ArrayList<Double>> second = candidate(1, 3, 0, 1);
+		assertTrue(archive.add(second));
+		assertArrayEquals(new float[] { 1, 3, 1, 1 }, archive.getEliteScores(), 0);
+		assertSame(second.individual, archive.getElite(1).individual);
+		for (int i : new int[] { 0, 2, 3 }) {
+			assertSame(first.individual, archive.getElite(i).individual);
+		}
+	}
+
+	/**
+	 * Candidates added from several threads at once leave the best candidate
+	 * of each bin as its elite
+	 */
+	@Test
+	public void test_concurrentAdd() throws Exception {
+		final Archive<ArrayList<Double>> archive = new Archive<ArrayList<Double>>(false);
+		final int numThreads = 8;
+		final ArrayList<List<Score<ArrayList<Double>>>> candidates = new ArrayList<List<Score<ArrayList<Double>>>>();
+		double[] best = new double[archive.numBins()];
+		Arrays.fill(best, Double.NEGATIVE_INFINITY);
+		Random random = new Random(0);
+		for (int t = 0; t < numThreads; t++) {
+			ArrayList<Score<ArrayList<Double>>> list = new ArrayList<Score<ArrayList<Double>>>();
+			for (int j = 0; j < 500; j++) {
+				double[] binScores = new double[archive.numBins()];
+				for (int i = 0; i < binScores.length; i++) {
+					binScores[i] = random.nextDouble();
+					best[i] = Math.max(best[i], binScores[i]);
+				}
+				list.add(candidate(binScores));
+			}
+			candidates.add(list);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		try {
+			ArrayList<Future<?>> results = new ArrayList<Future<?>>();
+			for (final List<Score<ArrayList<Double>>> list : candidates) {
+				results.add(pool.submit(() -> {
+					for (Score<ArrayList<Double>> s : list) {
+						archive.add(s);
+					}
+				}));
+			}
+			for (Future<?> f : results) {
+				f.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		for (int i = 0; i < archive.numBins(); i++) {
+			assertEquals(best[i], archive.getBinScore(i), 0);
+		}
+	}
+
+	/**
+	 * Saved elites and their scores are loaded by a new archive, which
+	 * keeps replacing them with better candidates
+	 */
+	@Test
+	public void test_reloadFromDisk() {
+		Archive<ArrayList<Double>> archive = new Archive<ArrayList<Double>>(true);
+		Score<ArrayList<Double>> first = candidate(1, 1, 1, Double.NEGATIVE_INFINITY);
+		Score<ArrayList<Double>> second = candidate(2, 0, 3, 0);
+		archive.add(first);
+		archive.add(second);
+		archive.close();
+		assertEquals(FileUtilities.getSaveDirectory() + File.separator + "archive", archive.getArchiveDirectory());
+		for (String label : new TestBinLabels().binLabels()) {
+			assertTrue(new File(archive.getArchiveDirectory() + File.separator + label + File.separator + "elite.xml").exists());
+			assertTrue(new File(archive.getArchiveDirectory() + File.separator + label + File.separator + "scores.txt").exists());
+		}
+
+		Archive<ArrayList<Double>> loaded = new Archive<ArrayList<Double>>(true);
+		loaded.load();
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, loaded.occupiedBins());
+		assertArrayEquals(archive.getEliteScores(), loaded.getEliteScores(), 0);
+		for (int i = 0; i < loaded.numBins(); i++) {
+			Genotype<ArrayList<Double>> expected = archive.getElite(i).individual;
+			Genotype<ArrayList<Double>> actual = loaded.getElite(i).individual;
+			assertEquals(expected.getId(), actual.getId());
+			assertEquals(expected.getPhenotype(), actual.getPhenotype());
+			// Every bin score is loaded, not just the score of the bin
+			assertEquals(archive.getElite(i).behaviorVector, loaded.getElite(i).behaviorVector);
+		}
+
+		Score<ArrayList<Double>> third = candidate(0, 2, 0, 0);
+		assertTrue(loaded.add(third));
+		assertSame(third.individual, loaded.getElite(1).individual);
+		assertFalse(loaded.add(candidate(0, 0, 0, 0)));
+		loaded.close();
+	}
+
+	/**
+	 * Sparse scores leave bins of a dense archive empty. Parents are only
+	 * picked from occupied bins, one at a time and in batches.
+	 */
+	@Test
+	public void test_breedFromPartlyFilledArchive() {
+		for (int batchSize : new int[] { 1, 4 }) {
+			Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false",
+					"base:" + folder.getRoot().getPath(), "saveTo:MAPElites", "runNumber:0", "mu:10",
+					"mating:true", "crossoverRate:0.5", "maxGens:200", "mapElitesBatchSize:" + batchSize });
+			Parameters.parameters.setClass("mapElitesBinLabels", TestBinLabels.class);
+			RandomNumbers.reset(0);
+			MMNEAT.task = new TwoBinTask();
+			MMNEAT.weightPerturber = new GaussianGenerator();
+			MMNEAT.metaheuristics = new ArrayList<>();
+			try {
+				MAPElites<ArrayList<Double>> mapElites = new MAPElites<ArrayList<Double>>();
+				mapElites.initialize(new RealValuedGenotype(1));
+				Archive<ArrayList<Double>> archive = mapElites.getArchive();
+				assertArrayEquals(new int[] { 0, 2 }, archive.occupiedBins());
+				for (int i = 0; i < 100; i++) {
+					int binIndex = archive.randomBinIndex();
+					assertTrue(binIndex == 0 || binIndex == 2);
+				}
+				for (int i = 0; i < 50; i++) {
+					mapElites.newIndividual();
+				}
+				assertArrayEquals(new int[] { 0, 2 }, archive.occupiedBins());
+			} finally {
+				MMNEAT.task = null;
+				MMNEAT.weightPerturber = null;
+				MMNEAT.metaheuristics = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package edu.southwestern.evolution.mapelites;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.evolution.genotypes.RealValuedGenotype;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.scores.Score;
+
+public class BinnedScoreTest {
+
+	RealValuedGenotype individual;
+
+	@Before
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false" });
+		individual = new RealValuedGenotype(new double[] { 0 });
+	}
+
+	@After
+	public void tearDown() {
+		Parameters.parameters = null;
+	}
+
+	@Test
+	public void test_dense() {
+		BinnedScore<ArrayList<Double>> score = BinnedScore.dense(individual, new double[] { 0.5, -1, 3 });
+		assertTrue(score.isDense());
+		assertNull(score.behaviorVector);
+		assertEquals(3, score.numScoredBins());
+		for (int i = 0; i < 3; i++) {
+			assertEquals(i, score.scoredBin(i));
+			assertEquals(score.binScore(i), score.scoreOfScoredBin(i), 0);
+			assertEquals(score.binScore(i), Archive.binScore(score, i), 0);
+		}
+		assertEquals(-1, score.binScore(1), 0);
+	}
+
+	/**
+	 * Sparse scores are kept in order of bin, and bins without a score have
+	 * a score of negative infinity
+	 */
+	@Test
+	public void test_sparse() {
+		int[] bins = new int[] { 40, 7, 1000 };
+		double[] binScores = new double[] { 1, 2, 3 };
+		BinnedScore<ArrayList<Double>> score = BinnedScore.sparse(individual, bins, binScores);
+		assertFalse(score.isDense());
+		assertEquals(3, score.numScoredBins());
+		assertEquals(7, score.scoredBin(0));
+		assertEquals(40, score.scoredBin(1));
+		assertEquals(1000, score.scoredBin(2));
+		assertEquals(2, score.scoreOfScoredBin(0), 0);
+		assertEquals(1, score.binScore(40), 0);
+		assertEquals(3, Archive.binScore(score, 1000), 0);
+		for (int unscored : new int[] { 0, 8, 39, 41, 999, 1001 }) {
+			assertEquals(Double.NEGATIVE_INFINITY, score.binScore(unscored), 0);
+		}
+		// The arrays that were passed in are not reordered
+		assertArrayEquals(new int[] { 40, 7, 1000 }, bins);
+		assertArrayEquals(new double[] { 1, 2, 3 }, binScores, 0);
+	}
+
+	@Test
+	public void test_sparseLengthMismatch() {
+		try {
+			BinnedScore.sparse(individual, new int[] { 1, 2 }, new double[] { 1 });
+			fail("Bins and scores of different lengths were accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * A copy is still a BinnedScore with the same individual and bin scores
+	 */
+	@Test
+	public void test_copy() {
+		BinnedScore<ArrayList<Double>> score = BinnedScore.sparse(individual, new int[] { 5, 2 }, new double[] { 1, 2 });
+		Score<ArrayList<Double>> copy = score.copy();
+		assertTrue(copy instanceof BinnedScore);
+		BinnedScore<ArrayList<Double>> binnedCopy = (BinnedScore<ArrayList<Double>>) copy;
+		assertSame(individual, copy.individual);
+		assertFalse(binnedCopy.isDense());
+		assertEquals(2, binnedCopy.binScore(2), 0);
+		assertEquals(1, binnedCopy.binScore(5), 0);
+		assertEquals(Double.NEGATIVE_INFINITY, binnedCopy.binScore(3), 0);
+	}
+}
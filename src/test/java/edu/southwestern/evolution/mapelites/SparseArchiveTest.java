@@ -0,0 +1,192 @@
+package edu.southwestern.evolution.mapelites;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.southwestern.evolution.genotypes.RealValuedGenotype;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.util.random.RandomNumbers;
+
+public class SparseArchiveTest {
+
+	private static final int NUM_BINS = 1000000;
+
+	/**
+	 * A million bins, whose labels are only created when asked for
+	 */
+	public static class ManyBinLabels implements BinLabels<ArrayList<Double>> {
+		@Override
+		public List<String> binLabels() {
+			return new AbstractList<String>() {
+				@Override
+				public String get(int index) {
+					return "bin" + index;
+				}
+
+				@Override
+				public int size() {
+					return NUM_BINS;
+				}
+			};
+		}
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false",
+				"base:" + folder.getRoot().getPath(), "saveTo:MAPElites", "runNumber:0" });
+		Parameters.parameters.setClass("mapElitesBinLabels", ManyBinLabels.class);
+		RandomNumbers.reset(0);
+	}
+
+	@After
+	public void tearDown() {
+		Parameters.parameters = null;
+	}
+
+	private static BinnedScore<ArrayList<Double>> sparse(int[] bins, double[] binScores) {
+		return BinnedScore.sparse(new RealValuedGenotype(new double[] { bins[0] }), bins, binScores);
+	}
+
+	/**
+	 * Sparse candidates only occupy the bins they are scored for
+	 */
+	@Test
+	public void test_sparseAdd() {
+		SparseArchive<ArrayList<Double>> archive = new SparseArchive<ArrayList<Double>>(false);
+		assertEquals(NUM_BINS, archive.numBins());
+		assertEquals(0, archive.numOccupiedBins());
+		assertEquals(0, archive.occupiedBins().length);
+		assertEquals("", archive.eliteScoresLog());
+
+		BinnedScore<ArrayList<Double>> first = sparse(new int[] { 500000, 3, 999999 }, new double[] { 1, 2, 3 });
+		assertTrue(archive.add(first));
+		assertEquals(3, archive.numOccupiedBins());
+		assertArrayEquals(new int[] { 3, 500000, 999999 }, archive.occupiedBins());
+		assertEquals("3:2.0\t500000:1.0\t999999:3.0", archive.eliteScoresLog());
+		assertSame(first.individual, archive.getElite(3).individual);
+		assertEquals(1, archive.getBinScore(500000), 0);
+		assertNull(archive.getElite(4));
+		assertEquals(Double.NEGATIVE_INFINITY, archive.getBinScore(4), 0);
+
+		// Parents are only picked from occupied bins
+		HashSet<Integer> occupied = new HashSet<Integer>(Arrays.asList(3, 500000, 999999));
+		for (int i = 0; i < 100; i++) {
+			assertTrue(occupied.contains(archive.randomBinIndex()));
+		}
+	}
+
+	/**
+	 * Dense candidates compete in every bin, in both kinds of archive
+	 */
+	@Test
+	public void test_denseAdd() {
+		Parameters.parameters.setClass("mapElitesBinLabels", ArchiveTest.TestBinLabels.class);
+		SparseArchive<ArrayList<Double>> sparseArchive = new SparseArchive<ArrayList<Double>>(false);
+		Archive<ArrayList<Double>> denseArchive = new Archive<ArrayList<Double>>(false);
+		BinnedScore<ArrayList<Double>> first = BinnedScore.dense(new RealValuedGenotype(new double[] { 1 }), new double[] { 1, 1, 1, 1 });
+		BinnedScore<ArrayList<Double>> second = BinnedScore.dense(new RealValuedGenotype(new double[] { 2 }), new double[] { 0, 2, 1, 0 });
+		for (Archive<ArrayList<Double>> archive : Arrays.asList(sparseArchive, denseArchive)) {
+			assertTrue(archive.add(first));
+			assertArrayEquals(new int[] { 0, 1, 2, 3 }, archive.occupiedBins());
+			assertTrue(archive.add(second));
+			assertArrayEquals(new float[] { 1, 2, 1, 1 }, archive.getEliteScores(), 0);
+			assertSame(second.individual, archive.getElite(1).individual);
+			// A tie keeps the old elite
+			assertSame(first.individual, archive.getElite(2).individual);
+		}
+		assertEquals(4, sparseArchive.numOccupiedBins());
+	}
+
+	/**
+	 * An occupied bin is only taken over by a candidate with a better score
+	 * for that bin
+	 */
+	@Test
+	public void test_replaceWhenBetter() {
+		SparseArchive<ArrayList<Double>> archive = new SparseArchive<ArrayList<Double>>(false);
+		BinnedScore<ArrayList<Double>> first = sparse(new int[] { 10, 20 }, new double[] { 1, 5 });
+		BinnedScore<ArrayList<Double>> second = sparse(new int[] { 30, 10, 20 }, new double[] { 0, 2, 4 });
+		assertTrue(archive.add(first));
+		assertTrue(archive.add(second));
+		assertSame(second.individual, archive.getElite(10).individual);
+		assertSame(first.individual, archive.getElite(20).individual);
+		assertSame(second.individual, archive.getElite(30).individual);
+		assertArrayEquals(new int[] { 10, 20, 30 }, archive.occupiedBins());
+
+		assertFalse(archive.add(sparse(new int[] { 10, 20 }, new double[] { 2, 5 })));
+		assertTrue(archive.add(sparse(new int[] { 20 }, new double[] { 6 })));
+		assertEquals(6, archive.getBinScore(20), 0);
+		assertEquals(3, archive.numOccupiedBins());
+	}
+
+	/**
+	 * Only the directories of occupied bins are created, and a new archive
+	 * loads exactly the bins listed in occupiedBins.txt
+	 */
+	@Test
+	public void test_reloadFromDisk() throws IOException {
+		SparseArchive<ArrayList<Double>> archive = new SparseArchive<ArrayList<Double>>(true);
+		archive.add(sparse(new int[] { 7, 123456 }, new double[] { 1, 2 }));
+		archive.add(sparse(new int[] { 7, 42 }, new double[] { 3, 0.5 }));
+		archive.close();
+
+		File archiveDir = new File(archive.getArchiveDirectory());
+		File occupiedBinsFile = new File(archiveDir, "occupiedBins.txt");
+		HashSet<String> listed = new HashSet<String>(Files.readAllLines(occupiedBinsFile.toPath()));
+		assertEquals(new HashSet<String>(Arrays.asList("7", "42", "123456")), listed);
+		HashSet<String> directories = new HashSet<String>();
+		for (File f : archiveDir.listFiles()) {
+			if (f.isDirectory()) {
+				directories.add(f.getName());
+			}
+		}
+		assertEquals(new HashSet<String>(Arrays.asList("bin7", "bin42", "bin123456")), directories);
+
+		SparseArchive<ArrayList<Double>> loaded = new SparseArchive<ArrayList<Double>>(true);
+		loaded.load();
+		assertArrayEquals(archive.occupiedBins(), loaded.occupiedBins());
+		assertEquals(archive.eliteScoresLog(), loaded.eliteScoresLog());
+		for (int bin : loaded.occupiedBins()) {
+			BinnedScore<ArrayList<Double>> expected = (BinnedScore<ArrayList<Double>>) archive.getElite(bin);
+			BinnedScore<ArrayList<Double>> actual = (BinnedScore<ArrayList<Double>>) loaded.getElite(bin);
+			assertEquals(expected.individual.getId(), actual.individual.getId());
+			assertFalse(actual.isDense());
+			assertEquals(expected.numScoredBins(), actual.numScoredBins());
+			for (int k = 0; k < expected.numScoredBins(); k++) {
+				assertEquals(expected.scoredBin(k), actual.scoredBin(k));
+				assertEquals(expected.scoreOfScoredBin(k), actual.scoreOfScoredBin(k), 0);
+			}
+		}
+
+		// Replacing a loaded bin does not list it again, but a new bin is added
+		assertTrue(loaded.add(sparse(new int[] { 42, 99 }, new double[] { 1, 1 })));
+		loaded.close();
+		List<String> lines = Files.readAllLines(occupiedBinsFile.toPath());
+		assertEquals(4, lines.size());
+		assertEquals(new HashSet<String>(Arrays.asList("7", "42", "99", "123456")), new HashSet<String>(lines));
+		assertEquals(1, loaded.getBinScore(42), 0);
+	}
+}
@@ -0,0 +1,100 @@
+package edu.southwestern.evolution.nsga2;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HypervolumeTest {
+
+	/**
+	 * Random front, with some duplicates and repeated coordinates
+	 */
+	private static double[][] randomPoints(Random r, int n, int d) {
+		double[][] points = new double[n][d];
+		for (int i = 0; i < n; i++) {
+			if (i > 0 && r.nextInt(10) == 0) {
+				points[i] = points[r.nextInt(i)].clone();
+			} else {
+				for (int j = 0; j < d; j++) {
+					points[i][j] = r.nextInt(5) == 0 ? r.nextInt(4) : 10 * r.nextDouble();
+				}
+			}
+		}
+		return points;
+	}
+
+	private static double[][] copy(double[][] points) {
+		double[][] result = new double[points.length][];
+		for (int i = 0; i < points.length; i++) {
+			result[i] = points[i].clone();
+		}
+		return result;
+	}
+
+	@Test
+	public void test_matchesJMetal() {
+		Random r = new Random(0);
+		jmetal.qualityIndicator.Hypervolume jmetal = new jmetal.qualityIndicator.Hypervolume();
+		for (int trial = 0; trial < 300; trial++) {
+			int d = 2 + r.nextInt(4);
+			int n = 1 + r.nextInt(d > 3 ? 40 : 100);
+			double[][] points = randomPoints(r, n, d);
+			double[][] front = copy(points);
+			int size = jmetal.filterNondominatedSet(front, n, d);
+			double expected = jmetal.calculateHypervolume(front, size, d);
+			assertEquals(expected, Hypervolume.of(points), 1e-9 * Math.max(1, expected));
+			assertEquals(size, Hypervolume.nondominatedCount(points));
+		}
+	}
+
+	@Test
+	public void test_parallelLargeFront() {
+		Random r = new Random(1);
+		// Points on a sphere are all non-dominated
+		double[][] points = new double[2 * Hypervolume.PARALLEL_THRESHOLD][3];
+		for (double[] p : points) {
+			double norm = 0;
+			for (int j = 0; j < p.length; j++) {
+				p[j] = r.nextDouble();
+				norm += p[j] * p[j];
+			}
+			for (int j = 0; j < p.length; j++) {
+				p[j] /= Math.sqrt(norm);
+			}
+		}
+		double expected = new jmetal.qualityIndicator.Hypervolume().calculateHypervolume(copy(points), points.length, 3);
+		assertEquals(expected, Hypervolume.of(points), 1e-9);
+		assertEquals(points.length, Hypervolume.nondominatedCount(points));
+	}
+
+	@Test
+	public void test_archiveMatchesBatch() {
+		Random r = new Random(2);
+		for (int d = 2; d <= 4; d++) {
+			Hypervolume.Archive archive = new Hypervolume.Archive(d);
+			double[][] points = randomPoints(r, 150, d);
+			for (int i = 0; i < points.length; i++) {
+				archive.add(points[i]);
+				double[][] sofar = new double[i + 1][];
+				System.arraycopy(points, 0, sofar, 0, i + 1);
+				assertEquals(Hypervolume.of(sofar), archive.volume(), 1e-9 * Math.max(1, archive.volume()));
+			}
+			assertTrue(archive.size() <= Hypervolume.nondominatedCount(points));
+		}
+	}
+
+	@Test
+	public void test_singleObjective() {
+		assertEquals(7, Hypervolume.of(new double[][] { { 3 }, { 7 }, { 7 } }), 0);
+		assertEquals(2, Hypervolume.nondominatedCount(new double[][] { { 3 }, { 7 }, { 7 } }));
+	}
+
+	@Test
+	public void test_negativeCoordinatesHaveNoVolume() {
+		assertEquals(0, Hypervolume.of(new double[][] { { -1, 5 }, { 3, 0 } }), 0);
+		assertEquals(6, Hypervolume.of(new double[][] { { -1, 5 }, { 3, 2 }, { 3, 2 } }), 0);
+		assertEquals(0, Hypervolume.of(new double[0][]), 0);
+	}
+}
@@ -0,0 +1,116 @@
+package edu.southwestern.evolution.nsga2;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class NonDominatedSortTest {
+
+	/**
+	 * Random population. Objective values are small integers so that there
+	 * are many ties and duplicate points.
+	 */
+	@SuppressWarnings("unchecked")
+	private static NSGA2Score<Object>[] population(Random random, int size, int numObjectives, int values) {
+		NSGA2Score<Object>[] scores = new NSGA2Score[size];
+		for (int i = 0; i < size; i++) {
+			double[] objectives = new double[numObjectives];
+			for (int j = 0; j < numObjectives; j++) {
+				objectives[j] = random.nextInt(values);
+			}
+			scores[i] = new NSGA2Score<Object>(null, objectives, null, new double[0]);
+		}
+		return scores;
+	}
+
+	/**
+	 * Ranks according to the original all-pairs sort in NSGA2
+	 */
+	private static int[] originalRanks(NSGA2Score<Object>[] scores) {
+		for (NSGA2Score<Object> s : scores) {
+			s.reset();
+		}
+		for (int i = 0; i < scores.length; i++) {
+			for (int j = 0; j < scores.length; j++) {
+				if (i != j && scores[i].isBetter(scores[j])) {
+					scores[i].addDominatedIndividual(scores[j]);
+					scores[j].increaseNumDominators();
+				}
+			}
+		}
+		int numAssigned = 0;
+		for (int front = 0; numAssigned < scores.length; front++) {
+			for (NSGA2Score<Object> s : scores) {
+				if (!s.isAssigned && s.numDominators == 0) {
+					s.assign(front);
+					numAssigned++;
+				}
+			}
+			for (NSGA2Score<Object> s : scores) {
+				if (s.isAssigned && !s.processed) {
+					s.process();
+				}
+			}
+		}
+		int[] ranks = new int[scores.length];
+		for (int i = 0; i < scores.length; i++) {
+			ranks[i] = scores[i].getRank();
+		}
+		return ranks;
+	}
+
+	@Test
+	public void test_matchesOriginalSort() {
+		Random random = new Random(0);
+		for (int numObjectives = 2; numObjectives <= 5; numObjectives++) {
+			for (int size : new int[] { 1, 2, 10, 100, 500 }) {
+				for (int values : new int[] { 2, 5, 1000 }) {
+					NSGA2Score<Object>[] scores = population(random, size, numObjectives, values);
+					int[] expected = originalRanks(scores);
+					assertArrayEquals(expected, NonDominatedSort.ranks(scores));
+					assertArrayEquals(expected, NonDominatedSort.pairwiseRanks(scores, false));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Large enough for the domination tests to run in parallel
+	 */
+	@Test
+	public void test_parallel() {
+		Random random = new Random(1);
+		for (int numObjectives = 2; numObjectives <= 4; numObjectives++) {
+			NSGA2Score<Object>[] scores = population(random, 2 * NonDominatedSort.PARALLEL_THRESHOLD, numObjectives, 20);
+			int[] expected = NonDominatedSort.pairwiseRanks(scores, false);
+			assertArrayEquals(expected, NonDominatedSort.ranks(scores));
+			assertArrayEquals(expected, NonDominatedSort.pairwiseRanks(scores, true));
+		}
+	}
+
+	/**
+	 * Infinite and NaN scores are compared the same way isBetter compares them.
+	 * NaN is only used in the first objective, because NaN in different
+	 * objectives can make domination cyclic, and then the original sort
+	 * never finishes.
+	 */
+	@Test
+	public void test_specialValues() {
+		Random random = new Random(2);
+		double[] special = new double[] { Double.NEGATIVE_INFINITY, -0.0, 0.0, 1, Double.POSITIVE_INFINITY, Double.NaN };
+		for (int trial = 0; trial < 20; trial++) {
+			NSGA2Score<Object>[] scores = population(random, 50, 2 + trial % 3, special.length);
+			for (NSGA2Score<Object> s : scores) {
+				for (int j = 0; j < s.scores.length; j++) {
+					// Only some populations contain NaN
+					int index = (int) s.scores[j];
+					boolean nan = trial % 2 == 1 && j == 0;
+					s.scores[j] = !nan && index == special.length - 1 ? 1 : special[index];
+				}
+			}
+			assertArrayEquals(originalRanks(scores), NonDominatedSort.ranks(scores));
+		}
+	}
+}
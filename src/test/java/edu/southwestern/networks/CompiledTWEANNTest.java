@@ -0,0 +1,193 @@
+package edu.southwestern.networks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.EvolutionaryHistory;
+import edu.southwestern.evolution.genotypes.TWEANNGenotype;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.parameters.CommonConstants;
+import edu.southwestern.util.random.RandomNumbers;
+
+public class CompiledTWEANNTest {
+
+	private static final int NUM_MUTATIONS = 50;
+	private static final int NUM_STEPS = 20;
+
+	@After
+	public void tearDown() throws Exception {
+		TWEANN.finalPassOnOutputActivation = false;
+		MMNEAT.clearClasses();
+	}
+
+	/**
+	 * Mutate a genotype until it has hidden nodes, recurrent links
+	 * and multiple modules.
+	 */
+	private TWEANNGenotype randomGenotype(int numIn, int numOut) {
+		return randomGenotype(numIn, numOut, true);
+	}
+
+	private TWEANNGenotype randomGenotype(int numIn, int numOut, boolean addModules) {
+		TWEANNGenotype g = new TWEANNGenotype(numIn, numOut, 0);
+		MMNEAT.genotype = g.copy();
+		EvolutionaryHistory.initArchetype(0);
+		for (int i = 0; i < NUM_MUTATIONS; i++) {
+			g.linkMutation();
+			g.spliceMutation();
+			g.weightMutation();
+			if (addModules && i % 10 == 0) {
+				g.moduleDuplication();
+			}
+		}
+		return g;
+	}
+
+	/**
+	 * Process the same input sequence with both networks and require identical
+	 * outputs, module choices and per module outputs at every step. Ties
+	 * between preference neurons must not be broken randomly, since each
+	 * network would draw a different random number.
+	 */
+	private void assertSameBehavior(TWEANN original, CompiledTWEANN compiled) {
+		assertEquals(original.numModules(), compiled.numModules());
+		for (int step = 0; step < NUM_STEPS; step++) {
+			double[] inputs = RandomNumbers.randomArray(original.numInputs());
+			assertArrayEquals(original.process(inputs), compiled.process(inputs), 0.0);
+			assertEquals(original.lastModule(), compiled.lastModule());
+			for (int m = 0; m < original.numModules(); m++) {
+				assertArrayEquals(original.moduleOutput(m), compiled.moduleOutput(m), 0.0);
+			}
+			if (step == NUM_STEPS / 2) {
+				original.flush();
+				compiled.flush();
+			}
+		}
+	}
+
+	@Test
+	public void test_matchesTWEANN() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:true",
+				"allowMultipleFunctions:true", "mmdRate:0.1", "randomArgMaxTieBreak:false" });
+		MMNEAT.loadClasses();
+		for (int i = 0; i < 10; i++) {
+			TWEANNGenotype g = randomGenotype(5, 3);
+			assertSameBehavior(new TWEANN(g), new CompiledTWEANN(g));
+		}
+	}
+
+	@Test
+	public void test_matchesTWEANNWithFinalPass() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:true",
+				"allowMultipleFunctions:true", "mmdRate:0.1", "randomArgMaxTieBreak:false" });
+		MMNEAT.loadClasses();
+		TWEANN.finalPassOnOutputActivation = true;
+		for (int i = 0; i < 10; i++) {
+			TWEANNGenotype g = randomGenotype(4, 2);
+			assertSameBehavior(new TWEANN(g), new CompiledTWEANN(g));
+		}
+	}
+
+	@Test
+	public void test_processBatch() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:true",
+				"allowMultipleFunctions:true", "mmdRate:0.0", "startingModes:1" });
+		MMNEAT.loadClasses();
+		for (int i = 0; i < 10; i++) {
+			TWEANNGenotype g = randomGenotype(4, 3, false);
+			TWEANN original = new TWEANN(g);
+			double[][] inputs = new double[300][];
+			for (int j = 0; j < inputs.length; j++) {
+				inputs[j] = RandomNumbers.randomArray(original.numInputs());
+			}
+			double[][] expected = NetworkUtil.processSequentially(original, inputs);
+			assertArrayEquals(expected, new TWEANN(g).processBatch(inputs));
+			assertArrayEquals(expected, new CompiledTWEANN(g).processBatch(inputs));
+		}
+	}
+
+	/**
+	 * Many threads share one compiled topology and process batches with it at
+	 * the same time, each getting the results of its own queries
+	 */
+	@Test
+	public void test_concurrentProcessBatch() throws Exception {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:false",
+				"allowMultipleFunctions:true", "mmdRate:0.0", "startingModes:1" });
+		MMNEAT.loadClasses();
+		TWEANNGenotype g = randomGenotype(4, 3, false);
+		final TWEANN network = new TWEANN(g);
+		final int numThreads = 8;
+		final double[][][] inputs = new double[numThreads][300][];
+		final double[][][] expected = new double[numThreads][][];
+		for (int t = 0; t < numThreads; t++) {
+			for (int j = 0; j < inputs[t].length; j++) {
+				inputs[t][j] = RandomNumbers.randomArray(network.numInputs());
+			}
+			expected[t] = NetworkUtil.processSequentially(new TWEANN(g), inputs[t]);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		try {
+			ArrayList<Future<?>> results = new ArrayList<Future<?>>();
+			for (int t = 0; t < numThreads; t++) {
+				final int thread = t;
+				results.add(pool.submit(() -> {
+					for (int repeat = 0; repeat < 20; repeat++) {
+						assertArrayEquals(expected[thread], network.processBatch(inputs[thread]));
+					}
+				}));
+			}
+			for (Future<?> f : results) {
+				f.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Under weighted average mode aggregation, outputs are scaled by mode
+	 * preferences, so batches give the same outputs as process even when the
+	 * only mode is disabled, and the network is not treated as stateless
+	 */
+	@Test
+	public void test_processBatchWithPreferences() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:false",
+				"allowMultipleFunctions:true", "mmdRate:0.0", "startingModes:1", "weightedAverageModeAggregation:true",
+				"preferenceNeuronFatigueUnit:0.1", "disabledMode:0" });
+		MMNEAT.loadClasses();
+		assertTrue(CommonConstants.weightedAverageModeAggregation);
+		TWEANNGenotype g = randomGenotype(4, 3, false);
+		TWEANN original = new TWEANN(g);
+		assertTrue(original.outputsUsePreferences());
+		assertFalse(NetworkUtil.isStateless(original));
+		assertNull(original.concurrentCopy());
+		double[][] inputs = new double[50][];
+		for (int j = 0; j < inputs.length; j++) {
+			inputs[j] = RandomNumbers.randomArray(original.numInputs());
+		}
+		double[][] expected = NetworkUtil.processSequentially(original, inputs);
+		assertArrayEquals(expected, new TWEANN(g).processBatch(inputs));
+		assertArrayEquals(expected, new CompiledTWEANN(g).processBatch(inputs));
+	}
+
+	@Test
+	public void test_getPhenotypeParameter() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "compiledTWEANN:true" });
+		MMNEAT.loadClasses();
+		TWEANNGenotype g = new TWEANNGenotype(3, 2, 0);
+		assertEquals(CompiledTWEANN.class, g.getPhenotype().getClass());
+	}
+}
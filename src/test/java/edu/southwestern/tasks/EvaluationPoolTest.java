@@ -0,0 +1,67 @@
+package edu.southwestern.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class EvaluationPoolTest {
+
+	@After
+	public void tearDown() throws Exception {
+		EvaluationPool.shutdown();
+	}
+
+	/**
+	 * Later jobs finish first, but results must still come back in
+	 * the order the jobs were given.
+	 */
+	@Test
+	public void test_evaluateOrder() throws InterruptedException, ExecutionException {
+		ArrayList<Callable<Integer>> jobs = new ArrayList<Callable<Integer>>();
+		final int numJobs = 12;
+		for (int i = 0; i < numJobs; i++) {
+			final int id = i;
+			jobs.add(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					Thread.sleep(5 * (numJobs - id));
+					return id;
+				}
+			});
+		}
+		EvaluationPool.Metrics metrics = new EvaluationPool.Metrics();
+		ArrayList<Integer> results = EvaluationPool.evaluate(jobs, 4, metrics);
+		assertEquals(numJobs, results.size());
+		for (int i = 0; i < numJobs; i++) {
+			assertEquals(i, results.get(i).intValue());
+		}
+		assertEquals(numJobs, metrics.jobs);
+		assertTrue(metrics.wallTime >= metrics.maxEvalTime);
+		assertTrue(metrics.utilization > 0 && metrics.utilization <= 1.0);
+	}
+
+	@Test
+	public void test_poolReused() {
+		assertSame(EvaluationPool.getPool(3), EvaluationPool.getPool(3));
+		assertEquals(2, EvaluationPool.getPool(2).getParallelism());
+	}
+
+	@Test(expected = ExecutionException.class)
+	public void test_evaluateFailure() throws InterruptedException, ExecutionException {
+		ArrayList<Callable<Integer>> jobs = new ArrayList<Callable<Integer>>();
+		jobs.add(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				throw new IllegalStateException("Failed evaluation");
+			}
+		});
+		EvaluationPool.evaluate(jobs, 2, null);
+	}
+}
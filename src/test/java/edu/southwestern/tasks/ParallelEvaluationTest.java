@@ -0,0 +1,234 @@
+package edu.southwestern.tasks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.genotypes.Genotype;
+import edu.southwestern.evolution.genotypes.TWEANNGenotype;
+import edu.southwestern.networks.TWEANN;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.scores.Score;
+import edu.southwestern.util.random.RandomNumbers;
+
+public class ParallelEvaluationTest {
+
+	private static final int POPULATION_SIZE = 12;
+
+	@After
+	public void tearDown() throws Exception {
+		MMNEAT.clearClasses();
+	}
+
+	/**
+	 * Evaluate the same population in a LonerTask, either serially or in
+	 * parallel.
+	 *
+	 * @param parameters
+	 *            task specific parameters
+	 * @param parallel
+	 *            whether to evaluate in parallel
+	 * @return scores in population order
+	 */
+	@SuppressWarnings("unchecked")
+	private ArrayList<Score<TWEANN>> evaluatePopulation(String[] parameters, boolean parallel) {
+		String[] common = new String[] { "io:false", "netio:false", "randomSeed:0", "watch:false",
+				"parallelEvaluations:" + parallel, "threads:4" };
+		String[] args = new String[common.length + parameters.length];
+		System.arraycopy(common, 0, args, 0, common.length);
+		System.arraycopy(parameters, 0, args, common.length, parameters.length);
+		Parameters.initializeParameterCollections(args);
+		MMNEAT.loadClasses();
+		RandomNumbers.reset(0);
+		ArrayList<Genotype<TWEANN>> population = new ArrayList<Genotype<TWEANN>>();
+		for (int i = 0; i < POPULATION_SIZE; i++) {
+			population.add(new TWEANNGenotype(MMNEAT.networkInputs, MMNEAT.networkOutputs, 0));
+		}
+		ArrayList<Score<TWEANN>> scores = ((LonerTask<TWEANN>) MMNEAT.task).evaluateAll(population);
+		MMNEAT.clearClasses();
+		return scores;
+	}
+
+	/**
+	 * Each evaluation has its own EvaluationContext (game, players and random
+	 * numbers), so evaluating in parallel must give exactly the same scores
+	 * as evaluating serially.
+	 *
+	 * @param parameters
+	 *            task specific parameters
+	 * @param sharedOtherStats
+	 *            indices of other scores that come from state shared by all
+	 *            evaluations, and therefore depend on the order in which
+	 *            evaluations finish
+	 */
+	private void assertSerialMatchesParallel(String[] parameters, int... sharedOtherStats) {
+		ArrayList<Score<TWEANN>> serial = evaluatePopulation(parameters, false);
+		ArrayList<Score<TWEANN>> parallel = evaluatePopulation(parameters, true);
+		assertEquals(POPULATION_SIZE, serial.size());
+		assertEquals(POPULATION_SIZE, parallel.size());
+		for (int i = 0; i < POPULATION_SIZE; i++) {
+			assertArrayEquals(serial.get(i).scores, parallel.get(i).scores, 0.0);
+			double[] serialOther = serial.get(i).otherStats.clone();
+			double[] parallelOther = parallel.get(i).otherStats.clone();
+			for (int shared : sharedOtherStats) {
+				serialOther[shared] = parallelOther[shared] = 0;
+			}
+			assertArrayEquals(serialOther, parallelOther, 0.0);
+		}
+	}
+
+	/**
+	 * Board game against a random opponent, with random opening moves
+	 */
+	@Test
+	public void test_serialMatchesParallel() {
+		assertSerialMatchesParallel(new String[] {
+				"task:edu.southwestern.tasks.boardGame.StaticOpponentBoardGameTask",
+				"boardGame:edu.southwestern.boardGame.othello.Othello",
+				"boardGameOpponent:edu.southwestern.boardGame.agents.BoardGamePlayerRandom",
+				"boardGameOpeningRandomMoves:4", "randomArgMaxTieBreak:false", "trials:3" });
+	}
+
+	/**
+	 * Ms. Pac-Man against the default ghosts, where each evaluation needs its
+	 * own game, mediator and sensor cache
+	 */
+	@Test
+	public void test_msPacManSerialMatchesParallel() {
+		assertSerialMatchesParallel(new String[] {
+				"task:edu.southwestern.tasks.mspacman.MsPacManTask",
+				"pacmanInputOutputMediator:edu.southwestern.tasks.mspacman.sensors.mediators.IICheckEachDirectionMediator",
+				"pacManLevelTimeLimit:400", "pacmanMaxLevel:1", "pacmanLives:1", "trials:2" });
+	}
+
+	/**
+	 * microRTS against a random opponent, where each evaluation needs its own
+	 * game state, evaluation function, fitness function and AIs. The number of
+	 * evaluation function calls (other score 4) is shared by all evaluations.
+	 */
+	@Test
+	public void test_microRTSSerialMatchesParallel() {
+		assertSerialMatchesParallel(new String[] {
+				"task:edu.southwestern.tasks.microrts.MicroRTSTask",
+				"map:melee4x4light2.xml",
+				"microRTSAgent:micro.ai.minimax.ABCD.ABCD",
+				"microRTSOpponent:micro.ai.RandomBiasedAI",
+				"microRTSFitnessFunction:edu.southwestern.tasks.microrts.fitness.ProgressiveFitnessFunction",
+				"microRTSEvaluationFunction:edu.southwestern.tasks.microrts.evaluation.NNSimpleEvaluationFunction",
+				"trials:1" }, 4);
+	}
+
+	/**
+	 * Evolved prey in the torus world against static predators, where each
+	 * evaluation needs its own world and random starting positions
+	 */
+	@Test
+	public void test_torusSerialMatchesParallel() {
+		assertSerialMatchesParallel(new String[] {
+				"task:edu.southwestern.tasks.gridTorus.TorusEvolvedPreyVsStaticPredatorsTask",
+				"torusTimeLimit:200", "torusPreys:2", "torusPredators:3",
+				"staticPredatorController:edu.southwestern.gridTorus.controllers.AggressivePredatorController",
+				"allowDoNothingActionForPredators:true", "allowDoNothingActionForPreys:true", "trials:2" });
+	}
+
+	/**
+	 * Coevolve the same population in board game matches, with random
+	 * opening moves, either serially or in parallel.
+	 */
+	@SuppressWarnings("unchecked")
+	private ArrayList<Score<TWEANN>> coevolvePopulation(boolean parallel, String pairing) {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "randomSeed:0",
+				"task:edu.southwestern.tasks.boardGame.SinglePopulationCompetativeCoevolutionBoardGameTask",
+				"boardGame:edu.southwestern.boardGame.othello.Othello",
+				"boardGameOpponent:edu.southwestern.boardGame.agents.BoardGamePlayerRandom",
+				"boardGameOpeningRandomMoves:4", "randomArgMaxTieBreak:false", "trials:2",
+				"coevolutionPairing:" + pairing, "parallelEvaluations:" + parallel, "threads:4" });
+		MMNEAT.loadClasses();
+		RandomNumbers.reset(0);
+		ArrayList<Genotype<TWEANN>> population = new ArrayList<Genotype<TWEANN>>();
+		for (int i = 0; i < POPULATION_SIZE; i++) {
+			population.add(new TWEANNGenotype(MMNEAT.networkInputs, MMNEAT.networkOutputs, 0));
+		}
+		ArrayList<Score<TWEANN>> scores = ((SinglePopulationCoevolutionTask<TWEANN>) MMNEAT.task).evaluateAll(population);
+		MMNEAT.clearClasses();
+		return scores;
+	}
+
+	/**
+	 * Each match has its own EvaluationContext, and groups only depend on the
+	 * seed, so playing matches in parallel must give exactly the same scores
+	 * as playing them serially, whichever pairing scheme is used.
+	 */
+	@Test
+	public void test_coevolutionSerialMatchesParallel() {
+		String[] pairings = new String[] { "edu.southwestern.tasks.coevolution.RandomGroupPairing",
+				"edu.southwestern.tasks.coevolution.RoundRobinPairing",
+				"edu.southwestern.tasks.coevolution.SwissPairing" };
+		for (String pairing : pairings) {
+			ArrayList<Score<TWEANN>> serial = coevolvePopulation(false, pairing);
+			ArrayList<Score<TWEANN>> parallel = coevolvePopulation(true, pairing);
+			assertEquals(POPULATION_SIZE, serial.size());
+			assertEquals(POPULATION_SIZE, parallel.size());
+			for (int i = 0; i < POPULATION_SIZE; i++) {
+				assertArrayEquals(serial.get(i).scores, parallel.get(i).scores, 0.0);
+				assertArrayEquals(serial.get(i).otherStats, parallel.get(i).otherStats, 0.0);
+			}
+		}
+	}
+
+	/**
+	 * Coevolve two populations in board game matches, with random opening
+	 * moves, either serially or in parallel.
+	 */
+	@SuppressWarnings("rawtypes")
+	private ArrayList<ArrayList<Score>> coevolvePopulations(boolean parallel) {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "randomSeed:0",
+				"task:edu.southwestern.tasks.boardGame.MultiPopulationCompetativeCoevolutionBoardGameTask",
+				"experiment:edu.southwestern.experiment.evolution.LimitedMultiplePopulationGenerationalEAExperiment",
+				"ea:edu.southwestern.evolution.nsga2.CoevolutionNSGA2",
+				"boardGame:edu.southwestern.boardGame.othello.Othello",
+				"boardGameOpeningRandomMoves:4", "randomArgMaxTieBreak:false", "teams:3",
+				"parallelEvaluations:" + parallel, "threads:4" });
+		MMNEAT.loadClasses();
+		// loadClasses only reports problems, so make sure the EA was actually created
+		assertNotNull(MMNEAT.ea);
+		RandomNumbers.reset(0);
+		ArrayList<ArrayList<Genotype>> populations = new ArrayList<ArrayList<Genotype>>();
+		for (int p = 0; p < 2; p++) {
+			ArrayList<Genotype> population = new ArrayList<Genotype>();
+			for (int i = 0; i < POPULATION_SIZE; i++) {
+				population.add(new TWEANNGenotype(MMNEAT.networkInputs, MMNEAT.networkOutputs, 0));
+			}
+			populations.add(population);
+		}
+		ArrayList<ArrayList<Score>> scores = ((GroupTask) MMNEAT.task).evaluateAllPopulations(populations);
+		MMNEAT.clearClasses();
+		return scores;
+	}
+
+	/**
+	 * Each team has its own EvaluationContext, and scores are combined in
+	 * team order, so evaluating teams in parallel must give exactly the same
+	 * scores as evaluating them serially.
+	 */
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void test_groupSerialMatchesParallel() {
+		ArrayList<ArrayList<Score>> serial = coevolvePopulations(false);
+		ArrayList<ArrayList<Score>> parallel = coevolvePopulations(true);
+		assertEquals(2, serial.size());
+		assertEquals(2, parallel.size());
+		for (int p = 0; p < 2; p++) {
+			for (int i = 0; i < POPULATION_SIZE; i++) {
+				assertArrayEquals(serial.get(p).get(i).scores, parallel.get(p).get(i).scores, 0.0);
+				assertArrayEquals(serial.get(p).get(i).otherStats, parallel.get(p).get(i).otherStats, 0.0);
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package edu.southwestern.tasks.coevolution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.parameters.CommonConstants;
+import edu.southwestern.util.random.RandomStream;
+
+public class GroupPairingTest {
+
+	private static final int POPULATION_SIZE = 10;
+	private int originalTrials;
+
+	@Before
+	public void setUp() {
+		originalTrials = CommonConstants.trials;
+		CommonConstants.trials = 2;
+	}
+
+	@After
+	public void tearDown() {
+		CommonConstants.trials = originalTrials;
+	}
+
+	/**
+	 * Every round must place every individual in exactly one group
+	 */
+	private static void assertPartition(List<int[]> groups, int groupSize) {
+		boolean[] seen = new boolean[POPULATION_SIZE];
+		assertEquals(POPULATION_SIZE / groupSize, groups.size());
+		for(int[] group : groups) {
+			assertEquals(groupSize, group.length);
+			for(int member : group) {
+				assertFalse(seen[member]);
+				seen[member] = true;
+			}
+		}
+	}
+
+	@Test
+	public void test_randomGroups() {
+		GroupPairing pairing = new RandomGroupPairing();
+		assertEquals(CommonConstants.trials, pairing.rounds(POPULATION_SIZE, 5));
+		for(int round = 0; round < 5; round++) {
+			assertPartition(pairing.round(round, POPULATION_SIZE, 5, new double[POPULATION_SIZE], new ArrayList<int[]>(), new RandomStream(round)), 5);
+		}
+		// Same random numbers give the same groups
+		List<int[]> first = pairing.round(0, POPULATION_SIZE, 2, new double[POPULATION_SIZE], new ArrayList<int[]>(), new RandomStream(7));
+		List<int[]> second = pairing.round(0, POPULATION_SIZE, 2, new double[POPULATION_SIZE], new ArrayList<int[]>(), new RandomStream(7));
+		for(int i = 0; i < first.size(); i++) {
+			assertEquals(first.get(i)[0], second.get(i)[0]);
+			assertEquals(first.get(i)[1], second.get(i)[1]);
+		}
+	}
+
+	/**
+	 * Each trial of a round robin pairs every two individuals exactly once
+	 */
+	@Test
+	public void test_roundRobin() {
+		GroupPairing pairing = new RoundRobinPairing();
+		int rounds = pairing.rounds(POPULATION_SIZE, 2);
+		assertEquals(CommonConstants.trials * (POPULATION_SIZE - 1), rounds);
+		int[][] meetings = new int[POPULATION_SIZE][POPULATION_SIZE];
+		for(int round = 0; round < rounds; round++) {
+			List<int[]> groups = pairing.round(round, POPULATION_SIZE, 2, new double[POPULATION_SIZE], new ArrayList<int[]>(), new RandomStream(round));
+			assertPartition(groups, 2);
+			for(int[] group : groups) {
+				meetings[group[0]][group[1]]++;
+				meetings[group[1]][group[0]]++;
+			}
+		}
+		for(int i = 0; i < POPULATION_SIZE; i++) {
+			for(int j = 0; j < POPULATION_SIZE; j++) {
+				assertEquals(i == j ? 0 : CommonConstants.trials, meetings[i][j]);
+			}
+		}
+	}
+
+	/**
+	 * After the first round, individuals with similar standings are paired,
+	 * unless they already met
+	 */
+	@Test
+	public void test_swiss() {
+		GroupPairing pairing = new SwissPairing();
+		assertTrue(pairing.usesStandings());
+		double[] standings = new double[POPULATION_SIZE];
+		for(int i = 0; i < POPULATION_SIZE; i++) {
+			standings[i] = i;
+		}
+		ArrayList<int[]> earlier = new ArrayList<int[]>();
+		earlier.add(new int[]{9, 8});
+		List<int[]> groups = pairing.round(1, POPULATION_SIZE, 2, standings, earlier, new RandomStream(3));
+		assertPartition(groups, 2);
+		// 9 already met 8, so it meets the next best instead, and 8 meets the one after that
+		assertEquals(9, groups.get(0)[0]);
+		assertEquals(7, groups.get(0)[1]);
+		assertEquals(8, groups.get(1)[0]);
+		assertEquals(6, groups.get(1)[1]);
+		assertEquals(5, groups.get(2)[0]);
+		assertEquals(4, groups.get(2)[1]);
+	}
+}
@@ -0,0 +1,220 @@
+package edu.southwestern.tasks.gvgai;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.parameters.Parameters;
+import gvgai.core.competition.CompetitionParameters;
+import gvgai.core.game.Game;
+import gvgai.core.game.Observation;
+import gvgai.core.game.StateObservation;
+import gvgai.core.game.StateObservationMulti;
+import gvgai.core.player.AbstractPlayer;
+import gvgai.core.vgdl.VGDLFactory;
+import gvgai.core.vgdl.VGDLParser;
+import gvgai.core.vgdl.VGDLRegistry;
+import gvgai.ontology.Types;
+import gvgai.tools.ElapsedCpuTimer;
+import gvgai.tools.IO;
+
+/**
+ * Compares pooled games with the way games were played before: one parsed
+ * game per task that is warmed up before every evaluation. Observations
+ * must not depend on when they are requested, since agents such as
+ * GVGAIReactiveNNPlayer read the observations of each grid cell in order.
+ */
+public class GVGAIGamePoolTest {
+
+	private static final String[] GAMES = new String[] { "zelda", "aliens", "chase" };
+	private static final int[] SEEDS = new int[] { 0, 1, 2 };
+	// Steps each agent advances a copy of the state, comparing observations along the way
+	private static final int LOOKAHEAD = 3;
+
+	private boolean timeConstrained;
+
+	/**
+	 * One step lookahead agent that only depends on its seed. Copies get a
+	 * seed before they are advanced, so their random events are repeatable.
+	 * Each time step, one copy is advanced several steps while its
+	 * observations are requested after every step, and another copy is
+	 * advanced the same way but only observed at the end. Any difference in
+	 * the observation grid, including the order of observations in a cell,
+	 * is recorded. The lists of positions by category are left out, since
+	 * sprite types are only categorized once positions are first asked for.
+	 */
+	private static class ObservingAgent extends AbstractPlayer {
+		private final Random random;
+		// One description of the observations of the game for each time step
+		final ArrayList<String> observed = new ArrayList<String>();
+		final ArrayList<String> mismatches = new ArrayList<String>();
+
+		ObservingAgent(int seed) {
+			random = new Random(seed);
+		}
+
+		@Override
+		public Types.ACTIONS act(StateObservation stateObs, ElapsedCpuTimer elapsedTimer) {
+			observed.add(describe(stateObs));
+			ArrayList<Types.ACTIONS> actions = stateObs.getAvailableActions();
+			int seed = random.nextInt();
+			Types.ACTIONS best = actions.get(random.nextInt(actions.size()));
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for (Types.ACTIONS action : actions) {
+				StateObservation copy = stateObs.copy();
+				copy.setNewSeed(seed);
+				copy.advance(action);
+				double value = copy.getGameScore();
+				if (copy.getGameWinner() == Types.WINNER.PLAYER_LOSES) {
+					value -= 1000;
+				}
+				ArrayList<Observation>[] npcs = copy.getNPCPositions(copy.getAvatarPosition());
+				if (npcs != null) {
+					for (ArrayList<Observation> type : npcs) {
+						if (!type.isEmpty()) {
+							// Stay away from the nearest NPC of each type
+							value += Math.sqrt(type.get(0).sqDist) / 1000.0;
+						}
+					}
+				}
+				if (value > bestValue) {
+					bestValue = value;
+					best = action;
+				}
+			}
+			compareEagerAndLazy(stateObs, best, seed);
+			return best;
+		}
+
+		private void compareEagerAndLazy(StateObservation stateObs, Types.ACTIONS action, int seed) {
+			StateObservation eager = stateObs.copy();
+			StateObservation lazy = stateObs.copy();
+			eager.setNewSeed(seed);
+			lazy.setNewSeed(seed);
+			for (int i = 0; i < LOOKAHEAD && !eager.isGameOver(); i++) {
+				eager.advance(action);
+				lazy.advance(action);
+				describeGrid(eager);
+			}
+			String expected = describeGrid(eager);
+			String actual = describeGrid(lazy);
+			if (!expected.equals(actual)) {
+				mismatches.add("tick " + stateObs.getGameTick() + ":\n" + expected + "\n" + actual);
+			}
+		}
+
+		@Override
+		public Types.ACTIONS act(StateObservationMulti stateObs, ElapsedCpuTimer elapsedTimer) {
+			return act((StateObservation) stateObs, elapsedTimer);
+		}
+	}
+
+	/**
+	 * Everything an agent can observe about the sprites of a state
+	 */
+	private static String describe(StateObservation state) {
+		StringBuilder result = new StringBuilder(describeGrid(state));
+		appendPositions(result, "npc", state.getNPCPositions());
+		appendPositions(result, "immovable", state.getImmovablePositions());
+		appendPositions(result, "movable", state.getMovablePositions());
+		appendPositions(result, "resource", state.getResourcesPositions());
+		appendPositions(result, "portal", state.getPortalsPositions());
+		appendPositions(result, "fromAvatar", state.getFromAvatarSpritesPositions());
+		return result.toString();
+	}
+
+	/**
+	 * The avatar and every observation in the grid, in the order of each cell
+	 */
+	private static String describeGrid(StateObservation state) {
+		StringBuilder result = new StringBuilder();
+		result.append(state.getGameTick()).append(" ").append(state.getGameScore()).append(" ")
+				.append(state.getGameWinner()).append(" ").append(state.getAvatarPosition()).append("\n");
+		ArrayList<Observation>[][] grid = state.getObservationGrid();
+		for (int x = 0; x < grid.length; x++) {
+			for (int y = 0; y < grid[x].length; y++) {
+				for (Observation o : grid[x][y]) {
+					result.append(x).append(",").append(y).append(":").append(o.obsID).append("/").append(o.itype)
+							.append("/").append(o.category).append("/").append(o.position).append(" ");
+				}
+			}
+		}
+		return result.toString();
+	}
+
+	private static void appendPositions(StringBuilder result, String label, ArrayList<Observation>[] positions) {
+		result.append("\n").append(label);
+		if (positions != null) {
+			for (ArrayList<Observation> type : positions) {
+				result.append(" [");
+				for (Observation o : type) {
+					result.append(o.obsID).append("@").append(o.position).append(" ");
+				}
+				result.append("]");
+			}
+		}
+	}
+
+	@Before
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false" });
+		// Agents that take too long would play ACTION_NIL, which depends on timing
+		timeConstrained = CompetitionParameters.TIME_CONSTRAINED;
+		CompetitionParameters.TIME_CONSTRAINED = false;
+	}
+
+	@After
+	public void tearDown() {
+		CompetitionParameters.TIME_CONSTRAINED = timeConstrained;
+		Parameters.parameters = null;
+	}
+
+	/**
+	 * The pooled game of this thread, which is only warmed up the first time,
+	 * plays every seed exactly like a game that is parsed once and warmed up
+	 * before every evaluation, and the observations the agent sees are the
+	 * same at every time step
+	 */
+	@Test
+	public void test_pooledMatchesPrevious() {
+		for (String game : GAMES) {
+			// Sprite types are registered globally, so each game starts from an empty registry, like a task does
+			VGDLFactory.GetInstance().init();
+			VGDLRegistry.GetInstance().init();
+			String gameFile = GVGAISinglePlayerTask.GAMES_PATH + game + ".txt";
+			String levelFile = GVGAISinglePlayerTask.GAMES_PATH + game + "_lvl0.txt";
+			String[] level = GVGAIGamePool.level(levelFile);
+			assertArrayEquals(new IO().readFile(levelFile), level);
+
+			// Previous implementation, as GVGAISinglePlayerTask used to evaluate
+			Game previous = new VGDLParser().parseGame(gameFile);
+			// Each seed is played twice, so the pooled game is reused after a reset
+			for (int repeat = 0; repeat < 2; repeat++) {
+				for (int seed : SEEDS) {
+					ObservingAgent previousAgent = new ObservingAgent(seed);
+					previousAgent.setup(null, seed, false);
+					double[] expected = GVGAIUtil.runOneGame(previous, level, false, previousAgent, seed, 0);
+					previous.reset();
+
+					ObservingAgent pooledAgent = new ObservingAgent(seed);
+					pooledAgent.setup(null, seed, false);
+					double[] actual = GVGAIGamePool.runOneGame(gameFile, level, false, pooledAgent, seed, 0);
+
+					String message = game + " seed " + seed;
+					assertArrayEquals(message, expected, actual, 0);
+					assertTrue(message, actual[2] > 0);
+					assertEquals(message, previousAgent.observed, pooledAgent.observed);
+					assertEquals(message, new ArrayList<String>(), previousAgent.mismatches);
+					assertEquals(message, new ArrayList<String>(), pooledAgent.mismatches);
+				}
+			}
+		}
+	}
+}
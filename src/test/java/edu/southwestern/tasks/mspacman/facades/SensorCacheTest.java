@@ -0,0 +1,176 @@
+package edu.southwestern.tasks.mspacman.facades;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.EnumMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.tasks.mspacman.sensors.mediators.CheckAllDirectionsAtOnceMediator;
+import edu.southwestern.util.datastructures.Pair;
+import pacman.controllers.examples.Legacy2TheReckoning;
+import pacman.controllers.examples.StarterPacMan;
+import pacman.game.Constants.DM;
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+import pacman.game.GameSnapshot;
+
+public class SensorCacheTest {
+
+	private static final boolean[] ALL_GHOSTS = new boolean[] { true, true, true, true };
+
+	CheckAllDirectionsAtOnceMediator mediator;
+	StarterPacMan pacMan;
+	Legacy2TheReckoning ghosts;
+
+	@Before
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false",
+				"task:edu.southwestern.tasks.mspacman.MsPacManTask", "pacManSensorCaching:true",
+				"pacmanInputOutputMediator:edu.southwestern.tasks.mspacman.sensors.mediators.CheckAllDirectionsAtOnceMediator" });
+		mediator = new CheckAllDirectionsAtOnceMediator();
+		pacMan = new StarterPacMan();
+		ghosts = new Legacy2TheReckoning();
+	}
+
+	@After
+	public void tearDown() {
+		Parameters.parameters = null;
+	}
+
+	private void step(Game game) {
+		game.advanceGame(pacMan.getMove(game.copy(), -1), ghosts.getMove(game.copy(), -1));
+	}
+
+	/**
+	 * Sensor values from a new facade, whose cache is empty
+	 */
+	private double[] uncachedInputs(Game game, int currentDir) {
+		return mediator.getInputs(new GameFacade(game), currentDir).clone();
+	}
+
+	/**
+	 * Asks the facade every cached question twice, and compares both answers
+	 * with values that were calculated without the cache
+	 */
+	private void assertMatchesUncached(GameFacade cached, Game game) {
+		int dir = GameFacade.moveToIndex(game.getPacmanLastMoveMade());
+		double[] expected = uncachedInputs(game, dir);
+		for (int i = 0; i < 2; i++) {
+			assertArrayEquals(expected, mediator.getInputs(cached, dir), 0);
+
+			assertArrayEquals(game.getActivePillsIndices(), cached.getActivePillsIndices());
+			assertArrayEquals(game.getActivePowerPillsIndices(), cached.getActivePowerPillsIndices());
+			assertArrayEquals(cached.getThreatGhostLocations(ALL_GHOSTS), cached.getThreatGhostLocations());
+			assertArrayEquals(cached.getEdibleGhostLocations(ALL_GHOSTS), cached.getEdibleGhostLocations());
+
+			int current = game.getPacmanCurrentNodeIndex();
+			int[] pills = game.getActivePillsIndices();
+			if (pills.length > 0) {
+				assertEquals(game.getClosestNodeIndexFromNodeIndex(current, pills, DM.PATH), cached.getClosestNodeIndexFromNodeIndex(current, pills));
+			}
+			int[] neighbors = cached.neighbors(current);
+			for (int d = 0; d < GameFacade.NUM_DIRS; d++) {
+				if (neighbors[d] != -1) {
+					assertEquals(cached.findNextJunctionInDirection(current, d, true), cached.nextJunctionInDirection(current, d, true));
+					assertEquals(cached.findNextJunctionInDirection(current, d, false), cached.nextJunctionInDirection(current, d, false));
+					if (pills.length > 0) {
+						Pair<Integer, int[]> path = new GameFacade(game).getTargetInDir(current, pills, d, true);
+						Pair<Integer, int[]> cachedPath = cached.getTargetInDir(current, pills, d, true);
+						assertEquals(path.t1, cachedPath.t1);
+						assertArrayEquals(path.t2, cachedPath.t2);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A facade kept for a whole game, while the game advances on its own,
+	 * always gives the values of the current time step
+	 */
+	@Test
+	public void test_cachedMatchesUncached() {
+		Game game = new Game(4);
+		GameFacade cached = new GameFacade(game);
+		while (!game.gameOver()) {
+			assertMatchesUncached(cached, game);
+			step(game);
+		}
+	}
+
+	/**
+	 * Cached values belong to one game, so giving the facade another game at
+	 * the same time step discards them
+	 */
+	@Test
+	public void test_invalidatedForAnotherGame() {
+		Game first = new Game(1);
+		Game second = new Game(2);
+		for (int i = 0; i < 150; i++) {
+			step(first);
+			step(second);
+		}
+		assertEquals(first.getTotalTime(), second.getTotalTime());
+		GameFacade cached = new GameFacade(first);
+		assertMatchesUncached(cached, first);
+		cached.newG = second;
+		assertMatchesUncached(cached, second);
+	}
+
+	/**
+	 * Advancing the facade from the same snapshot with different moves
+	 * reaches the same time step twice, but the cache is still discarded
+	 */
+	@Test
+	public void test_invalidatedByFacadeAdvance() {
+		Game game = new Game(3);
+		for (int i = 0; i < 100; i++) {
+			step(game);
+		}
+		GameSnapshot start = game.saveSnapshot(null);
+		GameFacade cached = new GameFacade(game);
+		EnumMap<GHOST, MOVE> ghostMoves = ghosts.getMove(game.copy(), -1);
+		int[] ghostDirs = new int[GHOST.values().length];
+		for (GHOST ghost : GHOST.values()) {
+			ghostDirs[ghost.ordinal()] = GameFacade.moveToIndex(ghostMoves.get(ghost));
+		}
+		int[] neighbors = cached.neighbors(game.getPacmanCurrentNodeIndex());
+		String previousState = null;
+		for (int d = 0; d < GameFacade.NUM_DIRS; d++) {
+			if (neighbors[d] != -1) {
+				game.restoreSnapshot(start);
+				cached.advanceGame(d, ghostDirs);
+				// Same time step, but Ms. Pac-Man went somewhere else
+				assertFalse(game.getGameState().equals(previousState));
+				previousState = game.getGameState();
+				assertMatchesUncached(cached, game);
+			}
+		}
+	}
+
+	/**
+	 * Restoring a snapshot can change the game without changing its time, so
+	 * the cache is told to discard its values
+	 */
+	@Test
+	public void test_invalidate() {
+		Game game = new Game(5);
+		Game other = new Game(6);
+		for (int i = 0; i < 120; i++) {
+			step(game);
+			step(other);
+		}
+		GameFacade cached = new GameFacade(game);
+		assertMatchesUncached(cached, game);
+		game.restoreSnapshot(other.saveSnapshot(null));
+		cached.sensorCache().invalidate();
+		assertMatchesUncached(cached, game);
+	}
+}
@@ -9,6 +9,7 @@ import org.rlcommunity.environments.tetris.TetrisState;
 import org.rlcommunity.rlglue.codec.types.Observation;
 
 import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.tasks.rlglue.tetris.TetrisBitboard;
 
 public class BertsekasTsitsiklisTetrisExtractorTests {
 
@@ -102,4 +103,21 @@ public class BertsekasTsitsiklisTetrisExtractorTests {
 			assertEquals(inputs[i], expected[i], 0.0);
 		}
 	}
+
+	/**
+	 * Tests that features computed from a bit board match those computed
+	 * from an observation of the same board
+	 */
+	@Test
+	public void bitboard_outputs() {
+		TetrisState testState = new TetrisState();
+		BertsekasTsitsiklisTetrisExtractor BTTE = new BertsekasTsitsiklisTetrisExtractor();
+		int[] filled = new int[] { 165, 175, 185, 195, 180, 181, 182, 192, 199, 189, 179, 188, 167, 177, 187, 178 };
+		for (int cell : filled) {
+			testState.worldState[cell] = 1;
+		}
+		TetrisBitboard board = new TetrisBitboard();
+		board.set(testState.worldState);
+		assertArrayEquals(BTTE.extract(testState.get_observation(false)), BTTE.extract(board.rows, 0), 0.0);
+	}
 }
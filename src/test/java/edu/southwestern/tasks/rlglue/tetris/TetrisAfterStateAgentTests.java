@@ -2,6 +2,8 @@ package edu.southwestern.tasks.rlglue.tetris;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -91,6 +93,42 @@ public class TetrisAfterStateAgentTests {
 		CommonConstants.randomArgMaxTieBreak = false;
 		TetrisAfterStateAgent afterStateAgent = new TetrisAfterStateAgent();
 		TetrisState testState = new TetrisState();
+		BertsekasTsitsiklisTetrisExtractor BTTE = new BertsekasTsitsiklisTetrisExtractor();
+		// line piece
+		testState.worldState[166] = 1;
+		testState.worldState[167] = 1;
+		testState.worldState[168] = 1;
+		testState.worldState[169] = 1;
+		// S piece
+		testState.worldState[171] = 1;
+		testState.worldState[172] = 1;
+		testState.worldState[180] = 1;
+		testState.worldState[181] = 1;
+		// J piece 1
+		testState.worldState[192] = 1;
+		testState.worldState[193] = 1;
+		testState.worldState[194] = 1;
+		testState.worldState[182] = 1;
+		// J piece 2
+		testState.worldState[197] = 1;
+		testState.worldState[187] = 1;
+		testState.worldState[177] = 1;
+		testState.worldState[178] = 1;
+		// tri piece
+		testState.worldState[195] = 1;
+		testState.worldState[185] = 1;
+		testState.worldState[175] = 1;
+		testState.worldState[186] = 1;
+
+		// Only the after state reached by moving right twice, rotating and falling
+		// is valued, so the choice does not depend on how ties are broken
+		TetrisState targetState = new TetrisState(testState);
+		for (int action : new int[] { TetrisState.RIGHT, TetrisState.RIGHT, TetrisState.CW, TetrisState.FALL }) {
+			targetState.take_action(action);
+			targetState.update();
+		}
+		assertFalse(targetState.blockMobile);
+		final double[] target = BTTE.scaleInputs(BTTE.extract(targetState.get_observation(false)));
 		afterStateAgent.policy = new Network() {
 			@Override
 			public int numInputs() {
@@ -106,7 +144,7 @@ public class TetrisAfterStateAgentTests {
 			}
 			@Override
 			public double[] process(double[] inputs) {
-				return new double[]{1};
+				return new double[]{Arrays.equals(inputs, target) ? 1 : 0};
 			}
 			@Override
 			public void flush() {
@@ -135,33 +173,7 @@ public class TetrisAfterStateAgentTests {
 				return null;
 			}
 		};
-		BertsekasTsitsiklisTetrisExtractor BTTE = new BertsekasTsitsiklisTetrisExtractor();
-		// line piece
-		testState.worldState[166] = 1;
-		testState.worldState[167] = 1;
-		testState.worldState[168] = 1;
-		testState.worldState[169] = 1;
-		// S piece
-		testState.worldState[171] = 1;
-		testState.worldState[172] = 1;
-		testState.worldState[180] = 1;
-		testState.worldState[181] = 1;
-		// J piece 1
-		testState.worldState[192] = 1;
-		testState.worldState[193] = 1;
-		testState.worldState[194] = 1;
-		testState.worldState[182] = 1;
-		// J piece 2
-		testState.worldState[197] = 1;
-		testState.worldState[187] = 1;
-		testState.worldState[177] = 1;
-		testState.worldState[178] = 1;
-		// tri piece
-		testState.worldState[195] = 1;
-		testState.worldState[185] = 1;
-		testState.worldState[175] = 1;
-		testState.worldState[186] = 1;
-		
+
 		int oldX = testState.currentX;
 		int oldY = testState.currentY;
 		Observation o = testState.get_observation();
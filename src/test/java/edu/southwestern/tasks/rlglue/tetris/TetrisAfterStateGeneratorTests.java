@@ -5,7 +5,12 @@ import static org.junit.Assert.*;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.Before;
@@ -15,6 +20,7 @@ import org.rlcommunity.environments.tetris.TetrisState;
 import edu.southwestern.MMNEAT.MMNEAT;
 import edu.southwestern.evolution.EvolutionaryHistory;
 import edu.southwestern.parameters.Parameters;
+import edu.southwestern.util.random.RandomNumbers;
 
 public class TetrisAfterStateGeneratorTests {
 
@@ -607,4 +613,106 @@ public class TetrisAfterStateGeneratorTests {
 			}
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Breadth first search over TetrisState copies that the bit board search
+	 * replaced. After states are kept in the order they are found, and the
+	 * first action sequence found for each board is kept.
+	 */
+	private static ArrayList<TetrisStateActionPair> breadthFirstAfterStates(TetrisState ts) {
+		int[] actOrder = { TetrisState.FALL, TetrisState.NONE, TetrisState.LEFT, TetrisState.RIGHT, TetrisState.CW, TetrisState.CCW };
+		LinkedHashSet<TetrisStateActionPair> evaluated = new LinkedHashSet<TetrisStateActionPair>();
+		HashSet<TetrisState> seen = new HashSet<TetrisState>();
+		Queue<TetrisStateActionPair> fringe = new LinkedList<TetrisStateActionPair>();
+		fringe.add(new TetrisStateActionPair(ts));
+		seen.add(new TetrisState(ts));
+		while (!fringe.isEmpty()) {
+			TetrisStateActionPair pair = fringe.poll();
+			for (int action : actOrder) {
+				TetrisStateActionPair copy = new TetrisStateActionPair(pair);
+				if (copy.t1.take_action(action)) {
+					copy.t2.add(action);
+					copy.t1.update();
+					if (!copy.t1.blockMobile) {
+						evaluated.add(copy);
+					} else if (!seen.contains(copy.t1)) {
+						fringe.add(copy);
+						seen.add(copy.t1);
+					}
+				}
+			}
+		}
+		return new ArrayList<TetrisStateActionPair>(evaluated);
+	}
+
+	/**
+	 * Random rubble in the lower rows, with holes and overhangs but no full
+	 * rows, and a random piece that has made a few random moves
+	 */
+	private static TetrisState randomState(Random random) {
+		TetrisState ts = new TetrisState();
+		int width = TetrisState.worldWidth;
+		int height = TetrisState.worldHeight;
+		int rubbleRows = random.nextInt(height / 2);
+		for (int y = height - rubbleRows; y < height; y++) {
+			int gap = random.nextInt(width);
+			for (int x = 0; x < width; x++) {
+				if (x != gap && random.nextDouble() < 0.6) {
+					ts.worldState[y * width + x] = 1 + random.nextInt(TetrisState.TETRIS_STATE_NUMBER_POSSIBLE_BLOCKS);
+				}
+			}
+		}
+		ts.spawn_block();
+		for (int moves = random.nextInt(4); moves > 0 && ts.blockMobile; moves--) {
+			if (ts.take_action(random.nextInt(TetrisState.FALL))) {
+				ts.update();
+			}
+		}
+		return ts;
+	}
+
+	/**
+	 * On seeded random boards and pieces, the bit board search finds the same
+	 * after states in the same order as the old breadth first search, with
+	 * the same action sequences. The static method returns the same set.
+	 */
+	@Test
+	public void test_bitboardMatchesBreadthFirstSearch() {
+		RandomNumbers.reset(0);
+		Random random = RandomNumbers.randomGenerator;
+		TetrisAfterStateGenerator generator = new TetrisAfterStateGenerator();
+		int width = TetrisState.worldWidth;
+		int compared = 0;
+		for (int trial = 0; trial < 300; trial++) {
+			TetrisState ts = randomState(random);
+			if (!ts.blockMobile) {
+				continue; // Game over, or the piece already landed
+			}
+			ArrayList<TetrisStateActionPair> expected = breadthFirstAfterStates(ts);
+			assertEquals(expected.size(), generator.generate(ts));
+			for (int i = 0; i < expected.size(); i++) {
+				TetrisState afterState = expected.get(i).t1;
+				int[] rows = generator.afterStateRows();
+				int offset = generator.rowsOffset(i);
+				for (int y = 0; y < TetrisState.worldHeight; y++) {
+					for (int x = 0; x < width; x++) {
+						assertEquals(afterState.worldState[y * width + x] != 0, ((rows[offset + y] >> x) & 1) == 1);
+					}
+				}
+				assertEquals(expected.get(i).t2, generator.actions(i));
+			}
+
+			HashSet<TetrisStateActionPair> generated = TetrisAfterStateGenerator.generateAfterStates(ts);
+			assertEquals(new HashSet<TetrisStateActionPair>(expected), generated);
+			HashMap<TetrisStateActionPair, List<Integer>> actions = new HashMap<TetrisStateActionPair, List<Integer>>();
+			for (TetrisStateActionPair pair : generated) {
+				actions.put(pair, pair.t2);
+			}
+			for (TetrisStateActionPair pair : expected) {
+				assertEquals(pair.t2, actions.get(pair));
+			}
+			compared++;
+		}
+		assertTrue(compared > 250);
+	}
+}
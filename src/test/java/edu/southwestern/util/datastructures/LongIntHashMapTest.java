@@ -0,0 +1,72 @@
+package edu.southwestern.util.datastructures;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongIntHashMapTest {
+
+	@Test
+	public void test_matchesHashMap() {
+		Random r = new Random(0);
+		LongIntHashMap map = new LongIntHashMap();
+		HashMap<Long, Integer> expected = new HashMap<Long, Integer>();
+		for (int i = 0; i < 100000; i++) {
+			// Innovation numbers of inputs and outputs are negative
+			long key = r.nextInt(20000) - 1000;
+			if (r.nextBoolean()) {
+				int value = r.nextInt(1000);
+				map.put(key, value);
+				expected.put(key, value);
+			} else {
+				Integer value = expected.get(key);
+				assertEquals(value == null ? LongIntHashMap.NOT_FOUND : value.intValue(), map.get(key));
+			}
+		}
+		assertEquals(expected.size(), map.size());
+	}
+
+	@Test
+	public void test_removeMatchesHashMap() {
+		Random r = new Random(0);
+		LongIntHashMap map = new LongIntHashMap();
+		HashMap<Long, Integer> expected = new HashMap<Long, Integer>();
+		for (int i = 0; i < 100000; i++) {
+			// Few keys, so that removals happen in long probe sequences
+			long key = r.nextInt(300) - 100;
+			int choice = r.nextInt(3);
+			if (choice == 0) {
+				int value = r.nextInt(1000);
+				map.put(key, value);
+				expected.put(key, value);
+			} else if (choice == 1) {
+				Integer value = expected.remove(key);
+				assertEquals(value == null ? LongIntHashMap.NOT_FOUND : value.intValue(), map.remove(key));
+			} else {
+				Integer value = expected.get(key);
+				assertEquals(value == null ? LongIntHashMap.NOT_FOUND : value.intValue(), map.get(key));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (long key = -100; key < 200; key++) {
+			Integer value = expected.get(key);
+			assertEquals(value == null ? LongIntHashMap.NOT_FOUND : value.intValue(), map.get(key));
+		}
+	}
+
+	@Test
+	public void test_putIfAbsentAndClear() {
+		LongIntHashMap map = new LongIntHashMap(2);
+		assertTrue(map.putIfAbsent(-5, 0));
+		assertFalse(map.putIfAbsent(-5, 1));
+		assertEquals(0, map.get(-5));
+		assertTrue(map.containsKey(-5));
+		assertFalse(map.containsKey(5));
+		map.clear(100);
+		assertEquals(0, map.size());
+		assertEquals(LongIntHashMap.NOT_FOUND, map.get(-5));
+	}
+}
@@ -0,0 +1,116 @@
+package edu.southwestern.util.graphics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.evolution.EvolutionaryHistory;
+import edu.southwestern.evolution.genotypes.TWEANNGenotype;
+import edu.southwestern.networks.Network;
+import edu.southwestern.networks.TWEANN;
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.util.random.RandomNumbers;
+
+public class CPPNRendererTest {
+
+	private static final int NUM_MUTATIONS = 30;
+
+	@Before
+	public void setUp() throws Exception {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false", "recurrency:false", "allowMultipleFunctions:true" });
+		MMNEAT.loadClasses();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		MMNEAT.clearClasses();
+	}
+
+	private TWEANN randomCPPN(int numIn, int numOut) {
+		TWEANNGenotype g = new TWEANNGenotype(numIn, numOut, 0);
+		MMNEAT.genotype = g.copy();
+		EvolutionaryHistory.initArchetype(0);
+		for (int i = 0; i < NUM_MUTATIONS; i++) {
+			g.linkMutation();
+			g.spliceMutation();
+			g.weightMutation();
+		}
+		return g.getPhenotype();
+	}
+
+	/**
+	 * How images were drawn before CPPNRenderer
+	 */
+	private BufferedImage perPixel(Network n, int width, int height, double[] inputMultiples, double time) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				float[] hsb = GraphicsUtil.getHSBFromCPPN(n, x, y, width, height, inputMultiples, time);
+				image.setRGB(x, y, Color.HSBtoRGB(hsb[GraphicsUtil.HUE_INDEX], hsb[GraphicsUtil.SATURATION_INDEX], hsb[GraphicsUtil.BRIGHTNESS_INDEX]));
+			}
+		}
+		return image;
+	}
+
+	private void assertSameImage(BufferedImage expected, BufferedImage actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void test_matchesPerPixelImage() {
+		TWEANN cppn = randomCPPN(4, 3);
+		double[] inputMultiples = new double[] { 1, 1, 0, 1 };
+		// Smaller than one tile, and several tiles with a partial last tile
+		for (int[] size : new int[][] { { 1, 1 }, { 17, 9 }, { 150, 100 } }) {
+			assertSameImage(perPixel(cppn, size[0], size[1], inputMultiples, -1), CPPNRenderer.image(cppn, size[0], size[1], inputMultiples, -1));
+		}
+	}
+
+	@Test
+	public void test_matchesPerPixelAnimation() {
+		TWEANN cppn = randomCPPN(5, 3);
+		double[] inputMultiples = new double[] { 1, 1, 1, 0.5, 1 };
+		double[] times = new double[] { 0, 1 / AnimationUtil.FRAMES_PER_SEC, 2 / AnimationUtil.FRAMES_PER_SEC, 1 };
+		BufferedImage[] frames = CPPNRenderer.images(cppn, 70, 60, times, inputMultiples);
+		for (int i = 0; i < times.length; i++) {
+			assertSameImage(perPixel(cppn, 70, 60, inputMultiples, times[i]), frames[i]);
+		}
+	}
+
+	@Test
+	public void test_noFrames() {
+		TWEANN cppn = randomCPPN(5, 3);
+		assertEquals(0, CPPNRenderer.images(cppn, 70, 60, new double[0], new double[] { 1, 1, 1, 1, 1 }).length);
+	}
+
+	@Test
+	public void test_concurrentCopy() {
+		TWEANN cppn = randomCPPN(4, 3);
+		Network copy = cppn.concurrentCopy();
+		double[][] inputs = new double[CPPNRenderer.TILE_SIZE + 10][];
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = RandomNumbers.randomArray(4);
+		}
+		double[][] outputs = CPPNRenderer.processBatch(cppn, inputs);
+		for (int i = 0; i < 20; i++) {
+			cppn.flush();
+			double[] expected = cppn.process(inputs[i]);
+			assertArrayEquals(expected, outputs[i], 0.0);
+			copy.flush();
+			assertArrayEquals(expected, copy.process(inputs[i]), 0.0);
+		}
+	}
+}
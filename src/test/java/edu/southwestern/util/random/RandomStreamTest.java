@@ -0,0 +1,109 @@
+package edu.southwestern.util.random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.southwestern.MMNEAT.MMNEAT;
+import edu.southwestern.tasks.EvaluationPool;
+
+public class RandomStreamTest {
+
+	static final int SIZE = 100;
+
+	@After
+	public void tearDown() throws Exception {
+		MMNEAT.clearClasses();
+	}
+
+	private static double[] draws(Random random) {
+		double[] result = new double[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			result[i] = random.nextDouble();
+		}
+		return result;
+	}
+
+	/**
+	 * Children only depend on the seed of the parent and their index,
+	 * not on how the parent or other children have been used.
+	 */
+	@Test
+	public void test_child() {
+		RandomStream parent = new RandomStream(10);
+		double[] first = draws(parent.child(3));
+		draws(parent);
+		draws(parent.child(2));
+		assertArrayEquals(first, draws(parent.child(3)), 0.0);
+		assertArrayEquals(first, draws(new RandomStream(10).child(3)), 0.0);
+		assertFalse(draws(parent.child(4))[0] == first[0]);
+		assertFalse(draws(new RandomStream(11).child(3))[0] == first[0]);
+		for (double d : first) {
+			assertTrue(d >= 0 && d < 1);
+		}
+	}
+
+	/**
+	 * randomGenerator uses the stream bound to the current thread,
+	 * and returns to the shared generator when it is unbound.
+	 */
+	@Test
+	public void test_bindStream() {
+		RandomNumbers.reset(5);
+		double sharedFirst = RandomNumbers.randomGenerator.nextDouble();
+		Random previous = RandomNumbers.bindStream(new RandomStream(7));
+		double[] bound = draws(RandomNumbers.randomGenerator);
+		RandomNumbers.unbindStream(previous);
+		assertArrayEquals(draws(new RandomStream(7)), bound, 0.0);
+		// Shared generator continues as a plain java.util.Random would
+		Random plain = new Random(5);
+		assertEquals(plain.nextDouble(), sharedFirst, 0.0);
+		assertEquals(plain.nextDouble(), RandomNumbers.randomGenerator.nextDouble(), 0.0);
+	}
+
+	/**
+	 * Each job draws from its own stream, so the results are the same
+	 * for any number of threads.
+	 */
+	@Test
+	public void test_reproducibleAcrossThreads() throws InterruptedException, ExecutionException {
+		RandomNumbers.reset(0);
+		ArrayList<double[]> serial = drawInJobs(1);
+		for (int threads = 2; threads <= 8; threads *= 2) {
+			ArrayList<double[]> parallel = drawInJobs(threads);
+			for (int i = 0; i < serial.size(); i++) {
+				assertArrayEquals(serial.get(i), parallel.get(i), 0.0);
+			}
+		}
+		EvaluationPool.shutdown();
+	}
+
+	private ArrayList<double[]> drawInJobs(int threads) throws InterruptedException, ExecutionException {
+		ArrayList<Callable<double[]>> jobs = new ArrayList<Callable<double[]>>();
+		final RandomStream generation = RandomNumbers.generationStream(3);
+		for (int i = 0; i < 20; i++) {
+			final int index = i;
+			jobs.add(new Callable<double[]>() {
+				@Override
+				public double[] call() throws Exception {
+					Random previous = RandomNumbers.bindStream(generation.child(index));
+					try {
+						return draws(RandomNumbers.randomGenerator);
+					} finally {
+						RandomNumbers.unbindStream(previous);
+					}
+				}
+			});
+		}
+		return EvaluationPool.evaluate(jobs, threads, null);
+	}
+}
@@ -0,0 +1,232 @@
+package micro.rts;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.util.random.RandomNumbers;
+import micro.ai.RandomBiasedAI;
+import micro.ai.abstraction.LightRush;
+import micro.ai.abstraction.WorkerRush;
+import micro.ai.core.AI;
+import micro.rts.units.Unit;
+import micro.rts.units.UnitTypeTable;
+
+/**
+ * Checks the unit and reserved cell indexes of GameState and
+ * PhysicalGameState against scans of all units and action assignments.
+ */
+public class GameStateTest {
+
+	private static final int MAX_CYCLES = 3000;
+
+	UnitTypeTable utt;
+
+	@Before
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false" });
+		RandomNumbers.reset(0);
+		utt = new UnitTypeTable();
+	}
+
+	@After
+	public void tearDown() {
+		Parameters.parameters = null;
+	}
+
+	private static Unit scanUnitAt(PhysicalGameState pgs, int x, int y) {
+		for (Unit u : pgs.getUnits()) {
+			if (u.getX() == x && u.getY() == y) return u;
+		}
+		return null;
+	}
+
+	private static Unit scanUnit(PhysicalGameState pgs, long ID) {
+		for (Unit u : pgs.getUnits()) {
+			if (u.getID() == ID) return u;
+		}
+		return null;
+	}
+
+	private static boolean scanFree(GameState gs, int x, int y) {
+		PhysicalGameState pgs = gs.getPhysicalGameState();
+		if (pgs.getTerrain(x, y) != PhysicalGameState.TERRAIN_NONE) return false;
+		if (scanUnitAt(pgs, x, y) != null) return false;
+		for (UnitActionAssignment uaa : gs.getUnitActions().values()) {
+			if (uaa.action.getType() == UnitAction.TYPE_MOVE || uaa.action.getType() == UnitAction.TYPE_PRODUCE) {
+				int direction = uaa.action.getDirection();
+				if (uaa.unit.getX() + UnitAction.DIRECTION_OFFSET_X[direction] == x
+						&& uaa.unit.getY() + UnitAction.DIRECTION_OFFSET_Y[direction] == y) return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Every cell and every unit ID gives the same answer as a scan
+	 */
+	private void assertMatchesScan(GameState gs) {
+		PhysicalGameState pgs = gs.getPhysicalGameState();
+		boolean[][] allFree = gs.getAllFree();
+		boolean[][] physicalFree = pgs.getAllFree();
+		for (int x = 0; x < pgs.getWidth(); x++) {
+			for (int y = 0; y < pgs.getHeight(); y++) {
+				Unit u = scanUnitAt(pgs, x, y);
+				assertSame(u, pgs.getUnitAt(x, y));
+				assertEquals(scanFree(gs, x, y), gs.free(x, y));
+				assertEquals(scanFree(gs, x, y), allFree[x][y]);
+				assertEquals(pgs.getTerrain(x, y) == PhysicalGameState.TERRAIN_NONE && u == null, physicalFree[x][y]);
+			}
+		}
+		long maxID = 0;
+		for (Unit u : pgs.getUnits()) {
+			assertSame(u, pgs.getUnit(u.getID()));
+			assertSame(u, gs.getUnit(u.getID()));
+			assertTrue(pgs.containsUnit(u));
+			maxID = Math.max(maxID, u.getID());
+		}
+		// IDs of units that died, or were never used
+		for (long ID = 0; ID <= maxID + 1; ID++) {
+			assertSame(scanUnit(pgs, ID), pgs.getUnit(ID));
+		}
+		assertFalse(pgs.containsUnit(new Unit(0, utt.getUnitType("Worker"), 0, 0)));
+		assertTrue(gs.integrityCheck());
+	}
+
+	/**
+	 * A clone has copies of all units and assignments, in the same order, and
+	 * its own index
+	 */
+	private void assertCloneMatches(GameState gs) {
+		GameState clone = gs.clone();
+		assertEquals(gs.getTime(), clone.getTime());
+		List<Unit> units = gs.getUnits();
+		List<Unit> cloneUnits = clone.getUnits();
+		assertEquals(units.size(), cloneUnits.size());
+		for (int i = 0; i < units.size(); i++) {
+			Unit u = units.get(i);
+			Unit c = cloneUnits.get(i);
+			assertNotSame(u, c);
+			assertEquals(u.toString(), c.toString());
+			UnitActionAssignment uaa = gs.getActionAssignment(u);
+			UnitActionAssignment cloneUaa = clone.getActionAssignment(c);
+			if (uaa == null) {
+				assertNull(cloneUaa);
+			} else {
+				assertSame(c, cloneUaa.unit);
+				assertEquals(uaa.action.toString(), cloneUaa.action.toString());
+				assertEquals(uaa.time, cloneUaa.time);
+			}
+		}
+		assertEquals(gs.getUnitActions().size(), clone.getUnitActions().size());
+		assertMatchesScan(clone);
+	}
+
+	/**
+	 * Plays a game in which units move, produce other units and die, checking
+	 * the indexes before and after every cycle
+	 */
+	private void playAndCheck(String map, AI ai1, AI ai2) throws Exception {
+		GameState gs = new GameState(PhysicalGameState.load(map, utt), utt);
+		HashSet<Long> initialIDs = new HashSet<Long>();
+		for (Unit u : gs.getUnits()) initialIDs.add(u.getID());
+		HashSet<Long> seenIDs = new HashSet<Long>(initialIDs);
+		boolean died = false;
+		boolean gameover = false;
+		while (!gameover && gs.getTime() < MAX_CYCLES) {
+			gs.issueSafe(ai1.getAction(0, gs));
+			gs.issueSafe(ai2.getAction(1, gs));
+			assertMatchesScan(gs);
+			if (gs.getTime() % 50 == 0) {
+				assertCloneMatches(gs);
+			}
+			int before = gs.getUnits().size();
+			HashSet<Long> beforeIDs = new HashSet<Long>();
+			for (Unit u : gs.getUnits()) beforeIDs.add(u.getID());
+			gameover = gs.cycle();
+			for (Unit u : gs.getUnits()) {
+				seenIDs.add(u.getID());
+				beforeIDs.remove(u.getID());
+			}
+			died |= !beforeIDs.isEmpty() && gs.getUnits().size() <= before;
+			assertMatchesScan(gs);
+		}
+		assertTrue("no unit was produced", seenIDs.size() > initialIDs.size());
+		assertTrue("no unit died", died);
+	}
+
+	@Test
+	public void test_indexMatchesScanWorkerRushVsLightRush() throws Exception {
+		playAndCheck("data/microRTS/maps/8x8/basesWorkers8x8.xml", new WorkerRush(utt), new LightRush(utt));
+	}
+
+	@Test
+	public void test_indexMatchesScanRandomBiasedVsWorkerRush() throws Exception {
+		playAndCheck("data/microRTS/maps/16x16/basesWorkers16x16.xml", new RandomBiasedAI(utt), new WorkerRush(utt));
+	}
+
+	/**
+	 * The index follows units that are added, moved and removed, and is
+	 * rebuilt when the list of units is changed directly
+	 */
+	@Test
+	public void test_indexFollowsChanges() {
+		PhysicalGameState pgs = new PhysicalGameState(4, 4);
+		pgs.addPlayer(new Player(0, 5));
+		pgs.addPlayer(new Player(1, 5));
+		GameState gs = new GameState(pgs, utt);
+		Unit worker = new Unit(0, utt.getUnitType("Worker"), 0, 0);
+		Unit base = new Unit(1, utt.getUnitType("Base"), 3, 3, 0);
+		pgs.addUnit(worker);
+		pgs.addUnit(base);
+		assertMatchesScan(gs);
+
+		pgs.moveUnit(worker, 1, 0);
+		assertMatchesScan(gs);
+		assertNull(pgs.getUnitAt(0, 0));
+
+		// A unit moved without moveUnit is found once the index is invalidated
+		worker.setX(2);
+		pgs.invalidateIndex();
+		assertMatchesScan(gs);
+
+		// Units added to the list directly change its size, which rebuilds the index
+		Unit light = new Unit(0, utt.getUnitType("Light"), 0, 3);
+		pgs.getUnits().add(light);
+		assertMatchesScan(gs);
+
+		pgs.removeUnit(worker);
+		assertMatchesScan(gs);
+		assertNull(pgs.getUnit(worker.getID()));
+
+		// Reserved cells follow issued actions
+		PlayerAction pa = new PlayerAction();
+		pa.addUnitAction(light, new UnitAction(UnitAction.TYPE_MOVE, UnitAction.DIRECTION_UP));
+		gs.issueSafe(pa);
+		assertFalse(gs.free(0, 2));
+		assertMatchesScan(gs);
+		gs.removeUnit(light);
+		assertTrue(gs.free(0, 2));
+		assertMatchesScan(gs);
+
+		// Two units in the same cell cannot be indexed, so lookups scan
+		Unit first = new Unit(0, utt.getUnitType("Worker"), 1, 1);
+		Unit second = new Unit(0, utt.getUnitType("Worker"), 1, 1);
+		pgs.getUnits().add(first);
+		pgs.getUnits().add(second);
+		assertSame(first, pgs.getUnitAt(1, 1));
+		assertSame(second, pgs.getUnit(second.getID()));
+		assertFalse(gs.free(1, 1));
+	}
+}
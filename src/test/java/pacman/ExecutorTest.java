@@ -0,0 +1,66 @@
+package pacman;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.parameters.Parameters;
+import pacman.controllers.examples.Legacy2TheReckoning;
+import pacman.controllers.examples.StarterPacMan;
+import pacman.game.Game;
+
+public class ExecutorTest {
+
+	Executor exec;
+
+	@Before
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false" });
+		exec = new Executor();
+	}
+
+	@After
+	public void tearDown() {
+		Parameters.parameters = null;
+	}
+
+	private static void assertSameOutcome(Game expected, Game actual) {
+		assertEquals(expected.getScore(), actual.getScore());
+		assertEquals(expected.getTotalTime(), actual.getTotalTime());
+		assertEquals(expected.getCurrentLevel(), actual.getCurrentLevel());
+		assertEquals(expected.getPacmanNumberOfLivesRemaining(), actual.getPacmanNumberOfLivesRemaining());
+	}
+
+	/**
+	 * Headless games call the controllers on the game thread, but play out
+	 * exactly like runExperiment, which also waits for every move
+	 */
+	@Test
+	public void test_headlessMatchesRunExperiment() {
+		for (long seed = 0; seed < 5; seed++) {
+			Game headless = new Game(seed);
+			exec.runGameHeadless(new StarterPacMan(), new Legacy2TheReckoning(), false, headless);
+			Game experiment = new Game(seed);
+			exec.runExperiment(new StarterPacMan(), new Legacy2TheReckoning(), experiment);
+			assertSameOutcome(experiment, headless);
+		}
+	}
+
+	/**
+	 * These controllers answer well within the time limit, so the timed
+	 * executor with controller threads reaches the same end as a headless
+	 * game that enforces the time limit
+	 */
+	@Test
+	public void test_headlessMatchesRunGameTimedSpeedOptimised() {
+		for (long seed = 0; seed < 2; seed++) {
+			Game headless = new Game(seed);
+			exec.runGameHeadless(new StarterPacMan(), new Legacy2TheReckoning(), true, headless);
+			Game timed = new Game(seed);
+			exec.runGameTimedSpeedOptimised(new StarterPacMan(), new Legacy2TheReckoning(), false, false, timed);
+			assertSameOutcome(timed, headless);
+		}
+	}
+}
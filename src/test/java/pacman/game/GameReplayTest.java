@@ -0,0 +1,69 @@
+package pacman.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.parameters.Parameters;
+import edu.southwestern.util.file.FileUtilities;
+
+public class GameReplayTest {
+
+	File replayFile;
+
+	@Before
+	public void setUp() throws IOException {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false" });
+		replayFile = File.createTempFile("replay", ".bin");
+		replayFile.deleteOnExit();
+	}
+
+	@After
+	public void tearDown() {
+		replayFile.delete();
+		Parameters.parameters = null;
+	}
+
+	/**
+	 * A replay written one time step at a time and loaded again reproduces
+	 * the state of the game at every time step
+	 */
+	@Test
+	public void test_replayReproducesEveryFrame() throws IOException {
+		GameSnapshotTest.PlayedGame played = GameSnapshotTest.play(7, 1);
+		Game game = new Game(100);
+		try (GameReplay.Writer writer = new GameReplay.Writer(replayFile.getPath())) {
+			for (GameSnapshot snapshot : played.snapshots) {
+				game.restoreSnapshot(snapshot);
+				writer.append(game);
+			}
+		}
+		assertTrue(GameReplay.isBinaryReplay(replayFile.getPath()));
+
+		ArrayList<GameSnapshot> loaded = GameReplay.load(replayFile.getPath());
+		assertEquals(played.states.size(), loaded.size());
+		Game replayed = new Game(200);
+		for (int step = 0; step < loaded.size(); step++) {
+			replayed.restoreSnapshot(loaded.get(step));
+			assertEquals(played.states.get(step), replayed.getGameState());
+		}
+	}
+
+	/**
+	 * Text replays made of game states are not mistaken for binary replays
+	 */
+	@Test
+	public void test_textReplayIsNotBinary() {
+		Game game = new Game(0);
+		FileUtilities.simpleFileWrite(replayFile.getPath(), game.getGameState() + "\n");
+		assertFalse(GameReplay.isBinaryReplay(replayFile.getPath()));
+	}
+}
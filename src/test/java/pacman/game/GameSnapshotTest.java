@@ -0,0 +1,151 @@
+package pacman.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.southwestern.parameters.Parameters;
+import pacman.controllers.Controller;
+import pacman.controllers.examples.Legacy2TheReckoning;
+import pacman.controllers.examples.StarterPacMan;
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+
+public class GameSnapshotTest {
+
+	/**
+	 * Game played to the end, with the state and moves of every time step
+	 */
+	static class PlayedGame {
+		ArrayList<String> states = new ArrayList<String>();
+		ArrayList<GameSnapshot> snapshots = new ArrayList<GameSnapshot>();
+		ArrayList<MOVE> pacManMoves = new ArrayList<MOVE>();
+		ArrayList<EnumMap<GHOST, MOVE>> ghostMoves = new ArrayList<EnumMap<GHOST, MOVE>>();
+	}
+
+	static PlayedGame play(long seed, int maze) {
+		PlayedGame played = new PlayedGame();
+		Controller<MOVE> pacMan = new StarterPacMan();
+		Controller<EnumMap<GHOST, MOVE>> ghosts = new Legacy2TheReckoning();
+		Game game = new Game(seed, maze);
+		while (true) {
+			played.states.add(game.getGameState());
+			played.snapshots.add(game.saveSnapshot(null));
+			if (game.gameOver()) {
+				return played;
+			}
+			MOVE pacManMove = pacMan.getMove(game.copy(), -1);
+			EnumMap<GHOST, MOVE> ghostMove = ghosts.getMove(game.copy(), -1);
+			played.pacManMoves.add(pacManMove);
+			played.ghostMoves.add(ghostMove.clone());
+			game.advanceGame(pacManMove, ghostMove);
+		}
+	}
+
+	PlayedGame played;
+	// Game in a maze with a different number of pills
+	PlayedGame otherMaze;
+
+	@Before
+	public void setUp() {
+		Parameters.initializeParameterCollections(new String[] { "io:false", "netio:false" });
+		played = play(3, 0);
+		otherMaze = play(5, 2);
+	}
+
+	@After
+	public void tearDown() {
+		Parameters.parameters = null;
+	}
+
+	/**
+	 * One game restores snapshots of both games, in random order, and has the
+	 * state that was saved each time
+	 */
+	@Test
+	public void test_restoreMatchesGameState() {
+		Random random = new Random(0);
+		Game restored = new Game(100);
+		for (int i = 0; i < played.snapshots.size() + otherMaze.snapshots.size(); i++) {
+			PlayedGame source = random.nextBoolean() ? played : otherMaze;
+			int step = random.nextInt(source.snapshots.size());
+			restored.restoreSnapshot(source.snapshots.get(step));
+			assertEquals(source.states.get(step), restored.getGameState());
+		}
+	}
+
+	/**
+	 * The random number generator is part of the snapshot, so a restored game
+	 * continues exactly like the original when given the same moves
+	 */
+	@Test
+	public void test_restoredGameContinuesTheSame() {
+		for (int start = 0; start < played.pacManMoves.size(); start += 500) {
+			Game restored = new Game(100);
+			restored.restoreSnapshot(played.snapshots.get(start));
+			for (int step = start; step < played.pacManMoves.size(); step++) {
+				restored.advanceGame(played.pacManMoves.get(step), played.ghostMoves.get(step).clone());
+				assertEquals(played.states.get(step + 1), restored.getGameState());
+			}
+			assertTrue(restored.gameOver());
+		}
+	}
+
+	/**
+	 * Saving a restored game gives the same snapshot back
+	 */
+	@Test
+	public void test_saveRestoredSnapshot() {
+		Game restored = new Game(100);
+		GameSnapshot saved = new GameSnapshot();
+		for (GameSnapshot snapshot : played.snapshots) {
+			restored.restoreSnapshot(snapshot);
+			restored.saveSnapshot(saved);
+			assertEquals(snapshot.length, saved.length);
+			for (int i = 0; i < snapshot.length; i++) {
+				assertEquals(snapshot.data[i], saved.data[i]);
+			}
+		}
+	}
+
+	/**
+	 * Snapshots written as differences from the previous snapshot are read
+	 * back unchanged, and reading stops at the end of the data
+	 */
+	@Test
+	public void test_deltaRoundTrip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		GameSnapshot previous = null;
+		for (GameSnapshot snapshot : played.snapshots) {
+			snapshot.writeDelta(out, previous);
+			previous = snapshot;
+		}
+		out.close();
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		Game restored = new Game(100);
+		previous = null;
+		for (int step = 0; step < played.snapshots.size(); step++) {
+			GameSnapshot read = new GameSnapshot();
+			assertTrue(read.readDelta(in, previous));
+			restored.restoreSnapshot(read);
+			assertEquals(played.states.get(step), restored.getGameState());
+			previous = read;
+		}
+		assertFalse(new GameSnapshot().readDelta(in, previous));
+	}
+}
@@ -0,0 +1,78 @@
+package pacman.game.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+import pacman.game.Constants;
+
+public class MazeTest {
+
+	/**
+	 * Distances read through the memory-mapped binary copy equal the values
+	 * in the text distance files, and the copy is not written to the data
+	 * directory
+	 */
+	@Test
+	public void test_mappedDistancesMatchText() throws IOException {
+		for (int i = 0; i < Constants.NUM_MAZES; i++) {
+			Maze maze = new Maze(i);
+			File textFile = new File(Constants.pathDistances, Constants.distNames[i]);
+			File binaryFile = Maze.binaryDistancesFile(textFile);
+			assertTrue(binaryFile.isFile());
+			assertFalse(binaryFile.getAbsoluteFile().getParentFile().equals(textFile.getAbsoluteFile().getParentFile()));
+			assertTrue(maze.shortestPathDistances.isDirect());
+
+			int index = 0;
+			try (BufferedReader in = new BufferedReader(new FileReader(textFile))) {
+				for (String line = in.readLine(); line != null; line = in.readLine()) {
+					assertEquals(Integer.parseInt(line), maze.shortestPathDistances.get(index++));
+				}
+			}
+			assertEquals(index, maze.shortestPathDistances.capacity());
+
+			// A second maze maps the copy that was already written
+			long written = binaryFile.lastModified();
+			assertEquals(maze.shortestPathDistances, new Maze(i).shortestPathDistances);
+			assertEquals(written, binaryFile.lastModified());
+		}
+	}
+
+	/**
+	 * Distances are stored as shorts, so a text file with a larger distance is
+	 * rejected instead of wrapping around
+	 */
+	@Test
+	public void test_largeDistanceRejected() throws IOException {
+		File textFile = File.createTempFile("distances", ".txt");
+		try {
+			try (PrintStream out = new PrintStream(textFile)) {
+				out.println(0);
+				out.println(Short.MAX_VALUE);
+			}
+			assertEquals(Short.MAX_VALUE, Maze.readTextDistances(textFile, 2)[1]);
+
+			try (PrintStream out = new PrintStream(textFile)) {
+				out.println(0);
+				out.println(Short.MAX_VALUE + 1);
+			}
+			try {
+				Maze.readTextDistances(textFile, 2);
+				fail("Distance larger than a short was accepted");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		} finally {
+			textFile.delete();
+		}
+	}
+}